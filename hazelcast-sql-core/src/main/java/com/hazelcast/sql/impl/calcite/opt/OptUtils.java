@@ -76,6 +76,20 @@ public final class OptUtils {
         return RelOptRule.operand(cls, convention, RelOptRule.some(childOperand));
     }
 
+    /**
+     * Get operand matching a node with two child nodes, e.g. a join.
+     *
+     * @param cls Node class.
+     * @param convention Convention.
+     * @return Operand.
+     */
+    public static <R extends RelNode> RelOptRuleOperand parentChildren(Class<R> cls, Convention convention) {
+        RelOptRuleOperand leftOperand = RelOptRule.operand(RelNode.class, RelOptRule.any());
+        RelOptRuleOperand rightOperand = RelOptRule.operand(RelNode.class, RelOptRule.any());
+
+        return RelOptRule.operand(cls, convention, RelOptRule.some(leftOperand, rightOperand));
+    }
+
     /**
      * Add a single trait to the trait set.
      *
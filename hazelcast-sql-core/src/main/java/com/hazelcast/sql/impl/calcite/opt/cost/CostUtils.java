@@ -103,6 +103,58 @@ public final class CostUtils {
         return rowCount * expressionCount;
     }
 
+    /**
+     * Get CPU cost of an aggregation. Every input row is hashed on the group key, and then passed to every aggregate function.
+     *
+     * @param rowCount Input row count.
+     * @param groupKeyCount Number of columns in the group key.
+     * @param aggregateCount Number of aggregate functions.
+     * @return CPU cost.
+     */
+    public static double getAggregateCpu(double rowCount, int groupKeyCount, int aggregateCount) {
+        return rowCount * (groupKeyCount + aggregateCount);
+    }
+
+    /**
+     * Get CPU cost of a hash join. Every row of the right input is put into the hash table, and then every row of the left
+     * input probes it.
+     *
+     * @param leftRowCount Left input row count.
+     * @param rightRowCount Right input row count.
+     * @param rowCount Number of joined rows.
+     * @return CPU cost.
+     */
+    public static double getHashJoinCpu(double leftRowCount, double rightRowCount, double rowCount) {
+        return leftRowCount + rightRowCount + rowCount;
+    }
+
+    /**
+     * Get CPU cost of an index nested loop join. Every outer row performs an index lookup, while the inner input is never
+     * scanned as a whole.
+     *
+     * @param outerRowCount Outer input row count.
+     * @param rowCount Number of joined rows.
+     * @param indexType Type of the index used for lookups.
+     * @return CPU cost.
+     */
+    public static double getIndexNestedLoopJoinCpu(double outerRowCount, double rowCount, IndexType indexType) {
+        return outerRowCount * indexScanCpuMultiplier(indexType) + rowCount;
+    }
+
+    /**
+     * Get CPU cost of a sort. The full sort performs N*log(N) comparisons, while the top-N sort maintains a heap of the
+     * requested size, performing N*log(K) comparisons.
+     *
+     * @param rowCount Input row count.
+     * @param fetchCount Number of rows to keep, or {@code null} if all rows are kept.
+     * @return CPU cost.
+     */
+    public static double getSortCpu(double rowCount, Double fetchCount) {
+        double heapSize = fetchCount != null ? Math.min(fetchCount, rowCount) : rowCount;
+
+        return rowCount * Math.max(1.0d, Math.log(heapSize) / Math.log(2));
+    }
+
     public static int getEstimatedRowWidth(RelNode rel) {
         int res = 0;
 
@@ -16,6 +16,7 @@
 
 package com.hazelcast.sql.impl.calcite.opt.logical;
 
+import org.apache.calcite.rel.rules.FilterJoinRule;
 import org.apache.calcite.rel.rules.FilterMergeRule;
 import org.apache.calcite.rel.rules.FilterProjectTransposeRule;
 import org.apache.calcite.rel.rules.ProjectFilterTransposeRule;
@@ -40,6 +41,8 @@ public final class LogicalRules {
             FilterMergeRule.INSTANCE,
             FilterProjectTransposeRule.INSTANCE,
             FilterIntoScanLogicalRule.INSTANCE,
+            FilterJoinRule.FILTER_ON_JOIN,
+            FilterJoinRule.JOIN,
 
             // Project rules.
             ProjectMergeRule.INSTANCE,
@@ -56,6 +59,9 @@ public final class LogicalRules {
             MapScanLogicalRule.INSTANCE,
             FilterLogicalRule.INSTANCE,
             ProjectLogicalRule.INSTANCE,
+            AggregateLogicalRule.INSTANCE,
+            SortLogicalRule.INSTANCE,
+            JoinLogicalRule.INSTANCE,
             ValuesLogicalRule.INSTANCE
         );
     }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.calcite.opt.physical;
+
+import com.google.common.collect.ImmutableList;
+import com.hazelcast.sql.impl.calcite.opt.HazelcastConventions;
+import com.hazelcast.sql.impl.calcite.opt.OptUtils;
+import com.hazelcast.sql.impl.calcite.opt.distribution.DistributionTrait;
+import com.hazelcast.sql.impl.calcite.opt.distribution.DistributionTraitDef;
+import com.hazelcast.sql.impl.calcite.opt.logical.AggregateLogicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.RootExchangePhysicalRel;
+import com.hazelcast.sql.impl.plan.node.AggregatePhase;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.util.ImmutableBitSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.hazelcast.sql.impl.calcite.opt.distribution.DistributionType.PARTITIONED;
+
+/**
+ * Converts logical aggregate to physical aggregate.
+ * <p>
+ * If the input is partitioned between several members, the aggregation is split into two phases. Every member aggregates
+ * its local part of the input first, then partial results are sent to the root member, where they are merged. This way
+ * only a single row per group is sent over the network from every member, rather than the whole input.
+ * <p>
+ * Otherwise the input is aggregated in a single phase.
+ */
+public final class AggregatePhysicalRule extends RelOptRule {
+    public static final RelOptRule INSTANCE = new AggregatePhysicalRule();
+
+    private AggregatePhysicalRule() {
+        super(
+            OptUtils.parentChild(AggregateLogicalRel.class, RelNode.class, HazelcastConventions.LOGICAL),
+            AggregatePhysicalRule.class.getSimpleName()
+        );
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        AggregateLogicalRel logicalAggregate = call.rel(0);
+        RelNode input = logicalAggregate.getInput();
+
+        RelNode convertedInput = OptUtils.toPhysicalInput(input);
+
+        Collection<RelNode> physicalInputs = OptUtils.getPhysicalRelsFromSubset(convertedInput);
+
+        for (RelNode physicalInput : physicalInputs) {
+            DistributionTrait distribution = OptUtils.getDistribution(physicalInput);
+
+            RelNode transform;
+
+            if (distribution.getType() == PARTITIONED && logicalAggregate.getMemberCount() > 1) {
+                transform = createTwoPhaseAggregate(logicalAggregate, physicalInput);
+            } else {
+                transform = new AggregatePhysicalRel(
+                    logicalAggregate.getCluster(),
+                    physicalInput.getTraitSet(),
+                    physicalInput,
+                    logicalAggregate.getGroupSet(),
+                    logicalAggregate.getGroupSets(),
+                    logicalAggregate.getAggCallList(),
+                    AggregatePhase.COMPLETE
+                );
+            }
+
+            call.transformTo(transform);
+        }
+    }
+
+    /**
+     * Create the local aggregate, the exchange which collects partial results on the root member, and the final aggregate
+     * which merges them.
+     *
+     * @param logicalAggregate Logical aggregate.
+     * @param physicalInput Partitioned physical input.
+     * @return Final aggregate.
+     */
+    private static RelNode createTwoPhaseAggregate(AggregateLogicalRel logicalAggregate, RelNode physicalInput) {
+        AggregatePhysicalRel localAggregate = new AggregatePhysicalRel(
+            logicalAggregate.getCluster(),
+            physicalInput.getTraitSet(),
+            physicalInput,
+            logicalAggregate.getGroupSet(),
+            logicalAggregate.getGroupSets(),
+            logicalAggregate.getAggCallList(),
+            AggregatePhase.LOCAL
+        );
+
+        DistributionTraitDef distributionDef = OptUtils.getDistributionDef(logicalAggregate);
+
+        RelTraitSet rootTraitSet = OptUtils.toPhysicalConvention(
+            logicalAggregate.getCluster().getPlanner().emptyTraitSet(),
+            distributionDef.getTraitRoot()
+        );
+
+        RootExchangePhysicalRel exchange = new RootExchangePhysicalRel(
+            logicalAggregate.getCluster(),
+            rootTraitSet,
+            localAggregate
+        );
+
+        // Output of the local aggregate is the group columns followed by the aggregate calls, so the final aggregate groups
+        // by the leading columns and refers to the partial result of every call by its position.
+        int groupCount = logicalAggregate.getGroupCount();
+        List<AggregateCall> localAggCalls = logicalAggregate.getAggCallList();
+        List<AggregateCall> finalAggCalls = new ArrayList<>(localAggCalls.size());
+
+        for (int i = 0; i < localAggCalls.size(); i++) {
+            AggregateCall localAggCall = localAggCalls.get(i);
+
+            finalAggCalls.add(localAggCall.copy(ImmutableList.of(groupCount + i), -1, localAggCall.getCollation()));
+        }
+
+        ImmutableBitSet finalGroupSet = ImmutableBitSet.range(groupCount);
+
+        return new AggregatePhysicalRel(
+            logicalAggregate.getCluster(),
+            rootTraitSet,
+            exchange,
+            finalGroupSet,
+            ImmutableList.of(finalGroupSet),
+            finalAggCalls,
+            AggregatePhase.FINAL
+        );
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.calcite.opt.physical;
+
+import com.hazelcast.sql.impl.calcite.opt.AbstractJoinRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.visitor.PhysicalRelVisitor;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rex.RexNode;
+
+/**
+ * Physical hash join. The right input is collected into a hash table, which is then probed by the rows of the left input.
+ * <p>
+ * Traits:
+ * <ul>
+ *     <li><b>Collation</b>: inherited from the left input, since it is streamed through the hash table</li>
+ *     <li><b>Distribution</b>: inherited from the left input</li>
+ * </ul>
+ */
+public class HashJoinPhysicalRel extends AbstractJoinRel implements PhysicalRel {
+
+    private final JoinKeys keys;
+
+    public HashJoinPhysicalRel(
+        RelOptCluster cluster,
+        RelTraitSet traits,
+        RelNode left,
+        RelNode right,
+        RexNode condition,
+        JoinRelType joinType
+    ) {
+        super(cluster, traits, left, right, condition, joinType);
+
+        keys = JoinKeys.of(this);
+    }
+
+    public JoinKeys getKeys() {
+        return keys;
+    }
+
+    @Override
+    public final Join copy(
+        RelTraitSet traitSet,
+        RexNode condition,
+        RelNode left,
+        RelNode right,
+        JoinRelType joinType,
+        boolean semiJoinDone
+    ) {
+        return new HashJoinPhysicalRel(getCluster(), traitSet, left, right, condition, joinType);
+    }
+
+    @Override
+    public void visit(PhysicalRelVisitor visitor) {
+        ((PhysicalRel) left).visit(visitor);
+        ((PhysicalRel) right).visit(visitor);
+
+        visitor.onHashJoin(this);
+    }
+}
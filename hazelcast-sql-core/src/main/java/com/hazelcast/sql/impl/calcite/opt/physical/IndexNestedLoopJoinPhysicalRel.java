@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.calcite.opt.physical;
+
+import com.hazelcast.sql.impl.calcite.opt.cost.CostUtils;
+import com.hazelcast.sql.impl.calcite.opt.physical.visitor.PhysicalRelVisitor;
+import com.hazelcast.sql.impl.calcite.schema.HazelcastTable;
+import com.hazelcast.sql.impl.schema.map.AbstractMapTable;
+import com.hazelcast.sql.impl.schema.map.MapTableIndex;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.SingleRel;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexNode;
+
+import java.util.List;
+
+/**
+ * Physical index nested loop join. For every row of the outer input, the index of the inner map is queried for the
+ * entries with the same key.
+ * <p>
+ * The inner map is not an input of this rel, since it is never scanned as a whole. Only the local partitions of the inner
+ * map are queried, hence for several members the outer input must be available on every member.
+ * <p>
+ * Traits:
+ * <ul>
+ *     <li><b>Collation</b>: inherited from the outer input</li>
+ *     <li><b>Distribution</b>: inherited from the outer input for a single member, {@code PARTITIONED} otherwise</li>
+ * </ul>
+ */
+public class IndexNestedLoopJoinPhysicalRel extends SingleRel implements PhysicalRel {
+
+    private final RelOptTable table;
+    private final MapTableIndex index;
+    private final List<Integer> outerKeys;
+    private final RexNode condition;
+    private final JoinRelType joinType;
+    private final double rowCount;
+
+    /**
+     * Constructor.
+     *
+     * @param table Inner table.
+     * @param index Inner map index, which components correspond to the outer keys.
+     * @param outerKeys Indexes of the outer columns to be looked up in the index.
+     * @param condition Condition to be evaluated on the joined row, or {@code null}.
+     * @param rowType Row type of the join.
+     * @param rowCount Estimated row count of the join.
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public IndexNestedLoopJoinPhysicalRel(
+        RelOptCluster cluster,
+        RelTraitSet traits,
+        RelNode input,
+        RelOptTable table,
+        MapTableIndex index,
+        List<Integer> outerKeys,
+        RexNode condition,
+        JoinRelType joinType,
+        RelDataType rowType,
+        double rowCount
+    ) {
+        super(cluster, traits, input);
+
+        this.table = table;
+        this.index = index;
+        this.outerKeys = outerKeys;
+        this.condition = condition;
+        this.joinType = joinType;
+        this.rowType = rowType;
+        this.rowCount = rowCount;
+    }
+
+    public RelOptTable getInnerTable() {
+        return table;
+    }
+
+    public HazelcastTable getTableUnwrapped() {
+        return table.unwrap(HazelcastTable.class);
+    }
+
+    public AbstractMapTable getMap() {
+        return getTableUnwrapped().getTarget();
+    }
+
+    public MapTableIndex getIndex() {
+        return index;
+    }
+
+    public List<Integer> getOuterKeys() {
+        return outerKeys;
+    }
+
+    public RexNode getCondition() {
+        return condition;
+    }
+
+    public JoinRelType getJoinType() {
+        return joinType;
+    }
+
+    @Override
+    public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
+        return new IndexNestedLoopJoinPhysicalRel(
+            getCluster(),
+            traitSet,
+            sole(inputs),
+            table,
+            index,
+            outerKeys,
+            condition,
+            joinType,
+            rowType,
+            rowCount
+        );
+    }
+
+    @Override
+    public void visit(PhysicalRelVisitor visitor) {
+        ((PhysicalRel) input).visit(visitor);
+
+        visitor.onIndexNestedLoopJoin(this);
+    }
+
+    @Override
+    public RelWriter explainTerms(RelWriter pw) {
+        return super.explainTerms(pw)
+            .item("table", table.getQualifiedName())
+            .item("index", index.getName())
+            .item("outerKeys", outerKeys)
+            .itemIf("condition", condition, condition != null)
+            .item("joinType", joinType.lowerName);
+    }
+
+    @Override
+    public double estimateRowCount(RelMetadataQuery mq) {
+        return rowCount;
+    }
+
+    @Override
+    public RelOptCost computeSelfCost(RelOptPlanner planner, RelMetadataQuery mq) {
+        double outerRows = mq.getRowCount(getInput());
+
+        double cpu = CostUtils.getIndexNestedLoopJoinCpu(outerRows, rowCount, index.getType());
+
+        return planner.getCostFactory().makeCost(rowCount, cpu, 0);
+    }
+
+    @Override
+    protected RelDataType deriveRowType() {
+        // Row type is always passed to the constructor.
+        throw new UnsupportedOperationException();
+    }
+}
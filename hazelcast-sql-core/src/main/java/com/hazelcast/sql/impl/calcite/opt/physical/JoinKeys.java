@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.calcite.opt.physical;
+
+import com.hazelcast.sql.impl.calcite.validate.types.HazelcastTypeUtils;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.sql.SqlKind;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Equi-join keys extracted from the join condition.
+ * <p>
+ * A conjunct of the condition becomes a pair of keys if it is an equality of a left column and a right column of the same
+ * type. Keys of different types cannot be compared by their hash codes, so such conjuncts, as well as all the other ones,
+ * are left in the remaining condition, which is evaluated on the joined row.
+ */
+public final class JoinKeys {
+
+    private final List<Integer> leftKeys;
+    private final List<Integer> rightKeys;
+    private final RexNode remainingCondition;
+
+    private JoinKeys(List<Integer> leftKeys, List<Integer> rightKeys, RexNode remainingCondition) {
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+        this.remainingCondition = remainingCondition;
+    }
+
+    public static JoinKeys of(Join join) {
+        List<RelDataTypeField> leftFields = join.getLeft().getRowType().getFieldList();
+        List<RelDataTypeField> rightFields = join.getRight().getRowType().getFieldList();
+
+        List<Integer> leftKeys = new ArrayList<>(1);
+        List<Integer> rightKeys = new ArrayList<>(1);
+        List<RexNode> remaining = new ArrayList<>(1);
+
+        for (RexNode conjunct : RelOptUtil.conjunctions(join.getCondition())) {
+            int[] keys = extractKeys(conjunct, leftFields, rightFields);
+
+            if (keys != null) {
+                leftKeys.add(keys[0]);
+                rightKeys.add(keys[1]);
+            } else {
+                remaining.add(conjunct);
+            }
+        }
+
+        RexBuilder rexBuilder = join.getCluster().getRexBuilder();
+
+        return new JoinKeys(
+            Collections.unmodifiableList(leftKeys),
+            Collections.unmodifiableList(rightKeys),
+            RexUtil.composeConjunction(rexBuilder, remaining, true)
+        );
+    }
+
+    /**
+     * @return Indexes of the key columns in the left input.
+     */
+    public List<Integer> getLeftKeys() {
+        return leftKeys;
+    }
+
+    /**
+     * @return Indexes of the key columns in the right input.
+     */
+    public List<Integer> getRightKeys() {
+        return rightKeys;
+    }
+
+    /**
+     * @return Condition to be evaluated on the joined row, or {@code null} if the whole condition is covered by the keys.
+     */
+    public RexNode getRemainingCondition() {
+        return remainingCondition;
+    }
+
+    /**
+     * Try to extract a pair of keys from the given conjunct.
+     *
+     * @return Left and right keys, or {@code null} if the conjunct is not an equality of left and right columns.
+     */
+    private static int[] extractKeys(RexNode conjunct, List<RelDataTypeField> leftFields, List<RelDataTypeField> rightFields) {
+        if (conjunct.getKind() != SqlKind.EQUALS) {
+            return null;
+        }
+
+        List<RexNode> operands = ((RexCall) conjunct).getOperands();
+
+        if (!(operands.get(0) instanceof RexInputRef) || !(operands.get(1) instanceof RexInputRef)) {
+            return null;
+        }
+
+        int index1 = ((RexInputRef) operands.get(0)).getIndex();
+        int index2 = ((RexInputRef) operands.get(1)).getIndex();
+
+        int leftIndex = Math.min(index1, index2);
+        int rightIndex = Math.max(index1, index2) - leftFields.size();
+
+        if (leftIndex >= leftFields.size() || rightIndex < 0) {
+            // Both columns belong to the same input.
+            return null;
+        }
+
+        RelDataTypeField leftField = leftFields.get(leftIndex);
+        RelDataTypeField rightField = rightFields.get(rightIndex);
+
+        if (!HazelcastTypeUtils.toHazelcastType(leftField.getType().getSqlTypeName()).equals(
+            HazelcastTypeUtils.toHazelcastType(rightField.getType().getSqlTypeName()))) {
+            return null;
+        }
+
+        return new int[]{leftIndex, rightIndex};
+    }
+}
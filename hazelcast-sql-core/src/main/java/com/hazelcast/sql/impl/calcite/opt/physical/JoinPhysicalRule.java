@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.calcite.opt.physical;
+
+import com.hazelcast.config.IndexType;
+import com.hazelcast.sql.impl.calcite.opt.HazelcastConventions;
+import com.hazelcast.sql.impl.calcite.opt.OptUtils;
+import com.hazelcast.sql.impl.calcite.opt.distribution.DistributionTraitDef;
+import com.hazelcast.sql.impl.calcite.opt.logical.JoinLogicalRel;
+import com.hazelcast.sql.impl.calcite.opt.logical.MapScanLogicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.BroadcastExchangePhysicalRel;
+import com.hazelcast.sql.impl.calcite.validate.types.HazelcastTypeUtils;
+import com.hazelcast.sql.impl.schema.map.MapTableIndex;
+import com.hazelcast.sql.impl.schema.map.PartitionedMapTable;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.plan.volcano.RelSubset;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.type.RelDataTypeField;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.hazelcast.sql.impl.calcite.opt.distribution.DistributionType.PARTITIONED;
+
+/**
+ * Converts logical join to physical join.
+ * <p>
+ * Two kinds of joins are produced:
+ * <ul>
+ *     <li>Hash join, where the right input is collected into a hash table. If both inputs are partitioned, the right input
+ *     is broadcast to every member, so that every member joins its local part of the left input with the whole right
+ *     input. Otherwise both inputs are collected and joined on the root member</li>
+ *     <li>Index nested loop join, where the right input is a map with an index on the join keys. The map is never scanned,
+ *     instead the index is queried for every row of the left input. If there are several members, the left input is
+ *     broadcast to every member, so that every member queries its local partitions of the map</li>
+ * </ul>
+ */
+public final class JoinPhysicalRule extends RelOptRule {
+    public static final RelOptRule INSTANCE = new JoinPhysicalRule();
+
+    private JoinPhysicalRule() {
+        super(
+            OptUtils.parentChildren(JoinLogicalRel.class, HazelcastConventions.LOGICAL),
+            JoinPhysicalRule.class.getSimpleName()
+        );
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        JoinLogicalRel logicalJoin = call.rel(0);
+        JoinRelType joinType = logicalJoin.getJoinType();
+
+        if (joinType != JoinRelType.INNER && joinType != JoinRelType.LEFT) {
+            // RIGHT and FULL joins are rejected by the parser.
+            return;
+        }
+
+        Collection<RelNode> leftInputs = OptUtils.getPhysicalRelsFromSubset(OptUtils.toPhysicalInput(logicalJoin.getLeft()));
+        Collection<RelNode> rightInputs = OptUtils.getPhysicalRelsFromSubset(OptUtils.toPhysicalInput(logicalJoin.getRight()));
+
+        for (RelNode leftInput : leftInputs) {
+            for (RelNode rightInput : rightInputs) {
+                RelNode hashJoin = createHashJoin(logicalJoin, leftInput, rightInput);
+
+                if (hashJoin != null) {
+                    call.transformTo(hashJoin);
+                }
+            }
+
+            for (RelNode indexJoin : createIndexNestedLoopJoins(call, logicalJoin, leftInput)) {
+                call.transformTo(indexJoin);
+            }
+        }
+
+        if (logicalJoin.getMemberCount() > 1) {
+            call.transformTo(createRootHashJoin(logicalJoin));
+        }
+    }
+
+    /**
+     * Create the hash join of the given physical inputs.
+     *
+     * @return Hash join, or {@code null} if the inputs could be joined only on the root member.
+     */
+    private static RelNode createHashJoin(JoinLogicalRel logicalJoin, RelNode leftInput, RelNode rightInput) {
+        if (logicalJoin.getMemberCount() == 1) {
+            return createHashJoin(logicalJoin, leftInput.getTraitSet(), leftInput, rightInput);
+        }
+
+        if (OptUtils.getDistribution(leftInput).getType() != PARTITIONED
+            || OptUtils.getDistribution(rightInput).getType() != PARTITIONED) {
+            return null;
+        }
+
+        DistributionTraitDef distributionDef = OptUtils.getDistributionDef(logicalJoin);
+
+        RelTraitSet replicatedTraitSet = OptUtils.toPhysicalConvention(
+            logicalJoin.getCluster().getPlanner().emptyTraitSet(),
+            distributionDef.getTraitReplicated()
+        );
+
+        BroadcastExchangePhysicalRel exchange = new BroadcastExchangePhysicalRel(
+            logicalJoin.getCluster(),
+            replicatedTraitSet,
+            rightInput
+        );
+
+        return createHashJoin(logicalJoin, leftInput.getTraitSet(), leftInput, exchange);
+    }
+
+    /**
+     * Create the hash join which collects both inputs on the root member.
+     */
+    private static RelNode createRootHashJoin(JoinLogicalRel logicalJoin) {
+        DistributionTraitDef distributionDef = OptUtils.getDistributionDef(logicalJoin);
+
+        RelTraitSet rootTraitSet = OptUtils.toPhysicalConvention(
+            logicalJoin.getCluster().getPlanner().emptyTraitSet(),
+            distributionDef.getTraitRoot()
+        );
+
+        return createHashJoin(
+            logicalJoin,
+            rootTraitSet,
+            OptUtils.toPhysicalInput(logicalJoin.getLeft(), distributionDef.getTraitRoot()),
+            OptUtils.toPhysicalInput(logicalJoin.getRight(), distributionDef.getTraitRoot())
+        );
+    }
+
+    private static RelNode createHashJoin(JoinLogicalRel logicalJoin, RelTraitSet traitSet, RelNode left, RelNode right) {
+        return new HashJoinPhysicalRel(
+            logicalJoin.getCluster(),
+            traitSet,
+            left,
+            right,
+            logicalJoin.getCondition(),
+            logicalJoin.getJoinType()
+        );
+    }
+
+    /**
+     * Create index nested loop joins for every index of the right map which matches the join keys.
+     *
+     * @return Index nested loop joins, possibly empty.
+     */
+    private static List<RelNode> createIndexNestedLoopJoins(RelOptRuleCall call, JoinLogicalRel logicalJoin, RelNode outer) {
+        List<RelNode> res = new ArrayList<>(1);
+
+        MapScanLogicalRel innerScan = findMapScan(logicalJoin.getRight());
+
+        if (innerScan == null || !(innerScan.getMap() instanceof PartitionedMapTable)) {
+            return res;
+        }
+
+        boolean distributed = logicalJoin.getMemberCount() > 1;
+
+        if (distributed && (logicalJoin.getJoinType() != JoinRelType.INNER
+            || OptUtils.getDistribution(outer).getType() != PARTITIONED)) {
+            // Every member produces unmatched outer rows on its own, hence an outer join is only possible on a single member.
+            return res;
+        }
+
+        JoinKeys keys = JoinKeys.of(logicalJoin);
+
+        for (MapTableIndex index : ((PartitionedMapTable) innerScan.getMap()).getIndexes()) {
+            List<Integer> outerKeys = matchIndex(index, keys, innerScan);
+
+            if (outerKeys == null) {
+                continue;
+            }
+
+            RelTraitSet traitSet = outer.getTraitSet();
+            RelNode input = outer;
+
+            if (distributed) {
+                DistributionTraitDef distributionDef = OptUtils.getDistributionDef(logicalJoin);
+                RelTraitSet emptyTraitSet = logicalJoin.getCluster().getPlanner().emptyTraitSet();
+
+                traitSet = OptUtils.toPhysicalConvention(emptyTraitSet, distributionDef.getTraitPartitionedUnknown());
+                input = new BroadcastExchangePhysicalRel(
+                    logicalJoin.getCluster(),
+                    OptUtils.toPhysicalConvention(emptyTraitSet, distributionDef.getTraitReplicated()),
+                    outer
+                );
+            }
+
+            res.add(new IndexNestedLoopJoinPhysicalRel(
+                logicalJoin.getCluster(),
+                traitSet,
+                input,
+                innerScan.getTable(),
+                index,
+                outerKeys,
+                keys.getRemainingCondition(),
+                logicalJoin.getJoinType(),
+                logicalJoin.getRowType(),
+                call.getMetadataQuery().getRowCount(logicalJoin)
+            ));
+        }
+
+        return res;
+    }
+
+    private static MapScanLogicalRel findMapScan(RelNode input) {
+        if (input instanceof RelSubset) {
+            for (RelNode rel : ((RelSubset) input).getRelList()) {
+                if (rel instanceof MapScanLogicalRel) {
+                    return (MapScanLogicalRel) rel;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Match the index components to the join keys. The index is used for equality lookups, which require the values
+     * of all the components, hence the components must be exactly the right join keys.
+     *
+     * @return Outer keys in the order of the index components, or {@code null} if the index cannot be used.
+     */
+    private static List<Integer> matchIndex(MapTableIndex index, JoinKeys keys, MapScanLogicalRel innerScan) {
+        List<Integer> fieldOrdinals = index.getFieldOrdinals();
+        List<Integer> rightKeys = keys.getRightKeys();
+
+        if ((index.getType() != IndexType.SORTED && index.getType() != IndexType.HASH)
+            || index.getComponentsCount() != fieldOrdinals.size() || fieldOrdinals.size() != rightKeys.size()) {
+            return null;
+        }
+
+        List<Integer> innerProjects = innerScan.getTableUnwrapped().getProjects();
+        List<RelDataTypeField> innerFields = innerScan.getRowType().getFieldList();
+
+        List<Integer> res = new ArrayList<>(rightKeys.size());
+        boolean[] used = new boolean[rightKeys.size()];
+
+        for (int i = 0; i < fieldOrdinals.size(); i++) {
+            int keyIndex = -1;
+
+            for (int j = 0; j < rightKeys.size(); j++) {
+                if (!used[j] && innerProjects.get(rightKeys.get(j)).equals(fieldOrdinals.get(i))) {
+                    keyIndex = j;
+
+                    break;
+                }
+            }
+
+            if (keyIndex == -1) {
+                return null;
+            }
+
+            QueryDataType keyType = HazelcastTypeUtils.toHazelcastType(
+                innerFields.get(rightKeys.get(keyIndex)).getType().getSqlTypeName()
+            );
+
+            if (!keyType.equals(index.getFieldConverterTypes().get(i))) {
+                // The outer value is passed to the index as is, so it must have the type expected by the index.
+                return null;
+            }
+
+            used[keyIndex] = true;
+            res.add(keys.getLeftKeys().get(keyIndex));
+        }
+
+        return res;
+    }
+}
@@ -16,10 +16,13 @@
 
 package com.hazelcast.sql.impl.calcite.opt.physical;
 
+import com.hazelcast.config.IndexType;
 import com.hazelcast.sql.impl.calcite.opt.AbstractMapScanRel;
 import com.hazelcast.sql.impl.calcite.opt.cost.CostUtils;
 import com.hazelcast.sql.impl.calcite.opt.physical.visitor.PhysicalRelVisitor;
+import com.hazelcast.sql.impl.exec.scan.index.IndexEqualsFilter;
 import com.hazelcast.sql.impl.exec.scan.index.IndexFilter;
+import com.hazelcast.sql.impl.exec.scan.index.IndexInFilter;
 import com.hazelcast.sql.impl.schema.map.MapTableIndex;
 import com.hazelcast.sql.impl.type.QueryDataType;
 import org.apache.calcite.plan.RelOptCluster;
@@ -27,6 +30,10 @@ import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.rel.metadata.RelMdUtil;
@@ -81,6 +88,58 @@ public class MapIndexScanPhysicalRel extends AbstractMapScanRel implements Physi
         return remainderExp;
     }
 
+    /**
+     * Check whether the scan returns the rows in the order of the given collation. A sorted index returns the entries in the
+     * ascending order of its components, with nulls first. The components bound to a single value by the index filter do not
+     * affect the order.
+     *
+     * @param collation collation
+     * @return {@code true} if the rows are returned in the order of the collation
+     */
+    public boolean isSortedBy(RelCollation collation) {
+        if (index.getType() != IndexType.SORTED || indexFilter instanceof IndexInFilter) {
+            return false;
+        }
+
+        List<Integer> indexFieldOrdinals = index.getFieldOrdinals();
+        List<Integer> projects = getTableUnwrapped().getProjects();
+
+        // Number of leading index components bound to a single value. For the range filter, the last filtered component is
+        // bound to a range.
+        int boundCount;
+
+        if (indexFilter == null) {
+            boundCount = 0;
+        } else if (indexFilter instanceof IndexEqualsFilter) {
+            boundCount = indexFieldOrdinals.size();
+        } else {
+            boundCount = converterTypes.size() - 1;
+        }
+
+        int position = boundCount;
+
+        for (RelFieldCollation fieldCollation : collation.getFieldCollations()) {
+            if (fieldCollation.getDirection() != Direction.ASCENDING || fieldCollation.nullDirection != NullDirection.FIRST) {
+                return false;
+            }
+
+            int fieldOrdinal = projects.get(fieldCollation.getFieldIndex());
+            int componentIndex = indexFieldOrdinals.indexOf(fieldOrdinal);
+
+            if (componentIndex >= 0 && componentIndex < boundCount) {
+                continue;
+            }
+
+            if (componentIndex != position) {
+                return false;
+            }
+
+            position++;
+        }
+
+        return true;
+    }
+
     @Override
     public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
         return new MapIndexScanPhysicalRel(
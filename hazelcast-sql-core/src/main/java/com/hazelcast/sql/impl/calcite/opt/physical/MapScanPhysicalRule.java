@@ -84,6 +84,9 @@ public final class MapScanPhysicalRule extends RelOptRule {
             }
         }
 
+        // Add index scans which return entries in the index order. They are chosen only if the order is needed.
+        transforms.addAll(IndexResolver.createSortedIndexScans(scan, distribution, indexes));
+
         for (RelNode transform : transforms) {
             call.transformTo(transform);
         }
@@ -34,6 +34,9 @@ public final class PhysicalRules {
             RootPhysicalRule.INSTANCE,
             FilterPhysicalRule.INSTANCE,
             ProjectPhysicalRule.INSTANCE,
+            AggregatePhysicalRule.INSTANCE,
+            SortPhysicalRule.INSTANCE,
+            JoinPhysicalRule.INSTANCE,
             MapScanPhysicalRule.INSTANCE,
             ValuesPhysicalRule.INSTANCE,
 
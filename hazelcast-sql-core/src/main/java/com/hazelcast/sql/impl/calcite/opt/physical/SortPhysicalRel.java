@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.sql.impl.calcite.opt.physical;
+
+import com.hazelcast.sql.impl.calcite.opt.AbstractSortRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.visitor.PhysicalRelVisitor;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rex.RexNode;
+
+/**
+ * Physical sort. When the collation is empty, only the offset and the fetch are applied to the input. The same happens if the
+ * input already returns the rows in the order of the collation, e.g. when it is a scan of a sorted index.
+ * <p>
+ * Traits:
+ * <ul>
+ *     <li><b>Collation</b>: the collation of the sort</li>
+ *     <li><b>Distribution</b>: inherited from the input</li>
+ * </ul>
+ */
+public class SortPhysicalRel extends AbstractSortRel implements PhysicalRel {
+
+    private final boolean inputSorted;
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public SortPhysicalRel(
+        RelOptCluster cluster,
+        RelTraitSet traits,
+        RelNode input,
+        RelCollation collation,
+        RexNode offset,
+        RexNode fetch,
+        boolean inputSorted
+    ) {
+        super(cluster, traits, input, collation, offset, fetch);
+
+        this.inputSorted = inputSorted;
+    }
+
+    @Override
+    public boolean isInputSorted() {
+        return inputSorted;
+    }
+
+    @Override
+    public final Sort copy(RelTraitSet traitSet, RelNode input, RelCollation collation, RexNode offset, RexNode fetch) {
+        return new SortPhysicalRel(getCluster(), traitSet, input, collation, offset, fetch, inputSorted);
+    }
+
+    @Override
+    public void visit(PhysicalRelVisitor visitor) {
+        ((PhysicalRel) input).visit(visitor);
+
+        visitor.onSort(this);
+    }
+
+    @Override
+    public final RelWriter explainTerms(RelWriter pw) {
+        return super.explainTerms(pw).itemIf("inputSorted", true, inputSorted);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.sql.impl.calcite.opt.physical;
+
+import com.hazelcast.sql.impl.calcite.opt.HazelcastConventions;
+import com.hazelcast.sql.impl.calcite.opt.OptUtils;
+import com.hazelcast.sql.impl.calcite.opt.distribution.DistributionTrait;
+import com.hazelcast.sql.impl.calcite.opt.distribution.DistributionTraitDef;
+import com.hazelcast.sql.impl.calcite.opt.logical.SortLogicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.RootExchangePhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.SortMergeExchangePhysicalRel;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+import static com.hazelcast.sql.impl.calcite.opt.distribution.DistributionType.PARTITIONED;
+
+/**
+ * Rule to convert the logical sort to the physical sort.
+ * <p>
+ * If the input is partitioned between several members, every member sorts its local part of the input, and the sorted
+ * streams are merged on the root member. When the fetch is set, every member keeps only the leading {@code offset + fetch}
+ * rows, so that at most that many rows per member are sent over the network. The offset and the fetch are then applied once
+ * more to the merged stream.
+ */
+public final class SortPhysicalRule extends RelOptRule {
+    public static final RelOptRule INSTANCE = new SortPhysicalRule();
+
+    private SortPhysicalRule() {
+        super(
+            OptUtils.parentChild(SortLogicalRel.class, RelNode.class, HazelcastConventions.LOGICAL),
+            SortPhysicalRule.class.getSimpleName()
+        );
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        SortLogicalRel logicalSort = call.rel(0);
+        RelNode input = logicalSort.getInput();
+
+        RelNode convertedInput = OptUtils.toPhysicalInput(input);
+
+        Collection<RelNode> physicalInputs = OptUtils.getPhysicalRelsFromSubset(convertedInput);
+
+        for (RelNode physicalInput : physicalInputs) {
+            DistributionTrait distribution = OptUtils.getDistribution(physicalInput);
+            boolean inputSorted = isInputSorted(logicalSort.getCollation(), physicalInput);
+
+            RelNode transform;
+
+            if (distribution.getType() == PARTITIONED && logicalSort.getMemberCount() > 1) {
+                transform = createDistributedSort(logicalSort, physicalInput, inputSorted);
+            } else {
+                transform = new SortPhysicalRel(
+                    logicalSort.getCluster(),
+                    physicalInput.getTraitSet(),
+                    physicalInput,
+                    logicalSort.getCollation(),
+                    logicalSort.offset,
+                    logicalSort.fetch,
+                    inputSorted
+                );
+            }
+
+            call.transformTo(transform);
+        }
+    }
+
+    /**
+     * Check whether the input already returns the rows in the order of the collation, so that sorting could be skipped.
+     * Currently only the scans of sorted indexes are considered.
+     *
+     * @param collation Collation of the sort.
+     * @param physicalInput Physical input.
+     * @return {@code true} if the input is sorted.
+     */
+    private static boolean isInputSorted(RelCollation collation, RelNode physicalInput) {
+        if (collation.getFieldCollations().isEmpty()) {
+            return false;
+        }
+
+        return physicalInput instanceof MapIndexScanPhysicalRel
+            && ((MapIndexScanPhysicalRel) physicalInput).isSortedBy(collation);
+    }
+
+    /**
+     * Create the local sort, the exchange which collects the sorted streams on the root member, and the sort which applies
+     * the offset and the fetch to the merged stream.
+     *
+     * @param logicalSort Logical sort.
+     * @param physicalInput Partitioned physical input.
+     * @param inputSorted Whether the input already returns the rows in the order of the collation.
+     * @return Root node of the distributed sort.
+     */
+    private static RelNode createDistributedSort(SortLogicalRel logicalSort, RelNode physicalInput, boolean inputSorted) {
+        RelCollation collation = logicalSort.getCollation();
+        RexNode localFetch = createLocalFetch(logicalSort);
+
+        RelNode localSort;
+
+        if ((collation.getFieldCollations().isEmpty() || inputSorted) && localFetch == null) {
+            // Nothing to do locally: the offset cannot be applied before the streams are collected.
+            localSort = physicalInput;
+        } else {
+            localSort = new SortPhysicalRel(
+                logicalSort.getCluster(),
+                physicalInput.getTraitSet(),
+                physicalInput,
+                collation,
+                null,
+                localFetch,
+                inputSorted
+            );
+        }
+
+        DistributionTraitDef distributionDef = OptUtils.getDistributionDef(logicalSort);
+
+        RelTraitSet rootTraitSet = OptUtils.toPhysicalConvention(
+            logicalSort.getCluster().getPlanner().emptyTraitSet(),
+            distributionDef.getTraitRoot()
+        );
+
+        RelNode exchange;
+
+        if (collation.getFieldCollations().isEmpty()) {
+            exchange = new RootExchangePhysicalRel(logicalSort.getCluster(), rootTraitSet, localSort);
+        } else {
+            exchange = new SortMergeExchangePhysicalRel(logicalSort.getCluster(), rootTraitSet, localSort, collation);
+        }
+
+        if (logicalSort.offset == null && logicalSort.fetch == null) {
+            return exchange;
+        }
+
+        return new SortPhysicalRel(
+            logicalSort.getCluster(),
+            rootTraitSet,
+            exchange,
+            RelCollations.EMPTY,
+            logicalSort.offset,
+            logicalSort.fetch,
+            false
+        );
+    }
+
+    /**
+     * Create the fetch of the local sort, which must keep all the rows that might be returned after the offset is applied
+     * to the merged stream.
+     *
+     * @param logicalSort Logical sort.
+     * @return Sum of the offset and the fetch, or {@code null} if the fetch is not set.
+     */
+    private static RexNode createLocalFetch(SortLogicalRel logicalSort) {
+        RexNode offset = logicalSort.offset;
+        RexNode fetch = logicalSort.fetch;
+
+        if (fetch == null || offset == null) {
+            return fetch;
+        }
+
+        RexBuilder rexBuilder = logicalSort.getCluster().getRexBuilder();
+
+        if (offset instanceof RexLiteral && fetch instanceof RexLiteral) {
+            BigDecimal offsetValue = ((RexLiteral) offset).getValueAs(BigDecimal.class);
+            BigDecimal fetchValue = ((RexLiteral) fetch).getValueAs(BigDecimal.class);
+
+            return rexBuilder.makeExactLiteral(offsetValue.add(fetchValue), fetch.getType());
+        }
+
+        return rexBuilder.makeCall(SqlStdOperatorTable.PLUS, offset, fetch);
+    }
+}
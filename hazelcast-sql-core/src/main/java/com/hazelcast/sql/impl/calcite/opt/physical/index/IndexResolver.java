@@ -708,20 +708,42 @@ public final class IndexResolver {
         DistributionTrait distribution,
         List<MapTableIndex> indexes
     ) {
-        MapTableIndex firstIndex = null;
-
         for (MapTableIndex index : indexes) {
             if (isIndexSupported(index)) {
-                firstIndex = index;
-
-                break;
+                return createFullIndexScan(scan, distribution, index);
             }
         }
 
-        if (firstIndex == null) {
-            return null;
+        return null;
+    }
+
+    /**
+     * Create a scan without index filter for every {@link IndexType#SORTED} index. Such scans return the entries in the order
+     * of the index, and are useful when the query needs this order, e.g. for {@code ORDER BY}. Otherwise, they are more
+     * expensive than the normal scan and are not chosen by the optimizer.
+     *
+     * @param scan the original scan operator
+     * @param distribution the original distribution
+     * @param indexes available indexes
+     * @return index scans
+     */
+    public static List<RelNode> createSortedIndexScans(
+        MapScanLogicalRel scan,
+        DistributionTrait distribution,
+        List<MapTableIndex> indexes
+    ) {
+        List<RelNode> rels = new ArrayList<>(1);
+
+        for (MapTableIndex index : indexes) {
+            if (index.getType() == IndexType.SORTED) {
+                rels.add(createFullIndexScan(scan, distribution, index));
+            }
         }
 
+        return rels;
+    }
+
+    private static RelNode createFullIndexScan(MapScanLogicalRel scan, DistributionTrait distribution, MapTableIndex index) {
         RexNode scanFilter = scan.getTableUnwrapped().getFilter();
 
         RelTraitSet traitSet = OptUtils.toPhysicalConvention(scan.getTraitSet(), distribution);
@@ -739,7 +761,7 @@ public final class IndexResolver {
             scan.getCluster(),
             traitSet,
             newRelTable,
-            firstIndex,
+            index,
             null,
             Collections.emptyList(),
             null,
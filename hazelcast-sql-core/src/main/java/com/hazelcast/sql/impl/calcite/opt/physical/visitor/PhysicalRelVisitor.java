@@ -16,13 +16,19 @@
 
 package com.hazelcast.sql.impl.calcite.opt.physical.visitor;
 
+import com.hazelcast.sql.impl.calcite.opt.physical.AggregatePhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.FilterPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.HashJoinPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.IndexNestedLoopJoinPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.MapIndexScanPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.MapScanPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.ProjectPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.RootPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.SortPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.ValuesPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.BroadcastExchangePhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.exchange.RootExchangePhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.SortMergeExchangePhysicalRel;
 
 /**
  * Visitor over physical relations.
@@ -32,7 +38,13 @@ public interface PhysicalRelVisitor {
     void onMapScan(MapScanPhysicalRel rel);
     void onMapIndexScan(MapIndexScanPhysicalRel rel);
     void onRootExchange(RootExchangePhysicalRel rel);
+    void onBroadcastExchange(BroadcastExchangePhysicalRel rel);
+    void onSortMergeExchange(SortMergeExchangePhysicalRel rel);
     void onProject(ProjectPhysicalRel rel);
     void onFilter(FilterPhysicalRel rel);
+    void onAggregate(AggregatePhysicalRel rel);
+    void onSort(SortPhysicalRel rel);
+    void onHashJoin(HashJoinPhysicalRel rel);
+    void onIndexNestedLoopJoin(IndexNestedLoopJoinPhysicalRel rel);
     void onValues(ValuesPhysicalRel rel);
 }
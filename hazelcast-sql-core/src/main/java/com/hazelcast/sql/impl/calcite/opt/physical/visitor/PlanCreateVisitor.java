@@ -25,24 +25,41 @@ import com.hazelcast.sql.impl.QueryException;
 import com.hazelcast.sql.impl.QueryParameterMetadata;
 import com.hazelcast.sql.impl.QueryUtils;
 import com.hazelcast.sql.impl.calcite.validate.types.HazelcastTypeUtils;
+import com.hazelcast.sql.impl.calcite.opt.physical.AggregatePhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.FilterPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.HashJoinPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.IndexNestedLoopJoinPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.JoinKeys;
 import com.hazelcast.sql.impl.calcite.opt.physical.MapIndexScanPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.MapScanPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.PhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.ProjectPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.RootPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.SortPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.ValuesPhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.exchange.AbstractExchangePhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.BroadcastExchangePhysicalRel;
 import com.hazelcast.sql.impl.calcite.opt.physical.exchange.RootExchangePhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.SortMergeExchangePhysicalRel;
 import com.hazelcast.sql.impl.calcite.schema.HazelcastTable;
+import com.hazelcast.sql.impl.expression.ColumnExpression;
 import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.aggregate.AggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.AvgAggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.CountAggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.MinMaxAggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.SumAggregateExpression;
 import com.hazelcast.sql.impl.extract.QueryPath;
 import com.hazelcast.sql.impl.plan.Plan;
 import com.hazelcast.sql.impl.plan.PlanFragmentMapping;
 import com.hazelcast.sql.impl.plan.cache.PlanCacheKey;
 import com.hazelcast.sql.impl.plan.cache.PlanObjectKey;
+import com.hazelcast.sql.impl.plan.node.AggregatePhase;
+import com.hazelcast.sql.impl.plan.node.AggregatePlanNode;
 import com.hazelcast.sql.impl.plan.node.EmptyPlanNode;
 import com.hazelcast.sql.impl.plan.node.FilterPlanNode;
+import com.hazelcast.sql.impl.plan.node.HashJoinPlanNode;
+import com.hazelcast.sql.impl.plan.node.IndexNestedLoopJoinPlanNode;
 import com.hazelcast.sql.impl.plan.node.MapIndexScanPlanNode;
 import com.hazelcast.sql.impl.plan.node.MapScanPlanNode;
 import com.hazelcast.sql.impl.plan.node.PlanNode;
@@ -50,11 +67,19 @@ import com.hazelcast.sql.impl.plan.node.PlanNodeFieldTypeProvider;
 import com.hazelcast.sql.impl.plan.node.PlanNodeSchema;
 import com.hazelcast.sql.impl.plan.node.ProjectPlanNode;
 import com.hazelcast.sql.impl.plan.node.RootPlanNode;
+import com.hazelcast.sql.impl.plan.node.SortPlanNode;
+import com.hazelcast.sql.impl.plan.node.io.BroadcastSendPlanNode;
 import com.hazelcast.sql.impl.plan.node.io.ReceivePlanNode;
+import com.hazelcast.sql.impl.plan.node.io.ReceiveSortMergePlanNode;
 import com.hazelcast.sql.impl.plan.node.io.RootSendPlanNode;
 import com.hazelcast.sql.impl.schema.map.AbstractMapTable;
 import com.hazelcast.sql.impl.schema.map.MapTableField;
 import com.hazelcast.sql.impl.type.QueryDataType;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rex.RexNode;
@@ -281,6 +306,60 @@ public class PlanCreateVisitor implements PhysicalRelVisitor {
         pushUpstream(receiveNode);
     }
 
+    @Override
+    public void onBroadcastExchange(BroadcastExchangePhysicalRel rel) {
+        PlanNode upstreamNode = pollSingleUpstream();
+
+        int edge = nextEdge();
+
+        int id = pollId(rel);
+
+        BroadcastSendPlanNode sendNode = new BroadcastSendPlanNode(
+            id,
+            upstreamNode,
+            edge
+        );
+
+        addFragment(sendNode, dataMemberMapping());
+
+        ReceivePlanNode receiveNode = new ReceivePlanNode(
+            id,
+            edge,
+            sendNode.getSchema().getTypes()
+        );
+
+        pushUpstream(receiveNode);
+    }
+
+    @Override
+    public void onSortMergeExchange(SortMergeExchangePhysicalRel rel) {
+        PlanNode upstreamNode = pollSingleUpstream();
+
+        int edge = nextEdge();
+
+        int id = pollId(rel);
+
+        RootSendPlanNode sendNode = new RootSendPlanNode(
+            id,
+            upstreamNode,
+            edge
+        );
+
+        addFragment(sendNode, dataMemberMapping());
+
+        RelCollation collation = rel.getCollation();
+
+        ReceiveSortMergePlanNode receiveNode = new ReceiveSortMergePlanNode(
+            id,
+            edge,
+            sendNode.getSchema().getTypes(),
+            getSortColumns(collation),
+            getSortAscs(collation)
+        );
+
+        pushUpstream(receiveNode);
+    }
+
     @Override
     public void onProject(ProjectPhysicalRel rel) {
         PlanNode upstreamNode = pollSingleUpstream();
@@ -318,6 +397,116 @@ public class PlanCreateVisitor implements PhysicalRelVisitor {
         pushUpstream(filterNode);
     }
 
+    @Override
+    public void onAggregate(AggregatePhysicalRel rel) {
+        PlanNode upstreamNode = pollSingleUpstream();
+
+        List<AggregateCall> aggCalls = rel.getAggCallList();
+        List<AggregateExpression> expressions = new ArrayList<>(aggCalls.size());
+
+        for (AggregateCall aggCall : aggCalls) {
+            AggregateExpression expression = convertAggregate(upstreamNode.getSchema(), aggCall, rel.getPhase());
+
+            expressions.add(expression);
+        }
+
+        AggregatePlanNode aggregateNode = new AggregatePlanNode(
+            pollId(rel),
+            upstreamNode,
+            new ArrayList<>(rel.getGroupSet().asList()),
+            expressions,
+            rel.getPhase()
+        );
+
+        pushUpstream(aggregateNode);
+    }
+
+    @Override
+    public void onSort(SortPhysicalRel rel) {
+        PlanNode upstreamNode = pollSingleUpstream();
+
+        // The sorted input only needs the offset and the fetch to be applied.
+        RelCollation collation = rel.isInputSorted() ? RelCollations.EMPTY : rel.getCollation();
+
+        SortPlanNode sortNode = new SortPlanNode(
+            pollId(rel),
+            upstreamNode,
+            getSortColumns(collation),
+            getSortAscs(collation),
+            convertExpression(upstreamNode.getSchema(), rel.fetch),
+            convertExpression(upstreamNode.getSchema(), rel.offset)
+        );
+
+        pushUpstream(sortNode);
+    }
+
+    @Override
+    public void onHashJoin(HashJoinPhysicalRel rel) {
+        // Inputs are visited from left to right, hence the right input is on top of the stack.
+        PlanNode rightNode = pollSingleUpstream();
+        PlanNode leftNode = pollSingleUpstream();
+
+        JoinKeys keys = rel.getKeys();
+
+        PlanNodeSchema joinSchema = concatSchemas(leftNode.getSchema(), rightNode.getSchema());
+
+        HashJoinPlanNode joinNode = new HashJoinPlanNode(
+            pollId(rel),
+            leftNode,
+            rightNode,
+            keys.getLeftKeys(),
+            keys.getRightKeys(),
+            convertFilter(joinSchema, keys.getRemainingCondition()),
+            rel.getJoinType() == JoinRelType.LEFT
+        );
+
+        pushUpstream(joinNode);
+    }
+
+    @Override
+    public void onIndexNestedLoopJoin(IndexNestedLoopJoinPhysicalRel rel) {
+        PlanNode upstreamNode = pollSingleUpstream();
+
+        HazelcastTable hazelcastTable = rel.getTableUnwrapped();
+        AbstractMapTable table = rel.getMap();
+
+        PlanNodeSchema schemaBefore = getScanSchemaBeforeProject(table);
+
+        int id = pollId(rel);
+
+        // The inner lookup is performed by the join itself, so the node is not a part of the tree and shares the join ID.
+        MapIndexScanPlanNode innerNode = new MapIndexScanPlanNode(
+            id,
+            table.getMapName(),
+            table.getKeyDescriptor(),
+            table.getValueDescriptor(),
+            getScanFieldPaths(table),
+            schemaBefore.getTypes(),
+            hazelcastTable.getProjects(),
+            rel.getIndex().getName(),
+            rel.getIndex().getComponentsCount(),
+            null,
+            rel.getIndex().getFieldConverterTypes(),
+            convertFilter(schemaBefore, hazelcastTable.getFilter())
+        );
+
+        PlanNodeSchema joinSchema = concatSchemas(upstreamNode.getSchema(), innerNode.getSchema());
+
+        IndexNestedLoopJoinPlanNode joinNode = new IndexNestedLoopJoinPlanNode(
+            id,
+            upstreamNode,
+            innerNode,
+            rel.getOuterKeys(),
+            convertFilter(joinSchema, rel.getCondition()),
+            rel.getJoinType() == JoinRelType.LEFT
+        );
+
+        pushUpstream(joinNode);
+
+        objectIds.add(table.getObjectKey());
+        mapNames.add(table.getMapName());
+    }
+
     @Override
     public void onValues(ValuesPhysicalRel rel) {
         if (!rel.getTuples().isEmpty()) {
@@ -403,6 +592,76 @@ public class PlanCreateVisitor implements PhysicalRelVisitor {
         return expression.accept(converter);
     }
 
+    private static List<Integer> getSortColumns(RelCollation collation) {
+        List<Integer> res = new ArrayList<>(collation.getFieldCollations().size());
+
+        for (RelFieldCollation fieldCollation : collation.getFieldCollations()) {
+            res.add(fieldCollation.getFieldIndex());
+        }
+
+        return res;
+    }
+
+    private static List<Boolean> getSortAscs(RelCollation collation) {
+        List<Boolean> res = new ArrayList<>(collation.getFieldCollations().size());
+
+        for (RelFieldCollation fieldCollation : collation.getFieldCollations()) {
+            res.add(!fieldCollation.getDirection().isDescending());
+        }
+
+        return res;
+    }
+
+    /**
+     * Convert an aggregate call. The final phase merges partial results, so the operand is not needed.
+     *
+     * @param schema Schema of the aggregate input.
+     * @param aggCall Aggregate call.
+     * @param phase Aggregation phase.
+     * @return Aggregate expression.
+     */
+    private static AggregateExpression convertAggregate(PlanNodeSchema schema, AggregateCall aggCall, AggregatePhase phase) {
+        if (aggCall.isDistinct()) {
+            throw QueryException.error("DISTINCT aggregates are not supported: " + aggCall);
+        }
+
+        List<Integer> args = aggCall.getArgList();
+
+        if (args.size() > 1) {
+            throw QueryException.error("Aggregates with several arguments are not supported: " + aggCall);
+        }
+
+        Expression<?> operand = null;
+
+        if (phase != AggregatePhase.FINAL && !args.isEmpty()) {
+            int index = args.get(0);
+
+            operand = ColumnExpression.create(index, schema.getType(index));
+        }
+
+        QueryDataType resultType = HazelcastTypeUtils.toHazelcastType(aggCall.getType().getSqlTypeName());
+
+        switch (aggCall.getAggregation().getKind()) {
+            case COUNT:
+                return CountAggregateExpression.create(operand);
+
+            case SUM:
+                return SumAggregateExpression.create(operand, resultType);
+
+            case AVG:
+                return AvgAggregateExpression.create(operand, resultType);
+
+            case MIN:
+                return MinMaxAggregateExpression.create(operand, resultType, true);
+
+            case MAX:
+                return MinMaxAggregateExpression.create(operand, resultType, false);
+
+            default:
+                throw QueryException.error("Unsupported aggregate function: " + aggCall.getAggregation().getName());
+        }
+    }
+
     private static PlanNodeSchema getScanSchemaBeforeProject(AbstractMapTable table) {
         List<QueryDataType> types = new ArrayList<>(table.getFieldCount());
 
@@ -415,6 +674,15 @@ public class PlanCreateVisitor implements PhysicalRelVisitor {
         return new PlanNodeSchema(types);
     }
 
+    private static PlanNodeSchema concatSchemas(PlanNodeSchema leftSchema, PlanNodeSchema rightSchema) {
+        List<QueryDataType> types = new ArrayList<>(leftSchema.getTypes().size() + rightSchema.getTypes().size());
+
+        types.addAll(leftSchema.getTypes());
+        types.addAll(rightSchema.getTypes());
+
+        return new PlanNodeSchema(types);
+    }
+
     private static List<QueryPath> getScanFieldPaths(AbstractMapTable table) {
         List<QueryPath> res = new ArrayList<>(table.getFieldCount());
 
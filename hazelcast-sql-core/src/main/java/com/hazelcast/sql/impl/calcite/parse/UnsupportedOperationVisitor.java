@@ -22,18 +22,21 @@ import com.hazelcast.sql.impl.schema.Table;
 import com.hazelcast.sql.impl.schema.map.AbstractMapTable;
 import org.apache.calcite.runtime.CalciteContextException;
 import org.apache.calcite.runtime.Resources;
+import org.apache.calcite.sql.JoinConditionType;
+import org.apache.calcite.sql.JoinType;
 import org.apache.calcite.sql.SqlBasicTypeNameSpec;
 import org.apache.calcite.sql.SqlCall;
 import org.apache.calcite.sql.SqlDataTypeSpec;
 import org.apache.calcite.sql.SqlDynamicParam;
 import org.apache.calcite.sql.SqlIdentifier;
 import org.apache.calcite.sql.SqlIntervalQualifier;
+import org.apache.calcite.sql.SqlJoin;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.SqlLiteral;
 import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.SqlNodeList;
 import org.apache.calcite.sql.SqlOperator;
-import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.SqlSelectKeyword;
 import org.apache.calcite.sql.SqlUserDefinedTypeNameSpec;
 import org.apache.calcite.sql.SqlUtil;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
@@ -109,6 +112,16 @@ public final class UnsupportedOperationVisitor implements SqlVisitor<Void> {
         SUPPORTED_KINDS.add(SqlKind.LIKE);
         SUPPORTED_KINDS.add(SqlKind.TRIM);
 
+        // Aggregates
+        SUPPORTED_KINDS.add(SqlKind.COUNT);
+        SUPPORTED_KINDS.add(SqlKind.SUM);
+        SUPPORTED_KINDS.add(SqlKind.AVG);
+        SUPPORTED_KINDS.add(SqlKind.MIN);
+        SUPPORTED_KINDS.add(SqlKind.MAX);
+
+        // Sort
+        SUPPORTED_KINDS.add(SqlKind.DESCENDING);
+
         // Supported operators
         SUPPORTED_OPERATORS = new HashSet<>();
 
@@ -267,6 +280,11 @@ public final class UnsupportedOperationVisitor implements SqlVisitor<Void> {
                     return null;
                 }
 
+                if (symbolValue instanceof JoinType || symbolValue instanceof JoinConditionType) {
+                    // Join types are validated in processJoin.
+                    return null;
+                }
+
                 throw error(literal, RESOURCE.custom(symbolValue + " literal is not supported"));
 
             default:
@@ -283,12 +301,21 @@ public final class UnsupportedOperationVisitor implements SqlVisitor<Void> {
         SqlKind kind = call.getKind();
 
         if (SUPPORTED_KINDS.contains(kind)) {
+            SqlLiteral quantifier = call.getFunctionQuantifier();
+
+            if (quantifier != null && quantifier.getValue() == SqlSelectKeyword.DISTINCT) {
+                throw error(quantifier, RESOURCE.custom("DISTINCT aggregates are not supported"));
+            }
+
             return;
         }
 
         switch (kind) {
             case SELECT:
-                processSelect((SqlSelect) call);
+                return;
+
+            case JOIN:
+                processJoin((SqlJoin) call);
 
                 return;
 
@@ -302,21 +329,16 @@ public final class UnsupportedOperationVisitor implements SqlVisitor<Void> {
         }
     }
 
-    private void processSelect(SqlSelect select) {
-        if (select.hasOrderBy()) {
-            throw unsupported(select.getOrderList(), SqlKind.ORDER_BY);
-        }
-
-        if (select.getGroup() != null && select.getGroup().size() > 0) {
-            throw unsupported(select.getGroup(), "GROUP BY");
-        }
-
-        if (select.getFetch() != null) {
-            throw unsupported(select.getFetch(), "LIMIT");
-        }
+    private void processJoin(SqlJoin join) {
+        switch (join.getJoinType()) {
+            case INNER:
+            case LEFT:
+            case CROSS:
+            case COMMA:
+                return;
 
-        if (select.getOffset() != null) {
-            throw unsupported(select.getOffset(), "OFFSET");
+            default:
+                throw unsupported(join.getJoinTypeNode(), join.getJoinType().name() + " JOIN");
         }
     }
 
@@ -335,10 +357,6 @@ public final class UnsupportedOperationVisitor implements SqlVisitor<Void> {
         return unsupported(call, name.replace("$", "").replace('_', ' '));
     }
 
-    private CalciteContextException unsupported(SqlNode node, SqlKind kind) {
-        return unsupported(node, kind.sql.replace('_', ' '));
-    }
-
     private CalciteContextException unsupported(SqlNode node, String name) {
         return error(node, RESOURCE.notSupported(name));
     }
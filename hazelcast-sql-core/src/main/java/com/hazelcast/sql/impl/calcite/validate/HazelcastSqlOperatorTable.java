@@ -35,6 +35,7 @@ import com.hazelcast.sql.impl.calcite.validate.operators.string.HazelcastStringF
 import com.hazelcast.sql.impl.calcite.validate.operators.string.HazelcastSubstringFunction;
 import com.hazelcast.sql.impl.calcite.validate.operators.string.HazelcastTrimFunction;
 import org.apache.calcite.runtime.CalciteException;
+import org.apache.calcite.sql.SqlAggFunction;
 import org.apache.calcite.sql.SqlBasicCall;
 import org.apache.calcite.sql.SqlBinaryOperator;
 import org.apache.calcite.sql.SqlCall;
@@ -170,6 +171,16 @@ public final class HazelcastSqlOperatorTable extends ReflectiveSqlOperatorTable
 
     //#endregion
 
+    //#region Aggregate functions
+
+    public static final SqlAggFunction COUNT = SqlStdOperatorTable.COUNT;
+    public static final SqlAggFunction SUM = SqlStdOperatorTable.SUM;
+    public static final SqlAggFunction AVG = SqlStdOperatorTable.AVG;
+    public static final SqlAggFunction MIN = SqlStdOperatorTable.MIN;
+    public static final SqlAggFunction MAX = SqlStdOperatorTable.MAX;
+
+    //#endregion
+
     //@formatter:on
 
     private static final HazelcastSqlOperatorTable INSTANCE = new HazelcastSqlOperatorTable();
@@ -23,6 +23,7 @@ import com.hazelcast.sql.impl.calcite.schema.HazelcastTable;
 import com.hazelcast.sql.impl.calcite.validate.literal.LiteralUtils;
 import com.hazelcast.sql.impl.calcite.validate.param.StrictParameterConverter;
 import com.hazelcast.sql.impl.calcite.validate.types.HazelcastTypeFactory;
+import org.apache.calcite.config.NullCollation;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.sql.SqlCall;
 import org.apache.calcite.sql.SqlDynamicParam;
@@ -54,7 +55,13 @@ import java.util.Set;
  */
 public class HazelcastSqlValidator extends SqlValidatorImplBridge {
 
-    private static final Config CONFIG = Config.DEFAULT.withIdentifierExpansion(true);
+    /**
+     * Nulls are considered less than any other value, i.e. they go first in the ascending order. This is the order in which
+     * sorted indexes return the entries, so that an index scan could be used instead of a sort.
+     */
+    private static final Config CONFIG = Config.DEFAULT
+        .withIdentifierExpansion(true)
+        .withDefaultNullCollation(NullCollation.LOW);
 
     /** Parameter converter that will be passed to parameter metadata. */
     private final Map<Integer, ParameterConverter> parameterConverterMap = new HashMap<>();
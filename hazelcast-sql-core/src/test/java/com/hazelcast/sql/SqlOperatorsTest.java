@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.test.HazelcastParallelParametersRunnerFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Test that covers aggregations, joins and sorting through SQL, checking the
+ * results against the ones computed in Java. The data is spread across two
+ * members, so that the distributed forms of the operators are exercised.
+ */
+@RunWith(Parameterized.class)
+@Parameterized.UseParametersRunnerFactory(HazelcastParallelParametersRunnerFactory.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+@SuppressWarnings("checkstyle:RedundantModifier")
+public class SqlOperatorsTest extends SqlTestSupport {
+
+    private static final int EMPLOYEE_COUNT = 1000;
+    private static final int DEPARTMENT_COUNT = 100;
+    private static final int STORED_DEPARTMENT_COUNT = 70;
+
+    private static final String EMPLOYEE_MAP = "emp";
+    private static final String INDEXED_EMPLOYEE_MAP = "emp_indexed";
+    private static final String DEPARTMENT_MAP = "dept";
+
+    private static final SqlTestInstanceFactory FACTORY = SqlTestInstanceFactory.create();
+
+    private static HazelcastInstance member1;
+    private static HazelcastInstance member2;
+
+    @Parameter
+    public InMemoryFormat inMemoryFormat;
+
+    private final Map<Integer, Employee> employees = new HashMap<>();
+    private final Map<Integer, Department> departments = new HashMap<>();
+
+    @Parameters(name = "inMemoryFormat:{0}")
+    public static Collection<Object[]> parameters() {
+        List<Object[]> res = new ArrayList<>();
+
+        for (InMemoryFormat format : new InMemoryFormat[] { InMemoryFormat.OBJECT, InMemoryFormat.BINARY }) {
+            res.add(new Object[] { format });
+        }
+
+        return res;
+    }
+
+    @BeforeClass
+    public static void beforeClass() {
+        member1 = FACTORY.newHazelcastInstance(memberConfig());
+        member2 = FACTORY.newHazelcastInstance(memberConfig());
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        FACTORY.shutdownAll();
+    }
+
+    @Before
+    public void before() {
+        // Salaries are unique, so that the order of the employees sorted by them is deterministic
+        for (int i = 0; i < EMPLOYEE_COUNT; i++) {
+            employees.put(i, new Employee(i % DEPARTMENT_COUNT, (i * 7L) % EMPLOYEE_COUNT));
+        }
+
+        // The employees of the departments which aren't stored have no match in the joins
+        for (int i = 0; i < STORED_DEPARTMENT_COUNT; i++) {
+            departments.put(i, new Department("dept-" + i));
+        }
+
+        member1.getMap(mapName(EMPLOYEE_MAP)).putAll(employees);
+        member1.getMap(mapName(INDEXED_EMPLOYEE_MAP)).putAll(employees);
+        member1.getMap(mapName(DEPARTMENT_MAP)).putAll(departments);
+    }
+
+    @Test
+    public void testGroupBy() {
+        Map<Integer, List<Long>> expected = new TreeMap<>();
+
+        for (Employee employee : employees.values()) {
+            if (employee.salary < EMPLOYEE_COUNT / 2) {
+                expected.computeIfAbsent(employee.deptId, (k) -> new ArrayList<>()).add(employee.salary);
+            }
+        }
+
+        List<SqlRow> rows = execute(
+            member1,
+            "SELECT deptId, COUNT(*), SUM(salary), MIN(salary), MAX(salary) FROM " + mapName(EMPLOYEE_MAP)
+                + " WHERE salary < ? GROUP BY deptId",
+            EMPLOYEE_COUNT / 2
+        );
+
+        assertEquals(expected.size(), rows.size());
+
+        for (SqlRow row : rows) {
+            List<Long> salaries = expected.get((Integer) row.getObject(0));
+            assertNotNull(salaries);
+
+            assertEquals(salaries.size(), longValue(row, 1));
+            assertEquals(salaries.stream().mapToLong(Long::longValue).sum(), longValue(row, 2));
+            assertEquals(salaries.stream().mapToLong(Long::longValue).min().getAsLong(), longValue(row, 3));
+            assertEquals(salaries.stream().mapToLong(Long::longValue).max().getAsLong(), longValue(row, 4));
+        }
+    }
+
+    @Test
+    public void testGroupByHaving() {
+        Map<Integer, Long> sums = new HashMap<>();
+
+        for (Employee employee : employees.values()) {
+            sums.merge(employee.deptId, employee.salary, Long::sum);
+        }
+
+        long average = sums.values().stream().mapToLong(Long::longValue).sum() / sums.size();
+
+        Set<Integer> expected = sums.entrySet().stream()
+            .filter((e) -> e.getValue() > average).map(Map.Entry::getKey).collect(Collectors.toSet());
+
+        List<SqlRow> rows = execute(
+            member1,
+            "SELECT deptId FROM " + mapName(EMPLOYEE_MAP) + " GROUP BY deptId HAVING SUM(salary) > ?",
+            average
+        );
+
+        assertEquals(expected, rows.stream().map((row) -> (Integer) row.getObject(0)).collect(Collectors.toSet()));
+        assertEquals(expected.size(), rows.size());
+    }
+
+    @Test
+    public void testGlobalAggregate() {
+        List<SqlRow> rows = execute(
+            member1,
+            "SELECT COUNT(*), SUM(salary), MIN(deptId), MAX(deptId) FROM " + mapName(EMPLOYEE_MAP)
+        );
+
+        assertEquals(1, rows.size());
+        assertEquals(EMPLOYEE_COUNT, longValue(rows.get(0), 0));
+        assertEquals(employees.values().stream().mapToLong((e) -> e.salary).sum(), longValue(rows.get(0), 1));
+        assertEquals(0, longValue(rows.get(0), 2));
+        assertEquals(DEPARTMENT_COUNT - 1, longValue(rows.get(0), 3));
+    }
+
+    @Test
+    public void testInnerJoin() {
+        Set<List<Object>> expected = new HashSet<>();
+
+        for (Map.Entry<Integer, Employee> entry : employees.entrySet()) {
+            Department department = departments.get(entry.getValue().deptId);
+
+            if (department != null) {
+                expected.add(Arrays.asList(entry.getKey(), department.name));
+            }
+        }
+
+        checkRows(
+            expected,
+            "SELECT e.__key, d.name FROM " + mapName(EMPLOYEE_MAP) + " e JOIN " + mapName(DEPARTMENT_MAP)
+                + " d ON e.deptId = d.__key"
+        );
+    }
+
+    @Test
+    public void testInnerJoin_indexed() {
+        Set<List<Object>> expected = new HashSet<>();
+
+        for (Map.Entry<Integer, Employee> entry : employees.entrySet()) {
+            if (departments.containsKey(entry.getValue().deptId)) {
+                expected.add(Arrays.asList(entry.getValue().deptId, entry.getKey()));
+            }
+        }
+
+        checkRows(
+            expected,
+            "SELECT d.__key, e.__key FROM " + mapName(DEPARTMENT_MAP) + " d JOIN " + mapName(INDEXED_EMPLOYEE_MAP)
+                + " e ON d.__key = e.deptId"
+        );
+    }
+
+    @Test
+    public void testLeftJoin() {
+        Set<List<Object>> expected = new HashSet<>();
+
+        for (Map.Entry<Integer, Employee> entry : employees.entrySet()) {
+            Department department = departments.get(entry.getValue().deptId);
+
+            expected.add(Arrays.asList(entry.getKey(), department == null ? null : department.name));
+        }
+
+        checkRows(
+            expected,
+            "SELECT e.__key, d.name FROM " + mapName(EMPLOYEE_MAP) + " e LEFT JOIN " + mapName(DEPARTMENT_MAP)
+                + " d ON e.deptId = d.__key"
+        );
+    }
+
+    @Test
+    public void testJoinGroupBy() {
+        Map<String, Long> expected = new HashMap<>();
+
+        for (Employee employee : employees.values()) {
+            Department department = departments.get(employee.deptId);
+
+            if (department != null) {
+                expected.merge(department.name, 1L, Long::sum);
+            }
+        }
+
+        List<SqlRow> rows = execute(
+            member1,
+            "SELECT d.name, COUNT(*) FROM " + mapName(EMPLOYEE_MAP) + " e JOIN " + mapName(DEPARTMENT_MAP)
+                + " d ON e.deptId = d.__key GROUP BY d.name"
+        );
+
+        Map<String, Long> actual = new HashMap<>();
+
+        for (SqlRow row : rows) {
+            actual.put(row.getObject(0), longValue(row, 1));
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), rows.size());
+    }
+
+    @Test
+    public void testOrderBy() {
+        List<List<Object>> expected = sortedEmployees(
+            Comparator.comparing((Map.Entry<Integer, Employee> e) -> e.getValue().deptId).reversed()
+                .thenComparing((e) -> e.getValue().salary),
+            0,
+            EMPLOYEE_COUNT
+        );
+
+        checkOrderedRows(
+            expected,
+            "SELECT __key, salary FROM " + mapName(EMPLOYEE_MAP) + " ORDER BY deptId DESC, salary"
+        );
+    }
+
+    @Test
+    public void testOrderByLimit() {
+        List<List<Object>> expected = sortedEmployees(
+            Comparator.comparing((Map.Entry<Integer, Employee> e) -> e.getValue().salary).reversed(),
+            0,
+            10
+        );
+
+        checkOrderedRows(
+            expected,
+            "SELECT __key, salary FROM " + mapName(EMPLOYEE_MAP) + " ORDER BY salary DESC LIMIT 10"
+        );
+    }
+
+    @Test
+    public void testOrderByOffset() {
+        Comparator<Map.Entry<Integer, Employee>> comparator = Comparator.comparing((e) -> e.getValue().salary);
+
+        // The rows around the middle of the result come from the partitions of both members
+        checkOrderedRows(
+            sortedEmployees(comparator, EMPLOYEE_COUNT / 2 - 10, 20),
+            "SELECT __key, salary FROM " + mapName(EMPLOYEE_MAP) + " ORDER BY salary LIMIT 20 OFFSET "
+                + (EMPLOYEE_COUNT / 2 - 10)
+        );
+
+        checkOrderedRows(
+            sortedEmployees(comparator, EMPLOYEE_COUNT - 5, 5),
+            "SELECT __key, salary FROM " + mapName(EMPLOYEE_MAP) + " ORDER BY salary OFFSET " + (EMPLOYEE_COUNT - 5)
+        );
+
+        checkOrderedRows(
+            sortedEmployees(comparator, EMPLOYEE_COUNT, 0),
+            "SELECT __key, salary FROM " + mapName(EMPLOYEE_MAP) + " ORDER BY salary LIMIT 10 OFFSET " + EMPLOYEE_COUNT
+        );
+    }
+
+    @Test
+    public void testOrderBy_indexed() {
+        Comparator<Map.Entry<Integer, Employee>> comparator = Comparator.comparing((e) -> e.getValue().salary);
+        List<List<Object>> expected = new ArrayList<>();
+
+        for (List<Object> row : sortedEmployees(comparator, 0, EMPLOYEE_COUNT)) {
+            if ((Long) row.get(1) > 100 && expected.size() < 50) {
+                expected.add(row);
+            }
+        }
+
+        String sql = "SELECT __key, salary FROM " + mapName(INDEXED_EMPLOYEE_MAP) + " WHERE salary > 100 "
+            + "ORDER BY salary LIMIT 50";
+
+        try (SqlResult result = member1.getSql().execute(sql)) {
+            assertNotNull(findFirstIndexNode(result));
+        }
+
+        checkOrderedRows(expected, sql);
+
+        checkOrderedRows(
+            sortedEmployees(comparator, EMPLOYEE_COUNT / 2, 10),
+            "SELECT __key, salary FROM " + mapName(INDEXED_EMPLOYEE_MAP) + " ORDER BY salary LIMIT 10 OFFSET "
+                + (EMPLOYEE_COUNT / 2)
+        );
+    }
+
+    private List<List<Object>> sortedEmployees(Comparator<Map.Entry<Integer, Employee>> comparator, int offset, int limit) {
+        return employees.entrySet().stream()
+            .sorted(comparator)
+            .skip(offset)
+            .limit(limit)
+            .map((e) -> Arrays.<Object>asList(e.getKey(), e.getValue().salary))
+            .collect(Collectors.toList());
+    }
+
+    private void checkRows(Set<List<Object>> expected, String sql) {
+        List<SqlRow> rows = execute(member1, sql);
+
+        assertEquals(expected.size(), rows.size());
+        assertEquals(expected, new HashSet<>(toLists(rows)));
+    }
+
+    private void checkOrderedRows(List<List<Object>> expected, String sql) {
+        assertEquals(expected, toLists(execute(member1, sql)));
+    }
+
+    private static List<List<Object>> toLists(List<SqlRow> rows) {
+        List<List<Object>> res = new ArrayList<>(rows.size());
+
+        for (SqlRow row : rows) {
+            List<Object> values = new ArrayList<>(row.getMetadata().getColumnCount());
+
+            for (int i = 0; i < row.getMetadata().getColumnCount(); i++) {
+                values.add(row.getObject(i));
+            }
+
+            res.add(values);
+        }
+
+        return res;
+    }
+
+    private static long longValue(SqlRow row, int index) {
+        return ((Number) row.getObject(index)).longValue();
+    }
+
+    private String mapName(String baseName) {
+        return baseName + "_" + inMemoryFormat.name().toLowerCase();
+    }
+
+    private static Config memberConfig() {
+        Config config = new Config();
+
+        for (InMemoryFormat format : new InMemoryFormat[] { InMemoryFormat.OBJECT, InMemoryFormat.BINARY }) {
+            String suffix = "_" + format.name().toLowerCase();
+
+            config
+                .addMapConfig(new MapConfig(EMPLOYEE_MAP + suffix).setInMemoryFormat(format))
+                .addMapConfig(new MapConfig(DEPARTMENT_MAP + suffix).setInMemoryFormat(format))
+                .addMapConfig(new MapConfig(INDEXED_EMPLOYEE_MAP + suffix).setInMemoryFormat(format)
+                    .addIndexConfig(new IndexConfig(IndexType.SORTED, "salary"))
+                    .addIndexConfig(new IndexConfig(IndexType.SORTED, "deptId")));
+        }
+
+        return config;
+    }
+
+    public static class Employee implements Serializable {
+
+        public int deptId;
+        public long salary;
+
+        public Employee() {
+            // No-op.
+        }
+
+        public Employee(int deptId, long salary) {
+            this.deptId = deptId;
+            this.salary = salary;
+        }
+    }
+
+    public static class Department implements Serializable {
+
+        public String name;
+
+        public Department() {
+            // No-op.
+        }
+
+        public Department(String name) {
+            this.name = name;
+        }
+    }
+}
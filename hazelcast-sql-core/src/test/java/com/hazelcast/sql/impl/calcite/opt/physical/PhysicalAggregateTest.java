@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.calcite.opt.physical;
+
+import com.hazelcast.sql.impl.calcite.opt.OptimizerTestSupport;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.RootExchangePhysicalRel;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for aggregate planning.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PhysicalAggregateTest extends OptimizerTestSupport {
+    @Test
+    public void test_singleNode() {
+        assertPlan(
+            optimizePhysical("SELECT f0, COUNT(*) FROM p GROUP BY f0"),
+            plan(
+                planRow(0, RootPhysicalRel.class, ""),
+                planRow(1, AggregatePhysicalRel.class, "group=[{0}], EXPR$1=[COUNT()], phase=[COMPLETE]"),
+                planRow(2, MapScanPhysicalRel.class, "table=[[hazelcast, p[projects=[0]]]]")
+            )
+        );
+    }
+
+    @Test
+    public void test_multipleNodes() {
+        assertPlan(
+            optimizePhysical("SELECT f0, COUNT(*) FROM p GROUP BY f0", 2),
+            plan(
+                planRow(0, RootPhysicalRel.class, ""),
+                planRow(1, AggregatePhysicalRel.class, "group=[{0}], EXPR$1=[COUNT($1)], phase=[FINAL]"),
+                planRow(2, RootExchangePhysicalRel.class, ""),
+                planRow(3, AggregatePhysicalRel.class, "group=[{0}], EXPR$1=[COUNT()], phase=[LOCAL]"),
+                planRow(4, MapScanPhysicalRel.class, "table=[[hazelcast, p[projects=[0]]]]")
+            )
+        );
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.calcite.opt.physical;
+
+import com.hazelcast.config.IndexType;
+import com.hazelcast.sql.impl.calcite.opt.OptimizerTestSupport;
+import com.hazelcast.sql.impl.calcite.opt.PlanRows;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.BroadcastExchangePhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.RootExchangePhysicalRel;
+import com.hazelcast.sql.impl.calcite.schema.HazelcastSchema;
+import com.hazelcast.sql.impl.schema.map.MapTableIndex;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.schema.Table;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.sql.impl.type.QueryDataType.INT;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for join planning.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PhysicalJoinTest extends OptimizerTestSupport {
+    @Override
+    protected HazelcastSchema createDefaultSchema() {
+        Map<String, Table> tableMap = new HashMap<>();
+
+        tableMap.put("p", partitionedTable("p", fields("f0", INT, "f1", INT), null, 100));
+        tableMap.put("q", partitionedTable("q", fields("f0", INT, "f1", INT), null, 10));
+        tableMap.put("i", partitionedTable(
+            "i",
+            fields("f0", INT, "f1", INT),
+            singletonList(new MapTableIndex("i_f0", IndexType.HASH, 1, singletonList(0), singletonList(INT))),
+            10_000
+        ));
+
+        return new HazelcastSchema(tableMap);
+    }
+
+    @Test
+    public void test_hashJoin_singleNode() {
+        PlanRows plan = plan(optimizePhysical("SELECT p.f1, q.f1 FROM p JOIN q ON p.f0 = q.f0"));
+
+        assertEquals(1, count(plan, HashJoinPhysicalRel.class));
+        assertEquals(0, count(plan, RootExchangePhysicalRel.class));
+        assertEquals(0, count(plan, BroadcastExchangePhysicalRel.class));
+    }
+
+    @Test
+    public void test_hashJoin_multipleNodes() {
+        PlanRows plan = plan(optimizePhysical("SELECT p.f1, q.f1 FROM p JOIN q ON p.f0 = q.f0", 2));
+
+        assertEquals(1, count(plan, HashJoinPhysicalRel.class));
+        assertTrue(count(plan, RootExchangePhysicalRel.class) > 0);
+    }
+
+    @Test
+    public void test_hashJoin_nonEquiCondition() {
+        PlanRows plan = plan(optimizePhysical("SELECT p.f1, i.f1 FROM p JOIN i ON p.f0 < i.f0"));
+
+        assertEquals(1, count(plan, HashJoinPhysicalRel.class));
+        assertEquals(0, count(plan, IndexNestedLoopJoinPhysicalRel.class));
+    }
+
+    @Test
+    public void test_indexJoin_singleNode() {
+        PlanRows plan = plan(optimizePhysical("SELECT p.f1, i.f1 FROM p JOIN i ON p.f0 = i.f0"));
+
+        assertEquals(1, count(plan, IndexNestedLoopJoinPhysicalRel.class));
+        assertEquals(0, count(plan, HashJoinPhysicalRel.class));
+    }
+
+    @Test
+    public void test_indexJoin_multipleNodes() {
+        PlanRows plan = plan(optimizePhysical("SELECT p.f1, i.f1 FROM p JOIN i ON p.f0 = i.f0", 2));
+
+        assertEquals(1, count(plan, IndexNestedLoopJoinPhysicalRel.class));
+        assertEquals(1, count(plan, BroadcastExchangePhysicalRel.class));
+        assertEquals(1, count(plan, RootExchangePhysicalRel.class));
+    }
+
+    @Test
+    public void test_indexJoin_leftOuter_singleNode() {
+        PlanRows plan = plan(optimizePhysical("SELECT p.f1, i.f1 FROM p LEFT JOIN i ON p.f0 = i.f0"));
+
+        assertEquals(1, count(plan, IndexNestedLoopJoinPhysicalRel.class));
+    }
+
+    @Test
+    public void test_indexJoin_leftOuter_multipleNodes() {
+        // Unmatched outer rows cannot be detected locally when the outer input is broadcast.
+        PlanRows plan = plan(optimizePhysical("SELECT p.f1, i.f1 FROM p LEFT JOIN i ON p.f0 = i.f0", 2));
+
+        assertEquals(0, count(plan, IndexNestedLoopJoinPhysicalRel.class));
+        assertEquals(1, count(plan, HashJoinPhysicalRel.class));
+    }
+
+    private static int count(PlanRows plan, Class<? extends RelNode> nodeClass) {
+        int res = 0;
+
+        for (int i = 0; i < plan.getRowCount(); i++) {
+            if (plan.getRow(i).getNode().equals(nodeClass.getSimpleName())) {
+                res++;
+            }
+        }
+
+        return res;
+    }
+}
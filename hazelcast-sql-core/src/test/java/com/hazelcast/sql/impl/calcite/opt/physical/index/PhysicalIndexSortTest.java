@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.calcite.opt.physical.index;
+
+import com.hazelcast.config.IndexType;
+import com.hazelcast.sql.impl.calcite.opt.OptimizerTestSupport;
+import com.hazelcast.sql.impl.calcite.opt.physical.MapIndexScanPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.MapScanPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.RootPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.SortPhysicalRel;
+import com.hazelcast.sql.impl.calcite.opt.physical.exchange.SortMergeExchangePhysicalRel;
+import com.hazelcast.sql.impl.calcite.schema.HazelcastSchema;
+import com.hazelcast.sql.impl.calcite.schema.HazelcastTable;
+import com.hazelcast.sql.impl.schema.map.MapTableIndex;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.apache.calcite.schema.Table;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.sql.impl.type.QueryDataType.INT;
+import static java.util.Arrays.asList;
+
+/**
+ * Tests for the sorted index scans used instead of sorting.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PhysicalIndexSortTest extends IndexOptimizerTestSupport {
+    private static final String INDEX_NAME = "index";
+
+    @Override
+    protected HazelcastSchema createDefaultSchema() {
+        Map<String, Table> tableMap = new HashMap<>();
+
+        HazelcastTable pTable = OptimizerTestSupport.partitionedTable(
+            "p",
+            OptimizerTestSupport.fields("ret", INT, "f1", INT, "f2", INT),
+            Collections.singletonList(
+                new MapTableIndex(INDEX_NAME, IndexType.SORTED, 2, asList(1, 2), asList(INT, INT))
+            ),
+            100,
+            false
+        );
+
+        tableMap.put("p", pTable);
+
+        return new HazelcastSchema(tableMap);
+    }
+
+    @Test
+    public void test_fullScan() {
+        assertPlan(
+            optimizePhysical("SELECT ret, f1 FROM p ORDER BY f1"),
+            plan(
+                planRow(0, RootPhysicalRel.class, ""),
+                planRow(1, SortPhysicalRel.class, "sort0=[$1], dir0=[ASC-nulls-first], inputSorted=[true]"),
+                planRow(2, MapIndexScanPhysicalRel.class, "table=[[hazelcast, p[projects=[0, 1]]]], index=[index], "
+                    + "indexExp=[null], remainderExp=[null]")
+            )
+        );
+    }
+
+    @Test
+    public void test_fullScan_composite() {
+        assertPlan(
+            optimizePhysical("SELECT f1, f2 FROM p ORDER BY f1, f2"),
+            plan(
+                planRow(0, RootPhysicalRel.class, ""),
+                planRow(1, SortPhysicalRel.class, "sort0=[$0], sort1=[$1], dir0=[ASC-nulls-first], dir1=[ASC-nulls-first], "
+                    + "inputSorted=[true]"),
+                planRow(2, MapIndexScanPhysicalRel.class, "table=[[hazelcast, p[projects=[1, 2]]]], index=[index], "
+                    + "indexExp=[null], remainderExp=[null]")
+            )
+        );
+    }
+
+    @Test
+    public void test_rangeScan() {
+        assertPlan(
+            optimizePhysical("SELECT ret, f1 FROM p WHERE f1 > 1 ORDER BY f1"),
+            plan(
+                planRow(0, RootPhysicalRel.class, ""),
+                planRow(1, SortPhysicalRel.class, "sort0=[$1], dir0=[ASC-nulls-first], inputSorted=[true]"),
+                planRow(2, MapIndexScanPhysicalRel.class, "table=[[hazelcast, p[projects=[0, 1]]]], index=[index], "
+                    + "indexExp=[>($1, 1)], remainderExp=[null]")
+            )
+        );
+    }
+
+    @Test
+    public void test_descending() {
+        checkSortWithoutIndex("SELECT f1, f2 FROM p ORDER BY f1 DESC", "sort0=[$0], dir0=[DESC-nulls-last]");
+    }
+
+    @Test
+    public void test_notLeadingComponent() {
+        checkSortWithoutIndex("SELECT f1, f2 FROM p ORDER BY f2", "sort0=[$1], dir0=[ASC-nulls-first]");
+        checkSortWithoutIndex("SELECT f1, f2 FROM p ORDER BY f2, f1", "sort0=[$1], sort1=[$0], dir0=[ASC-nulls-first], "
+            + "dir1=[ASC-nulls-first]");
+    }
+
+    @Test
+    public void test_multipleNodes() {
+        assertPlan(
+            optimizePhysical("SELECT ret, f1 FROM p ORDER BY f1", 2),
+            plan(
+                planRow(0, RootPhysicalRel.class, ""),
+                planRow(1, SortMergeExchangePhysicalRel.class, "collation=[[1 ASC FIRST]]"),
+                planRow(2, MapIndexScanPhysicalRel.class, "table=[[hazelcast, p[projects=[0, 1]]]], index=[index], "
+                    + "indexExp=[null], remainderExp=[null]")
+            )
+        );
+    }
+
+    @Test
+    public void test_multipleNodes_topN() {
+        assertPlan(
+            optimizePhysical("SELECT ret, f1 FROM p ORDER BY f1 LIMIT 10", 2),
+            plan(
+                planRow(0, RootPhysicalRel.class, ""),
+                planRow(1, SortPhysicalRel.class, "fetch=[10]"),
+                planRow(2, SortMergeExchangePhysicalRel.class, "collation=[[1 ASC FIRST]]"),
+                planRow(3, SortPhysicalRel.class, "sort0=[$1], dir0=[ASC-nulls-first], fetch=[10], inputSorted=[true]"),
+                planRow(4, MapIndexScanPhysicalRel.class, "table=[[hazelcast, p[projects=[0, 1]]]], index=[index], "
+                    + "indexExp=[null], remainderExp=[null]")
+            )
+        );
+    }
+
+    private void checkSortWithoutIndex(String sql, String expectedSort) {
+        assertPlan(
+            optimizePhysical(sql),
+            plan(
+                planRow(0, RootPhysicalRel.class, ""),
+                planRow(1, SortPhysicalRel.class, expectedSort),
+                planRow(2, MapScanPhysicalRel.class, "table=[[hazelcast, p[projects=[1, 2]]]]")
+            )
+        );
+    }
+}
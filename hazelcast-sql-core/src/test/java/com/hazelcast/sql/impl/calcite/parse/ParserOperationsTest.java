@@ -98,50 +98,74 @@ public class ParserOperationsTest {
     }
 
     @Test
-    public void testUnsupportedOrderBy() {
-        checkFailure(
-            "SELECT a FROM t ORDER BY a",
-            "ORDER BY is not supported"
-        );
+    public void testOrderBy() {
+        checkSuccess("SELECT a FROM t ORDER BY a");
+        checkSuccess("SELECT a, b FROM t ORDER BY a ASC, b DESC");
+        checkSuccess("SELECT a FROM t ORDER BY b");
     }
 
     @Test
-    public void testUnsupportedGroupBy() {
+    public void testUnsupportedOrderByNulls() {
         checkFailure(
-            "SELECT a FROM t GROUP BY a",
-            "GROUP BY is not supported"
+            "SELECT a FROM t ORDER BY a NULLS FIRST",
+            "NULLS FIRST is not supported"
         );
     }
 
     @Test
-    public void testUnsupportedLimit() {
-        checkFailure(
-              "SELECT a FROM t LIMIT 1",
-              "LIMIT is not supported"
-        );
+    public void testGroupBy() {
+        checkSuccess("SELECT a FROM t GROUP BY a");
+        checkSuccess("SELECT a, COUNT(*) FROM t GROUP BY a");
+        checkSuccess("SELECT a, COUNT(*) FROM t GROUP BY a HAVING COUNT(*) > 1");
+    }
+
+    @Test
+    public void testLimitOffset() {
+        checkSuccess("SELECT a FROM t LIMIT 1");
+        checkSuccess("SELECT a FROM t OFFSET 1");
+        checkSuccess("SELECT a FROM t ORDER BY a LIMIT 1 OFFSET 1");
+        checkSuccess("SELECT a FROM t ORDER BY a LIMIT ?");
     }
 
     @Test
-    public void testUnsupportedOffset() {
+    public void testAggregate() {
+        checkSuccess("SELECT COUNT(*) FROM t");
+        checkSuccess("SELECT COUNT(a) FROM t");
+        checkSuccess("SELECT SUM(a) FROM t");
+        checkSuccess("SELECT AVG(a) FROM t");
+        checkSuccess("SELECT MIN(a), MAX(b) FROM t");
+    }
+
+    @Test
+    public void testUnsupportedDistinctAggregate() {
         checkFailure(
-              "SELECT a FROM t OFFSET 1",
-              "OFFSET is not supported"
+            "SELECT COUNT(DISTINCT a) FROM t",
+            "DISTINCT aggregates are not supported"
         );
     }
 
     @Test
-    public void testUnsupportedAggregate() {
+    public void testJoin() {
+        checkSuccess("SELECT t1.a, t2.a FROM t t1 JOIN t t2 ON t1.a = t2.a");
+        checkSuccess("SELECT t1.a, t2.a FROM t t1 INNER JOIN t t2 ON t1.a = t2.a AND t1.b > t2.b");
+        checkSuccess("SELECT t1.a, t2.a FROM t t1 LEFT JOIN t t2 ON t1.a = t2.a");
+        checkSuccess("SELECT t1.a, t2.a FROM t t1 CROSS JOIN t t2");
+        checkSuccess("SELECT t1.a, t2.a FROM t t1, t t2 WHERE t1.a = t2.a");
+    }
+
+    @Test
+    public void testUnsupportedRightJoin() {
         checkFailure(
-            "SELECT SUM(a) FROM t",
-            "Function 'SUM' does not exist"
+            "SELECT t1.a, t2.a FROM t t1 RIGHT JOIN t t2 ON t1.a = t2.a",
+            "RIGHT JOIN is not supported"
         );
     }
 
     @Test
-    public void testUnsupportedJoin() {
+    public void testUnsupportedFullJoin() {
         checkFailure(
-            "SELECT t1.a, t2.a FROM t t1 JOIN t t2 ON t1.a = t2.a",
-            "JOIN is not supported"
+            "SELECT t1.a, t2.a FROM t t1 FULL JOIN t t2 ON t1.a = t2.a",
+            "FULL JOIN is not supported"
         );
     }
 
@@ -123,6 +123,7 @@ import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.impl.DataAwareEntryEvent;
 import com.hazelcast.map.impl.ListenerAdapter;
 import com.hazelcast.map.impl.SimpleEntryView;
+import com.hazelcast.map.impl.iterator.MapQueryIterator;
 import com.hazelcast.map.impl.querycache.subscriber.QueryCacheEndToEndProvider;
 import com.hazelcast.map.impl.querycache.subscriber.QueryCacheRequest;
 import com.hazelcast.map.impl.querycache.subscriber.SubscriberContext;
@@ -1733,6 +1734,39 @@ public class ClientMapProxy<K, V> extends ClientProxy
                 predicate, projection);
     }
 
+    /**
+     * Returns an iterator for iterating the result of the projection on entries
+     * in all partitions which satisfy the predicate. The partitions are iterated
+     * one after another and the results are fetched in batches of the
+     * {@code fetchSize} from the partition owners, so unlike
+     * {@link #project(Projection, Predicate)} the memory used on both the client
+     * and the members is proportional to the batch size instead of the result
+     * size. The next batch is fetched only when the previous one has been
+     * consumed.
+     * <p>
+     * See {@link #iterator(int, int, Projection, Predicate)} for the meaning of
+     * the {@code fetchSize} and for the guarantees of the iteration while the
+     * map is mutated.
+     *
+     * @param fetchSize  the size of the batches which will be sent when iterating the data
+     * @param projection the projection to apply before returning the value. {@code null} value is not allowed
+     * @param predicate  the predicate which the entries must match. {@code null} value is not allowed
+     * @param <R>        the return type
+     * @return the iterator for the projected entries
+     * @throws UnsupportedOperationException if {@link Iterator#remove()} is invoked
+     * @throws IllegalArgumentException      if the predicate is of type {@link PagingPredicate}
+     */
+    public <R> Iterator<R> iterator(int fetchSize,
+                                    Projection<? super Map.Entry<K, V>, R> projection,
+                                    Predicate<K, V> predicate) {
+        checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        checkNotPagingPredicate(predicate, "iterator");
+        int partitionCount = getContext().getPartitionService().getPartitionCount();
+        return new MapQueryIterator<>(partitionCount, partitionId ->
+                new ClientMapQueryPartitionIterator<>(this, getContext(), fetchSize, partitionId, predicate, projection));
+    }
+
     @Override
     public InternalCompletableFuture<EventJournalInitialSubscriberState> subscribeToEventJournal(int partitionId) {
         final ClientMessage request = MapEventJournalSubscribeCodec.encodeRequest(name);
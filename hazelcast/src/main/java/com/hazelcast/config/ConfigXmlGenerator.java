@@ -955,7 +955,8 @@ public class ConfigXmlGenerator {
                             "batch-size", mergePolicyConfig.getBatchSize())
                     .node("split-brain-protection-ref", m.getSplitBrainProtectionName())
                     .node("read-backup-data", m.isReadBackupData())
-                    .node("metadata-policy", m.getMetadataPolicy());
+                    .node("metadata-policy", m.getMetadataPolicy())
+                    .node("value-compression-enabled", m.isValueCompressionEnabled());
 
             evictionConfigXmlGenerator(gen, m.getEvictionConfig());
             appendMerkleTreeConfig(gen, m.getMerkleTreeConfig());
@@ -16,10 +16,12 @@
 
 package com.hazelcast.config;
 
+import com.hazelcast.internal.cluster.Versions;
 import com.hazelcast.internal.config.ConfigDataSerializerHook;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.nio.serialization.impl.Versioned;
 import com.hazelcast.query.impl.IndexUtils;
 
 import java.io.IOException;
@@ -42,7 +44,7 @@ import static com.hazelcast.internal.util.Preconditions.checkNotNull;
  * @see com.hazelcast.config.IndexType
  * @see com.hazelcast.config.MapConfig#setIndexConfigs(List)
  */
-public class IndexConfig implements IdentifiedDataSerializable {
+public class IndexConfig implements IdentifiedDataSerializable, Versioned {
     /** Default index type. */
     public static final IndexType DEFAULT_TYPE = IndexType.SORTED;
 
@@ -55,6 +57,9 @@ public class IndexConfig implements IdentifiedDataSerializable {
     /** Indexed attributes. */
     private List<String> attributes;
 
+    /** Attributes stored alongside the indexed entries. */
+    private List<String> includedAttributes;
+
     private BitmapIndexOptions bitmapIndexOptions;
 
     public IndexConfig() {
@@ -94,6 +99,9 @@ public class IndexConfig implements IdentifiedDataSerializable {
         for (String attribute : other.getAttributes()) {
             addAttributeInternal(attribute);
         }
+        if (other.includedAttributes != null) {
+            this.includedAttributes = new ArrayList<>(other.includedAttributes);
+        }
     }
 
     /**
@@ -195,6 +203,58 @@ public class IndexConfig implements IdentifiedDataSerializable {
         return this;
     }
 
+    /**
+     * Gets the attributes which values are stored alongside the indexed
+     * entries in addition to the index attributes.
+     * <p>
+     * Queries projecting only the index attributes and the included
+     * attributes with {@link com.hazelcast.projection.Projections#singleAttribute}
+     * or {@link com.hazelcast.projection.Projections#multiAttribute} are
+     * answered from the index without deserializing the entry values. Not
+     * supported by {@link IndexType#BITMAP bitmap} indexes.
+     *
+     * @return Included attributes.
+     */
+    public List<String> getIncludedAttributes() {
+        if (includedAttributes == null) {
+            includedAttributes = new ArrayList<>();
+        }
+
+        return includedAttributes;
+    }
+
+    /**
+     * Adds an included attribute, see {@link #getIncludedAttributes()}.
+     *
+     * @param includedAttribute Attribute name.
+     * @return This instance for chaining.
+     */
+    public IndexConfig addIncludedAttribute(String includedAttribute) {
+        IndexUtils.validateAttribute(includedAttribute);
+
+        getIncludedAttributes().add(includedAttribute);
+
+        return this;
+    }
+
+    /**
+     * Sets included attributes, see {@link #getIncludedAttributes()}.
+     *
+     * @param includedAttributes Included attributes.
+     * @return This instance for chaining.
+     */
+    public IndexConfig setIncludedAttributes(List<String> includedAttributes) {
+        checkNotNull(includedAttributes, "Included attributes cannot be null.");
+
+        this.includedAttributes = new ArrayList<>(includedAttributes.size());
+
+        for (String includedAttribute : includedAttributes) {
+            addIncludedAttribute(includedAttribute);
+        }
+
+        return this;
+    }
+
     /**
      * Provides access to index options specific to bitmap indexes.
      *
@@ -234,6 +294,10 @@ public class IndexConfig implements IdentifiedDataSerializable {
         out.writeInt(type.getId());
         writeNullableList(attributes, out);
         out.writeObject(bitmapIndexOptions);
+        // RU_COMPAT_4_1
+        if (out.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            writeNullableList(includedAttributes, out);
+        }
     }
 
     @Override
@@ -242,6 +306,10 @@ public class IndexConfig implements IdentifiedDataSerializable {
         type = IndexType.getById(in.readInt());
         attributes = readNullableList(in);
         bitmapIndexOptions = in.readObject();
+        // RU_COMPAT_4_1
+        if (in.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            includedAttributes = readNullableList(in);
+        }
     }
 
     @Override
@@ -268,7 +336,11 @@ public class IndexConfig implements IdentifiedDataSerializable {
             return false;
         }
 
-        return getAttributes().equals(that.getAttributes());
+        if (!getAttributes().equals(that.getAttributes())) {
+            return false;
+        }
+
+        return getIncludedAttributes().equals(that.getIncludedAttributes());
     }
 
     @Override
@@ -278,6 +350,7 @@ public class IndexConfig implements IdentifiedDataSerializable {
         result = 31 * result + (type != null ? type.hashCode() : 0);
         result = 31 * result + getAttributes().hashCode();
         result = 31 * result + getBitmapIndexOptions().hashCode();
+        result = 31 * result + getIncludedAttributes().hashCode();
 
         return result;
     }
@@ -288,6 +361,9 @@ public class IndexConfig implements IdentifiedDataSerializable {
         if (bitmapIndexOptions != null && !bitmapIndexOptions.areDefault()) {
             string += ", bitmapIndexOptions=" + bitmapIndexOptions;
         }
+        if (includedAttributes != null && !includedAttributes.isEmpty()) {
+            string += ", includedAttributes=" + includedAttributes;
+        }
         return string + '}';
     }
 }
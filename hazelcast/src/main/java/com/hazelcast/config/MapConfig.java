@@ -16,12 +16,14 @@
 
 package com.hazelcast.config;
 
+import com.hazelcast.internal.cluster.Versions;
 import com.hazelcast.internal.config.ConfigDataSerializerHook;
 import com.hazelcast.internal.partition.IPartition;
 import com.hazelcast.map.IMap;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.nio.serialization.impl.Versioned;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
@@ -40,7 +42,7 @@ import static com.hazelcast.internal.util.Preconditions.isNotNull;
 /**
  * Contains the configuration for an {@link IMap}.
  */
-public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
+public class MapConfig implements IdentifiedDataSerializable, NamedConfig, Versioned {
 
     /**
      * The minimum number of backups
@@ -84,6 +86,11 @@ public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
      * Default value of whether statistics are enabled or not
      */
     public static final boolean DEFAULT_STATISTICS_ENABLED = true;
+
+    /**
+     * Default value compression setting
+     */
+    public static final boolean DEFAULT_VALUE_COMPRESSION_ENABLED = false;
     /**
      * Default max size.
      */
@@ -101,6 +108,7 @@ public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
 
     private boolean readBackupData;
     private boolean statisticsEnabled = DEFAULT_STATISTICS_ENABLED;
+    private boolean valueCompressionEnabled = DEFAULT_VALUE_COMPRESSION_ENABLED;
     private int backupCount = DEFAULT_BACKUP_COUNT;
     private int asyncBackupCount = MIN_BACKUP_COUNT;
     private int timeToLiveSeconds = DEFAULT_TTL_SECONDS;
@@ -149,6 +157,7 @@ public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
         this.readBackupData = config.readBackupData;
         this.cacheDeserializedValues = config.cacheDeserializedValues;
         this.statisticsEnabled = config.statisticsEnabled;
+        this.valueCompressionEnabled = config.valueCompressionEnabled;
         this.mergePolicyConfig = new MergePolicyConfig(config.mergePolicyConfig);
         this.wanReplicationRef = config.wanReplicationRef != null ? new WanReplicationRef(config.wanReplicationRef) : null;
         this.entryListenerConfigs = new ArrayList<>(config.getEntryListenerConfigs());
@@ -439,6 +448,33 @@ public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
         return this;
     }
 
+    /**
+     * Checks if value compression is enabled for this map.
+     *
+     * @return {@code true} if value compression is enabled, {@code false} otherwise
+     */
+    public boolean isValueCompressionEnabled() {
+        return valueCompressionEnabled;
+    }
+
+    /**
+     * Enables or disables value compression for this map.
+     * <p>
+     * When enabled, serialized values of a map with {@link InMemoryFormat#BINARY}
+     * in-memory format are stored compressed if they compress well, and are
+     * decompressed on every read. Values which turn out not to compress well
+     * are stored as they are. Compressed values are also sent as they are
+     * to backup replicas and during partition migrations. Value compression
+     * has no effect for other in-memory formats.
+     *
+     * @param valueCompressionEnabled {@code true} to enable value compression, {@code false} to disable
+     * @return the current map config instance
+     */
+    public MapConfig setValueCompressionEnabled(boolean valueCompressionEnabled) {
+        this.valueCompressionEnabled = valueCompressionEnabled;
+        return this;
+    }
+
     /**
      * Gets the WAN target replication reference.
      *
@@ -731,6 +767,9 @@ public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
         if (statisticsEnabled != that.statisticsEnabled) {
             return false;
         }
+        if (valueCompressionEnabled != that.valueCompressionEnabled) {
+            return false;
+        }
         if (!name.equals(that.name)) {
             return false;
         }
@@ -810,6 +849,7 @@ public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
         result = 31 * result + getQueryCacheConfigs().hashCode();
         result = 31 * result + getPartitionLostListenerConfigs().hashCode();
         result = 31 * result + (statisticsEnabled ? 1 : 0);
+        result = 31 * result + (valueCompressionEnabled ? 1 : 0);
         result = 31 * result + (partitioningStrategyConfig != null ? partitioningStrategyConfig.hashCode() : 0);
         result = 31 * result + (splitBrainProtectionName != null ? splitBrainProtectionName.hashCode() : 0);
         result = 31 * result + merkleTreeConfig.hashCode();
@@ -843,6 +883,7 @@ public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
                 + ", splitBrainProtectionName=" + splitBrainProtectionName
                 + ", queryCacheConfigs=" + queryCacheConfigs
                 + ", cacheDeserializedValues=" + cacheDeserializedValues
+                + ", valueCompressionEnabled=" + valueCompressionEnabled
                 + '}';
     }
 
@@ -883,6 +924,10 @@ public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
         out.writeObject(merkleTreeConfig);
         out.writeObject(eventJournalConfig);
         out.writeShort(metadataPolicy.getId());
+        // RU_COMPAT_4_1
+        if (out.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            out.writeBoolean(valueCompressionEnabled);
+        }
     }
 
     @Override
@@ -912,5 +957,9 @@ public class MapConfig implements IdentifiedDataSerializable, NamedConfig {
         merkleTreeConfig = in.readObject();
         eventJournalConfig = in.readObject();
         metadataPolicy = MetadataPolicy.getById(in.readShort());
+        // RU_COMPAT_4_1
+        if (in.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            valueCompressionEnabled = in.readBoolean();
+        }
     }
 }
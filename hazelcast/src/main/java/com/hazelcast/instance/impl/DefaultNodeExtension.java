@@ -70,6 +70,7 @@ import com.hazelcast.internal.dynamicconfig.EmptyDynamicConfigListener;
 import com.hazelcast.internal.hotrestart.InternalHotRestartService;
 import com.hazelcast.internal.hotrestart.NoOpHotRestartService;
 import com.hazelcast.internal.hotrestart.NoopInternalHotRestartService;
+import com.hazelcast.internal.hotrestart.impl.ChangeLogHotRestartService;
 import com.hazelcast.internal.jmx.ManagementService;
 import com.hazelcast.internal.management.TimedMemberStateFactory;
 import com.hazelcast.internal.memory.DefaultMemoryStats;
@@ -139,6 +140,7 @@ public class DefaultNodeExtension implements NodeExtension {
     protected PhoneHome phoneHome;
 
     private final MemoryStats memoryStats = new DefaultMemoryStats();
+    private final ChangeLogHotRestartService changeLogHotRestartService;
 
     public DefaultNodeExtension(Node node) {
         this.node = node;
@@ -147,6 +149,8 @@ public class DefaultNodeExtension implements NodeExtension {
         checkSecurityAllowed();
         checkPersistenceAllowed();
         createAndSetPhoneHome();
+        this.changeLogHotRestartService = node.getProperties().getBoolean(ClusterProperty.MAP_CHANGE_LOG_ENABLED)
+                ? new ChangeLogHotRestartService(node) : null;
     }
 
     private void checkPersistenceAllowed() {
@@ -253,10 +257,16 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public void beforeJoin() {
+        if (changeLogHotRestartService != null) {
+            changeLogHotRestartService.start();
+        }
     }
 
     @Override
     public void afterStart() {
+        if (changeLogHotRestartService != null) {
+            changeLogHotRestartService.recover();
+        }
     }
 
     @Override
@@ -393,6 +403,9 @@ public class DefaultNodeExtension implements NodeExtension {
         if (phoneHome != null) {
             phoneHome.shutdown();
         }
+        if (changeLogHotRestartService != null) {
+            changeLogHotRestartService.shutdown();
+        }
     }
 
     @Override
@@ -496,6 +509,9 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public InternalHotRestartService getInternalHotRestartService() {
+        if (changeLogHotRestartService != null) {
+            return changeLogHotRestartService;
+        }
         return new NoopInternalHotRestartService();
     }
 
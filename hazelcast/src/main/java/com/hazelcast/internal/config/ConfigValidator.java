@@ -80,6 +80,7 @@ import static com.hazelcast.internal.config.MergePolicyValidator.checkMergeTypeP
 import static com.hazelcast.internal.util.Preconditions.checkTrue;
 import static com.hazelcast.internal.util.StringUtil.isNullOrEmpty;
 import static com.hazelcast.spi.properties.ClusterProperty.HOT_RESTART_FREE_NATIVE_MEMORY_PERCENTAGE;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_NATIVE_STORAGE_ENABLED;
 import static java.lang.String.format;
 
 /**
@@ -125,7 +126,9 @@ public final class ConfigValidator {
                                       SplitBrainMergePolicyProvider mergePolicyProvider,
                                       HazelcastProperties properties) {
 
-        checkNotNativeWhenOpenSource(mapConfig.getInMemoryFormat());
+        if (!isNativeStorageEnabled(properties)) {
+            checkNotNativeWhenOpenSource(mapConfig.getInMemoryFormat());
+        }
 
         if (getBuildInfo().isEnterprise()) {
             checkMapNativeConfig(mapConfig, nativeMemoryConfig);
@@ -625,6 +628,10 @@ public final class ConfigValidator {
                 "CP member count must be greater than 0 to use CP persistence feature!");
     }
 
+    private static boolean isNativeStorageEnabled(HazelcastProperties properties) {
+        return properties != null && properties.getBoolean(MAP_NATIVE_STORAGE_ENABLED);
+    }
+
     /**
      * Throws {@link InvalidConfigurationException} if the given {@link InMemoryFormat}
      * is {@link InMemoryFormat#NATIVE} and Hazelcast is OS.
@@ -59,4 +59,22 @@ public class IndexConfigReadOnly extends IndexConfig {
     public IndexConfig setAttributes(List<String> attributes) {
         throw new UnsupportedOperationException("This config is read-only");
     }
+
+    @Override
+    public List<String> getIncludedAttributes() {
+        List<String> includedAttributes = super.getIncludedAttributes();
+        List<String> res = new ArrayList<>(includedAttributes);
+
+        return Collections.unmodifiableList(res);
+    }
+
+    @Override
+    public IndexConfig addIncludedAttribute(String includedAttribute) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
+
+    @Override
+    public IndexConfig setIncludedAttributes(List<String> includedAttributes) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
 }
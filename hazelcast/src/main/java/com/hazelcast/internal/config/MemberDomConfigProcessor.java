@@ -1720,6 +1720,8 @@ public class MemberDomConfigProcessor extends AbstractDomConfigProcessor {
                 mapConfig.setReadBackupData(getBooleanValue(getTextContent(node)));
             } else if (matches("statistics-enabled", nodeName)) {
                 mapConfig.setStatisticsEnabled(getBooleanValue(getTextContent(node)));
+            } else if (matches("value-compression-enabled", nodeName)) {
+                mapConfig.setValueCompressionEnabled(getBooleanValue(getTextContent(node)));
             } else if (matches("cache-deserialized-values", nodeName)) {
                 CacheDeserializedValues cacheDeserializedValues = CacheDeserializedValues
                   .parseString(getTextContent(node));
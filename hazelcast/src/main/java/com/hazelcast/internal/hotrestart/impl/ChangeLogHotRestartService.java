@@ -0,0 +1,592 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.config.HotRestartConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.instance.impl.Node;
+import com.hazelcast.internal.hotrestart.InternalHotRestartService;
+import com.hazelcast.internal.hotrestart.NoopInternalHotRestartService;
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.internal.util.FutureUtil;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.operation.MapOperationProvider;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.MutationObserver;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.executionservice.ExecutionService;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.nio.IOUtil.delete;
+import static com.hazelcast.internal.util.FutureUtil.RETHROW_EVERYTHING;
+import static com.hazelcast.map.impl.record.Record.UNSET;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_CHANGE_LOG_DIRECTORY;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Restores the entries of the maps with an enabled
+ * {@link MapConfig#getHotRestartConfig()} from the change logs written
+ * during the previous run of the member, see
+ * {@link com.hazelcast.spi.properties.ClusterProperty#MAP_CHANGE_LOG_ENABLED}.
+ * <p>
+ * Each run of the member writes its logs to a new generation directory.
+ * After the member has joined the cluster, the logs of the previous
+ * generations are replayed partition by partition, the surviving entries
+ * are put into their maps and the previous generations are deleted once
+ * the restored entries have been logged by the current one.
+ * <p>
+ * Only the primary replicas are logged, the log of a partition is
+ * rewritten from its entries when the member becomes its primary owner
+ * and emptied when the member stops owning it. The entries are restored
+ * only if absent, so the entries already in the cluster, e.g. written
+ * after the restart or restored by another member, are not overwritten.
+ * <p>
+ * The partition table and the member UUIDs are not persisted, the
+ * restarted member joins the cluster as a new member. So the cluster
+ * start and member exclusion hooks of the hot restart service are not
+ * supported and the service reports itself as disabled.
+ */
+public final class ChangeLogHotRestartService extends NoopInternalHotRestartService {
+
+    static final String GENERATION_DIR_PREFIX = "generation-";
+
+    private static final String LOCK_FILE_NAME = "change-log.lock";
+    private static final long FLUSH_PERIOD_SECONDS = 1;
+    private static final long COMPACTION_PERIOD_SECONDS = 10;
+    private static final long COMPACTION_MIN_RECORD_COUNT = 10000;
+    private static final PartitionChangeLog.Snapshot EMPTY_SNAPSHOT = changeLog -> { };
+
+    private final Node node;
+    private final ILogger logger;
+    private final File baseDir;
+    private final List<File> recoveryDirs = new ArrayList<>();
+    private final AtomicReferenceArray<PartitionChangeLog> changeLogs;
+
+    private File generationDir;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private ScheduledFuture<?> flushFuture;
+    private ScheduledFuture<?> compactionFuture;
+
+    public ChangeLogHotRestartService(Node node) {
+        this.node = node;
+        this.logger = node.getLogger(ChangeLogHotRestartService.class);
+        this.baseDir = new File(node.getProperties().getString(MAP_CHANGE_LOG_DIRECTORY)).getAbsoluteFile();
+        this.changeLogs = new AtomicReferenceArray<>(node.getProperties().getInteger(PARTITION_COUNT));
+    }
+
+    /**
+     * Locks the change log directory and creates the generation
+     * of this run. Called before the member joins the cluster.
+     */
+    public synchronized void start() {
+        if (!baseDir.isDirectory() && !baseDir.mkdirs()) {
+            throw new HazelcastException("Could not create change log directory " + baseDir);
+        }
+        lockDirectory();
+
+        int lastGeneration = 0;
+        for (File dir : listGenerationDirs()) {
+            recoveryDirs.add(dir);
+            lastGeneration = Math.max(lastGeneration, generationOf(dir));
+        }
+        generationDir = new File(baseDir, GENERATION_DIR_PREFIX + (lastGeneration + 1));
+        if (!generationDir.mkdir()) {
+            throw new HazelcastException("Could not create change log directory " + generationDir);
+        }
+        logger.info("Writing map change logs to " + generationDir + ", found " + recoveryDirs.size()
+                + " previous generation(s)");
+
+        ExecutionService executionService = node.getNodeEngine().getExecutionService();
+        flushFuture = executionService.scheduleWithRepetition(this::flushAll,
+                FLUSH_PERIOD_SECONDS, FLUSH_PERIOD_SECONDS, SECONDS);
+        compactionFuture = executionService.scheduleWithRepetition(this::scheduleCompactions,
+                COMPACTION_PERIOD_SECONDS, COMPACTION_PERIOD_SECONDS, SECONDS);
+    }
+
+    /**
+     * Restores the entries logged by the previous generations and
+     * deletes them. Called after the member has joined the cluster.
+     * The restored entries are logged by their owners, so the previous
+     * generations are deleted only after all the members have synced
+     * their change logs. If the recovery fails, the member fails to
+     * start and the previous generations are kept to be replayed again
+     * on the next restart.
+     *
+     * @throws HazelcastException if the entries could not be restored
+     */
+    public synchronized void recover() {
+        if (recoveryDirs.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> logFileNames = new TreeSet<>();
+            for (File dir : recoveryDirs) {
+                File[] logFiles = dir.listFiles(PartitionChangeLog::isLogFile);
+                for (File logFile : logFiles == null ? new File[0] : logFiles) {
+                    logFileNames.add(logFile.getName());
+                }
+            }
+            long entryCount = 0;
+            for (String logFileName : logFileNames) {
+                entryCount += recover(logFileName);
+            }
+            syncAllMembers();
+            deleteRecoveryDirs();
+            logger.info("Replayed " + entryCount + " map entries from the change logs");
+        } catch (Exception e) {
+            throw new HazelcastException("Could not restore the map entries from the change logs in " + baseDir, e);
+        }
+    }
+
+    /**
+     * Closes the change logs and unlocks the directory. Called
+     * after the services of the member have been shut down.
+     */
+    public synchronized void shutdown() {
+        cancel(flushFuture);
+        cancel(compactionFuture);
+        for (int i = 0; i < changeLogs.length(); i++) {
+            PartitionChangeLog changeLog = changeLogs.get(i);
+            if (changeLog != null) {
+                changeLog.close();
+            }
+        }
+        unlockDirectory();
+    }
+
+    /**
+     * Returns the change log service of the member,
+     * or {@code null} if the change log is not enabled.
+     */
+    public static ChangeLogHotRestartService of(NodeEngine nodeEngine) {
+        InternalHotRestartService hotRestartService = ((NodeEngineImpl) nodeEngine).getNode().getNodeExtension()
+                .getInternalHotRestartService();
+        return hotRestartService instanceof ChangeLogHotRestartService
+                ? (ChangeLogHotRestartService) hotRestartService : null;
+    }
+
+    /**
+     * Creates the observer which logs the mutations of a record store
+     * of a map with an enabled {@link MapConfig#getHotRestartConfig()}.
+     */
+    public MutationObserver<Record> newMutationObserver(MapConfig mapConfig, int partitionId) {
+        return new ChangeLogMutationObserver(mapConfig.getName(), partitionId, getOrCreateChangeLog(partitionId),
+                node.getPartitionService(), node.getSerializationService(), mapConfig.getHotRestartConfig().isFsync());
+    }
+
+    /**
+     * Rejects a mutation of the given partition before it's applied
+     * if its change log has failed, so the mutation is not applied
+     * without being logged. Called before the mutating map operations
+     * of the change logged maps run.
+     *
+     * @throws HazelcastException if the change log of the partition has failed
+     */
+    public void checkNotFailed(int partitionId) {
+        PartitionChangeLog changeLog = changeLogs.get(partitionId);
+        if (changeLog != null) {
+            changeLog.checkNotFailed();
+        }
+    }
+
+    /**
+     * Rewrites the log of the given partition from its entries, since the
+     * entries of a replica are not logged until it's promoted to primary.
+     * Called on the partition thread when the member becomes the primary
+     * owner of the partition.
+     */
+    public void onPrimaryReplicaGained(int partitionId) {
+        getOrCreateChangeLog(partitionId).rewrite(new PartitionSnapshot(partitionId));
+    }
+
+    /**
+     * Empties the log of the given partition, so its stale entries are not
+     * restored. Called on the partition thread when the member stops being
+     * the primary owner of the partition.
+     */
+    public void onPrimaryReplicaLost(int partitionId) {
+        PartitionChangeLog changeLog = changeLogs.get(partitionId);
+        if (changeLog != null) {
+            changeLog.rewrite(EMPTY_SNAPSHOT);
+        }
+    }
+
+    /**
+     * Deletes the previous generations which have not been recovered yet,
+     * e.g. when the member discards its data to merge into another cluster.
+     * No entries have been restored from them, so there is nothing the
+     * other members have to sync before.
+     */
+    @Override
+    public synchronized void resetService(boolean isAfterJoin) {
+        deleteRecoveryDirs();
+    }
+
+    File getGenerationDir() {
+        return generationDir;
+    }
+
+    PartitionChangeLog getChangeLog(int partitionId) {
+        return changeLogs.get(partitionId);
+    }
+
+    private PartitionChangeLog getOrCreateChangeLog(int partitionId) {
+        PartitionChangeLog changeLog = changeLogs.get(partitionId);
+        if (changeLog == null) {
+            changeLogs.compareAndSet(partitionId, null, new PartitionChangeLog(generationDir, partitionId));
+            changeLog = changeLogs.get(partitionId);
+        }
+        return changeLog;
+    }
+
+    private void lockDirectory() {
+        File lockFile = new File(baseDir, LOCK_FILE_NAME);
+        try {
+            lockChannel = FileChannel.open(lockFile.toPath(), CREATE, WRITE);
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException e) {
+            unlockDirectory();
+            throw new HazelcastException("Could not lock change log directory " + baseDir, e);
+        }
+        if (lock == null) {
+            unlockDirectory();
+            throw new HazelcastException("Change log directory " + baseDir + " is used by another member");
+        }
+    }
+
+    private void unlockDirectory() {
+        if (lock != null) {
+            try {
+                lock.release();
+            } catch (IOException e) {
+                logger.warning("Could not unlock change log directory " + baseDir, e);
+            }
+            lock = null;
+        }
+        closeResource(lockChannel);
+        lockChannel = null;
+    }
+
+    private List<File> listGenerationDirs() {
+        File[] dirs = baseDir.listFiles(file -> file.isDirectory() && file.getName().startsWith(GENERATION_DIR_PREFIX));
+        List<File> generationDirs = new ArrayList<>();
+        if (dirs != null) {
+            for (File dir : dirs) {
+                generationDirs.add(dir);
+            }
+        }
+        generationDirs.sort((dir1, dir2) -> Integer.compare(generationOf(dir1), generationOf(dir2)));
+        return generationDirs;
+    }
+
+    private static int generationOf(File dir) {
+        try {
+            return Integer.parseInt(dir.getName().substring(GENERATION_DIR_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new HazelcastException("Unexpected change log directory " + dir, e);
+        }
+    }
+
+    private void deleteRecoveryDirs() {
+        for (File dir : recoveryDirs) {
+            delete(dir);
+        }
+        recoveryDirs.clear();
+    }
+
+    private void flushAll() {
+        for (int i = 0; i < changeLogs.length(); i++) {
+            PartitionChangeLog changeLog = changeLogs.get(i);
+            if (changeLog != null) {
+                try {
+                    changeLog.flush();
+                } catch (HazelcastException e) {
+                    // the log rejects the next mutations of its partition
+                    logger.severe(e.getMessage(), e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes and syncs the change logs of all the partitions of the member.
+     *
+     * @throws HazelcastException if a change log could not be synced
+     */
+    void syncAll() {
+        for (int i = 0; i < changeLogs.length(); i++) {
+            PartitionChangeLog changeLog = changeLogs.get(i);
+            if (changeLog != null) {
+                changeLog.sync();
+            }
+        }
+    }
+
+    /**
+     * Syncs the change logs of all the members of the cluster, including
+     * this one, and waits until they are synced.
+     */
+    private void syncAllMembers() {
+        NodeEngine nodeEngine = node.getNodeEngine();
+        OperationService operationService = nodeEngine.getOperationService();
+        List<Future> futures = new ArrayList<>();
+        for (Member member : nodeEngine.getClusterService().getMembers()) {
+            futures.add(operationService.invokeOnTarget(MapService.SERVICE_NAME, new SyncChangeLogsOperation(),
+                    member.getAddress()));
+        }
+        FutureUtil.waitWithDeadline(futures, Long.MAX_VALUE, SECONDS, RETHROW_EVERYTHING);
+    }
+
+    private static void cancel(ScheduledFuture<?> future) {
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    // RECOVERY
+
+    /**
+     * Replays the logs of a partition from the oldest generation to the
+     * newest one and puts the surviving entries absent from their maps.
+     *
+     * @return the number of the restored entries
+     */
+    private long recover(String logFileName) {
+        RecoveredEntries recoveredEntries = new RecoveredEntries();
+        for (File dir : recoveryDirs) {
+            File logFile = new File(dir, logFileName);
+            if (logFile.exists() && !PartitionChangeLog.replay(logFile, recoveredEntries)) {
+                logger.warning("Ignoring the partially written last record of change log " + logFile);
+            }
+        }
+
+        List<Future> futures = new ArrayList<>();
+        for (Map.Entry<String, Map<Data, RecoveredEntry>> entry : recoveredEntries.entriesByMap.entrySet()) {
+            String mapName = entry.getKey();
+            if (isChangeLogEnabled(mapName)) {
+                putAllIfAbsent(mapName, entry.getValue(), futures);
+            }
+        }
+        FutureUtil.waitWithDeadline(futures, Long.MAX_VALUE, SECONDS, RETHROW_EVERYTHING);
+        long restoredCount = 0;
+        for (Future future : futures) {
+            // the old value, null if the entry was absent and has been put
+            if (FutureUtil.getValue(future) == null) {
+                restoredCount++;
+            }
+        }
+        return restoredCount;
+    }
+
+    private boolean isChangeLogEnabled(String mapName) {
+        HotRestartConfig hotRestartConfig = node.getConfig().findMapConfig(mapName).getHotRestartConfig();
+        return hotRestartConfig != null && hotRestartConfig.isEnabled();
+    }
+
+    private void putAllIfAbsent(String mapName, Map<Data, RecoveredEntry> entries, List<Future> futures) {
+        NodeEngine nodeEngine = node.getNodeEngine();
+        MapService mapService = nodeEngine.getService(MapService.SERVICE_NAME);
+        MapOperationProvider operationProvider = mapService.getMapServiceContext().getMapOperationProvider(mapName);
+        long now = Clock.currentTimeMillis();
+        for (Map.Entry<Data, RecoveredEntry> entry : entries.entrySet()) {
+            long ttl = entry.getValue().ttlAt(now);
+            if (ttl == 0) {
+                // expired while the member was down
+                continue;
+            }
+            Data key = entry.getKey();
+            Operation operation = operationProvider.createPutIfAbsentOperation(mapName, key, entry.getValue().value,
+                    ttl, UNSET);
+            int partitionId = nodeEngine.getPartitionService().getPartitionId(key);
+            futures.add(nodeEngine.getOperationService().invokeOnPartition(MapService.SERVICE_NAME, operation, partitionId));
+        }
+    }
+
+    /**
+     * Collects the entries surviving the replayed logs of a partition.
+     */
+    private static final class RecoveredEntries implements PartitionChangeLog.Visitor {
+
+        private final Map<String, Map<Data, RecoveredEntry>> entriesByMap = new LinkedHashMap<>();
+
+        @Override
+        public void put(String mapName, Data key, Data value, long expirationTime) {
+            entriesByMap.computeIfAbsent(mapName, k -> new LinkedHashMap<>())
+                    .put(key, new RecoveredEntry(value, expirationTime));
+        }
+
+        @Override
+        public void remove(String mapName, Data key) {
+            Map<Data, RecoveredEntry> entries = entriesByMap.get(mapName);
+            if (entries != null) {
+                entries.remove(key);
+            }
+        }
+
+        @Override
+        public void clear(String mapName) {
+            entriesByMap.remove(mapName);
+        }
+    }
+
+    private static final class RecoveredEntry {
+
+        private final Data value;
+        private final long expirationTime;
+
+        RecoveredEntry(Data value, long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+
+        /**
+         * Returns the remaining TTL of the entry at the given time, {@code 0}
+         * if it has expired or {@link Record#UNSET} if it doesn't expire.
+         */
+        long ttlAt(long now) {
+            // records without an expiration report 0 or Long.MAX_VALUE
+            if (expirationTime <= 0 || expirationTime == Long.MAX_VALUE) {
+                return UNSET;
+            }
+            return Math.max(expirationTime - now, 0);
+        }
+    }
+
+    // COMPACTION
+
+    /**
+     * Compacts the logs of the owned partitions which have grown to more
+     * than twice the number of the live entries of their partitions. The
+     * logs are rewritten on the partition threads, so they are not mutated
+     * during the compaction. The logs of the other partitions are empty,
+     * they must not be rewritten from the entries of the backup replicas.
+     */
+    private void scheduleCompactions() {
+        OperationService operationService = node.getNodeEngine().getOperationService();
+        InternalPartitionService partitionService = node.getPartitionService();
+        for (int i = 0; i < changeLogs.length(); i++) {
+            PartitionChangeLog changeLog = changeLogs.get(i);
+            if (changeLog != null && changeLog.getRecordCount() >= COMPACTION_MIN_RECORD_COUNT
+                    && partitionService.isPartitionOwner(i)) {
+                operationService.execute(new CompactionTask(i, changeLog));
+            }
+        }
+    }
+
+    private Collection<RecordStore> getChangeLoggedRecordStores(int partitionId) {
+        MapService mapService = node.getNodeEngine().getService(MapService.SERVICE_NAME);
+        List<RecordStore> recordStores = new ArrayList<>();
+        for (RecordStore recordStore : mapService.getMapServiceContext().getPartitionContainer(partitionId)
+                .getAllRecordStores()) {
+            HotRestartConfig hotRestartConfig = recordStore.getMapContainer().getMapConfig().getHotRestartConfig();
+            if (hotRestartConfig != null && hotRestartConfig.isEnabled()) {
+                recordStores.add(recordStore);
+            }
+        }
+        return recordStores;
+    }
+
+    /**
+     * Writes the entries of the change logged maps of a partition.
+     */
+    private class PartitionSnapshot implements PartitionChangeLog.Snapshot {
+
+        final int partitionId;
+        final Collection<RecordStore> recordStores;
+
+        PartitionSnapshot(int partitionId) {
+            this.partitionId = partitionId;
+            this.recordStores = getChangeLoggedRecordStores(partitionId);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void writeTo(PartitionChangeLog compacted) {
+            for (RecordStore recordStore : recordStores) {
+                String mapName = recordStore.getName();
+                ((RecordStore<Record>) recordStore).forEach((key, record) -> compacted.put(mapName, key,
+                        node.getSerializationService().toData(record.getValue()), record.getExpirationTime(), false),
+                        true);
+            }
+        }
+    }
+
+    private final class CompactionTask implements PartitionSpecificRunnable {
+
+        private final int partitionId;
+        private final PartitionChangeLog changeLog;
+
+        CompactionTask(int partitionId, PartitionChangeLog changeLog) {
+            this.partitionId = partitionId;
+            this.changeLog = changeLog;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return partitionId;
+        }
+
+        @Override
+        public void run() {
+            if (!node.getPartitionService().isPartitionOwner(partitionId)) {
+                // the ownership has changed since the compaction has been scheduled
+                return;
+            }
+            PartitionSnapshot snapshot = new PartitionSnapshot(partitionId);
+            long liveEntryCount = 0;
+            for (RecordStore recordStore : snapshot.recordStores) {
+                liveEntryCount += recordStore.size();
+            }
+            if (changeLog.getRecordCount() > 2 * liveEntryCount) {
+                changeLog.rewrite(snapshot);
+            }
+        }
+    }
+}
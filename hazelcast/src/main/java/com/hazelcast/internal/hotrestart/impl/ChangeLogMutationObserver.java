@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.internal.partition.IPartitionService;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.MutationObserver;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Appends the mutations of a record store to the change log of its partition.
+ * Evicted and expired entries are logged as removed, since they are not
+ * in memory anymore when the member restarts.
+ * <p>
+ * Only the mutations of the primary replicas are logged, so a member
+ * restores only the partitions it has owned. The removals don't tell apart
+ * the backup replicas, so they are logged only if the member owns the
+ * partition. The clears are always logged, the log of a partition which
+ * is not owned is either empty already or has to be emptied. The entries of a replica promoted to primary are
+ * logged when the promotion is committed, see
+ * {@link ChangeLogHotRestartService#onPrimaryReplicaGained(int)}.
+ */
+final class ChangeLogMutationObserver implements MutationObserver<Record> {
+
+    private final String mapName;
+    private final int partitionId;
+    private final PartitionChangeLog changeLog;
+    private final IPartitionService partitionService;
+    private final SerializationService serializationService;
+    private final boolean fsync;
+
+    ChangeLogMutationObserver(String mapName, int partitionId, PartitionChangeLog changeLog,
+                              IPartitionService partitionService, SerializationService serializationService,
+                              boolean fsync) {
+        this.mapName = mapName;
+        this.partitionId = partitionId;
+        this.changeLog = changeLog;
+        this.partitionService = partitionService;
+        this.serializationService = serializationService;
+        this.fsync = fsync;
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        if (!backup) {
+            put(key, record);
+        }
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        // the replicated entries are logged once the replica is promoted to primary
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record,
+                               Object oldValue, Object newValue, boolean backup) {
+        if (!backup) {
+            put(key, record);
+        }
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        if (isOwned()) {
+            changeLog.remove(mapName, key, fsync);
+        }
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        if (isOwned()) {
+            changeLog.remove(mapName, key, fsync);
+        }
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        if (!backup) {
+            put(key, record);
+        }
+    }
+
+    @Override
+    public void onReset() {
+        changeLog.clear(mapName, fsync);
+    }
+
+    @Override
+    public void onClear() {
+        changeLog.clear(mapName, fsync);
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        // the log is kept on shutdown, to restore the entries on restart
+        if (!isDuringShutdown) {
+            changeLog.clear(mapName, fsync);
+        }
+    }
+
+    private boolean isOwned() {
+        return partitionService.isPartitionOwner(partitionId);
+    }
+
+    private void put(Data key, Record record) {
+        Data value = serializationService.toData(record.getValue());
+        changeLog.put(mapName, key, value, record.getExpirationTime(), fsync);
+    }
+}
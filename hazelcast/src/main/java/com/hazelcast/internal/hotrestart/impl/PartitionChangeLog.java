@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Append-only log of the map mutations of a single partition.
+ * <p>
+ * Each mutation is appended as a record to the log file, the last record
+ * of a key wins when the log is replayed. A record which has been
+ * partially written by a crashed member ends the replay. The log is
+ * compacted by rewriting it from the live entries of the partition, see
+ * {@link #rewrite(Snapshot)}.
+ * <p>
+ * Mutations are appended by the partition thread, the log is flushed by
+ * the flusher of {@link ChangeLogHotRestartService}, so all methods are
+ * synchronized. The records are appended after their mutations have been
+ * applied, so a failed append doesn't fail the mutation. Instead, once the
+ * log has failed to be written, it drops the subsequent records and the
+ * mutations of its partition are rejected before they are applied, see
+ * {@link #checkNotFailed()}, until it's rewritten, since the buffered
+ * records may have been lost.
+ */
+final class PartitionChangeLog {
+
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+    static final byte CLEAR = 3;
+
+    private static final String LOG_FILE_SUFFIX = ".log";
+    private static final String COMPACTION_FILE_SUFFIX = ".compacting";
+    private static final int BUFFER_SIZE = 65536;
+
+    private final File file;
+
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+    private boolean dirty;
+    private long recordCount;
+    private volatile HazelcastException failure;
+
+    PartitionChangeLog(File directory, int partitionId) {
+        this(new File(directory, logFileName(partitionId)));
+    }
+
+    private PartitionChangeLog(File file) {
+        this.file = file;
+    }
+
+    static String logFileName(int partitionId) {
+        return "partition-" + partitionId + LOG_FILE_SUFFIX;
+    }
+
+    static boolean isLogFile(File file) {
+        return file.getName().endsWith(LOG_FILE_SUFFIX);
+    }
+
+    synchronized void put(String mapName, Data key, Data value, long expirationTime, boolean fsync) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            DataOutputStream out = open();
+            out.writeByte(PUT);
+            out.writeUTF(mapName);
+            writeData(out, key);
+            writeData(out, value);
+            out.writeLong(expirationTime);
+            appended(fsync);
+        } catch (IOException e) {
+            failure = new HazelcastException("Could not append to change log " + file, e);
+        }
+    }
+
+    synchronized void remove(String mapName, Data key, boolean fsync) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            DataOutputStream out = open();
+            out.writeByte(REMOVE);
+            out.writeUTF(mapName);
+            writeData(out, key);
+            appended(fsync);
+        } catch (IOException e) {
+            failure = new HazelcastException("Could not append to change log " + file, e);
+        }
+    }
+
+    synchronized void clear(String mapName, boolean fsync) {
+        if (recordCount == 0 || failure != null) {
+            // nothing to clear, e.g. when an empty replica is reset
+            return;
+        }
+        try {
+            DataOutputStream out = open();
+            out.writeByte(CLEAR);
+            out.writeUTF(mapName);
+            appended(fsync);
+        } catch (IOException e) {
+            failure = new HazelcastException("Could not append to change log " + file, e);
+        }
+    }
+
+    /**
+     * Returns the number of records appended since the
+     * log has been created or last rewritten.
+     */
+    synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the buffered records to the log file.
+     */
+    synchronized void flush() {
+        if (!dirty || failure != null) {
+            return;
+        }
+        try {
+            out.flush();
+            dirty = false;
+        } catch (IOException e) {
+            failure = new HazelcastException("Could not flush change log " + file, e);
+            throw failure;
+        }
+    }
+
+    /**
+     * Replaces the log with a new one containing only the entries
+     * written by the given snapshot. The new log is written to a
+     * separate file which atomically replaces the current one, so a
+     * crash during the rewrite leaves the current log intact.
+     */
+    synchronized void rewrite(Snapshot snapshot) {
+        close();
+        File compactionFile = new File(file.getParentFile(), file.getName() + COMPACTION_FILE_SUFFIX);
+        PartitionChangeLog compacted = new PartitionChangeLog(compactionFile);
+        try {
+            snapshot.writeTo(compacted);
+            compacted.sync();
+        } finally {
+            compacted.close();
+        }
+        try {
+            Files.move(compactionFile.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new HazelcastException("Could not replace change log " + file, e);
+        }
+        recordCount = compacted.recordCount;
+        failure = null;
+    }
+
+    synchronized void close() {
+        flush();
+        closeResource(out);
+        out = null;
+        fileOut = null;
+    }
+
+    private DataOutputStream open() throws IOException {
+        if (out == null) {
+            fileOut = new FileOutputStream(file, true);
+            out = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+        }
+        return out;
+    }
+
+    /**
+     * Throws if the log has failed to be written and
+     * has not been rewritten since.
+     */
+    void checkNotFailed() {
+        HazelcastException cause = failure;
+        if (cause != null) {
+            throw new HazelcastException("Change log " + file + " has failed", cause);
+        }
+    }
+
+    private void appended(boolean fsync) throws IOException {
+        recordCount++;
+        dirty = true;
+        if (fsync) {
+            out.flush();
+            dirty = false;
+            fileOut.getFD().sync();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the log file and forces
+     * them to the storage device.
+     */
+    synchronized void sync() {
+        checkNotFailed();
+        if (out == null) {
+            return;
+        }
+        flush();
+        try {
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            failure = new HazelcastException("Could not sync change log " + file, e);
+            throw failure;
+        }
+    }
+
+    private static void writeData(DataOutputStream out, Data data) throws IOException {
+        byte[] bytes = data.toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Data readData(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new HeapData(bytes);
+    }
+
+    /**
+     * Replays the records of the given log file to the visitor, in the
+     * order they have been appended.
+     *
+     * @return {@code false} if the log ends with a partially written record
+     */
+    static boolean replay(File file, Visitor visitor) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            int type;
+            while ((type = in.read()) != -1) {
+                replayRecord(in, (byte) type, visitor);
+            }
+            return true;
+        } catch (EOFException e) {
+            return false;
+        } catch (IOException e) {
+            throw new HazelcastException("Could not read change log " + file, e);
+        } finally {
+            closeResource(in);
+        }
+    }
+
+    private static void replayRecord(DataInputStream in, byte type, Visitor visitor) throws IOException {
+        String mapName = in.readUTF();
+        switch (type) {
+            case PUT:
+                Data key = readData(in);
+                Data value = readData(in);
+                visitor.put(mapName, key, value, in.readLong());
+                break;
+            case REMOVE:
+                visitor.remove(mapName, readData(in));
+                break;
+            case CLEAR:
+                visitor.clear(mapName);
+                break;
+            default:
+                throw new IOException("Unknown change log record type: " + type);
+        }
+    }
+
+    /**
+     * Receives the replayed records of a log.
+     */
+    interface Visitor {
+
+        void put(String mapName, Data key, Data value, long expirationTime);
+
+        void remove(String mapName, Data key);
+
+        void clear(String mapName);
+    }
+
+    /**
+     * Writes the live entries of a partition to a rewritten log.
+     */
+    interface Snapshot {
+
+        void writeTo(PartitionChangeLog changeLog);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.impl.operationservice.Operation;
+
+/**
+ * Flushes and syncs the change logs of the member it's run on, so the
+ * entries it has logged so far survive its crash. Sent by a recovering
+ * member to all the members before it deletes its previous generations,
+ * since the entries it restores are logged by their owners.
+ */
+public class SyncChangeLogsOperation extends Operation implements IdentifiedDataSerializable {
+
+    public SyncChangeLogsOperation() {
+    }
+
+    @Override
+    public void run() {
+        ChangeLogHotRestartService changeLogService = ChangeLogHotRestartService.of(getNodeEngine());
+        if (changeLogService != null) {
+            changeLogService.syncAll();
+        }
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MapDataSerializerHook.SYNC_CHANGE_LOGS;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
+
+/**
+ * {@link MemoryAllocator} which allocates off-heap memory blocks
+ * through {@link sun.misc.Unsafe#allocateMemory(long)}.
+ * <p>
+ * Blocks are zeroed on allocation as required by the {@link MemoryAllocator}
+ * contract. The allocator keeps track of the number of bytes currently
+ * allocated through it, but does not track the individual blocks, so
+ * {@link #dispose()} does not release the memory still held by its users.
+ * The allocations exceeding the maximum memory given at construction time
+ * fail with {@link NativeOutOfMemoryError}.
+ */
+public final class UnsafeMallocMemoryAllocator implements MemoryAllocator {
+
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final long maxMemory;
+
+    public UnsafeMallocMemoryAllocator() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxMemory maximum number of bytes allocated through this allocator at a time
+     */
+    public UnsafeMallocMemoryAllocator(long maxMemory) {
+        if (!UNSAFE_AVAILABLE) {
+            throw new IllegalStateException(getClass().getName() + " can only be used only when Unsafe is available!");
+        }
+        this.maxMemory = maxMemory;
+    }
+
+    @Override
+    public long allocate(long size) {
+        reserve(size, "Cannot allocate " + size + " bytes");
+        long address;
+        try {
+            address = allocate0(size);
+        } catch (NativeOutOfMemoryError e) {
+            usedMemory.addAndGet(-size);
+            throw e;
+        }
+        UNSAFE.setMemory(address, size, (byte) 0);
+        return address;
+    }
+
+    @Override
+    public long reallocate(long address, long currentSize, long newSize) {
+        long sizeDelta = newSize - currentSize;
+        String message = "Cannot reallocate " + currentSize + " bytes to " + newSize + " bytes";
+        reserve(sizeDelta, message);
+        long newAddress;
+        try {
+            newAddress = UNSAFE.reallocateMemory(address, newSize);
+        } catch (OutOfMemoryError e) {
+            usedMemory.addAndGet(-sizeDelta);
+            throw new NativeOutOfMemoryError(message + ". Used memory: " + usedMemory.get(), e);
+        }
+        if (newSize > currentSize) {
+            UNSAFE.setMemory(newAddress + currentSize, sizeDelta, (byte) 0);
+        }
+        return newAddress;
+    }
+
+    @Override
+    public void free(long address, long size) {
+        UNSAFE.freeMemory(address);
+        usedMemory.addAndGet(-size);
+    }
+
+    @Override
+    public void dispose() {
+        // NOP: blocks are owned and released by the users of this allocator
+    }
+
+    /**
+     * @return number of bytes currently allocated through this allocator
+     */
+    public long getUsedMemory() {
+        return usedMemory.get();
+    }
+
+    /**
+     * @return maximum number of bytes allocated through this allocator at a time
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    private void reserve(long size, String message) {
+        long used = usedMemory.addAndGet(size);
+        if (size > 0 && used > maxMemory) {
+            usedMemory.addAndGet(-size);
+            throw new NativeOutOfMemoryError(message + ". Used memory: " + (used - size) + ", max memory: " + maxMemory);
+        }
+    }
+
+    private long allocate0(long size) {
+        try {
+            return UNSAFE.allocateMemory(size);
+        } catch (OutOfMemoryError e) {
+            throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes. Used memory: " + usedMemory.get(), e);
+        }
+    }
+}
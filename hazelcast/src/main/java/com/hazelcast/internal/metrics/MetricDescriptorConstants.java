@@ -223,6 +223,7 @@ public final class MetricDescriptorConstants {
     public static final String MAP_METRIC_OWNED_ENTRY_COUNT = "ownedEntryCount";
     public static final String MAP_METRIC_BACKUP_ENTRY_COUNT = "backupEntryCount";
     public static final String MAP_METRIC_OWNED_ENTRY_MEMORY_COST = "ownedEntryMemoryCost";
+    public static final String MAP_METRIC_OWNED_ENTRY_RAW_MEMORY_COST = "ownedEntryRawMemoryCost";
     public static final String MAP_METRIC_BACKUP_ENTRY_MEMORY_COST = "backupEntryMemoryCost";
     public static final String MAP_METRIC_HEAP_COST = "heapCost";
     public static final String MAP_METRIC_MERKLE_TREES_COST = "merkleTreesCost";
@@ -231,6 +232,8 @@ public final class MetricDescriptorConstants {
     public static final String MAP_METRIC_BACKUP_COUNT = "backupCount";
     public static final String MAP_METRIC_QUERY_COUNT = "queryCount";
     public static final String MAP_METRIC_INDEXED_QUERY_COUNT = "indexedQueryCount";
+    public static final String MAP_METRIC_QUERY_RESULT_CACHE_HITS = "queryResultCacheHits";
+    public static final String MAP_METRIC_QUERY_RESULT_CACHE_MISSES = "queryResultCacheMisses";
     public static final String MAP_METRIC_TOTAL_PUT_LATENCY = "totalPutLatency";
     public static final String MAP_METRIC_TOTAL_SET_LATENCY = "totalSetLatency";
     public static final String MAP_METRIC_TOTAL_GET_LATENCY = "totalGetLatency";
@@ -54,6 +54,12 @@ public class EmptyLocalReplicatedMapStats implements LocalReplicatedMapStats {
         return 0;
     }
 
+    @Override
+    public long getOwnedEntryRawMemoryCost() {
+        // replicated map values are never compressed
+        return 0;
+    }
+
     @Override
     public long getBackupEntryMemoryCost() {
         return 0;
@@ -174,6 +180,16 @@ public class EmptyLocalReplicatedMapStats implements LocalReplicatedMapStats {
         throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
     }
 
+    @Override
+    public long getQueryResultCacheHits() {
+        throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
+    }
+
+    @Override
+    public long getQueryResultCacheMisses() {
+        throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
+    }
+
     @Override
     public Map<String, LocalIndexStats> getIndexStats() {
         throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
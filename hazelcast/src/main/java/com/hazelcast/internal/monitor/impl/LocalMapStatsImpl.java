@@ -45,8 +45,11 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRI
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_NUMBER_OF_OTHER_OPERATIONS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_OWNED_ENTRY_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_OWNED_ENTRY_MEMORY_COST;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_OWNED_ENTRY_RAW_MEMORY_COST;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_PUT_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_QUERY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_QUERY_RESULT_CACHE_HITS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_QUERY_RESULT_CACHE_MISSES;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_REMOVE_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_SET_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TOTAL_GET_LATENCY;
@@ -143,6 +146,8 @@ public class LocalMapStatsImpl implements LocalMapStats {
     private volatile long backupEntryCount;
     @Probe(name = MAP_METRIC_OWNED_ENTRY_MEMORY_COST, unit = BYTES)
     private volatile long ownedEntryMemoryCost;
+    @Probe(name = MAP_METRIC_OWNED_ENTRY_RAW_MEMORY_COST, unit = BYTES)
+    private volatile long ownedEntryRawMemoryCost;
     @Probe(name = MAP_METRIC_BACKUP_ENTRY_MEMORY_COST, unit = BYTES)
     private volatile long backupEntryMemoryCost;
     /**
@@ -166,6 +171,10 @@ public class LocalMapStatsImpl implements LocalMapStats {
     private volatile long queryCount;
     @Probe(name = MAP_METRIC_INDEXED_QUERY_COUNT)
     private volatile long indexedQueryCount;
+    @Probe(name = MAP_METRIC_QUERY_RESULT_CACHE_HITS)
+    private volatile long queryResultCacheHits;
+    @Probe(name = MAP_METRIC_QUERY_RESULT_CACHE_MISSES)
+    private volatile long queryResultCacheMisses;
 
     public LocalMapStatsImpl() {
         creationTime = Clock.currentTimeMillis();
@@ -207,6 +216,15 @@ public class LocalMapStatsImpl implements LocalMapStats {
         this.ownedEntryMemoryCost = ownedEntryMemoryCost;
     }
 
+    @Override
+    public long getOwnedEntryRawMemoryCost() {
+        return ownedEntryRawMemoryCost;
+    }
+
+    public void setOwnedEntryRawMemoryCost(long ownedEntryRawMemoryCost) {
+        this.ownedEntryRawMemoryCost = ownedEntryRawMemoryCost;
+    }
+
     @Override
     public long getBackupEntryMemoryCost() {
         return backupEntryMemoryCost;
@@ -405,6 +423,36 @@ public class LocalMapStatsImpl implements LocalMapStats {
         this.indexedQueryCount = indexedQueryCount;
     }
 
+    @Override
+    public long getQueryResultCacheHits() {
+        return queryResultCacheHits;
+    }
+
+    /**
+     * Sets the query result cache hit count of this stats to the given
+     * value.
+     *
+     * @param queryResultCacheHits the query result cache hit count to set.
+     */
+    public void setQueryResultCacheHits(long queryResultCacheHits) {
+        this.queryResultCacheHits = queryResultCacheHits;
+    }
+
+    @Override
+    public long getQueryResultCacheMisses() {
+        return queryResultCacheMisses;
+    }
+
+    /**
+     * Sets the query result cache miss count of this stats to the given
+     * value.
+     *
+     * @param queryResultCacheMisses the query result cache miss count to set.
+     */
+    public void setQueryResultCacheMisses(long queryResultCacheMisses) {
+        this.queryResultCacheMisses = queryResultCacheMisses;
+    }
+
     @Override
     public Map<String, LocalIndexStats> getIndexStats() {
         return indexStats;
@@ -509,6 +557,7 @@ public class LocalMapStatsImpl implements LocalMapStats {
                 + ", backupEntryCount=" + backupEntryCount
                 + ", backupCount=" + backupCount
                 + ", ownedEntryMemoryCost=" + ownedEntryMemoryCost
+                + ", ownedEntryRawMemoryCost=" + ownedEntryRawMemoryCost
                 + ", backupEntryMemoryCost=" + backupEntryMemoryCost
                 + ", creationTime=" + creationTime
                 + ", lockedEntryCount=" + lockedEntryCount
@@ -518,6 +567,8 @@ public class LocalMapStatsImpl implements LocalMapStats {
                 + ", nearCacheStats=" + (nearCacheStats != null ? nearCacheStats : "")
                 + ", queryCount=" + queryCount
                 + ", indexedQueryCount=" + indexedQueryCount
+                + ", queryResultCacheHits=" + queryResultCacheHits
+                + ", queryResultCacheMisses=" + queryResultCacheMisses
                 + ", indexStats=" + indexStats
                 + '}';
     }
@@ -18,19 +18,26 @@ package com.hazelcast.internal.monitor.impl;
 
 import com.hazelcast.internal.monitor.LocalRecordStoreStats;
 
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
 public class LocalRecordStoreStatsImpl implements LocalRecordStoreStats {
     private long hits;
     private long lastAccess;
     private long lastUpdate;
 
+    // hits and last access time of the reads outside the partition thread
+    private final LongAdder concurrentHits = new LongAdder();
+    private final LongAccumulator concurrentLastAccess = new LongAccumulator(Math::max, 0);
+
     @Override
     public long getHits() {
-        return hits;
+        return hits + concurrentHits.sum();
     }
 
     @Override
     public long getLastAccessTime() {
-        return lastAccess;
+        return Math.max(lastAccess, concurrentLastAccess.get());
     }
 
     @Override
@@ -63,9 +70,19 @@ public class LocalRecordStoreStatsImpl implements LocalRecordStoreStats {
         this.lastUpdate = Math.max(this.lastUpdate, time);
     }
 
+    /**
+     * Counts a hit by a thread other than the partition thread.
+     */
+    public void increaseHitsConcurrently(long accessTime) {
+        concurrentHits.increment();
+        concurrentLastAccess.accumulate(accessTime);
+    }
+
     public void reset() {
         this.hits = 0;
         this.lastAccess = 0;
         this.lastUpdate = 0;
+        concurrentHits.reset();
+        concurrentLastAccess.reset();
     }
 }
@@ -154,6 +154,12 @@ public class LocalReplicatedMapStatsImpl implements LocalReplicatedMapStats {
         return ownedEntryMemoryCost;
     }
 
+    @Override
+    public long getOwnedEntryRawMemoryCost() {
+        // replicated map values are never compressed
+        return ownedEntryMemoryCost;
+    }
+
     public void setOwnedEntryMemoryCost(long ownedEntryMemoryCost) {
         OWNED_ENTRY_MEMORY_COST.set(this, ownedEntryMemoryCost);
     }
@@ -343,6 +349,16 @@ public class LocalReplicatedMapStatsImpl implements LocalReplicatedMapStats {
         throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
     }
 
+    @Override
+    public long getQueryResultCacheHits() {
+        throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
+    }
+
+    @Override
+    public long getQueryResultCacheMisses() {
+        throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
+    }
+
     @Override
     public Map<String, LocalIndexStats> getIndexStats() {
         throw new UnsupportedOperationException("Queries on replicated maps are not supported.");
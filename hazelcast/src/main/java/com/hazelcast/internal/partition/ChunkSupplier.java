@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition;
+
+import com.hazelcast.spi.impl.operationservice.Operation;
+
+import java.util.Iterator;
+
+/**
+ * Supplies the replication operations of a single replica fragment
+ * chunk by chunk, see {@link ChunkedMigrationAwareService}.
+ * <p>
+ * A supplier is created on the migration source and is only accessed by
+ * the partition thread of the migrated partition. The next chunk is only
+ * requested once the migration destination has applied the previous one,
+ * so the state of the fragment may have changed in the meantime.
+ * <p>
+ * Returned operations are executed on the destination in the order they
+ * have been supplied. If any of them fails, the whole migration fails
+ * and is retried from scratch.
+ *
+ * @see ChunkedMigrationAwareService
+ * @since 4.2
+ */
+public interface ChunkSupplier extends Iterator<Operation> {
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition;
+
+import com.hazelcast.internal.services.ServiceNamespace;
+import com.hazelcast.spi.properties.ClusterProperty;
+
+/**
+ * {@code ChunkedMigrationAwareService} is an extension to the {@link FragmentedMigrationAwareService}
+ * which allows migration of a single replica fragment in multiple chunks of bounded size.
+ * <p>
+ * Fragmented migration transfers all data of a {@link ServiceNamespace} in a single packet, which
+ * requires large temporary allocations and blocks the partition thread for a long time when the
+ * fragment is large. Chunks are sent one by one, the next chunk is prepared only after the previous
+ * one has been applied on the destination.
+ * <p>
+ * Chunked migration is only used for fragmented migrations and can be enabled/disabled using
+ * configuration property {@link ClusterProperty#PARTITION_CHUNKED_MIGRATION_ENABLED}. Anti-entropy
+ * replications are never chunked.
+ *
+ * @see FragmentedMigrationAwareService
+ * @see ChunkSupplier
+ * @since 4.2
+ */
+public interface ChunkedMigrationAwareService extends FragmentedMigrationAwareService {
+
+    /**
+     * Returns a supplier of the operations migrating the given replica
+     * fragment in chunks. This method is called on the migration source
+     * by the partition thread, instead of
+     * {@link #prepareReplicationOperation(PartitionReplicationEvent, java.util.Collection)}.
+     * <p>
+     * Returning null is allowed and means the fragment is migrated with
+     * a single operation created by
+     * {@link #prepareReplicationOperation(PartitionReplicationEvent, java.util.Collection)},
+     * for instance because it is small enough.
+     *
+     * @param event        replication event
+     * @param namespace    replica fragment namespace to replicate
+     * @param maxChunkSize approximate maximum size of a chunk in bytes
+     * @return supplier of the chunk operations or null
+     */
+    ChunkSupplier newChunkSupplier(PartitionReplicationEvent event, ServiceNamespace namespace, int maxChunkSize);
+}
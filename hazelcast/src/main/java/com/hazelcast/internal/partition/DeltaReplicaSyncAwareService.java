@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.partition;
+
+import com.hazelcast.internal.services.ServiceNamespace;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeView;
+
+/**
+ * {@code DeltaReplicaSyncAwareService} is an extension to the {@link FragmentedMigrationAwareService}
+ * which keeps a Merkle tree of the data of its replica fragments, and synchronizes a backup replica
+ * which fell behind the primary replica by replicating only the data under the leaves of the Merkle
+ * trees which differ on the two replicas.
+ * <p>
+ * The backup replica sends the Merkle tree of its fragment in its replica sync request. The primary
+ * replica compares it with its own Merkle tree and replies with the data of the differing leaves,
+ * which replaces the data of the same leaves on the backup. A backup replica which missed a few
+ * updates thus receives a small part of the fragment instead of the whole fragment.
+ * <p>
+ * Delta replica sync is only used by anti-entropy, migrations always replicate whole fragments.
+ *
+ * @see FragmentedMigrationAwareService
+ * @since 4.2
+ */
+public interface DeltaReplicaSyncAwareService extends FragmentedMigrationAwareService {
+
+    /**
+     * Returns the Merkle tree of the given replica fragment on this member.
+     * This method is called on the backup replica when it requests a
+     * replica sync, not necessarily on the partition thread.
+     *
+     * @param partitionId partition ID
+     * @param namespace   replica fragment namespace
+     * @return the Merkle tree, or null if no Merkle tree is kept for the fragment
+     */
+    MerkleTreeView getMerkleTree(int partitionId, ServiceNamespace namespace);
+
+    /**
+     * Returns an operation replicating the data of the given replica fragment
+     * under the leaves of the local Merkle tree which differ from the given
+     * Merkle tree of the backup replica. This method is called on the primary
+     * replica by the partition thread, instead of
+     * {@link #prepareReplicationOperation(PartitionReplicationEvent, java.util.Collection)}.
+     * <p>
+     * Returning null is allowed and means the whole fragment is replicated
+     * with the operation created by
+     * {@link #prepareReplicationOperation(PartitionReplicationEvent, java.util.Collection)},
+     * for instance because the Merkle trees are not comparable.
+     *
+     * @param event            replication event
+     * @param namespace        replica fragment namespace to replicate
+     * @param remoteMerkleTree the Merkle tree of the fragment on the backup replica
+     * @return the operation replicating the differing data or null
+     */
+    Operation prepareDeltaReplicationOperation(PartitionReplicationEvent event, ServiceNamespace namespace,
+                                               MerkleTreeView remoteMerkleTree);
+}
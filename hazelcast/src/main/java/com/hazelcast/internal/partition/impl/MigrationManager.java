@@ -138,6 +138,7 @@ public class MigrationManager {
     private final Lock partitionServiceLock;
     private final MigrationPlanner migrationPlanner;
     private final boolean fragmentedMigrationEnabled;
+    private final int migrationChunkSize;
     private final long memberHeartbeatTimeoutMillis;
     private boolean triggerRepartitioningWhenClusterStateAllowsMigration;
     private final int maxParallelMigrations;
@@ -155,11 +156,11 @@ public class MigrationManager {
         partitionMigrationInterval = properties.getPositiveMillisOrDefault(ClusterProperty.PARTITION_MIGRATION_INTERVAL, 0);
         partitionMigrationTimeout = properties.getMillis(ClusterProperty.PARTITION_MIGRATION_TIMEOUT);
         fragmentedMigrationEnabled = properties.getBoolean(ClusterProperty.PARTITION_FRAGMENTED_MIGRATION_ENABLED);
+        migrationChunkSize = getMigrationChunkSize(properties);
         maxParallelMigrations = properties.getInteger(ClusterProperty.PARTITION_MAX_PARALLEL_MIGRATIONS);
         partitionStateManager = partitionService.getPartitionStateManager();
-        ILogger migrationThreadLogger = node.getLogger(MigrationThread.class);
         String hzName = nodeEngine.getHazelcastInstance().getName();
-        migrationThread = new MigrationThread(this, hzName, migrationThreadLogger, migrationQueue);
+        migrationThread = new MigrationThread(this, hzName, node.getLogger(MigrationThread.class), migrationQueue);
         long migrationPauseDelayMs = TimeUnit.SECONDS.toMillis(MIGRATION_PAUSE_DURATION_SECONDS_ON_MIGRATION_FAILURE);
         ExecutionService executionService = nodeEngine.getExecutionService();
         delayedResumeMigrationTrigger = new CoalescingDelayedTrigger(
@@ -168,6 +169,21 @@ public class MigrationManager {
         nodeEngine.getMetricsRegistry().registerStaticMetrics(stats, PARTITIONS_PREFIX);
     }
 
+    private static int getMigrationChunkSize(HazelcastProperties properties) {
+        return properties.getBoolean(ClusterProperty.PARTITION_CHUNKED_MIGRATION_ENABLED)
+                ? properties.getInteger(ClusterProperty.PARTITION_CHUNKED_MIGRATION_CHUNK_SIZE) : 0;
+    }
+
+    /**
+     * Returns the migration chunk size to use, {@code 0} if chunked migration
+     * is disabled or not supported by all members of the cluster yet.
+     */
+    private int getMigrationChunkSize() {
+        //RU_COMPAT_4_1
+        return migrationChunkSize > 0 && nodeEngine.getClusterService().getClusterVersion().isGreaterOrEqual(Versions.V4_2)
+                ? migrationChunkSize : 0;
+    }
+
     @Probe(name = MIGRATION_METRIC_MIGRATION_MANAGER_MIGRATION_ACTIVE, unit = BOOLEAN)
     private int migrationActiveProbe() {
         return migrationTasksAllowed.get() ? 1 : 0;
@@ -1385,7 +1401,8 @@ public class MigrationManager {
                 beforeMigration();
 
                 List<MigrationInfo> completedMigrations = getCompletedMigrations(migration.getPartitionId());
-                Operation op = new MigrationRequestOperation(migration, completedMigrations, 0, fragmentedMigrationEnabled);
+                Operation op = new MigrationRequestOperation(migration, completedMigrations, 0,
+                        fragmentedMigrationEnabled, getMigrationChunkSize());
                 future = nodeEngine.getOperationService()
                         .createInvocationBuilder(SERVICE_NAME, op, fromMember.getAddress())
                         .setCallTimeout(partitionMigrationTimeout)
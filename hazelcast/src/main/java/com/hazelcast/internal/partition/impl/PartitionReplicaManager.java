@@ -18,7 +18,9 @@ package com.hazelcast.internal.partition.impl;
 
 import com.hazelcast.cluster.Member;
 import com.hazelcast.instance.impl.Node;
+import com.hazelcast.internal.cluster.Versions;
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.partition.DeltaReplicaSyncAwareService;
 import com.hazelcast.internal.partition.InternalPartition;
 import com.hazelcast.internal.partition.NonFragmentedServiceNamespace;
 import com.hazelcast.internal.partition.PartitionReplica;
@@ -38,8 +40,10 @@ import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.executionservice.ExecutionService;
 import com.hazelcast.spi.impl.executionservice.TaskScheduler;
 import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.servicemanager.ServiceInfo;
 import com.hazelcast.spi.properties.ClusterProperty;
 import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeView;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayDeque;
@@ -49,6 +53,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -58,6 +63,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.PARTITIONS_METRIC_PARTITION_REPLICA_MANAGER_REPLICA_SYNC_SEMAPHORE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.PARTITIONS_METRIC_PARTITION_REPLICA_MANAGER_SYNC_REQUEST_COUNTER;
+import static com.hazelcast.internal.util.MapUtil.createHashMap;
 import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static java.lang.String.format;
 import static java.util.Collections.newSetFromMap;
@@ -235,10 +241,42 @@ public class PartitionReplicaManager implements PartitionReplicaVersionManager {
         }
         replicaSyncRequestsCounter.inc();
 
-        PartitionReplicaSyncRequest syncRequest = new PartitionReplicaSyncRequest(partitionId, namespaces, replicaIndex);
+        Map<ServiceNamespace, MerkleTreeView> merkleTrees = getMerkleTrees(partitionId, namespaces);
+        PartitionReplicaSyncRequest syncRequest =
+                new PartitionReplicaSyncRequest(partitionId, namespaces, merkleTrees, replicaIndex);
         nodeEngine.getOperationService().send(syncRequest, target.address());
     }
 
+    /**
+     * Returns the Merkle trees of the namespaces on this replica, which are
+     * sent with the sync request to replicate only the differing data. No
+     * trees are sent before cluster version 4.2, the replicas are fully synced.
+     */
+    private Map<ServiceNamespace, MerkleTreeView> getMerkleTrees(int partitionId, Collection<ServiceNamespace> namespaces) {
+        // RU_COMPAT_4_1
+        if (nodeEngine.getClusterService().getClusterVersion().isUnknownOrLessThan(Versions.V4_2)) {
+            return Collections.emptyMap();
+        }
+        Collection<ServiceInfo> services = nodeEngine.getServiceInfos(DeltaReplicaSyncAwareService.class);
+        if (services.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<ServiceNamespace, MerkleTreeView> merkleTrees = createHashMap(namespaces.size());
+        for (ServiceNamespace namespace : namespaces) {
+            for (ServiceInfo serviceInfo : services) {
+                DeltaReplicaSyncAwareService service = serviceInfo.getService();
+                if (service.isKnownServiceNamespace(namespace)) {
+                    MerkleTreeView merkleTree = service.getMerkleTree(partitionId, namespace);
+                    if (merkleTree != null) {
+                        merkleTrees.put(namespace, merkleTree);
+                    }
+                }
+            }
+        }
+        return merkleTrees;
+    }
+
     private List<ServiceNamespace> registerSyncInfoForNamespaces(int partitionId,
                                                                  Collection<ServiceNamespace> requestedNamespaces,
                                                                  int replicaIndex, PartitionReplica target, int permits) {
@@ -16,6 +16,7 @@
 
 package com.hazelcast.internal.partition.operation;
 
+import com.hazelcast.internal.partition.DeltaReplicaSyncAwareService;
 import com.hazelcast.internal.partition.NonFragmentedServiceNamespace;
 import com.hazelcast.internal.partition.impl.PartitionDataSerializerHook;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
@@ -26,6 +27,7 @@ import com.hazelcast.spi.impl.operationservice.Operation;
 import com.hazelcast.internal.services.ServiceNamespace;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.servicemanager.ServiceInfo;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeView;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -79,13 +81,24 @@ abstract class AbstractPartitionOperation extends Operation implements Identifie
             FragmentedMigrationAwareService service = nodeEngine.getService(serviceName);
             assert service.isKnownServiceNamespace(ns) : ns + " should be known by " + service;
 
-            operations = prepareAndAppendReplicationOperation(event, ns, service, serviceName, operations);
+            operations = prepareAndAppendReplicationOperation(event, ns, service, serviceName, operations, null);
         }
 
         return operations;
     }
 
     final Collection<Operation> createFragmentReplicationOperations(PartitionReplicationEvent event, ServiceNamespace ns) {
+        return createFragmentReplicationOperations(event, ns, (MerkleTreeView) null);
+    }
+
+    /**
+     * Creates the operations replicating the namespace. If the Merkle tree of the namespace on the
+     * replica is given, the services supporting it replicate only the data which differs from it.
+     *
+     * @see DeltaReplicaSyncAwareService
+     */
+    final Collection<Operation> createFragmentReplicationOperations(PartitionReplicationEvent event, ServiceNamespace ns,
+                                                                    MerkleTreeView remoteMerkleTree) {
         assert !(ns instanceof NonFragmentedServiceNamespace) : ns + " should be used only for non-fragmented services!";
 
         Collection<Operation> operations = emptySet();
@@ -98,15 +111,23 @@ abstract class AbstractPartitionOperation extends Operation implements Identifie
                 continue;
             }
 
-            operations = prepareAndAppendReplicationOperation(event, ns, service, serviceInfo.getName(), operations);
+            operations = prepareAndAppendReplicationOperation(event, ns, service, serviceInfo.getName(), operations,
+                    remoteMerkleTree);
         }
         return operations;
     }
 
     private Collection<Operation> prepareAndAppendReplicationOperation(PartitionReplicationEvent event, ServiceNamespace ns,
-            FragmentedMigrationAwareService service, String serviceName, Collection<Operation> operations) {
+            FragmentedMigrationAwareService service, String serviceName, Collection<Operation> operations,
+            MerkleTreeView remoteMerkleTree) {
 
-        Operation op = service.prepareReplicationOperation(event, singleton(ns));
+        Operation op = null;
+        if (remoteMerkleTree != null && service instanceof DeltaReplicaSyncAwareService) {
+            op = ((DeltaReplicaSyncAwareService) service).prepareDeltaReplicationOperation(event, ns, remoteMerkleTree);
+        }
+        if (op == null) {
+            op = service.prepareReplicationOperation(event, singleton(ns));
+        }
         if (op == null) {
             return operations;
         }
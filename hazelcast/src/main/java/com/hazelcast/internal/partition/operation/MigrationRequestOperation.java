@@ -18,6 +18,9 @@ package com.hazelcast.internal.partition.operation;
 
 import com.hazelcast.cluster.Address;
 import com.hazelcast.core.MemberLeftException;
+import com.hazelcast.internal.cluster.Versions;
+import com.hazelcast.internal.partition.ChunkSupplier;
+import com.hazelcast.internal.partition.ChunkedMigrationAwareService;
 import com.hazelcast.internal.partition.FragmentedMigrationAwareService;
 import com.hazelcast.internal.partition.InternalPartitionService;
 import com.hazelcast.internal.partition.MigrationEndpoint;
@@ -47,9 +50,12 @@ import com.hazelcast.spi.impl.operationservice.UrgentSystemOperation;
 import com.hazelcast.spi.impl.servicemanager.ServiceInfo;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -67,19 +73,33 @@ import static java.util.Collections.singleton;
  * sending them to the destination. A response with a value equal to {@link Boolean#TRUE} indicates a successful migration.
  * It runs on the migration source and transfers the partition with multiple shots.
  * It divides the partition data into fragments and send a group of fragments within each shot.
+ * Fragments of {@link ChunkedMigrationAwareService}s may be further divided into chunks, which are
+ * sent in consecutive shots.
  */
 public class MigrationRequestOperation extends BaseMigrationOperation {
 
     private boolean fragmentedMigrationEnabled;
+    private int migrationChunkSize;
     private transient ServiceNamespacesContext namespacesContext;
+    private transient Deque<PendingChunks> pendingChunks;
 
     public MigrationRequestOperation() {
     }
 
     public MigrationRequestOperation(MigrationInfo migrationInfo, List<MigrationInfo> completedMigrations,
             int partitionStateVersion, boolean fragmentedMigrationEnabled) {
+        this(migrationInfo, completedMigrations, partitionStateVersion, fragmentedMigrationEnabled, 0);
+    }
+
+    /**
+     * @param migrationChunkSize approximate maximum size of a migration chunk
+     *                           in bytes, {@code 0} to disable chunked migration
+     */
+    public MigrationRequestOperation(MigrationInfo migrationInfo, List<MigrationInfo> completedMigrations,
+            int partitionStateVersion, boolean fragmentedMigrationEnabled, int migrationChunkSize) {
         super(migrationInfo, completedMigrations, partitionStateVersion);
         this.fragmentedMigrationEnabled = fragmentedMigrationEnabled;
+        this.migrationChunkSize = migrationChunkSize;
     }
 
     @Override
@@ -99,6 +119,7 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
             try {
                 executeBeforeMigrations();
                 namespacesContext = new ServiceNamespacesContext(nodeEngine, getPartitionReplicationEvent());
+                pendingChunks = new ArrayDeque<>();
                 invokeMigrationOperation(initialReplicaFragmentMigrationState(), true);
             } catch (Throwable e) {
                 logThrowable(e);
@@ -123,7 +144,7 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
      * Invokes the {@link MigrationOperation} on the migration destination.
      */
     private void invokeMigrationOperation(ReplicaFragmentMigrationState migrationState, boolean firstFragment) {
-        boolean lastFragment = !namespacesContext.hasNext();
+        boolean lastFragment = !namespacesContext.hasNext() && pendingChunks.isEmpty();
         Operation operation = new MigrationOperation(migrationInfo,
                 firstFragment ? completedMigrations : Collections.emptyList(),
                 partitionStateVersion, migrationState, firstFragment, lastFragment);
@@ -184,6 +205,10 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
     }
 
     private ReplicaFragmentMigrationState createNextReplicaFragmentMigrationState() {
+        if (!pendingChunks.isEmpty()) {
+            return createNextChunkMigrationState();
+        }
+
         if (!namespacesContext.hasNext()) {
             return null;
         }
@@ -215,10 +240,56 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
         PartitionReplicationEvent event = getPartitionReplicationEvent();
         Collection<String> serviceNames = namespacesContext.getServiceNames(ns);
 
-        Collection<Operation> operations = createFragmentReplicationOperations(event, ns, serviceNames);
+        Collection<Operation> operations = migrationChunkSize > 0
+                ? createChunkedFragmentReplicationOperations(event, ns, serviceNames)
+                : createFragmentReplicationOperations(event, ns, serviceNames);
         return createReplicaFragmentMigrationState(singleton(ns), operations);
     }
 
+    /**
+     * Creates the replication operations of the given namespace like
+     * {@link #createFragmentReplicationOperations(PartitionReplicationEvent, ServiceNamespace, Collection)},
+     * except that only the first chunk is created for services which
+     * migrate the namespace in chunks. The remaining chunks are registered
+     * to be sent in the following shots.
+     */
+    private Collection<Operation> createChunkedFragmentReplicationOperations(PartitionReplicationEvent event,
+                                                                             ServiceNamespace ns,
+                                                                             Collection<String> serviceNames) {
+        Collection<String> nonChunkedServiceNames = new ArrayList<>(serviceNames.size());
+        Collection<Operation> operations = new ArrayList<>(serviceNames.size());
+        NodeEngineImpl nodeEngine = (NodeEngineImpl) getNodeEngine();
+        for (String serviceName : serviceNames) {
+            Object service = nodeEngine.getService(serviceName);
+            ChunkSupplier chunkSupplier = service instanceof ChunkedMigrationAwareService
+                    ? ((ChunkedMigrationAwareService) service).newChunkSupplier(event, ns, migrationChunkSize)
+                    : null;
+            if (chunkSupplier == null) {
+                nonChunkedServiceNames.add(serviceName);
+            } else if (chunkSupplier.hasNext()) {
+                PendingChunks chunks = new PendingChunks(ns, serviceName, chunkSupplier);
+                operations.add(chunks.next());
+                if (chunks.hasNext()) {
+                    pendingChunks.add(chunks);
+                }
+            }
+        }
+
+        if (!nonChunkedServiceNames.isEmpty()) {
+            operations.addAll(createFragmentReplicationOperations(event, ns, nonChunkedServiceNames));
+        }
+        return operations;
+    }
+
+    private ReplicaFragmentMigrationState createNextChunkMigrationState() {
+        PendingChunks chunks = pendingChunks.peek();
+        Operation operation = chunks.next();
+        if (!chunks.hasNext()) {
+            pendingChunks.poll();
+        }
+        return createReplicaFragmentMigrationState(singleton(chunks.namespace), singleton(operation));
+    }
+
     private ReplicaFragmentMigrationState createAllReplicaFragmentsMigrationState() {
         PartitionReplicationEvent event = getPartitionReplicationEvent();
         Collection<Operation> operations = createAllReplicationOperations(event);
@@ -284,12 +355,20 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
     protected void writeInternal(ObjectDataOutput out) throws IOException {
         super.writeInternal(out);
         out.writeBoolean(fragmentedMigrationEnabled);
+        // RU_COMPAT_4_1
+        if (out.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            out.writeInt(migrationChunkSize);
+        }
     }
 
     @Override
     protected void readInternal(ObjectDataInput in) throws IOException {
         super.readInternal(in);
         fragmentedMigrationEnabled = in.readBoolean();
+        // RU_COMPAT_4_1
+        if (in.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            migrationChunkSize = in.readInt();
+        }
     }
 
     /**
@@ -333,6 +412,31 @@ public class MigrationRequestOperation extends BaseMigrationOperation {
 
     }
 
+    /**
+     * Remaining chunks of a replica fragment of a single service.
+     */
+    private static final class PendingChunks {
+        final ServiceNamespace namespace;
+        final String serviceName;
+        final ChunkSupplier chunkSupplier;
+
+        PendingChunks(ServiceNamespace namespace, String serviceName, ChunkSupplier chunkSupplier) {
+            this.namespace = namespace;
+            this.serviceName = serviceName;
+            this.chunkSupplier = chunkSupplier;
+        }
+
+        boolean hasNext() {
+            return chunkSupplier.hasNext();
+        }
+
+        Operation next() {
+            Operation operation = chunkSupplier.next();
+            operation.setServiceName(serviceName);
+            return operation;
+        }
+    }
+
     private static class ServiceNamespacesContext {
         final Collection<ServiceNamespace> allNamespaces = new HashSet<>();
         final Map<ServiceNamespace, Collection<String>> namespaceToServices = new HashMap<>();
@@ -16,6 +16,8 @@
 
 package com.hazelcast.internal.partition.operation;
 
+import com.hazelcast.internal.cluster.Versions;
+import com.hazelcast.internal.partition.DeltaReplicaSyncAwareService;
 import com.hazelcast.internal.partition.InternalPartition;
 import com.hazelcast.internal.partition.InternalPartitionService;
 import com.hazelcast.internal.partition.MigrationCycleOperation;
@@ -31,20 +33,25 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.cluster.Address;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.impl.Versioned;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.operationservice.Operation;
 import com.hazelcast.spi.impl.operationservice.OperationService;
 import com.hazelcast.internal.partition.PartitionReplicationEvent;
 import com.hazelcast.spi.impl.operationservice.PartitionAwareOperation;
 import com.hazelcast.internal.services.ServiceNamespace;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeUtil;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeView;
 
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static com.hazelcast.internal.serialization.impl.SerializationUtil.readList;
+import static com.hazelcast.internal.util.MapUtil.createHashMap;
 import static com.hazelcast.internal.serialization.impl.SerializationUtil.writeList;
 
 /**
@@ -56,18 +63,32 @@ import static com.hazelcast.internal.serialization.impl.SerializationUtil.writeL
  * <li>the maximum number of parallel synchronizations has already been reached</li>
  * </ul>
  * An empty response can be sent if the current replica version is 0.
+ * <p>
+ * The request may contain the Merkle trees of the namespaces on the replica, in which case only the data which differs
+ * on the partition owner is sent, if supported by the services of the namespace.
+ *
+ * @see DeltaReplicaSyncAwareService
  */
 public final class PartitionReplicaSyncRequest extends AbstractPartitionOperation
-        implements PartitionAwareOperation, MigrationCycleOperation {
+        implements PartitionAwareOperation, MigrationCycleOperation, Versioned {
 
     private List<ServiceNamespace> namespaces;
+    // Merkle trees of the namespaces on the requesting replica, to replicate only the differing data
+    private Map<ServiceNamespace, MerkleTreeView> merkleTrees;
 
     public PartitionReplicaSyncRequest() {
         namespaces = Collections.emptyList();
+        merkleTrees = Collections.emptyMap();
     }
 
     public PartitionReplicaSyncRequest(int partitionId, List<ServiceNamespace> namespaces, int replicaIndex) {
+        this(partitionId, namespaces, Collections.emptyMap(), replicaIndex);
+    }
+
+    public PartitionReplicaSyncRequest(int partitionId, List<ServiceNamespace> namespaces,
+                                       Map<ServiceNamespace, MerkleTreeView> merkleTrees, int replicaIndex) {
         this.namespaces = namespaces;
+        this.merkleTrees = merkleTrees;
         setPartitionId(partitionId);
         setReplicaIndex(replicaIndex);
     }
@@ -137,7 +158,7 @@ public final class PartitionReplicaSyncRequest extends AbstractPartitionOperatio
                 if (NonFragmentedServiceNamespace.INSTANCE.equals(namespace)) {
                     operations = createNonFragmentedReplicationOperations(event);
                 } else {
-                    operations = createFragmentReplicationOperations(event, namespace);
+                    operations = createFragmentReplicationOperations(event, namespace, merkleTrees.get(namespace));
                 }
                 sendOperations(operations, namespace);
                 iterator.remove();
@@ -255,11 +276,28 @@ public final class PartitionReplicaSyncRequest extends AbstractPartitionOperatio
     @Override
     protected void writeInternal(ObjectDataOutput out) throws IOException {
         writeList(namespaces, out);
+        // RU_COMPAT_4_1
+        if (out.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            out.writeInt(merkleTrees.size());
+            for (Map.Entry<ServiceNamespace, MerkleTreeView> entry : merkleTrees.entrySet()) {
+                out.writeObject(entry.getKey());
+                MerkleTreeUtil.writeLeaves(out, entry.getValue());
+            }
+        }
     }
 
     @Override
     protected void readInternal(ObjectDataInput in) throws IOException {
         namespaces = readList(in);
+        // RU_COMPAT_4_1
+        if (in.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            int merkleTreeCount = in.readInt();
+            merkleTrees = createHashMap(merkleTreeCount);
+            for (int i = 0; i < merkleTreeCount; i++) {
+                ServiceNamespace namespace = in.readObject();
+                merkleTrees.put(namespace, MerkleTreeUtil.createRemoteMerkleTreeView(in));
+            }
+        }
     }
 
     @Override
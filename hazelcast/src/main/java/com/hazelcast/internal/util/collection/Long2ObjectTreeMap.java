@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * Sorted map specialised for {@code long} keys, implemented as a B+-tree
+ * which keeps the keys in primitive arrays.
+ * <p>
+ * The removed keys are not rebalanced away, the tree is rebuilt instead
+ * once its leaves are mostly empty. The cursors of the map are invalidated
+ * by its mutations.
+ * <p>
+ * NOTE: This map is not thread-safe and doesn't support {@code null}
+ * values.
+ *
+ * @param <V> values stored in the map
+ */
+public class Long2ObjectTreeMap<V> {
+
+    /**
+     * The maximum number of keys in a node of the tree.
+     */
+    static final int NODE_CAPACITY = 64;
+
+    private static final int REBUILD_LEAF_SIZE = NODE_CAPACITY * 3 / 4;
+
+    private Object root;
+    private Leaf firstLeaf;
+    private int leafCount;
+    private int size;
+
+    // the node split off by the last insertion into a subtree, if any
+    private Object splitNode;
+    private long splitKey;
+
+    public Long2ObjectTreeMap() {
+        clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        firstLeaf = new Leaf();
+        root = firstLeaf;
+        leafCount = 1;
+        size = 0;
+    }
+
+    /**
+     * @return the value mapped to the key or {@code null} if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Leaf leaf = findLeaf(key);
+        int index = leaf.indexOf(key);
+        return index >= 0 ? (V) leaf.values[index] : null;
+    }
+
+    /**
+     * Maps the key to the value.
+     *
+     * @return the value previously mapped to the key or {@code null} if
+     * there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        assert value != null;
+
+        Object oldValue = insert(root, key, value);
+        if (splitNode != null) {
+            Inner newRoot = new Inner();
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = splitNode;
+            newRoot.size = 1;
+            root = newRoot;
+            splitNode = null;
+        }
+        return (V) oldValue;
+    }
+
+    /**
+     * Removes the mapping of the key.
+     *
+     * @return the value mapped to the key or {@code null} if there was
+     * none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        Leaf leaf = findLeaf(key);
+        int index = leaf.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        Object oldValue = leaf.values[index];
+        leaf.remove(index);
+        size--;
+        if (leafCount > 2 * (size / REBUILD_LEAF_SIZE + 1)) {
+            rebuild();
+        }
+        return (V) oldValue;
+    }
+
+    /**
+     * @return the cursor over the entries of the map in the ascending key
+     * order.
+     */
+    public Cursor<V> cursor() {
+        return new Cursor<>(firstLeaf, -1);
+    }
+
+    /**
+     * @return the cursor over the entries of the map in the ascending key
+     * order, starting with the first key greater than (or equal to, if
+     * {@code inclusive}) the given key.
+     */
+    public Cursor<V> cursor(long from, boolean inclusive) {
+        Leaf leaf = findLeaf(from);
+        int index = leaf.indexOf(from);
+        if (index < 0) {
+            index = -index - 1;
+        } else if (!inclusive) {
+            index++;
+        }
+        return new Cursor<>(leaf, index - 1);
+    }
+
+    private Leaf findLeaf(long key) {
+        Object node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[inner.childIndex(key)];
+        }
+        return (Leaf) node;
+    }
+
+    private Object insert(Object node, long key, Object value) {
+        if (node instanceof Leaf) {
+            return insertIntoLeaf((Leaf) node, key, value);
+        }
+
+        Inner inner = (Inner) node;
+        int childIndex = inner.childIndex(key);
+        Object oldValue = insert(inner.children[childIndex], key, value);
+        if (splitNode != null) {
+            Object child = splitNode;
+            splitNode = null;
+            insertIntoInner(inner, childIndex, splitKey, child);
+        }
+        return oldValue;
+    }
+
+    private Object insertIntoLeaf(Leaf leaf, long key, Object value) {
+        int index = leaf.indexOf(key);
+        if (index >= 0) {
+            Object oldValue = leaf.values[index];
+            leaf.values[index] = value;
+            return oldValue;
+        }
+
+        index = -index - 1;
+        if (leaf.size == NODE_CAPACITY) {
+            // appending to the last leaf leaves it full, so ascending keys fill the leaves
+            boolean append = index == NODE_CAPACITY && leaf.next == null;
+            Leaf right = leaf.split(append ? NODE_CAPACITY : NODE_CAPACITY / 2);
+            leafCount++;
+            if (index >= leaf.size) {
+                right.insert(index - leaf.size, key, value);
+            } else {
+                leaf.insert(index, key, value);
+            }
+            splitKey = right.keys[0];
+            splitNode = right;
+        } else {
+            leaf.insert(index, key, value);
+        }
+        size++;
+        return null;
+    }
+
+    private void insertIntoInner(Inner inner, int childIndex, long key, Object child) {
+        if (inner.size < NODE_CAPACITY) {
+            inner.insert(childIndex, key, child);
+            return;
+        }
+
+        // split the overflowing node around its middle key
+        long[] keys = Arrays.copyOf(inner.keys, NODE_CAPACITY + 1);
+        Object[] children = Arrays.copyOf(inner.children, NODE_CAPACITY + 2);
+        System.arraycopy(keys, childIndex, keys, childIndex + 1, NODE_CAPACITY - childIndex);
+        System.arraycopy(children, childIndex + 1, children, childIndex + 2, NODE_CAPACITY - childIndex);
+        keys[childIndex] = key;
+        children[childIndex + 1] = child;
+
+        int middle = (NODE_CAPACITY + 1) / 2;
+        Inner right = new Inner();
+        right.size = NODE_CAPACITY - middle;
+        System.arraycopy(keys, middle + 1, right.keys, 0, right.size);
+        System.arraycopy(children, middle + 1, right.children, 0, right.size + 1);
+        inner.size = middle;
+        System.arraycopy(keys, 0, inner.keys, 0, middle);
+        System.arraycopy(children, 0, inner.children, 0, middle + 1);
+        Arrays.fill(inner.children, middle + 1, NODE_CAPACITY + 1, null);
+
+        splitKey = keys[middle];
+        splitNode = right;
+    }
+
+    /**
+     * Rebuilds the tree from its entries, dropping the empty leaves.
+     */
+    private void rebuild() {
+        Cursor<V> cursor = cursor();
+        clear();
+        Leaf leaf = firstLeaf;
+        while (cursor.advance()) {
+            if (leaf.size == REBUILD_LEAF_SIZE) {
+                Leaf next = new Leaf();
+                leaf.next = next;
+                leaf = next;
+                leafCount++;
+            }
+            leaf.insert(leaf.size, cursor.key(), cursor.value());
+            size++;
+        }
+        root = buildInnerLevels();
+    }
+
+    private Object buildInnerLevels() {
+        Object[] level = new Object[leafCount];
+        int levelSize = 0;
+        for (Leaf leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+            level[levelSize++] = leaf;
+        }
+        while (levelSize > 1) {
+            int parentCount = 0;
+            for (int i = 0; i < levelSize; i += NODE_CAPACITY + 1) {
+                level[parentCount++] = newParent(level, i, Math.min(levelSize, i + NODE_CAPACITY + 1));
+            }
+            levelSize = parentCount;
+        }
+        return level[0];
+    }
+
+    private static Object newParent(Object[] level, int from, int to) {
+        Inner parent = new Inner();
+        parent.children[0] = level[from];
+        for (int i = from + 1; i < to; i++) {
+            parent.keys[parent.size] = firstKey(level[i]);
+            parent.children[++parent.size] = level[i];
+        }
+        return parent;
+    }
+
+    private static long firstKey(Object node) {
+        while (node instanceof Inner) {
+            node = ((Inner) node).children[0];
+        }
+        return ((Leaf) node).keys[0];
+    }
+
+    /**
+     * Cursor over the entries of the map in the ascending key order.
+     *
+     * @param <V> values stored in the map
+     */
+    public static final class Cursor<V> {
+
+        private Leaf leaf;
+        private int index;
+
+        Cursor(Leaf leaf, int index) {
+            this.leaf = leaf;
+            this.index = index;
+        }
+
+        /**
+         * Advances to the next entry.
+         *
+         * @return {@code true} if the cursor advanced, {@code false} if
+         * there are no more entries.
+         */
+        public boolean advance() {
+            index++;
+            while (leaf != null && index >= leaf.size) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            return leaf != null;
+        }
+
+        /**
+         * @return the key of the current entry.
+         */
+        public long key() {
+            return leaf.keys[index];
+        }
+
+        /**
+         * @return the value of the current entry.
+         */
+        @SuppressWarnings("unchecked")
+        public V value() {
+            return (V) leaf.values[index];
+        }
+    }
+
+    private static final class Inner {
+
+        // keys[i] separates the keys of children[i] from the keys of children[i + 1]
+        final long[] keys = new long[NODE_CAPACITY];
+        final Object[] children = new Object[NODE_CAPACITY + 1];
+        int size;
+
+        int childIndex(long key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        void insert(int childIndex, long key, Object child) {
+            System.arraycopy(keys, childIndex, keys, childIndex + 1, size - childIndex);
+            System.arraycopy(children, childIndex + 1, children, childIndex + 2, size - childIndex);
+            keys[childIndex] = key;
+            children[childIndex + 1] = child;
+            size++;
+        }
+    }
+
+    private static final class Leaf {
+
+        final long[] keys = new long[NODE_CAPACITY];
+        final Object[] values = new Object[NODE_CAPACITY];
+        int size;
+        Leaf next;
+
+        int indexOf(long key) {
+            return Arrays.binarySearch(keys, 0, size, key);
+        }
+
+        void insert(int index, long key, Object value) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            keys[index] = key;
+            values[index] = value;
+            size++;
+        }
+
+        void remove(int index) {
+            size--;
+            System.arraycopy(keys, index + 1, keys, index, size - index);
+            System.arraycopy(values, index + 1, values, index, size - index);
+            values[size] = null;
+        }
+
+        Leaf split(int from) {
+            Leaf right = new Leaf();
+            right.size = size - from;
+            System.arraycopy(keys, from, right.keys, 0, right.size);
+            System.arraycopy(values, from, right.values, 0, right.size);
+            Arrays.fill(values, from, size, null);
+            size = from;
+            right.next = next;
+            next = right;
+            return right;
+        }
+    }
+}
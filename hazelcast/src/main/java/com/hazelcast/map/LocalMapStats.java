@@ -65,6 +65,19 @@ public interface LocalMapStats extends LocalInstanceStats {
      */
     long getOwnedEntryMemoryCost();
 
+    /**
+     * Returns memory cost (number of bytes) of owned entries in this member
+     * as if their values were not compressed. Equals to
+     * {@link #getOwnedEntryMemoryCost()} if value compression is disabled.
+     *
+     * @return uncompressed memory cost (number of bytes) of owned entries in this member.
+     * @see com.hazelcast.config.MapConfig#setValueCompressionEnabled(boolean)
+     * @since 4.2
+     */
+    default long getOwnedEntryRawMemoryCost() {
+        return getOwnedEntryMemoryCost();
+    }
+
     /**
      * Returns memory cost (number of bytes) of backup entries in this member.
      *
@@ -269,6 +282,36 @@ public interface LocalMapStats extends LocalInstanceStats {
      */
     long getIndexedQueryCount();
 
+    /**
+     * Returns the number of queries served from the query result cache of
+     * the map on this member.
+     * <p>
+     * If the query results of the map aren't cached, the returned value is
+     * {@code 0}, see
+     * {@link com.hazelcast.spi.properties.ClusterProperty#QUERY_RESULT_CACHE_MAPS}.
+     *
+     * @see #getQueryResultCacheMisses()
+     * @since 4.2
+     */
+    default long getQueryResultCacheHits() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of queries looked up in the query result cache of
+     * the map on this member which had to be run since no valid result was
+     * cached.
+     * <p>
+     * If the query results of the map aren't cached, the returned value is
+     * {@code 0}.
+     *
+     * @see #getQueryResultCacheHits()
+     * @since 4.2
+     */
+    default long getQueryResultCacheMisses() {
+        return 0;
+    }
+
     /**
      * Returns the per-index statistics map keyed by the index name.
      */
@@ -42,6 +42,7 @@ class BinaryMapEntryCostEstimator
                     + HASH_ENTRY_VALUE_REF_COST_IN_BYTES + HASH_ENTRY_NEXT_REF_COST_IN_BYTES;
 
     private volatile long estimate;
+    private volatile long compressionSavings;
 
     BinaryMapEntryCostEstimator() {
     }
@@ -59,9 +60,23 @@ class BinaryMapEntryCostEstimator
         this.estimate += adjustment;
     }
 
+    @Override
+    public long getRawEstimate() {
+        return estimate + compressionSavings;
+    }
+
+    @SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT",
+            justification = "We have the guarantee that only a single partition thread at any given time can change the volatile"
+                    + " field, but multiple threads can read it.")
+    @Override
+    public void adjustCompressionSavingsBy(long adjustment) {
+        this.compressionSavings += adjustment;
+    }
+
     @Override
     public void reset() {
         estimate = 0L;
+        compressionSavings = 0L;
     }
 
     @Override
@@ -69,6 +84,11 @@ class BinaryMapEntryCostEstimator
         return value.getCost();
     }
 
+    @Override
+    public long calculateCompressionSavings(Record value) {
+        return value.getRawCost() - value.getCost();
+    }
+
     public long calculateEntryCost(Data key, Record value) {
         long totalMapEntryCost = 0L;
 
@@ -53,6 +53,34 @@ public interface EntryCostEstimator<K, V> {
      */
     long calculateEntryCost(K key, V value);
 
+    /**
+     * Returns the memory cost estimation so far as if no value
+     * was compressed, see {@link #calculateCompressionSavings(Object)}.
+     *
+     * @return the memory cost estimation of uncompressed entries so far
+     */
+    default long getRawEstimate() {
+        return getEstimate();
+    }
+
+    /**
+     * Adjust the memory saved by value compression by the given adjustment.
+     * The adjustment can be any negative or positive number.
+     *
+     * @param adjustment The delta by which the savings will be adjusted
+     */
+    default void adjustCompressionSavingsBy(long adjustment) {
+    }
+
+    /**
+     * Calculate the memory saved by compressing the entry's value
+     * @param value The entry's value
+     * @return The number of bytes saved, zero if the value is not compressed.
+     */
+    default long calculateCompressionSavings(V value) {
+        return 0L;
+    }
+
     /**
      * Reset the current estimation to zero.
      */
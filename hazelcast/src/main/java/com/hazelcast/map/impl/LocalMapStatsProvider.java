@@ -36,11 +36,13 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.LocalMapStats;
 import com.hazelcast.map.impl.nearcache.MapNearCacheManager;
 import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.map.impl.query.QueryResultCache;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.nearcache.NearCacheStats;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.InternalIndex;
 import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.wan.impl.merkletree.MerkleTree;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -188,11 +190,13 @@ public class LocalMapStatsProvider {
         for (PartitionContainer partitionContainer : partitionContainers) {
             IPartition partition = partitionService.getPartition(partitionContainer.getPartitionId());
 
+            RecordStore recordStore = partitionContainer.getExistingRecordStore(mapName);
             if (partition.isLocal()) {
-                addPrimaryStatsOf(partitionContainer.getExistingRecordStore(mapName), onDemandStats);
+                addPrimaryStatsOf(recordStore, onDemandStats);
             } else {
-                addReplicaStatsOf(partitionContainer.getExistingRecordStore(mapName), onDemandStats);
+                addReplicaStatsOf(recordStore, onDemandStats);
             }
+            addMerkleTreeStatsOf(recordStore, onDemandStats);
         }
         addStructureStats(mapName, onDemandStats);
     }
@@ -224,6 +228,7 @@ public class LocalMapStatsProvider {
         onDemandStats.incrementHits(stats.getHits());
         onDemandStats.incrementDirtyEntryCount(recordStore.getMapDataStore().notFinishedOperationsCount());
         onDemandStats.incrementOwnedEntryMemoryCost(recordStore.getOwnedEntryCost());
+        onDemandStats.incrementOwnedEntryRawMemoryCost(recordStore.getOwnedEntryRawCost());
         if (NATIVE != recordStore.getMapContainer().getMapConfig().getInMemoryFormat()) {
             onDemandStats.incrementHeapCost(recordStore.getOwnedEntryCost());
         }
@@ -233,6 +238,14 @@ public class LocalMapStatsProvider {
         onDemandStats.setBackupCount(recordStore.getMapContainer().getMapConfig().getTotalBackupCount());
     }
 
+    private static void addMerkleTreeStatsOf(RecordStore recordStore, LocalMapOnDemandCalculatedStats onDemandStats) {
+        MerkleTree merkleTree = recordStore == null ? null : recordStore.getMerkleTree();
+        if (merkleTree != null) {
+            onDemandStats.incrementMerkleTreesCost(merkleTree.footprint());
+            onDemandStats.incrementHeapCost(merkleTree.footprint());
+        }
+    }
+
     /**
      * Calculates and adds replica partition stats.
      */
@@ -377,6 +390,12 @@ public class LocalMapStatsProvider {
         }
 
         localMapStats.updateIndexStats(freshStats);
+
+        QueryResultCache queryResultCache = mapContainer.getQueryResultCache();
+        if (queryResultCache != null) {
+            localMapStats.setQueryResultCacheHits(queryResultCache.getHits());
+            localMapStats.setQueryResultCacheMisses(queryResultCache.getMisses());
+        }
     }
 
     private static Map<String, OnDemandIndexStats> aggregateFreshIndexStats(InternalIndex[] freshIndexes,
@@ -448,6 +467,7 @@ public class LocalMapStatsProvider {
         private long ownedEntryCount;
         private long backupEntryCount;
         private long ownedEntryMemoryCost;
+        private long ownedEntryRawMemoryCost;
         private long backupEntryMemoryCost;
         // Holds total heap cost of map & Near Cache & backups & merkle trees.
         private long heapCost;
@@ -477,6 +497,10 @@ public class LocalMapStatsProvider {
             this.ownedEntryMemoryCost += ownedEntryMemoryCost;
         }
 
+        public void incrementOwnedEntryRawMemoryCost(long ownedEntryRawMemoryCost) {
+            this.ownedEntryRawMemoryCost += ownedEntryRawMemoryCost;
+        }
+
         public void incrementBackupEntryMemoryCost(long backupEntryMemoryCost) {
             this.backupEntryMemoryCost += backupEntryMemoryCost;
         }
@@ -503,6 +527,7 @@ public class LocalMapStatsProvider {
             stats.setOwnedEntryCount(ownedEntryCount);
             stats.setBackupEntryCount(backupEntryCount);
             stats.setOwnedEntryMemoryCost(ownedEntryMemoryCost);
+            stats.setOwnedEntryRawMemoryCost(ownedEntryRawMemoryCost);
             stats.setBackupEntryMemoryCost(backupEntryMemoryCost);
             stats.setHeapCost(heapCost);
             stats.setMerkleTreesCost(merkleTreesCost);
@@ -19,6 +19,7 @@ package com.hazelcast.map.impl;
 import com.hazelcast.config.CacheDeserializedValues;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.EventJournalConfig;
+import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.IndexConfig;
 import com.hazelcast.config.InvalidConfigurationException;
 import com.hazelcast.config.MapConfig;
@@ -44,6 +45,7 @@ import com.hazelcast.map.impl.eviction.EvictorImpl;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.nearcache.invalidation.InvalidationListener;
 import com.hazelcast.map.impl.query.QueryEntryFactory;
+import com.hazelcast.map.impl.query.QueryResultCache;
 import com.hazelcast.map.impl.record.DataRecordFactory;
 import com.hazelcast.map.impl.record.ObjectRecordFactory;
 import com.hazelcast.map.impl.record.RecordFactory;
@@ -65,12 +67,19 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static com.hazelcast.config.ConsistencyCheckStrategy.MERKLE_TREES;
+import static com.hazelcast.config.InMemoryFormat.BINARY;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.InMemoryFormat.OBJECT;
 import static com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider.getEvictionPolicyComparator;
+import static com.hazelcast.internal.util.StringUtil.splitByComma;
 import static com.hazelcast.map.impl.eviction.Evictor.NULL_EVICTOR;
 import static com.hazelcast.map.impl.mapstore.MapStoreContextFactory.createMapStoreContext;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_COMPACT_RECORDS_ENABLED;
 import static com.hazelcast.spi.properties.ClusterProperty.MAP_EVICTION_BATCH_SIZE;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_TIERED_STORE_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_RESULT_CACHE_MAPS;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_RESULT_CACHE_MAX_BYTES;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_RESULT_CACHE_MAX_SIZE;
 import static java.lang.System.getProperty;
 
 /**
@@ -93,6 +102,7 @@ public class MapContainer {
     protected final QueryEntryFactory queryEntryFactory;
     protected final EventJournalConfig eventJournalConfig;
     protected final PartitioningStrategy partitioningStrategy;
+    protected final QueryResultCache queryResultCache;
     protected final InternalSerializationService serializationService;
     protected final Function<Object, Data> toDataFunction = new ObjectToData();
     protected final InterceptorRegistry interceptorRegistry = new InterceptorRegistry();
@@ -136,6 +146,7 @@ public class MapContainer {
         this.queryEntryFactory = new QueryEntryFactory(mapConfig.getCacheDeserializedValues(),
                 serializationService, extractors);
         this.globalIndexes = shouldUseGlobalIndex() ? createIndexes(true) : null;
+        this.queryResultCache = createQueryResultCache();
         this.mapStoreContext = createMapStoreContext(this);
         initWanReplication(mapServiceContext.getNodeEngine());
     }
@@ -203,6 +214,57 @@ public class MapContainer {
         return new EvictorImpl(evictionPolicyComparator, evictionChecker, evictionBatchSize, partitionService);
     }
 
+    /**
+     * Returns {@code true} if the evictor demotes the values of this map
+     * to a tiered store instead of removing the entries, see
+     * {@link com.hazelcast.spi.properties.ClusterProperty#MAP_TIERED_STORE_ENABLED}.
+     */
+    public boolean isTieredStoreEnabled() {
+        if (mapConfig.getInMemoryFormat() != BINARY
+                || mapConfig.getEvictionConfig().getEvictionPolicy() == EvictionPolicy.NONE
+                || !mapServiceContext.getNodeEngine().getProperties().getBoolean(MAP_TIERED_STORE_ENABLED)) {
+            return false;
+        }
+
+        switch (mapConfig.getEvictionConfig().getMaxSizePolicy()) {
+            case USED_HEAP_SIZE:
+            case USED_HEAP_PERCENTAGE:
+            case FREE_HEAP_SIZE:
+            case FREE_HEAP_PERCENTAGE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the query result cache of this map or {@code null} if the
+     * query results of this map aren't cached, see
+     * {@link com.hazelcast.spi.properties.ClusterProperty#QUERY_RESULT_CACHE_MAPS}.
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    private QueryResultCache createQueryResultCache() {
+        NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
+        String[] patterns = splitByComma(nodeEngine.getProperties().getString(QUERY_RESULT_CACHE_MAPS), false);
+        int maxSize = nodeEngine.getProperties().getInteger(QUERY_RESULT_CACHE_MAX_SIZE);
+        long maxBytes = nodeEngine.getProperties().getLong(QUERY_RESULT_CACHE_MAX_BYTES);
+        if (patterns == null || maxSize <= 0 || maxBytes <= 0) {
+            return null;
+        }
+        for (String pattern : patterns) {
+            int wildcard = pattern.indexOf('*');
+            if (wildcard == -1 ? pattern.equals(name)
+                    : name.startsWith(pattern.substring(0, wildcard)) && name.endsWith(pattern.substring(wildcard + 1))) {
+                return new QueryResultCache(maxSize, maxBytes, nodeEngine.getPartitionService().getPartitionCount(),
+                        serializationService);
+            }
+        }
+        return null;
+    }
+
     public boolean shouldUseGlobalIndex() {
         return mapConfig.getInMemoryFormat() != NATIVE || mapServiceContext.globalIndexEnabled();
     }
@@ -230,6 +292,11 @@ public class MapContainer {
         return anyArg -> {
             switch (mapConfig.getInMemoryFormat()) {
                 case BINARY:
+                    return new DataRecordFactory(mapConfig, serializationService,
+                            mapServiceContext.getNodeEngine().getProperties().getBoolean(MAP_COMPACT_RECORDS_ENABLED),
+                            isTieredStoreEnabled());
+                case NATIVE:
+                    // native records are staged on-heap and copied off-heap by the storage
                     return new DataRecordFactory(mapConfig, serializationService);
                 case OBJECT:
                     return new ObjectRecordFactory(mapConfig, serializationService);
@@ -18,6 +18,7 @@ package com.hazelcast.map.impl;
 
 import com.hazelcast.client.impl.protocol.task.map.MapAssignAndGetUuidsOperation;
 import com.hazelcast.client.impl.protocol.task.map.MapAssignAndGetUuidsOperationFactory;
+import com.hazelcast.internal.hotrestart.impl.SyncChangeLogsOperation;
 import com.hazelcast.internal.nearcache.impl.invalidation.BatchNearCacheInvalidation;
 import com.hazelcast.internal.nearcache.impl.invalidation.SingleNearCacheInvalidation;
 import com.hazelcast.internal.serialization.DataSerializerHook;
@@ -64,6 +65,7 @@ import com.hazelcast.map.impl.operation.KeyLoadStatusOperation;
 import com.hazelcast.map.impl.operation.KeyLoadStatusOperationFactory;
 import com.hazelcast.map.impl.operation.LoadAllOperation;
 import com.hazelcast.map.impl.operation.LoadMapOperation;
+import com.hazelcast.map.impl.operation.MapChunk;
 import com.hazelcast.map.impl.operation.MapFetchEntriesOperation;
 import com.hazelcast.map.impl.operation.MapFetchKeysOperation;
 import com.hazelcast.map.impl.operation.MapFetchWithQueryOperation;
@@ -314,8 +316,10 @@ public final class MapDataSerializerHook implements DataSerializerHook {
     public static final int COMPUTE_MAP_OPERATION_PROCESSOR = 151;
     public static final int MERGE_MAP_OPERATION_PROCESSOR = 152;
     public static final int MAP_ENTRY_REPLACING_PROCESSOR = 153;
+    public static final int MAP_CHUNK = 154;
+    public static final int SYNC_CHANGE_LOGS = 155;
 
-    private static final int LEN = MAP_ENTRY_REPLACING_PROCESSOR + 1;
+    private static final int LEN = SYNC_CHANGE_LOGS + 1;
 
     @Override
     public int getFactoryId() {
@@ -476,6 +480,8 @@ public final class MapDataSerializerHook implements DataSerializerHook {
         constructors[COMPUTE_MAP_OPERATION_PROCESSOR] = arg -> new ComputeEntryProcessor<>();
         constructors[MERGE_MAP_OPERATION_PROCESSOR] = arg -> new MergeEntryProcessor<>();
         constructors[MAP_ENTRY_REPLACING_PROCESSOR] = arg -> new MapEntryReplacingEntryProcessor<>();
+        constructors[MAP_CHUNK] = arg -> new MapChunk();
+        constructors[SYNC_CHANGE_LOGS] = arg -> new SyncChangeLogsOperation();
 
         return new ArrayDataSerializableFactory(constructors);
     }
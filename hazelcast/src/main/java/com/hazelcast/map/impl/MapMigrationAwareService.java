@@ -16,8 +16,11 @@
 
 package com.hazelcast.map.impl;
 
+import com.hazelcast.internal.hotrestart.impl.ChangeLogHotRestartService;
 import com.hazelcast.internal.nearcache.impl.invalidation.MetaDataGenerator;
-import com.hazelcast.internal.partition.FragmentedMigrationAwareService;
+import com.hazelcast.internal.partition.ChunkSupplier;
+import com.hazelcast.internal.partition.ChunkedMigrationAwareService;
+import com.hazelcast.internal.partition.DeltaReplicaSyncAwareService;
 import com.hazelcast.internal.partition.MigrationEndpoint;
 import com.hazelcast.internal.partition.PartitionMigrationEvent;
 import com.hazelcast.internal.partition.PartitionReplicationEvent;
@@ -26,6 +29,7 @@ import com.hazelcast.internal.services.ObjectNamespace;
 import com.hazelcast.internal.services.ServiceNamespace;
 import com.hazelcast.internal.util.Clock;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.operation.MapChunkSupplier;
 import com.hazelcast.map.impl.operation.MapReplicationOperation;
 import com.hazelcast.map.impl.querycache.QueryCacheContext;
 import com.hazelcast.map.impl.querycache.publisher.PublisherContext;
@@ -37,22 +41,27 @@ import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.InternalIndex;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.wan.impl.merkletree.MerkleTree;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeUtil;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeView;
 
 import java.util.Collection;
 import java.util.function.Predicate;
 
 import static com.hazelcast.internal.partition.MigrationEndpoint.DESTINATION;
 import static com.hazelcast.internal.partition.MigrationEndpoint.SOURCE;
+import static com.hazelcast.internal.util.CollectionUtil.toIntArray;
 import static com.hazelcast.map.impl.querycache.publisher.AccumulatorSweeper.flushAccumulator;
 import static com.hazelcast.map.impl.querycache.publisher.AccumulatorSweeper.removeAccumulator;
 import static com.hazelcast.map.impl.querycache.publisher.AccumulatorSweeper.sendEndOfSequenceEvents;
+import static java.util.Collections.singleton;
 
 /**
  * Defines migration behavior of map service.
  *
  * @see MapService
  */
-class MapMigrationAwareService implements FragmentedMigrationAwareService {
+class MapMigrationAwareService implements ChunkedMigrationAwareService, DeltaReplicaSyncAwareService {
 
     protected final PartitionContainer[] containers;
     protected final MapServiceContext mapServiceContext;
@@ -137,6 +146,44 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
         return operation;
     }
 
+    @Override
+    public ChunkSupplier newChunkSupplier(PartitionReplicationEvent event, ServiceNamespace namespace, int maxChunkSize) {
+        assert isKnownServiceNamespace(namespace) : namespace + " is not a MapService namespace!";
+
+        return MapChunkSupplier.newMapChunkSupplier(containers[event.getPartitionId()], namespace,
+                event.getReplicaIndex(), maxChunkSize);
+    }
+
+    @Override
+    public MerkleTreeView getMerkleTree(int partitionId, ServiceNamespace namespace) {
+        assert isKnownServiceNamespace(namespace) : namespace + " is not a MapService namespace!";
+
+        String mapName = ((ObjectNamespace) namespace).getObjectName();
+        RecordStore recordStore = containers[partitionId].getExistingRecordStore(mapName);
+        return recordStore == null ? null : recordStore.getMerkleTree();
+    }
+
+    @Override
+    public Operation prepareDeltaReplicationOperation(PartitionReplicationEvent event, ServiceNamespace namespace,
+                                                      MerkleTreeView remoteMerkleTree) {
+        assert isKnownServiceNamespace(namespace) : namespace + " is not a MapService namespace!";
+
+        int partitionId = event.getPartitionId();
+        String mapName = ((ObjectNamespace) namespace).getObjectName();
+        RecordStore recordStore = containers[partitionId].getExistingRecordStore(mapName);
+        MerkleTree merkleTree = recordStore == null ? null : recordStore.getMerkleTree();
+        if (merkleTree == null || merkleTree.depth() != remoteMerkleTree.depth()) {
+            return null;
+        }
+
+        Collection<Integer> deltaLeafOrders = MerkleTreeUtil.compareTrees(merkleTree, remoteMerkleTree);
+        Operation operation = new MapReplicationOperation(containers[partitionId], singleton(namespace),
+                partitionId, event.getReplicaIndex(), merkleTree.depth(), toIntArray(deltaLeafOrders));
+        operation.setService(mapServiceContext.getService());
+        operation.setNodeEngine(mapServiceContext.getNodeEngine());
+        return operation;
+    }
+
     private boolean assertAllKnownNamespaces(Collection<ServiceNamespace> namespaces) {
         for (ServiceNamespace namespace : namespaces) {
             assert isKnownServiceNamespace(namespace) : namespace + " is not a MapService namespace!";
@@ -170,6 +217,19 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
         mapServiceContext.nullifyOwnedPartitions();
 
         removeOrRegenerateNearCacheUuid(event);
+        updateChangeLog(event);
+    }
+
+    private void updateChangeLog(PartitionMigrationEvent event) {
+        ChangeLogHotRestartService changeLogService = ChangeLogHotRestartService.of(mapServiceContext.getNodeEngine());
+        if (changeLogService == null) {
+            return;
+        }
+        if (DESTINATION == event.getMigrationEndpoint() && event.getNewReplicaIndex() == 0) {
+            changeLogService.onPrimaryReplicaGained(event.getPartitionId());
+        } else if (SOURCE == event.getMigrationEndpoint() && event.getCurrentReplicaIndex() == 0) {
+            changeLogService.onPrimaryReplicaLost(event.getPartitionId());
+        }
     }
 
     private void removeOrRegenerateNearCacheUuid(PartitionMigrationEvent event) {
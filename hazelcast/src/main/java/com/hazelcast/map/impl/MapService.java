@@ -23,7 +23,9 @@ import com.hazelcast.internal.cluster.ClusterStateListener;
 import com.hazelcast.internal.metrics.DynamicMetricsProvider;
 import com.hazelcast.internal.metrics.MetricDescriptor;
 import com.hazelcast.internal.metrics.MetricsCollectionContext;
-import com.hazelcast.internal.partition.FragmentedMigrationAwareService;
+import com.hazelcast.internal.partition.ChunkSupplier;
+import com.hazelcast.internal.partition.ChunkedMigrationAwareService;
+import com.hazelcast.internal.partition.DeltaReplicaSyncAwareService;
 import com.hazelcast.internal.partition.IPartitionLostEvent;
 import com.hazelcast.internal.partition.PartitionAwareService;
 import com.hazelcast.internal.partition.PartitionMigrationEvent;
@@ -60,6 +62,7 @@ import com.hazelcast.spi.properties.ClusterProperty;
 import com.hazelcast.transaction.TransactionalObject;
 import com.hazelcast.transaction.impl.Transaction;
 import com.hazelcast.wan.impl.InternalWanEvent;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeView;
 
 import java.util.Collection;
 import java.util.Map;
@@ -91,8 +94,8 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_TAG_I
  * @see MapServiceContext
  */
 @SuppressWarnings({"checkstyle:ClassFanOutComplexity", "checkstyle:MethodCount"})
-public class MapService implements ManagedService, FragmentedMigrationAwareService, TransactionalService, RemoteService,
-        EventPublishingService<Object, ListenerAdapter>, PostJoinAwareService,
+public class MapService implements ManagedService, ChunkedMigrationAwareService, DeltaReplicaSyncAwareService,
+        TransactionalService, RemoteService, EventPublishingService<Object, ListenerAdapter>, PostJoinAwareService,
         SplitBrainHandlerService, WanSupportingService, StatisticsAwareService<LocalMapStats>,
         PartitionAwareService, ClientAwareService, SplitBrainProtectionAwareService,
         NotifiableEventListener, ClusterStateListener, LockInterceptorService<Data>,
@@ -163,6 +166,22 @@ public class MapService implements ManagedService, FragmentedMigrationAwareServi
         return migrationAwareService.prepareReplicationOperation(event, namespaces);
     }
 
+    @Override
+    public ChunkSupplier newChunkSupplier(PartitionReplicationEvent event, ServiceNamespace namespace, int maxChunkSize) {
+        return migrationAwareService.newChunkSupplier(event, namespace, maxChunkSize);
+    }
+
+    @Override
+    public MerkleTreeView getMerkleTree(int partitionId, ServiceNamespace namespace) {
+        return migrationAwareService.getMerkleTree(partitionId, namespace);
+    }
+
+    @Override
+    public Operation prepareDeltaReplicationOperation(PartitionReplicationEvent event, ServiceNamespace namespace,
+                                                      MerkleTreeView remoteMerkleTree) {
+        return migrationAwareService.prepareDeltaReplicationOperation(event, namespace, remoteMerkleTree);
+    }
+
     @Override
     public void beforeMigration(PartitionMigrationEvent event) {
         migrationAwareService.beforeMigration(event);
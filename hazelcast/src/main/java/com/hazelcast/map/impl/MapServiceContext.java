@@ -21,6 +21,7 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.PartitioningStrategyConfig;
 import com.hazelcast.internal.eviction.ExpirationManager;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.internal.monitor.impl.LocalMapStatsImpl;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
@@ -67,6 +68,7 @@ import java.util.function.Predicate;
  *
  * @see MapManagedService
  */
+@SuppressWarnings("checkstyle:classfanoutcomplexity")
 public interface MapServiceContext extends MapServiceContextInterceptorSupport,
         MapServiceContextEventListenerSupport {
 
@@ -198,6 +200,14 @@ public interface MapServiceContext extends MapServiceContextInterceptorSupport,
 
     ValueComparator getValueComparatorOf(InMemoryFormat inMemoryFormat);
 
+    /**
+     * Returns the memory manager shared by the off-heap storages of the
+     * {@link InMemoryFormat#NATIVE} maps of this member, or {@code null}
+     * if the {@link com.hazelcast.spi.properties.ClusterProperty#MAP_NATIVE_STORAGE_ENABLED
+     * native storage} is not enabled.
+     */
+    MemoryManager getNativeStorageMemoryManager();
+
     NodeWideUsedCapacityCounter getNodeWideUsedCapacityCounter();
 
     ExecutorStats getOffloadedEntryProcessorExecutorStats();
@@ -21,6 +21,7 @@ import com.hazelcast.internal.partition.IPartition;
 import com.hazelcast.internal.partition.IPartitionService;
 import com.hazelcast.internal.util.Clock;
 import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.TieredDataRecord;
 import com.hazelcast.map.impl.recordstore.LazyEvictableEntryView;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.impl.recordstore.Storage;
@@ -66,13 +67,32 @@ public class EvictorImpl implements Evictor {
 
     @Override
     public void forceEvictByPercentage(RecordStore recordStore, double evictionPercentage) {
-        // NOP.
+        assertRunningOnPartitionThread();
+
+        int evictionCount = (int) Math.ceil(recordStore.size() * evictionPercentage);
+        for (int i = 0; i < evictionCount; i++) {
+            EntryView entryView = selectEvictableEntry(recordStore, null);
+            if (entryView == null) {
+                break;
+            }
+            evictEntry(recordStore, entryView);
+        }
+        // the memory of the evicted entries is needed by the operation being retried
+        recordStore.disposeDeferredBlocks();
     }
 
-    @SuppressWarnings("checkstyle:rvcheckcomparetoforspecificreturnvalue")
+    /**
+     * Selects the entry to evict among the sampled ones. For record stores
+     * demoting their values, entries whose values still reside in the heap
+     * are preferred, even the excluded one, since they are demoted instead
+     * of being evicted. Entries which have already been demoted are only
+     * selected if no resident entry is sampled.
+     */
     private EntryView selectEvictableEntry(RecordStore recordStore, Data excludedKey) {
+        boolean demotionEnabled = recordStore.isDemotionEnabled();
         EntryView excluded = null;
         EntryView selected = null;
+        EntryView selectedResident = null;
 
         for (EntryView current : getRandomSamples(recordStore)) {
             if (excludedKey != null && excluded == null
@@ -81,15 +101,33 @@ public class EvictorImpl implements Evictor {
                 continue;
             }
 
-            if (selected == null
-                    || policy.compare(current, selected) < 0) {
+            if (isPreferred(current, selected)) {
                 selected = current;
             }
+
+            if (demotionEnabled && isDemotable(current) && isPreferred(current, selectedResident)) {
+                selectedResident = current;
+            }
         }
 
+        if (selectedResident != null) {
+            return selectedResident;
+        }
+        return selectNonResident(excluded, selected, demotionEnabled);
+    }
+
+    private EntryView selectNonResident(EntryView excluded, EntryView selected, boolean demotionEnabled) {
+        if (demotionEnabled && excluded != null && isDemotable(excluded)) {
+            return excluded;
+        }
         return selected == null ? excluded : selected;
     }
 
+    @SuppressWarnings("checkstyle:rvcheckcomparetoforspecificreturnvalue")
+    private boolean isPreferred(EntryView current, EntryView selected) {
+        return selected == null || policy.compare(current, selected) < 0;
+    }
+
     private void evictEntry(RecordStore recordStore, EntryView selectedEntry) {
         Record record = getRecordFromEntryView(selectedEntry);
         Data dataKey = getDataKeyFromEntryView(selectedEntry);
@@ -98,6 +136,10 @@ public class EvictorImpl implements Evictor {
             return;
         }
 
+        if (recordStore.demote(dataKey, record)) {
+            return;
+        }
+
         boolean backup = isBackup(recordStore);
         recordStore.evict(dataKey, backup);
 
@@ -106,6 +148,11 @@ public class EvictorImpl implements Evictor {
         }
     }
 
+    private boolean isDemotable(EntryView entryView) {
+        Record record = getRecordFromEntryView(entryView);
+        return record instanceof TieredDataRecord && !((TieredDataRecord) record).isDemoted();
+    }
+
     @Override
     public boolean checkEvictable(RecordStore recordStore) {
         assertRunningOnPartitionThread();
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.iterator;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Iterator for iterating the results of a query over all partitions of a
+ * map, one partition after another.
+ * <p>
+ * The partitions are iterated by the {@link AbstractMapQueryPartitionIterator}s
+ * created by the given factory, each of them fetching the query results of its
+ * partition in batches. The iterator of a partition is created only after the
+ * previous partition has been iterated and a batch is fetched only after the
+ * previous one has been consumed, so at most one batch of results is held at
+ * a time regardless of the total result size. A consumer that doesn't
+ * advance the iterator doesn't make any more batches to be fetched.
+ * <p>
+ * The {@link Iterator#remove()} method is not supported and will throw an
+ * {@link UnsupportedOperationException}.
+ * <b>NOTE</b>
+ * The iteration may be done when the map is being mutated or when there are
+ * membership changes. The iterator does not reflect the state when it has
+ * been constructed - it may return some entries that were added after the
+ * iteration has started and may not return some entries that were removed
+ * after iteration has started.
+ * The iterator will not, however, skip an entry if it has not been changed
+ * and will not return an entry twice.
+ *
+ * @param <R> the type of the query results
+ */
+public class MapQueryIterator<R> implements Iterator<R> {
+
+    private final int partitionCount;
+    private final IntFunction<Iterator<R>> partitionIteratorFactory;
+
+    private int partitionId = -1;
+    private Iterator<R> partitionIterator = Collections.emptyIterator();
+
+    /**
+     * @param partitionCount           the number of partitions to iterate
+     * @param partitionIteratorFactory creates the iterator of the query
+     *                                 results of the given partition
+     */
+    public MapQueryIterator(int partitionCount, IntFunction<Iterator<R>> partitionIteratorFactory) {
+        this.partitionCount = partitionCount;
+        this.partitionIteratorFactory = partitionIteratorFactory;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!partitionIterator.hasNext()) {
+            if (partitionId + 1 >= partitionCount) {
+                return false;
+            }
+            partitionIterator = partitionIteratorFactory.apply(++partitionId);
+        }
+        return true;
+    }
+
+    @Override
+    public R next() {
+        if (hasNext()) {
+            return partitionIterator.next();
+        }
+        throw new NoSuchElementException();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Removing when iterating map with query is not supported");
+    }
+
+}
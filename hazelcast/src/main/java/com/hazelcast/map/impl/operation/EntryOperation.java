@@ -189,6 +189,7 @@ EntryOperation extends LockAwareOperation
         if (offload) {
             return new EntryOperationOffload(getCallerAddress());
         } else {
+            beginWrite();
             response = operator(this, entryProcessor)
                     .operateOnKey(dataKey)
                     .doPostOperateOps()
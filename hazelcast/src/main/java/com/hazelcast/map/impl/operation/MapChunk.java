@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.internal.util.ThreadUtil;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.Records;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.spi.impl.operationservice.Operation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.map.impl.operation.MapReplicationStateHolder.indexesMustBePopulated;
+
+/**
+ * Replicates a chunk of the records of a single map partition during
+ * chunked migration, see {@link MapChunkSupplier}. The other state of
+ * the map partition is replicated by a {@link MapReplicationOperation}
+ * preceding the chunks.
+ * <p>
+ * On the migration source, the records are serialized when the chunk is
+ * created, so the partition thread bounds its work to a single chunk.
+ */
+public class MapChunk extends Operation implements IdentifiedDataSerializable {
+
+    private String mapName;
+    private boolean lastChunk;
+    private int entryCount;
+
+    // serialized key-record pairs, set on the migration source
+    private transient byte[] entries;
+    // key-record pairs, set on the migration destination
+    private transient List keyRecords;
+
+    public MapChunk() {
+    }
+
+    MapChunk(String mapName, int entryCount, byte[] entries, boolean lastChunk) {
+        this.mapName = mapName;
+        this.entryCount = entryCount;
+        this.entries = entries;
+        this.lastChunk = lastChunk;
+    }
+
+    @Override
+    public void run() {
+        ThreadUtil.assertRunningOnPartitionThread();
+
+        RecordStore recordStore = getRecordStore();
+        MapContainer mapContainer = recordStore.getMapContainer();
+        Indexes indexes = mapContainer.getIndexes(getPartitionId());
+        boolean populateIndexes = indexesMustBePopulated(indexes, getReplicaIndex());
+
+        long nowInMillis = Clock.currentTimeMillis();
+        // fence off the lock-free readers while the records are put
+        recordStore.beginWrite();
+        try {
+            for (int i = 0; i < keyRecords.size(); i += 2) {
+                Data dataKey = (Data) keyRecords.get(i);
+                Record record = (Record) keyRecords.get(i + 1);
+
+                recordStore.putReplicatedRecord(dataKey, record, nowInMillis, populateIndexes);
+
+                if (recordStore.shouldEvict()) {
+                    // No need to continue replicating records of this chunk anymore.
+                    // We are already over eviction threshold, each put record will cause another eviction.
+                    recordStore.evictEntries(dataKey);
+                    break;
+                }
+                recordStore.disposeDeferredBlocks();
+            }
+        } finally {
+            recordStore.endWrite();
+        }
+
+        if (lastChunk && populateIndexes) {
+            Indexes.markPartitionAsIndexed(getPartitionId(), indexes.getIndexes());
+        }
+    }
+
+    @Override
+    public void afterRun() throws Exception {
+        disposeDeferredBlocks();
+    }
+
+    @Override
+    public void onExecutionFailure(Throwable e) {
+        disposeDeferredBlocks();
+        super.onExecutionFailure(e);
+    }
+
+    private void disposeDeferredBlocks() {
+        MapService mapService = getService();
+        RecordStore recordStore = mapService.getMapServiceContext().getExistingRecordStore(getPartitionId(), mapName);
+        if (recordStore != null) {
+            recordStore.disposeDeferredBlocks();
+        }
+    }
+
+    private RecordStore getRecordStore() {
+        final boolean skipLoadingOnRecordStoreCreate = true;
+        MapService mapService = getService();
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        return mapServiceContext.getRecordStore(getPartitionId(), mapName, skipLoadingOnRecordStoreCreate);
+    }
+
+    int getEntryCount() {
+        return entryCount;
+    }
+
+    boolean isLastChunk() {
+        return lastChunk;
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeUTF(mapName);
+        out.writeBoolean(lastChunk);
+        out.writeInt(entryCount);
+        // entries have been written by the same serialization service
+        out.write(entries);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        mapName = in.readUTF();
+        lastChunk = in.readBoolean();
+        entryCount = in.readInt();
+        List keyRecords = new ArrayList<>(entryCount * 2);
+        for (int i = 0; i < entryCount; i++) {
+            keyRecords.add(IOUtil.readData(in));
+            keyRecords.add(Records.readRecord(in));
+        }
+        this.keyRecords = keyRecords;
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+
+        sb.append(", mapName=").append(mapName);
+        sb.append(", entryCount=").append(entryCount);
+        sb.append(", lastChunk=").append(lastChunk);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MapDataSerializerHook.MAP_CHUNK;
+    }
+
+    @Override
+    public boolean requiresTenantContext() {
+        return true;
+    }
+}
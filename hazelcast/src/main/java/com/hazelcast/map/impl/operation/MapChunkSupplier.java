@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.partition.ChunkSupplier;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.VersionedObjectDataOutput;
+import com.hazelcast.internal.services.ObjectNamespace;
+import com.hazelcast.internal.services.ServiceNamespace;
+import com.hazelcast.internal.util.ExceptionUtil;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.Records;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.operationservice.Operation;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static com.hazelcast.internal.util.ThreadUtil.assertRunningOnPartitionThread;
+import static java.util.Collections.singleton;
+
+/**
+ * Supplies the operations migrating a single map partition in chunks:
+ * a {@link MapReplicationOperation} replicating all state but the
+ * records, followed by {@link MapChunk}s each holding the serialized
+ * records up to the maximum chunk size. There is always at least one
+ * {@link MapChunk}, the last one completes the migration of the indexes.
+ * <p>
+ * Records are iterated with a mutation tolerant iterator, which is held
+ * between the chunks.
+ */
+public final class MapChunkSupplier implements ChunkSupplier {
+
+    /**
+     * Minimum number of entries of a map partition to migrate it in chunks if
+     * the memory cost of its entries is not tracked, e.g. for
+     * {@link InMemoryFormat#OBJECT} in-memory format.
+     */
+    static final int MIN_ENTRY_COUNT_TO_CHUNK = 1024;
+
+    private static final int MAX_INITIAL_BUFFER_SIZE = 65536;
+
+    private final PartitionContainer container;
+    private final ServiceNamespace namespace;
+    private final RecordStore<Record> recordStore;
+    private final int replicaIndex;
+    private final int maxChunkSize;
+
+    private Iterator<Map.Entry<Data, Record>> iterator;
+    private boolean done;
+
+    private MapChunkSupplier(PartitionContainer container, ServiceNamespace namespace,
+                             RecordStore<Record> recordStore, int replicaIndex, int maxChunkSize) {
+        this.container = container;
+        this.namespace = namespace;
+        this.recordStore = recordStore;
+        this.replicaIndex = replicaIndex;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    /**
+     * Creates a supplier migrating the map partition of the given namespace
+     * in chunks.
+     *
+     * @return the supplier, or {@code null} if the map partition is small
+     * enough to be migrated with a single {@link MapReplicationOperation}
+     * or there is nothing to replicate
+     */
+    public static MapChunkSupplier newMapChunkSupplier(PartitionContainer container, ServiceNamespace namespace,
+                                                       int replicaIndex, int maxChunkSize) {
+        String mapName = ((ObjectNamespace) namespace).getObjectName();
+        RecordStore<Record> recordStore = container.getExistingRecordStore(mapName);
+        if (recordStore == null
+                || recordStore.getMapContainer().getMapConfig().getTotalBackupCount() < replicaIndex
+                || !isLargerThanChunk(recordStore, maxChunkSize)) {
+            return null;
+        }
+        return new MapChunkSupplier(container, namespace, recordStore, replicaIndex, maxChunkSize);
+    }
+
+    private static boolean isLargerThanChunk(RecordStore recordStore, int maxChunkSize) {
+        long cost = recordStore.getOwnedEntryCost();
+        return cost > 0 ? cost > maxChunkSize : recordStore.size() >= MIN_ENTRY_COUNT_TO_CHUNK;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !done;
+    }
+
+    @Override
+    public Operation next() {
+        if (done) {
+            throw new NoSuchElementException();
+        }
+        assertRunningOnPartitionThread();
+
+        if (iterator == null) {
+            iterator = recordStore.getStorage().mutationTolerantIterator();
+            return newMapReplicationOperation();
+        }
+        return nextChunk();
+    }
+
+    private Operation newMapReplicationOperation() {
+        MapContainer mapContainer = recordStore.getMapContainer();
+        MapServiceContext mapServiceContext = mapContainer.getMapServiceContext();
+        Operation operation = new MapReplicationOperation(container, singleton(namespace),
+                container.getPartitionId(), replicaIndex, true);
+        operation.setService(mapServiceContext.getService());
+        operation.setNodeEngine(mapServiceContext.getNodeEngine());
+        return operation;
+    }
+
+    private Operation nextChunk() {
+        NodeEngine nodeEngine = recordStore.getMapContainer().getMapServiceContext().getNodeEngine();
+        InternalSerializationService ss = (InternalSerializationService) nodeEngine.getSerializationService();
+        BufferObjectDataOutput out = ss.createObjectDataOutput(Math.min(maxChunkSize, MAX_INITIAL_BUFFER_SIZE));
+        // records are written as the cluster version allows
+        ((VersionedObjectDataOutput) out).setVersion(nodeEngine.getClusterService().getClusterVersion());
+        int entryCount = 0;
+        try {
+            while (iterator.hasNext() && out.position() < maxChunkSize) {
+                Map.Entry<Data, Record> entry = iterator.next();
+                IOUtil.writeData(out, entry.getKey());
+                Records.writeRecord(out, entry.getValue(), ss);
+                entryCount++;
+            }
+            done = !iterator.hasNext();
+            MapChunk chunk = new MapChunk(recordStore.getName(), entryCount, out.toByteArray(), done);
+            chunk.setPartitionId(container.getPartitionId()).setReplicaIndex(replicaIndex);
+            chunk.setNodeEngine(nodeEngine);
+            return chunk;
+        } catch (IOException e) {
+            throw ExceptionUtil.rethrow(e);
+        } finally {
+            IOUtil.closeResource(out);
+        }
+    }
+}
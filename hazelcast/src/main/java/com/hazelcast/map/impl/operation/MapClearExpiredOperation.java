@@ -64,7 +64,12 @@ public class MapClearExpiredOperation extends AbstractLocalOperation
         boolean backup = !isOwner();
         for (RecordStore recordStore : recordStores.values()) {
             if (recordStore.size() > 0 && recordStore.isExpirable()) {
-                recordStore.evictExpiredEntries(expirationPercentage, backup);
+                recordStore.beginWrite();
+                try {
+                    recordStore.evictExpiredEntries(expirationPercentage, backup);
+                } finally {
+                    recordStore.endWrite();
+                }
                 recordStore.disposeDeferredBlocks();
             }
         }
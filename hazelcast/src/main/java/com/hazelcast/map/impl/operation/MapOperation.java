@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.operation;
 
+import com.hazelcast.internal.hotrestart.impl.ChangeLogHotRestartService;
 import com.hazelcast.internal.nearcache.impl.invalidation.Invalidator;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.services.ObjectNamespace;
@@ -37,6 +38,7 @@ import com.hazelcast.memory.NativeOutOfMemoryError;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import com.hazelcast.spi.impl.operationservice.AbstractNamedOperation;
 import com.hazelcast.spi.impl.operationservice.BackupOperation;
+import com.hazelcast.spi.impl.operationservice.ReadonlyOperation;
 import com.hazelcast.spi.tenantcontrol.TenantControl;
 import com.hazelcast.wan.impl.CallerProvenance;
 
@@ -67,6 +69,8 @@ public abstract class MapOperation extends AbstractNamedOperation
     protected transient boolean disposeDeferredBlocks = true;
 
     private transient boolean canPublishWanEvent;
+    // the record store whose lock-free readers are fenced off while this operation runs
+    private transient RecordStore writtenRecordStore;
 
     public MapOperation() {
     }
@@ -98,6 +102,7 @@ public abstract class MapOperation extends AbstractNamedOperation
         canPublishWanEvent = canPublishWanEvent(mapContainer);
 
         assertNativeMapOnPartitionThread();
+        checkChangeLogNotFailed();
 
         innerBeforeRun();
     }
@@ -109,10 +114,15 @@ public abstract class MapOperation extends AbstractNamedOperation
 
     @Override
     public final void run() {
+        beginWrite();
         try {
             runInternal();
         } catch (NativeOutOfMemoryError e) {
             rerunWithForcedEviction();
+        } catch (RuntimeException | Error e) {
+            // afterRun is not called, and subclasses may not call onExecutionFailure
+            endWrite();
+            throw e;
         }
     }
 
@@ -132,9 +142,33 @@ public abstract class MapOperation extends AbstractNamedOperation
 
     @Override
     public final void afterRun() throws Exception {
-        afterRunInternal();
-        disposeDeferredBlocks();
-        super.afterRun();
+        try {
+            afterRunInternal();
+            disposeDeferredBlocks();
+            super.afterRun();
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Brackets the mutations of this operation for the lock-free readers
+     * of the record store, the bracket is closed after the operation has
+     * run or failed. Called by {@link #run()}, operations doing their work
+     * in an overridden {@code call()} have to call it themselves.
+     */
+    protected final void beginWrite() {
+        if (recordStore != null) {
+            writtenRecordStore = recordStore;
+            writtenRecordStore.beginWrite();
+        }
+    }
+
+    private void endWrite() {
+        if (writtenRecordStore != null) {
+            writtenRecordStore.endWrite();
+            writtenRecordStore = null;
+        }
     }
 
     protected void afterRunInternal() {
@@ -152,6 +186,22 @@ public abstract class MapOperation extends AbstractNamedOperation
                 : "Native memory backed map operations are not allowed to run on GENERIC_PARTITION_ID";
     }
 
+    /**
+     * Rejects a mutation of a change logged map before it's applied if
+     * the change log of the partition has failed, since the mutation
+     * could not be logged.
+     */
+    private void checkChangeLogNotFailed() {
+        if (recordStore == null || this instanceof ReadonlyOperation || this instanceof BackupOperation
+                || !mapContainer.getMapConfig().getHotRestartConfig().isEnabled()) {
+            return;
+        }
+        ChangeLogHotRestartService changeLogService = ChangeLogHotRestartService.of(getNodeEngine());
+        if (changeLogService != null) {
+            changeLogService.checkNotFailed(getPartitionId());
+        }
+    }
+
     ILogger logger() {
         return getLogger();
     }
@@ -175,6 +225,7 @@ public abstract class MapOperation extends AbstractNamedOperation
 
     @Override
     public void onExecutionFailure(Throwable e) {
+        endWrite();
         disposeDeferredBlocks();
         super.onExecutionFailure(e);
     }
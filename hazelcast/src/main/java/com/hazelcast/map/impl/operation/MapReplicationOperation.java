@@ -48,12 +48,23 @@ public class MapReplicationOperation extends Operation
 
     public MapReplicationOperation(PartitionContainer container,
                                    Collection<ServiceNamespace> namespaces, int partitionId, int replicaIndex) {
+        this(container, namespaces, partitionId, replicaIndex, false);
+    }
+
+    /**
+     * @param recordsInChunks {@code true} if the records are replicated
+     *                        separately by {@link MapChunk} operations,
+     *                        this operation then replicates all other state
+     */
+    public MapReplicationOperation(PartitionContainer container, Collection<ServiceNamespace> namespaces,
+                                   int partitionId, int replicaIndex, boolean recordsInChunks) {
 
         setPartitionId(partitionId).setReplicaIndex(replicaIndex);
 
         this.mapReplicationStateHolder = new MapReplicationStateHolder();
         this.mapReplicationStateHolder.setOperation(this);
         this.mapReplicationStateHolder.prepare(container, namespaces, replicaIndex);
+        this.mapReplicationStateHolder.recordsInChunks = recordsInChunks;
 
         this.writeBehindStateHolder = new WriteBehindStateHolder();
         this.writeBehindStateHolder.setMapReplicationOperation(this);
@@ -64,6 +75,21 @@ public class MapReplicationOperation extends Operation
         this.mapNearCacheStateHolder.prepare(container, namespaces, replicaIndex);
     }
 
+    /**
+     * Creates an operation replicating only the records under the given
+     * leaves of the Merkle tree of the maps, which replace the records
+     * under the same leaves on the backup replica, and all other state.
+     *
+     * @param merkleTreeDepth depth of the Merkle tree the leaves belong to
+     * @param deltaLeafOrders sorted orders of the leaves to replicate
+     */
+    public MapReplicationOperation(PartitionContainer container, Collection<ServiceNamespace> namespaces,
+                                   int partitionId, int replicaIndex, int merkleTreeDepth, int[] deltaLeafOrders) {
+        this(container, namespaces, partitionId, replicaIndex, false);
+        this.mapReplicationStateHolder.merkleTreeDepth = merkleTreeDepth;
+        this.mapReplicationStateHolder.deltaLeafOrders = deltaLeafOrders;
+    }
+
     @Override
     public void run() {
         try {
@@ -137,6 +163,10 @@ public class MapReplicationOperation extends Operation
         mapNearCacheStateHolder.setMapReplicationOperation(this);
     }
 
+    MapReplicationStateHolder getMapReplicationStateHolder() {
+        return mapReplicationStateHolder;
+    }
+
     RecordStore getRecordStore(String mapName) {
         final boolean skipLoadingOnRecordStoreCreate = true;
         MapService mapService = getService();
@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.config.IndexConfig;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.cluster.Versions;
 import com.hazelcast.internal.nio.IOUtil;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.SerializationService;
@@ -35,13 +36,17 @@ import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.nio.serialization.impl.Versioned;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.InternalIndex;
 import com.hazelcast.query.impl.MapIndexInfo;
+import com.hazelcast.wan.impl.CallerProvenance;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeUtil;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -55,7 +60,7 @@ import static com.hazelcast.internal.util.MapUtil.isNullOrEmpty;
  * Holder for raw IMap key-value pairs and their metadata.
  */
 // keep this `protected`, extended in another context.
-public class MapReplicationStateHolder implements IdentifiedDataSerializable {
+public class MapReplicationStateHolder implements IdentifiedDataSerializable, Versioned {
 
     // holds recordStore-references of this partitions' maps
     protected transient Map<String, RecordStore<Record>> storesByMapName;
@@ -74,6 +79,14 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
     // operations, which meant that the index did not include some data.
     protected transient List<MapIndexInfo> mapIndexInfos;
 
+    // true if the records are replicated separately by MapChunk operations
+    protected transient boolean recordsInChunks;
+
+    // sorted orders of the Merkle tree leaves whose records are replicated
+    // and replace the records of the same leaves, null if all records are
+    protected transient int[] deltaLeafOrders;
+    protected transient int merkleTreeDepth;
+
     private MapReplicationOperation operation;
 
     /**
@@ -144,55 +157,91 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
                 String mapName = dataEntry.getKey();
                 List keyRecord = dataEntry.getValue();
                 RecordStore recordStore = operation.getRecordStore(mapName);
-                recordStore.reset();
-                recordStore.setPreMigrationLoadedStatus(loaded.get(mapName));
-
-                MapContainer mapContainer = recordStore.getMapContainer();
-                PartitionContainer partitionContainer = recordStore.getMapContainer().getMapServiceContext()
-                        .getPartitionContainer(operation.getPartitionId());
-                for (Map.Entry<String, IndexConfig> indexDefinition : mapContainer.getIndexDefinitions().entrySet()) {
-                    Indexes indexes = mapContainer.getIndexes(partitionContainer.getPartitionId());
-                    indexes.addOrGetIndex(indexDefinition.getValue());
-                }
+                // fence off the lock-free readers while the records are replaced
+                recordStore.beginWrite();
+                try {
+                    if (deltaLeafOrders == null) {
+                        recordStore.reset();
+                    } else {
+                        removeDeltaRecords(recordStore);
+                    }
+                    recordStore.setPreMigrationLoadedStatus(loaded.get(mapName));
+
+                    MapContainer mapContainer = recordStore.getMapContainer();
+                    PartitionContainer partitionContainer = recordStore.getMapContainer().getMapServiceContext()
+                            .getPartitionContainer(operation.getPartitionId());
+                    for (Map.Entry<String, IndexConfig> indexDefinition : mapContainer.getIndexDefinitions().entrySet()) {
+                        Indexes indexes = mapContainer.getIndexes(partitionContainer.getPartitionId());
+                        indexes.addOrGetIndex(indexDefinition.getValue());
+                    }
 
-                final Indexes indexes = mapContainer.getIndexes(partitionContainer.getPartitionId());
-                final boolean populateIndexes = indexesMustBePopulated(indexes, operation);
+                    final Indexes indexes = mapContainer.getIndexes(partitionContainer.getPartitionId());
+                    final boolean populateIndexes = indexesMustBePopulated(indexes, operation.getReplicaIndex());
 
-                InternalIndex[] indexesSnapshot = null;
+                    InternalIndex[] indexesSnapshot = null;
 
-                if (populateIndexes) {
-                    // defensively clear possible stale leftovers in non-global indexes from the previous failed promotion attempt
-                    indexesSnapshot = indexes.getIndexes();
+                    if (populateIndexes) {
+                        // defensively clear possible stale leftovers in non-global indexes
+                        // from the previous failed promotion attempt
+                        indexesSnapshot = indexes.getIndexes();
 
-                    Indexes.beginPartitionUpdate(indexesSnapshot);
+                        Indexes.beginPartitionUpdate(indexesSnapshot);
 
-                    indexes.clearAll();
-                }
+                        indexes.clearAll();
+                    }
 
-                long nowInMillis = Clock.currentTimeMillis();
+                    long nowInMillis = Clock.currentTimeMillis();
 
-                for (int i = 0; i < keyRecord.size(); i += 2) {
-                    Data dataKey = (Data) keyRecord.get(i);
-                    Record record = (Record) keyRecord.get(i + 1);
+                    for (int i = 0; i < keyRecord.size(); i += 2) {
+                        Data dataKey = (Data) keyRecord.get(i);
+                        Record record = (Record) keyRecord.get(i + 1);
 
-                    recordStore.putReplicatedRecord(dataKey, record, nowInMillis, populateIndexes);
+                        recordStore.putReplicatedRecord(dataKey, record, nowInMillis, populateIndexes);
 
-                    if (recordStore.shouldEvict()) {
-                        // No need to continue replicating records anymore.
-                        // We are already over eviction threshold, each put record will cause another eviction.
-                        recordStore.evictEntries(dataKey);
-                        break;
+                        if (recordStore.shouldEvict()) {
+                            // No need to continue replicating records anymore.
+                            // We are already over eviction threshold, each put record will cause another eviction.
+                            recordStore.evictEntries(dataKey);
+                            break;
+                        }
+                        recordStore.disposeDeferredBlocks();
                     }
-                    recordStore.disposeDeferredBlocks();
-                }
 
-                if (populateIndexes) {
-                    Indexes.markPartitionAsIndexed(partitionContainer.getPartitionId(), indexesSnapshot);
+                    if (populateIndexes && !recordsInChunks) {
+                        // otherwise marked by the last chunk
+                        Indexes.markPartitionAsIndexed(partitionContainer.getPartitionId(), indexesSnapshot);
+                    }
+                } finally {
+                    recordStore.endWrite();
                 }
             }
         }
     }
 
+    /**
+     * Removes the records under the replicated leaves, the replicated
+     * records of these leaves replace them.
+     */
+    private void removeDeltaRecords(RecordStore<Record> recordStore) {
+        if (deltaLeafOrders.length == 0) {
+            return;
+        }
+        List<Data> keys = new ArrayList<>();
+        recordStore.forEach((dataKey, record) -> {
+            if (isUnderDeltaLeaf(dataKey)) {
+                keys.add(dataKey);
+            }
+        }, true, true);
+        for (Data key : keys) {
+            recordStore.removeBackup(key, CallerProvenance.NOT_WAN);
+        }
+    }
+
+    private boolean isUnderDeltaLeaf(Data dataKey) {
+        int leafOrder = MerkleTreeUtil.getLeafOrderForHash(dataKey.hashCode(), merkleTreeDepth - 1);
+        return Arrays.binarySearch(deltaLeafOrders, leafOrder) >= 0;
+    }
+
     private void applyIndexesState() {
         if (mapIndexInfos != null) {
             for (MapIndexInfo mapIndexInfo : mapIndexInfos) {
@@ -236,12 +285,20 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
 
             SerializationService ss = getSerializationService(operation.getRecordStore(mapName).getMapContainer());
             RecordStore<Record> recordStore = entry.getValue();
+            if (recordsInChunks) {
+                out.writeInt(0);
+                continue;
+            }
+            if (deltaLeafOrders != null) {
+                writeDeltaRecords(out, recordStore, ss);
+                continue;
+            }
             out.writeInt(recordStore.size());
             // No expiration should be done in forEach, since we have serialized size before.
             recordStore.forEach((dataKey, record) -> {
                 try {
                     IOUtil.writeData(out, dataKey);
-                    Records.writeRecord(out, record, ss.toData(record.getValue()));
+                    Records.writeRecord(out, record, ss);
                 } catch (IOException e) {
                     throw ExceptionUtil.rethrow(e);
                 }
@@ -258,6 +315,32 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
         for (MapIndexInfo mapIndexInfo : mapIndexInfos) {
             out.writeObject(mapIndexInfo);
         }
+
+        // RU_COMPAT_4_1
+        if (out.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            out.writeBoolean(recordsInChunks);
+            out.writeIntArray(deltaLeafOrders);
+            out.writeInt(merkleTreeDepth);
+        }
+    }
+
+    private void writeDeltaRecords(ObjectDataOutput out, RecordStore<Record> recordStore,
+                                   SerializationService ss) throws IOException {
+        List<Object> keyRecords = new ArrayList<>();
+        if (deltaLeafOrders.length > 0) {
+            recordStore.forEach((dataKey, record) -> {
+                if (isUnderDeltaLeaf(dataKey)) {
+                    keyRecords.add(dataKey);
+                    keyRecords.add(record);
+                }
+            }, operation.getReplicaIndex() != 0, true);
+        }
+
+        out.writeInt(keyRecords.size() / 2);
+        for (int i = 0; i < keyRecords.size(); i += 2) {
+            IOUtil.writeData(out, (Data) keyRecords.get(i));
+            Records.writeRecord(out, (Record) keyRecords.get(i + 1), ss);
+        }
     }
 
     private static SerializationService getSerializationService(MapContainer mapContainer) {
@@ -296,6 +379,13 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
             MapIndexInfo mapIndexInfo = in.readObject();
             mapIndexInfos.add(mapIndexInfo);
         }
+
+        // RU_COMPAT_4_1
+        if (in.getVersion().isGreaterOrEqual(Versions.V4_2)) {
+            recordsInChunks = in.readBoolean();
+            deltaLeafOrders = in.readIntArray();
+            merkleTreeDepth = in.readInt();
+        }
     }
 
     @Override
@@ -308,7 +398,7 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
         return MapDataSerializerHook.MAP_REPLICATION_STATE_HOLDER;
     }
 
-    private static boolean indexesMustBePopulated(Indexes indexes, MapReplicationOperation operation) {
+    static boolean indexesMustBePopulated(Indexes indexes, int replicaIndex) {
         if (!indexes.haveAtLeastOneIndex()) {
             // no indexes to populate
             return false;
@@ -319,7 +409,7 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
             return false;
         }
 
-        if (operation.getReplicaIndex() != 0) {
+        if (replicaIndex != 0) {
             // backup partitions have no indexes to populate
             return false;
         }
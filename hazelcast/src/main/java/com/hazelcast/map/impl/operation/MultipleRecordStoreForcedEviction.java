@@ -61,7 +61,12 @@ class MultipleRecordStoreForcedEviction implements ForcedEviction {
 
                         MapContainer mapContainer = recordStore.getMapContainer();
                         Evictor evictor = mapContainer.getEvictor();
-                        evictor.forceEvictByPercentage(recordStore, evictionPercentage);
+                        recordStore.beginWrite();
+                        try {
+                            evictor.forceEvictByPercentage(recordStore, evictionPercentage);
+                        } finally {
+                            recordStore.endWrite();
+                        }
 
                         if (logger.isFineEnabled()) {
                             logForcedEviction(logger, mapOperation, recordStore,
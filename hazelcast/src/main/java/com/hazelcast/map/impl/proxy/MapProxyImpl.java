@@ -42,6 +42,7 @@ import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MergeEntryProcessor;
 import com.hazelcast.map.impl.SimpleEntryView;
 import com.hazelcast.map.impl.iterator.MapPartitionIterator;
+import com.hazelcast.map.impl.iterator.MapQueryIterator;
 import com.hazelcast.map.impl.iterator.MapQueryPartitionIterator;
 import com.hazelcast.map.impl.journal.MapEventJournalReadOperation;
 import com.hazelcast.map.impl.journal.MapEventJournalSubscribeOperation;
@@ -988,6 +989,46 @@ public class MapProxyImpl<K, V> extends MapProxySupport<K, V> implements EventJo
         return new MapQueryPartitionIterator<>(this, fetchSize, partitionId, predicate, projection);
     }
 
+    /**
+     * Returns an iterator for iterating the result of the projection on entries
+     * in all partitions which satisfy the predicate. The partitions are iterated
+     * one after another and the results are fetched in batches of the
+     * {@code fetchSize} from the partition owners, so unlike
+     * {@link #project(Projection, Predicate)} the memory used on both the caller
+     * and the members is proportional to the batch size instead of the result
+     * size. The next batch is fetched only when the previous one has been
+     * consumed.
+     * <p>
+     * See {@link #iterator(int, int, Projection, Predicate)} for the meaning of
+     * the {@code fetchSize} and for the guarantees of the iteration while the
+     * map is mutated.
+     *
+     * @param fetchSize  the size of the batches which will be sent when iterating the data
+     * @param projection the projection to apply before returning the value. {@code null} value
+     *                   is not allowed
+     * @param predicate  the predicate which the entries must match. {@code null} value is not
+     *                   allowed
+     * @param <R>        the return type
+     * @return the iterator for the projected entries
+     * @throws IllegalArgumentException if the predicate is of type {@link PagingPredicate}
+     */
+    public <R> Iterator<R> iterator(int fetchSize,
+                                    Projection<? super Map.Entry<K, V>, R> projection,
+                                    Predicate<K, V> predicate) {
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Paging predicate is not allowed when iterating map by query");
+        }
+        checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        // HazelcastInstanceAware handled by cloning
+        Projection<? super Map.Entry<K, V>, R> clonedProjection =
+                serializationService.toObject(serializationService.toData(projection));
+        handleHazelcastInstanceAwareParams(predicate);
+        int partitionCount = getNodeEngine().getPartitionService().getPartitionCount();
+        return new MapQueryIterator<>(partitionCount, partitionId ->
+                new MapQueryPartitionIterator<>(this, fetchSize, partitionId, predicate, clonedProjection));
+    }
+
     @Override
     public CompletionStage<EventJournalInitialSubscriberState> subscribeToEventJournal(int partitionId) {
         final MapEventJournalSubscribeOperation op = new MapEventJournalSubscribeOperation(name);
@@ -19,6 +19,7 @@ package com.hazelcast.map.impl.proxy;
 import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.cluster.Address;
 import com.hazelcast.config.EntryListenerConfig;
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.IndexConfig;
 import com.hazelcast.config.ListenerConfig;
 import com.hazelcast.config.MapConfig;
@@ -129,6 +130,7 @@ import static com.hazelcast.map.impl.LocalMapStatsProvider.EMPTY_LOCAL_MAP_STATS
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
 import static com.hazelcast.map.impl.query.Target.createPartitionTarget;
 import static com.hazelcast.query.Predicates.alwaysFalse;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_LOCK_FREE_GET_ENABLED;
 import static com.hazelcast.spi.impl.InternalCompletableFuture.newCompletedFuture;
 import static java.lang.Math.ceil;
 import static java.lang.Math.log10;
@@ -216,6 +218,7 @@ abstract class MapProxySupport<K, V>
 
     private final int putAllBatchSize;
     private final float putAllInitialSizeFactor;
+    private final boolean lockFreeGetEnabled;
 
     protected MapProxySupport(String name, MapService service, NodeEngine nodeEngine, MapConfig mapConfig) {
         super(nodeEngine, service);
@@ -239,6 +242,8 @@ abstract class MapProxySupport<K, V>
 
         this.putAllBatchSize = properties.getInteger(MAP_PUT_ALL_BATCH_SIZE);
         this.putAllInitialSizeFactor = properties.getFloat(MAP_PUT_ALL_INITIAL_SIZE_FACTOR);
+        this.lockFreeGetEnabled = properties.getBoolean(MAP_LOCK_FREE_GET_ENABLED)
+                && mapConfig.getInMemoryFormat() == InMemoryFormat.BINARY;
     }
 
     @Override
@@ -363,6 +368,12 @@ abstract class MapProxySupport<K, V>
                 return fromBackup;
             }
         }
+        if (lockFreeGetEnabled) {
+            Object value = readLockFree(keyData);
+            if (value != RecordStore.LOCK_FREE_READ_FAILED) {
+                return value;
+            }
+        }
         MapOperation operation = operationProvider.createGetOperation(name, keyData);
         operation.setThreadId(getThreadId());
         return invokeOperation(keyData, operation);
@@ -382,6 +393,34 @@ abstract class MapProxySupport<K, V>
         return recordStore.readBackupData(key);
     }
 
+    /**
+     * Reads the value of a key owned by this member without running
+     * on the partition thread, see {@link RecordStore#readLockFree(Data)}.
+     */
+    private Object readLockFree(Data key) {
+        long startTimeNanos = Timer.nanos();
+        int partitionId = partitionService.getPartitionId(key);
+        IPartition partition = partitionService.getPartition(partitionId, false);
+        if (!partition.isLocal()) {
+            return RecordStore.LOCK_FREE_READ_FAILED;
+        }
+        RecordStore recordStore = mapServiceContext.getPartitionContainer(partitionId).getExistingRecordStore(name);
+        if (recordStore == null) {
+            return RecordStore.LOCK_FREE_READ_FAILED;
+        }
+        Object value = recordStore.readLockFree(key);
+        // the partition may have been migrated away while reading
+        if (value == RecordStore.LOCK_FREE_READ_FAILED || !partition.isLocal()) {
+            return RecordStore.LOCK_FREE_READ_FAILED;
+        }
+        Data result = mapServiceContext.toData(value);
+        mapServiceContext.interceptAfterGet(recordStore.getMapContainer().getInterceptorRegistry(), result);
+        if (statisticsEnabled) {
+            localMapStats.incrementGetLatencyNanos(Timer.nanosElapsed(startTimeNanos));
+        }
+        return result;
+    }
+
     protected InternalCompletableFuture<Data> getAsyncInternal(Object key) {
         Data keyData = toDataWithStrategy(key);
         int partitionId = partitionService.getPartitionId(keyData);
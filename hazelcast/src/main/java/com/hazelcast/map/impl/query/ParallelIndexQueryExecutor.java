@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.internal.util.executor.ManagedExecutorService;
+import com.hazelcast.map.QueryResultSizeExceededException;
+import com.hazelcast.query.impl.AndResultSet;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import static com.hazelcast.internal.util.FutureUtil.RETHROW_EVERYTHING;
+import static com.hazelcast.internal.util.FutureUtil.returnWithDeadline;
+import static com.hazelcast.internal.util.IterableUtil.filter;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Populates the {@link QueryResult} of a query run using a global index in a
+ * parallel fashion delegating to the underlying executor.
+ * <p>
+ * The entries produced by the index are split into chunks of about the same
+ * size, at most as many as the configured parallelism. The chunks are
+ * converted to the result rows by the executor threads, except for the last
+ * one which is converted by the calling thread, and the sub results are
+ * combined in the order of the chunks. If the index produced an {@link
+ * AndResultSet}, the chunks consist of its candidates and the post-filtering
+ * of them by the other indexed results and the not indexed predicates is
+ * split as well.
+ * <p>
+ * The candidates are collected into a list by the calling thread before
+ * they are split, since the size of the lazy index results isn't known
+ * without iterating them. Only their conversion and post-filtering is
+ * parallelized.
+ * <p>
+ * Results having less than {@link #MIN_CHUNK_SIZE} entries per chunk are
+ * split into fewer chunks, so the small ones are populated by the calling
+ * thread only.
+ */
+public class ParallelIndexQueryExecutor {
+
+    static final int MIN_CHUNK_SIZE = 1024;
+
+    private final ManagedExecutorService executor;
+    private final int parallelism;
+    private final int timeoutInMillis;
+
+    public ParallelIndexQueryExecutor(ManagedExecutorService executor, int parallelism, int timeoutInMillis) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.timeoutInMillis = timeoutInMillis;
+    }
+
+    /**
+     * Populates the result of the given query with the given index query
+     * result.
+     *
+     * @param processor    the processor populating the sub results.
+     * @param query        the query to populate the result of.
+     * @param resultLimit  the maximum number of entries of the result.
+     * @param entries      the entries produced by the index.
+     * @param partitionIds the IDs of the partitions the index covers.
+     * @return the populated result.
+     * @throws QueryResultSizeExceededException if the size of the result
+     *                                          exceeds the result limit.
+     */
+    public QueryResult populateResult(ResultProcessor<QueryResult> processor, Query query, long resultLimit,
+                                      Iterable<QueryableEntry> entries, PartitionIdSet partitionIds) {
+        Iterable<QueryableEntry> candidates = entries;
+        Predicate<QueryableEntry> candidateFilter = null;
+        if (entries instanceof AndResultSet) {
+            AndResultSet andResultSet = (AndResultSet) entries;
+            candidates = andResultSet.getCandidates();
+            candidateFilter = andResultSet::matchesCandidate;
+        }
+
+        List<QueryableEntry> candidateList = toList(candidates);
+        int chunkCount = Math.max(1, Math.min(parallelism, candidateList.size() / MIN_CHUNK_SIZE));
+        int chunkSize = candidateList.size() / chunkCount;
+
+        List<Future<QueryResult>> futures = new ArrayList<>(chunkCount - 1);
+        for (int i = 0; i < chunkCount - 1; ++i) {
+            List<QueryableEntry> chunk = candidateList.subList(i * chunkSize, (i + 1) * chunkSize);
+            futures.add(executor.submit(new PopulateChunkCallable(processor, query, resultLimit, chunk, candidateFilter,
+                    partitionIds)));
+        }
+        List<QueryableEntry> lastChunk = candidateList.subList((chunkCount - 1) * chunkSize, candidateList.size());
+        QueryResult lastResult = new PopulateChunkCallable(processor, query, resultLimit, lastChunk, candidateFilter,
+                partitionIds).call();
+
+        QueryResult result = processor.populateResult(query, resultLimit);
+        if (!futures.isEmpty()) {
+            Collection<QueryResult> chunkResults = returnWithDeadline(futures, timeoutInMillis, MILLISECONDS,
+                    RETHROW_EVERYTHING);
+            for (QueryResult chunkResult : chunkResults) {
+                result.combine(chunkResult);
+            }
+        }
+        result.combine(lastResult);
+        if (result.size() > resultLimit) {
+            throw new QueryResultSizeExceededException();
+        }
+        result.setPartitionIds(partitionIds);
+        return result;
+    }
+
+    private static List<QueryableEntry> toList(Iterable<QueryableEntry> entries) {
+        if (entries instanceof List) {
+            return (List<QueryableEntry>) entries;
+        }
+        // the size of the lazy index results isn't known without iterating them
+        List<QueryableEntry> list = new ArrayList<>();
+        for (QueryableEntry entry : entries) {
+            list.add(entry);
+        }
+        return list;
+    }
+
+    private static final class PopulateChunkCallable implements Callable<QueryResult> {
+        private final ResultProcessor<QueryResult> processor;
+        private final Query query;
+        private final long resultLimit;
+        private final List<QueryableEntry> chunk;
+        private final Predicate<QueryableEntry> candidateFilter;
+        private final PartitionIdSet partitionIds;
+
+        private PopulateChunkCallable(ResultProcessor<QueryResult> processor, Query query, long resultLimit,
+                                      List<QueryableEntry> chunk, Predicate<QueryableEntry> candidateFilter,
+                                      PartitionIdSet partitionIds) {
+            this.processor = processor;
+            this.query = query;
+            this.resultLimit = resultLimit;
+            this.chunk = chunk;
+            this.candidateFilter = candidateFilter;
+            this.partitionIds = partitionIds;
+        }
+
+        @Override
+        public QueryResult call() {
+            Iterable<QueryableEntry> entries = candidateFilter == null ? chunk : filter(chunk, candidateFilter);
+            return processor.populateResult(query, resultLimit, entries, partitionIds);
+        }
+    }
+}
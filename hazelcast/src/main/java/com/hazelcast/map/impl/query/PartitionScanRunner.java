@@ -36,6 +36,7 @@ import com.hazelcast.query.impl.Metadata;
 import com.hazelcast.query.impl.QueryableEntriesSegment;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.predicates.BatchPredicateEvaluator;
 import com.hazelcast.query.impl.predicates.PagingPredicateImpl;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.operationservice.OperationService;
@@ -50,6 +51,7 @@ import java.util.function.BiConsumer;
 import static com.hazelcast.internal.util.SortingUtil.compareAnchor;
 import static com.hazelcast.internal.util.ToHeapDataConverter.toHeapData;
 import static com.hazelcast.map.impl.record.Records.getValueOrCachedValue;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_SCAN_BATCH_SIZE;
 
 /**
  * Responsible for running a full-partition scan for a single partition in the calling thread.
@@ -63,6 +65,7 @@ public class PartitionScanRunner {
     protected final IPartitionService partitionService;
     protected final OperationService operationService;
     protected final ClusterService clusterService;
+    protected final int scanBatchSize;
 
     public PartitionScanRunner(MapServiceContext mapServiceContext) {
         this.mapServiceContext = mapServiceContext;
@@ -72,6 +75,7 @@ public class PartitionScanRunner {
         this.logger = nodeEngine.getLogger(getClass());
         this.operationService = nodeEngine.getOperationService();
         this.clusterService = nodeEngine.getClusterService();
+        this.scanBatchSize = nodeEngine.getProperties().getInteger(QUERY_SCAN_BATCH_SIZE);
     }
 
     @SuppressWarnings("unchecked")
@@ -88,6 +92,16 @@ public class PartitionScanRunner {
         Map.Entry<Integer, Map.Entry> nearestAnchorEntry =
                 pagingPredicate == null ? null : pagingPredicate.getNearestAnchorEntry();
 
+        BatchPredicateEvaluator evaluator = createBatchEvaluator(predicate);
+        if (evaluator != null) {
+            BatchScan batchScan = new BatchScan(evaluator, recordStore, useCachedValues, extractors, pagingPredicate,
+                    nearestAnchorEntry, result);
+            recordStore.forEachAfterLoad(batchScan, false);
+            batchScan.flush();
+            result.orderAndLimit(pagingPredicate, nearestAnchorEntry);
+            return;
+        }
+
         recordStore.forEachAfterLoad(new BiConsumer<Data, Record>() {
             LazyMapEntry queryEntry = new LazyMapEntry();
 
@@ -154,6 +168,7 @@ public class PartitionScanRunner {
         PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(partitionId);
         RecordStore recordStore = partitionContainer.getRecordStore(mapName);
         Extractors extractors = mapServiceContext.getExtractors(mapName);
+        BatchPredicateEvaluator evaluator = createBatchEvaluator(predicate);
 
         while (resultList.size() < fetchSize && pointers[pointers.length - 1].getIndex() >= 0) {
             MapEntriesWithCursor cursor = recordStore.fetchEntries(pointers, fetchSize - resultList.size());
@@ -162,6 +177,19 @@ public class PartitionScanRunner {
             if (entries.isEmpty()) {
                 break;
             }
+            if (evaluator != null) {
+                QueryableEntry[] batch = new QueryableEntry[entries.size()];
+                int size = 0;
+                for (Entry<Data, Data> entry : entries) {
+                    batch[size++] = new LazyMapEntry(entry.getKey(), entry.getValue(), ss, extractors);
+                }
+                int[] selection = new int[size];
+                int selected = evaluator.evaluate(batch, size, selection);
+                for (int i = 0; i < selected; ++i) {
+                    resultList.add(batch[selection[i]]);
+                }
+                continue;
+            }
             for (Entry<Data, Data> entry : entries) {
                 QueryableEntry queryEntry = new LazyMapEntry(entry.getKey(), entry.getValue(), ss, extractors);
                 if (predicate.apply(queryEntry)) {
@@ -172,6 +200,17 @@ public class PartitionScanRunner {
         return new QueryableEntriesSegment(resultList, pointers);
     }
 
+    /**
+     * Creates the evaluator of the given predicate over batches of the
+     * scanned entries.
+     *
+     * @return the created evaluator or {@code null} if the predicate should
+     * be applied to the scanned entries one by one.
+     */
+    protected BatchPredicateEvaluator createBatchEvaluator(Predicate predicate) {
+        return scanBatchSize > 1 ? BatchPredicateEvaluator.create(predicate) : null;
+    }
+
     protected boolean isUseCachedDeserializedValuesEnabled(MapContainer mapContainer, int partitionId) {
         CacheDeserializedValues cacheDeserializedValues = mapContainer.getMapConfig().getCacheDeserializedValues();
         switch (cacheDeserializedValues) {
@@ -184,4 +223,93 @@ public class PartitionScanRunner {
                 return mapContainer.getIndexes(partitionId).haveAtLeastOneIndex();
         }
     }
+
+    /**
+     * Collects the scanned entries into batches of {@link #scanBatchSize}
+     * entries and adds the entries matched by the batch evaluation of the
+     * predicate to the result.
+     */
+    private final class BatchScan implements BiConsumer<Data, Record> {
+
+        private final BatchPredicateEvaluator evaluator;
+        private final RecordStore<Record> recordStore;
+        private final boolean useCachedValues;
+        private final boolean nativeMemory;
+        private final Extractors extractors;
+        private final PagingPredicateImpl pagingPredicate;
+        private final Map.Entry<Integer, Map.Entry> nearestAnchorEntry;
+        private final Result result;
+
+        private final LazyMapEntry[] entries;
+        private final Data[] keys;
+        private final Object[] values;
+        private final int[] selection;
+        private int size;
+
+        BatchScan(BatchPredicateEvaluator evaluator, RecordStore<Record> recordStore, boolean useCachedValues,
+                  Extractors extractors, PagingPredicateImpl pagingPredicate,
+                  Map.Entry<Integer, Map.Entry> nearestAnchorEntry, Result result) {
+            this.evaluator = evaluator;
+            this.recordStore = recordStore;
+            this.useCachedValues = useCachedValues;
+            this.nativeMemory = recordStore.getInMemoryFormat() == InMemoryFormat.NATIVE;
+            this.extractors = extractors;
+            this.pagingPredicate = pagingPredicate;
+            this.nearestAnchorEntry = nearestAnchorEntry;
+            this.result = result;
+            this.entries = new LazyMapEntry[scanBatchSize];
+            this.keys = new Data[scanBatchSize];
+            this.values = new Object[scanBatchSize];
+            this.selection = new int[scanBatchSize];
+        }
+
+        @Override
+        public void accept(Data key, Record record) {
+            Object value = useCachedValues ? getValueOrCachedValue(record, ss) : record.getValue();
+            if (value == null) {
+                return;
+            }
+
+            LazyMapEntry queryEntry = entries[size];
+            if (queryEntry == null) {
+                queryEntry = new LazyMapEntry();
+                entries[size] = queryEntry;
+            }
+            queryEntry.init(ss, key, value, extractors);
+            queryEntry.setRecord(record);
+            queryEntry.setMetadata(getMetadataFromRecord(recordStore, key, record));
+            keys[size] = key;
+            values[size] = value;
+
+            if (++size == scanBatchSize) {
+                flush();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void flush() {
+            int selected = evaluator.evaluate(entries, size, selection);
+            for (int i = 0; i < selected; ++i) {
+                int index = selection[i];
+                LazyMapEntry queryEntry = entries[index];
+                if (!compareAnchor(pagingPredicate, queryEntry, nearestAnchorEntry)) {
+                    continue;
+                }
+
+                // always copy key&value to heap if map is backed by native memory
+                Object value = nativeMemory ? toHeapData((Data) values[index]) : values[index];
+                result.add(queryEntry.init(ss, toHeapData(keys[index]), value, extractors));
+
+                // We can't reuse the existing entry after it was added to the
+                // result. Allocate the new one.
+                entries[index] = null;
+            }
+            for (int i = 0; i < size; ++i) {
+                keys[i] = null;
+                values[i] = null;
+            }
+            size = 0;
+        }
+
+    }
 }
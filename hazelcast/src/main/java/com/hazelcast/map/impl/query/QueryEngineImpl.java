@@ -73,6 +73,7 @@ public class QueryEngineImpl implements QueryEngine {
     private final OperationService operationService;
     private final ClusterService clusterService;
     private final ResultProcessorRegistry resultProcessorRegistry;
+    private final QueryPartitionPruner partitionPruner;
 
     public QueryEngineImpl(MapServiceContext mapServiceContext) {
         this.mapServiceContext = mapServiceContext;
@@ -83,6 +84,7 @@ public class QueryEngineImpl implements QueryEngine {
         this.operationService = nodeEngine.getOperationService();
         this.clusterService = nodeEngine.getClusterService();
         this.resultProcessorRegistry = mapServiceContext.getResultProcessorRegistry();
+        this.partitionPruner = new QueryPartitionPruner(mapServiceContext);
     }
 
     @SuppressWarnings("unchecked")
@@ -91,6 +93,10 @@ public class QueryEngineImpl implements QueryEngine {
         Query adjustedQuery = adjustQuery(query);
         switch (target.mode()) {
             case ALL_NODES:
+                PartitionIdSet prunedPartitions = partitionPruner.prunePartitions(adjustedQuery);
+                if (prunedPartitions != null) {
+                    return runOnPrunedPartitions(adjustedQuery, prunedPartitions);
+                }
                 return runOnGivenPartitions(adjustedQuery, getAllPartitionIds(), TargetMode.ALL_NODES);
             case LOCAL_NODE:
                 return runOnGivenPartitions(adjustedQuery, getLocalPartitionIds(), TargetMode.LOCAL_NODE);
@@ -140,6 +146,18 @@ public class QueryEngineImpl implements QueryEngine {
         }
     }
 
+    // partition threads of the only partitions the matching entries may be stored in
+    private Result runOnPrunedPartitions(Query query, PartitionIdSet partitions) {
+        int solePartition = partitions.solePartition();
+        if (solePartition >= 0) {
+            return runOnGivenPartition(query, solePartition);
+        }
+        Result result = populateResult(query, partitions);
+        doRunOnPartitionThreads(query, partitions, result);
+        assertAllPartitionsQueried(partitions);
+        return result;
+    }
+
     private Result doRunOnQueryThreads(Query query, PartitionIdSet partitionIds, TargetMode targetMode) {
         Result result = populateResult(query, partitionIds);
         List<Future<Result>> futures = dispatchOnQueryThreads(query, partitionIds, targetMode);
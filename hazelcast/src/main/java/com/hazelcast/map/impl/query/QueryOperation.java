@@ -52,7 +52,7 @@ public class QueryOperation extends AbstractNamedOperation implements ReadonlyOp
 
     private Query query;
 
-    private transient Result result;
+    private transient Object result;
     private transient CallStatus callStatus;
 
     public QueryOperation() {
@@ -86,7 +86,7 @@ public class QueryOperation extends AbstractNamedOperation implements ReadonlyOp
         switch (getMapInMemoryFormat()) {
             case BINARY:
             case OBJECT:
-                result = queryRunner.runIndexOrPartitionScanQueryOnOwnedPartitions(query);
+                result = queryRunner.runIndexOrPartitionScanQueryOnOwnedPartitionsForResponse(query);
                 return RESPONSE;
             case NATIVE:
                 boolean useGlobalIndex = getMapServiceContext().getMapContainer(getName()).shouldUseGlobalIndex();
@@ -30,7 +30,7 @@ public class QueryPartitionOperation extends MapOperation
         implements PartitionAwareOperation, ReadonlyOperation {
 
     private Query query;
-    private Result result;
+    private Object result;
 
     public QueryPartitionOperation() {
     }
@@ -43,7 +43,7 @@ public class QueryPartitionOperation extends MapOperation
     @Override
     protected void runInternal() {
         QueryRunner queryRunner = mapServiceContext.getMapQueryRunner(getName());
-        result = queryRunner.runPartitionIndexOrPartitionScanQueryOnGivenOwnedPartition(query, getPartitionId());
+        result = queryRunner.runPartitionIndexOrPartitionScanQueryOnGivenOwnedPartitionForResponse(query, getPartitionId());
 
         // we have to increment query count here manually since we are not even
         // trying to use indexes
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.partition.IPartitionService;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.predicates.AndPredicate;
+import com.hazelcast.query.impl.predicates.EqualPredicate;
+import com.hazelcast.query.impl.predicates.InPredicate;
+import com.hazelcast.query.impl.predicates.OrPredicate;
+import com.hazelcast.query.impl.predicates.SkipIndexPredicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.hazelcast.internal.util.EmptyStatement.ignore;
+import static com.hazelcast.query.QueryConstants.KEY_ATTRIBUTE_NAME;
+import static com.hazelcast.query.impl.TypeConverters.ENUM_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.IDENTITY_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.NULL_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.PORTABLE_CONVERTER;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_PARTITION_PRUNING_MAX_PARTITIONS;
+
+/**
+ * Resolves the partitions a map query has to be run on from the keys its
+ * predicate pins.
+ * <p>
+ * A predicate pins the keys of the matching entries if it compares the
+ * {@code __key} attribute for equality or with an IN predicate, if it's a
+ * conjunction having such an operand or a disjunction of such operands.
+ * Only the partitions owning the given keys may contain matching entries.
+ * <p>
+ * The predicate converts the given keys to the class of the stored keys
+ * when it's evaluated, so the keys are converted the same way before they
+ * are routed, with the converter of the global index on the {@code __key}
+ * attribute. Without such an index the class of the stored keys isn't
+ * known and the query is run on all the partitions, as well as if the keys
+ * are of a class which isn't converted, e.g. a custom class, or if a given
+ * key can't be converted.
+ * <p>
+ * The pruning is disabled by default and may be enabled with
+ * {@link com.hazelcast.spi.properties.ClusterProperty#QUERY_PARTITION_PRUNING_MAX_PARTITIONS}.
+ */
+class QueryPartitionPruner {
+
+    private final MapServiceContext mapServiceContext;
+    private final IPartitionService partitionService;
+    private final int maxPartitions;
+
+    QueryPartitionPruner(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+        this.partitionService = mapServiceContext.getNodeEngine().getPartitionService();
+        this.maxPartitions = mapServiceContext.getNodeEngine().getProperties()
+                .getInteger(QUERY_PARTITION_PRUNING_MAX_PARTITIONS);
+    }
+
+    /**
+     * @return the IDs of the partitions the entries matching the predicate
+     * of the given query may be stored in or {@code null} if the query has
+     * to be run on all the partitions.
+     */
+    PartitionIdSet prunePartitions(Query query) {
+        if (maxPartitions <= 0 || query.getPredicate() instanceof PagingPredicate) {
+            return null;
+        }
+        List<Comparable> keys = pinnedKeys(query.getPredicate());
+        if (keys == null || keys.isEmpty()) {
+            return null;
+        }
+
+        MapContainer mapContainer = mapServiceContext.getMapContainer(query.getMapName());
+        TypeConverter keyConverter = keyConverter(mapContainer);
+        if (keyConverter == null) {
+            return null;
+        }
+        PartitionIdSet partitions = new PartitionIdSet(partitionService.getPartitionCount());
+        for (Comparable key : keys) {
+            Comparable convertedKey;
+            try {
+                convertedKey = keyConverter.convert(key);
+            } catch (RuntimeException e) {
+                // not convertible, let the predicate deal with it
+                ignore(e);
+                return null;
+            }
+            Data keyData = mapServiceContext.toData(convertedKey, mapContainer.getPartitioningStrategy());
+            partitions.add(partitionService.getPartitionId(keyData));
+            if (partitions.size() > maxPartitions) {
+                return null;
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * @return the converter of the given keys to the class of the stored
+     * keys or {@code null} if the class isn't known or the converted keys
+     * aren't guaranteed to be equal to the stored ones.
+     */
+    private static TypeConverter keyConverter(MapContainer mapContainer) {
+        Indexes indexes = mapContainer.getIndexes();
+        if (indexes == null) {
+            // partitioned indexes only, the converters are per partition
+            return null;
+        }
+        TypeConverter converter = indexes.getConverter(KEY_ATTRIBUTE_NAME.value());
+        if (converter == null || converter == NULL_CONVERTER || converter == IDENTITY_CONVERTER
+                || converter == ENUM_CONVERTER || converter == PORTABLE_CONVERTER) {
+            // unknown class, custom class, or converted to a different class
+            return null;
+        }
+        return converter;
+    }
+
+    /**
+     * @return the keys the given predicate pins or {@code null} if it
+     * doesn't pin any.
+     */
+    private static List<Comparable> pinnedKeys(Predicate predicate) {
+        if (predicate instanceof SkipIndexPredicate) {
+            return pinnedKeys(((SkipIndexPredicate) predicate).getTarget());
+        } else if (predicate instanceof EqualPredicate) {
+            EqualPredicate equalPredicate = (EqualPredicate) predicate;
+            if (isKeyAttribute(equalPredicate.getAttribute()) && equalPredicate.getFrom() != null) {
+                return Collections.singletonList(equalPredicate.getFrom());
+            }
+        } else if (predicate instanceof InPredicate) {
+            InPredicate inPredicate = (InPredicate) predicate;
+            if (isKeyAttribute(inPredicate.getAttribute())) {
+                return nonNullKeys(inPredicate.getValues());
+            }
+        } else if (predicate instanceof AndPredicate) {
+            return fewestPinnedKeys(((AndPredicate) predicate).getPredicates());
+        } else if (predicate instanceof OrPredicate) {
+            return allPinnedKeys(((OrPredicate) predicate).getPredicates());
+        }
+        return null;
+    }
+
+    private static List<Comparable> nonNullKeys(Comparable[] values) {
+        List<Comparable> keys = new ArrayList<>(values.length);
+        for (Comparable value : values) {
+            // IMap keys can't be null, so the null doesn't match any entry
+            if (value != null) {
+                keys.add(value);
+            }
+        }
+        return keys;
+    }
+
+    private static List<Comparable> fewestPinnedKeys(Predicate[] operands) {
+        List<Comparable> fewestKeys = null;
+        for (Predicate operand : operands) {
+            List<Comparable> keys = pinnedKeys(operand);
+            if (keys != null && (fewestKeys == null || keys.size() < fewestKeys.size())) {
+                fewestKeys = keys;
+            }
+        }
+        return fewestKeys;
+    }
+
+    private static List<Comparable> allPinnedKeys(Predicate[] operands) {
+        List<Comparable> allKeys = new ArrayList<>();
+        for (Predicate operand : operands) {
+            List<Comparable> keys = pinnedKeys(operand);
+            if (keys == null) {
+                return null;
+            }
+            allKeys.addAll(keys);
+        }
+        return allKeys;
+    }
+
+    private static boolean isKeyAttribute(String attribute) {
+        return KEY_ATTRIBUTE_NAME.value().equals(attribute);
+    }
+
+}
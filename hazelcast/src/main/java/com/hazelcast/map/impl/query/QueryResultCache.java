@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.query.PagingPredicate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.internal.util.EmptyStatement.ignore;
+
+/**
+ * Caches the query results of a map on a member.
+ * <p>
+ * The results are cached by the serialized query, i.e. its predicate,
+ * projection, aggregator and iteration type, and by the partition the query
+ * was run on, if any. Every mutation of a partition bumps its stamp, see
+ * {@link #invalidatePartition}, and a cached result is valid only as long as
+ * the stamps of its partitions and the migration stamp of the map service
+ * are the ones taken before the query was run, so the result of a query
+ * running concurrently with a mutation is never served.
+ * <p>
+ * The cache is bounded by the given maximum number of results and by the
+ * given maximum total size of the serialized results, the least recently
+ * used ones are removed once either is exceeded. A result larger than the
+ * maximum total size isn't cached at all.
+ * <p>
+ * The results are stored and served serialized, so they're sent as the
+ * query operation responses without being serialized again, and the copies
+ * deserialized by the callers can be mutated.
+ */
+public class QueryResultCache {
+
+    private final int maxSize;
+    private final long maxBytes;
+    private final SerializationService serializationService;
+    private final AtomicLongArray partitionStamps;
+    private final ConcurrentHashMap<CacheKey, CachedResult> results = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public QueryResultCache(int maxSize, long maxBytes, int partitionCount, SerializationService serializationService) {
+        assert maxSize > 0;
+        assert maxBytes > 0;
+
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+        this.serializationService = serializationService;
+        this.partitionStamps = new AtomicLongArray(partitionCount);
+    }
+
+    /**
+     * Creates the key the result of the given query is cached by.
+     *
+     * @param query       the query.
+     * @param partitionId the partition the query is run on or {@code -1} if
+     *                    it's run on all the partitions owned by this member.
+     * @return the key or {@code null} if the result of the query can't be
+     * cached.
+     */
+    CacheKey keyOf(Query query, int partitionId) {
+        if (query.getPredicate() instanceof PagingPredicate) {
+            // the paging predicates carry the state of the iteration
+            return null;
+        }
+        try {
+            return new CacheKey(serializationService.toData(query), partitionId);
+        } catch (RuntimeException e) {
+            // not serializable, e.g. a local query with a lambda predicate
+            ignore(e);
+            return null;
+        }
+    }
+
+    /**
+     * Takes the stamps of the given partitions the result of a query run on
+     * them is {@link #put put} with.
+     */
+    long[] stamps(PartitionIdSet partitions) {
+        long[] stamps = new long[partitions.size()];
+        int i = 0;
+        for (PrimitiveIterator.OfInt it = partitions.intIterator(); it.hasNext(); ) {
+            stamps[i++] = partitionStamps.get(it.nextInt());
+        }
+        return stamps;
+    }
+
+    /**
+     * @param key            the key of the query.
+     * @param migrationStamp the current migration stamp of the map service.
+     * @return the serialized cached result or {@code null} if there is no
+     * valid result cached.
+     */
+    Data get(CacheKey key, int migrationStamp) {
+        CachedResult cached = results.get(key);
+        if (cached == null || !isValid(cached, migrationStamp)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        cached.lastUsed = System.nanoTime();
+        return cached.result;
+    }
+
+    /**
+     * Caches the given result, unless it's already stale or too large.
+     *
+     * @param key            the key of the query.
+     * @param result         the result of the query.
+     * @param partitions     the partitions the query was run on.
+     * @param stamps         the {@link #stamps} of the partitions taken
+     *                       before the query was run.
+     * @param migrationStamp the migration stamp of the map service taken
+     *                       before the query was run.
+     * @return the serialized result or {@code null} if the query failed
+     * on some of the partitions and the result hasn't been serialized.
+     */
+    Data put(CacheKey key, Result result, PartitionIdSet partitions, long[] stamps, int migrationStamp) {
+        PartitionIdSet resultPartitions = result.getPartitionIds();
+        if (resultPartitions == null || resultPartitions.size() != partitions.size()
+                || !resultPartitions.containsAll(partitions)) {
+            // the query failed on some of the partitions
+            return null;
+        }
+        Data serialized = serializationService.toData(result);
+        CachedResult cached = new CachedResult(serialized, partitions, stamps, migrationStamp);
+        if (cached.size() <= maxBytes && isValid(cached, migrationStamp)) {
+            CachedResult previous = results.put(key, cached);
+            usedBytes.addAndGet(previous == null ? cached.size() : cached.size() - previous.size());
+            shrinkIfNeeded();
+        }
+        return serialized;
+    }
+
+    /**
+     * Invalidates the cached results of the given partition, called on every
+     * mutation of it.
+     */
+    public void invalidatePartition(int partitionId) {
+        partitionStamps.incrementAndGet(partitionId);
+    }
+
+    public void clear() {
+        for (Map.Entry<CacheKey, CachedResult> entry : results.entrySet()) {
+            remove(entry);
+        }
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private boolean isValid(CachedResult cached, int migrationStamp) {
+        if (cached.migrationStamp != migrationStamp) {
+            return false;
+        }
+        int i = 0;
+        for (PrimitiveIterator.OfInt it = cached.partitions.intIterator(); it.hasNext(); ) {
+            if (partitionStamps.get(it.nextInt()) != cached.stamps[i++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void shrinkIfNeeded() {
+        if (!isOversized()) {
+            return;
+        }
+
+        // remove the least recently used results
+        List<Map.Entry<CacheKey, CachedResult>> entries = new ArrayList<>(results.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+        for (Map.Entry<CacheKey, CachedResult> entry : entries) {
+            if (remove(entry) && !isOversized()) {
+                break;
+            }
+        }
+    }
+
+    private boolean isOversized() {
+        return results.size() > maxSize || usedBytes.get() > maxBytes;
+    }
+
+    private boolean remove(Map.Entry<CacheKey, CachedResult> entry) {
+        if (results.remove(entry.getKey(), entry.getValue())) {
+            usedBytes.addAndGet(-entry.getValue().size());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The key of a cached result.
+     */
+    static final class CacheKey {
+
+        private final Data query;
+        private final int partitionId;
+
+        CacheKey(Data query, int partitionId) {
+            this.query = query;
+            this.partitionId = partitionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return partitionId == that.partitionId && query.equals(that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * query.hashCode() + partitionId;
+        }
+    }
+
+    private static final class CachedResult {
+
+        private final Data result;
+        private final PartitionIdSet partitions;
+        private final long[] stamps;
+        private final int migrationStamp;
+        private volatile long lastUsed = System.nanoTime();
+
+        private CachedResult(Data result, PartitionIdSet partitions, long[] stamps, int migrationStamp) {
+            this.result = result;
+            this.partitions = partitions;
+            this.stamps = stamps;
+            this.migrationStamp = migrationStamp;
+        }
+
+        private int size() {
+            return result.totalSize();
+        }
+    }
+}
@@ -18,12 +18,18 @@ package com.hazelcast.map.impl.query;
 
 import com.hazelcast.internal.cluster.ClusterService;
 import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.util.IterationType;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.LocalMapStatsProvider;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.impl.MultiAttributeProjection;
+import com.hazelcast.projection.impl.SingleAttributeProjection;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntriesSegment;
@@ -31,10 +37,16 @@ import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.query.impl.predicates.QueryOptimizer;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.operationservice.OperationService;
+import com.hazelcast.spi.properties.HazelcastProperties;
 
 import java.util.Collection;
+import java.util.PrimitiveIterator;
+import java.util.function.Supplier;
 
 import static com.hazelcast.internal.util.SetUtil.singletonPartitionIdSet;
+import static com.hazelcast.spi.impl.executionservice.ExecutionService.QUERY_EXECUTOR;
+import static com.hazelcast.spi.properties.ClusterProperty.OPERATION_CALL_TIMEOUT_MILLIS;
+import static com.hazelcast.spi.properties.ClusterProperty.QUERY_INDEX_PARALLELISM;
 
 /**
  * Runs query operations in the calling thread (thus blocking it)
@@ -57,6 +69,7 @@ public class QueryRunner {
     protected final ResultProcessorRegistry resultProcessorRegistry;
 
     private final int partitionCount;
+    private final ParallelIndexQueryExecutor parallelIndexQueryExecutor;
 
     public QueryRunner(MapServiceContext mapServiceContext,
                        QueryOptimizer optimizer,
@@ -74,6 +87,17 @@ public class QueryRunner {
         this.partitionScanExecutor = partitionScanExecutor;
         this.resultProcessorRegistry = resultProcessorRegistry;
         this.partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        this.parallelIndexQueryExecutor = createParallelIndexQueryExecutor(nodeEngine);
+    }
+
+    private static ParallelIndexQueryExecutor createParallelIndexQueryExecutor(NodeEngine nodeEngine) {
+        HazelcastProperties properties = nodeEngine.getProperties();
+        int parallelism = properties.getInteger(QUERY_INDEX_PARALLELISM);
+        if (parallelism <= 1) {
+            return null;
+        }
+        return new ParallelIndexQueryExecutor(nodeEngine.getExecutionService().getExecutor(QUERY_EXECUTOR), parallelism,
+                properties.getInteger(OPERATION_CALL_TIMEOUT_MILLIS));
     }
 
     /**
@@ -104,7 +128,18 @@ public class QueryRunner {
 
 
     public Result runIndexOrPartitionScanQueryOnOwnedPartitions(Query query) {
-        Result result = runIndexOrPartitionScanQueryOnOwnedPartitions(query, true);
+        return toResult(runIndexOrPartitionScanQueryOnOwnedPartitionsForResponse(query));
+    }
+
+    /**
+     * Same as {@link #runIndexOrPartitionScanQueryOnOwnedPartitions(Query)},
+     * but returns the serialized result if it's served from or put into the
+     * {@link QueryResultCache}, so it's sent as the operation response
+     * without being serialized again.
+     */
+    public Object runIndexOrPartitionScanQueryOnOwnedPartitionsForResponse(Query query) {
+        Object result = runCachingResult(query, -1, mapServiceContext.getOrInitCachedMemberPartitions(),
+                () -> runIndexOrPartitionScanQueryOnOwnedPartitions(query, true));
         assert result != null;
         return result;
     }
@@ -134,6 +169,9 @@ public class QueryRunner {
         // then we try to run using an index, but if that doesn't work, we'll try a full table scan
         Iterable<QueryableEntry> entries = runUsingGlobalIndexSafely(predicate, mapContainer,
                 migrationStamp, initialPartitions.size());
+        if (entries == null) {
+            entries = runUsingCoveringIndexSafely(query, predicate, mapContainer, migrationStamp, initialPartitions.size());
+        }
 
         if (entries == null && !doPartitionScan) {
             return null;
@@ -147,7 +185,7 @@ public class QueryRunner {
                 result = populateEmptyResult(query, initialPartitions);
             }
         } else {
-            result = populateNonEmptyResult(query, entries, initialPartitions);
+            result = populateIndexResult(query, entries, initialPartitions);
         }
 
         return result;
@@ -193,7 +231,7 @@ public class QueryRunner {
             result = populateEmptyResult(query, initialPartitions);
         } else {
             // success
-            result = populateNonEmptyResult(query, entries, initialPartitions);
+            result = populateIndexResult(query, entries, initialPartitions);
         }
 
         return result;
@@ -202,6 +240,21 @@ public class QueryRunner {
     // MIGRATION UNSAFE QUERYING - MIGRATION STAMPS ARE NOT VALIDATED, so assumes a run on partition-thread
     // for a single partition. If the index is global it won't be asked
     public Result runPartitionIndexOrPartitionScanQueryOnGivenOwnedPartition(Query query, int partitionId) {
+        return toResult(runPartitionIndexOrPartitionScanQueryOnGivenOwnedPartitionForResponse(query, partitionId));
+    }
+
+    /**
+     * Same as {@link #runPartitionIndexOrPartitionScanQueryOnGivenOwnedPartition},
+     * but returns the serialized result if it's served from or put into the
+     * {@link QueryResultCache}, so it's sent as the operation response
+     * without being serialized again.
+     */
+    public Object runPartitionIndexOrPartitionScanQueryOnGivenOwnedPartitionForResponse(Query query, int partitionId) {
+        return runCachingResult(query, partitionId, singletonPartitionIdSet(partitionCount, partitionId),
+                () -> runPartitionIndexOrPartitionScanQuery(query, partitionId));
+    }
+
+    private Result runPartitionIndexOrPartitionScanQuery(Query query, int partitionId) {
         MapContainer mapContainer = mapServiceContext.getMapContainer(query.getMapName());
         PartitionIdSet partitions = singletonPartitionIdSet(partitionCount, partitionId);
 
@@ -212,6 +265,10 @@ public class QueryRunner {
         Indexes indexes = mapContainer.getIndexes(partitionId);
         if (indexes != null && !indexes.isGlobal()) {
             entries = indexes.query(predicate, partitions.size());
+            String[] projectedAttributes = getProjectedAttributes(query);
+            if (entries == null && projectedAttributes != null) {
+                entries = indexes.scanCoveringIndex(projectedAttributes, predicate, partitions.size());
+            }
         }
 
         Result result;
@@ -226,6 +283,61 @@ public class QueryRunner {
         return result;
     }
 
+    /**
+     * Runs the given query with the given runner, serving the result from
+     * the {@link QueryResultCache} of the map if it's enabled and holds a
+     * valid result of the query.
+     * <p>
+     * The queries on partitions holding entries with a time-to-live or
+     * max-idle aren't cached, since the expiration of an entry doesn't
+     * invalidate the cached results.
+     *
+     * @param query       the query to run.
+     * @param partitionId the partition the query is run on or {@code -1} if
+     *                    it's run on all the partitions owned by this member.
+     * @param partitions  the partitions the query is run on.
+     * @param runner      runs the query.
+     * @return the query result, or the serialized query result if it's
+     * served from or put into the cache.
+     */
+    private Object runCachingResult(Query query, int partitionId, PartitionIdSet partitions, Supplier<Result> runner) {
+        QueryResultCache cache = mapServiceContext.getMapContainer(query.getMapName()).getQueryResultCache();
+        QueryResultCache.CacheKey key = cache == null ? null : cache.keyOf(query, partitionId);
+        int migrationStamp = getMigrationStamp();
+        if (key == null || !validateMigrationStamp(migrationStamp)) {
+            return runner.get();
+        }
+
+        Data cached = cache.get(key, migrationStamp);
+        if (cached != null) {
+            return cached;
+        }
+        long[] stamps = cache.stamps(partitions);
+        Result result = runner.get();
+        // checked after taking the stamps: the partitions are expirable
+        // from then on or a later mutation makes the stamps stale
+        if (result == null || !validateMigrationStamp(migrationStamp)
+                || hasExpirableEntries(query.getMapName(), partitions)) {
+            return result;
+        }
+        Data serialized = cache.put(key, result, partitions, stamps, migrationStamp);
+        return serialized != null ? serialized : result;
+    }
+
+    private boolean hasExpirableEntries(String mapName, PartitionIdSet partitions) {
+        for (PrimitiveIterator.OfInt it = partitions.intIterator(); it.hasNext(); ) {
+            RecordStore recordStore = mapServiceContext.getExistingRecordStore(it.nextInt(), mapName);
+            if (recordStore != null && recordStore.isExpirable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Result toResult(Object result) {
+        return result instanceof Data ? serializationService.toObject(result) : (Result) result;
+    }
+
     private Result createResult(Query query, Collection<Integer> partitions) {
         return query.createResult(serializationService, queryResultSizeLimiter.getNodeResultLimit(partitions.size()));
     }
@@ -242,6 +354,21 @@ public class QueryRunner {
                 initialPartitions);
     }
 
+    /**
+     * Populates the result of the given query run using a global index,
+     * splitting the population across the query executor threads if
+     * configured so, see {@link ParallelIndexQueryExecutor}.
+     */
+    @SuppressWarnings("unchecked")
+    protected Result populateIndexResult(Query query, Iterable<QueryableEntry> entries, PartitionIdSet initialPartitions) {
+        if (parallelIndexQueryExecutor == null || query.getResultType() != QueryResult.class) {
+            return populateNonEmptyResult(query, entries, initialPartitions);
+        }
+        ResultProcessor<QueryResult> processor = resultProcessorRegistry.get(QueryResult.class);
+        return parallelIndexQueryExecutor.populateResult(processor, query,
+                queryResultSizeLimiter.getNodeResultLimit(initialPartitions.size()), entries, initialPartitions);
+    }
+
     protected Iterable<QueryableEntry> runUsingGlobalIndexSafely(Predicate predicate, MapContainer mapContainer,
                                                                  int migrationStamp, int ownedPartitionCount) {
 
@@ -278,6 +405,48 @@ public class QueryRunner {
         return null;
     }
 
+    /**
+     * Performs the given query by scanning a global index covering the
+     * projected attributes, so the projection doesn't deserialize the
+     * entry values.
+     *
+     * @return the matching entries or {@code null} if the query is not
+     * covered by an index or a migration is detected.
+     */
+    protected Iterable<QueryableEntry> runUsingCoveringIndexSafely(Query query, Predicate predicate,
+                                                                   MapContainer mapContainer, int migrationStamp,
+                                                                   int ownedPartitionCount) {
+        String[] projectedAttributes = getProjectedAttributes(query);
+        Indexes indexes = mapContainer.getIndexes();
+        if (projectedAttributes == null || indexes == null || !indexes.isGlobal()
+                || !validateMigrationStamp(migrationStamp)) {
+            return null;
+        }
+
+        Iterable<QueryableEntry> entries = indexes.scanCoveringIndex(projectedAttributes, predicate, ownedPartitionCount);
+        if (entries != null && validateMigrationStamp(migrationStamp)) {
+            return entries;
+        }
+        return null;
+    }
+
+    /**
+     * @return the attributes the result of the query consists of or
+     * {@code null} if the query returns the entries.
+     */
+    private static String[] getProjectedAttributes(Query query) {
+        if (query.getIterationType() != IterationType.VALUE) {
+            return null;
+        }
+        Projection projection = query.getProjection();
+        if (projection instanceof MultiAttributeProjection) {
+            return ((MultiAttributeProjection) projection).getAttributePaths();
+        } else if (projection instanceof SingleAttributeProjection) {
+            return new String[]{((SingleAttributeProjection) projection).getAttributePath()};
+        }
+        return null;
+    }
+
     protected Result runUsingPartitionScanSafely(Query query, Predicate predicate,
                                                  PartitionIdSet partitions, int migrationStamp) {
 
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.query.impl.Metadata;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.readIntB;
+import static com.hazelcast.internal.nio.Bits.readLongB;
+import static com.hazelcast.internal.nio.Bits.writeIntB;
+import static com.hazelcast.internal.nio.Bits.writeLongB;
+import static com.hazelcast.internal.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+
+/**
+ * A {@link Record} which packs all of its metadata and its
+ * serialized value into a single {@code byte[]}.
+ * <p>
+ * Compared to {@link DataRecordWithStats}, there is no {@link HeapData}
+ * wrapper and no separate record fields per entry, at the cost of
+ * allocating a {@link HeapData} copy of the value on every
+ * {@link #getValue()}. Layout of the blob:
+ * <pre>
+ * | version (long) | ttl | maxIdle | hits | lastAccessTime | lastUpdateTime
+ * | creationTime | lastStoredTime | expirationTime | value bytes ... |
+ * </pre>
+ * A {@code null} value is represented by a blob without value bytes,
+ * serialized {@link Data} is never empty.
+ * <p>
+ * Metadata fields are updated in place by the partition thread; a value
+ * update replaces the whole blob, so readers from other threads always
+ * observe a consistent value.
+ * <p>
+ * The query {@link Metadata} of JSON values, if any, is kept in a separate
+ * field, the same way as by the other records.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+class CompactDataRecord implements Record<Data> {
+
+    private static final int VERSION_OFFSET = 0;
+    private static final int TTL_OFFSET = VERSION_OFFSET + LONG_SIZE_IN_BYTES;
+    private static final int MAX_IDLE_OFFSET = TTL_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int HITS_OFFSET = MAX_IDLE_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int LAST_ACCESS_TIME_OFFSET = HITS_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int LAST_UPDATE_TIME_OFFSET = LAST_ACCESS_TIME_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int CREATION_TIME_OFFSET = LAST_UPDATE_TIME_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int LAST_STORED_TIME_OFFSET = CREATION_TIME_OFFSET + INT_SIZE_IN_BYTES;
+    private static final int EXPIRATION_TIME_OFFSET = LAST_STORED_TIME_OFFSET + INT_SIZE_IN_BYTES;
+    static final int HEADER_SIZE = EXPIRATION_TIME_OFFSET + INT_SIZE_IN_BYTES;
+
+    // array (12: array header, 4: length)
+    private static final int ARRAY_HEADER_SIZE_IN_BYTES = 16;
+
+    private volatile byte[] blob;
+    private transient Metadata metadata;
+
+    CompactDataRecord() {
+        byte[] blob = new byte[HEADER_SIZE];
+        writeIntB(blob, LAST_ACCESS_TIME_OFFSET, UNSET);
+        writeIntB(blob, LAST_UPDATE_TIME_OFFSET, UNSET);
+        writeIntB(blob, CREATION_TIME_OFFSET, UNSET);
+        writeIntB(blob, LAST_STORED_TIME_OFFSET, UNSET);
+        writeIntB(blob, EXPIRATION_TIME_OFFSET, UNSET);
+        this.blob = blob;
+    }
+
+    CompactDataRecord(Data value) {
+        this();
+        setValue(value);
+    }
+
+    @Override
+    public Data getValue() {
+        byte[] blob = this.blob;
+        if (blob.length == HEADER_SIZE) {
+            return null;
+        }
+        return new HeapData(Arrays.copyOfRange(blob, HEADER_SIZE, blob.length));
+    }
+
+    @Override
+    public void setValue(Data value) {
+        byte[] current = blob;
+        int valueSize = value == null ? 0 : value.totalSize();
+        byte[] newBlob = new byte[HEADER_SIZE + valueSize];
+        System.arraycopy(current, 0, newBlob, 0, HEADER_SIZE);
+        if (value != null) {
+            value.copyTo(newBlob, HEADER_SIZE);
+        }
+        blob = newBlob;
+    }
+
+    /**
+     * Get record size in bytes.
+     */
+    @Override
+    public long getCost() {
+        return REFERENCE_COST_IN_BYTES + ARRAY_HEADER_SIZE_IN_BYTES + blob.length;
+    }
+
+    @Override
+    public long getVersion() {
+        return readLongB(blob, VERSION_OFFSET);
+    }
+
+    @Override
+    public void setVersion(long version) {
+        writeLongB(blob, VERSION_OFFSET, version);
+    }
+
+    @Override
+    public Object getCachedValueUnsafe() {
+        return Record.NOT_CACHED;
+    }
+
+    @Override
+    public boolean casCachedValue(Object expectedValue, Object newValue) {
+        return true;
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return recomputeWithBaseTime(getRawLastAccessTime());
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        setRawLastAccessTime(stripBaseTime(lastAccessTime));
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return recomputeWithBaseTime(getRawLastUpdateTime());
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdateTime) {
+        setRawLastUpdateTime(stripBaseTime(lastUpdateTime));
+    }
+
+    @Override
+    public long getCreationTime() {
+        return recomputeWithBaseTime(getRawCreationTime());
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        setRawCreationTime(stripBaseTime(creationTime));
+    }
+
+    @Override
+    public int getHits() {
+        return readIntB(blob, HITS_OFFSET);
+    }
+
+    @Override
+    public void setHits(int hits) {
+        writeIntB(blob, HITS_OFFSET, hits);
+    }
+
+    @Override
+    public long getExpirationTime() {
+        int expirationTime = getRawExpirationTime();
+        if (expirationTime == UNSET) {
+            return 0L;
+        }
+
+        if (expirationTime == Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        return recomputeWithBaseTime(expirationTime);
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        setRawExpirationTime(expirationTime == Long.MAX_VALUE
+                ? Integer.MAX_VALUE
+                : stripBaseTime(expirationTime));
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        int lastStoredTime = getRawLastStoredTime();
+        if (lastStoredTime == UNSET) {
+            return 0L;
+        }
+
+        return recomputeWithBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        setRawLastStoredTime(stripBaseTime(lastStoredTime));
+    }
+
+    @Override
+    public long getSequence() {
+        return UNSET;
+    }
+
+    @Override
+    public void setSequence(long sequence) {
+    }
+
+    @Override
+    public void setMetadata(Metadata metadata) {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return DATA_RECORD_WITH_STATS_READER_WRITER;
+    }
+
+    @Override
+    public int getRawTtl() {
+        return readIntB(blob, TTL_OFFSET);
+    }
+
+    @Override
+    public int getRawMaxIdle() {
+        return readIntB(blob, MAX_IDLE_OFFSET);
+    }
+
+    @Override
+    public int getRawCreationTime() {
+        return readIntB(blob, CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public int getRawLastAccessTime() {
+        return readIntB(blob, LAST_ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public int getRawLastUpdateTime() {
+        return readIntB(blob, LAST_UPDATE_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawTtl(int ttl) {
+        writeIntB(blob, TTL_OFFSET, ttl);
+    }
+
+    @Override
+    public void setRawMaxIdle(int maxIdle) {
+        writeIntB(blob, MAX_IDLE_OFFSET, maxIdle);
+    }
+
+    @Override
+    public void setRawCreationTime(int creationTime) {
+        writeIntB(blob, CREATION_TIME_OFFSET, creationTime);
+    }
+
+    @Override
+    public void setRawLastAccessTime(int lastAccessTime) {
+        writeIntB(blob, LAST_ACCESS_TIME_OFFSET, lastAccessTime);
+    }
+
+    @Override
+    public void setRawLastUpdateTime(int lastUpdateTime) {
+        writeIntB(blob, LAST_UPDATE_TIME_OFFSET, lastUpdateTime);
+    }
+
+    @Override
+    public int getRawLastStoredTime() {
+        return readIntB(blob, LAST_STORED_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastStoredTime(int time) {
+        writeIntB(blob, LAST_STORED_TIME_OFFSET, time);
+    }
+
+    @Override
+    public int getRawExpirationTime() {
+        return readIntB(blob, EXPIRATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawExpirationTime(int time) {
+        writeIntB(blob, EXPIRATION_TIME_OFFSET, time);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        CompactDataRecord that = (CompactDataRecord) o;
+        return Arrays.equals(blob, that.blob) && Objects.equals(metadata, that.metadata);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(blob) + (metadata != null ? metadata.hashCode() : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactDataRecord{"
+                + "ttl=" + getRawTtl()
+                + ", maxIdle=" + getRawMaxIdle()
+                + ", version=" + getVersion()
+                + ", hits=" + getHits()
+                + ", lastAccessTime=" + getRawLastAccessTime()
+                + ", lastUpdateTime=" + getRawLastUpdateTime()
+                + ", creationTime=" + getRawCreationTime()
+                + ", lastStoredTime=" + getRawLastStoredTime()
+                + ", expirationTime=" + getRawExpirationTime()
+                + ", valueSize=" + (blob.length - HEADER_SIZE)
+                + ", metadata=" + metadata
+                + '}';
+    }
+}
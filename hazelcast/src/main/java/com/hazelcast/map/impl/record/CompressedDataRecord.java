@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.Data;
+
+import static com.hazelcast.internal.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.COMPRESSED_DATA_RECORD_READER_WRITER;
+
+/**
+ * A {@link DataRecordWithStats} alike record which keeps its value
+ * compressed if the {@link ValueCompressor} of its record store finds
+ * it worth to. The value field holds either the serialized value or
+ * the compressed bytes of it, which are only decompressed when the
+ * value is read.
+ * <p>
+ * Records read from backup and replication operations have no
+ * compressor, they keep the value in whichever form it has been sent.
+ * Their decompressed values carry the compressed bytes along, so the
+ * replica stores them without compressing them again.
+ */
+public class CompressedDataRecord extends AbstractRecordWithStats<Data> {
+
+    // array (12: array header, 4: length)
+    private static final int ARRAY_HEADER_SIZE_IN_BYTES = 16;
+
+    private final transient ValueCompressor compressor;
+
+    /**
+     * Either the serialized value as {@link Data}
+     * or its compressed form as {@code byte[]}.
+     */
+    private volatile Object value;
+
+    CompressedDataRecord() {
+        this.compressor = null;
+    }
+
+    CompressedDataRecord(ValueCompressor compressor, Data value) {
+        this.compressor = compressor;
+        setValue(value);
+    }
+
+    CompressedDataRecord(ValueCompressor compressor, CompressedDataRecord fromRecord) {
+        this.compressor = compressor;
+        this.value = fromRecord.value;
+    }
+
+    /**
+     * Get record size in bytes.
+     */
+    @Override
+    public long getCost() {
+        Object value = this.value;
+        return super.getCost() + 2 * REFERENCE_COST_IN_BYTES + valueCost(value);
+    }
+
+    @Override
+    public long getRawCost() {
+        Object value = this.value;
+        if (!(value instanceof byte[])) {
+            return super.getCost() + 2 * REFERENCE_COST_IN_BYTES + valueCost(value);
+        }
+        int decompressedSize = ValueCompressor.decompressedSize((byte[]) value);
+        return super.getCost() + 2 * REFERENCE_COST_IN_BYTES
+                + REFERENCE_COST_IN_BYTES + ARRAY_HEADER_SIZE_IN_BYTES + decompressedSize;
+    }
+
+    @Override
+    public Data getValue() {
+        Object value = this.value;
+        return value instanceof byte[]
+                ? ValueCompressor.decompress((byte[]) value, compressor == null) : (Data) value;
+    }
+
+    @Override
+    public void setValue(Data value) {
+        byte[] compressed = compressor == null ? null : compressor.compress(value);
+        this.value = compressed == null ? value : compressed;
+    }
+
+    /**
+     * Returns {@code true} if the value of this record is held compressed.
+     */
+    public boolean isCompressed() {
+        return value instanceof byte[];
+    }
+
+    /**
+     * Returns the value as held by this record, either
+     * the serialized value or its compressed bytes.
+     */
+    Object getStoredValue() {
+        return value;
+    }
+
+    void setStoredValue(Object value) {
+        this.value = value;
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return COMPRESSED_DATA_RECORD_READER_WRITER;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        CompressedDataRecord that = (CompressedDataRecord) o;
+        return getValue().equals(that.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + getValue().hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedDataRecord{"
+                + "value=" + (isCompressed() ? "compressed" : value)
+                + ", " + super.toString()
+                + "} ";
+    }
+
+    private static long valueCost(Object value) {
+        if (value instanceof byte[]) {
+            return ARRAY_HEADER_SIZE_IN_BYTES + ((byte[]) value).length;
+        }
+        return value == null ? 0L : ((Data) value).getHeapCost();
+    }
+}
@@ -26,17 +26,55 @@ public class DataRecordFactory implements RecordFactory<Data> {
     private final boolean statisticsEnabled;
     private final SerializationService ss;
     private final CacheDeserializedValues cacheDeserializedValues;
+    private final boolean compactRecords;
+    private final boolean tieredRecords;
+    private final ValueCompressor compressor;
 
     public DataRecordFactory(MapConfig config, SerializationService ss) {
+        this(config, ss, false);
+    }
+
+    /**
+     * @param compactRecords {@code true} to create {@link CompactDataRecord}s,
+     *                       which neither cache deserialized values nor
+     *                       depend on statistics being enabled
+     */
+    public DataRecordFactory(MapConfig config, SerializationService ss, boolean compactRecords) {
+        this(config, ss, compactRecords, false);
+    }
+
+    /**
+     * @param compactRecords {@code true} to create {@link CompactDataRecord}s
+     * @param tieredRecords  {@code true} to create {@link TieredDataRecord}s,
+     *                       whose values can be demoted to a {@link SpillStore}.
+     *                       Takes precedence over {@code compactRecords}
+     *                       and {@link MapConfig#isValueCompressionEnabled()}.
+     */
+    public DataRecordFactory(MapConfig config, SerializationService ss, boolean compactRecords, boolean tieredRecords) {
         this.ss = ss;
         this.statisticsEnabled = config.isStatisticsEnabled();
         this.cacheDeserializedValues = config.getCacheDeserializedValues();
+        this.compactRecords = compactRecords;
+        this.tieredRecords = tieredRecords;
+        this.compressor = config.isValueCompressionEnabled() ? new ValueCompressor() : null;
     }
 
     @Override
     public Record<Data> newRecord(Object value) {
         Data valueData = ss.toData(value);
 
+        if (tieredRecords) {
+            return new TieredDataRecord(valueData);
+        }
+
+        if (compressor != null) {
+            return new CompressedDataRecord(compressor, valueData);
+        }
+
+        if (compactRecords) {
+            return new CompactDataRecord(valueData);
+        }
+
         switch (cacheDeserializedValues) {
             case NEVER:
                 return statisticsEnabled ? new DataRecordWithStats(valueData) : new DataRecord(valueData);
@@ -44,4 +82,12 @@ public class DataRecordFactory implements RecordFactory<Data> {
                 return statisticsEnabled ? new CachedDataRecordWithStats(valueData) : new CachedDataRecord(valueData);
         }
     }
+
+    @Override
+    public Record<Data> newRecordFrom(Record fromRecord) {
+        if (!tieredRecords && compressor != null && fromRecord instanceof CompressedDataRecord) {
+            return new CompressedDataRecord(compressor, (CompressedDataRecord) fromRecord);
+        }
+        return newRecord(fromRecord.getValue());
+    }
 }
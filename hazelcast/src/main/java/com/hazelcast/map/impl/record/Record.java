@@ -66,6 +66,16 @@ public interface Record<V> {
      */
     long getCost();
 
+    /**
+     * Returns heap cost of this record in bytes as if
+     * its value was not compressed.
+     *
+     * @return uncompressed heap cost of this record in bytes.
+     */
+    default long getRawCost() {
+        return getCost();
+    }
+
     long getVersion();
 
     void setVersion(long version);
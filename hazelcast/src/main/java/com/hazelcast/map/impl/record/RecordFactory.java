@@ -24,4 +24,16 @@ package com.hazelcast.map.impl.record;
 public interface RecordFactory<T> {
 
     Record<T> newRecord(Object value);
+
+    /**
+     * Creates a new record holding the value of the given record, used
+     * when records are replicated. Implementations may take over the
+     * form in which the value is held, e.g. compressed bytes.
+     *
+     * @param fromRecord the replicated record
+     * @return the new record, without the metadata of {@code fromRecord}
+     */
+    default Record<T> newRecordFrom(Record fromRecord) {
+        return newRecord(fromRecord.getValue());
+    }
 }
@@ -90,6 +90,51 @@ public enum RecordReaderWriter {
             record.setRawExpirationTime(in.readInt());
             return record;
         }
+    },
+
+    /**
+     * Writes the value of a {@link CompressedDataRecord} as held by
+     * the record, so compressed values are sent without decompressing
+     * them. The passed serialized value is ignored.
+     */
+    COMPRESSED_DATA_RECORD_READER_WRITER(TypeId.COMPRESSED_DATA_RECORD_TYPE_ID) {
+        @Override
+        void writeRecord(ObjectDataOutput out,
+                         Record record, Data dataValue) throws IOException {
+            Object value = ((CompressedDataRecord) record).getStoredValue();
+            if (value instanceof byte[]) {
+                out.writeBoolean(true);
+                out.writeByteArray((byte[]) value);
+            } else {
+                out.writeBoolean(false);
+                writeData(out, (Data) value);
+            }
+            out.writeInt(record.getRawTtl());
+            out.writeInt(record.getRawMaxIdle());
+            out.writeInt(record.getRawCreationTime());
+            out.writeInt(record.getRawLastAccessTime());
+            out.writeInt(record.getRawLastUpdateTime());
+            out.writeInt(record.getHits());
+            out.writeLong(record.getVersion());
+            out.writeInt(record.getRawLastStoredTime());
+            out.writeInt(record.getRawExpirationTime());
+        }
+
+        @Override
+        Record readRecord(ObjectDataInput in) throws IOException {
+            CompressedDataRecord record = new CompressedDataRecord();
+            record.setStoredValue(in.readBoolean() ? in.readByteArray() : readData(in));
+            record.setRawTtl(in.readInt());
+            record.setRawMaxIdle(in.readInt());
+            record.setRawCreationTime(in.readInt());
+            record.setRawLastAccessTime(in.readInt());
+            record.setRawLastUpdateTime(in.readInt());
+            record.setHits(in.readInt());
+            record.setVersion(in.readLong());
+            record.setRawLastStoredTime(in.readInt());
+            record.setRawExpirationTime(in.readInt());
+            return record;
+        }
     };
 
     private byte id;
@@ -105,6 +150,7 @@ public enum RecordReaderWriter {
     private static class TypeId {
         private static final byte DATA_RECORD_TYPE_ID = 1;
         private static final byte DATA_RECORD_WITH_STATS_TYPE_ID = 2;
+        private static final byte COMPRESSED_DATA_RECORD_TYPE_ID = 3;
     }
 
     public static RecordReaderWriter getById(int id) {
@@ -113,6 +159,8 @@ public enum RecordReaderWriter {
                 return DATA_RECORD_READER_WRITER;
             case TypeId.DATA_RECORD_WITH_STATS_TYPE_ID:
                 return DATA_RECORD_WITH_STATS_READER_WRITER;
+            case TypeId.COMPRESSED_DATA_RECORD_TYPE_ID:
+                return COMPRESSED_DATA_RECORD_READER_WRITER;
             default:
                 throw new IllegalArgumentException();
         }
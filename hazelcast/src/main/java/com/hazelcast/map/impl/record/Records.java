@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.record;
 
+import com.hazelcast.internal.cluster.Versions;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
@@ -24,6 +25,8 @@ import com.hazelcast.internal.serialization.Data;
 import java.io.IOException;
 
 import static com.hazelcast.map.impl.record.Record.NOT_CACHED;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.COMPRESSED_DATA_RECORD_READER_WRITER;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
 import static com.hazelcast.map.impl.record.RecordReaderWriter.getById;
 
 /**
@@ -35,8 +38,40 @@ public final class Records {
     }
 
     public static void writeRecord(ObjectDataOutput out, Record record, Data dataValue) throws IOException {
-        out.writeByte(record.getMatchingRecordReaderWriter().getId());
-        record.getMatchingRecordReaderWriter().writeRecord(out, record, dataValue);
+        RecordReaderWriter readerWriter = getRecordReaderWriter(out, record);
+        if (dataValue == null && readerWriter != record.getMatchingRecordReaderWriter()) {
+            dataValue = (Data) record.getValue();
+        }
+        out.writeByte(readerWriter.getId());
+        readerWriter.writeRecord(out, record, dataValue);
+    }
+
+    /**
+     * Writes the given record, serializing its value only if
+     * the value is not written as held by the record.
+     */
+    public static void writeRecord(ObjectDataOutput out, Record record,
+                                   SerializationService serializationService) throws IOException {
+        RecordReaderWriter readerWriter = getRecordReaderWriter(out, record);
+        Data dataValue = readerWriter == COMPRESSED_DATA_RECORD_READER_WRITER
+                ? null : serializationService.toData(record.getValue());
+        out.writeByte(readerWriter.getId());
+        readerWriter.writeRecord(out, record, dataValue);
+    }
+
+    /**
+     * Returns the reader-writer to write the given record with. Members
+     * before 4.2 cannot read compressed records, they are sent the
+     * decompressed value as a record with stats instead.
+     */
+    private static RecordReaderWriter getRecordReaderWriter(ObjectDataOutput out, Record record) {
+        RecordReaderWriter readerWriter = record.getMatchingRecordReaderWriter();
+        // RU_COMPAT_4_1
+        if (readerWriter == COMPRESSED_DATA_RECORD_READER_WRITER
+                && out.getVersion().isUnknownOrLessThan(Versions.V4_2)) {
+            return DATA_RECORD_WITH_STATS_READER_WRITER;
+        }
+        return readerWriter;
     }
 
     public static Record readRecord(ObjectDataInput in) throws IOException {
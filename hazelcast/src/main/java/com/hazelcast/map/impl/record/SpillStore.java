@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
+import static com.hazelcast.internal.util.EmptyStatement.ignore;
+import static com.hazelcast.internal.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+
+/**
+ * Lower tier of a record store which keeps demoted values in
+ * memory-mapped, append-only segment files on local disk.
+ * <p>
+ * Values are appended to the active segment until it is full, then a new
+ * segment is started. A segment file is deleted as soon as none of the
+ * values appended to it is referenced anymore, see
+ * {@link SpilledValue#release()}. A full segment whose referenced values
+ * take less than a quarter of it is compacted: these values are moved to
+ * the active segment and the segment file is deleted.
+ * <p>
+ * The segment files are named after the given prefix, the segment files
+ * with the same prefix left behind by a previous process, e.g. after a
+ * crash, are deleted when the store is created.
+ * <p>
+ * The mapping of a segment is unmapped as soon as the segment is dropped,
+ * rather than when its buffer is garbage collected, so the address space
+ * and the disk space of the segment are released right away. Readers copy
+ * the values out of a segment under its read lock, a value whose segment
+ * has been dropped in the meantime reads as {@code null}. A value is moved
+ * under the write lock of the segment it's moved from, so it's read either
+ * from its old or from its new segment.
+ * <p>
+ * Appending and releasing values is only done by the owning partition
+ * thread, demoted values can be read by any thread.
+ */
+public final class SpillStore {
+
+    private static final String SEGMENT_FILE_SUFFIX = ".segment";
+    private static final int COMPACTION_THRESHOLD_PERCENT = 25;
+    private static final int PERCENT = 100;
+    private static final Method INVOKE_CLEANER = findInvokeCleaner();
+
+    private final File directory;
+    private final String segmentFilePrefix;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+
+    private Segment activeSegment;
+
+    /**
+     * @param directory         the directory to create the segment files in
+     * @param segmentFilePrefix prefix of the segment file names
+     * @param segmentSize       size of a segment file in bytes, values
+     *                          larger than that get a segment of their own
+     */
+    public SpillStore(File directory, String segmentFilePrefix, int segmentSize) {
+        this.directory = directory;
+        this.segmentFilePrefix = segmentFilePrefix;
+        this.segmentSize = segmentSize;
+        deleteStaleSegmentFiles();
+    }
+
+    /**
+     * Appends the given value to the active segment.
+     *
+     * @param value the value to spill
+     * @return the handle to read the value back
+     */
+    public SpilledValue append(Data value) {
+        byte[] bytes = value.toByteArray();
+        SpilledValue spilledValue = new SpilledValue();
+        ensureActiveSegment(bytes.length).append(spilledValue, bytes);
+        return spilledValue;
+    }
+
+    /**
+     * Returns the number of segment files of this store.
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Deletes all segment files. Values which have been spilled before
+     * must not be read after calling this method, releasing them is a
+     * no-op. The store can be used for new values afterwards.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.delete();
+        }
+        segments.clear();
+        activeSegment = null;
+    }
+
+    private Segment ensureActiveSegment(int length) {
+        // compacting the previous active segment may fill the new one
+        while (activeSegment == null || activeSegment.remaining() < length) {
+            Segment previous = activeSegment;
+            activeSegment = newSegment(Math.max(segmentSize, length));
+            if (previous != null) {
+                dropOrCompact(previous);
+            }
+        }
+        return activeSegment;
+    }
+
+    private void dropOrCompact(Segment segment) {
+        if (segment.liveCount == 0) {
+            removeSegment(segment);
+        } else if (segment.liveBytes * (long) PERCENT < segment.capacity() * (long) COMPACTION_THRESHOLD_PERCENT) {
+            compact(segment);
+        }
+    }
+
+    /**
+     * Moves the referenced values of the given segment to the active
+     * segment and deletes the given segment.
+     */
+    private void compact(Segment segment) {
+        Lock writeLock = segment.lock.writeLock();
+        writeLock.lock();
+        try {
+            for (SpilledValue spilledValue : segment.values) {
+                if (!spilledValue.released) {
+                    byte[] bytes = segment.copy(spilledValue.offset, spilledValue.length);
+                    ensureActiveSegment(bytes.length).append(spilledValue, bytes);
+                }
+            }
+            segment.liveCount = 0;
+            segment.liveBytes = 0;
+        } finally {
+            writeLock.unlock();
+        }
+        removeSegment(segment);
+    }
+
+    private void deleteStaleSegmentFiles() {
+        File[] staleFiles = directory.listFiles((dir, name) -> name.startsWith(segmentFilePrefix)
+                && name.endsWith(SEGMENT_FILE_SUFFIX)
+                && isTempFileNumber(name.substring(segmentFilePrefix.length(),
+                name.length() - SEGMENT_FILE_SUFFIX.length())));
+        if (staleFiles != null) {
+            for (File staleFile : staleFiles) {
+                deleteQuietly(staleFile);
+            }
+        }
+    }
+
+    /**
+     * Checks the part {@link File#createTempFile} puts between the prefix
+     * and the suffix, so that the files of other stores whose prefix starts
+     * with the prefix of this store aren't matched.
+     */
+    private static boolean isTempFileNumber(String part) {
+        if (part.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < part.length(); i++) {
+            if (!Character.isDigit(part.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Segment newSegment(int size) {
+        RandomAccessFile file = null;
+        try {
+            if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+                throw new IOException("Could not create directory " + directory.getAbsolutePath());
+            }
+            File segmentFile = File.createTempFile(segmentFilePrefix, SEGMENT_FILE_SUFFIX, directory);
+            file = new RandomAccessFile(segmentFile, "rw");
+            file.setLength(size);
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            Segment segment = new Segment(segmentFile, buffer);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new HazelcastException("Could not create a segment file of the tiered map store in "
+                    + directory.getAbsolutePath(), e);
+        } finally {
+            // the mapping stays valid after the file is closed
+            closeResource(file);
+        }
+    }
+
+    private void removeSegment(Segment segment) {
+        segments.remove(segment);
+        segment.delete();
+    }
+
+    /**
+     * Unmaps the given buffer through {@code Unsafe.invokeCleaner()} on
+     * Java 9 and later, and through the cleaner of the buffer on Java 8.
+     * If neither is accessible, the mapping is released when the buffer
+     * is garbage collected.
+     */
+    private static void unmap(ByteBuffer buffer) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ignore(e);
+        }
+    }
+
+    private static Method findInvokeCleaner() {
+        if (UNSAFE == null) {
+            return null;
+        }
+        try {
+            return UNSAFE.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (NoSuchMethodException e) {
+            // Java 8
+            return null;
+        }
+    }
+
+    private final class Segment {
+
+        private final File file;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // the values appended to this segment, including the released ones
+        private final List<SpilledValue> values = new ArrayList<>();
+        private final int capacity;
+
+        private ByteBuffer buffer;
+        private int position;
+        private int liveCount;
+        private long liveBytes;
+
+        Segment(File file, ByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        int remaining() {
+            return capacity - position;
+        }
+
+        /**
+         * Appends the given bytes and points the given value to them.
+         */
+        void append(SpilledValue spilledValue, byte[] bytes) {
+            ByteBuffer view = buffer.duplicate();
+            view.position(position);
+            view.put(bytes);
+            spilledValue.offset = position;
+            spilledValue.length = bytes.length;
+            // publishes the bytes and the offset to the readers
+            spilledValue.segment = this;
+            values.add(spilledValue);
+            position += bytes.length;
+            liveCount++;
+            liveBytes += bytes.length;
+        }
+
+        /**
+         * @return the bytes of the given value, or {@code null} if the
+         * segment has been dropped or the value has been moved to another
+         * segment in the meantime
+         */
+        byte[] read(SpilledValue spilledValue) {
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                if (buffer == null || spilledValue.segment != this) {
+                    return null;
+                }
+                return copy(spilledValue.offset, spilledValue.length);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        byte[] copy(int offset, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.get(bytes);
+            return bytes;
+        }
+
+        void release(SpilledValue spilledValue) {
+            if (buffer == null) {
+                // dropped by clear()
+                return;
+            }
+            liveCount--;
+            liveBytes -= spilledValue.length;
+            if (this != activeSegment) {
+                dropOrCompact(this);
+            }
+        }
+
+        void delete() {
+            Lock writeLock = lock.writeLock();
+            writeLock.lock();
+            try {
+                unmap(buffer);
+                buffer = null;
+            } finally {
+                writeLock.unlock();
+            }
+            deleteQuietly(file);
+        }
+    }
+
+    /**
+     * Handle of a value which has been appended to a {@link SpillStore}.
+     */
+    public static final class SpilledValue {
+
+        /**
+         * Heap cost of a handle: segment reference, offset, length, flag
+         * and the reference from the segment.
+         */
+        static final long HEAP_COST = 2 * REFERENCE_COST_IN_BYTES + 2 * Integer.BYTES + 1;
+
+        private volatile Segment segment;
+        // guarded by the lock of the segment
+        private int offset;
+        private int length;
+
+        private boolean released;
+
+        private SpilledValue() {
+        }
+
+        /**
+         * Reads the value back from its segment.
+         *
+         * @return the value, or {@code null} if its segment has been
+         * dropped, i.e. if the value has been released
+         */
+        public Data read() {
+            while (true) {
+                Segment current = segment;
+                byte[] bytes = current.read(this);
+                if (bytes != null) {
+                    return new HeapData(bytes);
+                }
+                if (segment == current) {
+                    // not moved, the segment has been dropped
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Returns the size of the value in bytes.
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Marks the value as no longer referenced. Subsequent calls are
+         * no-ops. Must only be called by the owning partition thread.
+         */
+        public void release() {
+            if (!released) {
+                released = true;
+                segment.release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.record.SpillStore.SpilledValue;
+
+import static com.hazelcast.internal.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+
+/**
+ * A {@link DataRecordWithStats} alike record whose value can be demoted
+ * to a {@link SpillStore}. A demoted record stays in its record store,
+ * only the value is moved out of the heap. Reads of a demoted value
+ * are served from the spill store, setting a new value promotes the
+ * record back to the heap and releases the spilled value.
+ * <p>
+ * Demotion and promotion are done by the partition thread only. The
+ * value is always published before the spilled value is cleared and
+ * vice versa, so readers from other threads always observe one of them.
+ */
+public class TieredDataRecord extends AbstractRecordWithStats<Data> {
+
+    private volatile Data value;
+    private volatile SpilledValue spilledValue;
+
+    TieredDataRecord(Data value) {
+        this.value = value;
+    }
+
+    /**
+     * Get record size in bytes.
+     */
+    @Override
+    public long getCost() {
+        Data value = this.value;
+        SpilledValue spilledValue = this.spilledValue;
+        return super.getCost() + 2 * REFERENCE_COST_IN_BYTES
+                + (value == null ? 0L : value.getHeapCost())
+                + (spilledValue == null ? 0L : SpilledValue.HEAP_COST);
+    }
+
+    @Override
+    public Data getValue() {
+        Data value = this.value;
+        if (value != null) {
+            return value;
+        }
+        SpilledValue spilledValue = this.spilledValue;
+        if (spilledValue != null) {
+            Data spilled = spilledValue.read();
+            if (spilled != null) {
+                return spilled;
+            }
+        }
+        // re-read in case the record has been promoted in the meantime
+        return this.value;
+    }
+
+    @Override
+    public void setValue(Data value) {
+        this.value = value;
+        SpilledValue spilledValue = this.spilledValue;
+        if (spilledValue != null) {
+            this.spilledValue = null;
+            spilledValue.release();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the value of this record is held by a spill store.
+     */
+    public boolean isDemoted() {
+        return spilledValue != null;
+    }
+
+    /**
+     * Moves the value of this record to the given spill store.
+     *
+     * @return {@code true} if the value has been demoted, {@code false}
+     * if the record has already been demoted or has no value
+     */
+    public boolean demote(SpillStore spillStore) {
+        Data value = this.value;
+        if (value == null || spilledValue != null) {
+            return false;
+        }
+        spilledValue = spillStore.append(value);
+        this.value = null;
+        return true;
+    }
+
+    /**
+     * Releases the spilled value of this record, if any, without
+     * promoting it. Called when the record is removed from its store
+     * or replaced by another record. Concurrent readers may read a
+     * {@code null} value afterwards, once the segment of the spilled
+     * value has been dropped.
+     */
+    public void releaseSpilledValue() {
+        SpilledValue spilledValue = this.spilledValue;
+        if (spilledValue != null) {
+            spilledValue.release();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        TieredDataRecord that = (TieredDataRecord) o;
+        return getValue().equals(that.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + getValue().hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TieredDataRecord{"
+                + "value=" + value
+                + ", demoted=" + isDemoted()
+                + ", " + super.toString()
+                + "} ";
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.readIntB;
+import static com.hazelcast.internal.nio.Bits.writeIntB;
+
+/**
+ * Compresses serialized values of a record store with {@link Deflater}.
+ * <p>
+ * Values are only compressed if it pays off: small values are never
+ * compressed, a prefix of large values is compressed first as a sample,
+ * and a value is only stored compressed if it shrinks to at most
+ * {@link #MAX_COMPRESSION_RATIO} of its size. After every value which
+ * did not compress well, the following values are skipped for an
+ * exponentially growing (but bounded) number of times, so maps with
+ * incompressible values pay for compression attempts only rarely.
+ * <p>
+ * Compressed values are laid out as the uncompressed size, followed by
+ * the deflated bytes of the serialized value.
+ * <p>
+ * Compression is done by the partition thread owning the record store,
+ * decompression may happen on any thread. Each call uses its own
+ * {@link Deflater} or {@link Inflater} and ends it, so no native zlib
+ * memory is held by threads.
+ * <p>
+ * Values decompressed from records received with backup and replication
+ * operations remember their compressed bytes, so storing them into the
+ * replica does not compress them again.
+ */
+final class ValueCompressor {
+
+    /**
+     * Values smaller than this are not compressed.
+     */
+    static final int MIN_COMPRESSIBLE_SIZE = 256;
+
+    /**
+     * Values are stored compressed only if their compressed
+     * size is not larger than this ratio of their size.
+     */
+    static final double MAX_COMPRESSION_RATIO = 0.8;
+
+    private static final int SAMPLE_SIZE = 1024;
+    private static final int MAX_SKIP_COUNT = 64;
+
+    private int skipCount;
+    private int remainingSkips;
+
+    /**
+     * Compresses the given value if it pays off.
+     *
+     * @return the compressed value, or {@code null} if
+     * the value should be stored uncompressed
+     */
+    byte[] compress(Data value) {
+        if (value instanceof DecompressedData) {
+            return ((DecompressedData) value).compressed;
+        }
+        if (value == null || value.totalSize() < MIN_COMPRESSIBLE_SIZE) {
+            return null;
+        }
+        if (remainingSkips > 0) {
+            remainingSkips--;
+            return null;
+        }
+
+        byte[] bytes = value.toByteArray();
+        byte[] compressed = null;
+        if (bytes.length <= 2 * SAMPLE_SIZE || deflate(bytes, SAMPLE_SIZE, 0) != null) {
+            compressed = deflate(bytes, bytes.length, INT_SIZE_IN_BYTES);
+        }
+
+        if (compressed == null) {
+            skipCount = Math.min(Math.max(1, 2 * skipCount), MAX_SKIP_COUNT);
+            remainingSkips = skipCount;
+            return null;
+        }
+
+        skipCount = 0;
+        writeIntB(compressed, 0, bytes.length);
+        return compressed;
+    }
+
+    /**
+     * Decompresses a value compressed by {@link #compress(Data)}.
+     */
+    static Data decompress(byte[] compressed) {
+        return decompress(compressed, false);
+    }
+
+    /**
+     * Decompresses a value compressed by {@link #compress(Data)}.
+     *
+     * @param keepCompressed {@code true} if the returned value should
+     *                       remember {@code compressed}, so that it is
+     *                       not compressed again when it is stored
+     */
+    static Data decompress(byte[] compressed, boolean keepCompressed) {
+        byte[] bytes = new byte[readIntB(compressed, 0)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed, INT_SIZE_IN_BYTES, compressed.length - INT_SIZE_IN_BYTES);
+            int length = 0;
+            while (length < bytes.length && !inflater.finished()) {
+                int inflated = inflater.inflate(bytes, length, bytes.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != bytes.length) {
+                throw new HazelcastException("Compressed value is truncated, expected " + bytes.length
+                        + " bytes but got " + length);
+            }
+            return keepCompressed ? new DecompressedData(bytes, compressed) : new HeapData(bytes);
+        } catch (DataFormatException e) {
+            throw new HazelcastException("Could not decompress value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Returns the size of the value compressed by {@link #compress(Data)}.
+     */
+    static int decompressedSize(byte[] compressed) {
+        return readIntB(compressed, 0);
+    }
+
+    /**
+     * Deflates the first {@code length} bytes. Returns {@code null} if
+     * the output exceeds {@link #MAX_COMPRESSION_RATIO} of the input,
+     * otherwise the output preceded by {@code offset} unused bytes.
+     */
+    private static byte[] deflate(byte[] bytes, int length, int offset) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[offset + (int) (length * MAX_COMPRESSION_RATIO)];
+            int position = offset;
+            while (!deflater.finished() && position < buffer.length) {
+                position += deflater.deflate(buffer, position, buffer.length - position);
+            }
+            if (!deflater.finished()) {
+                return null;
+            }
+            return position == buffer.length ? buffer : Arrays.copyOf(buffer, position);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * A decompressed value which remembers the bytes it was decompressed from.
+     */
+    private static final class DecompressedData extends HeapData {
+
+        private final byte[] compressed;
+
+        DecompressedData(byte[] bytes, byte[] compressed) {
+            super(bytes);
+            this.compressed = compressed;
+        }
+    }
+}
@@ -24,16 +24,20 @@ import com.hazelcast.internal.eviction.ExpiredKey;
 import com.hazelcast.internal.nearcache.impl.invalidation.InvalidationQueue;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.util.Clock;
+import com.hazelcast.map.impl.EntryCostEstimator;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.eviction.Evictor;
 import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.SpillStore;
+import com.hazelcast.map.impl.record.TieredDataRecord;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.eventservice.EventService;
 import com.hazelcast.spi.merge.SplitBrainMergeTypes.MapMergeTypes;
 import com.hazelcast.spi.properties.ClusterProperty;
 import com.hazelcast.spi.properties.HazelcastProperties;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -64,6 +68,11 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
     protected final MapEventPublisher mapEventPublisher;
     protected final ClearExpiredRecordsTask clearExpiredRecordsTask;
     protected final InvalidationQueue<ExpiredKey> expiredKeys = new InvalidationQueue<>();
+    /**
+     * Lower tier the evictor demotes values to, {@code null}
+     * if the tiered store is not enabled for this map.
+     */
+    protected final SpillStore spillStore;
     /**
      * Iterates over a pre-set entry count/percentage in one round.
      * Used in expiration logic for traversing entries. Initializes lazily.
@@ -81,6 +90,68 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         mapEventPublisher = mapServiceContext.getMapEventPublisher();
         thisAddress = nodeEngine.getThisAddress();
         clearExpiredRecordsTask = mapServiceContext.getExpirationManager().getTask();
+        spillStore = mapContainer.isTieredStoreEnabled() ? createSpillStore(hazelcastProperties) : null;
+    }
+
+    private SpillStore createSpillStore(HazelcastProperties hazelcastProperties) {
+        File directory = new File(hazelcastProperties.getString(ClusterProperty.MAP_TIERED_STORE_DIRECTORY));
+        // the members sharing the directory have different ports
+        String segmentFilePrefix = "hz-map-" + thisAddress.getPort() + "-" + name.replaceAll("[^\\w.-]", "_")
+                + "-" + partitionId + "-";
+        int segmentSize = hazelcastProperties.getInteger(ClusterProperty.MAP_TIERED_STORE_SEGMENT_SIZE);
+        return new SpillStore(directory, segmentFilePrefix, segmentSize);
+    }
+
+    @Override
+    protected void addMutationObservers() {
+        super.addMutationObservers();
+
+        if (spillStore != null) {
+            mutationObserver.add(new TieredStoreMutationObserver(spillStore));
+        }
+    }
+
+    @Override
+    public boolean demote(Data dataKey, Record record) {
+        if (!isDemotionEnabled() || !(record instanceof TieredDataRecord)) {
+            return false;
+        }
+
+        EntryCostEstimator entryCostEstimator = storage.getEntryCostEstimator();
+        long valueCostBefore = entryCostEstimator.calculateValueCost(record);
+        if (!((TieredDataRecord) record).demote(spillStore)) {
+            return false;
+        }
+        entryCostEstimator.adjustEstimateBy(entryCostEstimator.calculateValueCost(record) - valueCostBefore);
+        return true;
+    }
+
+    @Override
+    public boolean isDemotionEnabled() {
+        return spillStore != null && !mapContainer.getIndexes(partitionId).haveAtLeastOneIndex();
+    }
+
+    /**
+     * Releases the spilled value of the record stored for the given
+     * key, if any, before the record is replaced by a new one.
+     */
+    protected void releaseReplacedSpilledValue(Data dataKey) {
+        if (spillStore == null) {
+            return;
+        }
+        Record record = storage.get(dataKey);
+        if (record instanceof TieredDataRecord) {
+            ((TieredDataRecord) record).releaseSpilledValue();
+        }
+    }
+
+    /**
+     * Moves the value of a demoted record back to the heap.
+     */
+    protected void promote(Data dataKey, Record record) {
+        if (record instanceof TieredDataRecord && ((TieredDataRecord) record).isDemoted()) {
+            storage.updateRecordValue(dataKey, record, record.getValue());
+        }
     }
 
     /**
@@ -297,6 +368,15 @@ public abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
         return elapsedMillis >= ttlMillis;
     }
 
+    /**
+     * Returns {@code true} if the record expires when it is not
+     * accessed for a while, so its accesses update its expiration time.
+     */
+    protected boolean hasMaxIdle(Record record) {
+        long maxIdleMillis = getRecordMaxIdleOrConfig(record);
+        return maxIdleMillis >= 1L && maxIdleMillis != Long.MAX_VALUE;
+    }
+
     private long getRecordMaxIdleOrConfig(Record record) {
         if (record.getMaxIdle() != UNSET) {
             return record.getMaxIdle();
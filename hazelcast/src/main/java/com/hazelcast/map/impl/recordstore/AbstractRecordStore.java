@@ -19,7 +19,9 @@ package com.hazelcast.map.impl.recordstore;
 import com.hazelcast.config.EventJournalConfig;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MerkleTreeConfig;
 import com.hazelcast.config.MetadataPolicy;
+import com.hazelcast.internal.hotrestart.impl.ChangeLogHotRestartService;
 import com.hazelcast.internal.locksupport.LockStore;
 import com.hazelcast.internal.locksupport.LockSupportService;
 import com.hazelcast.internal.monitor.LocalRecordStoreStats;
@@ -41,10 +43,14 @@ import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.map.impl.record.Records;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.wan.impl.CallerProvenance;
+import com.hazelcast.wan.impl.merkletree.MerkleTree;
 
 import javax.annotation.Nonnull;
 
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.setExpirationTimes;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_LOCK_FREE_GET_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_OPEN_ADDRESSING_STORAGE_ENABLED;
 
 /**
  * Contains record store common parts.
@@ -64,9 +70,13 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
     protected final SerializationService serializationService;
     protected final CompositeMutationObserver<Record> mutationObserver;
     protected final LocalRecordStoreStatsImpl stats = new LocalRecordStoreStatsImpl();
+    // null if lock-free reads are not enabled
+    protected final SeqLock seqLock;
 
     protected Storage<Data, Record> storage;
     protected IndexingMutationObserver<Record> indexingObserver;
+    protected MerkleTreeMutationObserver merkleTreeObserver;
+    private QueryResultCacheMutationObserver queryResultCacheObserver;
 
     protected AbstractRecordStore(MapContainer mapContainer, int partitionId) {
         this.name = mapContainer.getName();
@@ -82,6 +92,32 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         this.mapDataStore = mapStoreContext.getMapStoreManager().getMapDataStore(name, partitionId);
         this.lockStore = createLockStore();
         this.mutationObserver = new CompositeMutationObserver<>();
+        this.seqLock = isLockFreeReadable() ? new SeqLock() : null;
+    }
+
+    private boolean isLockFreeReadable() {
+        return mapServiceContext.getNodeEngine().getProperties().getBoolean(MAP_LOCK_FREE_GET_ENABLED)
+                && inMemoryFormat == InMemoryFormat.BINARY
+                && UNSAFE_AVAILABLE
+                && !mapServiceContext.getNodeEngine().getProperties().getBoolean(MAP_OPEN_ADDRESSING_STORAGE_ENABLED)
+                && !mapContainer.isTieredStoreEnabled();
+    }
+
+    @Override
+    public void beginWrite() {
+        if (seqLock != null) {
+            seqLock.beginWrite();
+        }
+    }
+
+    @Override
+    public void endWrite() {
+        if (seqLock != null) {
+            seqLock.endWrite();
+        }
+        if (queryResultCacheObserver != null) {
+            queryResultCacheObserver.onEndWrite();
+        }
     }
 
     @Override
@@ -92,6 +128,20 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
     // Overridden in EE.
     protected void addMutationObservers() {
+        // Add observer for Merkle tree, first to see the
+        // values of the removed records before any other
+        MerkleTreeConfig merkleTreeConfig = mapContainer.getMapConfig().getMerkleTreeConfig();
+        if (merkleTreeConfig.isEnabled()) {
+            merkleTreeObserver = new MerkleTreeMutationObserver(merkleTreeConfig.getDepth(), serializationService,
+                    inMemoryFormat);
+            mutationObserver.add(merkleTreeObserver);
+        }
+
+        // Add observer for change log
+        if (mapContainer.getMapConfig().getHotRestartConfig().isEnabled()) {
+            addChangeLogMutationObserver();
+        }
+
         // Add observer for event journal
         EventJournalConfig eventJournalConfig = mapContainer.getEventJournalConfig();
         if (eventJournalConfig != null && eventJournalConfig.isEnabled()) {
@@ -107,6 +157,20 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         // Add observer for indexing
         indexingObserver = new IndexingMutationObserver<>(this, serializationService);
         mutationObserver.add(indexingObserver);
+
+        // Add observer for query result cache, after indexing to
+        // see the indexes updated
+        if (mapContainer.getQueryResultCache() != null) {
+            queryResultCacheObserver = new QueryResultCacheMutationObserver(mapContainer.getQueryResultCache(), partitionId);
+            mutationObserver.add(queryResultCacheObserver);
+        }
+    }
+
+    private void addChangeLogMutationObserver() {
+        ChangeLogHotRestartService changeLogService = ChangeLogHotRestartService.of(mapServiceContext.getNodeEngine());
+        if (changeLogService != null) {
+            mutationObserver.add(changeLogService.newMutationObserver(mapContainer.getMapConfig(), partitionId));
+        }
     }
 
     // Overridden in EE.
@@ -119,6 +183,11 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         return indexingObserver;
     }
 
+    @Override
+    public MerkleTree getMerkleTree() {
+        return merkleTreeObserver == null ? null : merkleTreeObserver.getMerkleTree();
+    }
+
     @Override
     public InMemoryFormat getInMemoryFormat() {
         return inMemoryFormat;
@@ -158,7 +227,7 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
     @Override
     public Record createRecord(Data key, Record fromRecord, long nowInMillis) {
-        Record newRecord = recordFactory.newRecord(fromRecord == null ? null : fromRecord.getValue());
+        Record newRecord = fromRecord == null ? recordFactory.newRecord(null) : recordFactory.newRecordFrom(fromRecord);
         if (fromRecord != null) {
             Records.copyMetadataFrom(fromRecord, newRecord);
         }
@@ -167,6 +236,12 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
     }
 
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        if (memoryFormat == InMemoryFormat.NATIVE) {
+            return new NativeStorage(serializationService, mapServiceContext.getNativeStorageMemoryManager());
+        }
+        if (mapServiceContext.getNodeEngine().getProperties().getBoolean(MAP_OPEN_ADDRESSING_STORAGE_ENABLED)) {
+            return new OpenAddressingStorage(memoryFormat, serializationService);
+        }
         return new StorageImpl(memoryFormat, serializationService);
     }
 
@@ -185,6 +260,11 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         return storage.getEntryCostEstimator().getEstimate();
     }
 
+    @Override
+    public long getOwnedEntryRawCost() {
+        return storage.getEntryCostEstimator().getRawEstimate();
+    }
+
     protected static long getNow() {
         return Clock.currentTimeMillis();
     }
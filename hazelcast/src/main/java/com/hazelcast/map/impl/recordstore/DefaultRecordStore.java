@@ -49,6 +49,7 @@ import com.hazelcast.map.impl.querycache.publisher.PublisherRegistry;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.spi.exception.RetryableHazelcastException;
 import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 import com.hazelcast.spi.merge.SplitBrainMergePolicy;
 import com.hazelcast.spi.merge.SplitBrainMergeTypes.MapMergeTypes;
 import com.hazelcast.wan.impl.CallerProvenance;
@@ -61,10 +62,12 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 
 import static com.hazelcast.config.NativeMemoryConfig.MemoryAllocatorType.POOLED;
@@ -84,6 +87,12 @@ import static com.hazelcast.spi.impl.merge.MergingValueFactory.createMergingEntr
 @SuppressWarnings({"checkstyle:methodcount", "checkstyle:classfanoutcomplexity"})
 public class DefaultRecordStore extends AbstractEvictableRecordStore {
 
+    /**
+     * Number of times a lock-free read is retried when it overlaps
+     * with a mutation, before it falls back to the partition thread.
+     */
+    private static final int LOCK_FREE_READ_ATTEMPTS = 8;
+
     protected final ILogger logger;
     protected final RecordStoreLoader recordStoreLoader;
     protected final MapKeyLoader keyLoader;
@@ -113,6 +122,13 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
 
     private final IPartitionService partitionService;
     private final InterceptorRegistry interceptorRegistry;
+    /**
+     * The records read by lock-free reads. Their hits and last access times
+     * are updated by the partition thread, since the lock-free readers must
+     * not mutate the records.
+     */
+    private final Queue<Record> lockFreeAccesses = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean lockFreeAccessesScheduled = new AtomicBoolean();
 
     public DefaultRecordStore(MapContainer mapContainer, int partitionId,
                               MapKeyLoader keyLoader, ILogger logger) {
@@ -158,9 +174,9 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
     @Override
     public Record putReplicatedRecord(Data dataKey, Record replicatedRecord, long nowInMillis,
                                       boolean populateIndexes) {
-        Record newRecord = createRecord(dataKey, replicatedRecord, nowInMillis);
+        releaseReplacedSpilledValue(dataKey);
+        Record newRecord = storage.putAndGetStored(dataKey, createRecord(dataKey, replicatedRecord, nowInMillis));
         markRecordStoreExpirable(replicatedRecord.getTtl(), replicatedRecord.getMaxIdle());
-        storage.put(dataKey, newRecord);
         mutationObserver.onReplicationPutRecord(dataKey, newRecord, populateIndexes);
         updateStatsOnPut(replicatedRecord.getHits(), nowInMillis);
         return newRecord;
@@ -574,8 +590,11 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         if (record == null) {
             record = loadRecordOrNull(key, backup, callerAddress);
             record = getOrNullIfExpired(key, record, now, backup);
-        } else if (touch) {
-            accessRecord(record, now);
+        } else {
+            if (touch) {
+                accessRecord(record, now);
+            }
+            promote(key, record);
         }
         Object value = record == null ? null : record.getValue();
         value = mapServiceContext.interceptGet(interceptorRegistry, value);
@@ -608,6 +627,80 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         return mapServiceContext.toData(value);
     }
 
+    /**
+     * This method is called directly by user threads, in other words
+     * it is called outside of the partition threads.
+     */
+    @Override
+    public Object readLockFree(Data key) {
+        if (seqLock == null || !isLoaded()) {
+            return LOCK_FREE_READ_FAILED;
+        }
+        long now = getNow();
+        for (int attempt = 0; attempt < LOCK_FREE_READ_ATTEMPTS; attempt++) {
+            long stamp = seqLock.beginRead();
+            if (stamp == -1) {
+                continue;
+            }
+            Record record = storage.get(key);
+            Object value = record == null ? null : record.getValue();
+            boolean readable = isLockFreeReadable(key, record, now);
+            if (seqLock.validateRead(stamp)) {
+                return readable ? accessLockFree(record, value, now) : LOCK_FREE_READ_FAILED;
+            }
+        }
+        return LOCK_FREE_READ_FAILED;
+    }
+
+    /**
+     * Returns {@code false} if reading the record has to be left
+     * to the partition thread, since the read may mutate this
+     * record store or has to wait for a transaction.
+     */
+    private boolean isLockFreeReadable(Data key, Record record, long now) {
+        if (record == null) {
+            // misses may be loaded from the map loader
+            return !mapStoreContext.isMapLoader() && !isTransactionallyLocked(key);
+        }
+        return !isExpired(record, now, false) && !hasMaxIdle(record) && !isTransactionallyLocked(key);
+    }
+
+    private Object accessLockFree(Record record, Object value, long now) {
+        if (record != null) {
+            stats.increaseHitsConcurrently(now);
+            lockFreeAccesses.offer(record);
+            if (lockFreeAccessesScheduled.compareAndSet(false, true)) {
+                mapServiceContext.getNodeEngine().getOperationService().execute(new PartitionSpecificRunnable() {
+                    @Override
+                    public int getPartitionId() {
+                        return partitionId;
+                    }
+
+                    @Override
+                    public void run() {
+                        applyLockFreeAccesses();
+                    }
+                });
+            }
+        }
+        return mapServiceContext.interceptGet(interceptorRegistry, value);
+    }
+
+    /**
+     * Updates the records read by lock-free reads as if they were accessed
+     * on the partition thread, the hits of the record store are already
+     * counted by the readers. The expiration times stay the same, since
+     * only the records without max-idle are read lock-free.
+     */
+    private void applyLockFreeAccesses() {
+        lockFreeAccessesScheduled.set(false);
+        long now = getNow();
+        Record record;
+        while ((record = lockFreeAccesses.poll()) != null) {
+            record.onAccess(now);
+        }
+    }
+
     @Override
     public MapEntries getAll(Set<Data> keys, Address callerAddress) {
         checkIfLoaded();
@@ -879,7 +972,9 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
         if (store) {
             putIntoMapStore(record, key, newValue, now, transactionId);
         }
-        storage.put(key, record);
+        // e.g. an expired backup record is replaced
+        releaseReplacedSpilledValue(key);
+        record = storage.putAndGetStored(key, record);
         markRecordStoreExpirable(ttlMillis, maxIdleMillis);
         if (entryEventType == EntryEventType.LOADED) {
             mutationObserver.onLoadRecord(key, record, backup);
@@ -1296,12 +1391,14 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
 
     @Override
     public void reset() {
+        beginWrite();
         try {
             mutationObserver.onReset();
         } finally {
             mapDataStore.reset();
             storage.clear(false);
             stats.reset();
+            endWrite();
         }
     }
 
@@ -1312,6 +1409,15 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
 
     @Override
     public void clearPartition(boolean onShutdown, boolean onStorageDestroy) {
+        beginWrite();
+        try {
+            clearPartitionInternal(onShutdown, onStorageDestroy);
+        } finally {
+            endWrite();
+        }
+    }
+
+    private void clearPartitionInternal(boolean onShutdown, boolean onStorageDestroy) {
         clearLockStore();
         mapDataStore.reset();
 
@@ -1337,6 +1443,9 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
     }
 
     private void destroyStorageImmediate(boolean isDuringShutdown, boolean internal) {
+        if (seqLock != null) {
+            seqLock.retire();
+        }
         mutationObserver.onDestroy(isDuringShutdown, internal);
         // Destroy storage in the end
         storage.destroy(isDuringShutdown);
@@ -1351,8 +1460,13 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
      * @param internal         see {@link MutationObserver#onDestroy(boolean, boolean)}}
      */
     public void destroyStorageAfterClear(boolean isDuringShutdown, boolean internal) {
-        clearStorage(isDuringShutdown);
-        destroyStorageImmediate(isDuringShutdown, internal);
+        beginWrite();
+        try {
+            clearStorage(isDuringShutdown);
+            destroyStorageImmediate(isDuringShutdown, internal);
+        } finally {
+            endWrite();
+        }
     }
 
     private void clearStorage(boolean isDuringShutdown) {
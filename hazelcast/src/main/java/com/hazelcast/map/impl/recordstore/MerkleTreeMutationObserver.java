@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.wan.impl.merkletree.ArrayMerkleTree;
+import com.hazelcast.wan.impl.merkletree.MerkleTree;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.internal.util.HashUtil.MurmurHash3_fmix;
+
+/**
+ * Keeps the {@link MerkleTree} of a {@link RecordStore} up to date.
+ * <p>
+ * The leaf of an entry is selected by the hash of its serialized key,
+ * and the entry contributes to the hash of the leaf with a hash mixing
+ * the hashes of its serialized key and value. The hashes are thus the
+ * same on all replicas, independent of the in-memory format. Metadata
+ * of the records, like their expiration times, is not hashed.
+ * <p>
+ * With the {@link InMemoryFormat#OBJECT OBJECT} in-memory format, the
+ * stored values may be mutated in place and their serialized form may
+ * change, so the hash contributed by each key is remembered and exactly
+ * that hash is removed from the tree when the entry is updated or
+ * removed. With the other formats, it is recomputed from the stored
+ * serialized value.
+ * <p>
+ * Like the record store itself, the tree is only mutated on the
+ * partition thread.
+ */
+class MerkleTreeMutationObserver implements MutationObserver<Record> {
+
+    private final MerkleTree merkleTree;
+    private final SerializationService ss;
+    // the hashes contributed by the keys, null if they are recomputed from the stored values
+    private final Map<Data, Integer> entryHashes;
+
+    MerkleTreeMutationObserver(int depth, SerializationService ss, InMemoryFormat inMemoryFormat) {
+        this.merkleTree = new ArrayMerkleTree(depth);
+        this.ss = ss;
+        this.entryHashes = inMemoryFormat == InMemoryFormat.OBJECT ? new HashMap<>() : null;
+    }
+
+    MerkleTree getMerkleTree() {
+        return merkleTree;
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        add(key, record.getValue());
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        add(key, record.getValue());
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record,
+                               Object oldValue, Object newValue, boolean backup) {
+        Integer oldHash = entryHashes != null ? entryHashes.get(key) : entryHash(key, oldValue);
+        Integer newHash = entryHash(key, record.getValue());
+        if (entryHashes != null) {
+            entryHashes.put(key, newHash);
+        }
+        if (oldHash == null) {
+            merkleTree.updateAdd(key, newHash);
+        } else {
+            merkleTree.updateReplace(key, oldHash, newHash);
+        }
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        remove(key, record.getValue());
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        remove(key, record.getValue());
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        add(key, record.getValue());
+    }
+
+    @Override
+    public void onReset() {
+        clear();
+    }
+
+    @Override
+    public void onClear() {
+        clear();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        clear();
+    }
+
+    private void add(Data key, Object value) {
+        Integer hash = entryHash(key, value);
+        if (entryHashes != null) {
+            entryHashes.put(key, hash);
+        }
+        merkleTree.updateAdd(key, hash);
+    }
+
+    private void remove(Data key, Object value) {
+        Integer hash = entryHashes != null ? entryHashes.remove(key) : entryHash(key, value);
+        if (hash != null) {
+            merkleTree.updateRemove(key, hash);
+        }
+    }
+
+    private void clear() {
+        merkleTree.clear();
+        if (entryHashes != null) {
+            entryHashes.clear();
+        }
+    }
+
+    private Integer entryHash(Data key, Object value) {
+        Data dataValue = ss.toData(value);
+        int valueHash = dataValue == null ? 0 : dataValue.hashCode();
+        return MurmurHash3_fmix(key.hashCode() ^ valueHash);
+    }
+}
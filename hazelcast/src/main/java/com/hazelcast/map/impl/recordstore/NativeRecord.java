@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordReaderWriter;
+import com.hazelcast.query.impl.Metadata;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+
+/**
+ * Flyweight {@link Record} over an off-heap entry block of a {@link NativeStorage}.
+ * <p>
+ * Entry block layout:
+ * <pre>
+ * +----------------+----------------+----------------+
+ * | next entry     | value address  | version        |  3 x long
+ * +----------------+----------------+----------------+
+ * | key size       | value size     | ttl            |
+ * | max idle       | hits           | last access    |  10 x int
+ * | last update    | creation       | last stored    |
+ * | expiration     |                                 |
+ * +----------------+---------------------------------+
+ * | key bytes ...                                    |
+ * +--------------------------------------------------+
+ * </pre>
+ * Value bytes are kept in a separate block so that a value update
+ * does not move the entry block, which keeps previously handed out
+ * flyweights valid until the entry is removed and its block is disposed.
+ * <p>
+ * {@link Metadata} is not stored off-heap, it is recomputed on demand.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+final class NativeRecord implements Record<Data> {
+
+    static final int NEXT_OFFSET = 0;
+    static final int VALUE_ADDRESS_OFFSET = 8;
+    static final int VERSION_OFFSET = 16;
+    static final int KEY_SIZE_OFFSET = 24;
+    static final int VALUE_SIZE_OFFSET = 28;
+    static final int TTL_OFFSET = 32;
+    static final int MAX_IDLE_OFFSET = 36;
+    static final int HITS_OFFSET = 40;
+    static final int LAST_ACCESS_TIME_OFFSET = 44;
+    static final int LAST_UPDATE_TIME_OFFSET = 48;
+    static final int CREATION_TIME_OFFSET = 52;
+    static final int LAST_STORED_TIME_OFFSET = 56;
+    static final int EXPIRATION_TIME_OFFSET = 60;
+    static final int HEADER_SIZE = 64;
+
+    private final NativeStorage storage;
+    private final MemoryAccessor mem;
+    private final long address;
+
+    NativeRecord(NativeStorage storage, long address) {
+        assert address != NULL_ADDRESS;
+        this.storage = storage;
+        this.mem = storage.mem();
+        this.address = address;
+    }
+
+    long address() {
+        return address;
+    }
+
+    int keySize() {
+        return mem.getInt(address + KEY_SIZE_OFFSET);
+    }
+
+    int valueSize() {
+        return mem.getInt(address + VALUE_SIZE_OFFSET);
+    }
+
+    long valueAddress() {
+        return mem.getLong(address + VALUE_ADDRESS_OFFSET);
+    }
+
+    Data getKey() {
+        byte[] bytes = new byte[keySize()];
+        mem.copyToByteArray(address + HEADER_SIZE, bytes, 0, bytes.length);
+        return new HeapData(bytes);
+    }
+
+    @Override
+    public Data getValue() {
+        long valueAddress = valueAddress();
+        if (valueAddress == NULL_ADDRESS) {
+            return null;
+        }
+        byte[] bytes = new byte[valueSize()];
+        mem.copyToByteArray(valueAddress, bytes, 0, bytes.length);
+        return new HeapData(bytes);
+    }
+
+    @Override
+    public void setValue(Data value) {
+        storage.writeValue(address, value);
+    }
+
+    /**
+     * @return off-heap footprint of this entry, key and value included
+     */
+    @Override
+    public long getCost() {
+        return HEADER_SIZE + keySize() + valueSize();
+    }
+
+    @Override
+    public long getVersion() {
+        return mem.getLong(address + VERSION_OFFSET);
+    }
+
+    @Override
+    public void setVersion(long version) {
+        mem.putLong(address + VERSION_OFFSET, version);
+    }
+
+    @Override
+    public Object getCachedValueUnsafe() {
+        return Record.NOT_CACHED;
+    }
+
+    @Override
+    public boolean casCachedValue(Object expectedValue, Object newValue) {
+        return true;
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return recomputeWithBaseTime(getRawLastAccessTime());
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        setRawLastAccessTime(stripBaseTime(lastAccessTime));
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return recomputeWithBaseTime(getRawLastUpdateTime());
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdateTime) {
+        setRawLastUpdateTime(stripBaseTime(lastUpdateTime));
+    }
+
+    @Override
+    public long getCreationTime() {
+        return recomputeWithBaseTime(getRawCreationTime());
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        setRawCreationTime(stripBaseTime(creationTime));
+    }
+
+    @Override
+    public int getHits() {
+        return mem.getInt(address + HITS_OFFSET);
+    }
+
+    @Override
+    public void setHits(int hits) {
+        mem.putInt(address + HITS_OFFSET, hits);
+    }
+
+    @Override
+    public long getExpirationTime() {
+        int expirationTime = getRawExpirationTime();
+        if (expirationTime == UNSET) {
+            return 0L;
+        }
+
+        if (expirationTime == Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        return recomputeWithBaseTime(expirationTime);
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        setRawExpirationTime(expirationTime == Long.MAX_VALUE
+                ? Integer.MAX_VALUE
+                : stripBaseTime(expirationTime));
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        int lastStoredTime = getRawLastStoredTime();
+        if (lastStoredTime == UNSET) {
+            return 0L;
+        }
+
+        return recomputeWithBaseTime(lastStoredTime);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        setRawLastStoredTime(stripBaseTime(lastStoredTime));
+    }
+
+    @Override
+    public long getSequence() {
+        return UNSET;
+    }
+
+    @Override
+    public void setSequence(long sequence) {
+    }
+
+    @Override
+    public void setMetadata(Metadata metadata) {
+    }
+
+    @Override
+    public Metadata getMetadata() {
+        return null;
+    }
+
+    @Override
+    public RecordReaderWriter getMatchingRecordReaderWriter() {
+        return DATA_RECORD_WITH_STATS_READER_WRITER;
+    }
+
+    @Override
+    public int getRawTtl() {
+        return mem.getInt(address + TTL_OFFSET);
+    }
+
+    @Override
+    public int getRawMaxIdle() {
+        return mem.getInt(address + MAX_IDLE_OFFSET);
+    }
+
+    @Override
+    public int getRawCreationTime() {
+        return mem.getInt(address + CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public int getRawLastAccessTime() {
+        return mem.getInt(address + LAST_ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public int getRawLastUpdateTime() {
+        return mem.getInt(address + LAST_UPDATE_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawTtl(int ttl) {
+        mem.putInt(address + TTL_OFFSET, ttl);
+    }
+
+    @Override
+    public void setRawMaxIdle(int maxIdle) {
+        mem.putInt(address + MAX_IDLE_OFFSET, maxIdle);
+    }
+
+    @Override
+    public void setRawCreationTime(int creationTime) {
+        mem.putInt(address + CREATION_TIME_OFFSET, creationTime);
+    }
+
+    @Override
+    public void setRawLastAccessTime(int lastAccessTime) {
+        mem.putInt(address + LAST_ACCESS_TIME_OFFSET, lastAccessTime);
+    }
+
+    @Override
+    public void setRawLastUpdateTime(int lastUpdateTime) {
+        mem.putInt(address + LAST_UPDATE_TIME_OFFSET, lastUpdateTime);
+    }
+
+    @Override
+    public int getRawLastStoredTime() {
+        return mem.getInt(address + LAST_STORED_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawLastStoredTime(int time) {
+        mem.putInt(address + LAST_STORED_TIME_OFFSET, time);
+    }
+
+    @Override
+    public int getRawExpirationTime() {
+        return mem.getInt(address + EXPIRATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setRawExpirationTime(int time) {
+        mem.putInt(address + EXPIRATION_TIME_OFFSET, time);
+    }
+
+    /**
+     * Copies all metadata of the given record into this entry block.
+     */
+    void copyMetadataFrom(Record record) {
+        setVersion(record.getVersion());
+        setRawTtl(record.getRawTtl());
+        setRawMaxIdle(record.getRawMaxIdle());
+        setRawCreationTime(record.getRawCreationTime());
+        setRawLastAccessTime(record.getRawLastAccessTime());
+        setRawLastUpdateTime(record.getRawLastUpdateTime());
+        setHits(record.getHits());
+        setLastStoredTime(record.getLastStoredTime());
+        setExpirationTime(record.getExpirationTime());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NativeRecord)) {
+            return false;
+        }
+        NativeRecord that = (NativeRecord) o;
+        return address == that.address && storage == that.storage;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (address ^ (address >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "NativeRecord{"
+                + "address=" + address
+                + ", version=" + getVersion()
+                + ", hits=" + getHits()
+                + ", keySize=" + keySize()
+                + ", valueSize=" + valueSize()
+                + '}';
+    }
+}
@@ -0,0 +1,581 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.hashslot.SlotAssignmentResult;
+import com.hazelcast.internal.util.hashslot.impl.HashSlotArray8byteKeyImpl;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.memory.impl.AlignmentUtil.IS_PLATFORM_BIG_ENDIAN;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.readLong;
+import static com.hazelcast.map.impl.OwnedEntryCostEstimatorFactory.createMapSizeEstimator;
+import static com.hazelcast.map.impl.recordstore.NativeRecord.HEADER_SIZE;
+import static com.hazelcast.map.impl.recordstore.NativeRecord.KEY_SIZE_OFFSET;
+import static com.hazelcast.map.impl.recordstore.NativeRecord.NEXT_OFFSET;
+import static com.hazelcast.map.impl.recordstore.NativeRecord.VALUE_ADDRESS_OFFSET;
+import static com.hazelcast.map.impl.recordstore.NativeRecord.VALUE_SIZE_OFFSET;
+
+/**
+ * {@link Storage} implementation for {@link com.hazelcast.config.InMemoryFormat#NATIVE}
+ * maps which keeps keys, values and record metadata in off-heap blocks.
+ * <p>
+ * Entries are indexed by the 64-bit hash of their key in a
+ * {@link HashSlotArray8byteKeyImpl}. Each slot holds the address of
+ * the first entry block of a collision chain, see {@link NativeRecord}
+ * for the entry block layout. Records handed out by this storage are
+ * flyweights over entry blocks, so the only per-entry heap allocation
+ * is transient.
+ * <p>
+ * Removed entry blocks and replaced value blocks are not freed
+ * immediately since flyweights referring to them may still be in use
+ * by the current operation; they are released on
+ * {@link #disposeDeferredBlocks()}.
+ * <p>
+ * Like all {@link Storage} implementations, this one is not thread-safe
+ * and must only be accessed by the owning partition thread.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public class NativeStorage implements Storage<Data, Record> {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int CHAIN_HEAD_LENGTH = 8;
+    private static final int INITIAL_DEFERRED_CAPACITY = 16;
+
+    private final MemoryManager memoryManager;
+    private final MemoryAllocator malloc;
+    private final MemoryAccessor mem;
+    private final SerializationService serializationService;
+    private final ChainHeads chainHeads;
+
+    // pairs of (address, size) of removed entry and replaced value blocks
+    private long[] deferredBlocks = new long[INITIAL_DEFERRED_CAPACITY];
+    private int deferredBlockCount;
+    private int size;
+
+    // not final for testing purposes.
+    private EntryCostEstimator<Data, Record> entryCostEstimator;
+
+    public NativeStorage(SerializationService serializationService, MemoryManager memoryManager) {
+        this.serializationService = serializationService;
+        this.memoryManager = memoryManager;
+        this.malloc = memoryManager.getAllocator();
+        this.mem = memoryManager.getAccessor();
+        this.entryCostEstimator = createMapSizeEstimator(NATIVE);
+        this.chainHeads = new ChainHeads(memoryManager);
+        this.chainHeads.gotoNew();
+    }
+
+    MemoryAccessor mem() {
+        return mem;
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        putAndGetStored(key, record);
+    }
+
+    /**
+     * Copies the given record off-heap, the returned flyweight is
+     * the record to be mutated afterwards.
+     */
+    @Override
+    public Record putAndGetStored(Data key, Record record) {
+        long hash = key.hash64();
+        long entryAddress = find(key, hash);
+        if (entryAddress != NULL_ADDRESS) {
+            NativeRecord existing = new NativeRecord(this, entryAddress);
+            if (existing.equals(record)) {
+                return existing;
+            }
+            updateCostEstimate(-entryCostEstimator.calculateValueCost(existing));
+            writeValue(entryAddress, toData(record.getValue()));
+            existing.copyMetadataFrom(record);
+            updateCostEstimate(entryCostEstimator.calculateValueCost(existing));
+            return existing;
+        }
+
+        byte[] keyBytes = key.toByteArray();
+        entryAddress = malloc.allocate(HEADER_SIZE + keyBytes.length);
+        mem.putInt(entryAddress + KEY_SIZE_OFFSET, keyBytes.length);
+        mem.copyFromByteArray(keyBytes, 0, entryAddress + HEADER_SIZE, keyBytes.length);
+        NativeRecord nativeRecord = new NativeRecord(this, entryAddress);
+        nativeRecord.copyMetadataFrom(record);
+        SlotAssignmentResult slot;
+        try {
+            writeValue(entryAddress, toData(record.getValue()));
+            slot = chainHeads.ensure(hash);
+        } catch (NativeOutOfMemoryError e) {
+            // the entry block isn't linked yet, nothing can refer to it
+            freeValue(entryAddress);
+            malloc.free(entryAddress, HEADER_SIZE + keyBytes.length);
+            throw e;
+        }
+        if (!slot.isNew()) {
+            mem.putLong(entryAddress + NEXT_OFFSET, mem.getLong(slot.address()));
+        }
+        mem.putLong(slot.address(), entryAddress);
+        size++;
+
+        updateCostEstimate(entryCostEstimator.calculateEntryCost(key, nativeRecord));
+        return nativeRecord;
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        if (!(record instanceof NativeRecord)) {
+            // not stored yet, e.g. post-processed by the map store before the put
+            record.setValue(serializationService.toData(value));
+            return;
+        }
+        updateCostEstimate(-entryCostEstimator.calculateValueCost(record));
+
+        record.setValue(serializationService.toData(value));
+
+        updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+    }
+
+    @Override
+    public Record get(Data key) {
+        long entryAddress = find(key, key.hash64());
+        return entryAddress == NULL_ADDRESS ? null : new NativeRecord(this, entryAddress);
+    }
+
+    @Override
+    public Record getIfSameKey(Data key) {
+        // keys are always copied off-heap, there is no way
+        // to be handed out the stored key blob itself
+        return get(key);
+    }
+
+    @Override
+    public void removeRecord(Data dataKey, @Nonnull Record record) {
+        long hash = dataKey.hash64();
+        long headAddress = chainHeads.get(hash);
+        if (headAddress == NULL_ADDRESS) {
+            return;
+        }
+
+        long prevAddress = NULL_ADDRESS;
+        long entryAddress = mem.getLong(headAddress);
+        while (entryAddress != NULL_ADDRESS) {
+            long nextAddress = mem.getLong(entryAddress + NEXT_OFFSET);
+            if (keyEquals(entryAddress, dataKey)) {
+                if (prevAddress != NULL_ADDRESS) {
+                    mem.putLong(prevAddress + NEXT_OFFSET, nextAddress);
+                } else if (nextAddress != NULL_ADDRESS) {
+                    mem.putLong(headAddress, nextAddress);
+                } else {
+                    chainHeads.remove(hash);
+                }
+                size--;
+                updateCostEstimate(-entryCostEstimator.calculateEntryCost(dataKey, new NativeRecord(this, entryAddress)));
+                freeValue(entryAddress);
+                deferFree(entryAddress, HEADER_SIZE + mem.getInt(entryAddress + KEY_SIZE_OFFSET));
+                return;
+            }
+            prevAddress = entryAddress;
+            entryAddress = nextAddress;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return find(key, key.hash64()) != NULL_ADDRESS;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Data, Record>> mutationTolerantIterator() {
+        return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        for (long slot = chainHeads.capacity() - 1; slot >= 0; slot--) {
+            long entryAddress = chainHeads.headAt(slot);
+            while (entryAddress != NULL_ADDRESS) {
+                long nextAddress = mem.getLong(entryAddress + NEXT_OFFSET);
+                freeValue(entryAddress);
+                deferFree(entryAddress, HEADER_SIZE + mem.getInt(entryAddress + KEY_SIZE_OFFSET));
+                entryAddress = nextAddress;
+            }
+        }
+        chainHeads.clear();
+        size = 0;
+
+        entryCostEstimator.reset();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+        disposeDeferredBlocks();
+        chainHeads.dispose();
+    }
+
+    @Override
+    public void disposeDeferredBlocks() {
+        for (int i = 0; i < deferredBlockCount; i += 2) {
+            malloc.free(deferredBlocks[i], deferredBlocks[i + 1]);
+        }
+        deferredBlockCount = 0;
+        if (deferredBlocks.length > INITIAL_DEFERRED_CAPACITY) {
+            deferredBlocks = new long[INITIAL_DEFERRED_CAPACITY];
+        }
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        return entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        this.entryCostEstimator = entryCostEstimator;
+    }
+
+    @Override
+    public Iterable<EntryView> getRandomSamples(int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        List<EntryView> samples = new ArrayList<>(sampleCount);
+        long capacity = chainHeads.capacity();
+        if (sampleCount == 0 || size == 0) {
+            return samples;
+        }
+        long startSlot = ThreadLocalRandom.current().nextLong(capacity);
+        for (long i = 0; i < capacity && samples.size() < sampleCount; i++) {
+            long entryAddress = chainHeads.headAt((startSlot + i) & (capacity - 1));
+            while (entryAddress != NULL_ADDRESS && samples.size() < sampleCount) {
+                NativeRecord record = new NativeRecord(this, entryAddress);
+                samples.add(new LazyEvictableEntryView<>(record.getKey(), record, serializationService));
+                entryAddress = mem.getLong(entryAddress + NEXT_OFFSET);
+            }
+        }
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(IterationPointer[] pointers, int size) {
+        List<Data> keys = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size, (key, record) -> keys.add(key));
+        return new MapKeysWithCursor(keys, newPointers);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(IterationPointer[] pointers, int size) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size,
+                (key, record) -> entries.add(new AbstractMap.SimpleEntry<>(key, record.getValue())));
+        return new MapEntriesWithCursor(entries, newPointers);
+    }
+
+    @Override
+    public Record extractRecordFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getRecord();
+    }
+
+    @Override
+    public Data extractDataKeyFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getDataKey();
+    }
+
+    @Override
+    public Data toBackingDataKeyFormat(Data key) {
+        return key;
+    }
+
+    /**
+     * Replaces the value block of the given entry block with a new one
+     * holding {@code value}. The previous value block is freed on
+     * {@link #disposeDeferredBlocks()}, since a value being copied
+     * on-heap may still be read from it. The entry block is left intact
+     * if the new value block can't be allocated.
+     */
+    void writeValue(long entryAddress, Data value) {
+        if (value == null) {
+            freeValue(entryAddress);
+            return;
+        }
+        byte[] valueBytes = value.toByteArray();
+        long valueAddress = malloc.allocate(valueBytes.length);
+        mem.copyFromByteArray(valueBytes, 0, valueAddress, valueBytes.length);
+        freeValue(entryAddress);
+        mem.putLong(entryAddress + VALUE_ADDRESS_OFFSET, valueAddress);
+        mem.putInt(entryAddress + VALUE_SIZE_OFFSET, valueBytes.length);
+    }
+
+    private void freeValue(long entryAddress) {
+        long valueAddress = mem.getLong(entryAddress + VALUE_ADDRESS_OFFSET);
+        if (valueAddress != NULL_ADDRESS) {
+            deferFree(valueAddress, mem.getInt(entryAddress + VALUE_SIZE_OFFSET));
+            mem.putLong(entryAddress + VALUE_ADDRESS_OFFSET, NULL_ADDRESS);
+            mem.putInt(entryAddress + VALUE_SIZE_OFFSET, 0);
+        }
+    }
+
+    private void deferFree(long address, long blockSize) {
+        if (deferredBlockCount == deferredBlocks.length) {
+            deferredBlocks = Arrays.copyOf(deferredBlocks, deferredBlocks.length << 1);
+        }
+        deferredBlocks[deferredBlockCount++] = address;
+        deferredBlocks[deferredBlockCount++] = blockSize;
+    }
+
+    private long find(Data key, long hash) {
+        long headAddress = chainHeads.get(hash);
+        if (headAddress == NULL_ADDRESS) {
+            return NULL_ADDRESS;
+        }
+        long entryAddress = mem.getLong(headAddress);
+        while (entryAddress != NULL_ADDRESS) {
+            if (keyEquals(entryAddress, key)) {
+                return entryAddress;
+            }
+            entryAddress = mem.getLong(entryAddress + NEXT_OFFSET);
+        }
+        return NULL_ADDRESS;
+    }
+
+    /**
+     * Compares the stored key bytes in place with the given key, a long at
+     * a time. The bytes of a {@link com.hazelcast.internal.serialization.impl.HeapData}
+     * key are not copied by {@link Data#toByteArray()}.
+     */
+    private boolean keyEquals(long entryAddress, Data key) {
+        int keySize = mem.getInt(entryAddress + KEY_SIZE_OFFSET);
+        if (keySize != key.totalSize()) {
+            return false;
+        }
+        byte[] keyBytes = key.toByteArray();
+        long keyAddress = entryAddress + HEADER_SIZE;
+        int i = 0;
+        for (; i <= keySize - LONG_SIZE_IN_BYTES; i += LONG_SIZE_IN_BYTES) {
+            if (mem.getLong(keyAddress + i) != readLong(keyBytes, i, IS_PLATFORM_BIG_ENDIAN)) {
+                return false;
+            }
+        }
+        for (; i < keySize; i++) {
+            if (mem.getByte(keyAddress + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Data toData(Object value) {
+        return value == null ? null : serializationService.toData(value);
+    }
+
+    private void updateCostEstimate(long entrySize) {
+        entryCostEstimator.adjustEstimateBy(entrySize);
+    }
+
+    /**
+     * Fetches at least {@code size} entries, walking the home slots from the
+     * highest to the lowest index, in the same fashion as
+     * {@link com.hazelcast.internal.util.SampleableConcurrentHashMap} walks
+     * its buckets. See {@link OpenAddressingStorage} for the details.
+     */
+    private IterationPointer[] fetchNext(IterationPointer[] pointers, int size,
+                                         BiConsumer<Data, NativeRecord> entryConsumer) {
+        int capacity = (int) chainHeads.capacity();
+        pointers = checkPointers(pointers, capacity);
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+
+        int nextHome = lastPointer.getIndex() >= 0 && lastPointer.getIndex() < capacity
+                ? lastPointer.getIndex() : capacity - 1;
+        int counter = 0;
+        while (nextHome >= 0 && counter < size) {
+            int home = nextHome--;
+            for (long slot = home; chainHeads.isAssignedAt(slot); slot = (slot + 1) & (capacity - 1)) {
+                long hash = chainHeads.keyAt(slot);
+                if (chainHeads.homeSlot(hash, capacity) != home || !hasNotBeenObserved(hash, pointers)) {
+                    continue;
+                }
+                long entryAddress = chainHeads.headAt(slot);
+                while (entryAddress != NULL_ADDRESS) {
+                    NativeRecord record = new NativeRecord(this, entryAddress);
+                    entryConsumer.accept(record.getKey(), record);
+                    counter++;
+                    entryAddress = mem.getLong(entryAddress + NEXT_OFFSET);
+                }
+            }
+        }
+        lastPointer.setIndex(nextHome);
+        return pointers;
+    }
+
+    private static IterationPointer[] checkPointers(IterationPointer[] pointers, int currentCapacity) {
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+        boolean iterationStarted = lastPointer.getSize() == -1;
+        boolean resized = lastPointer.getSize() != currentCapacity;
+        int newLength = !iterationStarted && resized ? pointers.length + 1 : pointers.length;
+
+        IterationPointer[] updatedPointers = new IterationPointer[newLength];
+        for (int i = 0; i < pointers.length; i++) {
+            updatedPointers[i] = new IterationPointer(pointers[i]);
+        }
+        if (iterationStarted || resized) {
+            updatedPointers[updatedPointers.length - 1] = new IterationPointer(Integer.MAX_VALUE, currentCapacity);
+        }
+        return updatedPointers;
+    }
+
+    private boolean hasNotBeenObserved(long hash, IterationPointer[] pointers) {
+        for (int i = 0; i < pointers.length - 1; i++) {
+            IterationPointer pointer = pointers[i];
+            if (chainHeads.homeSlot(hash, pointer.getSize()) > pointer.getIndex()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash slot array mapping key hashes to collision chain heads, with
+     * direct slot access for cursor-less, resumable iteration.
+     */
+    private static final class ChainHeads extends HashSlotArray8byteKeyImpl {
+
+        ChainHeads(MemoryManager memoryManager) {
+            super(NULL_ADDRESS, memoryManager, CHAIN_HEAD_LENGTH, DEFAULT_INITIAL_CAPACITY, LOAD_FACTOR);
+        }
+
+        boolean isAssignedAt(long slot) {
+            return isAssigned(address(), slot);
+        }
+
+        long keyAt(long slot) {
+            return key1OfSlot(address(), slot);
+        }
+
+        long headAt(long slot) {
+            long baseAddress = address();
+            return isAssigned(baseAddress, slot)
+                    ? mem().getLong(slotBase(baseAddress, slot) + CHAIN_HEAD_LENGTH) : NULL_ADDRESS;
+        }
+
+        long homeSlot(long hash, int capacity) {
+            return keyHash(hash, 0) & (capacity - 1);
+        }
+    }
+
+    /**
+     * Walks the home slots the same way as {@link #fetchNext}, one home slot
+     * at a time. Only the keys of the entries of the current home slot are
+     * copied on-heap, the entries are looked up by these keys as the
+     * iteration proceeds. The home slot of an entry doesn't change when the
+     * removals shift the slot array and the resizes are tracked with the
+     * iteration pointers, so no entry is returned twice or skipped. Removed
+     * entries are skipped, entries added in the meantime may or may not be
+     * returned.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<Data, Record>> {
+
+        private final List<Data> homeKeys = new ArrayList<>();
+        private IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        private int homeKeyIndex;
+        private Data nextKey;
+        private long nextAddress = NULL_ADDRESS;
+        private Data lastReturnedKey;
+        private NativeRecord lastReturnedRecord;
+
+        @Override
+        public boolean hasNext() {
+            while (nextAddress == NULL_ADDRESS) {
+                if (homeKeyIndex == homeKeys.size() && !fetchNextHome()) {
+                    return false;
+                }
+                nextKey = homeKeys.get(homeKeyIndex++);
+                nextAddress = find(nextKey, nextKey.hash64());
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<Data, Record> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturnedKey = nextKey;
+            lastReturnedRecord = new NativeRecord(NativeStorage.this, nextAddress);
+            nextKey = null;
+            nextAddress = NULL_ADDRESS;
+            return new AbstractMap.SimpleEntry<>(lastReturnedKey, lastReturnedRecord);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturnedKey == null) {
+                throw new IllegalStateException();
+            }
+            removeRecord(lastReturnedKey, lastReturnedRecord);
+            lastReturnedKey = null;
+            lastReturnedRecord = null;
+        }
+
+        private boolean fetchNextHome() {
+            homeKeys.clear();
+            homeKeyIndex = 0;
+            while (homeKeys.isEmpty()) {
+                IterationPointer lastPointer = pointers[pointers.length - 1];
+                if (lastPointer.getIndex() < 0 && lastPointer.getSize() == chainHeads.capacity()) {
+                    return false;
+                }
+                pointers = fetchNext(pointers, 1, (key, record) -> homeKeys.add(key));
+            }
+            return true;
+        }
+    }
+}
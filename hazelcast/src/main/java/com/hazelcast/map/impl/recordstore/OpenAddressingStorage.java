@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.Record;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static com.hazelcast.internal.util.HashUtil.fastIntMix;
+import static com.hazelcast.map.impl.OwnedEntryCostEstimatorFactory.createMapSizeEstimator;
+
+/**
+ * {@link Storage} implementation backed by a single-writer open-addressing
+ * hash table. The table is only ever mutated by the partition thread of the
+ * record store, but it may be read concurrently by other threads, e.g. by
+ * queries running on the query threads or by SQL scans.
+ * <p>
+ * Keys, records and key hashes are kept in parallel arrays and collisions
+ * are resolved by linear probing. Compared to {@link StorageImpl} there is
+ * no per-entry node object and no segment lock, and full scans walk plain
+ * arrays.
+ * <p>
+ * To keep concurrent readers safe, a key slot only ever goes from empty to
+ * a key and from the key to a tombstone, and the entries never move within
+ * a table. The keys and records are published with ordered writes, so a
+ * reader which observes a key also observes its hash and a fully
+ * constructed record. Removal leaves a tombstone behind, and when the live
+ * entries and the tombstones exceed the load factor, the entries are copied
+ * into a new table which is then published with a volatile write. Readers
+ * therefore always see either the old or the new table, never a partially
+ * filled one.
+ * <p>
+ * Iteration walks the home slots from the highest to the lowest index. The
+ * home slot of an entry only depends on its hash and the table capacity, so
+ * iterators see every entry which is not removed during the iteration
+ * exactly once, across removals and table copies.
+ *
+ * @param <R> the value type to be put in this storage.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public class OpenAddressingStorage<R extends Record> implements Storage<Data, R> {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final Data TOMBSTONE = new HeapData();
+
+    private final SerializationService serializationService;
+    private final InMemoryFormat inMemoryFormat;
+
+    private volatile Table table;
+    private volatile int size;
+    // the number of the non-empty key slots, including the tombstones
+    private int used;
+    private int resizeThreshold;
+
+    // not final for testing purposes.
+    private EntryCostEstimator<Data, Record> entryCostEstimator;
+
+    OpenAddressingStorage(InMemoryFormat inMemoryFormat, SerializationService serializationService) {
+        this.entryCostEstimator = createMapSizeEstimator(inMemoryFormat);
+        this.inMemoryFormat = inMemoryFormat;
+        this.serializationService = serializationService;
+        allocate(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void put(Data key, R record) {
+        Table table = this.table;
+        int hash = hashOf(key);
+        int slot = hash & table.mask;
+        for (Data slotKey; (slotKey = table.keys.get(slot)) != null; slot = (slot + 1) & table.mask) {
+            if (slotKey != TOMBSTONE && table.hashes[slot] == hash && slotKey.equals(key)) {
+                Record previousRecord = table.records.get(slot);
+                table.records.lazySet(slot, record);
+                updateCostEstimate(-entryCostEstimator.calculateValueCost(previousRecord));
+                updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+                updateCompressionSavings(-entryCostEstimator.calculateCompressionSavings(previousRecord));
+                updateCompressionSavings(entryCostEstimator.calculateCompressionSavings(record));
+                return;
+            }
+        }
+
+        table.hashes[slot] = hash;
+        table.records.lazySet(slot, record);
+        table.keys.lazySet(slot, key);
+        updateCostEstimate(entryCostEstimator.calculateEntryCost(key, record));
+        updateCompressionSavings(entryCostEstimator.calculateCompressionSavings(record));
+        size = size + 1;
+        if (++used > resizeThreshold) {
+            // grow if the live entries fill the table, otherwise just drop the tombstones
+            copyTable(size > resizeThreshold >> 1 ? table.capacity() << 1 : table.capacity());
+        }
+    }
+
+    @Override
+    public void updateRecordValue(Data key, R record, Object value) {
+        updateCostEstimate(-entryCostEstimator.calculateValueCost(record));
+        updateCompressionSavings(-entryCostEstimator.calculateCompressionSavings(record));
+
+        record.setValue(inMemoryFormat == BINARY
+                ? serializationService.toData(value) : serializationService.toObject(value));
+
+        updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+        updateCompressionSavings(entryCostEstimator.calculateCompressionSavings(record));
+    }
+
+    @Override
+    public R get(Data key) {
+        Table table = this.table;
+        int slot = table.slotOf(key);
+        // the record of a concurrently removed entry reads as null
+        return slot < 0 ? null : (R) table.records.get(slot);
+    }
+
+    @Override
+    public R getIfSameKey(Data key) {
+        throw new UnsupportedOperationException("OpenAddressingStorage#getIfSameKey");
+    }
+
+    @Override
+    public void removeRecord(Data dataKey, @Nonnull R record) {
+        Table table = this.table;
+        int slot = table.slotOf(dataKey);
+        if (slot < 0) {
+            return;
+        }
+        Record removedRecord = table.records.get(slot);
+        updateCostEstimate(-entryCostEstimator.calculateEntryCost(dataKey, removedRecord));
+        updateCompressionSavings(-entryCostEstimator.calculateCompressionSavings(removedRecord));
+        table.keys.lazySet(slot, TOMBSTONE);
+        table.records.lazySet(slot, null);
+        size = size - 1;
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Data, R>> mutationTolerantIterator() {
+        return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        allocate(DEFAULT_INITIAL_CAPACITY);
+        size = 0;
+
+        entryCostEstimator.reset();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        return entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        this.entryCostEstimator = entryCostEstimator;
+    }
+
+    @Override
+    public Iterable<EntryView> getRandomSamples(int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        List<EntryView> samples = new ArrayList<>(sampleCount);
+        if (sampleCount == 0 || size == 0) {
+            return samples;
+        }
+        Table table = this.table;
+        int capacity = table.capacity();
+        int startSlot = ThreadLocalRandom.current().nextInt(capacity);
+        for (int i = 0; i < capacity && samples.size() < sampleCount; i++) {
+            int slot = (startSlot + i) & table.mask;
+            Data key = table.keys.get(slot);
+            if (key != null && key != TOMBSTONE) {
+                Record record = table.records.get(slot);
+                if (record != null) {
+                    samples.add(new LazyEvictableEntryView<>(key, record, serializationService));
+                }
+            }
+        }
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(IterationPointer[] pointers, int size) {
+        List<Data> keys = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size, (key, record) -> keys.add(key));
+        return new MapKeysWithCursor(keys, newPointers);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(IterationPointer[] pointers, int size) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(size);
+        IterationPointer[] newPointers = fetchNext(pointers, size, (key, record) -> {
+            Data dataValue = serializationService.toData(record.getValue());
+            entries.add(new AbstractMap.SimpleEntry<>(key, dataValue));
+        });
+        return new MapEntriesWithCursor(entries, newPointers);
+    }
+
+    @Override
+    public Record extractRecordFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getRecord();
+    }
+
+    @Override
+    public Data extractDataKeyFromLazy(EntryView entryView) {
+        return ((LazyEvictableEntryView) entryView).getDataKey();
+    }
+
+    @Override
+    public Data toBackingDataKeyFormat(Data key) {
+        return key;
+    }
+
+    private void updateCostEstimate(long entrySize) {
+        entryCostEstimator.adjustEstimateBy(entrySize);
+    }
+
+    private void updateCompressionSavings(long savings) {
+        if (savings != 0L) {
+            entryCostEstimator.adjustCompressionSavingsBy(savings);
+        }
+    }
+
+    private static int hashOf(Data key) {
+        return fastIntMix(key.hashCode());
+    }
+
+    private void allocate(int capacity) {
+        table = new Table(capacity);
+        used = 0;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Copies the live entries into a new table of the given capacity and
+     * publishes it. Concurrent readers keep reading the old table, which
+     * is not mutated anymore, until they observe the new one.
+     */
+    private void copyTable(int newCapacity) {
+        Table oldTable = this.table;
+        Table newTable = new Table(newCapacity);
+        int count = 0;
+        for (int i = 0; i < oldTable.capacity(); i++) {
+            Data key = oldTable.keys.get(i);
+            if (key == null || key == TOMBSTONE) {
+                continue;
+            }
+            int hash = oldTable.hashes[i];
+            int slot = hash & newTable.mask;
+            while (newTable.keys.get(slot) != null) {
+                slot = (slot + 1) & newTable.mask;
+            }
+            newTable.hashes[slot] = hash;
+            newTable.records.lazySet(slot, oldTable.records.get(i));
+            newTable.keys.lazySet(slot, key);
+            count++;
+        }
+        table = newTable;
+        used = count;
+        resizeThreshold = (int) (newCapacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Fetches at least {@code size} entries, walking the home slots from the
+     * highest to the lowest index, in the same fashion as
+     * {@link com.hazelcast.internal.util.SampleableConcurrentHashMap} walks
+     * its buckets. All entries with the same home slot are returned together,
+     * and since the home slot of an entry only depends on its hash and the
+     * table capacity, the iteration state stays exact across removals and
+     * table copies.
+     */
+    private IterationPointer[] fetchNext(IterationPointer[] pointers, int size,
+                                         BiConsumer<Data, Record> entryConsumer) {
+        Table table = this.table;
+        int capacity = table.capacity();
+        pointers = checkPointers(pointers, capacity);
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+
+        int nextHome = lastPointer.getIndex() >= 0 && lastPointer.getIndex() < capacity
+                ? lastPointer.getIndex() : capacity - 1;
+        int counter = 0;
+        while (nextHome >= 0 && counter < size) {
+            int home = nextHome--;
+            Data key;
+            for (int slot = home; (key = table.keys.get(slot)) != null; slot = (slot + 1) & table.mask) {
+                if (key == TOMBSTONE) {
+                    continue;
+                }
+                int hash = table.hashes[slot];
+                Record record = table.records.get(slot);
+                if (record != null && (hash & table.mask) == home && hasNotBeenObserved(hash, pointers)) {
+                    entryConsumer.accept(key, record);
+                    counter++;
+                }
+            }
+        }
+        lastPointer.setIndex(nextHome);
+        return pointers;
+    }
+
+    private static IterationPointer[] checkPointers(IterationPointer[] pointers, int currentCapacity) {
+        IterationPointer lastPointer = pointers[pointers.length - 1];
+        boolean iterationStarted = lastPointer.getSize() == -1;
+        boolean resized = lastPointer.getSize() != currentCapacity;
+        int newLength = !iterationStarted && resized ? pointers.length + 1 : pointers.length;
+
+        IterationPointer[] updatedPointers = new IterationPointer[newLength];
+        for (int i = 0; i < pointers.length; i++) {
+            updatedPointers[i] = new IterationPointer(pointers[i]);
+        }
+        if (iterationStarted || resized) {
+            updatedPointers[updatedPointers.length - 1] = new IterationPointer(Integer.MAX_VALUE, currentCapacity);
+        }
+        return updatedPointers;
+    }
+
+    /**
+     * Returns {@code true} if an entry with the given hash has not been
+     * observed with the iteration state of the {@code pointers} taken on
+     * the previous table sizes.
+     */
+    private static boolean hasNotBeenObserved(int hash, IterationPointer[] pointers) {
+        for (int i = 0; i < pointers.length - 1; i++) {
+            IterationPointer pointer = pointers[i];
+            if ((hash & (pointer.getSize() - 1)) > pointer.getIndex()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The parallel arrays of the hash table. Only the key and record slots
+     * are mutated after the table is published, the hash of a slot is
+     * written before its key.
+     */
+    private static final class Table {
+
+        final AtomicReferenceArray<Data> keys;
+        final AtomicReferenceArray<Record> records;
+        final int[] hashes;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new AtomicReferenceArray<>(capacity);
+            records = new AtomicReferenceArray<>(capacity);
+            hashes = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int capacity() {
+            return hashes.length;
+        }
+
+        int slotOf(Data key) {
+            int hash = hashOf(key);
+            Data slotKey;
+            for (int slot = hash & mask; (slotKey = keys.get(slot)) != null; slot = (slot + 1) & mask) {
+                if (slotKey != TOMBSTONE && hashes[slot] == hash && slotKey.equals(key)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Iterates over the entries in batches of the entries sharing a home
+     * slot, so that the iteration stays exact across table copies.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<Data, R>> {
+
+        private final ArrayDeque<Map.Entry<Data, R>> batch = new ArrayDeque<>();
+        private IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        private Map.Entry<Data, R> lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            if (batch.isEmpty() && pointers[pointers.length - 1].getIndex() >= 0) {
+                pointers = fetchNext(pointers, 1,
+                        (key, record) -> batch.add(new AbstractMap.SimpleEntry<>(key, (R) record)));
+            }
+            return !batch.isEmpty();
+        }
+
+        @Override
+        public Map.Entry<Data, R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = batch.poll();
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            removeRecord(lastReturned.getKey(), lastReturned.getValue());
+            lastReturned = null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.query.QueryResultCache;
+import com.hazelcast.map.impl.record.Record;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Invalidates the cached query results of the observed partition on
+ * every mutation of it.
+ * <p>
+ * The records are removed from the storage after the observers have
+ * been notified, so the cached results are invalidated once more when
+ * the write bracket of the mutating operation is closed, see
+ * {@link RecordStore#endWrite()}. Otherwise, a query run just between
+ * the notification and the removal could cache the removed record.
+ */
+class QueryResultCacheMutationObserver implements MutationObserver<Record> {
+
+    private final QueryResultCache queryResultCache;
+    private final int partitionId;
+
+    private boolean mutated;
+
+    QueryResultCacheMutationObserver(QueryResultCache queryResultCache, int partitionId) {
+        this.queryResultCache = queryResultCache;
+        this.partitionId = partitionId;
+    }
+
+    /**
+     * Called when the write bracket of an operation is closed.
+     */
+    void onEndWrite() {
+        if (mutated) {
+            mutated = false;
+            queryResultCache.invalidatePartition(partitionId);
+        }
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        invalidate();
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        invalidate();
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record,
+                               Object oldValue, Object newValue, boolean backup) {
+        invalidate();
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        invalidate();
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        invalidate();
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        invalidate();
+    }
+
+    @Override
+    public void onReset() {
+        invalidate();
+    }
+
+    @Override
+    public void onClear() {
+        invalidate();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        mutated = true;
+        queryResultCache.invalidatePartition(partitionId);
+    }
+}
@@ -38,6 +38,7 @@ import com.hazelcast.spi.exception.RetryableHazelcastException;
 import com.hazelcast.spi.merge.SplitBrainMergePolicy;
 import com.hazelcast.spi.merge.SplitBrainMergeTypes.MapMergeTypes;
 import com.hazelcast.wan.impl.CallerProvenance;
+import com.hazelcast.wan.impl.merkletree.MerkleTree;
 
 import java.util.Iterator;
 import java.util.List;
@@ -51,6 +52,12 @@ import java.util.function.BiConsumer;
  */
 public interface RecordStore<R extends Record> {
 
+    /**
+     * Returned by {@link #readLockFree(Data)} if the value
+     * could not be read outside the partition thread.
+     */
+    Object LOCK_FREE_READ_FAILED = new Object();
+
     LocalRecordStoreStats getLocalRecordStoreStats();
 
     String getName();
@@ -181,6 +188,33 @@ public interface RecordStore<R extends Record> {
     @SuppressWarnings("JavadocReference")
     Data readBackupData(Data key);
 
+    /**
+     * Reads the value of the given key directly from the calling thread,
+     * without running on the partition thread, see
+     * {@link com.hazelcast.spi.properties.ClusterProperty#MAP_LOCK_FREE_GET_ENABLED}.
+     * Runs the interceptors like {@link #get(Data, boolean, Address)}, the
+     * access of the read entry is recorded later by the partition thread.
+     *
+     * @param key key to be accessed
+     * @return the value or {@code null} if the key is absent, or
+     * {@link #LOCK_FREE_READ_FAILED} if the value has to be read on the
+     * partition thread
+     */
+    Object readLockFree(Data key);
+
+    /**
+     * Called by the partition thread before mutating this record store,
+     * makes concurrent {@link #readLockFree(Data) lock-free reads} fail
+     * until the matching {@link #endWrite()}. Calls may be nested.
+     */
+    void beginWrite();
+
+    /**
+     * Called by the partition thread after mutating this record store,
+     * see {@link #beginWrite()}.
+     */
+    void endWrite();
+
     MapEntries getAll(Set<Data> keySet, Address callerAddress);
 
     /**
@@ -365,6 +399,28 @@ public interface RecordStore<R extends Record> {
 
     Object evict(Data key, boolean backup);
 
+    /**
+     * Demotes the value of the given record to the lower tier of this
+     * record store instead of evicting the entry. The record stays in
+     * the record store, its value is promoted back on a get.
+     *
+     * @param dataKey the key of the record
+     * @param record  the record to demote
+     * @return {@code true} if the value has been demoted, {@code false}
+     * if the demotion is not enabled or the value has already been
+     * demoted
+     * @see com.hazelcast.spi.properties.ClusterProperty#MAP_TIERED_STORE_ENABLED
+     */
+    boolean demote(Data dataKey, R record);
+
+    /**
+     * Returns {@code true} if the values of this record store are demoted
+     * to its lower tier instead of being evicted, see {@link #demote(Data, Record)}.
+     * The values of indexed maps are not demoted, since the indexes keep
+     * referencing them, so demoting them would not free any heap.
+     */
+    boolean isDemotionEnabled();
+
     /**
      * Evicts all keys except locked ones.
      *
@@ -384,6 +440,22 @@ public interface RecordStore<R extends Record> {
 
     long getOwnedEntryCost();
 
+    /**
+     * Returns the cost of owned entries as if their values were not
+     * compressed, same as {@link #getOwnedEntryCost()} without value
+     * compression.
+     */
+    long getOwnedEntryRawCost();
+
+    /**
+     * Returns the Merkle tree of the entries of this record store,
+     * which is only kept if it is enabled in the {@link
+     * com.hazelcast.config.MerkleTreeConfig} of the map.
+     *
+     * @return the Merkle tree or {@code null} if it is not kept
+     */
+    MerkleTree getMerkleTree();
+
     boolean isEmpty();
 
     /**
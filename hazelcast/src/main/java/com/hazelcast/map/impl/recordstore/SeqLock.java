@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+
+/**
+ * Version stamp which lets other threads read a record store without
+ * locking while its partition thread mutates it.
+ * <p>
+ * The partition thread makes the stamp odd when it starts mutating the
+ * record store and even again when it is done, nested mutations keep the
+ * stamp odd until the outermost one is done. A reader takes the stamp
+ * before reading and validates it afterwards, the read is consistent if
+ * the stamp was even and has not changed in between. Once the storage of
+ * the record store has been destroyed, the stamp stays odd so all reads
+ * fail.
+ * <p>
+ * Only the partition thread calls {@link #beginWrite()},
+ * {@link #endWrite()} and {@link #retire()}.
+ */
+final class SeqLock {
+
+    private volatile long stamp;
+    // accessed only by the partition thread
+    private int writeDepth;
+    private boolean retired;
+
+    void beginWrite() {
+        if (writeDepth++ > 0 || retired) {
+            return;
+        }
+        stamp = stamp + 1;
+        // the mutations must not become visible before the odd stamp
+        UNSAFE.storeFence();
+    }
+
+    void endWrite() {
+        if (--writeDepth > 0 || retired) {
+            return;
+        }
+        stamp = stamp + 1;
+    }
+
+    /**
+     * Makes all subsequent reads fail, called when
+     * the storage of the record store is destroyed.
+     */
+    void retire() {
+        if (retired) {
+            return;
+        }
+        retired = true;
+        if ((stamp & 1) == 0) {
+            stamp = stamp + 1;
+        }
+    }
+
+    /**
+     * Returns the stamp to validate the read with,
+     * or {@code -1} if a mutation is in progress.
+     */
+    long beginRead() {
+        long stamp = this.stamp;
+        return (stamp & 1) == 0 ? stamp : -1;
+    }
+
+    /**
+     * Returns {@code true} if the values read since the given
+     * stamp has been taken are consistent.
+     */
+    boolean validateRead(long stamp) {
+        // the reads must not be reordered after the stamp is read again
+        UNSAFE.loadFence();
+        return stamp == this.stamp;
+    }
+}
@@ -39,6 +39,17 @@ public interface Storage<K, R> {
 
     void put(K key, R record);
 
+    /**
+     * Puts the given record and returns the record kept by this storage
+     * for the key. Storages which copy the records, e.g. off-heap, return
+     * their copy, so callers which mutate the record after the put have to
+     * use the returned one.
+     */
+    default R putAndGetStored(K key, R record) {
+        put(key, record);
+        return record;
+    }
+
     void updateRecordValue(K key, R record, Object value);
 
     R get(K key);
@@ -74,20 +74,25 @@ public class StorageImpl<R extends Record> implements Storage<Data, R> {
 
         if (previousRecord == null) {
             updateCostEstimate(entryCostEstimator.calculateEntryCost(key, record));
+            updateCompressionSavings(entryCostEstimator.calculateCompressionSavings(record));
         } else {
             updateCostEstimate(-entryCostEstimator.calculateValueCost(previousRecord));
             updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+            updateCompressionSavings(-entryCostEstimator.calculateCompressionSavings(previousRecord));
+            updateCompressionSavings(entryCostEstimator.calculateCompressionSavings(record));
         }
     }
 
     @Override
     public void updateRecordValue(Data key, R record, Object value) {
         updateCostEstimate(-entryCostEstimator.calculateValueCost(record));
+        updateCompressionSavings(-entryCostEstimator.calculateCompressionSavings(record));
 
         record.setValue(inMemoryFormat == BINARY
                 ? serializationService.toData(value) : serializationService.toObject(value));
 
         updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+        updateCompressionSavings(entryCostEstimator.calculateCompressionSavings(record));
     }
 
     @Override
@@ -129,12 +134,19 @@ public class StorageImpl<R extends Record> implements Storage<Data, R> {
         records.remove(dataKey);
 
         updateCostEstimate(-entryCostEstimator.calculateEntryCost(dataKey, record));
+        updateCompressionSavings(-entryCostEstimator.calculateCompressionSavings(record));
     }
 
     protected void updateCostEstimate(long entrySize) {
         entryCostEstimator.adjustEstimateBy(entrySize);
     }
 
+    protected void updateCompressionSavings(long savings) {
+        if (savings != 0L) {
+            entryCostEstimator.adjustCompressionSavingsBy(savings);
+        }
+    }
+
     public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
         this.entryCostEstimator = entryCostEstimator;
     }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.SpillStore;
+import com.hazelcast.map.impl.record.TieredDataRecord;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Releases the spilled values of removed records, and the segment
+ * files of the {@link SpillStore} when the record store is cleared.
+ */
+class TieredStoreMutationObserver implements MutationObserver<Record> {
+
+    private final SpillStore spillStore;
+
+    TieredStoreMutationObserver(SpillStore spillStore) {
+        this.spillStore = spillStore;
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        // NOP
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        // NOP, the record store has already released the spilled value of the replaced record
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record,
+                               Object oldValue, Object newValue, boolean backup) {
+        // NOP, setting the new value has already released the spilled one
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        releaseSpilledValue(record);
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        releaseSpilledValue(record);
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        // NOP
+    }
+
+    @Override
+    public void onReset() {
+        spillStore.clear();
+    }
+
+    @Override
+    public void onClear() {
+        spillStore.clear();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        spillStore.clear();
+    }
+
+    private static void releaseSpilledValue(Record record) {
+        if (record instanceof TieredDataRecord) {
+            ((TieredDataRecord) record).releaseSpilledValue();
+        }
+    }
+}
@@ -59,27 +59,47 @@ public abstract class AbstractIndex implements InternalIndex {
     protected final IndexCopyBehavior copyBehavior;
 
     private final String[] components;
+    // the index and included attributes if the index has included attributes, null otherwise
+    private final String[] coveredAttributes;
     private final IndexConfig config;
     private final boolean ordered;
     private final PerIndexStats stats;
+    // the statistics for the cost-based query optimizer, null if they are not collected
+    private final IndexStatistics statistics;
 
     private volatile TypeConverter converter;
 
-    @SuppressFBWarnings("EI_EXPOSE_REP2")
     public AbstractIndex(
         IndexConfig config,
         InternalSerializationService ss,
         Extractors extractors,
         IndexCopyBehavior copyBehavior,
         PerIndexStats stats) {
+        this(config, ss, extractors, copyBehavior, stats, false);
+    }
+
+    /**
+     * @param valueStatisticsEnabled {@code true} to collect the {@link IndexStatistics}
+     *                               of the indexed values for the cost-based query optimizer
+     */
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public AbstractIndex(
+        IndexConfig config,
+        InternalSerializationService ss,
+        Extractors extractors,
+        IndexCopyBehavior copyBehavior,
+        PerIndexStats stats,
+        boolean valueStatisticsEnabled) {
         this.config = config;
         this.components = IndexUtils.getComponents(config);
+        this.coveredAttributes = IndexUtils.getCoveredAttributes(config);
         this.ordered = config.getType() == IndexType.SORTED;
         this.ss = ss;
         this.extractors = extractors;
         this.copyBehavior = copyBehavior;
         this.indexStore = createIndexStore(config, stats);
         this.stats = stats;
+        this.statistics = valueStatisticsEnabled ? new IndexStatistics() : null;
     }
 
     protected abstract IndexStore createIndexStore(IndexConfig config, PerIndexStats stats);
@@ -126,13 +146,23 @@ public abstract class AbstractIndex implements InternalIndex {
             converter = obtainConverter(entry);
         }
 
+        if (coveredAttributes != null) {
+            entry.addCoveredAttributes(coveredAttributes, extractCoveredAttributeValues(entry));
+        }
+
         Object newAttributeValue = extractAttributeValue(entry.getKeyData(), entry.getTargetObject(false));
         if (oldValue == null) {
             indexStore.insert(newAttributeValue, entry, operationStats);
+            if (statistics != null) {
+                statistics.onInsert(newAttributeValue);
+            }
             stats.onInsert(timestamp, operationStats, operationSource);
         } else {
             Object oldAttributeValue = extractAttributeValue(entry.getKeyData(), oldValue);
             indexStore.update(oldAttributeValue, newAttributeValue, entry, operationStats);
+            if (statistics != null) {
+                statistics.onUpdate(newAttributeValue);
+            }
             stats.onUpdate(timestamp, operationStats, operationSource);
         }
     }
@@ -144,6 +174,9 @@ public abstract class AbstractIndex implements InternalIndex {
 
         Object attributeValue = extractAttributeValue(key, value);
         indexStore.remove(attributeValue, key, value, operationStats);
+        if (statistics != null) {
+            statistics.onRemove();
+        }
         stats.onRemove(timestamp, operationStats, operationSource);
     }
 
@@ -273,6 +306,9 @@ public abstract class AbstractIndex implements InternalIndex {
     public void clear() {
         indexStore.clear();
         converter = null;
+        if (statistics != null) {
+            statistics.clear();
+        }
         stats.onClear();
     }
 
@@ -291,6 +327,19 @@ public abstract class AbstractIndex implements InternalIndex {
         return stats;
     }
 
+    @Override
+    public IndexStatistics getStatistics() {
+        return statistics;
+    }
+
+    private Object[] extractCoveredAttributeValues(QueryableEntry entry) {
+        Object[] values = new Object[coveredAttributes.length];
+        for (int i = 0; i < coveredAttributes.length; ++i) {
+            values[i] = entry.getAttributeValue(coveredAttributes[i]);
+        }
+        return values;
+    }
+
     private Object extractAttributeValue(Data key, Object value) {
         if (components.length == 1) {
             return QueryableEntry.extractAttributeValue(extractors, ss, components[0], key, value, null);
@@ -19,6 +19,7 @@ package com.hazelcast.query.impl;
 import com.hazelcast.query.Predicate;
 
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +76,74 @@ public class AndResultSet extends AbstractSet<QueryableEntry> {
         return new It();
     }
 
+    /**
+     * Creates a copy of this result set keeping only the entries passing the
+     * given filter, which is applied to the candidates after the not indexed
+     * predicates.
+     *
+     * @param resultFilter the filter to apply.
+     * @return the filtered result set.
+     */
+    public AndResultSet withResultFilter(java.util.function.Predicate<QueryableEntry> resultFilter) {
+        List<Predicate> noIndexPredicates = lsNoIndexPredicates == null
+                ? new ArrayList<>(1) : new ArrayList<>(lsNoIndexPredicates);
+        noIndexPredicates.add(entry -> resultFilter.test((QueryableEntry) entry));
+        return new AndResultSet(setSmallest, otherIndexedResults, noIndexPredicates);
+    }
+
+    /**
+     * @return the smallest of the indexed results, the entries of this
+     * result set are the ones of it {@link #matchesCandidate matching} the
+     * other indexed results and the not indexed predicates.
+     */
+    public Set<QueryableEntry> getCandidates() {
+        return setSmallest;
+    }
+
+    /**
+     * Checks whether the given entry of the {@link #getCandidates()
+     * candidates} belongs to this result set.
+     * <p>
+     * The candidates may be checked concurrently, as long as the other
+     * indexed results and the not indexed predicates support concurrent
+     * checks. The result sets produced by the indexes do, the lookup set
+     * built lazily by {@link FastMultiResultSet} is published safely.
+     *
+     * @param candidate the candidate entry to check.
+     * @return {@code true} if the candidate is contained in the other indexed
+     * results and matches the not indexed predicates, {@code false} otherwise.
+     */
+    public boolean matchesCandidate(QueryableEntry candidate) {
+        return checkOtherIndexedResults(candidate) && checkNoIndexPredicates(candidate);
+    }
+
+    private boolean checkNoIndexPredicates(QueryableEntry currentEntry) {
+        if (lsNoIndexPredicates == null) {
+            return true;
+        }
+
+        for (Predicate noIndexPredicate : lsNoIndexPredicates) {
+            if (!noIndexPredicate.apply(currentEntry)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean checkOtherIndexedResults(QueryableEntry currentEntry) {
+        if (otherIndexedResults == null) {
+            return true;
+        }
+
+        for (Set<QueryableEntry> otherIndexedResult : otherIndexedResults) {
+            if (!otherIndexedResult.contains(currentEntry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     class It implements Iterator<QueryableEntry> {
 
         QueryableEntry currentEntry;
@@ -89,7 +158,7 @@ public class AndResultSet extends AbstractSet<QueryableEntry> {
             while (it.hasNext()) {
                 QueryableEntry entry = it.next();
 
-                if (checkOtherIndexedResults(entry) && checkNoIndexPredicates(entry)) {
+                if (matchesCandidate(entry)) {
                     currentEntry = entry;
                     return true;
                 }
@@ -98,33 +167,6 @@ public class AndResultSet extends AbstractSet<QueryableEntry> {
             return false;
         }
 
-        private boolean checkNoIndexPredicates(QueryableEntry currentEntry) {
-            if (lsNoIndexPredicates == null) {
-                return true;
-            }
-
-            for (Predicate noIndexPredicate : lsNoIndexPredicates) {
-                if (!noIndexPredicate.apply(currentEntry)) {
-                    return false;
-                }
-            }
-
-            return true;
-        }
-
-        private boolean checkOtherIndexedResults(QueryableEntry currentEntry) {
-            if (otherIndexedResults == null) {
-                return true;
-            }
-
-            for (Set<QueryableEntry> otherIndexedResult : otherIndexedResults) {
-                if (!otherIndexedResult.contains(currentEntry)) {
-                    return false;
-                }
-            }
-            return true;
-        }
-
         @Override
         public QueryableEntry next() {
             if (!hasNext()) {
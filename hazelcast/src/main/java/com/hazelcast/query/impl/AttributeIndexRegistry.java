@@ -376,6 +376,12 @@ public class AttributeIndexRegistry {
             return delegate.getPerIndexStats();
         }
 
+        @Override
+        public IndexStatistics getStatistics() {
+            // the statistics of the composite values don't apply to the first component
+            return null;
+        }
+
         @Override
         public long getPartitionStamp(PartitionIdSet expectedPartitionIds) {
             throw newUnsupportedException();
@@ -74,6 +74,18 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
      */
     abstract Object removeInternal(Comparable value, Data recordKey);
 
+    /**
+     * Makes the multi result sets created by this index store detect
+     * duplicates, called when a collection is inserted into the index.
+     */
+    void detectDuplicatesInMultiResults() {
+        multiResultHasToDetectDuplicates = true;
+    }
+
+    final boolean isDetectingDuplicatesInMultiResults() {
+        return multiResultHasToDetectDuplicates;
+    }
+
     final MultiResultSet createMultiResultSet() {
         return multiResultHasToDetectDuplicates ? new DuplicateDetectingMultiResult() : new FastMultiResultSet();
     }
@@ -116,7 +128,7 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
             return;
         }
         if (newValue instanceof MultiResult) {
-            multiResultHasToDetectDuplicates = true;
+            detectDuplicatesInMultiResults();
             List<Object> results = ((MultiResult) newValue).getResults();
             for (Object o : results) {
                 Comparable sanitizedValue = sanitizeValue(o);
@@ -61,6 +61,7 @@ public class CachedQueryEntry<K, V> extends QueryableEntry<K, V> {
             this.valueData = null;
         }
         this.extractors = extractors;
+        clearCoveredAttributes();
         return this;
     }
 
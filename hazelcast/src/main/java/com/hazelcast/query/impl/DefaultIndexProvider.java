@@ -17,6 +17,7 @@
 package com.hazelcast.query.impl;
 
 import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.query.impl.getters.Extractors;
@@ -25,6 +26,36 @@ import com.hazelcast.query.impl.getters.Extractors;
  * Provides on-heap indexes.
  */
 public class DefaultIndexProvider implements IndexProvider {
+
+    private final boolean valueStatisticsEnabled;
+    private final boolean primitiveSortedIndexEnabled;
+
+    public DefaultIndexProvider() {
+        this(false, false);
+    }
+
+    /**
+     * @param valueStatisticsEnabled {@code true} if the created indexes should
+     *                               collect the statistics of their values used
+     *                               by the cost-based query optimizer
+     */
+    public DefaultIndexProvider(boolean valueStatisticsEnabled) {
+        this(valueStatisticsEnabled, false);
+    }
+
+    /**
+     * @param valueStatisticsEnabled      {@code true} if the created indexes should
+     *                                    collect the statistics of their values used
+     *                                    by the cost-based query optimizer
+     * @param primitiveSortedIndexEnabled {@code true} if the created sorted indexes
+     *                                    on a single attribute should use
+     *                                    {@link PrimitiveOrderedIndexStore}
+     */
+    public DefaultIndexProvider(boolean valueStatisticsEnabled, boolean primitiveSortedIndexEnabled) {
+        this.valueStatisticsEnabled = valueStatisticsEnabled;
+        this.primitiveSortedIndexEnabled = primitiveSortedIndexEnabled;
+    }
+
     @Override
     public InternalIndex createIndex(
             IndexConfig config,
@@ -33,6 +64,39 @@ public class DefaultIndexProvider implements IndexProvider {
             IndexCopyBehavior copyBehavior,
             PerIndexStats stats,
             int partitionCount) {
-        return new IndexImpl(config, ss, extractors, copyBehavior, stats, partitionCount);
+        if (primitiveSortedIndexEnabled) {
+            return new PrimitiveSortedIndexImpl(config, ss, extractors, copyBehavior, stats, partitionCount,
+                    valueStatisticsEnabled);
+        }
+        return new IndexImpl(config, ss, extractors, copyBehavior, stats, partitionCount, valueStatisticsEnabled);
+    }
+
+    /**
+     * On-heap index keeping the values of single attribute sorted indexes in
+     * a {@link PrimitiveOrderedIndexStore}.
+     */
+    private static final class PrimitiveSortedIndexImpl extends IndexImpl {
+
+        @SuppressWarnings("checkstyle:ParameterNumber")
+        PrimitiveSortedIndexImpl(
+                IndexConfig config,
+                InternalSerializationService ss,
+                Extractors extractors,
+                IndexCopyBehavior copyBehavior,
+                PerIndexStats stats,
+                int partitionCount,
+                boolean valueStatisticsEnabled
+        ) {
+            super(config, ss, extractors, copyBehavior, stats, partitionCount, valueStatisticsEnabled);
+        }
+
+        @Override
+        protected IndexStore createIndexStore(IndexConfig config, PerIndexStats stats) {
+            // the values of the composite indexes have no primitive encoding
+            if (config.getType() == IndexType.SORTED && config.getAttributes().size() == 1) {
+                return new PrimitiveOrderedIndexStore(copyBehavior);
+            }
+            return super.createIndexStore(config, stats);
+        }
     }
 }
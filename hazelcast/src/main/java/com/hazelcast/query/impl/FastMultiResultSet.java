@@ -31,7 +31,7 @@ import java.util.Set;
  */
 public class FastMultiResultSet extends AbstractSet<QueryableEntry> implements MultiResultSet {
 
-    private Set<Object> index;
+    private volatile Set<Object> index;
     private final List<Map<Data, QueryableEntry>> resultSets
             = new ArrayList<Map<Data, QueryableEntry>>();
 
@@ -42,11 +42,20 @@ public class FastMultiResultSet extends AbstractSet<QueryableEntry> implements M
         resultSets.add(resultSet);
     }
 
+    /**
+     * Checks whether the given entry is contained in any of the result sets.
+     * <p>
+     * The lookup set of the keys built for more than 3 result sets is
+     * published safely, so the entries may be checked concurrently, e.g.
+     * by the threads populating a query result in parallel. Concurrent
+     * first checks may build the lookup set more than once.
+     */
     @Override
     public boolean contains(Object o) {
         QueryableEntry entry = (QueryableEntry) o;
+        Set<Object> index = this.index;
         if (index != null) {
-            return checkFromIndex(entry);
+            return index.contains(entry.getKeyData());
         } else {
             //todo: what is the point of this condition? Is it some kind of optimization?
             if (resultSets.size() > 3) {
@@ -56,7 +65,8 @@ public class FastMultiResultSet extends AbstractSet<QueryableEntry> implements M
                         index.add(queryableEntry.getKeyData());
                     }
                 }
-                return checkFromIndex(entry);
+                this.index = index;
+                return index.contains(entry.getKeyData());
             } else {
                 for (Map<Data, QueryableEntry> resultSet : resultSets) {
                     if (resultSet.containsKey(entry.getKeyData())) {
@@ -68,10 +78,6 @@ public class FastMultiResultSet extends AbstractSet<QueryableEntry> implements M
         }
     }
 
-    private boolean checkFromIndex(QueryableEntry entry) {
-        return index.contains(entry.getKeyData());
-    }
-
     @Override
     public Iterator<QueryableEntry> iterator() {
         return new It();
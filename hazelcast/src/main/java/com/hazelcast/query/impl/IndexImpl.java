@@ -37,7 +37,20 @@ public class IndexImpl extends AbstractIndex {
             PerIndexStats stats,
             int partitionCount
     ) {
-        super(config, ss, extractors, copyBehavior, stats);
+        this(config, ss, extractors, copyBehavior, stats, partitionCount, false);
+    }
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public IndexImpl(
+            IndexConfig config,
+            InternalSerializationService ss,
+            Extractors extractors,
+            IndexCopyBehavior copyBehavior,
+            PerIndexStats stats,
+            int partitionCount,
+            boolean valueStatisticsEnabled
+    ) {
+        super(config, ss, extractors, copyBehavior, stats, valueStatisticsEnabled);
 
         partitionTracker = new GlobalIndexPartitionTracker(partitionCount);
     }
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.json.NonTerminalJsonValue;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+
+/**
+ * Maintains the statistics of an index used by the cost-based query
+ * optimizer to estimate the selectivity of the predicates: the number of
+ * the indexed entries and a uniform sample of the indexed values.
+ * <p>
+ * The sample is maintained by reservoir sampling on every insert and
+ * update, the values of the removed entries stay in the sample until they
+ * are replaced. A sorted copy of the sample serves as an equi-depth
+ * histogram of the values, it is rebuilt lazily once enough values have
+ * been sampled since it was built. The estimates are approximate by
+ * design and never affect the query results.
+ */
+@SuppressWarnings("rawtypes")
+public final class IndexStatistics {
+
+    /**
+     * Returned by the estimates if the selectivity can't be estimated.
+     */
+    public static final double UNKNOWN_SELECTIVITY = -1;
+
+    static final int SAMPLE_SIZE = 1024;
+
+    private static final int MIN_REBUILD_INTERVAL = 64;
+    // the histogram is rebuilt once the sampled count grows by a tenth
+    @SuppressWarnings("checkstyle:magicnumber")
+    private static final int REBUILD_INTERVAL_DIVISOR = 10;
+    private static final double HALF_SAMPLE = 0.5;
+
+    private final AtomicLong entryCount = new AtomicLong();
+    private final AtomicLong sampledCount = new AtomicLong();
+    private final AtomicReferenceArray<Comparable> sample = new AtomicReferenceArray<>(SAMPLE_SIZE);
+
+    private volatile Histogram histogram;
+
+    /**
+     * @return the number of the entries in the index.
+     */
+    public long getEntryCount() {
+        return Math.max(0, entryCount.get());
+    }
+
+    /**
+     * Estimates the fraction of the indexed values which are equal to the
+     * given value.
+     *
+     * @param value the value converted by the converter of the index.
+     * @return the estimated selectivity or {@link #UNKNOWN_SELECTIVITY}.
+     */
+    public double estimateEqualSelectivity(Comparable value) {
+        if (value == null || value == NULL) {
+            return UNKNOWN_SELECTIVITY;
+        }
+        Histogram histogram = histogram();
+        if (histogram.values.length == 0) {
+            return 0;
+        }
+
+        int matches = histogram.count(value);
+        if (matches < 0) {
+            return UNKNOWN_SELECTIVITY;
+        }
+        if (matches > 0) {
+            return (double) matches / histogram.values.length;
+        }
+        // the value is not in the sample, assume it is one of the unsampled distinct values
+        return 1.0 / Math.max(1, histogram.estimateDistinctCount(getEntryCount()));
+    }
+
+    /**
+     * Estimates the fraction of the indexed values which are in the given
+     * range.
+     *
+     * @param from the converted lower bound or {@code null} if unbounded.
+     * @param to   the converted upper bound or {@code null} if unbounded.
+     * @return the estimated selectivity or {@link #UNKNOWN_SELECTIVITY}.
+     */
+    public double estimateRangeSelectivity(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        if (from == NULL || to == NULL) {
+            return UNKNOWN_SELECTIVITY;
+        }
+        Histogram histogram = histogram();
+        if (histogram.values.length == 0) {
+            return 0;
+        }
+
+        int matches = histogram.count(from, fromInclusive, to, toInclusive);
+        if (matches < 0) {
+            return UNKNOWN_SELECTIVITY;
+        }
+        return Math.max(matches, HALF_SAMPLE) / histogram.values.length;
+    }
+
+    void onInsert(Object value) {
+        entryCount.incrementAndGet();
+        sample(value);
+    }
+
+    void onUpdate(Object value) {
+        sample(value);
+    }
+
+    void onRemove() {
+        entryCount.decrementAndGet();
+    }
+
+    void clear() {
+        entryCount.set(0);
+        sampledCount.set(0);
+        for (int i = 0; i < SAMPLE_SIZE; ++i) {
+            sample.set(i, null);
+        }
+        histogram = null;
+    }
+
+    private void sample(Object value) {
+        if (value instanceof MultiResult) {
+            for (Object result : ((MultiResult) value).getResults()) {
+                sample(result);
+            }
+            return;
+        }
+        if (value == null || value == NULL || value == NonTerminalJsonValue.INSTANCE || !(value instanceof Comparable)) {
+            return;
+        }
+
+        Comparable comparable = (Comparable) value;
+        if (comparable.getClass().isEnum()) {
+            comparable = TypeConverters.ENUM_CONVERTER.convert(comparable);
+        }
+
+        long count = sampledCount.incrementAndGet();
+        if (count <= SAMPLE_SIZE) {
+            sample.set((int) count - 1, comparable);
+        } else {
+            long slot = ThreadLocalRandom.current().nextLong(count);
+            if (slot < SAMPLE_SIZE) {
+                sample.set((int) slot, comparable);
+            }
+        }
+    }
+
+    private Histogram histogram() {
+        long sampled = sampledCount.get();
+        Histogram histogram = this.histogram;
+        if (histogram == null || sampled - histogram.sampledCount
+                > Math.max(MIN_REBUILD_INTERVAL, histogram.sampledCount / REBUILD_INTERVAL_DIVISOR)) {
+            histogram = new Histogram(sampled, snapshot());
+            this.histogram = histogram;
+        }
+        return histogram;
+    }
+
+    private Comparable[] snapshot() {
+        Comparable[] values = new Comparable[SAMPLE_SIZE];
+        int size = 0;
+        for (int i = 0; i < SAMPLE_SIZE; ++i) {
+            Comparable value = sample.get(i);
+            if (value != null) {
+                values[size++] = value;
+            }
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * The snapshot of the sample, sorted if the sampled values are mutually
+     * comparable.
+     */
+    private static final class Histogram {
+
+        final long sampledCount;
+        final Comparable[] values;
+        final boolean sorted;
+        final int distinctCount;
+
+        Histogram(long sampledCount, Comparable[] values) {
+            this.sampledCount = sampledCount;
+            this.values = values;
+            this.sorted = sort(values);
+            this.distinctCount = sorted ? countSortedDistinct(values) : countDistinct(values);
+        }
+
+        long estimateDistinctCount(long entryCount) {
+            if (distinctCount * 2 < values.length) {
+                // a low cardinality, likely all the distinct values are sampled
+                return distinctCount;
+            }
+            return Math.max(distinctCount, entryCount * distinctCount / values.length);
+        }
+
+        int count(Comparable value) {
+            if (sorted) {
+                return count(value, true, value, true);
+            }
+            int matches = 0;
+            for (Comparable sampled : values) {
+                if (Comparables.equal(value, sampled)) {
+                    ++matches;
+                }
+            }
+            return matches;
+        }
+
+        int count(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+            if (!sorted) {
+                return -1;
+            }
+            try {
+                int start = from == null ? 0 : firstGreater(from, fromInclusive);
+                int end = to == null ? values.length : firstGreater(to, !toInclusive);
+                return Math.max(0, end - start);
+            } catch (ClassCastException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * @return the index of the first value greater than or, if
+         * {@code orEqual}, equal to the bound.
+         */
+        private int firstGreater(Comparable bound, boolean orEqual) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int order = Comparables.compare(bound, values[middle]);
+                if (order < 0 || orEqual && order == 0) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        private static boolean sort(Comparable[] values) {
+            try {
+                Arrays.sort(values, Comparables.COMPARATOR);
+                return true;
+            } catch (ClassCastException e) {
+                return false;
+            }
+        }
+
+        private static int countSortedDistinct(Comparable[] values) {
+            int distinct = values.length == 0 ? 0 : 1;
+            for (int i = 1; i < values.length; ++i) {
+                if (Comparables.compare(values[i - 1], values[i]) != 0) {
+                    ++distinct;
+                }
+            }
+            return distinct;
+        }
+
+        private static int countDistinct(Comparable[] values) {
+            Set<Comparable> distinct = new HashSet<>();
+            for (Comparable value : values) {
+                distinct.add(Comparables.canonicalizeForHashLookup(value));
+            }
+            return distinct.size();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -46,6 +47,9 @@ public final class IndexUtils {
     /** Pattern to stripe away "this." prefix. */
     private static final Pattern THIS_PATTERN = Pattern.compile("^this\\.");
 
+    /** Operator selecting all the values of a multi-value attribute. */
+    private static final String ANY_OPERATOR = "[any]";
+
     private IndexUtils() {
         // No-op.
     }
@@ -116,6 +120,8 @@ public final class IndexUtils {
 
         IndexConfig normalizedConfig = buildNormalizedConfig(mapName, config.getType(), name, normalizedAttributeNames);
 
+        normalizeIncludedAttributes(config, normalizedConfig);
+
         if (config.getType() == IndexType.BITMAP) {
             String uniqueKey = config.getBitmapIndexOptions().getUniqueKey();
             UniqueKeyTransformation uniqueKeyTransformation = config.getBitmapIndexOptions().getUniqueKeyTransformation();
@@ -129,6 +135,42 @@ public final class IndexUtils {
         return normalizedConfig;
     }
 
+    private static void normalizeIncludedAttributes(IndexConfig config, IndexConfig normalizedConfig) {
+        List<String> includedAttributeNames = config.getIncludedAttributes();
+
+        if (includedAttributeNames.isEmpty()) {
+            return;
+        }
+
+        if (config.getType() == IndexType.BITMAP) {
+            throw new IllegalArgumentException("Bitmap indexes cannot have included attributes: " + config);
+        }
+
+        // an entry has an index entry per value of a multi-value attribute, a covering scan would return it repeatedly
+        for (String attributeName : normalizedConfig.getAttributes()) {
+            if (attributeName.contains(ANY_OPERATOR)) {
+                throw new IllegalArgumentException("Indexes on multi-value attributes cannot have included attributes: "
+                        + config);
+            }
+        }
+
+        for (String includedAttributeName : includedAttributeNames) {
+            validateAttribute(config, includedAttributeName);
+
+            String normalizedAttributeName = canonicalizeAttribute(includedAttributeName.trim());
+
+            if (normalizedAttributeName.contains(ANY_OPERATOR)) {
+                throw new IllegalArgumentException("Included attributes cannot be multi-value attributes: " + config);
+            }
+
+            // the index attributes are covered anyway
+            if (!normalizedConfig.getAttributes().contains(normalizedAttributeName)
+                && !normalizedConfig.getIncludedAttributes().contains(normalizedAttributeName)) {
+                normalizedConfig.addIncludedAttribute(normalizedAttributeName);
+            }
+        }
+    }
+
     private static IndexConfig buildNormalizedConfig(String mapName, IndexType indexType, String indexName,
                                                      List<String> normalizedAttributeNames) {
         IndexConfig newConfig = new IndexConfig().setType(indexType);
@@ -222,6 +264,24 @@ public final class IndexUtils {
         return res;
     }
 
+    /**
+     * @return the index and included attributes of the given index config or
+     * {@code null} if the index has no included attributes.
+     */
+    public static String[] getCoveredAttributes(IndexConfig config) {
+        List<String> includedAttributes = config.getIncludedAttributes();
+        if (includedAttributes.isEmpty()) {
+            return null;
+        }
+
+        String[] components = getComponents(config);
+        String[] coveredAttributes = Arrays.copyOf(components, components.length + includedAttributes.size());
+        for (int i = 0; i < includedAttributes.size(); ++i) {
+            coveredAttributes[components.length + i] = includedAttributes.get(i);
+        }
+        return coveredAttributes;
+    }
+
     /**
      * Create simple index definition with the given attributes
      *
@@ -275,6 +335,14 @@ public final class IndexUtils {
             }
             gen.close();
 
+            if (!indexCfg.getIncludedAttributes().isEmpty()) {
+                gen.open("included-attributes");
+                for (String includedAttribute : indexCfg.getIncludedAttributes()) {
+                    gen.node("attribute", includedAttribute);
+                }
+                gen.close();
+            }
+
             if (indexCfg.getType() == IndexType.BITMAP) {
                 BitmapIndexOptions bitmapIndexOptions = indexCfg.getBitmapIndexOptions();
 
@@ -304,7 +372,8 @@ public final class IndexUtils {
         IndexConfig res = new IndexConfig().setName(name).setType(type);
 
         for (Node attributesNode : childElements(indexNode)) {
-            if ("attributes".equals(cleanNodeName(attributesNode))) {
+            String nodeName = cleanNodeName(attributesNode);
+            if ("attributes".equals(nodeName)) {
                 for (Node attributeNode : childElements(attributesNode)) {
                     if ("attribute".equals(cleanNodeName(attributeNode))) {
                         String attribute = getTextContent(attributeNode, domLevel3);
@@ -312,26 +381,19 @@ public final class IndexUtils {
                         res.addAttribute(attribute);
                     }
                 }
+            } else if ("included-attributes".equals(nodeName)) {
+                for (Node attributeNode : childElements(attributesNode)) {
+                    if ("attribute".equals(cleanNodeName(attributeNode))) {
+                        String attribute = getTextContent(attributeNode, domLevel3);
+
+                        res.addIncludedAttribute(attribute);
+                    }
+                }
             }
         }
 
         if (type == IndexType.BITMAP) {
-            Node optionsNode = childElementWithName(indexNode, "bitmap-index-options", strict);
-            if (optionsNode != null) {
-                Node uniqueKeyNode = childElementWithName(optionsNode, "unique-key", strict);
-                String uniqueKeyText = getTextContent(uniqueKeyNode, domLevel3);
-                String uniqueKey = isNullOrEmpty(uniqueKeyText) ? BitmapIndexOptions.DEFAULT_UNIQUE_KEY : uniqueKeyText;
-
-                Node uniqueKeyTransformationNode = childElementWithName(
-                  optionsNode, "unique-key-transformation", strict);
-                String uniqueKeyTransformationText = getTextContent(uniqueKeyTransformationNode, domLevel3);
-                UniqueKeyTransformation uniqueKeyTransformation = isNullOrEmpty(uniqueKeyTransformationText)
-                        ? BitmapIndexOptions.DEFAULT_UNIQUE_KEY_TRANSFORMATION
-                        : UniqueKeyTransformation.fromName(uniqueKeyTransformationText);
-
-                res.getBitmapIndexOptions().setUniqueKey(uniqueKey);
-                res.getBitmapIndexOptions().setUniqueKeyTransformation(uniqueKeyTransformation);
-            }
+            fillBitmapIndexOptions(res, indexNode, domLevel3, strict);
         }
 
         return res;
@@ -393,28 +455,43 @@ public final class IndexUtils {
             res.addAttribute(attribute);
         }
 
-        if (type == IndexType.BITMAP) {
-            Node optionsNode = childElementWithName(indexNode, "bitmap-index-options", strict);
-            if (optionsNode != null) {
-                Node uniqueKeyNode = childElementWithName(optionsNode, "unique-key", strict);
-                String uniqueKeyText = getTextContent(uniqueKeyNode, domLevel3);
-                String uniqueKey = isNullOrEmpty(uniqueKeyText) ? BitmapIndexOptions.DEFAULT_UNIQUE_KEY : uniqueKeyText;
-
-                Node uniqueKeyTransformationNode = childElementWithName(
-                  optionsNode, "unique-key-transformation", strict);
-                String uniqueKeyTransformationText = getTextContent(uniqueKeyTransformationNode, domLevel3);
-                UniqueKeyTransformation uniqueKeyTransformation = isNullOrEmpty(uniqueKeyTransformationText)
-                        ? BitmapIndexOptions.DEFAULT_UNIQUE_KEY_TRANSFORMATION
-                        : UniqueKeyTransformation.fromName(uniqueKeyTransformationText);
-
-                res.getBitmapIndexOptions().setUniqueKey(uniqueKey);
-                res.getBitmapIndexOptions().setUniqueKeyTransformation(uniqueKeyTransformation);
+        Node includedAttributesNode = attrs.getNamedItem("included-attributes");
+        if (includedAttributesNode != null) {
+            for (Node attributeNode : childElements(includedAttributesNode)) {
+                String attribute = attributeNode.getNodeValue();
+
+                res.addIncludedAttribute(attribute);
             }
         }
 
+        if (type == IndexType.BITMAP) {
+            fillBitmapIndexOptions(res, indexNode, domLevel3, strict);
+        }
+
         return res;
     }
 
+    private static void fillBitmapIndexOptions(IndexConfig res, Node indexNode, boolean domLevel3, boolean strict) {
+        Node optionsNode = childElementWithName(indexNode, "bitmap-index-options", strict);
+        if (optionsNode == null) {
+            return;
+        }
+
+        Node uniqueKeyNode = childElementWithName(optionsNode, "unique-key", strict);
+        String uniqueKeyText = getTextContent(uniqueKeyNode, domLevel3);
+        String uniqueKey = isNullOrEmpty(uniqueKeyText) ? BitmapIndexOptions.DEFAULT_UNIQUE_KEY : uniqueKeyText;
+
+        Node uniqueKeyTransformationNode = childElementWithName(
+          optionsNode, "unique-key-transformation", strict);
+        String uniqueKeyTransformationText = getTextContent(uniqueKeyTransformationNode, domLevel3);
+        UniqueKeyTransformation uniqueKeyTransformation = isNullOrEmpty(uniqueKeyTransformationText)
+                ? BitmapIndexOptions.DEFAULT_UNIQUE_KEY_TRANSFORMATION
+                : UniqueKeyTransformation.fromName(uniqueKeyTransformationText);
+
+        res.getBitmapIndexOptions().setUniqueKey(uniqueKey);
+        res.getBitmapIndexOptions().setUniqueKeyTransformation(uniqueKeyTransformation);
+    }
+
     private static String getIndexTypeName(IndexType type) {
         switch (type) {
             case SORTED:
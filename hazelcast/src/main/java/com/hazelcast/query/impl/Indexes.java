@@ -33,8 +33,11 @@ import com.hazelcast.query.impl.getters.Extractors;
 import com.hazelcast.query.impl.predicates.IndexAwarePredicate;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -367,13 +370,73 @@ public class Indexes {
             queryContext.applyPerQueryStats();
         }
 
-        if (result != null && resultFilter != null) {
+        if (result instanceof AndResultSet && resultFilter != null) {
+            // keep the candidates and the post-filtering of them separate
+            return ((AndResultSet) result).withResultFilter(resultFilter);
+        } else if (result != null && resultFilter != null) {
             return IterableUtil.filter(result, resultFilter);
         } else {
             return result;
         }
     }
 
+    /**
+     * Scans an index storing the values of all the given attributes, so the
+     * attributes of the returned entries are read from the index instead of
+     * the entry values, see {@link IndexConfig#getIncludedAttributes()}.
+     *
+     * @param attributes          the attributes read by the query.
+     * @param predicate           the predicate to filter the entries with.
+     * @param ownedPartitionCount a count of owned partitions a query runs on.
+     *                            Negative value indicates that the value is not defined.
+     * @return the matching entries or {@code null} if no index covers the
+     * attributes.
+     */
+    @SuppressWarnings("unchecked")
+    public Iterable<QueryableEntry> scanCoveringIndex(String[] attributes, Predicate predicate, int ownedPartitionCount) {
+        InternalIndex index = matchCoveringIndex(attributes, ownedPartitionCount);
+        if (index == null) {
+            return null;
+        }
+
+        long timestamp = index.getPerIndexStats().makeTimestamp();
+        List<QueryableEntry> result = new ArrayList<>();
+        Iterator<QueryableEntry> iterator = index.getSqlRecordIterator();
+        while (iterator.hasNext()) {
+            QueryableEntry entry = iterator.next();
+            if ((resultFilter == null || resultFilter.test(entry)) && predicate.apply(entry)) {
+                result.add(entry);
+            }
+        }
+        stats.incrementIndexedQueryCount();
+        index.getPerIndexStats().incrementQueryCount();
+        index.getPerIndexStats().onIndexHit(timestamp, result.size());
+        return result;
+    }
+
+    private InternalIndex matchCoveringIndex(String[] attributes, int ownedPartitionCount) {
+        for (InternalIndex index : getIndexes()) {
+            IndexConfig config = index.getConfig();
+            if (config.getIncludedAttributes().isEmpty() || !index.allPartitionsIndexed(ownedPartitionCount)) {
+                continue;
+            }
+
+            boolean covers = true;
+            for (String attribute : attributes) {
+                String canonicalAttribute = IndexUtils.canonicalizeAttribute(attribute);
+                if (!config.getAttributes().contains(canonicalAttribute)
+                        && !config.getIncludedAttributes().contains(canonicalAttribute)) {
+                    covers = false;
+                    break;
+                }
+            }
+            if (covers) {
+                return index;
+            }
+        }
+        return null;
+    }
+
     /**
      * Matches an index for the given pattern and match hint.
      *
@@ -91,6 +91,12 @@ public interface InternalIndex extends Index {
      */
     PerIndexStats getPerIndexStats();
 
+    /**
+     * Returns the statistics of the indexed values used by the cost-based
+     * query optimizer or {@code null} if the index doesn't provide them.
+     */
+    IndexStatistics getStatistics();
+
     /**
      * Get monotonically increasing stamp that confirms that the index contains
      * only expected partitions, and that there are no concurrent partition updates, and
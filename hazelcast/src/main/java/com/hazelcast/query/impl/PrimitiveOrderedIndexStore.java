@@ -0,0 +1,642 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.FlatCompositeIterator;
+import com.hazelcast.internal.util.collection.Long2ObjectTreeMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.getters.ReflectionHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static java.util.Collections.emptyIterator;
+
+/**
+ * Store indexes rankly, specialized for the numeric and date attributes.
+ * <p>
+ * The values are encoded as order-preserving {@code long}s and the
+ * entries are kept in a {@link Long2ObjectTreeMap}, a value having a
+ * single entry is mapped to the entry itself. That avoids boxing the
+ * values and allocating a skip list node and a map per value as
+ * {@link OrderedIndexStore} does.
+ * <p>
+ * The type of the attribute is detected from the first value inserted.
+ * Once a value of another type, or of a type having no {@code long}
+ * encoding, is inserted, the entries are moved to an
+ * {@link OrderedIndexStore} serving the index from then on.
+ * <p>
+ * The store is guarded by the global lock. The query results are copied
+ * from the tree, the SQL iterators copy the entries of the tree in small
+ * batches, so they are weakly consistent.
+ */
+@SuppressWarnings("rawtypes")
+public class PrimitiveOrderedIndexStore extends BaseSingleValueIndexStore {
+
+    private static final int SQL_ITERATOR_BATCH_SIZE = 64;
+
+    // the whole numbers of smaller magnitude are exactly representable as doubles
+    @SuppressWarnings("checkstyle:magicnumber")
+    private static final long EXACT_DOUBLE_BOUND = 1L << 53;
+
+    private final IndexCopyBehavior copyBehavior;
+
+    // The fields below are guarded by the lock. The collections are
+    // replaced instead of being cleared, so the SQL iterators created
+    // before keep iterating over the collections they were created for.
+    private Long2ObjectTreeMap<Object> records = new Long2ObjectTreeMap<>();
+    private Map<Data, QueryableEntry> recordsWithNullValue = new HashMap<>();
+    private KeyType keyType;
+    private OrderedIndexStore fallback;
+
+    public PrimitiveOrderedIndexStore(IndexCopyBehavior copyOn) {
+        super(copyOn, true);
+        assert copyOn != null;
+        this.copyBehavior = copyOn;
+    }
+
+    @Override
+    Object insertInternal(Comparable value, QueryableEntry record) {
+        if (fallback == null && value != NULL && !detectKeyType(value)) {
+            switchToFallback();
+        }
+
+        if (fallback != null) {
+            return fallback.insertInternal(value, record);
+        } else if (value == NULL) {
+            return recordsWithNullValue.put(record.getKeyData(), record);
+        } else {
+            return insertIntoTree(keyType.encode(value), record);
+        }
+    }
+
+    @Override
+    Object removeInternal(Comparable value, Data recordKey) {
+        if (fallback != null) {
+            return fallback.removeInternal(value, recordKey);
+        } else if (value == NULL) {
+            return recordsWithNullValue.remove(recordKey);
+        } else if (keyType != null && KeyType.of(value) == keyType) {
+            return removeFromTree(keyType.encode(value), recordKey);
+        } else {
+            // values of other types switch to the fallback store when inserted
+            return null;
+        }
+    }
+
+    @Override
+    void detectDuplicatesInMultiResults() {
+        super.detectDuplicatesInMultiResults();
+        if (fallback != null) {
+            fallback.detectDuplicatesInMultiResults();
+        }
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        // We still need to canonicalize query arguments for ordered indexes to
+        // support InPredicate queries.
+        return Comparables.canonicalizeForHashLookup(value);
+    }
+
+    @Override
+    public Comparable canonicalizeScalarForStorage(Comparable value) {
+        // Returning the original value since ordered indexes are not supporting
+        // hash lookups on their stored values, so there is no need in providing
+        // canonical representations.
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            records = new Long2ObjectTreeMap<>();
+            recordsWithNullValue = new HashMap<>();
+            keyType = null;
+            fallback = null;
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public boolean isEvaluateOnly() {
+        return false;
+    }
+
+    @Override
+    public boolean canEvaluate(Class<? extends Predicate> predicateClass) {
+        return false;
+    }
+
+    @Override
+    public Set<QueryableEntry> evaluate(Predicate predicate, TypeConverter converter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator() {
+        takeReadLock();
+        try {
+            if (fallback != null) {
+                return fallback.getSqlRecordIterator();
+            }
+            Iterator<QueryableEntry> nullIterator = new ArrayList<>(recordsWithNullValue.values()).iterator();
+            Iterator<QueryableEntry> iterator = sqlRecordIterator(null, false, null, false);
+            return new FlatCompositeIterator<>(Arrays.asList(nullIterator, iterator).iterator());
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable value) {
+        takeReadLock();
+        try {
+            if (fallback != null) {
+                return fallback.getSqlRecordIterator(value);
+            } else if (value == NULL) {
+                return new ArrayList<>(recordsWithNullValue.values()).iterator();
+            } else {
+                return sqlRecordIterator(value, true, value, true);
+            }
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparison comparison, Comparable value) {
+        takeReadLock();
+        try {
+            if (fallback != null) {
+                return fallback.getSqlRecordIterator(comparison, value);
+            }
+            switch (comparison) {
+                case LESS:
+                    return sqlRecordIterator(null, false, value, false);
+                case LESS_OR_EQUAL:
+                    return sqlRecordIterator(null, false, value, true);
+                case GREATER:
+                    return sqlRecordIterator(value, false, null, false);
+                case GREATER_OR_EQUAL:
+                    return sqlRecordIterator(value, true, null, false);
+                default:
+                    throw new IllegalArgumentException("Unrecognized comparison: " + comparison);
+            }
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(
+        Comparable from,
+        boolean fromInclusive,
+        Comparable to,
+        boolean toInclusive
+    ) {
+        takeReadLock();
+        try {
+            if (fallback != null) {
+                return fallback.getSqlRecordIterator(from, fromInclusive, to, toInclusive);
+            }
+            return sqlRecordIterator(from, fromInclusive, to, toInclusive);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        takeReadLock();
+        try {
+            if (fallback != null) {
+                return fallback.getRecords(value);
+            }
+            Map<Data, QueryableEntry> results = new HashMap<>();
+            forEachEqual(value, entry -> results.put(entry.getKeyData(), entry));
+            return new SingleResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        takeReadLock();
+        try {
+            if (fallback != null) {
+                return fallback.getRecords(values);
+            }
+            Map<Data, QueryableEntry> results = new HashMap<>();
+            for (Comparable value : values) {
+                forEachEqual(value, entry -> results.put(entry.getKeyData(), entry));
+            }
+            return new SingleResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable searchedValue) {
+        takeReadLock();
+        try {
+            if (fallback != null) {
+                return fallback.getRecords(comparison, searchedValue);
+            }
+            Map<Data, QueryableEntry> results = new HashMap<>();
+            Consumer<QueryableEntry> consumer = entry -> results.put(entry.getKeyData(), entry);
+            switch (comparison) {
+                case LESS:
+                    forEachInRange(null, false, searchedValue, false, consumer);
+                    break;
+                case LESS_OR_EQUAL:
+                    forEachInRange(null, false, searchedValue, true, consumer);
+                    break;
+                case GREATER:
+                    forEachInRange(searchedValue, false, null, false, consumer);
+                    break;
+                case GREATER_OR_EQUAL:
+                    forEachInRange(searchedValue, true, null, false, consumer);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized comparison: " + comparison);
+            }
+            return new SingleResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        takeReadLock();
+        try {
+            if (fallback != null) {
+                return fallback.getRecords(from, fromInclusive, to, toInclusive);
+            }
+            Map<Data, QueryableEntry> results = new HashMap<>();
+            forEachInRange(from, fromInclusive, to, toInclusive, entry -> results.put(entry.getKeyData(), entry));
+            return new SingleResultSet(results);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * Detects the key type from the first value inserted.
+     *
+     * @return {@code true} if the value can be stored in the tree, {@code
+     * false} if the store has to switch to the fallback store.
+     */
+    private boolean detectKeyType(Comparable value) {
+        KeyType valueKeyType = KeyType.of(value);
+        if (keyType == null) {
+            keyType = valueKeyType;
+        }
+        return valueKeyType != null && valueKeyType == keyType;
+    }
+
+    private void switchToFallback() {
+        OrderedIndexStore store = new OrderedIndexStore(copyBehavior);
+        if (isDetectingDuplicatesInMultiResults()) {
+            store.detectDuplicatesInMultiResults();
+        }
+        for (QueryableEntry entry : recordsWithNullValue.values()) {
+            store.insertInternal(NULL, entry);
+        }
+        if (keyType != null) {
+            Long2ObjectTreeMap.Cursor<Object> cursor = records.cursor();
+            while (cursor.advance()) {
+                Comparable value = keyType.decode(cursor.key());
+                forEachEntry(cursor.value(), entry -> store.insertInternal(value, entry));
+            }
+        }
+        records = new Long2ObjectTreeMap<>();
+        recordsWithNullValue = new HashMap<>();
+        fallback = store;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object insertIntoTree(long key, QueryableEntry record) {
+        Object slot = records.get(key);
+        if (slot == null) {
+            records.put(key, record);
+            return null;
+        } else if (slot instanceof Map) {
+            return ((Map<Data, QueryableEntry>) slot).put(record.getKeyData(), record);
+        }
+
+        QueryableEntry entry = (QueryableEntry) slot;
+        if (entry.getKeyData().equals(record.getKeyData())) {
+            records.put(key, record);
+            return entry;
+        }
+        Map<Data, QueryableEntry> entries = new HashMap<>();
+        entries.put(entry.getKeyData(), entry);
+        entries.put(record.getKeyData(), record);
+        records.put(key, entries);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object removeFromTree(long key, Data recordKey) {
+        Object slot = records.get(key);
+        if (slot instanceof Map) {
+            Map<Data, QueryableEntry> entries = (Map<Data, QueryableEntry>) slot;
+            QueryableEntry removed = entries.remove(recordKey);
+            if (entries.size() == 1) {
+                records.put(key, entries.values().iterator().next());
+            }
+            return removed;
+        } else if (slot != null && ((QueryableEntry) slot).getKeyData().equals(recordKey)) {
+            return records.remove(key);
+        } else {
+            return null;
+        }
+    }
+
+    private void forEachEqual(Comparable value, Consumer<QueryableEntry> consumer) {
+        if (value == NULL) {
+            recordsWithNullValue.values().forEach(consumer);
+        } else {
+            forEachInRange(value, true, value, true, consumer);
+        }
+    }
+
+    /**
+     * Passes the entries having the values in the given range to the
+     * consumer, a {@code null} bound leaves the range unbounded on its side.
+     */
+    private void forEachInRange(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive,
+                                Consumer<QueryableEntry> consumer) {
+        if (keyType == null) {
+            return;
+        }
+
+        if (keyType.canEncode(from) && keyType.canEncode(to)) {
+            Long2ObjectTreeMap.Cursor<Object> cursor = from == null
+                    ? records.cursor() : records.cursor(keyType.encode(from), fromInclusive);
+            long toKey = toKey(to);
+            boolean toKeyInclusive = to == null || toInclusive;
+            while (cursor.advance() && isBelow(cursor.key(), toKey, toKeyInclusive)) {
+                forEachEntry(cursor.value(), consumer);
+            }
+        } else {
+            // the arguments of other types are compared with the decoded values
+            Long2ObjectTreeMap.Cursor<Object> cursor = records.cursor();
+            while (cursor.advance()) {
+                Comparable value = keyType.decode(cursor.key());
+                if (isAbove(value, from, fromInclusive) && isBelow(value, to, toInclusive)) {
+                    forEachEntry(cursor.value(), consumer);
+                }
+            }
+        }
+    }
+
+    private Iterator<QueryableEntry> sqlRecordIterator(Comparable from, boolean fromInclusive, Comparable to,
+                                                       boolean toInclusive) {
+        if (keyType == null) {
+            return emptyIterator();
+        } else if (keyType.canEncode(from) && keyType.canEncode(to)) {
+            return new SqlRecordIterator(from, fromInclusive, toKey(to), to == null || toInclusive);
+        } else {
+            List<QueryableEntry> entries = new ArrayList<>();
+            forEachInRange(from, fromInclusive, to, toInclusive, entries::add);
+            return entries.iterator();
+        }
+    }
+
+    private long toKey(Comparable to) {
+        return to == null ? Long.MAX_VALUE : keyType.encode(to);
+    }
+
+    private static boolean isBelow(long key, long toKey, boolean inclusive) {
+        return inclusive ? key <= toKey : key < toKey;
+    }
+
+    private static boolean isAbove(Comparable value, Comparable from, boolean inclusive) {
+        if (from == null) {
+            return true;
+        }
+        int order = Comparables.compare(from, value);
+        return order < 0 || order == 0 && inclusive;
+    }
+
+    private static boolean isBelow(Comparable value, Comparable to, boolean inclusive) {
+        if (to == null) {
+            return true;
+        }
+        int order = Comparables.compare(to, value);
+        return order > 0 || order == 0 && inclusive;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void forEachEntry(Object slot, Consumer<QueryableEntry> consumer) {
+        if (slot instanceof Map) {
+            ((Map<Data, QueryableEntry>) slot).values().forEach(consumer);
+        } else {
+            consumer.accept((QueryableEntry) slot);
+        }
+    }
+
+    /**
+     * Iterates over the entries of a range of the tree, copying them in
+     * batches under the read lock. The next batch starts after the last
+     * value copied, so the iterator is not affected by the concurrent
+     * updates of the tree.
+     */
+    private final class SqlRecordIterator implements Iterator<QueryableEntry> {
+
+        private final Long2ObjectTreeMap<Object> tree;
+        private final long toKey;
+        private final boolean toInclusive;
+        private final List<QueryableEntry> batch = new ArrayList<>();
+
+        // the beginning of the next batch
+        private boolean fromFirstKey;
+        private long fromKey;
+        private boolean fromInclusive;
+
+        private int position;
+        private boolean exhausted;
+
+        SqlRecordIterator(Comparable from, boolean fromInclusive, long toKey, boolean toInclusive) {
+            this.tree = records;
+            this.fromFirstKey = from == null;
+            this.fromKey = from == null ? 0 : keyType.encode(from);
+            this.fromInclusive = fromInclusive;
+            this.toKey = toKey;
+            this.toInclusive = toInclusive;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == batch.size() && !exhausted) {
+                nextBatch();
+            }
+            return position < batch.size();
+        }
+
+        @Override
+        public QueryableEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.get(position++);
+        }
+
+        private void nextBatch() {
+            batch.clear();
+            position = 0;
+            takeReadLock();
+            try {
+                Long2ObjectTreeMap.Cursor<Object> cursor = fromFirstKey ? tree.cursor() : tree.cursor(fromKey, fromInclusive);
+                int slots = 0;
+                while (slots < SQL_ITERATOR_BATCH_SIZE && cursor.advance() && isBelow(cursor.key(), toKey, toInclusive)) {
+                    forEachEntry(cursor.value(), batch::add);
+                    fromKey = cursor.key();
+                    slots++;
+                }
+                fromFirstKey = false;
+                fromInclusive = false;
+                exhausted = slots < SQL_ITERATOR_BATCH_SIZE;
+            } finally {
+                releaseReadLock();
+            }
+        }
+    }
+
+    /**
+     * The order-preserving {@code long} encodings of the attribute values.
+     */
+    private enum KeyType {
+
+        INTEGRAL {
+            @Override
+            boolean canEncodeNonNull(Comparable value) {
+                return Numbers.isLongRepresentable(value.getClass());
+            }
+
+            @Override
+            long encode(Comparable value) {
+                return ((Number) value).longValue();
+            }
+
+            @Override
+            Comparable decode(long key) {
+                return key;
+            }
+        },
+
+        FLOATING_POINT {
+            @Override
+            boolean canEncodeNonNull(Comparable value) {
+                Class clazz = value.getClass();
+                if (Numbers.isDoubleRepresentable(clazz)) {
+                    return true;
+                }
+                long longValue = ((Number) value).longValue();
+                return Numbers.isLongRepresentable(clazz) && longValue > -EXACT_DOUBLE_BOUND && longValue < EXACT_DOUBLE_BOUND;
+            }
+
+            @Override
+            long encode(Comparable value) {
+                return flipNegative(Double.doubleToLongBits(((Number) value).doubleValue()));
+            }
+
+            @Override
+            Comparable decode(long key) {
+                return Double.longBitsToDouble(flipNegative(key));
+            }
+
+            // orders the bits of the doubles as Double.compare orders the doubles
+            private long flipNegative(long bits) {
+                return bits ^ ((bits >> (Long.SIZE - 1)) & Long.MAX_VALUE);
+            }
+        },
+
+        TIMESTAMP {
+            @Override
+            boolean canEncodeNonNull(Comparable value) {
+                Class clazz = value.getClass();
+                return clazz == Date.class || clazz == java.sql.Date.class;
+            }
+
+            @Override
+            long encode(Comparable value) {
+                return ((Date) value).getTime();
+            }
+
+            @Override
+            Comparable decode(long key) {
+                return new Date(key);
+            }
+        };
+
+        /**
+         * @return {@code true} if the value is {@code null} or it can be
+         * encoded, {@code false} otherwise.
+         */
+        boolean canEncode(Comparable value) {
+            return value == null || canEncodeNonNull(value);
+        }
+
+        abstract boolean canEncodeNonNull(Comparable value);
+
+        abstract long encode(Comparable value);
+
+        abstract Comparable decode(long key);
+
+        static KeyType of(Comparable value) {
+            AttributeType type = ReflectionHelper.getAttributeType(value.getClass());
+            if (type == null) {
+                return null;
+            }
+            switch (type) {
+                case BYTE:
+                case SHORT:
+                case INTEGER:
+                case LONG:
+                    return INTEGRAL;
+                case FLOAT:
+                case DOUBLE:
+                    return FLOATING_POINT;
+                case DATE:
+                case SQL_DATE:
+                    return TIMESTAMP;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -62,6 +62,7 @@ public class QueryEntry extends QueryableEntry {
         this.key = key;
         this.value = value;
         this.extractors = extractors;
+        clearCoveredAttributes();
     }
 
     @Override
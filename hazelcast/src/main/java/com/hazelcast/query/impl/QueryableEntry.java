@@ -28,6 +28,7 @@ import com.hazelcast.query.impl.getters.Extractors;
 import com.hazelcast.query.impl.getters.MultiResult;
 import com.hazelcast.query.impl.getters.ReflectionHelper;
 
+import java.util.Arrays;
 import java.util.Map;
 
 import static com.hazelcast.query.QueryConstants.KEY_ATTRIBUTE_NAME;
@@ -48,6 +49,9 @@ public abstract class QueryableEntry<K, V> implements Extractable, Map.Entry<K,
 
     private Record record;
 
+    // the attribute values stored by the covering indexes, published by the index stores
+    private CoveredAttributes coveredAttributes;
+
     // overridden in some subclasses
     public Metadata getMetadata() {
         // record is not set in plenty of internal unit tests
@@ -67,9 +71,37 @@ public abstract class QueryableEntry<K, V> implements Extractable, Map.Entry<K,
 
     @Override
     public Object getAttributeValue(String attributeName) throws QueryException {
+        CoveredAttributes coveredAttributes = this.coveredAttributes;
+        if (coveredAttributes != null) {
+            int index = coveredAttributes.indexOf(attributeName);
+            if (index != -1) {
+                return coveredAttributes.values[index];
+            }
+        }
         return extractAttributeValue(attributeName);
     }
 
+    /**
+     * Stores the given attribute values extracted by a covering index, so
+     * the values are not extracted from the entry again, see {@link
+     * com.hazelcast.config.IndexConfig#getIncludedAttributes()}. The
+     * attributes already stored by other indexes are retained.
+     *
+     * @param names  the canonical names of the attributes.
+     * @param values the attribute values as returned by {@link #getAttributeValue}.
+     */
+    void addCoveredAttributes(String[] names, Object[] values) {
+        this.coveredAttributes = CoveredAttributes.merge(coveredAttributes, names, values);
+    }
+
+    /**
+     * Drops the attribute values stored by the covering indexes, called
+     * when this entry instance is reused for another entry.
+     */
+    protected void clearCoveredAttributes() {
+        this.coveredAttributes = null;
+    }
+
     public abstract V getValue();
 
     public abstract K getKey();
@@ -203,4 +235,48 @@ public abstract class QueryableEntry<K, V> implements Extractable, Map.Entry<K,
         return isKey ? metadata.getKeyMetadata() : metadata.getValueMetadata();
     }
 
+    /**
+     * Immutable attribute values stored by the covering indexes, safely
+     * published through the final fields.
+     */
+    private static final class CoveredAttributes {
+
+        private static final String THIS_PREFIX = THIS_ATTRIBUTE_NAME.value() + ".";
+
+        final String[] names;
+        final Object[] values;
+
+        CoveredAttributes(String[] names, Object[] values) {
+            this.names = names;
+            this.values = values;
+        }
+
+        int indexOf(String name) {
+            for (int i = 0; i < names.length; ++i) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            // the names are canonical, see IndexUtils#canonicalizeAttribute
+            return name.startsWith(THIS_PREFIX) ? indexOf(name.substring(THIS_PREFIX.length())) : -1;
+        }
+
+        static CoveredAttributes merge(CoveredAttributes existing, String[] names, Object[] values) {
+            if (existing == null) {
+                return new CoveredAttributes(names.clone(), values.clone());
+            }
+
+            String[] mergedNames = Arrays.copyOf(existing.names, existing.names.length + names.length);
+            Object[] mergedValues = Arrays.copyOf(existing.values, mergedNames.length);
+            int size = existing.names.length;
+            for (int i = 0; i < names.length; ++i) {
+                if (existing.indexOf(names[i]) == -1) {
+                    mergedNames[size] = names[i];
+                    mergedValues[size++] = values[i];
+                }
+            }
+            return new CoveredAttributes(Arrays.copyOf(mergedNames, size), Arrays.copyOf(mergedValues, size));
+        }
+    }
+
 }
@@ -25,8 +25,10 @@ import com.hazelcast.query.impl.predicates.NotEqualPredicate;
 import com.hazelcast.query.impl.predicates.NotPredicate;
 import com.hazelcast.query.impl.predicates.OrPredicate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -162,7 +164,7 @@ public final class Bitmap<E> {
             if (predicates.length == 1) {
                 return predicateIterator(predicates[0], converter);
             } else {
-                return BitmapAlgorithms.and(predicateIterators(predicates, converter));
+                return andIterator(predicates, converter);
             }
         }
 
@@ -199,6 +201,40 @@ public final class Bitmap<E> {
         throw new IllegalArgumentException("unexpected predicate: " + predicate);
     }
 
+    private AscendingLongIterator andIterator(Predicate[] predicates, TypeConverter converter) {
+        // Negated operands are subtracted from the intersection of the other
+        // ones instead of being negated over all the entries: the subtraction
+        // visits just the members of the intersection.
+
+        List<AscendingLongIterator> included = new ArrayList<>(predicates.length);
+        List<Predicate> excluded = new ArrayList<>(predicates.length);
+        for (Predicate subPredicate : predicates) {
+            if (subPredicate instanceof NotPredicate || subPredicate instanceof NotEqualPredicate) {
+                excluded.add(subPredicate);
+            } else {
+                included.add(predicateIterator(subPredicate, converter));
+            }
+        }
+        if (included.isEmpty()) {
+            return BitmapAlgorithms.and(predicateIterators(predicates, converter));
+        }
+
+        AscendingLongIterator iterator = included.size() == 1 ? included.get(0)
+                : BitmapAlgorithms.and(included.toArray(new AscendingLongIterator[0]));
+        for (Predicate subPredicate : excluded) {
+            iterator = BitmapAlgorithms.andNot(iterator, negatedIterator(subPredicate, converter));
+        }
+        return iterator;
+    }
+
+    private AscendingLongIterator negatedIterator(Predicate predicate, TypeConverter converter) {
+        if (predicate instanceof NotPredicate) {
+            return predicateIterator(((NotPredicate) predicate).getPredicate(), converter);
+        } else {
+            return valueIterator(((NotEqualPredicate) predicate).getValue(), converter);
+        }
+    }
+
     private AscendingLongIterator[] predicateIterators(Predicate[] predicates, TypeConverter converter) {
         AscendingLongIterator[] iterators = new AscendingLongIterator[predicates.length];
         for (int i = 0; i < predicates.length; ++i) {
@@ -45,6 +45,14 @@ final class BitmapAlgorithms {
         return new OrIterator(iterators);
     }
 
+    /**
+     * @return an iterator that represents a result of subtraction of the given
+     * excluded iterator from the given iterator.
+     */
+    public static AscendingLongIterator andNot(AscendingLongIterator iterator, AscendingLongIterator excluded) {
+        return new AndNotIterator(iterator, excluded);
+    }
+
     /**
      * @return an iterator that represents a result of negation of the given
      * iterator over the given universe (a set of known elements).
@@ -287,6 +295,63 @@ final class BitmapAlgorithms {
 
     }
 
+    private static final class AndNotIterator implements AscendingLongIterator {
+
+        // The idea: iterate the base iterator and skip its members the
+        // excluded iterator advances exactly to. Unlike the negation over the
+        // universe, only the members of the base iterator are visited and the
+        // excluded iterator is just positioned by them.
+
+        private final AscendingLongIterator iterator;
+        private final AscendingLongIterator excluded;
+
+        private long index;
+
+        AndNotIterator(AscendingLongIterator iterator, AscendingLongIterator excluded) {
+            this.iterator = iterator;
+            this.excluded = excluded;
+            this.index = skipExcluded();
+        }
+
+        @Override
+        public long getIndex() {
+            return index;
+        }
+
+        @Override
+        public long advance() {
+            long current = index;
+            if (current == AscendingLongIterator.END) {
+                return AscendingLongIterator.END;
+            }
+
+            iterator.advance();
+            index = skipExcluded();
+            return current;
+        }
+
+        @Override
+        public long advanceAtLeastTo(long member) {
+            if (index == AscendingLongIterator.END || index >= member) {
+                return index;
+            }
+
+            iterator.advanceAtLeastTo(member);
+            index = skipExcluded();
+            return index;
+        }
+
+        private long skipExcluded() {
+            long member = iterator.getIndex();
+            while (member != AscendingLongIterator.END && excluded.advanceAtLeastTo(member) == member) {
+                iterator.advance();
+                member = iterator.getIndex();
+            }
+            return member;
+        }
+
+    }
+
     private static final class NotIterator implements AscendingLongIterator {
 
         // The idea: find gaps in the base iterator and iterate indexes/members
@@ -16,6 +16,8 @@
 
 package com.hazelcast.query.impl.bitmap;
 
+import java.util.Arrays;
+
 import static com.hazelcast.query.impl.bitmap.BitmapUtils.capacityDeltaInt;
 import static com.hazelcast.query.impl.bitmap.BitmapUtils.capacityDeltaShort;
 import static com.hazelcast.query.impl.bitmap.BitmapUtils.toUnsignedInt;
@@ -42,12 +44,14 @@ import static java.util.Arrays.copyOf;
  * the low 16 bits.
  * </ul>
  * <p>
- * {@link Storage16 Storage16} also goes in two flavors:
+ * {@link Storage16 Storage16} goes in three flavors:
  * <ul>
  * <li>{@link ArrayStorage16 ArrayStorage16} which manages sorted short array of
  * 16-bit postfixes.
  * <li>{@link BitSetStorage16 BitSetStorage16} which manages directly indexable
  * long array of bits.
+ * <li>{@link RunStorage16 RunStorage16} which manages sorted short arrays of
+ * starts and ends of runs of consecutive 16-bit postfixes.
  * </ul>
  * <p>
  * The implementation (which was inspired by Roaring Bitmap) switches between
@@ -71,6 +75,18 @@ final class SparseBitSet {
      */
     public static final int ARRAY_STORAGE_16_MAX_SIZE = 4096;
 
+    /**
+     * The number of runs at which RunStorage16 is converted to ArrayStorage16
+     * or BitSetStorage16. At this number of runs the memory cost of having
+     * sorted arrays of run starts and ends is a half of the cost of having
+     * directly indexable long array of bits.
+     * <p>
+     * ArrayStorage16 is converted to RunStorage16 once the latter is at most
+     * half the size, BitSetStorage16 once it has at most a half of this number
+     * of runs, so the storages don't flip back and forth on every update.
+     */
+    public static final int RUN_STORAGE_16_MAX_RUNS = 1024;
+
     private static final long INT_PREFIX_MASK = 0xFFFFFFFF00000000L;
     private static final long INT_POSTFIX_MASK = 0x00000000FFFFFFFFL;
     private static final long SHORT_PREFIX_MASK = 0x00000000FFFF0000L;
@@ -791,6 +807,8 @@ final class SparseBitSet {
 
         private int size;
         private short[] members;
+        // true if downgraded from runs, converting back to runs could bounce
+        private boolean fromRuns;
 
         ArrayStorage16(short member) {
             this.size = 1;
@@ -823,6 +841,28 @@ final class SparseBitSet {
             this.members = members;
         }
 
+        /**
+         * Constructs a new storage by downgrading from the given {@link
+         * RunStorage16} data.
+         */
+        ArrayStorage16(short[] starts, short[] ends, int runCount, int size) {
+            assert size <= ARRAY_STORAGE_16_MAX_SIZE;
+            this.size = size;
+
+            short[] members = new short[Math.max(MIN_CAPACITY, size)];
+            int index = 0;
+            for (int i = 0; i < runCount; ++i) {
+                int end = toUnsignedInt(ends[i]);
+                for (int member = toUnsignedInt(starts[i]); member <= end; ++member) {
+                    members[index++] = (short) member;
+                }
+            }
+            assert index == size;
+
+            this.members = members;
+            this.fromRuns = true;
+        }
+
         @Override
         public Storage16 add(short member) {
             int index = unsignedBinarySearch(members, size, toUnsignedInt(member));
@@ -833,7 +873,16 @@ final class SparseBitSet {
             index = -(index + 1);
 
             if (size == members.length) {
-                // No space left: try to grow members array.
+                // No space left: try to switch to runs or grow members array.
+
+                if (!fromRuns) {
+                    int runCount = RunStorage16.countRuns(members, size);
+                    // at the maximum run count the run storage may convert
+                    // right back to an array to add the member
+                    if (runCount < RUN_STORAGE_16_MAX_RUNS && runCount <= size >>> 2) {
+                        return new RunStorage16(members, size, runCount).add(member);
+                    }
+                }
 
                 if (size == ARRAY_STORAGE_16_MAX_SIZE) {
                     return new BitSetStorage16(members, member, index);
@@ -976,8 +1025,13 @@ final class SparseBitSet {
         // masks lower 6 bits
         private static final long POSTFIX_MASK = 0xFFFFFFFFFFFFFFC0L;
 
+        private static final int MAX_MEMBER = 0xFFFF;
+        private static final int MAX_RUNS = RUN_STORAGE_16_MAX_RUNS >>> 1;
+
         private final long[] members = new long[SIZE];
         private int size;
+        // the number of runs of consecutive members
+        private int runCount;
 
         /**
          * Constructs a new bit set storage for the given sorted members array
@@ -992,6 +1046,19 @@ final class SparseBitSet {
                 append(members[i]);
             }
             this.size = members.length + 1;
+            this.runCount = RunStorage16.countRuns(this.members);
+        }
+
+        /**
+         * Constructs a new bit set storage by upgrading from the given {@link
+         * RunStorage16} data.
+         */
+        BitSetStorage16(short[] starts, short[] ends, int runCount, int size) {
+            for (int i = 0; i < runCount; ++i) {
+                setRange(toUnsignedInt(starts[i]), toUnsignedInt(ends[i]));
+            }
+            this.size = size;
+            this.runCount = runCount;
         }
 
         @Override
@@ -1005,6 +1072,11 @@ final class SparseBitSet {
 
             if (newBitSet != bitSet) {
                 ++size;
+                // the member starts a new run, extends a run or joins two runs
+                runCount += 1 - neighbours(bitIndex);
+                if (runCount <= MAX_RUNS) {
+                    return new RunStorage16(members, size, runCount);
+                }
             }
             return this;
         }
@@ -1020,9 +1092,14 @@ final class SparseBitSet {
 
             if (newBitSet != bitSet) {
                 --size;
+                // the member was a run, shortened a run or joined two runs
+                runCount += neighbours(bitIndex) - 1;
                 if (size == MIN_SIZE) {
                     return new ArrayStorage16(members, size);
                 }
+                if (runCount <= MAX_RUNS) {
+                    return new RunStorage16(members, size, runCount);
+                }
             }
             return this;
         }
@@ -1100,6 +1177,303 @@ final class SparseBitSet {
             members[bitIndex >>> BIT_SET_LONG_SHIFT] |= 1L << bitIndex;
         }
 
+        private int neighbours(int bitIndex) {
+            int neighbours = 0;
+            if (bitIndex > 0 && contains(bitIndex - 1)) {
+                ++neighbours;
+            }
+            if (bitIndex < MAX_MEMBER && contains(bitIndex + 1)) {
+                ++neighbours;
+            }
+            return neighbours;
+        }
+
+        private boolean contains(int bitIndex) {
+            return (members[bitIndex >>> BIT_SET_LONG_SHIFT] & 1L << bitIndex) != 0;
+        }
+
+        private void setRange(int from, int to) {
+            int fromIndex = from >>> BIT_SET_LONG_SHIFT;
+            int toIndex = to >>> BIT_SET_LONG_SHIFT;
+            long fromMask = -1L << from;
+            long toMask = -1L >>> (Long.SIZE - 1 - (to & (Long.SIZE - 1)));
+            if (fromIndex == toIndex) {
+                members[fromIndex] |= fromMask & toMask;
+            } else {
+                members[fromIndex] |= fromMask;
+                Arrays.fill(members, fromIndex + 1, toIndex, -1L);
+                members[toIndex] |= toMask;
+            }
+        }
+
+    }
+
+    /**
+     * Manages sorted short arrays of starts and ends of runs of consecutive
+     * indexes of set bits.
+     */
+    private static final class RunStorage16 implements Storage16 {
+
+        private static final int MIN_CAPACITY = 1;
+
+        private int runCount;
+        private short[] starts;
+        // inclusive
+        private short[] ends;
+        private int size;
+
+        /**
+         * Constructs a new run storage by converting from the given {@link
+         * ArrayStorage16} data.
+         */
+        RunStorage16(short[] members, int size, int runCount) {
+            assert runCount <= RUN_STORAGE_16_MAX_RUNS;
+            this.runCount = runCount;
+            this.size = size;
+            this.starts = new short[runCount];
+            this.ends = new short[runCount];
+
+            int run = 0;
+            starts[0] = members[0];
+            for (int i = 1; i < size; ++i) {
+                if (toUnsignedInt(members[i]) != toUnsignedInt(members[i - 1]) + 1) {
+                    ends[run] = members[i - 1];
+                    ++run;
+                    starts[run] = members[i];
+                }
+            }
+            ends[run] = members[size - 1];
+            assert run + 1 == runCount;
+        }
+
+        /**
+         * Constructs a new run storage by converting from the given {@link
+         * BitSetStorage16} data.
+         */
+        RunStorage16(long[] bits, int size, int runCount) {
+            assert runCount <= RUN_STORAGE_16_MAX_RUNS;
+            this.runCount = runCount;
+            this.size = size;
+            this.starts = new short[runCount];
+            this.ends = new short[runCount];
+
+            int startIndex = 0;
+            int endIndex = 0;
+            long carry = 0;
+            for (int i = 0; i < bits.length; ++i) {
+                long value = bits[i];
+                long next = i + 1 < bits.length ? bits[i + 1] : 0;
+                int base = i << BitSetStorage16.BIT_SET_LONG_SHIFT;
+
+                // a run starts at a set bit not preceded by a set bit and ends
+                // at a set bit not followed by a set bit
+                long runStarts = value & ~(value << 1 | carry);
+                long runEnds = value & ~(value >>> 1 | next << (Long.SIZE - 1));
+                while (runStarts != 0) {
+                    starts[startIndex++] = (short) (base + numberOfTrailingZeros(runStarts));
+                    runStarts &= runStarts - 1;
+                }
+                while (runEnds != 0) {
+                    ends[endIndex++] = (short) (base + numberOfTrailingZeros(runEnds));
+                    runEnds &= runEnds - 1;
+                }
+                carry = value >>> (Long.SIZE - 1);
+            }
+            assert startIndex == runCount && endIndex == runCount;
+        }
+
+        /**
+         * @return the number of runs of consecutive members in the given
+         * sorted members array.
+         */
+        static int countRuns(short[] members, int size) {
+            int runCount = 1;
+            for (int i = 1; i < size; ++i) {
+                if (toUnsignedInt(members[i]) != toUnsignedInt(members[i - 1]) + 1) {
+                    ++runCount;
+                }
+            }
+            return runCount;
+        }
+
+        /**
+         * @return the number of runs of consecutive set bits in the given
+         * long array of bits.
+         */
+        static int countRuns(long[] bits) {
+            int runCount = 0;
+            long carry = 0;
+            for (long value : bits) {
+                runCount += Long.bitCount(value & ~(value << 1 | carry));
+                carry = value >>> (Long.SIZE - 1);
+            }
+            return runCount;
+        }
+
+        @Override
+        public Storage16 add(short member) {
+            int unsignedMember = toUnsignedInt(member);
+            int run = findRun(0, unsignedMember);
+            if (run >= 0 && unsignedMember <= toUnsignedInt(ends[run])) {
+                // already in a run
+                return this;
+            }
+
+            boolean extendsPrevious = run >= 0 && toUnsignedInt(ends[run]) + 1 == unsignedMember;
+            boolean extendsNext = run + 1 < runCount && toUnsignedInt(starts[run + 1]) - 1 == unsignedMember;
+            if (extendsPrevious && extendsNext) {
+                // the member joins two runs
+                ends[run] = ends[run + 1];
+                removeRun(run + 1);
+            } else if (extendsPrevious) {
+                ends[run] = member;
+            } else if (extendsNext) {
+                starts[run + 1] = member;
+            } else if (runCount == RUN_STORAGE_16_MAX_RUNS) {
+                return toDenserStorage().add(member);
+            } else {
+                insertRun(run + 1, member, member);
+            }
+            ++size;
+            return this;
+        }
+
+        @Override
+        public Storage16 remove(short member) {
+            int unsignedMember = toUnsignedInt(member);
+            int run = findRun(0, unsignedMember);
+            if (run < 0 || unsignedMember > toUnsignedInt(ends[run])) {
+                // not a member
+                return this;
+            }
+
+            int start = toUnsignedInt(starts[run]);
+            int end = toUnsignedInt(ends[run]);
+            if (start == end) {
+                removeRun(run);
+            } else if (unsignedMember == start) {
+                starts[run] = (short) (unsignedMember + 1);
+            } else if (unsignedMember == end) {
+                ends[run] = (short) (unsignedMember - 1);
+            } else if (runCount == RUN_STORAGE_16_MAX_RUNS) {
+                return toDenserStorage().remove(member);
+            } else {
+                // the member splits the run
+                insertRun(run + 1, (short) (unsignedMember + 1), ends[run]);
+                ends[run] = (short) (unsignedMember - 1);
+            }
+
+            --size;
+            if (size == 0) {
+                // emptied
+                return null;
+            }
+            if (size < runCount << 1) {
+                // the members are too sparse: an array is smaller
+                return new ArrayStorage16(starts, ends, runCount, size);
+            }
+            return this;
+        }
+
+        @Override
+        public void iterate(IteratorImpl iterator) {
+            assert size > 0;
+            iterator.position16 = 0;
+            iterator.index = iterator.index & INT_PREFIX_SHORT_PREFIX_MASK | toUnsignedInt(starts[0]);
+        }
+
+        @Override
+        public boolean advance(IteratorImpl iterator) {
+            long current = iterator.index;
+            int position = iterator.position16;
+            if ((current & SHORT_POSTFIX_MASK) < toUnsignedInt(ends[position])) {
+                iterator.index = current + 1;
+                return true;
+            }
+
+            ++position;
+            if (position < runCount) {
+                iterator.index = current & INT_PREFIX_SHORT_PREFIX_MASK | toUnsignedInt(starts[position]);
+                iterator.position16 = position;
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public boolean iterateAtLeastFrom(short member, IteratorImpl iterator) {
+            return iterateAtLeastFrom(toUnsignedInt(member), 0, iterator);
+        }
+
+        @Override
+        public boolean advanceAtLeastTo(short member, IteratorImpl iterator) {
+            int unsignedMember = toUnsignedInt(member);
+            assert (iterator.index & SHORT_POSTFIX_MASK) < unsignedMember;
+            return iterateAtLeastFrom(unsignedMember, iterator.position16, iterator);
+        }
+
+        private boolean iterateAtLeastFrom(int unsignedMember, int fromPosition, IteratorImpl iterator) {
+            int position = findRun(fromPosition, unsignedMember);
+            int member = unsignedMember;
+            if (position < 0 || unsignedMember > toUnsignedInt(ends[position])) {
+                // the member is in a gap: iterate from the start of the next run
+                ++position;
+                if (position == runCount) {
+                    return false;
+                }
+                member = toUnsignedInt(starts[position]);
+            }
+
+            iterator.index = iterator.index & INT_PREFIX_SHORT_PREFIX_MASK | member;
+            iterator.position16 = position;
+            return true;
+        }
+
+        /**
+         * @return the position of the last run starting at or before the given
+         * member or {@code fromPosition - 1} if there is no such run.
+         */
+        private int findRun(int fromPosition, int unsignedMember) {
+            int position = unsignedBinarySearch(starts, fromPosition, runCount, unsignedMember);
+            return position >= 0 ? position : -(position + 1) - 1;
+        }
+
+        private void insertRun(int position, short start, short end) {
+            if (runCount == starts.length) {
+                int newCapacity = Math.min(RUN_STORAGE_16_MAX_RUNS, runCount + capacityDeltaShort(starts.length));
+                starts = copyOf(starts, newCapacity);
+                ends = copyOf(ends, newCapacity);
+            }
+            arraycopy(starts, position, starts, position + 1, runCount - position);
+            arraycopy(ends, position, ends, position + 1, runCount - position);
+            starts[position] = start;
+            ends[position] = end;
+            ++runCount;
+        }
+
+        private void removeRun(int position) {
+            --runCount;
+            arraycopy(starts, position + 1, starts, position, runCount - position);
+            arraycopy(ends, position + 1, ends, position, runCount - position);
+
+            int delta = capacityDeltaShort(starts.length);
+            int newCapacity = starts.length - delta;
+            if (starts.length - runCount >= delta && newCapacity >= MIN_CAPACITY) {
+                // We are wasting too much: shrink the arrays.
+                starts = copyOf(starts, newCapacity);
+                ends = copyOf(ends, newCapacity);
+            }
+        }
+
+        private Storage16 toDenserStorage() {
+            if (size <= ARRAY_STORAGE_16_MAX_SIZE) {
+                return new ArrayStorage16(starts, ends, runCount, size);
+            } else {
+                return new BitSetStorage16(starts, ends, runCount, size);
+            }
+        }
+
     }
 
     /**
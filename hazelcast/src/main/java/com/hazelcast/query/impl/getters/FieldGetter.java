@@ -16,11 +16,17 @@
 
 package com.hazelcast.query.impl.getters;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
 
 public final class FieldGetter extends AbstractMultiValueGetter {
 
     private final Field field;
+    private final MethodHandle handle;
+    private final Class<?> receiverType;
 
     // for testing purposes only
     public FieldGetter(Getter parent, Field field, String modifier, Class elementType) {
@@ -30,10 +36,22 @@ public final class FieldGetter extends AbstractMultiValueGetter {
     public FieldGetter(Getter parent, Field field, String modifier, Class type, Class elementType) {
         super(parent, modifier, type, elementType);
         this.field = field;
+        this.handle = GetterHandles.forField(field);
+        this.receiverType = Modifier.isStatic(field.getModifiers()) ? Object.class : field.getDeclaringClass();
     }
 
     @Override
     protected Object extractFrom(Object object) throws IllegalAccessException {
+        if (handle != null) {
+            if (!receiverType.isInstance(object)) {
+                throw new IllegalArgumentException(composeAttributeValueExtractionFailedMessage(field));
+            }
+            try {
+                return handle.invokeExact(object);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
         try {
             return field.get(object);
         } catch (IllegalArgumentException e) {
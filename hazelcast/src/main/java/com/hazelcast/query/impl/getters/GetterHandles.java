@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.getters;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static com.hazelcast.internal.util.EmptyStatement.ignore;
+
+/**
+ * Creates the {@link MethodHandle}s the {@link FieldGetter} and {@link
+ * MethodGetter} read the attribute values with.
+ * <p>
+ * A handle is adapted to the {@code (Object)Object} type, so it's invoked
+ * exactly, without the argument array, the access checks and the
+ * exception wrapping of {@link Field#get} and {@link Method#invoke}.
+ * The handles are looked up with the access of this package, which is
+ * what the reflective access of the getters is checked against, so a
+ * member readable by reflection is readable by its handle.
+ */
+final class GetterHandles {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private GetterHandles() {
+    }
+
+    /**
+     * @return the handle reading the given field or {@code null} if the
+     * field is not accessible through a handle.
+     */
+    static MethodHandle forField(Field field) {
+        try {
+            MethodHandle handle = LOOKUP.unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            ignore(e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the handle invoking the given no-arg method or {@code null}
+     * if the method is not accessible through a handle.
+     */
+    static MethodHandle forMethod(Method method) {
+        if (method.getParameterCount() != 0) {
+            return null;
+        }
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            ignore(e);
+            return null;
+        }
+    }
+
+}
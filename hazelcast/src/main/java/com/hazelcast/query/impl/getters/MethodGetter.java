@@ -16,12 +16,16 @@
 
 package com.hazelcast.query.impl.getters;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 public final class MethodGetter extends AbstractMultiValueGetter {
 
     private final Method method;
+    private final MethodHandle handle;
+    private final Class<?> receiverType;
 
     // for testing purposes only
     public MethodGetter(Getter parent, Method method, String modifier, Class elementType) {
@@ -31,10 +35,23 @@ public final class MethodGetter extends AbstractMultiValueGetter {
     public MethodGetter(Getter parent, Method method, String modifier, Class type, Class elementType) {
         super(parent, modifier, type, elementType);
         this.method = method;
+        this.handle = GetterHandles.forMethod(method);
+        this.receiverType = Modifier.isStatic(method.getModifiers()) ? Object.class : method.getDeclaringClass();
     }
 
     @Override
     protected Object extractFrom(Object object) throws IllegalAccessException, InvocationTargetException {
+        if (handle != null) {
+            if (!receiverType.isInstance(object)) {
+                throw new IllegalArgumentException(composeAttributeValueExtractionFailedMessage(method));
+            }
+            try {
+                return handle.invokeExact(object);
+            } catch (Throwable t) {
+                // wrapped like the exceptions thrown by a method invoked reflectively
+                throw new InvocationTargetException(t);
+            }
+        }
         try {
             return method.invoke(object);
         } catch (IllegalArgumentException e) {
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+/**
+ * A predicate compiled for the evaluation over an {@link EntryBatch}, see
+ * {@link BatchPredicates#compile}.
+ */
+interface BatchPredicate {
+
+    /**
+     * Narrows the given selection of the batch entries to the entries
+     * matching this predicate.
+     *
+     * @param batch     the batch to evaluate this predicate on.
+     * @param selection the ascending indexes of the selected batch entries,
+     *                  the indexes of the matching entries are written to
+     *                  its beginning in the same order.
+     * @param size      the number of the selected entries.
+     * @return the number of the matching entries.
+     */
+    int select(EntryBatch batch, int[] selection, int size);
+
+}
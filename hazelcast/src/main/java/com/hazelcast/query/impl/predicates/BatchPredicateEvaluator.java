@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.QueryableEntry;
+
+/**
+ * Evaluates a predicate over batches of entries instead of entry by entry.
+ * <p>
+ * The attribute values referenced by the predicate are extracted from the
+ * entries of a batch column-wise, once per attribute and entry, and the
+ * comparison predicates are evaluated over the columns narrowing a
+ * selection vector of the matching entries. The results are the same as of
+ * {@link Predicate#apply} invoked for every entry.
+ * <p>
+ * Instances are not thread-safe, a scan evaluating its batches on a single
+ * thread should create its own instance.
+ */
+public final class BatchPredicateEvaluator {
+
+    private final BatchPredicate predicate;
+    private final EntryBatch batch = new EntryBatch();
+
+    private BatchPredicateEvaluator(BatchPredicate predicate) {
+        this.predicate = predicate;
+    }
+
+    /**
+     * Creates an evaluator for the given predicate.
+     *
+     * @return the created evaluator or {@code null} if the predicate has
+     * nothing to be evaluated column-wise, so there is no gain in the batch
+     * evaluation.
+     */
+    public static BatchPredicateEvaluator create(Predicate predicate) {
+        if (predicate instanceof PagingPredicateImpl) {
+            predicate = ((PagingPredicateImpl) predicate).getPredicate();
+        }
+        if (predicate == null) {
+            return null;
+        }
+        BatchPredicate compiled = BatchPredicates.compile(predicate);
+        if (compiled instanceof BatchPredicates.EntryBatchPredicate) {
+            return null;
+        }
+        return new BatchPredicateEvaluator(compiled);
+    }
+
+    /**
+     * Evaluates the predicate on the given entries.
+     *
+     * @param entries   the entries to evaluate the predicate on.
+     * @param size      the number of the entries, starting from the
+     *                  beginning of the array.
+     * @param selection the array receiving the ascending indexes of the
+     *                  matching entries, at least as long as the entries array.
+     * @return the number of the matching entries.
+     */
+    public int evaluate(QueryableEntry[] entries, int size, int[] selection) {
+        assert selection.length >= entries.length;
+        for (int i = 0; i < size; ++i) {
+            selection[i] = i;
+        }
+        batch.reset(entries, size);
+        return predicate.select(batch, selection, size);
+    }
+
+}
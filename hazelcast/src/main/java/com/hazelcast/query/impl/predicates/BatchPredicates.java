@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.predicates.EntryBatch.Column;
+
+import java.util.Arrays;
+
+import static com.hazelcast.query.impl.Numbers.isDoubleRepresentable;
+import static com.hazelcast.query.impl.Numbers.isLongRepresentable;
+import static com.hazelcast.query.impl.predicates.PredicateUtils.isNull;
+
+/**
+ * Compiles predicates into {@link BatchPredicate}s.
+ * <p>
+ * {@link EqualPredicate}, {@link GreaterLessPredicate}, {@link
+ * BetweenPredicate} and {@link InPredicate} are evaluated on the attribute
+ * columns of a batch. If the selected values of a column are whole or
+ * floating point numbers of the same class, the given values are converted
+ * once per batch and compared to the primitive column values, which gives
+ * the same results as {@link Comparables} does for the boxed values. Other
+ * values are evaluated one by one as the predicates do it for entries.
+ * <p>
+ * {@link AndPredicate}, {@link OrPredicate} and {@link NotPredicate} combine
+ * the selections of their compiled subpredicates, any other predicate is
+ * applied to the selected entries one by one.
+ */
+final class BatchPredicates {
+
+    private BatchPredicates() {
+    }
+
+    static BatchPredicate compile(Predicate predicate) {
+        if (predicate instanceof SkipIndexPredicate) {
+            return compile(((SkipIndexPredicate) predicate).getTarget());
+        } else if (predicate instanceof SqlPredicate) {
+            return compile(((SqlPredicate) predicate).getPredicate());
+        } else if (predicate instanceof AndPredicate) {
+            return new AndBatchPredicate(compile(((AndPredicate) predicate).predicates));
+        } else if (predicate instanceof OrPredicate) {
+            return new OrBatchPredicate(compile(((OrPredicate) predicate).predicates));
+        } else if (predicate instanceof NotPredicate) {
+            return new NotBatchPredicate(compile(((NotPredicate) predicate).predicate));
+        }
+        return compileLeaf(predicate);
+    }
+
+    private static BatchPredicate compileLeaf(Predicate predicate) {
+        Class<?> clazz = predicate.getClass();
+        if (clazz == EqualPredicate.class) {
+            return new EqualBatchPredicate((EqualPredicate) predicate);
+        } else if (clazz == GreaterLessPredicate.class) {
+            return new GreaterLessBatchPredicate((GreaterLessPredicate) predicate);
+        } else if (clazz == BetweenPredicate.class) {
+            return new BetweenBatchPredicate((BetweenPredicate) predicate);
+        } else if (clazz == InPredicate.class) {
+            return new InBatchPredicate((InPredicate) predicate);
+        }
+        return new EntryBatchPredicate(predicate);
+    }
+
+    private static BatchPredicate[] compile(Predicate[] predicates) {
+        BatchPredicate[] compiled = new BatchPredicate[predicates.length];
+        for (int i = 0; i < predicates.length; ++i) {
+            compiled[i] = compile(predicates[i]);
+        }
+        return compiled;
+    }
+
+    /**
+     * Applies a predicate to the selected entries one by one.
+     */
+    static final class EntryBatchPredicate implements BatchPredicate {
+
+        private final Predicate predicate;
+
+        EntryBatchPredicate(Predicate predicate) {
+            this.predicate = predicate;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public int select(EntryBatch batch, int[] selection, int size) {
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                if (predicate.apply(batch.entry(index))) {
+                    selection[selected++] = index;
+                }
+            }
+            return selected;
+        }
+
+    }
+
+    private static final class AndBatchPredicate implements BatchPredicate {
+
+        private final BatchPredicate[] predicates;
+
+        AndBatchPredicate(BatchPredicate[] predicates) {
+            this.predicates = predicates;
+        }
+
+        @Override
+        public int select(EntryBatch batch, int[] selection, int size) {
+            for (BatchPredicate predicate : predicates) {
+                if (size == 0) {
+                    break;
+                }
+                size = predicate.select(batch, selection, size);
+            }
+            return size;
+        }
+
+    }
+
+    /**
+     * Base for the predicates combining the selections of their
+     * subpredicates evaluated on a copy of the selection.
+     */
+    private abstract static class CombiningBatchPredicate implements BatchPredicate {
+
+        int[] remaining = new int[0];
+        int[] scratch = new int[0];
+        boolean[] matched = new boolean[0];
+
+        void ensureCapacity(int capacity) {
+            if (remaining.length < capacity) {
+                remaining = new int[capacity];
+                scratch = new int[capacity];
+                matched = new boolean[capacity];
+            }
+        }
+
+        /**
+         * Evaluates the given predicate on the given part of {@link
+         * #remaining} and marks the matching entries in {@link #matched}.
+         *
+         * @return the number of the matching entries.
+         */
+        int mark(BatchPredicate predicate, EntryBatch batch, int size) {
+            System.arraycopy(remaining, 0, scratch, 0, size);
+            int selected = predicate.select(batch, scratch, size);
+            for (int i = 0; i < selected; ++i) {
+                matched[scratch[i]] = true;
+            }
+            return selected;
+        }
+
+        /**
+         * Keeps the selected entries whose mark equals the given one and
+         * clears the marks.
+         */
+        int collect(int[] selection, int size, boolean mark) {
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                if (matched[index] == mark) {
+                    selection[selected++] = index;
+                }
+                matched[index] = false;
+            }
+            return selected;
+        }
+
+    }
+
+    private static final class OrBatchPredicate extends CombiningBatchPredicate {
+
+        private final BatchPredicate[] predicates;
+
+        OrBatchPredicate(BatchPredicate[] predicates) {
+            this.predicates = predicates;
+        }
+
+        @Override
+        public int select(EntryBatch batch, int[] selection, int size) {
+            ensureCapacity(selection.length);
+            System.arraycopy(selection, 0, remaining, 0, size);
+            int remainingSize = size;
+            for (BatchPredicate predicate : predicates) {
+                if (remainingSize == 0) {
+                    break;
+                }
+                // the entries matched by a disjunct are not evaluated by the next ones
+                if (mark(predicate, batch, remainingSize) > 0) {
+                    int unmatched = 0;
+                    for (int i = 0; i < remainingSize; ++i) {
+                        int index = remaining[i];
+                        if (!matched[index]) {
+                            remaining[unmatched++] = index;
+                        }
+                    }
+                    remainingSize = unmatched;
+                }
+            }
+            return collect(selection, size, true);
+        }
+
+    }
+
+    private static final class NotBatchPredicate extends CombiningBatchPredicate {
+
+        private final BatchPredicate predicate;
+
+        NotBatchPredicate(BatchPredicate predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public int select(EntryBatch batch, int[] selection, int size) {
+            ensureCapacity(selection.length);
+            System.arraycopy(selection, 0, remaining, 0, size);
+            mark(predicate, batch, size);
+            return collect(selection, size, false);
+        }
+
+    }
+
+    /**
+     * Base for the compiled predicates on a single attribute.
+     *
+     * @param <P> the type of the compiled predicate.
+     */
+    private abstract static class AttributeBatchPredicate<P extends AbstractPredicate> implements BatchPredicate {
+
+        final P predicate;
+
+        AttributeBatchPredicate(P predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public int select(EntryBatch batch, int[] selection, int size) {
+            Column column = batch.column(predicate.attributeName, selection, size);
+            Class<?> clazz = column.uniformClass(selection, size);
+            if (clazz != null) {
+                Comparable sample = (Comparable) column.value(selection[0]);
+                int selected = -1;
+                if (isLongRepresentable(clazz)) {
+                    selected = selectLongs(column, sample, selection, size);
+                } else if (isDoubleRepresentable(clazz)) {
+                    selected = selectDoubles(column, sample, selection, size);
+                }
+                if (selected != -1) {
+                    return selected;
+                }
+            }
+
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                if (predicate.applyForAttributeValue(column.value(index))) {
+                    selection[selected++] = index;
+                }
+            }
+            return selected;
+        }
+
+        /**
+         * Selects the entries by the whole number values of the column.
+         *
+         * @param sample one of the selected column values, used to convert
+         *               the values given to the predicate.
+         * @return the number of the matching entries or {@code -1} if the
+         * values given to the predicate can't be compared as whole numbers.
+         */
+        abstract int selectLongs(Column column, Comparable sample, int[] selection, int size);
+
+        /**
+         * Selects the entries by the floating point values of the column.
+         *
+         * @param sample one of the selected column values, used to convert
+         *               the values given to the predicate.
+         * @return the number of the matching entries or {@code -1} if the
+         * values given to the predicate can't be compared as floating point
+         * numbers.
+         */
+        abstract int selectDoubles(Column column, Comparable sample, int[] selection, int size);
+
+        Comparable convert(Comparable sample, Comparable value) {
+            return predicate.convert(sample, value);
+        }
+
+        static boolean isLong(Comparable value) {
+            return value != null && isLongRepresentable(value.getClass());
+        }
+
+        static boolean isDouble(Comparable value) {
+            return value != null && isDoubleRepresentable(value.getClass());
+        }
+
+    }
+
+    private static final class EqualBatchPredicate extends AttributeBatchPredicate<EqualPredicate> {
+
+        EqualBatchPredicate(EqualPredicate predicate) {
+            super(predicate);
+        }
+
+        @Override
+        int selectLongs(Column column, Comparable sample, int[] selection, int size) {
+            Comparable value = convert(sample, predicate.value);
+            if (!isLong(value)) {
+                return -1;
+            }
+            long longValue = ((Number) value).longValue();
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                if (column.longValue(index) == longValue) {
+                    selection[selected++] = index;
+                }
+            }
+            return selected;
+        }
+
+        @Override
+        int selectDoubles(Column column, Comparable sample, int[] selection, int size) {
+            Comparable value = convert(sample, predicate.value);
+            if (!isDouble(value)) {
+                return -1;
+            }
+            double doubleValue = ((Number) value).doubleValue();
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                if (Double.compare(column.doubleValue(index), doubleValue) == 0) {
+                    selection[selected++] = index;
+                }
+            }
+            return selected;
+        }
+
+    }
+
+    private static final class GreaterLessBatchPredicate extends AttributeBatchPredicate<GreaterLessPredicate> {
+
+        GreaterLessBatchPredicate(GreaterLessPredicate predicate) {
+            super(predicate);
+        }
+
+        @Override
+        int selectLongs(Column column, Comparable sample, int[] selection, int size) {
+            Comparable value = convert(sample, predicate.value);
+            if (!isLong(value)) {
+                return -1;
+            }
+            long longValue = ((Number) value).longValue();
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                if (matches(Long.compare(column.longValue(index), longValue))) {
+                    selection[selected++] = index;
+                }
+            }
+            return selected;
+        }
+
+        @Override
+        int selectDoubles(Column column, Comparable sample, int[] selection, int size) {
+            Comparable value = convert(sample, predicate.value);
+            if (!isDouble(value)) {
+                return -1;
+            }
+            double doubleValue = ((Number) value).doubleValue();
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                if (matches(Double.compare(column.doubleValue(index), doubleValue))) {
+                    selection[selected++] = index;
+                }
+            }
+            return selected;
+        }
+
+        private boolean matches(int result) {
+            return predicate.equal && result == 0 || (predicate.less ? (result < 0) : (result > 0));
+        }
+
+    }
+
+    private static final class BetweenBatchPredicate extends AttributeBatchPredicate<BetweenPredicate> {
+
+        BetweenBatchPredicate(BetweenPredicate predicate) {
+            super(predicate);
+        }
+
+        @Override
+        int selectLongs(Column column, Comparable sample, int[] selection, int size) {
+            Comparable from = convert(sample, predicate.from);
+            Comparable to = convert(sample, predicate.to);
+            if (!isLong(from) || !isLong(to)) {
+                return -1;
+            }
+            long fromValue = ((Number) from).longValue();
+            long toValue = ((Number) to).longValue();
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                long value = column.longValue(index);
+                if (value >= fromValue && value <= toValue) {
+                    selection[selected++] = index;
+                }
+            }
+            return selected;
+        }
+
+        @Override
+        int selectDoubles(Column column, Comparable sample, int[] selection, int size) {
+            Comparable from = convert(sample, predicate.from);
+            Comparable to = convert(sample, predicate.to);
+            if (!isDouble(from) || !isDouble(to)) {
+                return -1;
+            }
+            double fromValue = ((Number) from).doubleValue();
+            double toValue = ((Number) to).doubleValue();
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                double value = column.doubleValue(index);
+                if (Double.compare(value, fromValue) >= 0 && Double.compare(value, toValue) <= 0) {
+                    selection[selected++] = index;
+                }
+            }
+            return selected;
+        }
+
+    }
+
+    private static final class InBatchPredicate extends AttributeBatchPredicate<InPredicate> {
+
+        InBatchPredicate(InPredicate predicate) {
+            super(predicate);
+        }
+
+        @Override
+        int selectLongs(Column column, Comparable sample, int[] selection, int size) {
+            Comparable[] values = predicate.values;
+            long[] longValues = new long[values.length];
+            int count = 0;
+            for (Comparable value : values) {
+                Comparable converted = convert(sample, value);
+                if (isNull(converted)) {
+                    // nulls never match the non-null column values
+                    continue;
+                }
+                if (!isLong(converted)) {
+                    return -1;
+                }
+                longValues[count++] = ((Number) converted).longValue();
+            }
+            Arrays.sort(longValues, 0, count);
+
+            int selected = 0;
+            for (int i = 0; i < size; ++i) {
+                int index = selection[i];
+                if (Arrays.binarySearch(longValues, 0, count, column.longValue(index)) >= 0) {
+                    selection[selected++] = index;
+                }
+            }
+            return selected;
+        }
+
+        @Override
+        int selectDoubles(Column column, Comparable sample, int[] selection, int size) {
+            // the hash lookup canonicalizes whole floating point numbers to
+            // longs, leave that to the predicate
+            return -1;
+        }
+
+    }
+
+}
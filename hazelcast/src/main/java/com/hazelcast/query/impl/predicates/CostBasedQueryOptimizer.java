@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Indexes;
+
+import static com.hazelcast.query.impl.predicates.CostBasedVisitor.MAX_INDEX_SELECTIVITY;
+
+/**
+ * Cost based optimizer. It rewrites the query by the rules of {@link
+ * RuleBasedQueryOptimizer} and then chooses the indexes used by the
+ * query by the selectivity estimated from the index statistics, see
+ * {@link CostBasedVisitor}.
+ */
+public final class CostBasedQueryOptimizer implements QueryOptimizer {
+
+    private final QueryOptimizer ruleBasedOptimizer = new RuleBasedQueryOptimizer();
+    private final CostBasedVisitor costBasedVisitor = new CostBasedVisitor();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Predicate<K, V> optimize(Predicate<K, V> predicate, Indexes indexes) {
+        Predicate optimized = ruleBasedOptimizer.optimize(predicate, indexes);
+        if (optimized instanceof VisitablePredicate) {
+            optimized = ((VisitablePredicate) optimized).accept(costBasedVisitor, indexes);
+        }
+        if (CostBasedVisitor.estimateSelectivity(optimized, indexes) > MAX_INDEX_SELECTIVITY) {
+            // scanning the entries is cheaper than using the index
+            optimized = new SkipIndexPredicate(optimized);
+        }
+        return optimized;
+    }
+
+}
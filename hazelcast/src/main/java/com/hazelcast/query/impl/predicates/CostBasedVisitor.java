@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.IndexStatistics;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryContext.IndexMatchHint;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.hazelcast.query.impl.IndexStatistics.UNKNOWN_SELECTIVITY;
+import static com.hazelcast.query.impl.Indexes.SKIP_PARTITIONS_COUNT_CHECK;
+
+/**
+ * Chooses the access path of {@link AndPredicate}s by the selectivity of
+ * their conjuncts estimated from the {@link IndexStatistics} of the
+ * matched indexes.
+ * <p>
+ * The most selective conjunct is left to drive the query and the other
+ * conjuncts with an estimated selectivity are wrapped into {@link
+ * SkipIndexPredicate}s ordered by their selectivity, so their indexes are
+ * not read and the most selective of them are applied first. If even the
+ * most selective conjunct reads most of the index, all of them are
+ * wrapped and the entries are scanned instead. The conjuncts which
+ * selectivity can't be estimated are left as they are.
+ */
+public class CostBasedVisitor extends AbstractVisitor {
+
+    /**
+     * The selectivity above which scanning the entries is cheaper than
+     * reading the index and fetching the matching entries from it.
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    static final double MAX_INDEX_SELECTIVITY = 0.8;
+
+    private static final Predicate[] EMPTY_PREDICATES = new Predicate[0];
+
+    @SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity"})
+    @Override
+    public Predicate visit(AndPredicate andPredicate, Indexes indexes) {
+        Predicate[] predicates = andPredicate.predicates;
+
+        double[] selectivities = new double[predicates.length];
+        List<Integer> estimated = new ArrayList<>(predicates.length);
+        boolean unknownIndexed = false;
+        QueryContext queryContext = new QueryContext(indexes, SKIP_PARTITIONS_COUNT_CHECK);
+        for (int i = 0; i < predicates.length; ++i) {
+            selectivities[i] = estimateSelectivity(predicates[i], indexes);
+            if (selectivities[i] != UNKNOWN_SELECTIVITY) {
+                estimated.add(i);
+            } else if (predicates[i] instanceof IndexAwarePredicate) {
+                unknownIndexed |= ((IndexAwarePredicate) predicates[i]).isIndexed(queryContext);
+            }
+        }
+        if (estimated.isEmpty()) {
+            return andPredicate;
+        }
+        estimated.sort(Comparator.comparingDouble(i -> selectivities[i]));
+
+        boolean scan = !unknownIndexed && selectivities[estimated.get(0)] > MAX_INDEX_SELECTIVITY;
+        if (!scan && estimated.size() == 1) {
+            // the only estimated conjunct drives the query anyway
+            return andPredicate;
+        }
+
+        List<Predicate> output = new ArrayList<>(predicates.length);
+        for (int i = 0; i < estimated.size(); ++i) {
+            Predicate predicate = predicates[estimated.get(i)];
+            output.add(i == 0 && !scan ? predicate : new SkipIndexPredicate(predicate));
+        }
+        for (int i = 0; i < predicates.length; ++i) {
+            if (selectivities[i] == UNKNOWN_SELECTIVITY) {
+                output.add(predicates[i]);
+            }
+        }
+        return new AndPredicate(output.toArray(EMPTY_PREDICATES));
+    }
+
+    /**
+     * Estimates the fraction of the entries read by the given predicate
+     * from its index.
+     *
+     * @return the estimated selectivity or {@link
+     * IndexStatistics#UNKNOWN_SELECTIVITY} if the predicate is not indexed
+     * or its selectivity can't be estimated.
+     */
+    static double estimateSelectivity(Predicate predicate, Indexes indexes) {
+        try {
+            if (predicate instanceof CompositeEqualPredicate) {
+                CompositeEqualPredicate composite = (CompositeEqualPredicate) predicate;
+                InternalIndex index = indexes.matchIndex(composite.indexName, IndexMatchHint.EXACT_NAME,
+                        SKIP_PARTITIONS_COUNT_CHECK);
+                return estimateEqualSelectivity(index, composite.value);
+            } else if (predicate instanceof CompositeRangePredicate) {
+                CompositeRangePredicate composite = (CompositeRangePredicate) predicate;
+                InternalIndex index = indexes.matchIndex(composite.indexName, IndexMatchHint.EXACT_NAME,
+                        SKIP_PARTITIONS_COUNT_CHECK);
+                return estimateRangeSelectivity(index, composite.from, composite.fromInclusive, composite.to,
+                        composite.toInclusive);
+            } else if (predicate instanceof InPredicate) {
+                return estimateInSelectivity((InPredicate) predicate, indexes);
+            } else if (predicate instanceof EqualPredicate) {
+                EqualPredicate equal = (EqualPredicate) predicate;
+                InternalIndex index = indexes.matchIndex(equal.getAttribute(), IndexMatchHint.PREFER_UNORDERED,
+                        SKIP_PARTITIONS_COUNT_CHECK);
+                return estimateEqualSelectivity(index, equal.getFrom());
+            } else if (predicate instanceof RangePredicate) {
+                RangePredicate range = (RangePredicate) predicate;
+                InternalIndex index = indexes.matchIndex(range.getAttribute(), IndexMatchHint.PREFER_ORDERED,
+                        SKIP_PARTITIONS_COUNT_CHECK);
+                return estimateRangeSelectivity(index, range.getFrom(), range.isFromInclusive(), range.getTo(),
+                        range.isToInclusive());
+            }
+        } catch (RuntimeException e) {
+            // the arguments are not convertible, the query will report it
+            return UNKNOWN_SELECTIVITY;
+        }
+        return UNKNOWN_SELECTIVITY;
+    }
+
+    private static double estimateInSelectivity(InPredicate predicate, Indexes indexes) {
+        InternalIndex index = indexes.matchIndex(predicate.attributeName, IndexMatchHint.PREFER_UNORDERED,
+                SKIP_PARTITIONS_COUNT_CHECK);
+        Comparable[] values = predicate.values;
+        double selectivity = 0;
+        for (Comparable value : values) {
+            double valueSelectivity = estimateEqualSelectivity(index, value);
+            if (valueSelectivity == UNKNOWN_SELECTIVITY) {
+                return UNKNOWN_SELECTIVITY;
+            }
+            selectivity += valueSelectivity;
+        }
+        return Math.min(1, selectivity);
+    }
+
+    private static double estimateEqualSelectivity(InternalIndex index, Comparable value) {
+        IndexStatistics statistics = index == null ? null : index.getStatistics();
+        if (statistics == null || value == null) {
+            return UNKNOWN_SELECTIVITY;
+        }
+        TypeConverter converter = index.getConverter();
+        if (converter == null) {
+            // nothing is indexed yet
+            return 0;
+        }
+        return statistics.estimateEqualSelectivity(converter.convert(value));
+    }
+
+    private static double estimateRangeSelectivity(InternalIndex index, Comparable from, boolean fromInclusive,
+                                                   Comparable to, boolean toInclusive) {
+        IndexStatistics statistics = index == null ? null : index.getStatistics();
+        if (statistics == null) {
+            return UNKNOWN_SELECTIVITY;
+        }
+        TypeConverter converter = index.getConverter();
+        if (converter == null) {
+            return 0;
+        }
+        if (!index.isOrdered()) {
+            // unordered indexes read all the values to answer range queries
+            return 1;
+        }
+        return statistics.estimateRangeSelectivity(from == null ? null : converter.convert(from), fromInclusive,
+                to == null ? null : converter.convert(to), toInclusive);
+    }
+}
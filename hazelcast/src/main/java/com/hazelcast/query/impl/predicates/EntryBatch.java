@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.query.impl.Numbers.isDoubleRepresentable;
+import static com.hazelcast.query.impl.Numbers.isLongRepresentable;
+
+/**
+ * A batch of entries evaluated by a {@link BatchPredicate}, holding the
+ * attribute values extracted from the entries column-wise.
+ * <p>
+ * An attribute value is extracted from an entry at most once per batch and
+ * only when a predicate is evaluated on the entry, so the short-circuiting
+ * of conjunctions avoids the extraction like it does for entry-at-a-time
+ * evaluation.
+ */
+final class EntryBatch {
+
+    private final Map<String, Column> columns = new HashMap<>();
+
+    private QueryableEntry[] entries;
+    private int size;
+    private int capacity;
+
+    /**
+     * Resets this batch to the given entries, discarding the attribute
+     * values extracted from the previous entries.
+     */
+    void reset(QueryableEntry[] entries, int size) {
+        if (entries.length > capacity) {
+            capacity = entries.length;
+            columns.clear();
+        } else {
+            int used = Math.max(this.size, size);
+            for (Column column : columns.values()) {
+                column.clear(used);
+            }
+        }
+        this.entries = entries;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    QueryableEntry entry(int index) {
+        return entries[index];
+    }
+
+    /**
+     * Returns the column of the given attribute having its values extracted
+     * from the given selected entries.
+     */
+    Column column(String attribute, int[] selection, int selectionSize) {
+        Column column = columns.get(attribute);
+        if (column == null) {
+            column = new Column(attribute, capacity);
+            columns.put(attribute, column);
+        }
+        column.extract(entries, selection, selectionSize);
+        return column;
+    }
+
+    /**
+     * The values of an attribute extracted from the entries of a batch.
+     * Whole and floating point numbers are also stored in primitive arrays,
+     * so comparisons on them don't unbox.
+     */
+    static final class Column {
+
+        private final String attribute;
+        private final Object[] values;
+        private final boolean[] extracted;
+        private final long[] longs;
+        private final double[] doubles;
+
+        Column(String attribute, int capacity) {
+            this.attribute = attribute;
+            this.values = new Object[capacity];
+            this.extracted = new boolean[capacity];
+            this.longs = new long[capacity];
+            this.doubles = new double[capacity];
+        }
+
+        Object value(int index) {
+            return values[index];
+        }
+
+        long longValue(int index) {
+            return longs[index];
+        }
+
+        double doubleValue(int index) {
+            return doubles[index];
+        }
+
+        /**
+         * Returns the class of the given selected values if all of them are
+         * non-null and of the same class, {@code null} otherwise.
+         */
+        Class<?> uniformClass(int[] selection, int selectionSize) {
+            if (selectionSize == 0) {
+                return null;
+            }
+            Object first = values[selection[0]];
+            if (first == null) {
+                return null;
+            }
+            Class<?> clazz = first.getClass();
+            for (int i = 1; i < selectionSize; ++i) {
+                Object value = values[selection[i]];
+                if (value == null || value.getClass() != clazz) {
+                    return null;
+                }
+            }
+            return clazz;
+        }
+
+        private void clear(int size) {
+            for (int i = 0; i < size; ++i) {
+                extracted[i] = false;
+                values[i] = null;
+            }
+        }
+
+        private void extract(QueryableEntry[] entries, int[] selection, int selectionSize) {
+            for (int i = 0; i < selectionSize; ++i) {
+                int index = selection[i];
+                if (extracted[index]) {
+                    continue;
+                }
+                Object value = entries[index].getAttributeValue(attribute);
+                values[index] = value;
+                extracted[index] = true;
+                if (value != null) {
+                    Class<?> clazz = value.getClass();
+                    if (isLongRepresentable(clazz)) {
+                        longs[index] = ((Number) value).longValue();
+                    } else if (isDoubleRepresentable(clazz)) {
+                        doubles[index] = ((Number) value).doubleValue();
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -58,6 +58,10 @@ public class InPredicate extends AbstractIndexAwarePredicate implements Visitabl
         this.values = values;
     }
 
+    public String getAttribute() {
+        return attributeName;
+    }
+
     @SuppressFBWarnings("EI_EXPOSE_REP")
     public Comparable[] getValues() {
         return values;
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.BackupBatch;
+import com.hazelcast.spi.properties.ClusterProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces the backups sent by the partition threads into
+ * {@link BackupBatch} operations, see
+ * {@link ClusterProperty#OPERATION_BACKUP_BATCHING_ENABLED}.
+ * <p>
+ * The first backup buffered for a partition schedules a flush task on
+ * the partition thread. When the task runs, the backups of the tasks
+ * which were queued before it have been buffered and are sent together,
+ * so the backups are not delayed longer than the partition thread takes
+ * to drain its queue. The buffers of a partition are only accessed by
+ * its partition thread, and the backups are sent to each replica in the
+ * order they have been buffered.
+ */
+final class BackupBatcher {
+
+    private final OperationServiceImpl operationService;
+    private final OutboundOperationHandler outboundOperationHandler;
+    private final int maxBatchSize;
+    // the buffered backups per partition, each accessed only by the thread of the partition
+    private final PartitionBackups[] partitionBackups;
+
+    BackupBatcher(OperationServiceImpl operationService, OutboundOperationHandler outboundOperationHandler,
+                  int partitionCount, int maxBatchSize) {
+        this.operationService = operationService;
+        this.outboundOperationHandler = outboundOperationHandler;
+        this.maxBatchSize = maxBatchSize;
+        this.partitionBackups = new PartitionBackups[partitionCount];
+    }
+
+    /**
+     * Returns {@code true} if the backups sent by the current thread are
+     * buffered, so they must not refer to state which may change before
+     * they are sent.
+     */
+    boolean buffersBackups() {
+        return Thread.currentThread() instanceof PartitionOperationThread;
+    }
+
+    /**
+     * Sends the backup to the target. The backup is buffered if the
+     * current thread is a partition thread, otherwise it is sent
+     * immediately.
+     */
+    void send(Backup backup, Address target) {
+        if (!buffersBackups()) {
+            outboundOperationHandler.send(backup, target);
+            return;
+        }
+
+        int partitionId = backup.getPartitionId();
+        PartitionBackups backups = partitionBackups[partitionId];
+        if (backups == null) {
+            backups = new PartitionBackups(partitionId);
+            partitionBackups[partitionId] = backups;
+        }
+        backups.add(backup, target);
+    }
+
+    /**
+     * The backups buffered for a partition, which is also the task
+     * flushing them on the partition thread.
+     */
+    private final class PartitionBackups implements PartitionSpecificRunnable {
+
+        private final int partitionId;
+        private final Map<Address, List<Backup>> backupsByTarget = new LinkedHashMap<>();
+        private boolean flushScheduled;
+
+        PartitionBackups(int partitionId) {
+            this.partitionId = partitionId;
+        }
+
+        void add(Backup backup, Address target) {
+            List<Backup> backups = backupsByTarget.computeIfAbsent(target, k -> new ArrayList<>());
+            backups.add(backup);
+            if (backups.size() >= maxBatchSize) {
+                send(target, backups);
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                operationService.execute(this);
+            }
+        }
+
+        @Override
+        public int getPartitionId() {
+            return partitionId;
+        }
+
+        @Override
+        public void run() {
+            flushScheduled = false;
+            for (Map.Entry<Address, List<Backup>> entry : backupsByTarget.entrySet()) {
+                send(entry.getKey(), entry.getValue());
+            }
+            // replicas may move, so the targets are not retained
+            backupsByTarget.clear();
+        }
+
+        private void send(Address target, List<Backup> backups) {
+            if (backups.isEmpty()) {
+                return;
+            }
+
+            Operation op;
+            if (backups.size() == 1) {
+                op = backups.get(0);
+            } else {
+                op = new BackupBatch(backups.toArray(new Backup[0]))
+                        .setPartitionId(partitionId)
+                        .setReplicaIndex(backups.get(0).getReplicaIndex());
+            }
+            backups.clear();
+            outboundOperationHandler.send(op, target);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.spi.impl.operationservice.impl;
 
+import com.hazelcast.cluster.Address;
 import com.hazelcast.instance.impl.Node;
 import com.hazelcast.internal.cluster.impl.ClusterServiceImpl;
 import com.hazelcast.internal.partition.InternalPartition;
@@ -32,10 +33,14 @@ import com.hazelcast.internal.services.ServiceNamespaceAware;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.operationservice.TargetAware;
 import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.properties.HazelcastProperties;
 
 import static com.hazelcast.internal.partition.InternalPartition.MAX_BACKUP_COUNT;
 import static com.hazelcast.spi.impl.operationservice.OperationAccessor.hasActiveInvocation;
 import static com.hazelcast.spi.impl.operationservice.OperationAccessor.setCallId;
+import static com.hazelcast.spi.properties.ClusterProperty.OPERATION_BACKUP_BATCHING_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.OPERATION_BACKUP_BATCH_SIZE;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
 import static java.lang.Math.min;
 
 /**
@@ -49,6 +54,7 @@ final class OperationBackupHandler {
     private final NodeEngineImpl nodeEngine;
     private final BackpressureRegulator backpressureRegulator;
     private final OutboundOperationHandler outboundOperationHandler;
+    private final BackupBatcher backupBatcher;
     private final ILogger logger;
 
     OperationBackupHandler(OperationServiceImpl operationService, OutboundOperationHandler outboundOperationHandler) {
@@ -56,9 +62,20 @@ final class OperationBackupHandler {
         this.node = operationService.node;
         this.nodeEngine = operationService.nodeEngine;
         this.backpressureRegulator = operationService.backpressureRegulator;
+        this.backupBatcher = newBackupBatcher(operationService, outboundOperationHandler);
         this.logger = node.getLogger(getClass());
     }
 
+    private static BackupBatcher newBackupBatcher(OperationServiceImpl operationService,
+                                                  OutboundOperationHandler outboundOperationHandler) {
+        HazelcastProperties properties = operationService.node.getProperties();
+        if (!properties.getBoolean(OPERATION_BACKUP_BATCHING_ENABLED)) {
+            return null;
+        }
+        return new BackupBatcher(operationService, outboundOperationHandler,
+                properties.getInteger(PARTITION_COUNT), properties.getInteger(OPERATION_BACKUP_BATCH_SIZE));
+    }
+
     /**
      * Sends the appropriate backups. This call will not wait till the backups have ACK'ed.
      *
@@ -225,7 +242,7 @@ final class OperationBackupHandler {
                 boolean isSyncBackup = replicaIndex <= syncBackups;
 
                 Backup backup = newBackup(backupAwareOp, backupOpData, replicaVersions, replicaIndex, isSyncBackup);
-                outboundOperationHandler.send(backup, target.address());
+                sendBackup(backup, target.address());
 
                 if (isSyncBackup) {
                     sendSyncBackups++;
@@ -264,8 +281,13 @@ final class OperationBackupHandler {
 
             boolean isSyncBackup = syncBackups == 1;
 
-            Backup backup = newBackup(backupAwareOp, backupOp, replicaVersions, 1, isSyncBackup);
-            outboundOperationHandler.send(backup, target.address());
+            // A buffered backup is serialized only when its batch is sent. By then the
+            // following operations may have updated the state the backup operation
+            // refers to (e.g. a record), so it is converted to `Data` right away.
+            Object backupOpOrData = backupBatcher != null && backupBatcher.buffersBackups()
+                    ? nodeEngine.getSerializationService().toData(backupOp) : backupOp;
+            Backup backup = newBackup(backupAwareOp, backupOpOrData, replicaVersions, 1, isSyncBackup);
+            sendBackup(backup, target.address());
 
             if (isSyncBackup) {
                 return 1;
@@ -274,6 +296,14 @@ final class OperationBackupHandler {
         return 0;
     }
 
+    private void sendBackup(Backup backup, Address target) {
+        if (backupBatcher != null) {
+            backupBatcher.send(backup, target);
+        } else {
+            outboundOperationHandler.send(backup, target);
+        }
+    }
+
     private Operation getBackupOperation(BackupAwareOperation backupAwareOp) {
         Operation backupOp = backupAwareOp.getBackupOperation();
         if (backupOp == null) {
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl.operations;
+
+import com.hazelcast.internal.partition.ReplicaErrorLogger;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.impl.AllowedDuringPassiveState;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+import com.hazelcast.spi.impl.operationservice.BackupOperation;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+
+import static com.hazelcast.spi.impl.operationservice.OperationAccessor.setCallerAddress;
+import static com.hazelcast.spi.impl.operationservice.OperationAccessor.setConnection;
+import static com.hazelcast.spi.impl.operationservice.OperationResponseHandlerFactory.createEmptyResponseHandler;
+
+/**
+ * Carries the {@link Backup}s of a partition which are sent to the same
+ * replica together, see
+ * {@link com.hazelcast.spi.properties.ClusterProperty#OPERATION_BACKUP_BATCHING_ENABLED}.
+ * <p>
+ * The backups are run one by one in the order they have been sent, each
+ * of them is validated and acknowledged as if it was sent on its own.
+ */
+public final class BackupBatch extends Operation implements BackupOperation, AllowedDuringPassiveState,
+        IdentifiedDataSerializable {
+
+    private Backup[] backups;
+
+    public BackupBatch() {
+    }
+
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public BackupBatch(Backup[] backups) {
+        this.backups = backups;
+    }
+
+    @Override
+    public void run() throws Exception {
+        OperationService operationService = getNodeEngine().getOperationService();
+        for (Backup backup : backups) {
+            initBackup(backup);
+            operationService.run(backup);
+        }
+    }
+
+    private void initBackup(Backup backup) {
+        backup.setNodeEngine(getNodeEngine());
+        setCallerAddress(backup, getCallerAddress());
+        setConnection(backup, getConnection());
+        if (backup.getCallerUuid() == null) {
+            backup.setCallerUuid(getCallerUuid());
+        }
+        backup.setOperationResponseHandler(createEmptyResponseHandler());
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public boolean validatesTarget() {
+        return false;
+    }
+
+    @Override
+    public void onExecutionFailure(Throwable e) {
+        for (Backup backup : backups) {
+            try {
+                initBackup(backup);
+                backup.onExecutionFailure(e);
+            } catch (Throwable t) {
+                getLogger().warning("While calling operation.onFailure(). op: " + backup, t);
+            }
+        }
+    }
+
+    @Override
+    public void logError(Throwable e) {
+        ReplicaErrorLogger.log(e, getLogger());
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SpiDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SpiDataSerializerHook.BACKUP_BATCH;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeInt(backups.length);
+        for (Backup backup : backups) {
+            out.writeObject(backup);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        backups = new Backup[size];
+        for (int i = 0; i < size; i++) {
+            backups[i] = in.readObject();
+        }
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+
+        sb.append(", backupCount=").append(backups.length);
+    }
+}
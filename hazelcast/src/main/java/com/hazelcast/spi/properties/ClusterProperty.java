@@ -429,6 +429,32 @@ public final class ClusterProperty {
     public static final HazelcastProperty PARTITION_FRAGMENTED_MIGRATION_ENABLED
             = new HazelcastProperty("hazelcast.partition.migration.fragments.enabled", true);
 
+    /**
+     * When enabled, large fragments of services supporting it, such as large
+     * IMap partitions, are migrated in multiple chunks instead of a single
+     * packet. A chunk is only prepared after the previous one has been applied
+     * on the destination, which bounds the memory needed for the migration and
+     * the time the partition thread spends per chunk. A migration which fails
+     * in the middle is retried from the first chunk.
+     * <p>
+     * Only effective if {@link #PARTITION_FRAGMENTED_MIGRATION_ENABLED} is
+     * enabled and the cluster version is at least 4.2. Disabled by default.
+     *
+     * @see #PARTITION_CHUNKED_MIGRATION_CHUNK_SIZE
+     */
+    public static final HazelcastProperty PARTITION_CHUNKED_MIGRATION_ENABLED
+            = new HazelcastProperty("hazelcast.partition.chunked.migration.enabled", false);
+
+    /**
+     * Approximate maximum size of a migration chunk in bytes, see
+     * {@link #PARTITION_CHUNKED_MIGRATION_ENABLED}. A single entry larger
+     * than that is still migrated in a chunk of its own.
+     * <p>
+     * Default: 4 MB
+     */
+    public static final HazelcastProperty PARTITION_CHUNKED_MIGRATION_CHUNK_SIZE
+            = new HazelcastProperty("hazelcast.partition.chunked.migration.chunk.size", 4 * 1024 * 1024);
+
     /**
      * The time that a newly-appointed master node waits before forming a cluster.
      * Once a cluster is being started, a newly-appointed master node may receive
@@ -880,6 +906,99 @@ public final class ClusterProperty {
     public static final HazelcastProperty QUERY_PREDICATE_PARALLEL_EVALUATION
             = new HazelcastProperty("hazelcast.query.predicate.parallel.evaluation", false);
 
+    /**
+     * Number of entries a full partition scan of a map query evaluates the
+     * predicate on at once.
+     * <p>
+     * The attribute values referenced by equality, range and IN predicates
+     * and their conjunctions, disjunctions and negations are then extracted
+     * from a batch of entries column-wise and compared without unboxing the
+     * numeric ones, instead of evaluating the predicate entry by entry.
+     * A batch size of {@code 256} is a good starting point.
+     * <p>
+     * Values lower than {@code 2} disable the batch evaluation.
+     * The default is {@code 0}.
+     */
+    public static final HazelcastProperty QUERY_SCAN_BATCH_SIZE
+            = new HazelcastProperty("hazelcast.query.scan.batch.size", 0);
+
+    /**
+     * Number of query executor threads a map query run using a global index
+     * populates its result on.
+     * <p>
+     * The entries produced by the index are split into chunks, post-filtered
+     * by the not indexed predicates and converted to the result rows
+     * concurrently. A chunk consists of at least 1024 entries, so the smaller
+     * results are still populated by a single thread. The aggregations are
+     * accumulated in parallel according to the
+     * {@link #AGGREGATION_ACCUMULATION_PARALLEL_EVALUATION} instead.
+     * <p>
+     * The default is {@code 1}, i.e. the parallel population is disabled.
+     */
+    public static final HazelcastProperty QUERY_INDEX_PARALLELISM
+            = new HazelcastProperty("hazelcast.query.index.parallelism", 1);
+
+    /**
+     * Maximum number of partitions a map query pinning the key of the
+     * matching entries is routed to.
+     * <p>
+     * A query whose predicate compares the {@code __key} attribute for
+     * equality or with an IN predicate can only match the entries stored in
+     * the partitions owning the given keys. If there are no more of them
+     * than this value, the query is invoked only on these partitions instead
+     * of on all the members.
+     * <p>
+     * The given keys are converted to the class of the stored keys before
+     * they are routed, the same way the predicate converts them. The class
+     * is taken from a global index on the {@code __key} attribute, so only
+     * the queries on maps having such an index are pruned. The queries on
+     * maps whose keys are of a custom class are never pruned.
+     * <p>
+     * The default is {@code 0}, i.e. the partition pruning is disabled.
+     */
+    public static final HazelcastProperty QUERY_PARTITION_PRUNING_MAX_PARTITIONS
+            = new HazelcastProperty("hazelcast.query.partition.pruning.max.partitions", 0);
+
+    /**
+     * Comma separated names of the maps whose query results are cached on
+     * the members. The names may contain the {@code *} wildcard, the same
+     * way as the map configuration names.
+     * <p>
+     * A member serves a repeated query from the cache as long as none of
+     * the partitions the query ran on has been mutated and no partition has
+     * migrated since. The queries with a paging predicate and the queries
+     * which can't be serialized aren't cached, neither are the queries on
+     * the partitions holding entries with a time-to-live or max-idle, since
+     * their expiration doesn't invalidate the cached results.
+     * <p>
+     * The query result cache statistics are reported by the
+     * {@link com.hazelcast.map.LocalMapStats}. By default, no query results
+     * are cached.
+     */
+    public static final HazelcastProperty QUERY_RESULT_CACHE_MAPS
+            = new HazelcastProperty("hazelcast.query.result.cache.maps", "");
+
+    /**
+     * Maximum number of query results cached per map on a member, see
+     * {@link #QUERY_RESULT_CACHE_MAPS}. The least recently used results are
+     * removed from the cache once it's exceeded.
+     * <p>
+     * The default is {@code 100}.
+     */
+    public static final HazelcastProperty QUERY_RESULT_CACHE_MAX_SIZE
+            = new HazelcastProperty("hazelcast.query.result.cache.max.size", 100);
+
+    /**
+     * Maximum total size of the serialized query results cached per map on
+     * a member in bytes, see {@link #QUERY_RESULT_CACHE_MAPS}. The least
+     * recently used results are removed from the cache once it's exceeded,
+     * a larger result isn't cached at all.
+     * <p>
+     * The default is 16 MB.
+     */
+    public static final HazelcastProperty QUERY_RESULT_CACHE_MAX_BYTES
+            = new HazelcastProperty("hazelcast.query.result.cache.max.bytes", 16 * 1024 * 1024);
+
     /**
      * Run aggregation accumulation for multiple entries in parallel.
      * <p>
@@ -958,6 +1077,9 @@ public final class ClusterProperty {
      * Valid Values:
      * <ul>
      * <li>RULES - for optimizations based on static rules</li>
+     * <li>COST - for optimizations based on static rules followed by the
+     * choice of the indexes by the selectivity estimated from the
+     * statistics of the indexed values</li>
      * <li>NONE - optimization are disabled</li>
      * </ul>
      * <p>
@@ -966,6 +1088,18 @@ public final class ClusterProperty {
     public static final HazelcastProperty QUERY_OPTIMIZER_TYPE
             = new HazelcastProperty("hazelcast.query.optimizer.type", QueryOptimizerFactory.Type.RULES.toString());
 
+    /**
+     * Makes on-heap sorted indexes on a single attribute keep the numeric and
+     * date values they index as order-preserving primitive longs in a B+-tree,
+     * instead of the boxed values in a concurrent skip list. This saves the
+     * per-value allocations of the default store. If a value without a long
+     * encoding is inserted, the index falls back to the default store.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty QUERY_PRIMITIVE_SORTED_INDEX_ENABLED
+            = new HazelcastProperty("hazelcast.query.primitive.sorted.index.enabled", false);
+
     /**
      * Type of Query Index result copying behavior. Defines the behavior for
      * index copying on index read/write.
@@ -1178,6 +1312,148 @@ public final class ClusterProperty {
     public static final HazelcastProperty MAP_WRITE_BEHIND_QUEUE_CAPACITY
             = new HazelcastProperty("hazelcast.map.write.behind.queue.capacity", 50000);
 
+    /**
+     * Enables compact records for maps with {@link com.hazelcast.config.InMemoryFormat#BINARY}
+     * in-memory format. A compact record packs the record metadata and the
+     * serialized value into a single byte array, which considerably lowers
+     * the per-entry heap overhead of maps with many small entries. The price
+     * is a copy of the value on every read, and deserialized values are never
+     * cached, regardless of {@link com.hazelcast.config.MapConfig#getCacheDeserializedValues()}.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty MAP_COMPACT_RECORDS_ENABLED
+            = new HazelcastProperty("hazelcast.map.compact.records.enabled", false);
+
+    /**
+     * Makes on-heap map record stores keep their entries in an open-addressing
+     * hash table with parallel key, record and hash arrays, instead of the
+     * default segmented concurrent hash map. This saves the per-entry node
+     * object and improves the locality of lookups and full partition scans.
+     * The table is only ever mutated by the partition thread of the record store.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty MAP_OPEN_ADDRESSING_STORAGE_ENABLED
+            = new HazelcastProperty("hazelcast.map.open.addressing.storage.enabled", false);
+
+    /**
+     * Allows maps with {@link com.hazelcast.config.InMemoryFormat#NATIVE}
+     * in-memory format without the enterprise build. The keys, values and
+     * record metadata of such maps are kept in off-heap blocks allocated
+     * with {@code sun.misc.Unsafe}, so their entries don't add to the heap
+     * usage and the garbage collection pauses of the member. The off-heap
+     * memory allocated for such maps is limited by the size given in the
+     * {@link com.hazelcast.config.NativeMemoryConfig}, whether it's enabled
+     * or not. The operations needing more memory evict entries of the maps
+     * having an eviction policy or fail with
+     * {@link com.hazelcast.memory.NativeOutOfMemoryError}.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty MAP_NATIVE_STORAGE_ENABLED
+            = new HazelcastProperty("hazelcast.map.native.storage.enabled", false);
+
+    /**
+     * Lets {@link com.hazelcast.map.IMap#get} calls on a member read the
+     * entries of the partitions it owns directly from the calling thread,
+     * without queueing a get operation to the partition thread. Applies to
+     * maps with {@link com.hazelcast.config.InMemoryFormat#BINARY} in-memory
+     * format.
+     * <p>
+     * The reads are validated against a version stamp which the partition
+     * thread increments around each mutation of the record store. A read
+     * which overlaps with a mutation is retried a few times and then falls
+     * back to the partition thread, as do reads of expired, idle-expiring,
+     * transactionally locked or not yet loaded entries and misses of maps
+     * with a {@link com.hazelcast.map.MapLoader}. Not used with the
+     * {@link #MAP_OPEN_ADDRESSING_STORAGE_ENABLED open-addressing storage}
+     * and the {@link #MAP_TIERED_STORE_ENABLED tiered store}. The hits and
+     * last access times of the entries read this way are updated by the
+     * partition thread shortly after the read.
+     * <p>
+     * Default: false
+     */
+    public static final HazelcastProperty MAP_LOCK_FREE_GET_ENABLED
+            = new HazelcastProperty("hazelcast.map.lock.free.get.enabled", false);
+
+    /**
+     * Enables the tiered store for maps with {@link com.hazelcast.config.InMemoryFormat#BINARY}
+     * in-memory format whose eviction is bounded by a heap based
+     * {@link com.hazelcast.config.MaxSizePolicy}. Instead of removing
+     * entries, the evictor demotes their values to memory-mapped,
+     * append-only segment files on local disk, and keeps the records
+     * indexed in memory. A demoted value is read from the segment file when
+     * accessed and promoted back to the heap on a get. Entry count based
+     * max-size policies keep evicting entries, since demotion does not lower
+     * the number of entries.
+     * <p>
+     * Default: false
+     *
+     * @see #MAP_TIERED_STORE_DIRECTORY
+     * @see #MAP_TIERED_STORE_SEGMENT_SIZE
+     */
+    public static final HazelcastProperty MAP_TIERED_STORE_ENABLED
+            = new HazelcastProperty("hazelcast.map.tiered.store.enabled", false);
+
+    /**
+     * The directory where the segment files of the tiered map store are
+     * created. Segment files are removed when their record store is cleared
+     * or destroyed. The segment files left behind by a previous run of a
+     * member with the same port, e.g. after a crash, are removed when the
+     * record store they belonged to is created again.
+     * <p>
+     * Default: the value of the {@code java.io.tmpdir} system property
+     *
+     * @see #MAP_TIERED_STORE_ENABLED
+     */
+    public static final HazelcastProperty MAP_TIERED_STORE_DIRECTORY
+            = new HazelcastProperty("hazelcast.map.tiered.store.directory", System.getProperty("java.io.tmpdir"));
+
+    /**
+     * Size of a segment file of the tiered map store in bytes. Each partition
+     * of a map appends demoted values to its own segment, a segment file is
+     * deleted once none of its values is referenced anymore.
+     * <p>
+     * Default: 16 MB
+     *
+     * @see #MAP_TIERED_STORE_ENABLED
+     */
+    public static final HazelcastProperty MAP_TIERED_STORE_SEGMENT_SIZE
+            = new HazelcastProperty("hazelcast.map.tiered.store.segment.size", 16 * 1024 * 1024);
+
+    /**
+     * Enables the map change log, which restores the entries of the maps
+     * with an enabled {@link com.hazelcast.config.MapConfig#getHotRestartConfig()}
+     * from local disk when the member restarts.
+     * <p>
+     * The mutations of the primary replicas of such maps are appended to a
+     * log file per partition, which is compacted when it contains mostly
+     * overwritten entries. Logs are flushed to disk every second, or on
+     * each mutation if the
+     * {@link com.hazelcast.config.HotRestartConfig#isFsync()} is set for
+     * the map. After the restarted member has joined the cluster, it reads
+     * the logs of its previous run and puts the logged entries back into
+     * their maps, without writing them to the map stores.
+     * <p>
+     * Default: false
+     *
+     * @see #MAP_CHANGE_LOG_DIRECTORY
+     */
+    public static final HazelcastProperty MAP_CHANGE_LOG_ENABLED
+            = new HazelcastProperty("hazelcast.map.change.log.enabled", false);
+
+    /**
+     * The directory of the change log files of the member. Each member
+     * needs its own directory, which is locked while the member runs.
+     * <p>
+     * Default: {@code change-log} in the working directory
+     *
+     * @see #MAP_CHANGE_LOG_ENABLED
+     */
+    public static final HazelcastProperty MAP_CHANGE_LOG_DIRECTORY
+            = new HazelcastProperty("hazelcast.map.change.log.directory", "change-log");
+
     /*
      * INVOCATION / OPERATION SYSTEM PROPERTIES
      */
@@ -1196,6 +1472,24 @@ public final class ClusterProperty {
     public static final HazelcastProperty OPERATION_BACKUP_TIMEOUT_MILLIS
             = new HazelcastProperty("hazelcast.operation.backup.timeout.millis", 5000, MILLISECONDS);
 
+    /**
+     * Enables coalescing the backups sent by the partition threads.
+     * Instead of sending the backup of each operation in its own packet,
+     * the backups headed to the same replica of a partition are buffered
+     * until the partition thread has processed the tasks queued before
+     * them and are then sent in a single packet. The backups are applied
+     * in the same order and are acknowledged one by one, as before.
+     */
+    public static final HazelcastProperty OPERATION_BACKUP_BATCHING_ENABLED
+            = new HazelcastProperty("hazelcast.operation.backup.batching.enabled", false);
+
+    /**
+     * The maximum number of backups coalesced into a single packet when
+     * {@link #OPERATION_BACKUP_BATCHING_ENABLED} is set.
+     */
+    public static final HazelcastProperty OPERATION_BACKUP_BATCH_SIZE
+            = new HazelcastProperty("hazelcast.operation.backup.batch.size", 64);
+
     /**
      * When this configuration is enabled, if an operation has sync backups and
      * acks are not received from backup replicas in time, or the member which
@@ -30,6 +30,10 @@ import com.hazelcast.sql.impl.expression.CastExpression;
 import com.hazelcast.sql.impl.expression.ColumnExpression;
 import com.hazelcast.sql.impl.expression.ConstantExpression;
 import com.hazelcast.sql.impl.expression.ParameterExpression;
+import com.hazelcast.sql.impl.expression.aggregate.AvgAggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.CountAggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.MinMaxAggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.SumAggregateExpression;
 import com.hazelcast.sql.impl.expression.math.AbsFunction;
 import com.hazelcast.sql.impl.expression.math.DivideFunction;
 import com.hazelcast.sql.impl.expression.math.DoubleFunction;
@@ -70,14 +74,21 @@ import com.hazelcast.sql.impl.operation.QueryCheckResponseOperation;
 import com.hazelcast.sql.impl.operation.QueryExecuteOperation;
 import com.hazelcast.sql.impl.operation.QueryExecuteOperationFragment;
 import com.hazelcast.sql.impl.operation.QueryFlowControlExchangeOperation;
+import com.hazelcast.sql.impl.plan.node.AggregatePlanNode;
 import com.hazelcast.sql.impl.plan.node.EmptyPlanNode;
 import com.hazelcast.sql.impl.plan.node.FilterPlanNode;
+import com.hazelcast.sql.impl.plan.node.HashJoinPlanNode;
+import com.hazelcast.sql.impl.plan.node.IndexNestedLoopJoinPlanNode;
 import com.hazelcast.sql.impl.plan.node.MapIndexScanPlanNode;
 import com.hazelcast.sql.impl.plan.node.MapScanPlanNode;
 import com.hazelcast.sql.impl.plan.node.ProjectPlanNode;
 import com.hazelcast.sql.impl.plan.node.RootPlanNode;
+import com.hazelcast.sql.impl.plan.node.SortPlanNode;
+import com.hazelcast.sql.impl.plan.node.io.BroadcastSendPlanNode;
 import com.hazelcast.sql.impl.plan.node.io.ReceivePlanNode;
+import com.hazelcast.sql.impl.plan.node.io.ReceiveSortMergePlanNode;
 import com.hazelcast.sql.impl.plan.node.io.RootSendPlanNode;
+import com.hazelcast.sql.impl.row.ColumnarRowBatch;
 import com.hazelcast.sql.impl.row.EmptyRow;
 import com.hazelcast.sql.impl.row.EmptyRowBatch;
 import com.hazelcast.sql.impl.row.HeapRow;
@@ -173,7 +184,23 @@ public class SqlDataSerializerHook implements DataSerializerHook {
 
     public static final int EXPRESSION_REMAINDER = 62;
 
-    public static final int LEN = EXPRESSION_REMAINDER + 1;
+    public static final int AGGREGATE_COUNT = 63;
+    public static final int AGGREGATE_SUM = 64;
+    public static final int AGGREGATE_AVG = 65;
+    public static final int AGGREGATE_MIN_MAX = 66;
+
+    public static final int NODE_AGGREGATE = 67;
+
+    public static final int NODE_HASH_JOIN = 68;
+    public static final int NODE_INDEX_NESTED_LOOP_JOIN = 69;
+    public static final int NODE_BROADCAST_SEND = 70;
+
+    public static final int NODE_SORT = 71;
+    public static final int NODE_RECEIVE_SORT_MERGE = 72;
+
+    public static final int ROW_BATCH_COLUMNAR = 73;
+
+    public static final int LEN = ROW_BATCH_COLUMNAR + 1;
 
     @Override
     public int getFactoryId() {
@@ -263,6 +290,22 @@ public class SqlDataSerializerHook implements DataSerializerHook {
 
         constructors[EXPRESSION_REMAINDER] = arg -> new RemainderFunction<>();
 
+        constructors[AGGREGATE_COUNT] = arg -> new CountAggregateExpression();
+        constructors[AGGREGATE_SUM] = arg -> new SumAggregateExpression();
+        constructors[AGGREGATE_AVG] = arg -> new AvgAggregateExpression();
+        constructors[AGGREGATE_MIN_MAX] = arg -> new MinMaxAggregateExpression();
+
+        constructors[NODE_AGGREGATE] = arg -> new AggregatePlanNode();
+
+        constructors[NODE_HASH_JOIN] = arg -> new HashJoinPlanNode();
+        constructors[NODE_INDEX_NESTED_LOOP_JOIN] = arg -> new IndexNestedLoopJoinPlanNode();
+        constructors[NODE_BROADCAST_SEND] = arg -> new BroadcastSendPlanNode();
+
+        constructors[NODE_SORT] = arg -> new SortPlanNode();
+        constructors[NODE_RECEIVE_SORT_MERGE] = arg -> new ReceiveSortMergePlanNode();
+
+        constructors[ROW_BATCH_COLUMNAR] = arg -> new ColumnarRowBatch();
+
         return new ArrayDataSerializableFactory(constructors);
     }
 }
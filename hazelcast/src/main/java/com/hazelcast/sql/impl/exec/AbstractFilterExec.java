@@ -16,6 +16,8 @@
 
 package com.hazelcast.sql.impl.exec;
 
+import com.hazelcast.sql.impl.row.ColumnarRow;
+import com.hazelcast.sql.impl.row.ColumnarRowBatch;
 import com.hazelcast.sql.impl.row.ListRowBatch;
 import com.hazelcast.sql.impl.row.Row;
 import com.hazelcast.sql.impl.row.RowBatch;
@@ -29,6 +31,9 @@ import java.util.List;
  * Currently the executor batches rows, and reports progress only when the batch is full or when EOS has been reached.
  * This is done to minimize the operator evaluation overhead.
  * <p>
+ * Columnar batches are filtered as a whole: the condition is evaluated against a single row object moved across the batch,
+ * and the result refers to the matching rows of the upstream batch without copying them.
+ * <p>
  * The compiled counterpart does not require batching.
  */
 public abstract class AbstractFilterExec extends AbstractUpstreamAwareExec {
@@ -36,7 +41,7 @@ public abstract class AbstractFilterExec extends AbstractUpstreamAwareExec {
     static final int BATCH_SIZE = 1024;
 
     private List<Row> currentRows;
-    private ListRowBatch currentBatch;
+    private RowBatch currentBatch;
 
     protected AbstractFilterExec(int id, Exec upstream) {
         super(id, upstream);
@@ -44,30 +49,36 @@ public abstract class AbstractFilterExec extends AbstractUpstreamAwareExec {
 
     @Override
     public IterationResult advance0() {
+        currentBatch = null;
+
         if (currentRows == null) {
             currentRows = new ArrayList<>(BATCH_SIZE);
-            currentBatch = null;
         }
 
-        int count = currentRows.size();
-
         while (true) {
             // Wait if cannot get more rows.
             if (!state.advance()) {
                 return IterationResult.WAIT;
             }
 
-            // Consume results until the batch is full.
-            for (Row upstreamRow : state) {
-                boolean matches = eval(upstreamRow);
+            RowBatch upstreamBatch = currentRows.isEmpty() ? state.peekBatch() : null;
+
+            if (upstreamBatch instanceof ColumnarRowBatch) {
+                state.consumeBatch();
 
-                if (matches) {
-                    currentRows.add(upstreamRow);
+                ColumnarRowBatch batch = filterBatch((ColumnarRowBatch) upstreamBatch);
 
-                    if (++count == BATCH_SIZE) {
-                        return prepareBatch(state.isDone() ? IterationResult.FETCHED_DONE : IterationResult.FETCHED);
-                    }
+                if (batch.getRowCount() > 0 || state.isDone()) {
+                    currentBatch = batch;
+
+                    return fetchedResult();
                 }
+
+                continue;
+            }
+
+            if (consumeRows()) {
+                return prepareBatch(fetchedResult());
             }
 
             if (state.isDone()) {
@@ -76,6 +87,29 @@ public abstract class AbstractFilterExec extends AbstractUpstreamAwareExec {
         }
     }
 
+    /**
+     * Consumes upstream rows until the batch is full.
+     *
+     * @return {@code true} if the batch is full
+     */
+    private boolean consumeRows() {
+        for (Row upstreamRow : state) {
+            if (eval(upstreamRow)) {
+                currentRows.add(upstreamRow);
+
+                if (currentRows.size() == BATCH_SIZE) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private IterationResult fetchedResult() {
+        return state.isDone() ? IterationResult.FETCHED_DONE : IterationResult.FETCHED;
+    }
+
     private IterationResult prepareBatch(IterationResult result) {
         currentBatch = new ListRowBatch(currentRows);
         currentRows = null;
@@ -83,6 +117,25 @@ public abstract class AbstractFilterExec extends AbstractUpstreamAwareExec {
         return result;
     }
 
+    private ColumnarRowBatch filterBatch(ColumnarRowBatch upstreamBatch) {
+        int rowCount = upstreamBatch.getRowCount();
+
+        int[] indexes = new int[rowCount];
+        int count = 0;
+
+        ColumnarRow row = upstreamBatch.createCursor();
+
+        for (int i = 0; i < rowCount; i++) {
+            row.setIndex(i);
+
+            if (eval(row)) {
+                indexes[count++] = i;
+            }
+        }
+
+        return count == rowCount ? upstreamBatch : upstreamBatch.select(indexes, count);
+    }
+
     @Override
     public RowBatch currentBatch0() {
         return currentBatch;
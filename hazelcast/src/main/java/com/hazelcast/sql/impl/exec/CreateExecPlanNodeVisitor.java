@@ -20,22 +20,32 @@ import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.sql.impl.NodeServiceProvider;
+import com.hazelcast.sql.impl.exec.agg.AggregateExec;
 import com.hazelcast.sql.impl.exec.scan.index.MapIndexScanExec;
+import com.hazelcast.sql.impl.exec.io.BroadcastSendExec;
 import com.hazelcast.sql.impl.exec.io.InboundHandler;
 import com.hazelcast.sql.impl.exec.io.Inbox;
 import com.hazelcast.sql.impl.exec.io.OutboundHandler;
 import com.hazelcast.sql.impl.exec.io.Outbox;
 import com.hazelcast.sql.impl.exec.io.ReceiveExec;
+import com.hazelcast.sql.impl.exec.io.ReceiveSortMergeExec;
 import com.hazelcast.sql.impl.exec.io.SendExec;
+import com.hazelcast.sql.impl.exec.io.StripedInbox;
 import com.hazelcast.sql.impl.exec.io.flowcontrol.FlowControl;
 import com.hazelcast.sql.impl.exec.io.flowcontrol.FlowControlFactory;
+import com.hazelcast.sql.impl.exec.join.HashJoinExec;
+import com.hazelcast.sql.impl.exec.join.IndexNestedLoopJoinExec;
 import com.hazelcast.sql.impl.exec.root.RootExec;
 import com.hazelcast.sql.impl.exec.scan.MapScanExec;
+import com.hazelcast.sql.impl.exec.sort.SortExec;
 import com.hazelcast.sql.impl.operation.QueryExecuteOperation;
 import com.hazelcast.sql.impl.operation.QueryExecuteOperationFragment;
 import com.hazelcast.sql.impl.operation.QueryExecuteOperationFragmentMapping;
 import com.hazelcast.sql.impl.operation.QueryOperationHandler;
+import com.hazelcast.sql.impl.plan.node.AggregatePlanNode;
 import com.hazelcast.sql.impl.plan.node.EmptyPlanNode;
+import com.hazelcast.sql.impl.plan.node.HashJoinPlanNode;
+import com.hazelcast.sql.impl.plan.node.IndexNestedLoopJoinPlanNode;
 import com.hazelcast.sql.impl.plan.node.MapIndexScanPlanNode;
 import com.hazelcast.sql.impl.plan.node.MapScanPlanNode;
 import com.hazelcast.sql.impl.plan.node.FilterPlanNode;
@@ -43,8 +53,11 @@ import com.hazelcast.sql.impl.plan.node.PlanNode;
 import com.hazelcast.sql.impl.plan.node.PlanNodeVisitor;
 import com.hazelcast.sql.impl.plan.node.ProjectPlanNode;
 import com.hazelcast.sql.impl.plan.node.RootPlanNode;
+import com.hazelcast.sql.impl.plan.node.SortPlanNode;
+import com.hazelcast.sql.impl.plan.node.io.BroadcastSendPlanNode;
 import com.hazelcast.sql.impl.plan.node.io.EdgeAwarePlanNode;
 import com.hazelcast.sql.impl.plan.node.io.ReceivePlanNode;
+import com.hazelcast.sql.impl.plan.node.io.ReceiveSortMergePlanNode;
 import com.hazelcast.sql.impl.plan.node.io.RootSendPlanNode;
 
 import java.util.ArrayList;
@@ -56,6 +69,7 @@ import java.util.UUID;
 /**
  * Visitor which builds an executor for every observed physical node.
  */
+@SuppressWarnings({"checkstyle:ClassDataAbstractionCoupling", "checkstyle:ClassFanOutComplexity"})
 public class CreateExecPlanNodeVisitor implements PlanNodeVisitor {
     /** Operation handler. */
     private final QueryOperationHandler operationHandler;
@@ -159,6 +173,36 @@ public class CreateExecPlanNodeVisitor implements PlanNodeVisitor {
         push(res);
     }
 
+    @Override
+    public void onReceiveSortMergeNode(ReceiveSortMergePlanNode node) {
+        int edgeId = node.getEdgeId();
+
+        int sendFragmentPos = operation.getOutboundEdgeMap().get(edgeId);
+        QueryExecuteOperationFragment sendFragment = operation.getFragments().get(sendFragmentPos);
+
+        // Create and register inbox with a separate stripe for every sender.
+        StripedInbox inbox = new StripedInbox(
+            operationHandler,
+            operation.getQueryId(),
+            edgeId,
+            node.getSchema().getEstimatedRowSize(),
+            localMemberId,
+            getFragmentMembers(sendFragment),
+            createFlowControl(edgeId)
+        );
+
+        inboxes.put(edgeId, inbox);
+
+        ReceiveSortMergeExec res = new ReceiveSortMergeExec(
+            node.getId(),
+            inbox,
+            node.getColumns(),
+            node.getAscs()
+        );
+
+        push(res);
+    }
+
     @Override
     public void onRootSendNode(RootSendPlanNode node) {
         Outbox[] outboxes = prepareOutboxes(node);
@@ -168,6 +212,13 @@ public class CreateExecPlanNodeVisitor implements PlanNodeVisitor {
         exec = new SendExec(node.getId(), pop(), outboxes[0]);
     }
 
+    @Override
+    public void onBroadcastSendNode(BroadcastSendPlanNode node) {
+        Outbox[] outboxes = prepareOutboxes(node);
+
+        exec = new BroadcastSendExec(node.getId(), pop(), outboxes);
+    }
+
     /**
      * Prepare outboxes for the given sender node.
      *
@@ -194,6 +245,7 @@ public class CreateExecPlanNodeVisitor implements PlanNodeVisitor {
                 operationHandler,
                 operation.getQueryId(),
                 edgeId,
+                node.getSchema().getTypes(),
                 rowWidth,
                 localMemberId,
                 receiveMemberId,
@@ -231,6 +283,74 @@ public class CreateExecPlanNodeVisitor implements PlanNodeVisitor {
         push(res);
     }
 
+    @Override
+    public void onAggregateNode(AggregatePlanNode node) {
+        Exec res = new AggregateExec(
+            node.getId(),
+            pop(),
+            node.getGroupKey(),
+            node.getExpressions(),
+            node.getPhase()
+        );
+
+        push(res);
+    }
+
+    @Override
+    public void onHashJoinNode(HashJoinPlanNode node) {
+        Exec right = pop();
+        Exec left = pop();
+
+        Exec res = new HashJoinExec(
+            node.getId(),
+            left,
+            right,
+            node.getLeftKeys(),
+            node.getRightKeys(),
+            node.getCondition(),
+            node.isOuter(),
+            node.getRight().getSchema().getTypes().size()
+        );
+
+        push(res);
+    }
+
+    @Override
+    public void onIndexNestedLoopJoinNode(IndexNestedLoopJoinPlanNode node) {
+        MapIndexScanPlanNode inner = node.getInner();
+
+        Exec res = new IndexNestedLoopJoinExec(
+            node.getId(),
+            pop(),
+            nodeServiceProvider.getMap(inner.getMapName()),
+            localParts,
+            inner,
+            serializationService,
+            node.getOuterKeys(),
+            node.getCondition(),
+            node.isOuter()
+        );
+
+        push(res);
+    }
+
+    @Override
+    public void onSortNode(SortPlanNode node) {
+        // Inputs are visited before the node, so if no inboxes are created so far, the input doesn't receive rows from
+        // other members, and could be abandoned as soon as the fetch is reached.
+        Exec res = new SortExec(
+            node.getId(),
+            pop(),
+            node.getColumns(),
+            node.getAscs(),
+            node.getFetch(),
+            node.getOffset(),
+            !inboxes.isEmpty()
+        );
+
+        push(res);
+    }
+
     @Override
     public void onEmptyNode(EmptyPlanNode node) {
         Exec res = new EmptyExec(
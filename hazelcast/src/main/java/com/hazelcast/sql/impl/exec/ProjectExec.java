@@ -17,28 +17,41 @@
 package com.hazelcast.sql.impl.exec;
 
 import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.row.ColumnarRow;
+import com.hazelcast.sql.impl.row.ColumnarRowBatch;
+import com.hazelcast.sql.impl.row.ColumnarRowBatchBuilder;
 import com.hazelcast.sql.impl.row.EmptyRowBatch;
 import com.hazelcast.sql.impl.row.HeapRow;
 import com.hazelcast.sql.impl.row.ListRowBatch;
 import com.hazelcast.sql.impl.row.Row;
 import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.type.QueryDataType;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Project executor. Get rows from the incoming batch, projects them, and put into the output batch.
+ * <p>
+ * Columnar batches are projected into columnar batches, without creating an object for every input and output row.
  */
 @SuppressWarnings("rawtypes")
 public class ProjectExec extends AbstractUpstreamAwareExec {
 
     private final List<Expression> projects;
+    private final List<QueryDataType> types;
     private RowBatch currentBatch;
 
     public ProjectExec(int id, Exec upstream, List<Expression> projects) {
         super(id, upstream);
 
         this.projects = projects;
+
+        types = new ArrayList<>(projects.size());
+
+        for (Expression<?> project : projects) {
+            types.add(project.getType());
+        }
     }
 
     @Override
@@ -79,6 +92,10 @@ public class ProjectExec extends AbstractUpstreamAwareExec {
     }
 
     private RowBatch projectBatch(RowBatch upstreamBatch) {
+        if (upstreamBatch instanceof ColumnarRowBatch) {
+            return projectColumnarBatch((ColumnarRowBatch) upstreamBatch);
+        }
+
         List<Row> rows = new ArrayList<>(upstreamBatch.getRowCount());
 
         for (int i = 0; i < upstreamBatch.getRowCount(); i++) {
@@ -91,6 +108,27 @@ public class ProjectExec extends AbstractUpstreamAwareExec {
         return new ListRowBatch(rows);
     }
 
+    private RowBatch projectColumnarBatch(ColumnarRowBatch upstreamBatch) {
+        int rowCount = upstreamBatch.getRowCount();
+
+        ColumnarRowBatchBuilder builder = new ColumnarRowBatchBuilder(types, rowCount);
+
+        ColumnarRow upstreamRow = upstreamBatch.createCursor();
+        Object[] values = new Object[projects.size()];
+
+        for (int i = 0; i < rowCount; i++) {
+            upstreamRow.setIndex(i);
+
+            for (int j = 0; j < values.length; j++) {
+                values[j] = projects.get(j).eval(upstreamRow, ctx);
+            }
+
+            builder.add(values);
+        }
+
+        return builder.build();
+    }
+
     private Row projectRow(Row upstreamRow) {
         HeapRow row = new HeapRow(projects.size());
 
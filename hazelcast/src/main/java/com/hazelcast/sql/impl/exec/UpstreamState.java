@@ -108,6 +108,13 @@ public class UpstreamState implements Iterable<Row> {
         return batch;
     }
 
+    /**
+     * @return Current batch if none of its rows has been consumed yet, {@code null} otherwise.
+     */
+    public RowBatch peekBatch() {
+        return currentBatchPos == 0 && isNextAvailable() ? currentBatch : null;
+    }
+
     /**
      * @return {@code true} if no more results will appear in future.
      */
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.agg;
+
+import com.hazelcast.sql.impl.exec.AbstractUpstreamAwareExec;
+import com.hazelcast.sql.impl.exec.Exec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.expression.aggregate.AggregateCollector;
+import com.hazelcast.sql.impl.expression.aggregate.AggregateExpression;
+import com.hazelcast.sql.impl.plan.node.AggregatePhase;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate executor. Consumes the whole input grouping the rows by the group key, and then produces a row per group.
+ * <p>
+ * Depending on the {@link AggregatePhase}, the executor either accumulates the input rows, or merges the partial states
+ * produced by the local aggregation on other members. The local phase produces partial states instead of final results,
+ * so that only a row per group is sent over the network rather than the whole input.
+ */
+public class AggregateExec extends AbstractUpstreamAwareExec {
+
+    static final int BATCH_SIZE = 1024;
+
+    private final List<Integer> groupKey;
+    private final List<AggregateExpression> expressions;
+    private final AggregatePhase phase;
+
+    /** Collectors of every group. */
+    private Map<List<Object>, AggregateCollector[]> groups = new HashMap<>();
+
+    /** Output rows, available once the input is consumed. */
+    private List<Row> rows;
+    private int rowsPos;
+
+    private RowBatch currentBatch;
+
+    public AggregateExec(int id, Exec upstream, List<Integer> groupKey, List<AggregateExpression> expressions,
+                         AggregatePhase phase) {
+        super(id, upstream);
+
+        this.groupKey = groupKey;
+        this.expressions = expressions;
+        this.phase = phase;
+    }
+
+    @Override
+    public IterationResult advance0() {
+        if (rows == null) {
+            while (true) {
+                if (!state.advance()) {
+                    return IterationResult.WAIT;
+                }
+
+                for (Row upstreamRow : state) {
+                    consume(upstreamRow);
+                }
+
+                if (state.isDone()) {
+                    break;
+                }
+            }
+
+            rows = produceRows();
+            groups = null;
+        }
+
+        int batchSize = Math.min(BATCH_SIZE, rows.size() - rowsPos);
+
+        currentBatch = new ListRowBatch(rows.subList(rowsPos, rowsPos + batchSize));
+        rowsPos += batchSize;
+
+        return rowsPos == rows.size() ? IterationResult.FETCHED_DONE : IterationResult.FETCHED;
+    }
+
+    @Override
+    public RowBatch currentBatch0() {
+        return currentBatch;
+    }
+
+    public List<Integer> getGroupKey() {
+        return groupKey;
+    }
+
+    public List<AggregateExpression> getExpressions() {
+        return expressions;
+    }
+
+    public AggregatePhase getPhase() {
+        return phase;
+    }
+
+    private void consume(Row row) {
+        Object[] keyValues = new Object[groupKey.size()];
+
+        for (int i = 0; i < keyValues.length; i++) {
+            keyValues[i] = row.get(groupKey.get(i));
+        }
+
+        AggregateCollector[] collectors = groups.computeIfAbsent(Arrays.asList(keyValues), key -> createCollectors());
+
+        if (phase == AggregatePhase.FINAL) {
+            int index = groupKey.size();
+
+            for (int i = 0; i < collectors.length; i++) {
+                collectors[i].merge(row, index);
+
+                index += expressions.get(i).getPartialTypes().size();
+            }
+        } else {
+            for (AggregateCollector collector : collectors) {
+                collector.collect(row, ctx);
+            }
+        }
+    }
+
+    private List<Row> produceRows() {
+        if (groups.isEmpty()) {
+            if (!groupKey.isEmpty() || phase == AggregatePhase.LOCAL) {
+                return Collections.emptyList();
+            }
+
+            // Aggregation without grouping always produces a single row, even for the empty input.
+            groups.put(Collections.emptyList(), createCollectors());
+        }
+
+        List<Row> res = new ArrayList<>(groups.size());
+
+        for (Map.Entry<List<Object>, AggregateCollector[]> group : groups.entrySet()) {
+            res.add(produceRow(group.getKey(), group.getValue()));
+        }
+
+        return res;
+    }
+
+    private Row produceRow(List<Object> keyValues, AggregateCollector[] collectors) {
+        int width = keyValues.size();
+
+        for (AggregateExpression expression : expressions) {
+            width += phase == AggregatePhase.LOCAL ? expression.getPartialTypes().size() : 1;
+        }
+
+        HeapRow row = new HeapRow(width);
+
+        int index = 0;
+
+        for (Object keyValue : keyValues) {
+            row.set(index++, keyValue);
+        }
+
+        for (int i = 0; i < collectors.length; i++) {
+            if (phase == AggregatePhase.LOCAL) {
+                collectors[i].writePartial(row, index);
+
+                index += expressions.get(i).getPartialTypes().size();
+            } else {
+                row.set(index++, collectors[i].getResult());
+            }
+        }
+
+        return row;
+    }
+
+    private AggregateCollector[] createCollectors() {
+        AggregateCollector[] res = new AggregateCollector[expressions.size()];
+
+        for (int i = 0; i < res.length; i++) {
+            res[i] = expressions.get(i).createCollector();
+        }
+
+        return res;
+    }
+}
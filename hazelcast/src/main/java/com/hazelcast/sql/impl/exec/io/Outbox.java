@@ -21,17 +21,15 @@ import com.hazelcast.sql.impl.QueryId;
 import com.hazelcast.sql.impl.operation.QueryBatchExchangeOperation;
 import com.hazelcast.sql.impl.operation.QueryOperationChannel;
 import com.hazelcast.sql.impl.operation.QueryOperationHandler;
-import com.hazelcast.sql.impl.row.ListRowBatch;
-import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.ColumnarRowBatchBuilder;
 import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.type.QueryDataType;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
 /**
- * Outbox which sends data to a single remote stripe.
+ * Outbox which sends data to a single remote stripe. Rows are sent in the columnar format.
  */
 public class Outbox extends AbstractMailbox implements OutboundHandler {
     /** Operation handler. */
@@ -43,8 +41,11 @@ public class Outbox extends AbstractMailbox implements OutboundHandler {
     /** Recommended batch size in bytes. The batch is sent when there is more enqueued data than this value. */
     private final int batchSize;
 
+    /** Types of the columns. */
+    private final List<QueryDataType> types;
+
     /** Pending rows. */
-    private List<Row> rows;
+    private ColumnarRowBatchBuilder rows;
 
     /** Channel to send operations through. */
     private QueryOperationChannel operationChannel;
@@ -52,10 +53,12 @@ public class Outbox extends AbstractMailbox implements OutboundHandler {
     /** Amount of remote memory which is available at the moment. */
     private long remainingMemory;
 
+    @SuppressWarnings("checkstyle:ParameterNumber")
     public Outbox(
         QueryOperationHandler operationHandler,
         QueryId queryId,
         int edgeId,
+        List<QueryDataType> types,
         int rowWidth,
         UUID localMemberId,
         UUID targetMemberId,
@@ -65,6 +68,7 @@ public class Outbox extends AbstractMailbox implements OutboundHandler {
         super(queryId, edgeId, rowWidth, localMemberId);
 
         this.operationHandler = operationHandler;
+        this.types = types;
         this.targetMemberId = targetMemberId;
         this.batchSize = batchSize;
         this.remainingMemory = remainingMemory;
@@ -116,10 +120,10 @@ public class Outbox extends AbstractMailbox implements OutboundHandler {
 
             // Add pending row.
             if (rows == null) {
-                rows = new ArrayList<>();
+                rows = createBuilder();
             }
 
-            rows.add(batch.getRow(currentPosition));
+            rows.add(batch, currentPosition);
             acceptedRows++;
         }
 
@@ -134,7 +138,7 @@ public class Outbox extends AbstractMailbox implements OutboundHandler {
         // 2) If there are some data in the batch, and:
         //     2.1) There are more data than the recommended batch size
         //     2.2) Or we run out of memory, so that the remote end knows that we are low on memory, and the flow control is sent
-        int batchRowCount = rows != null ? rows.size() : 0;
+        int batchRowCount = rows != null ? rows.getRowCount() : 0;
 
         boolean batchIsNotEmpty = batchRowCount > 0;
         boolean batchThresholdIsReached = batchRowCount * rowWidth >= batchSize;
@@ -160,7 +164,7 @@ public class Outbox extends AbstractMailbox implements OutboundHandler {
      * @param last Whether this is the last batch.
      */
     private void send(boolean last) {
-        RowBatch batch = new ListRowBatch(rows != null ? rows : Collections.emptyList());
+        RowBatch batch = (rows != null ? rows : createBuilder()).build();
 
         assert batch.getRowCount() > 0 || last;
 
@@ -182,6 +186,10 @@ public class Outbox extends AbstractMailbox implements OutboundHandler {
         rows = null;
     }
 
+    private ColumnarRowBatchBuilder createBuilder() {
+        return new ColumnarRowBatchBuilder(types, Math.max(batchSize / rowWidth, 1));
+    }
+
     @Override
     public String toString() {
         return "Outbox {queryId=" + queryId + ", edgeId=" + edgeId + ", targetMemberId=" + targetMemberId + '}';
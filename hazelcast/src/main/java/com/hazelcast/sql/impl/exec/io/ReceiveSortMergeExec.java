@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.io;
+
+import com.hazelcast.sql.impl.exec.AbstractExec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.exec.sort.SortKeyComparator;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.worker.QueryFragmentContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executor which merges sorted streams from remote stripes into a single sorted stream.
+ * <p>
+ * The next row can be produced only when the current row of every unfinished stripe is known, so the executor waits until
+ * every such stripe has at least one pending row.
+ */
+public class ReceiveSortMergeExec extends AbstractExec {
+
+    static final int BATCH_SIZE = 1024;
+
+    private static final int STRIPES_EXHAUSTED = -1;
+    private static final int STRIPE_PENDING = -2;
+
+    private final StripedInbox inbox;
+    private final List<Integer> columns;
+    private final List<Boolean> ascs;
+    private final SortKeyComparator comparator;
+
+    /** Current batch of every stripe. */
+    private final RowBatch[] batches;
+
+    /** Position of the next row in the current batch of every stripe. */
+    private final int[] positions;
+
+    /** Whether the last batch was received from the stripe. */
+    private final boolean[] lastReceived;
+
+    private RowBatch currentBatch;
+
+    public ReceiveSortMergeExec(int id, StripedInbox inbox, List<Integer> columns, List<Boolean> ascs) {
+        super(id);
+
+        this.inbox = inbox;
+        this.columns = columns;
+        this.ascs = ascs;
+
+        comparator = new SortKeyComparator(columns, ascs);
+
+        batches = new RowBatch[inbox.getStripeCount()];
+        positions = new int[inbox.getStripeCount()];
+        lastReceived = new boolean[inbox.getStripeCount()];
+    }
+
+    @Override
+    protected void setup0(QueryFragmentContext ctx) {
+        inbox.setup();
+    }
+
+    @Override
+    protected IterationResult advance0() {
+        List<Row> rows = null;
+
+        while (true) {
+            int minStripe = selectMinStripe();
+
+            if (minStripe == STRIPE_PENDING) {
+                // A stripe has no pending rows yet, so the order of the next row cannot be determined.
+                currentBatch = rows != null ? new ListRowBatch(rows) : null;
+
+                return rows != null ? IterationResult.FETCHED : IterationResult.WAIT;
+            }
+
+            if (minStripe == STRIPES_EXHAUSTED) {
+                currentBatch = rows != null ? new ListRowBatch(rows) : null;
+
+                return IterationResult.FETCHED_DONE;
+            }
+
+            if (rows == null) {
+                rows = new ArrayList<>(BATCH_SIZE);
+            }
+
+            rows.add(batches[minStripe].getRow(positions[minStripe]));
+            positions[minStripe]++;
+
+            if (rows.size() == BATCH_SIZE) {
+                currentBatch = new ListRowBatch(rows);
+
+                return IterationResult.FETCHED;
+            }
+        }
+    }
+
+    /**
+     * Select the stripe whose current row is the next one in the merged order.
+     *
+     * @return Stripe index, {@link #STRIPE_PENDING} if some stripe has no pending rows yet, or {@link #STRIPES_EXHAUSTED}
+     * if all stripes are exhausted.
+     */
+    private int selectMinStripe() {
+        int minStripe = STRIPES_EXHAUSTED;
+        Row minRow = null;
+
+        for (int i = 0; i < batches.length; i++) {
+            if (!prepareStripe(i)) {
+                return STRIPE_PENDING;
+            }
+
+            if (isExhausted(i)) {
+                continue;
+            }
+
+            Row row = batches[i].getRow(positions[i]);
+
+            if (minRow == null || comparator.compare(row, minRow) < 0) {
+                minStripe = i;
+                minRow = row;
+            }
+        }
+
+        return minStripe;
+    }
+
+    @Override
+    protected RowBatch currentBatch0() {
+        return currentBatch;
+    }
+
+    public StripedInbox getInbox() {
+        return inbox;
+    }
+
+    public List<Integer> getColumns() {
+        return columns;
+    }
+
+    public List<Boolean> getAscs() {
+        return ascs;
+    }
+
+    /**
+     * Ensure that the stripe either has a pending row, or is exhausted.
+     *
+     * @param stripe Stripe index.
+     * @return {@code false} if the stripe has no pending rows, but more batches are expected.
+     */
+    private boolean prepareStripe(int stripe) {
+        while (batches[stripe] == null || positions[stripe] == batches[stripe].getRowCount()) {
+            if (lastReceived[stripe]) {
+                return true;
+            }
+
+            InboundBatch batch = inbox.poll(stripe);
+
+            if (batch == null) {
+                return false;
+            }
+
+            batches[stripe] = batch.getBatch();
+            positions[stripe] = 0;
+            lastReceived[stripe] = batch.isLast();
+        }
+
+        return true;
+    }
+
+    private boolean isExhausted(int stripe) {
+        return lastReceived[stripe] && positions[stripe] == batches[stripe].getRowCount();
+    }
+}
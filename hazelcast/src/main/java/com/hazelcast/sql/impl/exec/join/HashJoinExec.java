@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.join;
+
+import com.hazelcast.sql.impl.exec.AbstractExec;
+import com.hazelcast.sql.impl.exec.Exec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.exec.UpstreamState;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.predicate.TernaryLogic;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.JoinRow;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.worker.QueryFragmentContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash join executor. Consumes the whole right input first, building a hash table by the right keys. Then the left input
+ * is streamed, every left row is matched against the rows of the hash table having the same key.
+ * <p>
+ * Rows with {@code null} keys never match, since {@code null} is not equal to any value in SQL. Without keys every left row
+ * is matched against every right row.
+ */
+public class HashJoinExec extends AbstractExec {
+
+    static final int BATCH_SIZE = 1024;
+
+    private final Exec left;
+    private final Exec right;
+    private final UpstreamState leftState;
+    private final UpstreamState rightState;
+    private final List<Integer> leftKeys;
+    private final List<Integer> rightKeys;
+    private final Expression<Boolean> condition;
+    private final boolean outer;
+
+    /** Row of nulls which is joined with unmatched left rows of the outer join. */
+    private final Row emptyRightRow;
+
+    /** Rows of the right input grouped by the key. */
+    private Map<List<Object>, List<Row>> table = new HashMap<>();
+    private boolean built;
+
+    private List<Row> currentRows;
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public HashJoinExec(
+        int id,
+        Exec left,
+        Exec right,
+        List<Integer> leftKeys,
+        List<Integer> rightKeys,
+        Expression<Boolean> condition,
+        boolean outer,
+        int rightColumnCount
+    ) {
+        super(id);
+
+        this.left = left;
+        this.right = right;
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+        this.condition = condition;
+        this.outer = outer;
+
+        leftState = new UpstreamState(left);
+        rightState = new UpstreamState(right);
+        emptyRightRow = new HeapRow(rightColumnCount);
+    }
+
+    @Override
+    protected void setup0(QueryFragmentContext ctx) {
+        leftState.setup(ctx);
+        rightState.setup(ctx);
+    }
+
+    @Override
+    protected IterationResult advance0() {
+        if (!built && !buildTable()) {
+            return IterationResult.WAIT;
+        }
+
+        currentRows = null;
+
+        while (true) {
+            if (!leftState.advance()) {
+                return currentRows == null ? IterationResult.WAIT : IterationResult.FETCHED;
+            }
+
+            for (Row leftRow = leftState.nextIfExists(); leftRow != null; leftRow = leftState.nextIfExists()) {
+                probe(leftRow);
+
+                if (currentRows != null && currentRows.size() >= BATCH_SIZE) {
+                    return leftState.isDone() ? IterationResult.FETCHED_DONE : IterationResult.FETCHED;
+                }
+            }
+
+            if (leftState.isDone()) {
+                return IterationResult.FETCHED_DONE;
+            }
+        }
+    }
+
+    @Override
+    protected RowBatch currentBatch0() {
+        return currentRows != null ? new ListRowBatch(currentRows) : null;
+    }
+
+    public Exec getLeft() {
+        return left;
+    }
+
+    public Exec getRight() {
+        return right;
+    }
+
+    public List<Integer> getLeftKeys() {
+        return leftKeys;
+    }
+
+    public List<Integer> getRightKeys() {
+        return rightKeys;
+    }
+
+    public Expression<Boolean> getCondition() {
+        return condition;
+    }
+
+    public boolean isOuter() {
+        return outer;
+    }
+
+    /**
+     * Consume the right input into the hash table.
+     *
+     * @return {@code true} if the whole right input has been consumed, {@code false} if more rows are expected.
+     */
+    private boolean buildTable() {
+        while (rightState.advance()) {
+            for (Row rightRow : rightState) {
+                build(rightRow);
+            }
+
+            if (rightState.isDone()) {
+                built = true;
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void build(Row rightRow) {
+        List<Object> key = getKey(rightRow, rightKeys);
+
+        if (key != null) {
+            table.computeIfAbsent(key, k -> new ArrayList<>(1)).add(rightRow);
+        }
+    }
+
+    private void probe(Row leftRow) {
+        List<Object> key = getKey(leftRow, leftKeys);
+        List<Row> rightRows = key != null ? table.get(key) : null;
+
+        boolean matched = false;
+
+        if (rightRows != null) {
+            for (Row rightRow : rightRows) {
+                matched |= join(leftRow, rightRow);
+            }
+        }
+
+        if (!matched && outer) {
+            addRow(new JoinRow(leftRow, emptyRightRow));
+        }
+    }
+
+    private boolean join(Row leftRow, Row rightRow) {
+        JoinRow row = new JoinRow(leftRow, rightRow);
+
+        if (condition != null && TernaryLogic.isNotTrue(condition.eval(row, ctx))) {
+            return false;
+        }
+
+        addRow(row);
+
+        return true;
+    }
+
+    private void addRow(Row row) {
+        if (currentRows == null) {
+            currentRows = new ArrayList<>(BATCH_SIZE);
+        }
+
+        currentRows.add(row);
+    }
+
+    /**
+     * Get the key of the row.
+     *
+     * @return The key or {@code null} if any of the key columns is {@code null}.
+     */
+    private static List<Object> getKey(Row row, List<Integer> keys) {
+        Object[] values = new Object[keys.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            Object value = row.get(keys.get(i));
+
+            if (value == null) {
+                return null;
+            }
+
+            values[i] = normalize(value);
+        }
+
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Normalize the key value, so that the values which are equal in SQL are equal in Java too.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).stripTrailingZeros();
+        } else if (value instanceof Double && (Double) value == 0.0d) {
+            return 0.0d;
+        } else if (value instanceof Float && (Float) value == 0.0f) {
+            return 0.0f;
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.join;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.query.impl.GlobalIndexPartitionTracker;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.SqlErrorCode;
+import com.hazelcast.sql.impl.exec.AbstractUpstreamAwareExec;
+import com.hazelcast.sql.impl.exec.Exec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.exec.scan.KeyValueIterator;
+import com.hazelcast.sql.impl.exec.scan.MapScanExecUtils;
+import com.hazelcast.sql.impl.exec.scan.MapScanRow;
+import com.hazelcast.sql.impl.exec.scan.index.IndexEqualsFilter;
+import com.hazelcast.sql.impl.exec.scan.index.IndexFilterValue;
+import com.hazelcast.sql.impl.exec.scan.index.MapIndexScanExecIterator;
+import com.hazelcast.sql.impl.expression.ConstantExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.predicate.TernaryLogic;
+import com.hazelcast.sql.impl.plan.node.MapIndexScanPlanNode;
+import com.hazelcast.sql.impl.row.EmptyRow;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.JoinRow;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.sql.impl.worker.QueryFragmentContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index nested-loop join executor. For every row of the outer input, the index of the inner map is queried for the entries
+ * which index components are equal to the outer key columns. Only the partitions of the inner map owned by the local member
+ * are queried.
+ * <p>
+ * Outer rows with {@code null} keys never match, since {@code null} is not equal to any value in SQL.
+ */
+@SuppressWarnings("rawtypes")
+public class IndexNestedLoopJoinExec extends AbstractUpstreamAwareExec {
+
+    static final int BATCH_SIZE = 1024;
+
+    private final MapContainer map;
+    private final PartitionIdSet partitions;
+    private final MapIndexScanPlanNode inner;
+    private final InternalSerializationService serializationService;
+    private final List<Integer> outerKeys;
+    private final Expression<Boolean> condition;
+    private final boolean outer;
+
+    /** Row of nulls which is joined with unmatched outer rows of the outer join. */
+    private final Row emptyInnerRow;
+
+    private InternalIndex index;
+    private MapScanRow innerRow;
+    private int migrationStamp;
+    private long partitionStamp;
+
+    private List<Row> currentRows;
+
+    /**
+     * Constructor.
+     *
+     * @param map Inner map or {@code null} if the map doesn't exist on the local member.
+     * @param partitions Partitions of the inner map owned by the local member.
+     * @param inner Description of the inner map lookup.
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public IndexNestedLoopJoinExec(
+        int id,
+        Exec upstream,
+        MapContainer map,
+        PartitionIdSet partitions,
+        MapIndexScanPlanNode inner,
+        InternalSerializationService serializationService,
+        List<Integer> outerKeys,
+        Expression<Boolean> condition,
+        boolean outer
+    ) {
+        super(id, upstream);
+
+        this.map = map;
+        this.partitions = partitions;
+        this.inner = inner;
+        this.serializationService = serializationService;
+        this.outerKeys = outerKeys;
+        this.condition = condition;
+        this.outer = outer;
+
+        emptyInnerRow = new HeapRow(inner.getProjects().size());
+    }
+
+    @Override
+    protected void setup1(QueryFragmentContext ctx) {
+        if (map == null || partitions.isEmpty()) {
+            // Nothing to look up.
+            return;
+        }
+
+        innerRow = MapScanRow.create(
+            inner.getKeyDescriptor(),
+            inner.getValueDescriptor(),
+            inner.getFieldPaths(),
+            inner.getFieldTypes(),
+            MapScanExecUtils.createExtractors(map),
+            serializationService
+        );
+
+        index = getIndex();
+        migrationStamp = map.getMapServiceContext().getService().getMigrationStamp();
+        partitionStamp = index.getPartitionStamp(partitions);
+
+        if (partitionStamp == GlobalIndexPartitionTracker.STAMP_INVALID) {
+            throw invalidIndexStamp();
+        }
+    }
+
+    @Override
+    protected IterationResult advance0() {
+        currentRows = null;
+
+        while (true) {
+            if (!state.advance()) {
+                if (currentRows == null) {
+                    return IterationResult.WAIT;
+                }
+
+                validateConsistency();
+
+                return IterationResult.FETCHED;
+            }
+
+            for (Row outerRow = state.nextIfExists(); outerRow != null; outerRow = state.nextIfExists()) {
+                join(outerRow);
+
+                if (currentRows != null && currentRows.size() >= BATCH_SIZE) {
+                    validateConsistency();
+
+                    return state.isDone() ? IterationResult.FETCHED_DONE : IterationResult.FETCHED;
+                }
+            }
+
+            if (state.isDone()) {
+                validateConsistency();
+
+                return IterationResult.FETCHED_DONE;
+            }
+        }
+    }
+
+    @Override
+    protected RowBatch currentBatch0() {
+        return currentRows != null ? new ListRowBatch(currentRows) : null;
+    }
+
+    public MapContainer getMap() {
+        return map;
+    }
+
+    public PartitionIdSet getPartitions() {
+        return partitions;
+    }
+
+    public MapIndexScanPlanNode getInner() {
+        return inner;
+    }
+
+    public List<Integer> getOuterKeys() {
+        return outerKeys;
+    }
+
+    public Expression<Boolean> getCondition() {
+        return condition;
+    }
+
+    public boolean isOuter() {
+        return outer;
+    }
+
+    private void join(Row outerRow) {
+        boolean matched = false;
+
+        KeyValueIterator iterator = lookup(outerRow);
+
+        if (iterator != null) {
+            while (iterator.tryAdvance()) {
+                Row innerRow = prepareInnerRow(iterator.getKey(), iterator.getValue());
+
+                if (innerRow != null) {
+                    matched |= join(outerRow, innerRow);
+                }
+            }
+        }
+
+        if (!matched && outer) {
+            addRow(new JoinRow(outerRow, emptyInnerRow));
+        }
+    }
+
+    private boolean join(Row outerRow, Row innerRow) {
+        JoinRow row = new JoinRow(outerRow, innerRow);
+
+        if (condition != null && TernaryLogic.isNotTrue(condition.eval(row, ctx))) {
+            return false;
+        }
+
+        addRow(row);
+
+        return true;
+    }
+
+    /**
+     * Query the index for the entries matching the keys of the outer row.
+     *
+     * @return Iterator over the matching entries or {@code null} if nothing could match.
+     */
+    private KeyValueIterator lookup(Row outerRow) {
+        if (index == null) {
+            return null;
+        }
+
+        List<QueryDataType> converterTypes = inner.getConverterTypes();
+        List<Expression> components = new ArrayList<>(outerKeys.size());
+
+        for (int i = 0; i < outerKeys.size(); i++) {
+            Object value = outerRow.get(outerKeys.get(i));
+
+            if (value == null) {
+                return null;
+            }
+
+            components.add(ConstantExpression.create(value, converterTypes.get(i)));
+        }
+
+        IndexEqualsFilter filter = new IndexEqualsFilter(
+            new IndexFilterValue(components, Collections.nCopies(components.size(), false))
+        );
+
+        return new MapIndexScanExecIterator(
+            inner.getMapName(),
+            index,
+            inner.getIndexComponentCount(),
+            filter,
+            converterTypes,
+            ctx
+        );
+    }
+
+    private Row prepareInnerRow(Object rawKey, Object rawValue) {
+        innerRow.setKeyValue(rawKey, rawValue);
+
+        Expression<Boolean> filter = inner.getFilter();
+
+        if (filter != null && TernaryLogic.isNotTrue(filter.eval(innerRow, ctx))) {
+            return null;
+        }
+
+        List<Integer> projects = inner.getProjects();
+
+        if (projects.isEmpty()) {
+            return EmptyRow.INSTANCE;
+        }
+
+        HeapRow row = new HeapRow(projects.size());
+
+        for (int i = 0; i < projects.size(); i++) {
+            row.set(i, innerRow.get(projects.get(i)));
+        }
+
+        return row;
+    }
+
+    private void addRow(Row row) {
+        if (currentRows == null) {
+            currentRows = new ArrayList<>(BATCH_SIZE);
+        }
+
+        currentRows.add(row);
+    }
+
+    private InternalIndex getIndex() {
+        Indexes indexes = map.getIndexes();
+        InternalIndex res = indexes != null ? indexes.getIndex(inner.getIndexName()) : null;
+
+        if (res == null) {
+            throw QueryException.error(
+                SqlErrorCode.INDEX_INVALID,
+                "Cannot use the index \"" + inner.getIndexName() + "\" of the IMap \"" + inner.getMapName()
+                    + "\" because it doesn't exist or is not global"
+            ).markInvalidate();
+        }
+
+        return res;
+    }
+
+    private void validateConsistency() {
+        if (index == null) {
+            return;
+        }
+
+        if (!index.validatePartitionStamp(partitionStamp)) {
+            throw invalidIndexStamp();
+        }
+
+        if (!map.getMapServiceContext().getService().validateMigrationStamp(migrationStamp)) {
+            throw QueryException.error(
+                SqlErrorCode.PARTITION_DISTRIBUTION, "Index lookup failed due to concurrent partition migration "
+                + "(result consistency cannot be guaranteed)"
+            ).markInvalidate();
+        }
+
+        if (map.isDestroyed()) {
+            throw QueryException.error(
+                SqlErrorCode.MAP_DESTROYED,
+                "IMap has been destroyed concurrently: " + inner.getMapName()
+            ).markInvalidate();
+        }
+    }
+
+    private QueryException invalidIndexStamp() {
+        return QueryException.error(
+            SqlErrorCode.INDEX_INVALID,
+            "Cannot use the index \"" + inner.getIndexName() + "\" of the IMap \"" + inner.getMapName()
+                + "\" due to concurrent migration, or because index creation is still in progress"
+        ).markInvalidate();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{mapName=" + inner.getMapName() + ", indexName=" + inner.getIndexName()
+            + ", outerKeys=" + outerKeys + ", condition=" + condition + ", outer=" + outer + '}';
+    }
+}
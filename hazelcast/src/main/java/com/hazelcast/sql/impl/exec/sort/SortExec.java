@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.sort;
+
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.exec.AbstractUpstreamAwareExec;
+import com.hazelcast.sql.impl.exec.Exec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.row.EmptyRow;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.worker.QueryFragmentContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sort executor. Works in one of the following modes:
+ * <ul>
+ *     <li>Top-N: when the fetch is set, only {@code offset + fetch} smallest rows are kept in a bounded heap, so the memory
+ *     consumption doesn't depend on the size of the input</li>
+ *     <li>Full sort: otherwise the whole input is collected and sorted</li>
+ *     <li>Streaming: when there are no sort columns, the input rows are passed through as they arrive, and only the offset
+ *     and the fetch are applied</li>
+ * </ul>
+ * If the input may contain rows received from other members, it is always consumed to the end, even if the fetch is
+ * already reached, because the fragment cannot complete while remote senders still have batches in flight. Otherwise, the
+ * streaming mode completes as soon as the fetch is reached, e.g. when the input is an index scan which already returns the
+ * rows in the required order.
+ */
+public class SortExec extends AbstractUpstreamAwareExec {
+
+    static final int BATCH_SIZE = 1024;
+
+    private final List<Integer> columns;
+    private final List<Boolean> ascs;
+    private final Expression<?> fetch;
+    private final Expression<?> offset;
+
+    /** Whether the input must be consumed to the end even if the fetch is reached. */
+    private final boolean drainInput;
+
+    /** Comparator, or {@code null} in the streaming mode. */
+    private final SortKeyComparator comparator;
+
+    /** Number of leading rows to skip. */
+    private long offsetValue;
+
+    /** Number of leading rows to keep, i.e. offset plus fetch. */
+    private long limitValue;
+
+    /** Top-N heap, the head is the greatest row. */
+    private PriorityQueue<Row> heap;
+
+    /** Collected rows for the full sort. */
+    private List<Row> rows;
+
+    /** Number of consumed rows in the streaming mode. */
+    private long consumedCount;
+
+    /** Output rows, available once the input is consumed. */
+    private List<Row> result;
+    private int resultPos;
+
+    private RowBatch currentBatch;
+
+    public SortExec(int id, Exec upstream, List<Integer> columns, List<Boolean> ascs, Expression<?> fetch,
+                    Expression<?> offset, boolean drainInput) {
+        super(id, upstream);
+
+        this.columns = columns;
+        this.ascs = ascs;
+        this.fetch = fetch;
+        this.offset = offset;
+        this.drainInput = drainInput;
+
+        comparator = columns.isEmpty() ? null : new SortKeyComparator(columns, ascs);
+    }
+
+    @Override
+    protected void setup1(QueryFragmentContext ctx) {
+        offsetValue = evaluate(offset, "OFFSET");
+
+        if (fetch != null) {
+            long fetchValue = evaluate(fetch, "LIMIT");
+
+            limitValue = fetchValue > Long.MAX_VALUE - offsetValue ? Long.MAX_VALUE : offsetValue + fetchValue;
+        } else {
+            limitValue = Long.MAX_VALUE;
+        }
+
+        if (comparator != null) {
+            if (fetch != null) {
+                heap = new PriorityQueue<>((int) Math.min(limitValue, BATCH_SIZE - 1) + 1, comparator.reversed());
+            } else {
+                rows = new ArrayList<>();
+            }
+        }
+    }
+
+    @Override
+    protected IterationResult advance0() {
+        if (comparator == null) {
+            return advanceStreaming();
+        }
+
+        if (result == null) {
+            while (true) {
+                if (!state.advance()) {
+                    return IterationResult.WAIT;
+                }
+
+                for (Row upstreamRow : state) {
+                    consume(upstreamRow);
+                }
+
+                if (state.isDone()) {
+                    break;
+                }
+            }
+
+            result = produceResult();
+            heap = null;
+            rows = null;
+        }
+
+        int batchSize = Math.min(BATCH_SIZE, result.size() - resultPos);
+
+        currentBatch = new ListRowBatch(result.subList(resultPos, resultPos + batchSize));
+        resultPos += batchSize;
+
+        return resultPos == result.size() ? IterationResult.FETCHED_DONE : IterationResult.FETCHED;
+    }
+
+    @Override
+    protected RowBatch currentBatch0() {
+        return currentBatch;
+    }
+
+    public List<Integer> getColumns() {
+        return columns;
+    }
+
+    public List<Boolean> getAscs() {
+        return ascs;
+    }
+
+    public Expression<?> getFetch() {
+        return fetch;
+    }
+
+    public Expression<?> getOffset() {
+        return offset;
+    }
+
+    public boolean isDrainInput() {
+        return drainInput;
+    }
+
+    private IterationResult advanceStreaming() {
+        currentBatch = null;
+
+        while (true) {
+            if (!state.advance()) {
+                return IterationResult.WAIT;
+            }
+
+            List<Row> batchRows = null;
+
+            for (Row upstreamRow : state) {
+                if (consumedCount >= offsetValue && consumedCount < limitValue) {
+                    if (batchRows == null) {
+                        batchRows = new ArrayList<>();
+                    }
+
+                    batchRows.add(upstreamRow);
+                }
+
+                consumedCount++;
+            }
+
+            if (batchRows != null) {
+                currentBatch = new ListRowBatch(batchRows);
+            }
+
+            if (state.isDone() || (!drainInput && consumedCount >= limitValue)) {
+                return IterationResult.FETCHED_DONE;
+            }
+
+            if (batchRows != null) {
+                return IterationResult.FETCHED;
+            }
+        }
+    }
+
+    private void consume(Row row) {
+        if (heap == null) {
+            rows.add(row);
+        } else if (heap.size() < limitValue) {
+            heap.add(row);
+        } else if (limitValue > 0 && comparator.compare(row, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(row);
+        }
+    }
+
+    private List<Row> produceResult() {
+        List<Row> sortedRows;
+
+        if (heap != null) {
+            Row[] sortedRows0 = new Row[heap.size()];
+
+            for (int i = sortedRows0.length - 1; i >= 0; i--) {
+                sortedRows0[i] = heap.poll();
+            }
+
+            sortedRows = Arrays.asList(sortedRows0);
+        } else {
+            rows.sort(comparator);
+
+            sortedRows = rows;
+        }
+
+        int from = (int) Math.min(offsetValue, sortedRows.size());
+        int to = (int) Math.min(limitValue, sortedRows.size());
+
+        return sortedRows.subList(from, to);
+    }
+
+    private long evaluate(Expression<?> expression, String name) {
+        if (expression == null) {
+            return 0L;
+        }
+
+        Object value = expression.eval(EmptyRow.INSTANCE, ctx);
+
+        if (value == null) {
+            throw QueryException.error(name + " value cannot be null");
+        }
+
+        long res = ((Number) value).longValue();
+
+        if (res < 0) {
+            throw QueryException.error(name + " value cannot be negative: " + res);
+        }
+
+        return res;
+    }
+}
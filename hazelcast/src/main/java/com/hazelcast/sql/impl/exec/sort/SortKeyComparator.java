@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.sort;
+
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.row.Row;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compares rows by the values of the given columns.
+ * <p>
+ * {@code null} is considered less than any other value, i.e. it goes first in the ascending order, and last in the
+ * descending order. This is the order in which sorted indexes return the entries.
+ */
+public final class SortKeyComparator implements Comparator<Row> {
+
+    private final int[] columns;
+    private final boolean[] ascs;
+
+    public SortKeyComparator(List<Integer> columns, List<Boolean> ascs) {
+        assert columns.size() == ascs.size();
+
+        this.columns = new int[columns.size()];
+        this.ascs = new boolean[ascs.size()];
+
+        for (int i = 0; i < this.columns.length; i++) {
+            this.columns[i] = columns.get(i);
+            this.ascs[i] = ascs.get(i);
+        }
+    }
+
+    @Override
+    public int compare(Row row1, Row row2) {
+        for (int i = 0; i < columns.length; i++) {
+            int res = compareValues(row1.get(columns[i]), row2.get(columns[i]));
+
+            if (res != 0) {
+                return ascs[i] ? res : -res;
+            }
+        }
+
+        return 0;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static int compareValues(Object value1, Object value2) {
+        if (value1 == null) {
+            return value2 == null ? 0 : -1;
+        } else if (value2 == null) {
+            return 1;
+        }
+
+        if (!(value1 instanceof Comparable)) {
+            throw QueryException.error("Cannot sort by a value because " + value1.getClass().getName()
+                + " doesn't implement Comparable interface");
+        }
+
+        if (value1.getClass() != value2.getClass()) {
+            throw QueryException.error("Cannot sort by values of different types: " + value1.getClass().getName()
+                + " and " + value2.getClass().getName());
+        }
+
+        return ((Comparable) value1).compareTo(value2);
+    }
+}
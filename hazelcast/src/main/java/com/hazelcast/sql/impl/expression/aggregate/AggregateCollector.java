@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.aggregate;
+
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.Row;
+
+/**
+ * Accumulates the values of a single group for the given {@link AggregateExpression}.
+ */
+public abstract class AggregateCollector {
+    /**
+     * Accumulate the input row.
+     *
+     * @param row Row.
+     * @param context Evaluation context.
+     */
+    public abstract void collect(Row row, ExpressionEvalContext context);
+
+    /**
+     * Merge the partial state produced by {@link #writePartial(HeapRow, int)} on another member.
+     *
+     * @param row Row with the partial state.
+     * @param index Index of the first column of the partial state.
+     */
+    public abstract void merge(Row row, int index);
+
+    /**
+     * Write the partial state to the row.
+     *
+     * @param row Row.
+     * @param index Index of the first column of the partial state.
+     */
+    public abstract void writePartial(HeapRow row, int index);
+
+    /**
+     * @return Final result.
+     */
+    public abstract Object getResult();
+}
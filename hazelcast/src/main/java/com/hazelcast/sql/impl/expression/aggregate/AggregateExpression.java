@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.aggregate;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Defines the contract of SQL aggregate functions.
+ * <p>
+ * Aggregation may be split into two phases: the local phase accumulating the rows of a single member into a partial
+ * state, and the final phase merging the partial states received from all the members. The partial state is
+ * represented by one or more columns, see {@link #getPartialTypes()}.
+ */
+public abstract class AggregateExpression implements IdentifiedDataSerializable, Serializable {
+
+    /** Operand, {@code null} if the function is applied to the whole row, e.g. COUNT(*). */
+    protected Expression<?> operand;
+
+    /** Type of the result. */
+    protected QueryDataType resultType;
+
+    protected AggregateExpression() {
+        // No-op.
+    }
+
+    protected AggregateExpression(Expression<?> operand, QueryDataType resultType) {
+        this.operand = operand;
+        this.resultType = resultType;
+    }
+
+    public Expression<?> getOperand() {
+        return operand;
+    }
+
+    public QueryDataType getType() {
+        return resultType;
+    }
+
+    /**
+     * @return Types of the columns holding the partial state produced by the local phase.
+     */
+    public List<QueryDataType> getPartialTypes() {
+        return Collections.singletonList(resultType);
+    }
+
+    /**
+     * @return New collector accumulating a single group.
+     */
+    public abstract AggregateCollector createCollector();
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(operand);
+        out.writeObject(resultType);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        operand = in.readObject();
+        resultType = in.readObject();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operand, resultType);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        AggregateExpression that = (AggregateExpression) o;
+
+        return Objects.equals(operand, that.operand) && resultType.equals(that.resultType);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{operand=" + operand + ", resultType=" + resultType + '}';
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.aggregate;
+
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.sql.impl.type.QueryDataTypeFamily;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.hazelcast.sql.impl.expression.aggregate.SumAggregateExpression.addValue;
+import static com.hazelcast.sql.impl.expression.aggregate.SumAggregateExpression.convertValue;
+import static com.hazelcast.sql.impl.expression.math.ExpressionMath.DECIMAL_MATH_CONTEXT;
+
+/**
+ * AVG aggregate function. The result is {@code null} if there are no non-null operand values.
+ * <p>
+ * The result type is either DECIMAL or DOUBLE. The partial state consists of the sum of the values, having the result
+ * type, and their count, so that the averages of different members could be merged precisely.
+ */
+public final class AvgAggregateExpression extends AggregateExpression {
+
+    public AvgAggregateExpression() {
+        // No-op.
+    }
+
+    private AvgAggregateExpression(Expression<?> operand, QueryDataType resultType) {
+        super(operand, resultType);
+    }
+
+    public static AvgAggregateExpression create(Expression<?> operand, QueryDataType resultType) {
+        return new AvgAggregateExpression(operand, resultType);
+    }
+
+    @Override
+    public List<QueryDataType> getPartialTypes() {
+        return Arrays.asList(resultType, QueryDataType.BIGINT);
+    }
+
+    @Override
+    public AggregateCollector createCollector() {
+        return new AvgCollector();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SqlDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SqlDataSerializerHook.AGGREGATE_AVG;
+    }
+
+    private final class AvgCollector extends AggregateCollector {
+
+        private Object sum;
+        private long count;
+
+        @Override
+        public void collect(Row row, ExpressionEvalContext context) {
+            Object value = operand.eval(row, context);
+
+            if (value != null) {
+                add(value, operand.getType(), 1L);
+            }
+        }
+
+        @Override
+        public void merge(Row row, int index) {
+            Object value = row.get(index);
+
+            if (value != null) {
+                add(value, resultType, row.get(index + 1));
+            }
+        }
+
+        @Override
+        public void writePartial(HeapRow row, int index) {
+            row.set(index, sum);
+            row.set(index + 1, count);
+        }
+
+        @Override
+        public Object getResult() {
+            if (count == 0) {
+                return null;
+            }
+
+            if (resultType.getTypeFamily() == QueryDataTypeFamily.DECIMAL) {
+                return ((BigDecimal) sum).divide(BigDecimal.valueOf(count), DECIMAL_MATH_CONTEXT);
+            } else {
+                return (Double) sum / count;
+            }
+        }
+
+        private void add(Object value, QueryDataType valueType, long valueCount) {
+            QueryDataTypeFamily family = resultType.getTypeFamily();
+
+            sum = sum == null ? convertValue(value, valueType, family) : addValue(sum, value, valueType, family);
+            count += valueCount;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.aggregate;
+
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+/**
+ * COUNT aggregate function. Counts all rows if the operand is not defined, or rows with non-null operand values
+ * otherwise.
+ */
+public final class CountAggregateExpression extends AggregateExpression {
+
+    public CountAggregateExpression() {
+        // No-op.
+    }
+
+    private CountAggregateExpression(Expression<?> operand) {
+        super(operand, QueryDataType.BIGINT);
+    }
+
+    public static CountAggregateExpression create(Expression<?> operand) {
+        return new CountAggregateExpression(operand);
+    }
+
+    @Override
+    public AggregateCollector createCollector() {
+        return new CountCollector();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SqlDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SqlDataSerializerHook.AGGREGATE_COUNT;
+    }
+
+    private final class CountCollector extends AggregateCollector {
+
+        private long count;
+
+        @Override
+        public void collect(Row row, ExpressionEvalContext context) {
+            if (operand == null || operand.eval(row, context) != null) {
+                count++;
+            }
+        }
+
+        @Override
+        public void merge(Row row, int index) {
+            count += (Long) row.get(index);
+        }
+
+        @Override
+        public void writePartial(HeapRow row, int index) {
+            row.set(index, count);
+        }
+
+        @Override
+        public Object getResult() {
+            return count;
+        }
+    }
+}
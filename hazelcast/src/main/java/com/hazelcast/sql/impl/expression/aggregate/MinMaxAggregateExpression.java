@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.aggregate;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+import java.io.IOException;
+
+/**
+ * MIN and MAX aggregate functions. The result is {@code null} if there are no non-null operand values.
+ */
+public final class MinMaxAggregateExpression extends AggregateExpression {
+
+    private boolean min;
+
+    public MinMaxAggregateExpression() {
+        // No-op.
+    }
+
+    private MinMaxAggregateExpression(Expression<?> operand, QueryDataType resultType, boolean min) {
+        super(operand, resultType);
+
+        this.min = min;
+    }
+
+    public static MinMaxAggregateExpression create(Expression<?> operand, QueryDataType resultType, boolean min) {
+        return new MinMaxAggregateExpression(operand, resultType, min);
+    }
+
+    public boolean isMin() {
+        return min;
+    }
+
+    @Override
+    public AggregateCollector createCollector() {
+        return new MinMaxCollector();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SqlDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SqlDataSerializerHook.AGGREGATE_MIN_MAX;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        super.writeData(out);
+
+        out.writeBoolean(min);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        super.readData(in);
+
+        min = in.readBoolean();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        MinMaxAggregateExpression that = (MinMaxAggregateExpression) o;
+
+        return min == that.min;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + (min ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{operand=" + operand + ", resultType=" + resultType + ", min=" + min + '}';
+    }
+
+    private final class MinMaxCollector extends AggregateCollector {
+
+        private Object value;
+
+        @Override
+        public void collect(Row row, ExpressionEvalContext context) {
+            add(operand.eval(row, context));
+        }
+
+        @Override
+        public void merge(Row row, int index) {
+            add(row.get(index));
+        }
+
+        @Override
+        public void writePartial(HeapRow row, int index) {
+            row.set(index, value);
+        }
+
+        @Override
+        public Object getResult() {
+            return value;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void add(Object newValue) {
+            if (newValue == null) {
+                return;
+            }
+
+            if (value == null) {
+                value = newValue;
+
+                return;
+            }
+
+            int cmp = ((Comparable) newValue).compareTo(value);
+
+            if (min ? cmp < 0 : cmp > 0) {
+                value = newValue;
+            }
+        }
+    }
+}
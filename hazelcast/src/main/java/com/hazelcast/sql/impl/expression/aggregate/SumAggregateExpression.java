@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.expression.aggregate;
+
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.SqlErrorCode;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ExpressionEvalContext;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.sql.impl.type.QueryDataTypeFamily;
+
+import java.math.BigDecimal;
+
+import static com.hazelcast.sql.impl.expression.math.ExpressionMath.DECIMAL_MATH_CONTEXT;
+
+/**
+ * SUM aggregate function. The result is {@code null} if there are no non-null operand values.
+ * <p>
+ * The result type is either BIGINT, DECIMAL or DOUBLE.
+ */
+public final class SumAggregateExpression extends AggregateExpression {
+
+    public SumAggregateExpression() {
+        // No-op.
+    }
+
+    private SumAggregateExpression(Expression<?> operand, QueryDataType resultType) {
+        super(operand, resultType);
+    }
+
+    public static SumAggregateExpression create(Expression<?> operand, QueryDataType resultType) {
+        return new SumAggregateExpression(operand, resultType);
+    }
+
+    @Override
+    public AggregateCollector createCollector() {
+        return new SumCollector();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SqlDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SqlDataSerializerHook.AGGREGATE_SUM;
+    }
+
+    static Object convertValue(Object value, QueryDataType valueType, QueryDataTypeFamily family) {
+        switch (family) {
+            case BIGINT:
+                return valueType.getConverter().asBigint(value);
+
+            case DECIMAL:
+                return valueType.getConverter().asDecimal(value);
+
+            case DOUBLE:
+                return valueType.getConverter().asDouble(value);
+
+            default:
+                throw new IllegalArgumentException("unexpected result family: " + family);
+        }
+    }
+
+    static Object addValue(Object sum, Object value, QueryDataType valueType, QueryDataTypeFamily family) {
+        switch (family) {
+            case BIGINT:
+                try {
+                    return Math.addExact((Long) sum, valueType.getConverter().asBigint(value));
+                } catch (ArithmeticException e) {
+                    throw QueryException.error(SqlErrorCode.DATA_EXCEPTION,
+                        "BIGINT overflow in SUM function (consider adding explicit CAST to DECIMAL)");
+                }
+
+            case DECIMAL:
+                return ((BigDecimal) sum).add(valueType.getConverter().asDecimal(value), DECIMAL_MATH_CONTEXT);
+
+            case DOUBLE:
+                return (Double) sum + valueType.getConverter().asDouble(value);
+
+            default:
+                throw new IllegalArgumentException("unexpected result family: " + family);
+        }
+    }
+
+    private final class SumCollector extends AggregateCollector {
+
+        private Object sum;
+
+        @Override
+        public void collect(Row row, ExpressionEvalContext context) {
+            Object value = operand.eval(row, context);
+
+            if (value != null) {
+                add(value, operand.getType());
+            }
+        }
+
+        @Override
+        public void merge(Row row, int index) {
+            Object value = row.get(index);
+
+            if (value != null) {
+                add(value, resultType);
+            }
+        }
+
+        @Override
+        public void writePartial(HeapRow row, int index) {
+            row.set(index, sum);
+        }
+
+        @Override
+        public Object getResult() {
+            return sum;
+        }
+
+        private void add(Object value, QueryDataType valueType) {
+            QueryDataTypeFamily family = resultType.getTypeFamily();
+
+            sum = sum == null ? convertValue(value, valueType, family) : addValue(sum, value, valueType, family);
+        }
+    }
+}
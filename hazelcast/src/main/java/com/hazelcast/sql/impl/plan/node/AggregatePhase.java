@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.plan.node;
+
+/**
+ * Phase of the aggregation performed by {@link AggregatePlanNode}.
+ */
+public enum AggregatePhase {
+    /** Aggregates the whole input in one step, produces final results. */
+    COMPLETE(0),
+
+    /** Aggregates the local input of a member, produces partial states to be merged by the {@link #FINAL} phase. */
+    LOCAL(1),
+
+    /** Merges the partial states produced by the {@link #LOCAL} phase, produces final results. */
+    FINAL(2);
+
+    private static final AggregatePhase[] VALUES = values();
+
+    private final int id;
+
+    AggregatePhase(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public static AggregatePhase getById(int id) {
+        for (AggregatePhase value : VALUES) {
+            if (id == value.id) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown ID: " + id);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.plan.node;
+
+import com.hazelcast.internal.serialization.impl.SerializationUtil;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.expression.aggregate.AggregateExpression;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Aggregation. Groups the input rows by the given columns and evaluates aggregate functions for every group.
+ * <p>
+ * The output row consists of the group columns followed by the results of the aggregate functions. For the
+ * {@link AggregatePhase#LOCAL} phase the results are partial states, which may span several columns. The
+ * {@link AggregatePhase#FINAL} phase expects the input produced by the local phase, that is, the group columns
+ * followed by the partial states.
+ */
+public class AggregatePlanNode extends UniInputPlanNode implements IdentifiedDataSerializable {
+
+    private List<Integer> groupKey;
+    private List<AggregateExpression> expressions;
+    private AggregatePhase phase;
+
+    public AggregatePlanNode() {
+        // No-op.
+    }
+
+    public AggregatePlanNode(
+        int id,
+        PlanNode upstream,
+        List<Integer> groupKey,
+        List<AggregateExpression> expressions,
+        AggregatePhase phase
+    ) {
+        super(id, upstream);
+
+        this.groupKey = groupKey;
+        this.expressions = expressions;
+        this.phase = phase;
+    }
+
+    public List<Integer> getGroupKey() {
+        return groupKey;
+    }
+
+    public List<AggregateExpression> getExpressions() {
+        return expressions;
+    }
+
+    public AggregatePhase getPhase() {
+        return phase;
+    }
+
+    @Override
+    public void visit0(PlanNodeVisitor visitor) {
+        visitor.onAggregateNode(this);
+    }
+
+    @Override
+    public PlanNodeSchema getSchema0() {
+        List<QueryDataType> types = new ArrayList<>(groupKey.size() + expressions.size());
+
+        PlanNodeSchema upstreamSchema = upstream.getSchema();
+
+        for (Integer index : groupKey) {
+            types.add(upstreamSchema.getType(index));
+        }
+
+        for (AggregateExpression expression : expressions) {
+            if (phase == AggregatePhase.LOCAL) {
+                types.addAll(expression.getPartialTypes());
+            } else {
+                types.add(expression.getType());
+            }
+        }
+
+        return new PlanNodeSchema(types);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SqlDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SqlDataSerializerHook.NODE_AGGREGATE;
+    }
+
+    @Override
+    public void writeData1(ObjectDataOutput out) throws IOException {
+        SerializationUtil.writeList(groupKey, out);
+        SerializationUtil.writeList(expressions, out);
+        out.writeInt(phase.getId());
+    }
+
+    @Override
+    public void readData1(ObjectDataInput in) throws IOException {
+        groupKey = SerializationUtil.readList(in);
+        expressions = SerializationUtil.readList(in);
+        phase = AggregatePhase.getById(in.readInt());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, groupKey, expressions, phase, upstream);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        AggregatePlanNode that = (AggregatePlanNode) o;
+
+        return id == that.id && groupKey.equals(that.groupKey) && expressions.equals(that.expressions)
+            && phase == that.phase && upstream.equals(that.upstream);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{id=" + id + ", groupKey=" + groupKey + ", expressions=" + expressions
+            + ", phase=" + phase + ", upstream=" + upstream + '}';
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.plan.node;
+
+import com.hazelcast.internal.serialization.impl.SerializationUtil;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Index nested-loop join. The input is the outer side. For every outer row, the index of the inner map is queried for the
+ * entries which index components are equal to the outer key columns.
+ * <p>
+ * The inner side is described by the {@link MapIndexScanPlanNode}, which is not visited on its own. Its index filter is not
+ * used, since the lookup value is composed of the outer key columns of every outer row. Its remainder filter is applied
+ * to the inner entries before they are joined.
+ * <p>
+ * The condition, if any, is evaluated against the joined row in addition to the equality of the keys. For the left outer
+ * join, an outer row without matches is joined with a row of nulls.
+ */
+public class IndexNestedLoopJoinPlanNode extends UniInputPlanNode implements IdentifiedDataSerializable {
+
+    private MapIndexScanPlanNode inner;
+    private List<Integer> outerKeys;
+    private Expression<Boolean> condition;
+    private boolean outer;
+
+    public IndexNestedLoopJoinPlanNode() {
+        // No-op.
+    }
+
+    public IndexNestedLoopJoinPlanNode(
+        int id,
+        PlanNode upstream,
+        MapIndexScanPlanNode inner,
+        List<Integer> outerKeys,
+        Expression<Boolean> condition,
+        boolean outer
+    ) {
+        super(id, upstream);
+
+        this.inner = inner;
+        this.outerKeys = outerKeys;
+        this.condition = condition;
+        this.outer = outer;
+    }
+
+    public MapIndexScanPlanNode getInner() {
+        return inner;
+    }
+
+    public List<Integer> getOuterKeys() {
+        return outerKeys;
+    }
+
+    public Expression<Boolean> getCondition() {
+        return condition;
+    }
+
+    public boolean isOuter() {
+        return outer;
+    }
+
+    @Override
+    public void visit0(PlanNodeVisitor visitor) {
+        visitor.onIndexNestedLoopJoinNode(this);
+    }
+
+    @Override
+    public PlanNodeSchema getSchema0() {
+        List<QueryDataType> types = new ArrayList<>(upstream.getSchema().getTypes());
+
+        types.addAll(inner.getSchema().getTypes());
+
+        return new PlanNodeSchema(types);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SqlDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SqlDataSerializerHook.NODE_INDEX_NESTED_LOOP_JOIN;
+    }
+
+    @Override
+    public void writeData1(ObjectDataOutput out) throws IOException {
+        out.writeObject(inner);
+        SerializationUtil.writeList(outerKeys, out);
+        out.writeObject(condition);
+        out.writeBoolean(outer);
+    }
+
+    @Override
+    public void readData1(ObjectDataInput in) throws IOException {
+        inner = in.readObject();
+        outerKeys = SerializationUtil.readList(in);
+        condition = in.readObject();
+        outer = in.readBoolean();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, upstream, inner, outerKeys, condition, outer);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        IndexNestedLoopJoinPlanNode that = (IndexNestedLoopJoinPlanNode) o;
+
+        return id == that.id && upstream.equals(that.upstream) && inner.equals(that.inner)
+            && outerKeys.equals(that.outerKeys) && Objects.equals(condition, that.condition) && outer == that.outer;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{id=" + id + ", inner=" + inner + ", outerKeys=" + outerKeys
+            + ", condition=" + condition + ", outer=" + outer + ", upstream=" + upstream + '}';
+    }
+}
@@ -16,7 +16,9 @@
 
 package com.hazelcast.sql.impl.plan.node;
 
+import com.hazelcast.sql.impl.plan.node.io.BroadcastSendPlanNode;
 import com.hazelcast.sql.impl.plan.node.io.ReceivePlanNode;
+import com.hazelcast.sql.impl.plan.node.io.ReceiveSortMergePlanNode;
 import com.hazelcast.sql.impl.plan.node.io.RootSendPlanNode;
 
 /**
@@ -33,12 +35,18 @@ import com.hazelcast.sql.impl.plan.node.io.RootSendPlanNode;
 public interface PlanNodeVisitor {
     void onRootNode(RootPlanNode node);
     void onReceiveNode(ReceivePlanNode node);
+    void onReceiveSortMergeNode(ReceiveSortMergePlanNode node);
     void onRootSendNode(RootSendPlanNode node);
+    void onBroadcastSendNode(BroadcastSendPlanNode node);
     void onProjectNode(ProjectPlanNode node);
     void onFilterNode(FilterPlanNode node);
     void onEmptyNode(EmptyPlanNode node);
     void onMapScanNode(MapScanPlanNode node);
     void onMapIndexScanNode(MapIndexScanPlanNode node);
+    void onAggregateNode(AggregatePlanNode node);
+    void onHashJoinNode(HashJoinPlanNode node);
+    void onIndexNestedLoopJoinNode(IndexNestedLoopJoinPlanNode node);
+    void onSortNode(SortPlanNode node);
 
     /**
      * Callback for a node without special handlers. For testing only.
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.plan.node;
+
+import com.hazelcast.internal.serialization.impl.SerializationUtil;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.expression.Expression;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sort node. Orders the input rows by the given columns, then skips the first {@code offset} rows and returns at most
+ * {@code fetch} rows.
+ * <p>
+ * When there are no sort columns, the order of the input is preserved, and the node only applies the offset and the fetch.
+ * Both the offset and the fetch are optional.
+ */
+public class SortPlanNode extends UniInputPlanNode implements IdentifiedDataSerializable {
+
+    private List<Integer> columns;
+    private List<Boolean> ascs;
+    private Expression<?> fetch;
+    private Expression<?> offset;
+
+    public SortPlanNode() {
+        // No-op.
+    }
+
+    public SortPlanNode(
+        int id,
+        PlanNode upstream,
+        List<Integer> columns,
+        List<Boolean> ascs,
+        Expression<?> fetch,
+        Expression<?> offset
+    ) {
+        super(id, upstream);
+
+        assert columns.size() == ascs.size();
+
+        this.columns = columns;
+        this.ascs = ascs;
+        this.fetch = fetch;
+        this.offset = offset;
+    }
+
+    public List<Integer> getColumns() {
+        return columns;
+    }
+
+    public List<Boolean> getAscs() {
+        return ascs;
+    }
+
+    public Expression<?> getFetch() {
+        return fetch;
+    }
+
+    public Expression<?> getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void visit0(PlanNodeVisitor visitor) {
+        visitor.onSortNode(this);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SqlDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SqlDataSerializerHook.NODE_SORT;
+    }
+
+    @Override
+    public void writeData1(ObjectDataOutput out) throws IOException {
+        SerializationUtil.writeList(columns, out);
+        SerializationUtil.writeList(ascs, out);
+        out.writeObject(fetch);
+        out.writeObject(offset);
+    }
+
+    @Override
+    public void readData1(ObjectDataInput in) throws IOException {
+        columns = SerializationUtil.readList(in);
+        ascs = SerializationUtil.readList(in);
+        fetch = in.readObject();
+        offset = in.readObject();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, columns, ascs, fetch, offset, upstream);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SortPlanNode that = (SortPlanNode) o;
+
+        return id == that.id && columns.equals(that.columns) && ascs.equals(that.ascs) && Objects.equals(fetch, that.fetch)
+            && Objects.equals(offset, that.offset) && upstream.equals(that.upstream);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{id=" + id + ", columns=" + columns + ", ascs=" + ascs + ", fetch=" + fetch
+            + ", offset=" + offset + ", upstream=" + upstream + '}';
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Vector of {@code BOOLEAN} values stored as a bitmap.
+ */
+final class BooleanColumnVector extends ColumnVector {
+
+    private long[] values;
+
+    BooleanColumnVector(int capacity) {
+        values = new long[bitmapLength(capacity)];
+    }
+
+    @Override
+    protected byte getType() {
+        return TYPE_BOOLEAN;
+    }
+
+    @Override
+    protected boolean accepts(Object value) {
+        return value instanceof Boolean;
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        int length = bitmapLength(capacity);
+
+        if (length > values.length) {
+            values = Arrays.copyOf(values, bitmapLength(newCapacity(values.length * Long.SIZE, capacity)));
+        }
+    }
+
+    @Override
+    protected Object get0(int position) {
+        return getBit(values, position);
+    }
+
+    @Override
+    protected void add0(Object value) {
+        if ((Boolean) value) {
+            values = setBit(values, size);
+        }
+    }
+
+    @Override
+    protected void addNull0() {
+        // No-op.
+    }
+
+    @Override
+    protected void writeValue(ObjectDataOutput out, int position) throws IOException {
+        out.writeBoolean(getBit(values, position));
+    }
+
+    @Override
+    protected void readValue(ObjectDataInput in) throws IOException {
+        add0(in.readBoolean());
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Values of a single column of {@link ColumnarRowBatch}. Nulls are tracked in a separate bitmap, so that the values of
+ * primitive types are stored without boxing.
+ * <p>
+ * A vector accepts values of a single Java class only. If a value of another class is met, the vector is converted to
+ * {@link ObjectColumnVector} by the {@link ColumnarRowBatchBuilder}.
+ */
+abstract class ColumnVector {
+
+    static final byte TYPE_BOOLEAN = 0;
+    static final byte TYPE_TINYINT = 1;
+    static final byte TYPE_SMALLINT = 2;
+    static final byte TYPE_INTEGER = 3;
+    static final byte TYPE_BIGINT = 4;
+    static final byte TYPE_REAL = 5;
+    static final byte TYPE_DOUBLE = 6;
+    static final byte TYPE_VARCHAR = 7;
+    static final byte TYPE_OBJECT = 8;
+
+    private static final int MIN_CAPACITY = 8;
+
+    /** Number of values. */
+    protected int size;
+
+    /** Null bitmap, {@code null} if there are no nulls. */
+    private long[] nulls;
+
+    @SuppressWarnings("checkstyle:ReturnCount")
+    static ColumnVector create(QueryDataType type, int capacity) {
+        switch (type.getTypeFamily()) {
+            case BOOLEAN:
+                return new BooleanColumnVector(capacity);
+
+            case TINYINT:
+                return new IntColumnVector(TYPE_TINYINT, capacity);
+
+            case SMALLINT:
+                return new IntColumnVector(TYPE_SMALLINT, capacity);
+
+            case INTEGER:
+                return new IntColumnVector(TYPE_INTEGER, capacity);
+
+            case BIGINT:
+                return new LongColumnVector(capacity);
+
+            case REAL:
+                return new DoubleColumnVector(TYPE_REAL, capacity);
+
+            case DOUBLE:
+                return new DoubleColumnVector(TYPE_DOUBLE, capacity);
+
+            case VARCHAR:
+                return new VarcharColumnVector(capacity);
+
+            default:
+                return new ObjectColumnVector(capacity);
+        }
+    }
+
+    static ColumnVector create(byte type, int capacity) {
+        switch (type) {
+            case TYPE_BOOLEAN:
+                return new BooleanColumnVector(capacity);
+
+            case TYPE_TINYINT:
+            case TYPE_SMALLINT:
+            case TYPE_INTEGER:
+                return new IntColumnVector(type, capacity);
+
+            case TYPE_BIGINT:
+                return new LongColumnVector(capacity);
+
+            case TYPE_REAL:
+            case TYPE_DOUBLE:
+                return new DoubleColumnVector(type, capacity);
+
+            case TYPE_VARCHAR:
+                return new VarcharColumnVector(capacity);
+
+            default:
+                assert type == TYPE_OBJECT;
+
+                return new ObjectColumnVector(capacity);
+        }
+    }
+
+    static int newCapacity(int capacity, int required) {
+        return Math.max(Math.max(capacity * 2, required), MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isNull(int position) {
+        return nulls != null && getBit(nulls, position);
+    }
+
+    /**
+     * Get the value at the given position.
+     *
+     * @param position Position.
+     * @return Value or {@code null}.
+     */
+    Object get(int position) {
+        assert position >= 0 && position < size;
+
+        return isNull(position) ? null : get0(position);
+    }
+
+    /**
+     * Append the value to the end of the vector.
+     *
+     * @param value Value.
+     * @return {@code false} if the value is not supported by this vector, {@code true} otherwise.
+     */
+    boolean add(Object value) {
+        if (value == null) {
+            ensureCapacity(size + 1);
+
+            if (nulls == null) {
+                nulls = new long[bitmapLength(Math.max(size + 1, MIN_CAPACITY))];
+            }
+
+            nulls = setBit(nulls, size);
+            addNull0();
+        } else {
+            if (!accepts(value)) {
+                return false;
+            }
+
+            ensureCapacity(size + 1);
+            add0(value);
+        }
+
+        size++;
+
+        return true;
+    }
+
+    /**
+     * Write the values at the given positions.
+     *
+     * @param out Output.
+     * @param positions Positions to write, or {@code null} to write the first {@code count} values.
+     * @param count Number of values to write.
+     */
+    void writeData(ObjectDataOutput out, int[] positions, int count) throws IOException {
+        out.writeByte(getType());
+
+        boolean hasNulls = nulls != null;
+
+        out.writeBoolean(hasNulls);
+
+        if (hasNulls) {
+            writeBits(out, nulls, positions, count);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int position = positions != null ? positions[i] : i;
+
+            if (!isNull(position)) {
+                writeValue(out, position);
+            }
+        }
+    }
+
+    static ColumnVector readData(ObjectDataInput in, int count) throws IOException {
+        ColumnVector res = create(in.readByte(), count);
+
+        res.ensureCapacity(count);
+
+        if (in.readBoolean()) {
+            res.nulls = readBits(in, count);
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (res.isNull(i)) {
+                res.addNull0();
+            } else {
+                res.readValue(in);
+            }
+
+            res.size++;
+        }
+
+        return res;
+    }
+
+    /**
+     * @return Vector of {@link ObjectColumnVector} type with the same values.
+     */
+    ColumnVector toObjectVector() {
+        ObjectColumnVector res = new ObjectColumnVector(size);
+
+        for (int i = 0; i < size; i++) {
+            res.add(get(i));
+        }
+
+        return res;
+    }
+
+    protected abstract byte getType();
+
+    protected abstract boolean accepts(Object value);
+
+    protected abstract void ensureCapacity(int capacity);
+
+    protected abstract Object get0(int position);
+
+    /**
+     * Append the non-null value at the position {@link #size}.
+     */
+    protected abstract void add0(Object value);
+
+    /**
+     * Append the null at the position {@link #size}.
+     */
+    protected abstract void addNull0();
+
+    protected abstract void writeValue(ObjectDataOutput out, int position) throws IOException;
+
+    /**
+     * Read the non-null value and append it at the position {@link #size}.
+     */
+    protected abstract void readValue(ObjectDataInput in) throws IOException;
+
+    static int bitmapLength(int bitCount) {
+        return (bitCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    static boolean getBit(long[] bits, int position) {
+        int index = position / Long.SIZE;
+
+        return index < bits.length && (bits[index] & (1L << position)) != 0;
+    }
+
+    static long[] setBit(long[] bits, int position) {
+        int index = position / Long.SIZE;
+
+        long[] res = index < bits.length ? bits : Arrays.copyOf(bits, Math.max(bits.length * 2, index + 1));
+
+        res[index] |= 1L << position;
+
+        return res;
+    }
+
+    static void writeBits(ObjectDataOutput out, long[] bits, int[] positions, int count) throws IOException {
+        long word = 0;
+
+        for (int i = 0; i < count; i++) {
+            int position = positions != null ? positions[i] : i;
+
+            if (getBit(bits, position)) {
+                word |= 1L << i;
+            }
+
+            if ((i + 1) % Long.SIZE == 0) {
+                out.writeLong(word);
+
+                word = 0;
+            }
+        }
+
+        if (count % Long.SIZE != 0) {
+            out.writeLong(word);
+        }
+    }
+
+    static long[] readBits(ObjectDataInput in, int count) throws IOException {
+        long[] res = new long[bitmapLength(count)];
+
+        for (int i = 0; i < res.length; i++) {
+            res[i] = in.readLong();
+        }
+
+        return res;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+/**
+ * Row of {@link ColumnarRowBatch}. Values are read from the column vectors of the batch on every access.
+ */
+public final class ColumnarRow implements Row {
+    /** Batch. */
+    private final ColumnarRowBatch batch;
+
+    /** Position of the row in the column vectors. */
+    private int position;
+
+    ColumnarRow(ColumnarRowBatch batch, int position) {
+        this.batch = batch;
+        this.position = position;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(int index) {
+        return (T) batch.get(position, index);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return batch.getColumnCount();
+    }
+
+    /**
+     * Move the row to the given index of the batch.
+     *
+     * @param index Index of the row in the batch.
+     */
+    public void setIndex(int index) {
+        position = batch.getPosition(index);
+    }
+}
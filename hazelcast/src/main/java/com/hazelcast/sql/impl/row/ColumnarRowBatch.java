@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+
+import java.io.IOException;
+
+/**
+ * Batch where rows are organized in columns. Values of primitive types and strings are stored in typed vectors without
+ * boxing, nulls are tracked in bitmaps. This reduces the size of the batch and avoids per-value type tags when the batch is
+ * sent over the network.
+ * <p>
+ * The batch may refer to a subset of positions of the underlying vectors, see {@link #select(int[], int)}. This allows
+ * filtering the batch without copying the values.
+ * <p>
+ * Use {@link ColumnarRowBatchBuilder} to create the batch.
+ */
+public class ColumnarRowBatch implements RowBatch, IdentifiedDataSerializable {
+    /** Column vectors. */
+    private ColumnVector[] columns;
+
+    /** Number of rows. */
+    private int rowCount;
+
+    /** Positions of the rows in the vectors, or {@code null} if the rows occupy the first {@link #rowCount} positions. */
+    private int[] positions;
+
+    public ColumnarRowBatch() {
+        // No-op.
+    }
+
+    ColumnarRowBatch(ColumnVector[] columns, int rowCount, int[] positions) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.positions = positions;
+    }
+
+    @Override
+    public Row getRow(int index) {
+        return new ColumnarRow(this, getPosition(index));
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Create a row which could be moved across the batch with {@link ColumnarRow#setIndex(int)}. Use it to read the rows
+     * one by one without creating a separate object for every row. The returned row must not be retained by the caller.
+     *
+     * @return Row pointing to the first row of the batch.
+     */
+    public ColumnarRow createCursor() {
+        return new ColumnarRow(this, rowCount > 0 ? getPosition(0) : 0);
+    }
+
+    /**
+     * Create a batch with a subset of rows of this batch. Values are not copied.
+     *
+     * @param indexes Indexes of the selected rows in this batch, in ascending order. The array is owned by the new batch.
+     * @param count Number of selected rows.
+     * @return Batch with the selected rows.
+     */
+    public ColumnarRowBatch select(int[] indexes, int count) {
+        assert count <= indexes.length;
+
+        if (positions != null) {
+            for (int i = 0; i < count; i++) {
+                indexes[i] = positions[indexes[i]];
+            }
+        }
+
+        return new ColumnarRowBatch(columns, count, indexes);
+    }
+
+    int getPosition(int index) {
+        assert index >= 0 && index < rowCount;
+
+        return positions != null ? positions[index] : index;
+    }
+
+    Object get(int position, int column) {
+        return columns[column].get(position);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SqlDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return SqlDataSerializerHook.ROW_BATCH_COLUMNAR;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(rowCount);
+        out.writeInt(columns.length);
+
+        for (ColumnVector column : columns) {
+            column.writeData(out, positions, rowCount);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        rowCount = in.readInt();
+
+        columns = new ColumnVector[in.readInt()];
+
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ColumnVector.readData(in, rowCount);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+import com.hazelcast.sql.impl.type.QueryDataType;
+
+import java.util.List;
+
+/**
+ * Builder of {@link ColumnarRowBatch}. The column vectors are chosen based on the types of the columns. If a value doesn't
+ * match the type of its column, the column falls back to the vector which serializes every value separately.
+ */
+public class ColumnarRowBatchBuilder {
+    /** Column vectors. */
+    private final ColumnVector[] columns;
+
+    /** Number of added rows. */
+    private int rowCount;
+
+    /**
+     * Constructor.
+     *
+     * @param types Types of the columns.
+     * @param capacity Expected number of rows.
+     */
+    public ColumnarRowBatchBuilder(List<QueryDataType> types, int capacity) {
+        columns = new ColumnVector[types.size()];
+
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ColumnVector.create(types.get(i), capacity);
+        }
+    }
+
+    /**
+     * Add the row to the batch.
+     *
+     * @param row Row.
+     */
+    public void add(Row row) {
+        assert row.getColumnCount() == columns.length;
+
+        for (int i = 0; i < columns.length; i++) {
+            add(i, row.get(i));
+        }
+
+        rowCount++;
+    }
+
+    /**
+     * Add the row of another batch to this batch. Rows of {@link ColumnarRowBatch} are copied without creating the row
+     * object.
+     *
+     * @param batch Batch.
+     * @param index Index of the row in the batch.
+     */
+    public void add(RowBatch batch, int index) {
+        if (!(batch instanceof ColumnarRowBatch)) {
+            add(batch.getRow(index));
+
+            return;
+        }
+
+        ColumnarRowBatch batch0 = (ColumnarRowBatch) batch;
+
+        assert batch0.getColumnCount() == columns.length;
+
+        int position = batch0.getPosition(index);
+
+        for (int i = 0; i < columns.length; i++) {
+            add(i, batch0.get(position, i));
+        }
+
+        rowCount++;
+    }
+
+    /**
+     * Add the row with the given values to the batch.
+     *
+     * @param values Values of the row.
+     */
+    public void add(Object[] values) {
+        assert values.length == columns.length;
+
+        for (int i = 0; i < columns.length; i++) {
+            add(i, values[i]);
+        }
+
+        rowCount++;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Create the batch. The builder must not be used afterwards.
+     *
+     * @return Batch with the added rows.
+     */
+    public ColumnarRowBatch build() {
+        return new ColumnarRowBatch(columns, rowCount, null);
+    }
+
+    private void add(int index, Object value) {
+        ColumnVector column = columns[index];
+
+        if (!column.add(value)) {
+            column = column.toObjectVector();
+            column.add(value);
+
+            columns[index] = column;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Vector of {@code REAL} or {@code DOUBLE} values. The values are written with the width of the type.
+ */
+final class DoubleColumnVector extends ColumnVector {
+
+    private final byte type;
+    private double[] values;
+
+    DoubleColumnVector(byte type, int capacity) {
+        assert type == TYPE_REAL || type == TYPE_DOUBLE;
+
+        this.type = type;
+
+        values = new double[capacity];
+    }
+
+    @Override
+    protected byte getType() {
+        return type;
+    }
+
+    @Override
+    protected boolean accepts(Object value) {
+        return type == TYPE_REAL ? value instanceof Float : value instanceof Double;
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, newCapacity(values.length, capacity));
+        }
+    }
+
+    @Override
+    protected Object get0(int position) {
+        double value = values[position];
+
+        return type == TYPE_REAL ? (Object) (float) value : (Object) value;
+    }
+
+    @Override
+    protected void add0(Object value) {
+        values[size] = ((Number) value).doubleValue();
+    }
+
+    @Override
+    protected void addNull0() {
+        values[size] = 0.0d;
+    }
+
+    @Override
+    protected void writeValue(ObjectDataOutput out, int position) throws IOException {
+        if (type == TYPE_REAL) {
+            out.writeFloat((float) values[position]);
+        } else {
+            out.writeDouble(values[position]);
+        }
+    }
+
+    @Override
+    protected void readValue(ObjectDataInput in) throws IOException {
+        values[size] = type == TYPE_REAL ? in.readFloat() : in.readDouble();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Vector of {@code TINYINT}, {@code SMALLINT} or {@code INTEGER} values. The values are written with the width of the type.
+ */
+final class IntColumnVector extends ColumnVector {
+
+    private final byte type;
+    private int[] values;
+
+    IntColumnVector(byte type, int capacity) {
+        assert type == TYPE_TINYINT || type == TYPE_SMALLINT || type == TYPE_INTEGER;
+
+        this.type = type;
+
+        values = new int[capacity];
+    }
+
+    @Override
+    protected byte getType() {
+        return type;
+    }
+
+    @Override
+    protected boolean accepts(Object value) {
+        switch (type) {
+            case TYPE_TINYINT:
+                return value instanceof Byte;
+
+            case TYPE_SMALLINT:
+                return value instanceof Short;
+
+            default:
+                return value instanceof Integer;
+        }
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, newCapacity(values.length, capacity));
+        }
+    }
+
+    @Override
+    protected Object get0(int position) {
+        int value = values[position];
+
+        switch (type) {
+            case TYPE_TINYINT:
+                return (byte) value;
+
+            case TYPE_SMALLINT:
+                return (short) value;
+
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    protected void add0(Object value) {
+        values[size] = ((Number) value).intValue();
+    }
+
+    @Override
+    protected void addNull0() {
+        values[size] = 0;
+    }
+
+    @Override
+    protected void writeValue(ObjectDataOutput out, int position) throws IOException {
+        int value = values[position];
+
+        switch (type) {
+            case TYPE_TINYINT:
+                out.writeByte(value);
+
+                break;
+
+            case TYPE_SMALLINT:
+                out.writeShort(value);
+
+                break;
+
+            default:
+                out.writeInt(value);
+        }
+    }
+
+    @Override
+    protected void readValue(ObjectDataInput in) throws IOException {
+        int value;
+
+        switch (type) {
+            case TYPE_TINYINT:
+                value = in.readByte();
+
+                break;
+
+            case TYPE_SMALLINT:
+                value = in.readShort();
+
+                break;
+
+            default:
+                value = in.readInt();
+        }
+
+        values[size] = value;
+    }
+}
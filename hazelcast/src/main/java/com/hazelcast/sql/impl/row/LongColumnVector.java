@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Vector of {@code BIGINT} values.
+ */
+final class LongColumnVector extends ColumnVector {
+
+    private long[] values;
+
+    LongColumnVector(int capacity) {
+        values = new long[capacity];
+    }
+
+    @Override
+    protected byte getType() {
+        return TYPE_BIGINT;
+    }
+
+    @Override
+    protected boolean accepts(Object value) {
+        return value instanceof Long;
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, newCapacity(values.length, capacity));
+        }
+    }
+
+    @Override
+    protected Object get0(int position) {
+        return values[position];
+    }
+
+    @Override
+    protected void add0(Object value) {
+        values[size] = (Long) value;
+    }
+
+    @Override
+    protected void addNull0() {
+        values[size] = 0L;
+    }
+
+    @Override
+    protected void writeValue(ObjectDataOutput out, int position) throws IOException {
+        out.writeLong(values[position]);
+    }
+
+    @Override
+    protected void readValue(ObjectDataInput in) throws IOException {
+        values[size] = in.readLong();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Vector of {@code VARCHAR} values. The strings are stored as UTF-8 bytes in a single array, the value at the position
+ * {@code i} occupies the bytes from {@code offsets[i]} to {@code offsets[i + 1]}.
+ */
+final class VarcharColumnVector extends ColumnVector {
+
+    /** Expected average length of a value in bytes, used to size the data array. */
+    private static final int EXPECTED_VALUE_LENGTH = 16;
+
+    private int[] offsets;
+    private byte[] data;
+
+    VarcharColumnVector(int capacity) {
+        offsets = new int[capacity + 1];
+        data = new byte[capacity * EXPECTED_VALUE_LENGTH];
+    }
+
+    @Override
+    protected byte getType() {
+        return TYPE_VARCHAR;
+    }
+
+    @Override
+    protected boolean accepts(Object value) {
+        return value instanceof String;
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        if (capacity + 1 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, newCapacity(offsets.length, capacity + 1));
+        }
+    }
+
+    @Override
+    protected Object get0(int position) {
+        int offset = offsets[position];
+
+        return new String(data, offset, offsets[position + 1] - offset, UTF_8);
+    }
+
+    @Override
+    protected void add0(Object value) {
+        byte[] bytes = ((String) value).getBytes(UTF_8);
+
+        int offset = reserve(bytes.length);
+
+        System.arraycopy(bytes, 0, data, offset, bytes.length);
+    }
+
+    @Override
+    protected void addNull0() {
+        reserve(0);
+    }
+
+    @Override
+    protected void writeValue(ObjectDataOutput out, int position) throws IOException {
+        int offset = offsets[position];
+        int length = offsets[position + 1] - offset;
+
+        out.writeInt(length);
+        out.write(data, offset, length);
+    }
+
+    @Override
+    protected void readValue(ObjectDataInput in) throws IOException {
+        int length = in.readInt();
+
+        int offset = reserve(length);
+
+        in.readFully(data, offset, length);
+    }
+
+    /**
+     * Reserve the bytes for the value at the position {@link #size}.
+     *
+     * @param length Length of the value in bytes.
+     * @return Offset of the value.
+     */
+    private int reserve(int length) {
+        int offset = offsets[size];
+        int end = offset + length;
+
+        if (end > data.length) {
+            data = Arrays.copyOf(data, newCapacity(data.length, end));
+        }
+
+        offsets[size + 1] = end;
+
+        return offset;
+    }
+}
@@ -166,6 +166,32 @@ public abstract class AbstractMapQueryPartitionIteratorTest extends HazelcastTes
         }
     }
 
+    @Test
+    public void test_allPartitions_with_projection_and_predicate() {
+        final ClientMapProxy<Integer, Integer> proxy = getMapProxy();
+        int count = server.getPartitionService().getPartitions().size() * 3;
+        for (int i = 0; i < count; ++i) {
+            proxy.put(i, i);
+        }
+
+        Iterator<Integer> iterator = proxy.iterator(2, Projections.singleAttribute("this"),
+                Predicates.lessEqual("this", count / 2));
+        ArrayList<Integer> projected = collectAll(iterator);
+
+        assertEquals(count / 2 + 1, projected.size());
+        for (int i = 0; i <= count / 2; ++i) {
+            assertTrue(projected.contains(i));
+        }
+    }
+
+    @Test
+    public void test_allPartitions_HasNext_Returns_False_On_EmptyMap() {
+        final ClientMapProxy<String, String> proxy = getMapProxy();
+        Iterator<String> iterator = proxy.iterator(10, new TestProjection(), Predicates.alwaysTrue());
+
+        assertFalse(iterator.hasNext());
+    }
+
     private <T> ArrayList<T> collectAll(Iterator<T> iterator) {
         final ArrayList<T> projected = new ArrayList<>();
         while (iterator.hasNext()) {
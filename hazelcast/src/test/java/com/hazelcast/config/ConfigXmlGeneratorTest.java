@@ -1601,6 +1601,25 @@ public class ConfigXmlGeneratorTest extends HazelcastTestSupport {
         ConfigCompatibilityChecker.checkMapConfig(expectedConfig, actualConfig);
     }
 
+    @Test
+    public void testMapIndexConfigWithIncludedAttributes() {
+        IndexConfig expectedConfig = new IndexConfig(IndexType.SORTED, "age")
+                .addIncludedAttribute("name")
+                .addIncludedAttribute("city");
+
+        MapConfig mapConfig = new MapConfig()
+                .setName("indexTest")
+                .addIndexConfig(expectedConfig);
+
+        Config config = new Config()
+                .addMapConfig(mapConfig);
+
+        Config xmlConfig = getNewConfigViaXMLGenerator(config);
+
+        IndexConfig actualConfig = xmlConfig.getMapConfig("indexTest").getIndexConfigs().get(0);
+        assertEquals(expectedConfig, actualConfig);
+    }
+
     @Test
     public void testMapNearCacheConfig() {
         NearCacheConfig expectedConfig = new NearCacheConfig()
@@ -58,4 +58,19 @@ public class IndexConfigReadOnlyTest {
     public void addColumn2() {
         getConfig().addAttribute("column");
     }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setIncludedAttributes() {
+        getConfig().setIncludedAttributes(Collections.singletonList("column"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void addIncludedAttribute() {
+        getConfig().addIncludedAttribute("column");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getIncludedAttributesIsUnmodifiable() {
+        getConfig().getIncludedAttributes().add("column");
+    }
 }
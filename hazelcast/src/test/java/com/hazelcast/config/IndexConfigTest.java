@@ -17,6 +17,7 @@
 package com.hazelcast.config;
 
 import com.hazelcast.config.BitmapIndexOptions.UniqueKeyTransformation;
+import com.hazelcast.internal.config.IndexConfigReadOnly;
 import com.hazelcast.query.QueryConstants;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.annotation.ParallelJVMTest;
@@ -67,6 +68,28 @@ public class IndexConfigTest {
 
         checkIndexQuality(new IndexConfig().setName("name"), new IndexConfig().setName("name"), true);
         checkIndexQuality(new IndexConfig().setName("name"), new IndexConfig().setName("name2"), false);
+
+        checkIndexQuality(new IndexConfig().addIncludedAttribute("a"), new IndexConfig().addIncludedAttribute("a"), true);
+        checkIndexQuality(new IndexConfig().addIncludedAttribute("a"), new IndexConfig().addIncludedAttribute("b"), false);
+        checkIndexQuality(new IndexConfig().addIncludedAttribute("a"), new IndexConfig(), false);
+    }
+
+    @Test
+    public void testIncludedAttributesCopied() {
+        IndexConfig config = new IndexConfig(IndexType.SORTED, "a").addIncludedAttribute("b");
+
+        assertEquals(config, new IndexConfig(config));
+        assertEquals(config.getIncludedAttributes(), new IndexConfigReadOnly(config).getIncludedAttributes());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testIncludedAttributesNull() {
+        new IndexConfig().setIncludedAttributes(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncludedAttributeEmpty() {
+        new IndexConfig().addIncludedAttribute("");
     }
 
     private void checkIndexQuality(IndexConfig config1, IndexConfig config2, boolean expected) {
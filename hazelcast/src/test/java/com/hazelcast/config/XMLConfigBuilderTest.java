@@ -2449,6 +2449,32 @@ public class XMLConfigBuilderTest extends AbstractConfigBuilderTest {
         assertIndexEqual("age", true, mapConfig.getIndexConfigs().get(1));
     }
 
+    @Override
+    @Test
+    public void testIndexesConfig_withIncludedAttributes() {
+        String xml = HAZELCAST_START_TAG
+                + "   <map name=\"people\">\n"
+                + "       <indexes>\n"
+                + "           <index>\n"
+                + "               <attributes>\n"
+                + "                   <attribute>age</attribute>\n"
+                + "               </attributes>\n"
+                + "               <included-attributes>\n"
+                + "                   <attribute>name</attribute>\n"
+                + "                   <attribute>city</attribute>\n"
+                + "               </included-attributes>\n"
+                + "           </index>\n"
+                + "       </indexes>"
+                + "   </map>"
+                + HAZELCAST_END_TAG;
+
+        Config config = buildConfig(xml);
+        IndexConfig indexConfig = config.getMapConfig("people").getIndexConfigs().get(0);
+
+        assertIndexEqual("age", true, indexConfig);
+        assertEquals(Arrays.asList("name", "city"), indexConfig.getIncludedAttributes());
+    }
+
     private static void assertIndexEqual(String expectedAttribute, boolean expectedOrdered, IndexConfig indexConfig) {
         assertEquals(expectedAttribute, indexConfig.getAttributes().get(0));
         assertEquals(expectedOrdered, indexConfig.getType() == IndexType.SORTED);
@@ -45,6 +45,7 @@ import static com.hazelcast.internal.config.ConfigValidator.checkCPSubsystemConf
 import static com.hazelcast.internal.config.ConfigValidator.checkCacheConfig;
 import static com.hazelcast.internal.config.ConfigValidator.checkMapConfig;
 import static com.hazelcast.internal.config.ConfigValidator.checkNearCacheNativeMemoryConfig;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_NATIVE_STORAGE_ENABLED;
 import static org.mockito.Mockito.when;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -91,6 +92,13 @@ public class ConfigValidatorTest extends HazelcastTestSupport {
         checkMapConfig(getMapConfig(NATIVE), nativeMemoryConfig, splitBrainMergePolicyProvider, properties);
     }
 
+    @Test
+    public void checkMapConfig_NATIVE_withNativeStorageEnabled() {
+        Config config = new Config().setProperty(MAP_NATIVE_STORAGE_ENABLED.getName(), "true");
+        checkMapConfig(getMapConfig(NATIVE), nativeMemoryConfig, splitBrainMergePolicyProvider,
+                new HazelcastProperties(config));
+    }
+
     private MapConfig getMapConfig(InMemoryFormat inMemoryFormat) {
         return new MapConfig()
                 .setInMemoryFormat(inMemoryFormat);
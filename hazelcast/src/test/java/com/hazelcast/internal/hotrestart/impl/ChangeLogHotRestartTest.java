@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.partition.IPartitionService;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.internal.nio.IOUtil.delete;
+import static com.hazelcast.test.Accessors.getAddress;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.test.Accessors.getPartitionService;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_CHANGE_LOG_DIRECTORY;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_CHANGE_LOG_ENABLED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ChangeLogHotRestartTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEntries_restoredAfterRestart() throws IOException {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName, folder.newFolder());
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+
+        HazelcastInstance instance = factory.newHazelcastInstance(config);
+        IMap<Integer, String> map = instance.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i += 2) {
+            map.put(i, "updated-" + i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i += 5) {
+            map.remove(i);
+        }
+        instance.shutdown();
+
+        instance = factory.newHazelcastInstance(config);
+        map = instance.getMap(mapName);
+        assertEquals(ENTRY_COUNT - ENTRY_COUNT / 5, map.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(expectedValue(i), map.get(i));
+        }
+    }
+
+    @Test
+    public void testEntries_restoredAfterClusterRestart() throws IOException {
+        String mapName = randomMapName();
+        Config config1 = newConfig(mapName, folder.newFolder());
+        Config config2 = newConfig(mapName, folder.newFolder());
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(4);
+
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config1);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config2);
+        waitAllForSafeState(instance1, instance2);
+        IMap<Integer, String> map = instance1.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        factory.shutdownAll();
+
+        instance1 = factory.newHazelcastInstance(config1);
+        instance2 = factory.newHazelcastInstance(config2);
+        waitAllForSafeState(instance1, instance2);
+        map = instance2.getMap(mapName);
+        assertEquals(ENTRY_COUNT, map.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals("value-" + i, map.get(i));
+        }
+    }
+
+    @Test
+    public void testStaleEntries_notRestoredWhenRejoining() throws IOException {
+        String mapName = randomMapName();
+        Config config1 = newConfig(mapName, folder.newFolder());
+        Config config2 = newConfig(mapName, folder.newFolder());
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config1);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config2);
+        waitAllForSafeState(instance1, instance2);
+        IMap<Integer, String> map = instance1.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        instance1.shutdown();
+
+        map = instance2.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "updated-" + i);
+        }
+        map.remove(0);
+
+        instance1 = factory.newHazelcastInstance(config1);
+        waitAllForSafeState(instance1, instance2);
+        map = instance1.getMap(mapName);
+        assertEquals(ENTRY_COUNT - 1, map.size());
+        assertNull(map.get(0));
+        for (int i = 1; i < ENTRY_COUNT; i++) {
+            assertEquals("updated-" + i, map.get(i));
+        }
+    }
+
+    @Test
+    public void testClearedAndUnloggedMaps_notRestored() throws IOException {
+        String mapName = randomMapName();
+        String clearedMapName = randomMapName();
+        String unloggedMapName = randomMapName();
+        Config config = newConfig(mapName, folder.newFolder());
+        config.getMapConfig(clearedMapName).getHotRestartConfig().setEnabled(true);
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+
+        HazelcastInstance instance = factory.newHazelcastInstance(config);
+        instance.getMap(mapName).put(1, "value");
+        instance.getMap(clearedMapName).put(1, "value");
+        instance.getMap(clearedMapName).clear();
+        instance.getMap(unloggedMapName).put(1, "value");
+        instance.shutdown();
+
+        instance = factory.newHazelcastInstance(config);
+        assertEquals("value", instance.getMap(mapName).get(1));
+        assertTrue(instance.getMap(clearedMapName).isEmpty());
+        assertTrue(instance.getMap(unloggedMapName).isEmpty());
+    }
+
+    @Test
+    public void testPreviousGenerations_deletedAfterRecovery() throws IOException {
+        String mapName = randomMapName();
+        File directory = folder.newFolder();
+        Config config = newConfig(mapName, directory);
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+
+        HazelcastInstance instance = factory.newHazelcastInstance(config);
+        instance.getMap(mapName).put(1, "value");
+        instance.shutdown();
+        instance = factory.newHazelcastInstance(config);
+        instance.shutdown();
+
+        instance = factory.newHazelcastInstance(config);
+        assertEquals("value", instance.getMap(mapName).get(1));
+        File[] generationDirs = directory.listFiles(
+                file -> file.getName().startsWith(ChangeLogHotRestartService.GENERATION_DIR_PREFIX));
+        assertEquals(1, generationDirs.length);
+        assertEquals(ChangeLogHotRestartService.GENERATION_DIR_PREFIX + 3, generationDirs[0].getName());
+    }
+
+    @Test
+    public void testChangeLogs_syncedOnRemoteMember() throws IOException {
+        String mapName = randomMapName();
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(newConfig(mapName, folder.newFolder()));
+        HazelcastInstance instance2 = factory.newHazelcastInstance(newConfig(mapName, folder.newFolder()));
+        waitAllForSafeState(instance1, instance2);
+
+        String key = generateKeyOwnedBy(instance2);
+        instance1.getMap(mapName).put(key, "value");
+        getNodeEngineImpl(instance1).getOperationService()
+                .invokeOnTarget(MapService.SERVICE_NAME, new SyncChangeLogsOperation(), getAddress(instance2)).join();
+
+        int partitionId = getPartitionService(instance2).getPartitionId(key);
+        File logFile = new File(ChangeLogHotRestartService.of(getNodeEngineImpl(instance2)).getGenerationDir(),
+                PartitionChangeLog.logFileName(partitionId));
+        AtomicInteger putCount = new AtomicInteger();
+        assertTrue(PartitionChangeLog.replay(logFile, new PartitionChangeLog.Visitor() {
+            @Override
+            public void put(String mapName, Data key, Data value, long expirationTime) {
+                putCount.incrementAndGet();
+            }
+
+            @Override
+            public void remove(String mapName, Data key) {
+            }
+
+            @Override
+            public void clear(String mapName) {
+            }
+        }));
+        assertEquals(1, putCount.get());
+    }
+
+    @Test
+    public void testBackupReplicas_notLogged() throws IOException {
+        String mapName = randomMapName();
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(newConfig(mapName, folder.newFolder()));
+        HazelcastInstance instance2 = factory.newHazelcastInstance(newConfig(mapName, folder.newFolder()));
+        waitAllForSafeState(instance1, instance2);
+
+        IMap<Integer, String> map = instance1.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.remove(i);
+        }
+
+        for (HazelcastInstance instance : new HazelcastInstance[]{instance1, instance2}) {
+            ChangeLogHotRestartService service = ChangeLogHotRestartService.of(getNodeEngineImpl(instance));
+            IPartitionService partitionService = getNodeEngineImpl(instance).getPartitionService();
+            for (int partitionId = 0; partitionId < partitionService.getPartitionCount(); partitionId++) {
+                PartitionChangeLog changeLog = service.getChangeLog(partitionId);
+                if (changeLog != null && !partitionService.isPartitionOwner(partitionId)) {
+                    assertEquals(0, changeLog.getRecordCount());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMutation_rejectedBeforeAppliedWhenLogFailed() throws IOException {
+        String mapName = randomMapName();
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(1);
+        HazelcastInstance instance = factory.newHazelcastInstance(newConfig(mapName, folder.newFolder()));
+        IMap<Integer, String> map = instance.getMap(mapName);
+        // the log of the partition can't be created anymore
+        delete(ChangeLogHotRestartService.of(getNodeEngineImpl(instance)).getGenerationDir());
+
+        map.put(1, "value");
+        try {
+            map.put(1, "updated");
+            fail("The mutation should have been rejected");
+        } catch (HazelcastException expected) {
+            ignore(expected);
+        }
+
+        assertEquals("value", map.get(1));
+    }
+
+    @Test(expected = HazelcastException.class)
+    public void testDirectory_cannotBeSharedByMembers() throws IOException {
+        Config config = newConfig(randomMapName(), folder.newFolder());
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+
+        factory.newHazelcastInstance(config);
+        factory.newHazelcastInstance(config);
+    }
+
+    private Config newConfig(String mapName, File directory) {
+        Config config = smallInstanceConfig()
+                .setProperty(MAP_CHANGE_LOG_ENABLED.getName(), "true")
+                .setProperty(MAP_CHANGE_LOG_DIRECTORY.getName(), directory.getAbsolutePath());
+        config.getMapConfig(mapName).getHotRestartConfig().setEnabled(true);
+        return config;
+    }
+
+    private static String expectedValue(int key) {
+        if (key % 5 == 0) {
+            return null;
+        }
+        return key % 2 == 0 ? "updated-" + key : "value-" + key;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PartitionChangeLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private InternalSerializationService serializationService;
+    private File directory;
+    private PartitionChangeLog changeLog;
+
+    @Before
+    public void setUp() throws Exception {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        directory = folder.newFolder();
+        changeLog = new PartitionChangeLog(directory, 1);
+    }
+
+    @Test
+    public void testReplay_returnsRecordsInAppendOrder() {
+        changeLog.put("map", data(1), data("a"), 10, false);
+        changeLog.remove("map", data(1), false);
+        changeLog.clear("map", true);
+        changeLog.close();
+
+        List<String> records = new ArrayList<>();
+        assertTrue(PartitionChangeLog.replay(logFile(), new RecordingVisitor(records)));
+        assertEquals(asList("put map 1 a 10", "remove map 1", "clear map"), records);
+        assertEquals(3, changeLog.getRecordCount());
+    }
+
+    @Test
+    public void testReplay_stopsAtPartiallyWrittenRecord() throws Exception {
+        changeLog.put("map", data(1), data("a"), 10, false);
+        changeLog.put("map", data(2), data("b"), 20, false);
+        changeLog.close();
+        try (RandomAccessFile file = new RandomAccessFile(logFile(), "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        List<String> records = new ArrayList<>();
+        assertFalse(PartitionChangeLog.replay(logFile(), new RecordingVisitor(records)));
+        assertEquals(asList("put map 1 a 10"), records);
+    }
+
+    @Test
+    public void testRewrite_replacesLogWithSnapshot() {
+        for (int i = 0; i < 10; i++) {
+            changeLog.put("map", data(1), data("v" + i), 10, false);
+        }
+        changeLog.rewrite(compacted -> compacted.put("map", data(1), data("v9"), 10, false));
+        changeLog.put("map", data(2), data("b"), 20, false);
+        changeLog.close();
+
+        List<String> records = new ArrayList<>();
+        assertTrue(PartitionChangeLog.replay(logFile(), new RecordingVisitor(records)));
+        assertEquals(asList("put map 1 v9 10", "put map 2 b 20"), records);
+        assertEquals(2, changeLog.getRecordCount());
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test
+    public void testClear_isNotLogged_whenLogIsEmpty() {
+        changeLog.clear("map", false);
+        changeLog.close();
+
+        assertEquals(0, changeLog.getRecordCount());
+        assertFalse(logFile().exists());
+    }
+
+    private File logFile() {
+        return new File(directory, PartitionChangeLog.logFileName(1));
+    }
+
+    private Data data(Object object) {
+        return serializationService.toData(object);
+    }
+
+    private final class RecordingVisitor implements PartitionChangeLog.Visitor {
+
+        private final List<String> records;
+
+        RecordingVisitor(List<String> records) {
+            this.records = records;
+        }
+
+        @Override
+        public void put(String mapName, Data key, Data value, long expirationTime) {
+            records.add("put " + mapName + " " + serializationService.toObject(key) + " "
+                    + serializationService.toObject(value) + " " + expirationTime);
+        }
+
+        @Override
+        public void remove(String mapName, Data key) {
+            records.add("remove " + mapName + " " + serializationService.toObject(key));
+        }
+
+        @Override
+        public void clear(String mapName) {
+            records.add("clear " + mapName);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.util.collection;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class Long2ObjectTreeMapTest {
+
+    private final Long2ObjectTreeMap<String> map = new Long2ObjectTreeMap<>();
+    private final TreeMap<Long, String> expected = new TreeMap<>();
+
+    @Test
+    public void testPutGetRemove() {
+        assertNull(map.put(7, "seven"));
+        assertEquals("seven", map.put(7, "SEVEN"));
+        assertEquals("SEVEN", map.get(7));
+        assertNull(map.get(8));
+        assertEquals(1, map.size());
+
+        assertEquals("SEVEN", map.remove(7));
+        assertNull(map.remove(7));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testAscendingKeys() {
+        for (long key = 0; key < 10000; key++) {
+            put(key);
+        }
+        assertSameEntries(expected, map.cursor());
+    }
+
+    @Test
+    public void testDescendingKeys() {
+        for (long key = 10000; key > 0; key--) {
+            put(key);
+        }
+        assertSameEntries(expected, map.cursor());
+    }
+
+    @Test
+    public void testRandomUpdates() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(5000) - 2500;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                put(key);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertSameEntries(expected, map.cursor());
+        for (long key = -2600; key < 2600; key += 7) {
+            assertEquals(expected.get(key), map.get(key));
+            assertSameEntries(expected.tailMap(key, true), map.cursor(key, true));
+            assertSameEntries(expected.tailMap(key, false), map.cursor(key, false));
+        }
+    }
+
+    @Test
+    public void testRemovingMostKeys_rebuildsTree() {
+        for (long key = 0; key < 10000; key++) {
+            put(key);
+        }
+        for (long key = 0; key < 10000; key++) {
+            if (key % 100 != 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+        assertSameEntries(expected, map.cursor());
+        for (long key = 0; key < 10000; key += 50) {
+            assertSameEntries(expected.tailMap(key, false), map.cursor(key, false));
+        }
+    }
+
+    @Test
+    public void testExtremeKeys() {
+        put(Long.MIN_VALUE);
+        put(Long.MAX_VALUE);
+        put(0);
+        assertSameEntries(expected, map.cursor());
+        assertSameEntries(expected.tailMap(Long.MIN_VALUE, false), map.cursor(Long.MIN_VALUE, false));
+        assertFalse(map.cursor(Long.MAX_VALUE, false).advance());
+    }
+
+    @Test
+    public void testClear() {
+        for (long key = 0; key < 1000; key++) {
+            put(key);
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+        assertFalse(map.cursor().advance());
+    }
+
+    private void put(long key) {
+        String value = "value-" + key;
+        assertEquals(expected.put(key, value), map.put(key, value));
+    }
+
+    private static void assertSameEntries(NavigableMap<Long, String> expected, Long2ObjectTreeMap.Cursor<String> cursor) {
+        Iterator<Map.Entry<Long, String>> iterator = expected.entrySet().iterator();
+        while (cursor.advance()) {
+            assertTrue(iterator.hasNext());
+            Map.Entry<Long, String> entry = iterator.next();
+            assertEquals((long) entry.getKey(), cursor.key());
+            assertEquals(entry.getValue(), cursor.value());
+        }
+        assertFalse(iterator.hasNext());
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_LOCK_FREE_GET_ENABLED;
+import static com.hazelcast.test.Accessors.getOperationService;
+import static com.hazelcast.test.Accessors.getPartitionService;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapLockFreeGetTest extends HazelcastTestSupport {
+
+    private String mapName;
+    private HazelcastInstance instance;
+    private IMap<String, String> map;
+
+    @Before
+    public void setUp() {
+        mapName = randomMapName();
+        instance = createHazelcastInstance(newConfig());
+        map = instance.getMap(mapName);
+    }
+
+    @Test
+    public void testGet_doesNotWaitForPartitionThread() {
+        String key = generateKeyOwnedBy(instance);
+        map.put(key, "value");
+
+        CountDownLatch latch = blockPartitionThread(key);
+        try {
+            assertEquals("value", map.get(key));
+            assertNull(map.get(key + "-absent"));
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void testGet_waitsForMutationInProgress() throws Exception {
+        String key = generateKeyOwnedBy(instance);
+        map.put(key, "value");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Future<Object> update = spawn(() -> map.executeOnKey(key, new BlockingUpdate(started, latch)));
+        assertOpenEventually(started);
+        Future<String> get = spawn(() -> map.get(key));
+        sleepMillis(200);
+        assertFalse(get.isDone());
+
+        latch.countDown();
+        update.get();
+        assertEquals("updated", get.get(ASSERT_TRUE_EVENTUALLY_TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testGet_expiredEntry() {
+        String key = generateKeyOwnedBy(instance);
+        map.put(key, "value", 1, TimeUnit.SECONDS);
+
+        assertEquals("value", map.get(key));
+        sleepAtLeastSeconds(1);
+        assertNull(map.get(key));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testGet_runsInterceptors() {
+        String key = generateKeyOwnedBy(instance);
+        map.put(key, "value");
+        map.addInterceptor(new UpperCaseInterceptor());
+
+        assertEquals("VALUE", map.get(key));
+    }
+
+    @Test
+    public void testGet_updatesStats() {
+        String key = generateKeyOwnedBy(instance);
+        map.put(key, "value");
+        long hitsBefore = map.getLocalMapStats().getHits();
+
+        CountDownLatch latch = blockPartitionThread(key);
+        try {
+            for (int i = 0; i < 10; i++) {
+                map.get(key);
+            }
+        } finally {
+            latch.countDown();
+        }
+
+        LocalMapStats stats = map.getLocalMapStats();
+        assertEquals(10, stats.getGetOperationCount());
+        assertEquals(hitsBefore + 10, stats.getHits());
+        assertEquals(10, map.getEntryView(key).getHits());
+    }
+
+    @Test
+    public void testGet_concurrentReadersCountAllHits() throws Exception {
+        String key = generateKeyOwnedBy(instance);
+        map.put(key, "value");
+        int threadCount = 4;
+        int getCount = 1000;
+
+        Future[] readers = new Future[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            readers[i] = spawn(() -> {
+                for (int j = 0; j < getCount; j++) {
+                    assertEquals("value", map.get(key));
+                }
+            });
+        }
+        for (Future reader : readers) {
+            reader.get();
+        }
+
+        assertEquals(threadCount * getCount, map.getEntryView(key).getHits());
+    }
+
+    @Test
+    public void testGet_loadsMissFromMapLoader() {
+        IMap<String, String> loadedMap = instance.getMap("loaded-" + mapName);
+
+        assertEquals("loaded-key", loadedMap.get("key"));
+    }
+
+    private Config newConfig() {
+        Config config = smallInstanceConfig()
+                .setProperty(MAP_LOCK_FREE_GET_ENABLED.getName(), "true");
+        config.getMapConfig("default").setInMemoryFormat(InMemoryFormat.BINARY);
+        config.getMapConfig("loaded-*")
+                .setInMemoryFormat(InMemoryFormat.BINARY)
+                .setMapStoreConfig(new MapStoreConfig().setImplementation(new KeyLoader()));
+        return config;
+    }
+
+    private CountDownLatch blockPartitionThread(String key) {
+        int partitionId = getPartitionService(instance).getPartitionId(key);
+        CountDownLatch latch = new CountDownLatch(1);
+        getOperationService(instance).execute(new PartitionSpecificRunnable() {
+            @Override
+            public int getPartitionId() {
+                return partitionId;
+            }
+
+            @Override
+            public void run() {
+                assertOpenEventually(latch);
+            }
+        });
+        return latch;
+    }
+
+    private static final class BlockingUpdate implements EntryProcessor<String, String, Object> {
+
+        private final transient CountDownLatch started;
+        private final transient CountDownLatch latch;
+
+        BlockingUpdate(CountDownLatch started, CountDownLatch latch) {
+            this.started = started;
+            this.latch = latch;
+        }
+
+        @Override
+        public Object process(Map.Entry<String, String> entry) {
+            started.countDown();
+            assertOpenEventually(latch);
+            entry.setValue("updated");
+            return null;
+        }
+    }
+
+    private static final class UpperCaseInterceptor implements MapInterceptor {
+
+        @Override
+        public Object interceptGet(Object value) {
+            return value == null ? null : ((String) value).toUpperCase();
+        }
+
+        @Override
+        public void afterGet(Object value) {
+        }
+
+        @Override
+        public Object interceptPut(Object oldValue, Object newValue) {
+            return null;
+        }
+
+        @Override
+        public void afterPut(Object value) {
+        }
+
+        @Override
+        public Object interceptRemove(Object removedValue) {
+            return null;
+        }
+
+        @Override
+        public void afterRemove(Object oldValue) {
+        }
+    }
+
+    private static final class KeyLoader extends MapStoreAdapter<String, String> implements Serializable {
+
+        @Override
+        public String load(String key) {
+            return "loaded-" + key;
+        }
+    }
+}
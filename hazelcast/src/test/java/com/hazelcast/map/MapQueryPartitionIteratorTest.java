@@ -191,6 +191,35 @@ public class MapQueryPartitionIteratorTest extends HazelcastTestSupport {
         assertFalse(result.isEmpty());
     }
 
+    @Test
+    public void test_allPartitions_with_projection_and_predicate() {
+        MapProxyImpl<Integer, Integer> map = (MapProxyImpl<Integer, Integer>) instance.<Integer, Integer>getMap(randomMapName());
+        int count = instance.getPartitionService().getPartitions().size() * 3;
+        for (int i = 0; i < count; ++i) {
+            map.put(i, i);
+        }
+
+        Iterator<Integer> iterator = map.iterator(2, Projections.singleAttribute("this"), lessEqual("this", count / 2));
+        ArrayList<Integer> projected = collectAll(iterator);
+
+        assertEquals(count / 2 + 1, projected.size());
+        for (int i = 0; i <= count / 2; ++i) {
+            assertTrue(projected.contains(i));
+        }
+    }
+
+    @Test
+    public void test_allPartitions_HasNext_Returns_False_On_EmptyMap() {
+        Iterator<String> iterator = proxy.iterator(10, new TestProjection(), Predicates.alwaysTrue());
+
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_allPartitions_paging_predicate_throws_exception() {
+        proxy.iterator(10, new TestProjection(), Predicates.pagingPredicate(10));
+    }
+
     private void fillMap(IMap<String, String> map, int partitionId, int count, String value) {
         for (int i = 0; i < count; i++) {
             String key = generateKeyForPartition(instance, partitionId);
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Map;
+
+import static com.hazelcast.memory.MemoryUnit.MEGABYTES;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_TIERED_STORE_DIRECTORY;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_TIERED_STORE_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_TIERED_STORE_SEGMENT_SIZE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapTieredStoreTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 2000;
+    private static final int VALUE_SIZE = 2048;
+    private static final int MAX_USED_HEAP_MB = 1;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEvictedValuesAreDemotedInsteadOfRemoved() {
+        String mapName = randomMapName();
+        HazelcastInstance instance = createHazelcastInstance(newConfig(mapName, MaxSizePolicy.USED_HEAP_SIZE));
+        IMap<Integer, byte[]> map = instance.getMap(mapName);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+
+        assertEquals(ENTRY_COUNT, map.size());
+        assertTrue(map.getLocalMapStats().getOwnedEntryMemoryCost() < 2 * MEGABYTES.toBytes(MAX_USED_HEAP_MB));
+        assertTrue(segmentFileCount() > 0);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertArrayEquals(newValue(i), map.get(i));
+        }
+    }
+
+    @Test
+    public void testDemotedValuesAreVisibleToAllReadPaths() {
+        String mapName = randomMapName();
+        HazelcastInstance instance = createHazelcastInstance(newConfig(mapName, MaxSizePolicy.USED_HEAP_SIZE));
+        IMap<Integer, byte[]> map = instance.getMap(mapName);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+
+        int count = 0;
+        for (Map.Entry<Integer, byte[]> entry : map.entrySet()) {
+            assertArrayEquals(newValue(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(ENTRY_COUNT, count);
+        assertTrue(map.containsValue(newValue(0)));
+    }
+
+    @Test
+    public void testSegmentFilesAreDeletedOnDestroy() {
+        String mapName = randomMapName();
+        HazelcastInstance instance = createHazelcastInstance(newConfig(mapName, MaxSizePolicy.USED_HEAP_SIZE));
+        IMap<Integer, byte[]> map = instance.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+        assertTrue(segmentFileCount() > 0);
+
+        map.destroy();
+
+        assertEquals(0, segmentFileCount());
+    }
+
+    @Test
+    public void testIndexedMap_valuesAreEvictedInsteadOfDemoted() {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName, MaxSizePolicy.USED_HEAP_SIZE);
+        config.getMapConfig(mapName).addIndexConfig(new IndexConfig(IndexType.HASH, "__key"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, byte[]> map = instance.getMap(mapName);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+
+        assertTrue(map.size() < ENTRY_COUNT);
+        assertEquals(0, segmentFileCount());
+    }
+
+    @Test
+    public void testEntryCountPolicy_keepsEvicting() {
+        String mapName = randomMapName();
+        HazelcastInstance instance = createHazelcastInstance(newConfig(mapName, MaxSizePolicy.PER_PARTITION));
+        IMap<Integer, byte[]> map = instance.getMap(mapName);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+
+        assertTrue(map.size() < ENTRY_COUNT);
+        assertEquals(0, segmentFileCount());
+    }
+
+    private Config newConfig(String mapName, MaxSizePolicy maxSizePolicy) {
+        Config config = getConfig()
+                .setProperty(MAP_TIERED_STORE_ENABLED.getName(), "true")
+                .setProperty(MAP_TIERED_STORE_DIRECTORY.getName(), folder.getRoot().getAbsolutePath())
+                .setProperty(MAP_TIERED_STORE_SEGMENT_SIZE.getName(), String.valueOf(64 * 1024));
+        MapConfig mapConfig = config.getMapConfig(mapName)
+                .setInMemoryFormat(InMemoryFormat.BINARY);
+        mapConfig.getEvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(maxSizePolicy)
+                .setSize(MAX_USED_HEAP_MB);
+        return config;
+    }
+
+    private int segmentFileCount() {
+        File[] files = folder.getRoot().listFiles();
+        return files == null ? 0 : files.length;
+    }
+
+    private static byte[] newValue(int key) {
+        byte[] value = new byte[VALUE_SIZE];
+        value[0] = (byte) key;
+        value[VALUE_SIZE - 1] = (byte) (key >> 8);
+        return value;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapValueCompressionTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test
+    public void testCompressedValues_areReadBack() {
+        String mapName = randomMapName();
+        HazelcastInstance instance = createHazelcastInstance(newConfig(mapName));
+        IMap<Integer, String> map = instance.getMap(mapName);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(newValue(i), map.get(i));
+        }
+        int count = 0;
+        for (Map.Entry<Integer, String> entry : map.entrySet()) {
+            assertEquals(newValue(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(ENTRY_COUNT, count);
+        assertTrue(map.containsValue(newValue(0)));
+    }
+
+    @Test
+    public void testStats_reportRawAndCompressedCost() {
+        String mapName = randomMapName();
+        HazelcastInstance instance = createHazelcastInstance(newConfig(mapName));
+        IMap<Integer, String> map = instance.getMap(mapName);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+
+        LocalMapStats stats = map.getLocalMapStats();
+        assertTrue(stats.getOwnedEntryMemoryCost() > 0);
+        assertTrue(2 * stats.getOwnedEntryMemoryCost() < stats.getOwnedEntryRawMemoryCost());
+
+        map.clear();
+
+        stats = map.getLocalMapStats();
+        assertEquals(0, stats.getOwnedEntryRawMemoryCost());
+    }
+
+    @Test
+    public void testStats_rawCostEqualsCost_whenCompressionDisabled() {
+        String mapName = randomMapName();
+        HazelcastInstance instance = createHazelcastInstance(getConfig());
+        IMap<Integer, String> map = instance.getMap(mapName);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+
+        LocalMapStats stats = map.getLocalMapStats();
+        assertEquals(stats.getOwnedEntryMemoryCost(), stats.getOwnedEntryRawMemoryCost());
+    }
+
+    @Test
+    public void testCompressedValues_surviveMigrationAndBackupPromotion() {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName);
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        IMap<Integer, String> map = instance1.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance3 = factory.newHazelcastInstance(config);
+        waitAllForSafeState(instance1, instance2, instance3);
+        instance1.shutdown();
+        waitAllForSafeState(instance2, instance3);
+
+        IMap<Integer, String> survivingMap = instance2.getMap(mapName);
+        assertEquals(ENTRY_COUNT, survivingMap.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(newValue(i), survivingMap.get(i));
+        }
+        LocalMapStats stats = instance3.getMap(mapName).getLocalMapStats();
+        assertTrue(stats.getOwnedEntryMemoryCost() < stats.getOwnedEntryRawMemoryCost());
+    }
+
+    private Config newConfig(String mapName) {
+        Config config = getConfig();
+        config.getMapConfig(mapName)
+                .setInMemoryFormat(InMemoryFormat.BINARY)
+                .setValueCompressionEnabled(true);
+        return config;
+    }
+
+    private static String newValue(int key) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("value-").append(key).append(' ');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.services.ObjectNamespace;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_CHUNKED_MIGRATION_CHUNK_SIZE;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_CHUNKED_MIGRATION_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.test.Accessors.getOperationService;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapChunkedMigrationTest extends HazelcastTestSupport {
+
+    private static final int CHUNK_SIZE = 4 * 1024;
+    private static final int ENTRY_COUNT = 5000;
+
+    @Test
+    public void testChunkSupplier_splitsPartitionIntoBoundedChunks() throws Exception {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName).setProperty(PARTITION_COUNT.getName(), "1");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        fill(instance.getMap(mapName));
+
+        List<Operation> operations = supplyOperations(instance, mapName, CHUNK_SIZE);
+
+        assertTrue(operations.size() > 2);
+        assertTrue(operations.get(0) instanceof MapReplicationOperation);
+        int entryCount = 0;
+        for (int i = 1; i < operations.size(); i++) {
+            MapChunk chunk = (MapChunk) operations.get(i);
+            assertEquals(i == operations.size() - 1, chunk.isLastChunk());
+            entryCount += chunk.getEntryCount();
+        }
+        assertEquals(ENTRY_COUNT, entryCount);
+    }
+
+    @Test
+    public void testChunkSupplier_isNotCreated_forSmallPartition() throws Exception {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName).setProperty(PARTITION_COUNT.getName(), "1");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        instance.getMap(mapName).put(1, "value");
+
+        assertNull(supplyOperations(instance, mapName, CHUNK_SIZE));
+    }
+
+    @Test
+    public void testChunkedMigration_keepsEntriesAndIndexes() {
+        String mapName = randomMapName();
+        // few partitions, so that each of them is migrated in several chunks
+        Config config = newConfig(mapName)
+                .setProperty(PARTITION_COUNT.getName(), "11")
+                .setProperty(PARTITION_CHUNKED_MIGRATION_ENABLED.getName(), "true")
+                .setProperty(PARTITION_CHUNKED_MIGRATION_CHUNK_SIZE.getName(), String.valueOf(CHUNK_SIZE));
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        fill(instance1.getMap(mapName));
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance3 = factory.newHazelcastInstance(config);
+        waitAllForSafeState(instance1, instance2, instance3);
+        instance1.shutdown();
+        waitAllForSafeState(instance2, instance3);
+
+        IMap<Integer, String> map = instance2.getMap(mapName);
+        assertEquals(ENTRY_COUNT, map.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(newValue(i), map.get(i));
+        }
+        assertEquals(1, map.values(Predicates.equal("this", newValue(42))).size());
+        assertEquals(100, map.keySet(Predicates.between("__key", 100, 199)).size());
+    }
+
+    private Config newConfig(String mapName) {
+        Config config = getConfig();
+        config.getMapConfig(mapName)
+                .setInMemoryFormat(InMemoryFormat.BINARY)
+                .addIndexConfig(new IndexConfig(IndexType.HASH, "this"))
+                .addIndexConfig(new IndexConfig(IndexType.SORTED, "__key"));
+        return config;
+    }
+
+    private static void fill(IMap<Integer, String> map) {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, newValue(i));
+        }
+    }
+
+    private static String newValue(int key) {
+        return "value-" + key;
+    }
+
+    /**
+     * Drains the chunk supplier of the only partition on its partition
+     * thread, returns {@code null} if no supplier has been created.
+     */
+    private static List<Operation> supplyOperations(HazelcastInstance instance, String mapName, int chunkSize)
+            throws Exception {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        PartitionContainer container = mapServiceContext.getPartitionContainer(0);
+        ObjectNamespace namespace = MapService.getObjectNamespace(mapName);
+
+        CompletableFuture<List<Operation>> future = new CompletableFuture<>();
+        getOperationService(instance).execute(new PartitionSpecificRunnable() {
+            @Override
+            public int getPartitionId() {
+                return 0;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    MapChunkSupplier supplier = MapChunkSupplier.newMapChunkSupplier(container, namespace, 0, chunkSize);
+                    if (supplier == null) {
+                        future.complete(null);
+                        return;
+                    }
+                    List<Operation> operations = new ArrayList<>();
+                    while (supplier.hasNext()) {
+                        operations.add(supplier.next());
+                    }
+                    assertFalse(supplier.hasNext());
+                    future.complete(operations);
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            }
+        });
+        return future.get();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.partition.PartitionReplicationEvent;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.services.ServiceNamespace;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.wan.impl.merkletree.MerkleTree;
+import com.hazelcast.wan.impl.merkletree.MerkleTreeView;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_BACKUP_SYNC_INTERVAL;
+import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.test.Accessors.getSerializationService;
+import static com.hazelcast.test.PacketFiltersUtil.dropOperationsBetween;
+import static com.hazelcast.test.PacketFiltersUtil.resetPacketFiltersFrom;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapDeltaReplicaSyncTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT_VALUE = 7;
+    private static final int ENTRY_COUNT = 2000;
+    private static final int UPDATED_ENTRY_COUNT = 20;
+
+    @Test
+    public void testDeltaReplication_containsOnlyRecordsOfDifferingLeaves() {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName).setProperty(PARTITION_COUNT.getName(), "1");
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance primary = factory.newHazelcastInstance(config);
+        HazelcastInstance backup = factory.newHazelcastInstance(config);
+        IMap<Integer, String> map = primary.getMap(mapName);
+        warmUpPartitions(primary, backup);
+        HazelcastInstance owner = getOwner(primary, backup);
+        HazelcastInstance replica = owner == primary ? backup : primary;
+
+        fill(map);
+        waitAllForSafeState(primary, backup);
+        assertEquals(0, replicatedRecordCount(owner, mapName, getMerkleTree(replica, mapName)));
+
+        dropOperationsBetween(owner, replica, SpiDataSerializerHook.F_ID, singletonList(SpiDataSerializerHook.BACKUP));
+        for (int i = 0; i < UPDATED_ENTRY_COUNT; i++) {
+            map.put(i, "updated-" + i);
+        }
+
+        int replicatedRecordCount = replicatedRecordCount(owner, mapName, getMerkleTree(replica, mapName));
+        assertTrue(replicatedRecordCount >= UPDATED_ENTRY_COUNT);
+        assertTrue(replicatedRecordCount < ENTRY_COUNT / 10);
+    }
+
+    @Test
+    public void testDeltaReplication_isNotPrepared_whenMerkleTreeDisabled() {
+        String mapName = randomMapName();
+        Config config = getConfig().setProperty(PARTITION_COUNT.getName(), "1");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        fill(instance.getMap(mapName));
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        ServiceNamespace namespace = MapService.getObjectNamespace(mapName);
+
+        assertNull(mapService.getMerkleTree(0, namespace));
+    }
+
+    @Test
+    public void testAntiEntropy_repairsBackupWithDelta() {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName)
+                .setProperty(PARTITION_COUNT.getName(), String.valueOf(PARTITION_COUNT_VALUE))
+                .setProperty(PARTITION_BACKUP_SYNC_INTERVAL.getName(), "1");
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        IMap<Integer, String> map = instance1.getMap(mapName);
+        fill(map);
+        waitAllForSafeState(instance1, instance2);
+
+        dropOperationsBetween(instance1, instance2, SpiDataSerializerHook.F_ID, singletonList(SpiDataSerializerHook.BACKUP));
+        dropOperationsBetween(instance2, instance1, SpiDataSerializerHook.F_ID, singletonList(SpiDataSerializerHook.BACKUP));
+        for (int i = 0; i < UPDATED_ENTRY_COUNT; i++) {
+            map.put(i, "updated-" + i);
+            map.remove(ENTRY_COUNT - i - 1);
+            map.put(ENTRY_COUNT + i, "added-" + i);
+        }
+        resetPacketFiltersFrom(instance1);
+        resetPacketFiltersFrom(instance2);
+
+        assertTrueEventually(() -> {
+            for (int partitionId = 0; partitionId < PARTITION_COUNT_VALUE; partitionId++) {
+                assertEquals(getRootHash(instance1, mapName, partitionId), getRootHash(instance2, mapName, partitionId));
+            }
+        });
+
+        instance1.getLifecycleService().terminate();
+        IMap<Integer, String> survivingMap = instance2.getMap(mapName);
+        assertEquals(ENTRY_COUNT, survivingMap.size());
+        for (int i = 0; i < ENTRY_COUNT - UPDATED_ENTRY_COUNT; i++) {
+            assertEquals(i < UPDATED_ENTRY_COUNT ? "updated-" + i : "value-" + i, survivingMap.get(i));
+        }
+        for (int i = 0; i < UPDATED_ENTRY_COUNT; i++) {
+            assertNull(survivingMap.get(ENTRY_COUNT - i - 1));
+            assertEquals("added-" + i, survivingMap.get(ENTRY_COUNT + i));
+        }
+    }
+
+    @Test
+    public void testMerkleTree_isSameOnAllReplicas() {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName).setProperty(PARTITION_COUNT.getName(), "1");
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        IMap<Integer, String> map = instance1.getMap(mapName);
+        fill(map);
+        for (int i = 0; i < UPDATED_ENTRY_COUNT; i++) {
+            map.put(i, "updated-" + i);
+            map.remove(ENTRY_COUNT - i - 1);
+        }
+
+        assertTrueEventually(() -> assertEquals(getRootHash(instance1, mapName, 0), getRootHash(instance2, mapName, 0)));
+        assertNotEquals(0, getRootHash(instance1, mapName, 0));
+
+        map.clear();
+        assertTrueEventually(() -> {
+            assertEquals(0, getRootHash(instance1, mapName, 0));
+            assertEquals(0, getRootHash(instance2, mapName, 0));
+        });
+    }
+
+    private Config newConfig(String mapName) {
+        Config config = getConfig();
+        MapConfig mapConfig = config.getMapConfig(mapName)
+                .setInMemoryFormat(InMemoryFormat.BINARY)
+                .setBackupCount(0)
+                .setAsyncBackupCount(1);
+        mapConfig.getMerkleTreeConfig().setEnabled(true);
+        return config;
+    }
+
+    private static void fill(IMap<Integer, String> map) {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+    }
+
+    private static HazelcastInstance getOwner(HazelcastInstance... instances) {
+        for (HazelcastInstance instance : instances) {
+            if (getNodeEngineImpl(instance).getPartitionService().isPartitionOwner(0)) {
+                return instance;
+            }
+        }
+        throw new AssertionError("No owner of partition 0");
+    }
+
+    private static MerkleTree getMerkleTree(HazelcastInstance instance, String mapName) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        RecordStore recordStore = mapService.getMapServiceContext().getExistingRecordStore(0, mapName);
+        assertNotNull(recordStore);
+        return recordStore.getMerkleTree();
+    }
+
+    private static int getRootHash(HazelcastInstance instance, String mapName, int partitionId) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        RecordStore recordStore = mapService.getMapServiceContext().getExistingRecordStore(partitionId, mapName);
+        return recordStore == null ? 0 : recordStore.getMerkleTree().getNodeHash(0);
+    }
+
+    /**
+     * Prepares the delta replication of the only partition on the owner
+     * for the given Merkle tree, returns the number of replicated records.
+     */
+    private static int replicatedRecordCount(HazelcastInstance owner, String mapName, MerkleTreeView remoteMerkleTree) {
+        MapService mapService = getNodeEngineImpl(owner).getService(MapService.SERVICE_NAME);
+        ServiceNamespace namespace = MapService.getObjectNamespace(mapName);
+        MapReplicationOperation operation = (MapReplicationOperation) mapService.prepareDeltaReplicationOperation(
+                new PartitionReplicationEvent(0, 1), namespace, remoteMerkleTree);
+        assertNotNull(operation);
+
+        InternalSerializationService ss = getSerializationService(owner);
+        Data data = ss.toData(operation);
+        MapReplicationOperation readOperation = ss.toObject(data);
+        List keyRecords = readOperation.getMapReplicationStateHolder().data.get(mapName);
+        return keyRecords.size() / 2;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.in;
+import static com.hazelcast.query.Predicates.lessThan;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ParallelIndexQueryExecutorTest extends HazelcastTestSupport {
+
+    private static final int PARALLELISM = 4;
+    private static final int COUNT = 10 * ParallelIndexQueryExecutor.MIN_CHUNK_SIZE;
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Integer> map;
+
+    @Before
+    public void before() {
+        Config config = getConfig().setProperty(ClusterProperty.QUERY_INDEX_PARALLELISM.getName(),
+                Integer.toString(PARALLELISM));
+        instance = createHazelcastInstance(config);
+        map = instance.getMap(randomName());
+        map.addIndex(IndexType.SORTED, "this");
+        for (int i = 0; i < COUNT; ++i) {
+            map.put(i, i);
+        }
+    }
+
+    @Test
+    public void testIndexedPredicate() {
+        assertQuery(greaterEqual("this", 0), 0, COUNT);
+        assertQuery(lessThan("this", 100), 0, 100);
+        assertQuery(greaterEqual("this", 1000), 1000, COUNT);
+    }
+
+    @Test
+    public void testPostFilteredPredicate() {
+        Predicate<Integer, Integer> odd = entry -> entry.getValue() % 2 == 1;
+        Predicate<Integer, Integer> predicate = and(greaterEqual("this", 10), odd);
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 11; i < COUNT; i += 2) {
+            expected.add(i);
+        }
+        assertEquals(expected, map.keySet(predicate));
+        assertEquals(expected, new HashSet<>(map.values(predicate)));
+        assertEquals(expected.size(), map.entrySet(predicate).size());
+    }
+
+    @Test
+    public void testPostFilteredByMultiValueIndexedPredicate() {
+        IMap<Integer, Integer> map = instance.getMap(randomName());
+        map.addIndex(IndexType.SORTED, "__key");
+        map.addIndex(IndexType.HASH, "this");
+        for (int i = 0; i < COUNT; ++i) {
+            map.put(i, i % 10);
+        }
+        // the IN result set of more than 3 values is larger than the key
+        // range, so it post-filters the candidates concurrently
+        Predicate<Integer, Integer> predicate = and(lessThan("__key", COUNT / 2), in("this", 0, 1, 2, 3, 4, 5, 6, 7));
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < COUNT / 2; ++i) {
+            if (i % 10 < 8) {
+                expected.add(i);
+            }
+        }
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(expected, map.keySet(predicate));
+        }
+    }
+
+    @Test
+    public void testProjection() {
+        Projection<Map.Entry<Integer, Integer>, Integer> projection = Projections.singleAttribute("this");
+        Collection<Integer> projected = map.project(projection, greaterEqual("this", 10));
+        assertEquals(COUNT - 10, projected.size());
+        assertEquals(range(10, COUNT), new HashSet<>(projected));
+    }
+
+    @Test
+    public void testEmptyResult() {
+        assertEquals(0, map.keySet(equal("this", -1)).size());
+    }
+
+    private void assertQuery(Predicate<Integer, Integer> predicate, int from, int to) {
+        Set<Integer> expected = range(from, to);
+        assertEquals(expected, map.keySet(predicate));
+        assertEquals(expected, new HashSet<>(map.values(predicate)));
+    }
+
+    private static Set<Integer> range(int from, int to) {
+        Set<Integer> set = new HashSet<>();
+        for (int i = from; i < to; ++i) {
+            set.add(i);
+        }
+        return set;
+    }
+
+}
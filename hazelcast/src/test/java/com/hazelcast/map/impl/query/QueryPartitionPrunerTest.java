@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.partition.IPartitionService;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.predicates.SqlPredicate;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static com.hazelcast.aggregation.Aggregators.count;
+import static com.hazelcast.internal.util.IterationType.KEY;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.in;
+import static com.hazelcast.query.Predicates.not;
+import static com.hazelcast.query.Predicates.notEqual;
+import static com.hazelcast.query.Predicates.or;
+import static com.hazelcast.query.Predicates.pagingPredicate;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.test.Accessors.getPartitionService;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class QueryPartitionPrunerTest extends HazelcastTestSupport {
+
+    private static final int MAX_PARTITIONS = 4;
+
+    private TestHazelcastInstanceFactory factory;
+    private HazelcastInstance instance;
+    private IMap<Integer, String> map;
+    private IPartitionService partitionService;
+    private QueryPartitionPruner pruner;
+
+    @Before
+    public void before() {
+        Config config = getConfig().setProperty(ClusterProperty.QUERY_PARTITION_PRUNING_MAX_PARTITIONS.getName(),
+                Integer.toString(MAX_PARTITIONS));
+        factory = createHazelcastInstanceFactory(3);
+        HazelcastInstance[] instances = factory.newInstances(config, 2);
+        instance = instances[0];
+        map = instance.getMap(randomName());
+        for (int i = 0; i < 100; ++i) {
+            map.put(i, "value" + i);
+        }
+        map.addIndex(IndexType.HASH, "__key");
+
+        partitionService = getPartitionService(instance);
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        pruner = new QueryPartitionPruner(mapService.getMapServiceContext());
+    }
+
+    @Test
+    public void testKeyEquality() {
+        assertPrunedTo(equal("__key", 5), 5);
+        assertPrunedTo(equal("this.__key", 5), 5);
+    }
+
+    @Test
+    public void testKeyIn() {
+        assertPrunedTo(in("__key", 1, 2, 3), 1, 2, 3);
+        assertPrunedTo(in("__key", 1, null, 3), 1, 3);
+    }
+
+    @Test
+    public void testCompoundPredicates() {
+        assertPrunedTo(and(equal("this", "value1"), equal("__key", 1)), 1);
+        assertPrunedTo(and(in("__key", 1, 2, 3), equal("__key", 2)), 2);
+        assertPrunedTo(or(equal("__key", 1), in("__key", 2, 3)), 1, 2, 3);
+        assertPrunedTo(and(not(equal("this", "value1")), equal("__key", 4)), 4);
+    }
+
+    @Test
+    public void testNotPruned() {
+        assertNotPruned(equal("this", "value1"));
+        assertNotPruned(equal("__key", null));
+        assertNotPruned(in("__key", (Comparable) null));
+        assertNotPruned(notEqual("__key", 1));
+        assertNotPruned(greaterThan("__key", 1));
+        assertNotPruned(or(equal("__key", 1), equal("this", "value2")));
+        assertNotPruned(in("__key", 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16));
+        assertNotPruned(new SqlPredicate("__key = 5"));
+        assertNotPruned(new SqlPredicate("__key in (7, 8)"));
+        assertNotPruned(pagingPredicate(equal("__key", 1), 10));
+    }
+
+    @Test
+    public void testNotPruned_byDefault() {
+        HazelcastInstance instance = factory.newHazelcastInstance(getConfig());
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        QueryPartitionPruner pruner = new QueryPartitionPruner(mapService.getMapServiceContext());
+
+        assertNull(pruner.prunePartitions(query(equal("__key", 1))));
+    }
+
+    @Test
+    public void testNotPruned_withoutKeyIndex() {
+        IMap<Integer, String> map = instance.getMap(randomName());
+        map.put(1, "value1");
+
+        assertNull(pruner.prunePartitions(Query.of().mapName(map.getName()).predicate(equal("__key", 1))
+                .iterationType(KEY).build()));
+    }
+
+    @Test
+    public void testConvertedKeys() {
+        IMap<Long, String> map = instance.getMap(randomName());
+        for (long i = 0; i < 100; ++i) {
+            map.put(i, "value" + i);
+        }
+        map.addIndex(IndexType.HASH, "__key");
+
+        PartitionIdSet expected = new PartitionIdSet(partitionService.getPartitionCount());
+        expected.add(partitionService.getPartitionId(5L));
+        expected.add(partitionService.getPartitionId(7L));
+        assertEquals(expected, pruner.prunePartitions(Query.of().mapName(map.getName()).predicate(in("__key", 5, "7"))
+                .iterationType(KEY).build()));
+
+        assertEquals(new HashSet<>(Arrays.asList(5L)), map.keySet(equal("__key", 5)));
+        assertEquals(new HashSet<>(Arrays.asList(5L, 7L)), map.keySet(in("__key", 5, "7")));
+        assertEquals(new HashSet<>(Arrays.asList(9L)), map.keySet(or(equal("__key", (short) 9), equal("__key", 1000))));
+        assertEquals(2, (long) map.aggregate(count(), in("__key", 10, 20.0)));
+    }
+
+    @Test
+    public void testQueryResults() {
+        assertEquals(new HashSet<>(Arrays.asList(5)), map.keySet(equal("__key", 5)));
+        assertEquals(new HashSet<>(Arrays.asList(5)), map.keySet(new SqlPredicate("__key = 5")));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), map.keySet(in("__key", 1, 2, 3, 1000)));
+        assertEquals(new HashSet<>(Arrays.asList(2)), map.keySet(or(equal("__key", 2), equal("__key", 1000))));
+        assertEquals(new HashSet<>(Arrays.asList("value7")), new HashSet<>(map.values(in("__key", 7))));
+        assertEquals(0, map.keySet(and(equal("__key", 1), equal("this", "value2"))).size());
+        assertEquals(2, (long) map.aggregate(count(), in("__key", 10, 20)));
+    }
+
+    private void assertPrunedTo(Predicate predicate, Integer... keys) {
+        PartitionIdSet expected = new PartitionIdSet(partitionService.getPartitionCount());
+        for (Integer key : keys) {
+            expected.add(partitionService.getPartitionId(key));
+        }
+        assertEquals(predicate.toString(), expected, pruner.prunePartitions(query(predicate)));
+    }
+
+    private void assertNotPruned(Predicate predicate) {
+        assertNull(predicate.toString(), pruner.prunePartitions(query(predicate)));
+    }
+
+    private Query query(Predicate predicate) {
+        return Query.of().mapName(map.getName()).predicate(predicate).iterationType(KEY).build();
+    }
+
+}
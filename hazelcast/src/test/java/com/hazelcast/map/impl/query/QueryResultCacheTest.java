@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.LocalMapStats;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.predicates.SqlPredicate;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.aggregation.Aggregators.integerSum;
+import static com.hazelcast.query.Predicates.pagingPredicate;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class QueryResultCacheTest extends HazelcastTestSupport {
+
+    private static final int MAX_SIZE = 2;
+    private static final int MAX_BYTES = 2048;
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Integer> map;
+
+    @Before
+    public void before() {
+        Config config = getConfig()
+                .setProperty(ClusterProperty.QUERY_RESULT_CACHE_MAPS.getName(), "cached*, other")
+                .setProperty(ClusterProperty.QUERY_RESULT_CACHE_MAX_SIZE.getName(), Integer.toString(MAX_SIZE))
+                .setProperty(ClusterProperty.QUERY_RESULT_CACHE_MAX_BYTES.getName(), Integer.toString(MAX_BYTES));
+        instance = createHazelcastInstance(config);
+        map = instance.getMap("cached" + randomName());
+        for (int i = 0; i < 100; ++i) {
+            map.put(i, i);
+        }
+    }
+
+    @Test
+    public void testRepeatedQueryServedFromCache() {
+        Predicate<Integer, Integer> predicate = new SqlPredicate("this < 3");
+        assertEquals(new HashSet<>(Arrays.asList(0, 1, 2)), map.keySet(predicate));
+        assertEquals(new HashSet<>(Arrays.asList(0, 1, 2)), map.keySet(predicate));
+        assertEquals(new HashSet<>(Arrays.asList(0, 1, 2)), map.keySet(new SqlPredicate("this < 3")));
+
+        LocalMapStats stats = map.getLocalMapStats();
+        assertEquals(2, stats.getQueryResultCacheHits());
+        assertEquals(1, stats.getQueryResultCacheMisses());
+    }
+
+    @Test
+    public void testResultsDistinguishedByQuery() {
+        Predicate<Integer, Integer> predicate = new SqlPredicate("this < 3");
+        assertEquals(3, map.keySet(predicate).size());
+        assertEquals(3, map.values(predicate).size());
+        assertEquals(3L, (long) map.aggregate(integerSum(), predicate));
+        assertEquals(0, map.getLocalMapStats().getQueryResultCacheHits());
+    }
+
+    @Test
+    public void testInvalidatedOnMutation() {
+        Predicate<Integer, Integer> predicate = new SqlPredicate("this < 3");
+        assertEquals(3, map.keySet(predicate).size());
+
+        map.put(100, 1);
+        assertEquals(new HashSet<>(Arrays.asList(0, 1, 2, 100)), map.keySet(predicate));
+
+        map.remove(0);
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 100)), map.keySet(predicate));
+
+        map.set(1, 50);
+        assertEquals(new HashSet<>(Arrays.asList(2, 100)), map.keySet(predicate));
+
+        map.evict(2);
+        assertEquals(new HashSet<>(Arrays.asList(100)), map.keySet(predicate));
+
+        map.clear();
+        assertEquals(0, map.keySet(predicate).size());
+        assertEquals(0, map.getLocalMapStats().getQueryResultCacheHits());
+    }
+
+    @Test
+    public void testCacheBounded() {
+        for (int i = 0; i < 5; ++i) {
+            map.keySet(new SqlPredicate("this < " + i));
+        }
+        assertTrue(getQueryResultCache(map.getName()).size() <= MAX_SIZE);
+
+        // the most recently used result is retained
+        map.keySet(new SqlPredicate("this < 4"));
+        assertEquals(1, map.getLocalMapStats().getQueryResultCacheHits());
+    }
+
+    @Test
+    public void testResultLargerThanMaxBytesNotCached() {
+        Predicate<Integer, Integer> predicate = new SqlPredicate("this < 90");
+        assertEquals(90, map.keySet(predicate).size());
+        assertEquals(90, map.keySet(predicate).size());
+
+        assertEquals(0, map.getLocalMapStats().getQueryResultCacheHits());
+        assertEquals(0, getQueryResultCache(map.getName()).size());
+    }
+
+    @Test
+    public void testExpirableEntriesNotCached() {
+        map.put(100, 1, 1, TimeUnit.HOURS);
+        Predicate<Integer, Integer> predicate = new SqlPredicate("this < 3");
+
+        assertEquals(4, map.keySet(predicate).size());
+        assertEquals(4, map.keySet(predicate).size());
+
+        assertEquals(0, map.getLocalMapStats().getQueryResultCacheHits());
+        assertEquals(0, getQueryResultCache(map.getName()).size());
+    }
+
+    @Test
+    public void testPagingPredicateNotCached() {
+        map.keySet(pagingPredicate(new SqlPredicate("this < 10"), 5));
+        map.keySet(pagingPredicate(new SqlPredicate("this < 10"), 5));
+        assertEquals(0, map.getLocalMapStats().getQueryResultCacheHits());
+        assertEquals(0, getQueryResultCache(map.getName()).size());
+    }
+
+    @Test
+    public void testEnabledPerMap() {
+        IMap<Integer, Integer> other = instance.getMap("other");
+        IMap<Integer, Integer> notCached = instance.getMap("notCached");
+        other.put(1, 1);
+        notCached.put(1, 1);
+
+        assertTrue(getQueryResultCache("other") != null);
+        assertNull(getQueryResultCache("notCached"));
+
+        notCached.keySet(new SqlPredicate("this = 1"));
+        notCached.keySet(new SqlPredicate("this = 1"));
+        assertEquals(0, notCached.getLocalMapStats().getQueryResultCacheHits());
+        assertEquals(0, notCached.getLocalMapStats().getQueryResultCacheMisses());
+    }
+
+    private QueryResultCache getQueryResultCache(String mapName) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext().getMapContainer(mapName).getQueryResultCache();
+    }
+
+}
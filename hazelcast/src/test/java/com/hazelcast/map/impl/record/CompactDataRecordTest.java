@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.util.Clock;
+import com.hazelcast.query.impl.Metadata;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.util.TimeUtil.zeroOutMs;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class CompactDataRecordTest {
+
+    private SerializationService ss;
+    private Data value;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        value = ss.toData("value");
+    }
+
+    @Test
+    public void testGetValue() {
+        CompactDataRecord record = new CompactDataRecord(value);
+
+        assertEquals(value, record.getValue());
+        assertNull(new CompactDataRecord().getValue());
+    }
+
+    @Test
+    public void testSetValue_keepsMetadata() {
+        CompactDataRecord record = new CompactDataRecord(value);
+        record.setVersion(12);
+        record.setHits(3);
+        record.setTtl(10000);
+
+        Data newValue = ss.toData("a longer value than before");
+        record.setValue(newValue);
+
+        assertEquals(newValue, record.getValue());
+        assertEquals(12, record.getVersion());
+        assertEquals(3, record.getHits());
+        assertEquals(10000, record.getTtl());
+    }
+
+    @Test
+    public void testMetadataFields() {
+        long now = zeroOutMs(Clock.currentTimeMillis());
+        CompactDataRecord record = new CompactDataRecord(value);
+
+        assertEquals(0L, record.getCreationTime());
+        assertEquals(0L, record.getExpirationTime());
+        assertEquals(0L, record.getLastStoredTime());
+
+        record.setCreationTime(now);
+        record.setLastAccessTime(now + 1000);
+        record.setLastUpdateTime(now + 2000);
+        record.setLastStoredTime(now + 3000);
+        record.setExpirationTime(Long.MAX_VALUE);
+        record.setMaxIdle(5000);
+
+        assertEquals(now, record.getCreationTime());
+        assertEquals(now + 1000, record.getLastAccessTime());
+        assertEquals(now + 2000, record.getLastUpdateTime());
+        assertEquals(now + 3000, record.getLastStoredTime());
+        assertEquals(Long.MAX_VALUE, record.getExpirationTime());
+        assertEquals(5000, record.getMaxIdle());
+    }
+
+    @Test
+    public void testQueryMetadata_isKept() {
+        CompactDataRecord record = new CompactDataRecord(value);
+        Metadata metadata = new Metadata();
+        metadata.setValueMetadata("valueMetadata");
+
+        record.setMetadata(metadata);
+        record.setValue(ss.toData("other"));
+
+        assertSame(metadata, record.getMetadata());
+    }
+
+    @Test
+    public void testCost_isLowerThanDataRecordWithStats() {
+        CompactDataRecord compact = new CompactDataRecord(value);
+        DataRecordWithStats withStats = new DataRecordWithStats(value);
+
+        assertTrue(compact.getCost() < withStats.getCost());
+    }
+
+    @Test
+    public void testFactory_createsCompactRecords() {
+        DataRecordFactory factory = new DataRecordFactory(new MapConfig(), ss, true);
+
+        Record<Data> record = factory.newRecord("value");
+
+        assertTrue(record instanceof CompactDataRecord);
+        assertEquals(value, record.getValue());
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        CompactDataRecord record = new CompactDataRecord(value);
+        CompactDataRecord sameAttributes = new CompactDataRecord(value);
+        CompactDataRecord otherValue = new CompactDataRecord(ss.toData("other"));
+
+        assertEquals(record, sameAttributes);
+        assertEquals(record.hashCode(), sameAttributes.hashCode());
+        assertNotEquals(record, otherValue);
+        assertNotEquals(record, new DataRecordWithStats(value));
+    }
+}
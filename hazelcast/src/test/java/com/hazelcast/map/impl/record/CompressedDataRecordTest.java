@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.cluster.Versions;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.serialization.impl.ObjectDataInputStream;
+import com.hazelcast.internal.serialization.impl.ObjectDataOutputStream;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.hazelcast.map.impl.record.RecordReaderWriter.COMPRESSED_DATA_RECORD_READER_WRITER;
+import static com.hazelcast.map.impl.record.RecordReaderWriter.DATA_RECORD_WITH_STATS_READER_WRITER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class CompressedDataRecordTest {
+
+    private InternalSerializationService ss;
+    private DataRecordFactory factory;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        factory = new DataRecordFactory(new MapConfig().setValueCompressionEnabled(true), ss);
+    }
+
+    @Test
+    public void testFactoryCreatesCompressedDataRecord() {
+        Record<Data> record = factory.newRecord("value");
+
+        assertTrue(record instanceof CompressedDataRecord);
+        assertEquals(COMPRESSED_DATA_RECORD_READER_WRITER, record.getMatchingRecordReaderWriter());
+    }
+
+    @Test
+    public void testCompressibleValue_isCompressed() {
+        Data value = ss.toData(compressibleValue(0));
+        CompressedDataRecord record = (CompressedDataRecord) factory.newRecord(value);
+
+        assertTrue(record.isCompressed());
+        assertEquals(value, record.getValue());
+        assertTrue(record.getCost() < record.getRawCost());
+    }
+
+    @Test
+    public void testSmallValue_isNotCompressed() {
+        Data value = ss.toData("value");
+        CompressedDataRecord record = (CompressedDataRecord) factory.newRecord(value);
+
+        assertFalse(record.isCompressed());
+        assertEquals(value, record.getValue());
+        assertEquals(record.getCost(), record.getRawCost());
+    }
+
+    @Test
+    public void testIncompressibleValue_isNotCompressed() {
+        Data value = ss.toData(incompressibleValue(0));
+        CompressedDataRecord record = (CompressedDataRecord) factory.newRecord(value);
+
+        assertFalse(record.isCompressed());
+        assertEquals(value, record.getValue());
+    }
+
+    @Test
+    public void testIncompressibleValues_skipFollowingValues() {
+        ValueCompressor compressor = new ValueCompressor();
+
+        assertNull(compressor.compress(ss.toData(incompressibleValue(0))));
+        // skipped, even if it would compress well
+        assertNull(compressor.compress(ss.toData(compressibleValue(0))));
+        assertNotNull(compressor.compress(ss.toData(compressibleValue(0))));
+    }
+
+    @Test
+    public void testSetValue_compressesNewValue() {
+        CompressedDataRecord record = (CompressedDataRecord) factory.newRecord("value");
+        Data value = ss.toData(compressibleValue(1));
+
+        record.setValue(value);
+
+        assertTrue(record.isCompressed());
+        assertEquals(value, record.getValue());
+    }
+
+    @Test
+    public void testWrittenAndReadRecords_areEqual() throws IOException {
+        assertWrittenAndReadRecordsAreEqual(compressibleValue(0));
+        assertWrittenAndReadRecordsAreEqual("value");
+    }
+
+    @Test
+    public void testNewRecordFrom_keepsCompressedValue() {
+        CompressedDataRecord fromRecord = (CompressedDataRecord) factory.newRecord(compressibleValue(0));
+
+        CompressedDataRecord record = (CompressedDataRecord) factory.newRecordFrom(fromRecord);
+
+        assertSame(fromRecord.getStoredValue(), record.getStoredValue());
+        assertEquals(fromRecord.getValue(), record.getValue());
+    }
+
+    @Test
+    public void testValueOfReadRecord_isNotCompressedAgain() throws IOException {
+        CompressedDataRecord writtenRecord = (CompressedDataRecord) factory.newRecord(compressibleValue(0));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectDataOutputStream out = new ObjectDataOutputStream(outputStream, ss);
+        out.setVersion(Versions.V4_2);
+        Records.writeRecord(out, writtenRecord, ss);
+        ObjectDataInputStream in = new ObjectDataInputStream(new ByteArrayInputStream(outputStream.toByteArray()), ss);
+        Record<Data> readRecord = Records.readRecord(in);
+
+        CompressedDataRecord record = (CompressedDataRecord) factory.newRecord(readRecord.getValue());
+
+        assertTrue(record.isCompressed());
+        assertTrue(Arrays.equals((byte[]) writtenRecord.getStoredValue(), (byte[]) record.getStoredValue()));
+        assertEquals(writtenRecord.getValue(), record.getValue());
+    }
+
+    @Test
+    public void testRecordWrittenForPreviousClusterVersion_isNotCompressed() throws IOException {
+        Record<Data> writtenRecord = factory.newRecord(compressibleValue(0));
+        writtenRecord.setVersion(2);
+        writtenRecord.setHits(3);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectDataOutputStream out = new ObjectDataOutputStream(outputStream, ss);
+        out.setVersion(Versions.V4_1);
+        Records.writeRecord(out, writtenRecord, (Data) null);
+        ObjectDataInputStream in = new ObjectDataInputStream(new ByteArrayInputStream(outputStream.toByteArray()), ss);
+        Record<Data> readRecord = Records.readRecord(in);
+
+        assertEquals(DATA_RECORD_WITH_STATS_READER_WRITER, readRecord.getMatchingRecordReaderWriter());
+        assertEquals(writtenRecord.getValue(), readRecord.getValue());
+        assertEquals(2, readRecord.getVersion());
+        assertEquals(3, readRecord.getHits());
+    }
+
+    private void assertWrittenAndReadRecordsAreEqual(Object value) throws IOException {
+        Record<Data> writtenRecord = factory.newRecord(value);
+        writtenRecord.setTtl(1);
+        writtenRecord.setVersion(2);
+        writtenRecord.setHits(3);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectDataOutputStream out = new ObjectDataOutputStream(outputStream, ss);
+        out.setVersion(Versions.V4_2);
+        Records.writeRecord(out, writtenRecord, ss);
+        ObjectDataInputStream in = new ObjectDataInputStream(new ByteArrayInputStream(outputStream.toByteArray()), ss);
+        CompressedDataRecord readRecord = (CompressedDataRecord) Records.readRecord(in);
+
+        assertEquals(((CompressedDataRecord) writtenRecord).isCompressed(), readRecord.isCompressed());
+        assertEquals(writtenRecord, readRecord);
+    }
+
+    private static String compressibleValue(int seed) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append("value-").append(seed);
+        }
+        return sb.toString();
+    }
+
+    private static byte[] incompressibleValue(int seed) {
+        byte[] value = new byte[4096];
+        new Random(seed).nextBytes(value);
+        return value;
+    }
+}
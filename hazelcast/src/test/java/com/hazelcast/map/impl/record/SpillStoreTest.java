@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.record.SpillStore.SpilledValue;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class SpillStoreTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SerializationService ss;
+    private File directory;
+    private SpillStore spillStore;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        directory = folder.getRoot();
+        spillStore = new SpillStore(directory, "test-", SEGMENT_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        spillStore.clear();
+    }
+
+    @Test
+    public void testAppendAndRead() {
+        Data value = ss.toData("value");
+
+        SpilledValue spilledValue = spillStore.append(value);
+
+        assertEquals(value, spilledValue.read());
+        assertEquals(value.totalSize(), spilledValue.getLength());
+        assertEquals(1, segmentFileCount());
+    }
+
+    @Test
+    public void testAppend_startsNewSegmentWhenFull() {
+        List<SpilledValue> spilledValues = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            spilledValues.add(spillStore.append(ss.toData("value-" + i)));
+        }
+
+        assertTrue(spillStore.getSegmentCount() > 1);
+        assertEquals(spillStore.getSegmentCount(), segmentFileCount());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value-" + i, ss.toObject(spilledValues.get(i).read()));
+        }
+    }
+
+    @Test
+    public void testAppend_valueLargerThanSegment() {
+        Data value = ss.toData(new byte[4 * SEGMENT_SIZE]);
+
+        SpilledValue spilledValue = spillStore.append(value);
+
+        assertEquals(value, spilledValue.read());
+    }
+
+    @Test
+    public void testRelease_deletesSegmentWithoutLiveValues() {
+        List<SpilledValue> spilledValues = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            spilledValues.add(spillStore.append(ss.toData("value-" + i)));
+        }
+        int segmentCount = spillStore.getSegmentCount();
+
+        // releasing twice must not release other values of the segment
+        spilledValues.get(0).release();
+        spilledValues.get(0).release();
+        assertEquals(segmentCount, spillStore.getSegmentCount());
+
+        for (SpilledValue spilledValue : spilledValues) {
+            spilledValue.release();
+        }
+
+        // only the active segment is kept
+        assertEquals(1, spillStore.getSegmentCount());
+        assertEquals(1, segmentFileCount());
+    }
+
+    @Test
+    public void testRelease_compactsSparseSegment() {
+        List<SpilledValue> spilledValues = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            spilledValues.add(spillStore.append(ss.toData("value-" + i)));
+        }
+        int segmentCount = spillStore.getSegmentCount();
+
+        // keeps every tenth value, less than a quarter of each segment
+        for (int i = 0; i < 200; i++) {
+            if (i % 10 != 0) {
+                spilledValues.get(i).release();
+            }
+        }
+
+        assertTrue(spillStore.getSegmentCount() < segmentCount);
+        assertEquals(spillStore.getSegmentCount(), segmentFileCount());
+        for (int i = 0; i < 200; i += 10) {
+            assertEquals("value-" + i, ss.toObject(spilledValues.get(i).read()));
+        }
+
+        // the moved values are released from the segment they were moved to
+        for (int i = 0; i < 200; i += 10) {
+            spilledValues.get(i).release();
+        }
+        assertEquals(1, spillStore.getSegmentCount());
+        assertEquals(1, segmentFileCount());
+    }
+
+    @Test
+    public void testCreate_deletesStaleSegmentFiles() throws IOException {
+        File staleFile = new File(directory, "test-123.segment");
+        File otherStoreFile = new File(directory, "test-1-123.segment");
+        File otherFile = new File(directory, "test-123.other");
+        assertTrue(staleFile.createNewFile());
+        assertTrue(otherStoreFile.createNewFile());
+        assertTrue(otherFile.createNewFile());
+
+        spillStore = new SpillStore(directory, "test-", SEGMENT_SIZE);
+
+        assertFalse(staleFile.exists());
+        assertTrue(otherStoreFile.exists());
+        assertTrue(otherFile.exists());
+    }
+
+    @Test
+    public void testClear() {
+        for (int i = 0; i < 100; i++) {
+            spillStore.append(ss.toData("value-" + i));
+        }
+
+        spillStore.clear();
+
+        assertEquals(0, spillStore.getSegmentCount());
+        assertEquals(0, segmentFileCount());
+        assertNotNull(spillStore.append(ss.toData("value")));
+    }
+
+    @Test
+    public void testRead_returnsNullAfterSegmentDropped() {
+        SpilledValue spilledValue = spillStore.append(ss.toData("value"));
+
+        spillStore.clear();
+
+        assertNull(spilledValue.read());
+    }
+
+    @Test
+    public void testTieredDataRecord_demoteAndPromote() {
+        Data value = ss.toData("value");
+        TieredDataRecord record = new TieredDataRecord(value);
+        long residentCost = record.getCost();
+
+        assertTrue(record.demote(spillStore));
+        assertFalse(record.demote(spillStore));
+        assertTrue(record.isDemoted());
+        assertEquals(value, record.getValue());
+        assertTrue(record.getCost() < residentCost);
+
+        record.setValue(value);
+
+        assertFalse(record.isDemoted());
+        assertEquals(value, record.getValue());
+        assertEquals(residentCost, record.getCost());
+    }
+
+    private int segmentFileCount() {
+        String[] files = directory.list();
+        return files == null ? 0 : files.length;
+    }
+}
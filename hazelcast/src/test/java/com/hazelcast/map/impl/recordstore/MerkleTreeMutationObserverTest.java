@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.record.ObjectRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MerkleTreeMutationObserverTest {
+
+    private static final int DEPTH = 4;
+
+    private final SerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final ObjectRecordFactory recordFactory = new ObjectRecordFactory(new MapConfig(), ss);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInPlaceUpdateOfObjectValue() {
+        MerkleTreeMutationObserver observer = new MerkleTreeMutationObserver(DEPTH, ss, InMemoryFormat.OBJECT);
+        Data key = ss.toData("key");
+        Record record = recordFactory.newRecord(new ArrayList<>());
+        observer.onPutRecord(key, record, null, false);
+
+        // mutate the stored value in place, like an entry processor does with OBJECT format
+        List<String> value = (List<String>) record.getValue();
+        value.add("item");
+        observer.onUpdateRecord(key, record, value, value, false);
+
+        assertEquals(rootHashOf(key, value), observer.getMerkleTree().getNodeHash(0));
+
+        observer.onRemoveRecord(key, record);
+        assertEquals(0, observer.getMerkleTree().getNodeHash(0));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        MerkleTreeMutationObserver observer = new MerkleTreeMutationObserver(DEPTH, ss, InMemoryFormat.OBJECT);
+        for (int i = 0; i < 100; i++) {
+            observer.onPutRecord(ss.toData(i), recordFactory.newRecord("value-" + i), null, false);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            Record record = recordFactory.newRecord("updated-" + i);
+            observer.onUpdateRecord(ss.toData(i), record, "value-" + i, record.getValue(), false);
+        }
+        for (int i = 1; i < 100; i += 2) {
+            Data key = ss.toData(i);
+            observer.onRemoveRecord(key, recordFactory.newRecord("value-" + i));
+        }
+
+        MerkleTreeMutationObserver rebuilt = new MerkleTreeMutationObserver(DEPTH, ss, InMemoryFormat.OBJECT);
+        for (int i = 0; i < 100; i += 2) {
+            rebuilt.onPutRecord(ss.toData(i), recordFactory.newRecord("updated-" + i), null, false);
+        }
+        assertEquals(rebuilt.getMerkleTree().getNodeHash(0), observer.getMerkleTree().getNodeHash(0));
+    }
+
+    private int rootHashOf(Data key, Object value) {
+        MerkleTreeMutationObserver rebuilt = new MerkleTreeMutationObserver(DEPTH, ss, InMemoryFormat.OBJECT);
+        rebuilt.onPutRecord(key, recordFactory.newRecord(value), null, false);
+        return rebuilt.getMerkleTree().getNodeHash(0);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryAllocator;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.config.EvictionPolicy.LRU;
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
+import static com.hazelcast.spi.properties.ClusterProperty.MAP_NATIVE_STORAGE_ENABLED;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NativeStorageMapTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+    private static final int MAX_MEMORY_MB = 2;
+    private static final int VALUE_SIZE = 8 * 1024;
+
+    @Test
+    public void testNativeMap_survivesMemberShutdown() {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName);
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+
+        IMap<Integer, String> map = instance1.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i += 2) {
+            map.remove(i);
+        }
+        instance1.shutdown();
+
+        map = instance2.getMap(mapName);
+        assertEquals(ENTRY_COUNT / 2, map.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i % 2 == 0 ? null : "value-" + i, map.get(i));
+        }
+        assertEquals(1, map.values(Predicates.equal("this", "value-1")).size());
+    }
+
+    @Test
+    public void testNativeMap_releasesMemoryWhenDestroyed() {
+        String mapName = randomMapName();
+        HazelcastInstance instance = createHazelcastInstance(newConfig(mapName));
+
+        IMap<Integer, String> map = instance.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        UnsafeMallocMemoryAllocator malloc = getAllocator(instance);
+        assertEquals(ENTRY_COUNT, map.size());
+        map.destroy();
+
+        assertTrueEventually(() -> assertEquals(0, malloc.getUsedMemory()));
+    }
+
+    @Test
+    public void testNativeMap_evictsWhenMaxMemoryExceeded() {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName);
+        config.getNativeMemoryConfig().setSize(new MemorySize(MAX_MEMORY_MB, MemoryUnit.MEGABYTES));
+        config.getMapConfig(mapName).getEvictionConfig().setEvictionPolicy(LRU);
+        HazelcastInstance instance = createHazelcastInstance(config);
+
+        IMap<Integer, byte[]> map = instance.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new byte[VALUE_SIZE]);
+        }
+
+        UnsafeMallocMemoryAllocator malloc = getAllocator(instance);
+        assertTrue(malloc.getUsedMemory() <= malloc.getMaxMemory());
+        assertTrue(map.size() < ENTRY_COUNT);
+        assertNotNull(map.get(ENTRY_COUNT - 1));
+    }
+
+    @Test
+    public void testNativeMap_failsWhenMaxMemoryExceeded_withoutEviction() {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName);
+        config.getNativeMemoryConfig().setSize(new MemorySize(MAX_MEMORY_MB, MemoryUnit.MEGABYTES));
+        HazelcastInstance instance = createHazelcastInstance(config);
+
+        IMap<Integer, byte[]> map = instance.getMap(mapName);
+        HazelcastException exception = assertThrows(HazelcastException.class, () -> {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                map.put(i, new byte[VALUE_SIZE]);
+            }
+        });
+        assertInstanceOf(NativeOutOfMemoryError.class, exception.getCause());
+        assertTrue(getAllocator(instance).getUsedMemory() <= getAllocator(instance).getMaxMemory());
+    }
+
+    private static Config newConfig(String mapName) {
+        Config config = smallInstanceConfig().setProperty(MAP_NATIVE_STORAGE_ENABLED.getName(), "true");
+        config.getMapConfig(mapName).setInMemoryFormat(NATIVE);
+        return config;
+    }
+
+    private static UnsafeMallocMemoryAllocator getAllocator(HazelcastInstance instance) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return (UnsafeMallocMemoryAllocator) mapService.getMapServiceContext().getNativeStorageMemoryManager()
+                .getAllocator();
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry;
+import com.hazelcast.internal.memory.impl.MemoryManagerBean;
+import com.hazelcast.internal.memory.impl.UnsafeMallocMemoryAllocator;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.test.HazelcastTestSupport.assertThrows;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NativeStorageTest {
+
+    private SerializationService ss;
+    private DataRecordFactory recordFactory;
+    private UnsafeMallocMemoryAllocator malloc;
+    private NativeStorage storage;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        recordFactory = new DataRecordFactory(new MapConfig().setStatisticsEnabled(true), ss);
+        malloc = new UnsafeMallocMemoryAllocator();
+        storage = new NativeStorage(ss, new MemoryManagerBean(malloc, GlobalMemoryAccessorRegistry.MEM));
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+    }
+
+    @Test
+    public void test_putAndGet() {
+        Data key = ss.toData("key");
+        Record record = recordFactory.newRecord("value");
+        record.setVersion(3);
+        record.setHits(7);
+        record.setTtl(5000);
+
+        storage.put(key, record);
+
+        Record stored = storage.get(ss.toData("key"));
+        assertEquals("value", ss.toObject(stored.getValue()));
+        assertEquals(3, stored.getVersion());
+        assertEquals(7, stored.getHits());
+        assertEquals(5000, stored.getTtl());
+        assertEquals(1, storage.size());
+        assertTrue(storage.containsKey(key));
+    }
+
+    @Test
+    public void test_metadataUpdatesAreWrittenOffHeap() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+
+        storage.get(key).setHits(42);
+
+        assertEquals(42, storage.get(key).getHits());
+    }
+
+    @Test
+    public void test_putAndGetStored_returnsOffHeapRecord() {
+        Data key = ss.toData("key");
+        Record record = recordFactory.newRecord("value");
+
+        Record stored = storage.putAndGetStored(key, record);
+        stored.setHits(42);
+        stored.setVersion(5);
+
+        assertEquals(42, storage.get(key).getHits());
+        assertEquals(5, storage.get(key).getVersion());
+        assertEquals(0, record.getHits());
+    }
+
+    @Test
+    public void test_keysDifferingInTheLastByte() {
+        for (int length = 0; length < 20; length++) {
+            String prefix = new String(new char[length]).replace('\0', 'k');
+            storage.put(ss.toData(prefix + "a"), recordFactory.newRecord("a" + length));
+            storage.put(ss.toData(prefix + "b"), recordFactory.newRecord("b" + length));
+        }
+
+        for (int length = 0; length < 20; length++) {
+            String prefix = new String(new char[length]).replace('\0', 'k');
+            assertEquals("a" + length, ss.toObject(storage.get(ss.toData(prefix + "a")).getValue()));
+            assertEquals("b" + length, ss.toObject(storage.get(ss.toData(prefix + "b")).getValue()));
+            assertNull(storage.get(ss.toData(prefix + "c")));
+        }
+        assertEquals(40, storage.size());
+    }
+
+    @Test
+    public void test_updateRecordValue() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+        long costBefore = storage.getEntryCostEstimator().getEstimate();
+
+        storage.updateRecordValue(key, storage.get(key), "a much longer value");
+
+        assertEquals("a much longer value", ss.toObject(storage.get(key).getValue()));
+        assertTrue(storage.getEntryCostEstimator().getEstimate() > costBefore);
+    }
+
+    @Test
+    public void test_putExistingKey_replacesValue() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value1"));
+        storage.put(key, recordFactory.newRecord("value2"));
+
+        assertEquals(1, storage.size());
+        assertEquals("value2", ss.toObject(storage.get(key).getValue()));
+    }
+
+    @Test
+    public void test_removeRecord_releasesMemoryAfterDeferredDisposal() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+        long usedWithEntry = malloc.getUsedMemory();
+
+        storage.removeRecord(key, storage.get(key));
+
+        assertNull(storage.get(key));
+        assertTrue(storage.isEmpty());
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+        storage.disposeDeferredBlocks();
+        assertTrue(malloc.getUsedMemory() < usedWithEntry);
+    }
+
+    @Test
+    public void test_replacedValue_releasedAfterDeferredDisposal() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value1"));
+        long usedWithEntry = malloc.getUsedMemory();
+
+        storage.put(key, recordFactory.newRecord("value2"));
+
+        assertTrue(malloc.getUsedMemory() > usedWithEntry);
+        storage.disposeDeferredBlocks();
+        assertEquals(usedWithEntry, malloc.getUsedMemory());
+    }
+
+    @Test
+    public void test_manyEntries() {
+        int count = 10000;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord("value-" + i));
+        }
+        for (int i = 0; i < count; i += 2) {
+            Data key = ss.toData(i);
+            storage.removeRecord(key, storage.get(key));
+        }
+        storage.disposeDeferredBlocks();
+
+        assertEquals(count / 2, storage.size());
+        for (int i = 0; i < count; i++) {
+            Record record = storage.get(ss.toData(i));
+            if (i % 2 == 0) {
+                assertNull(record);
+            } else {
+                assertEquals("value-" + i, ss.toObject(record.getValue()));
+            }
+        }
+    }
+
+    @Test
+    public void test_mutationTolerantIterator_removeAll() {
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Object> seen = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            seen.add(ss.toObject(entry.getKey()));
+            iterator.remove();
+        }
+
+        assertEquals(count, seen.size());
+        assertTrue(storage.isEmpty());
+    }
+
+    @Test
+    public void test_mutationTolerantIterator_removeSome() {
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        List<Object> seen = new ArrayList<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            int key = ss.toObject(entry.getKey());
+            seen.add(key);
+            if (key % 3 != 0) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(count, seen.size());
+        assertEquals(count, new HashSet<>(seen).size());
+        assertEquals((count + 2) / 3, storage.size());
+    }
+
+    @Test
+    public void test_mutationTolerantIterator_skipsEntriesRemovedMeanwhile() {
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Object> seen = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            int key = ss.toObject(iterator.next().getKey());
+            assertTrue("returned twice " + key, seen.add(key));
+            Data otherKey = ss.toData(count - 1 - key);
+            Record other = storage.get(otherKey);
+            if (other != null) {
+                storage.removeRecord(otherKey, other);
+            }
+        }
+
+        assertEquals(count / 2, seen.size());
+    }
+
+    @Test
+    public void test_mutationTolerantIterator_whenResizedDuringIteration() {
+        int count = 100;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Object> seen = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        int added = count;
+        while (iterator.hasNext()) {
+            int key = ss.toObject(iterator.next().getKey());
+            assertTrue("returned twice " + key, seen.add(key));
+            for (int i = 0; i < 10; i++, added++) {
+                storage.put(ss.toData(added), recordFactory.newRecord(added));
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            assertTrue("skipped " + i, seen.contains(i));
+        }
+    }
+
+    @Test
+    public void test_put_whenMaxMemoryExceeded() {
+        storage.destroy(false);
+        malloc = new UnsafeMallocMemoryAllocator(64 * 1024);
+        storage = new NativeStorage(ss, new MemoryManagerBean(malloc, GlobalMemoryAccessorRegistry.MEM));
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+        long usedMemory = malloc.getUsedMemory();
+
+        Record bigRecord = recordFactory.newRecord(new byte[64 * 1024]);
+        assertThrows(NativeOutOfMemoryError.class, () -> storage.put(ss.toData("other"), bigRecord));
+        assertThrows(NativeOutOfMemoryError.class, () -> storage.put(key, bigRecord));
+
+        assertEquals(usedMemory, malloc.getUsedMemory());
+        assertEquals(1, storage.size());
+        assertEquals("value", ss.toObject(storage.get(key).getValue()));
+        assertNull(storage.get(ss.toData("other")));
+    }
+
+    @Test
+    public void test_fetchEntries() {
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Object> seen = new HashSet<>();
+        IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        do {
+            MapEntriesWithCursor result = storage.fetchEntries(pointers, 100);
+            for (Map.Entry<Data, Data> entry : result.getBatch()) {
+                assertEquals(ss.toObject(entry.getKey()), (Object) ss.toObject(entry.getValue()));
+                seen.add(ss.toObject(entry.getKey()));
+            }
+            pointers = result.getIterationPointers();
+        } while (pointers[pointers.length - 1].getIndex() >= 0);
+
+        assertEquals(count, seen.size());
+    }
+
+    @Test
+    public void test_fetchKeys_whenResizedDuringIteration() {
+        int count = 100;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Object> seen = new HashSet<>();
+        IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        int added = count;
+        int fetched = 0;
+        do {
+            MapKeysWithCursor result = storage.fetchKeys(pointers, 10);
+            for (Data key : result.getBatch()) {
+                seen.add(ss.toObject(key));
+                fetched++;
+            }
+            pointers = result.getIterationPointers();
+            for (int i = 0; i < 50; i++) {
+                storage.put(ss.toData(added), recordFactory.newRecord(added));
+                added++;
+            }
+        } while (pointers[pointers.length - 1].getIndex() >= 0);
+
+        for (int i = 0; i < count; i++) {
+            assertTrue("missing key " + i, seen.contains(i));
+        }
+        assertEquals("duplicate keys returned", seen.size(), fetched);
+    }
+
+    @Test
+    public void test_getRandomSamples() {
+        for (int i = 0; i < 100; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        int sampled = 0;
+        for (EntryView entryView : storage.getRandomSamples(15)) {
+            Data key = storage.extractDataKeyFromLazy(entryView);
+            assertEquals(entryView.getKey(), entryView.getValue());
+            assertTrue(storage.containsKey(key));
+            sampled++;
+        }
+        assertEquals(15, sampled);
+    }
+
+    @Test
+    public void test_clear() {
+        for (int i = 0; i < 100; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        storage.clear(false);
+        storage.disposeDeferredBlocks();
+
+        assertTrue(storage.isEmpty());
+        assertFalse(storage.containsKey(ss.toData(1)));
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class OpenAddressingStorageTest {
+
+    private SerializationService ss;
+    private DataRecordFactory recordFactory;
+    private OpenAddressingStorage<Record> storage;
+
+    @Before
+    public void setUp() {
+        ss = new DefaultSerializationServiceBuilder().build();
+        recordFactory = new DataRecordFactory(new MapConfig().setStatisticsEnabled(true), ss);
+        storage = new OpenAddressingStorage<>(InMemoryFormat.BINARY, ss);
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+    }
+
+    @Test
+    public void test_putAndGet() {
+        Data key = ss.toData("key");
+        Record record = recordFactory.newRecord("value");
+        record.setVersion(3);
+        record.setHits(7);
+        record.setTtl(5000);
+
+        storage.put(key, record);
+
+        Record stored = storage.get(ss.toData("key"));
+        assertEquals("value", ss.toObject(stored.getValue()));
+        assertEquals(3, stored.getVersion());
+        assertEquals(7, stored.getHits());
+        assertEquals(5000, stored.getTtl());
+        assertEquals(1, storage.size());
+        assertTrue(storage.containsKey(key));
+    }
+
+    @Test
+    public void test_updateRecordValue() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+        long costBefore = storage.getEntryCostEstimator().getEstimate();
+
+        storage.updateRecordValue(key, storage.get(key), "a much longer value");
+
+        assertEquals("a much longer value", ss.toObject(storage.get(key).getValue()));
+        assertTrue(storage.getEntryCostEstimator().getEstimate() > costBefore);
+    }
+
+    @Test
+    public void test_putExistingKey_replacesValue() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value1"));
+        storage.put(key, recordFactory.newRecord("value2"));
+
+        assertEquals(1, storage.size());
+        assertEquals("value2", ss.toObject(storage.get(key).getValue()));
+    }
+
+    @Test
+    public void test_removeRecord() {
+        Data key = ss.toData("key");
+        storage.put(key, recordFactory.newRecord("value"));
+
+        storage.removeRecord(key, storage.get(key));
+
+        assertNull(storage.get(key));
+        assertTrue(storage.isEmpty());
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void test_manyEntries() {
+        int count = 10000;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord("value-" + i));
+        }
+        for (int i = 0; i < count; i += 2) {
+            Data key = ss.toData(i);
+            storage.removeRecord(key, storage.get(key));
+        }
+
+        assertEquals(count / 2, storage.size());
+        for (int i = 0; i < count; i++) {
+            Record record = storage.get(ss.toData(i));
+            if (i % 2 == 0) {
+                assertNull(record);
+            } else {
+                assertEquals("value-" + i, ss.toObject(record.getValue()));
+            }
+        }
+    }
+
+    @Test
+    public void test_mutationTolerantIterator_removeAll() {
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Object> seen = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            seen.add(ss.toObject(entry.getKey()));
+            iterator.remove();
+        }
+
+        assertEquals(count, seen.size());
+        assertTrue(storage.isEmpty());
+    }
+
+    @Test
+    public void test_mutationTolerantIterator_removeEverySecond() {
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Object> seen = new HashSet<>();
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            Integer key = ss.toObject(entry.getKey());
+            seen.add(key);
+            if (key % 2 == 0) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(count, seen.size());
+        assertEquals(count / 2, storage.size());
+        for (int i = 1; i < count; i += 2) {
+            assertTrue(storage.containsKey(ss.toData(i)));
+        }
+    }
+
+    @Test
+    public void test_fetchEntries() {
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Object> seen = new HashSet<>();
+        IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        do {
+            MapEntriesWithCursor result = storage.fetchEntries(pointers, 100);
+            for (Map.Entry<Data, Data> entry : result.getBatch()) {
+                assertEquals(ss.toObject(entry.getKey()), (Object) ss.toObject(entry.getValue()));
+                seen.add(ss.toObject(entry.getKey()));
+            }
+            pointers = result.getIterationPointers();
+        } while (pointers[pointers.length - 1].getIndex() >= 0);
+
+        assertEquals(count, seen.size());
+    }
+
+    @Test
+    public void test_fetchKeys_whenResizedDuringIteration() {
+        int count = 100;
+        for (int i = 0; i < count; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        Set<Object> seen = new HashSet<>();
+        IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+        int added = count;
+        int fetched = 0;
+        do {
+            MapKeysWithCursor result = storage.fetchKeys(pointers, 10);
+            for (Data key : result.getBatch()) {
+                seen.add(ss.toObject(key));
+                fetched++;
+            }
+            pointers = result.getIterationPointers();
+            for (int i = 0; i < 50; i++) {
+                storage.put(ss.toData(added), recordFactory.newRecord(added));
+                added++;
+            }
+        } while (pointers[pointers.length - 1].getIndex() >= 0);
+
+        for (int i = 0; i < count; i++) {
+            assertTrue("missing key " + i, seen.contains(i));
+        }
+        assertEquals("duplicate keys returned", seen.size(), fetched);
+    }
+
+    @Test
+    public void test_getRandomSamples() {
+        for (int i = 0; i < 100; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        int sampled = 0;
+        for (EntryView entryView : storage.getRandomSamples(15)) {
+            Data key = storage.extractDataKeyFromLazy(entryView);
+            assertEquals(entryView.getKey(), entryView.getValue());
+            assertTrue(storage.containsKey(key));
+            sampled++;
+        }
+        assertEquals(15, sampled);
+    }
+
+    @Test
+    public void test_clear() {
+        for (int i = 0; i < 100; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        storage.clear(false);
+
+        assertTrue(storage.isEmpty());
+        assertFalse(storage.containsKey(ss.toData(1)));
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void test_churn() {
+        int count = 100;
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < count; i++) {
+                storage.put(ss.toData(round * count + i), recordFactory.newRecord(i));
+            }
+            for (int i = 0; i < count; i++) {
+                Data key = ss.toData(round * count + i);
+                storage.removeRecord(key, storage.get(key));
+            }
+        }
+        storage.put(ss.toData(-1), recordFactory.newRecord(-1));
+
+        assertEquals(1, storage.size());
+        assertTrue(storage.containsKey(ss.toData(-1)));
+        assertFalse(storage.containsKey(ss.toData(0)));
+    }
+
+    @Test
+    public void test_concurrentScanWhileWriting() throws Exception {
+        int stableCount = 1000;
+        for (int i = 0; i < stableCount; i++) {
+            storage.put(ss.toData(i), recordFactory.newRecord(i));
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            try {
+                for (int round = 0; round < 200; round++) {
+                    // churn on other keys, causing tombstones and table copies
+                    for (int i = 0; i < 500; i++) {
+                        storage.put(ss.toData(stableCount + round * 500 + i), recordFactory.newRecord(-1));
+                    }
+                    for (int i = 0; i < 500; i++) {
+                        Data key = ss.toData(stableCount + round * 500 + i);
+                        storage.removeRecord(key, storage.get(key));
+                    }
+                    // replace the records of the stable keys
+                    for (int i = 0; i < stableCount; i++) {
+                        storage.put(ss.toData(i), recordFactory.newRecord(i));
+                    }
+                }
+            } finally {
+                writing.set(false);
+            }
+        });
+        writer.start();
+
+        int scans = 0;
+        while (writing.get() || scans == 0) {
+            Set<Object> seen = new HashSet<>();
+            IterationPointer[] pointers = {new IterationPointer(Integer.MAX_VALUE, -1)};
+            do {
+                MapEntriesWithCursor result = storage.fetchEntries(pointers, 100);
+                for (Map.Entry<Data, Data> entry : result.getBatch()) {
+                    Integer key = ss.toObject(entry.getKey());
+                    Integer value = ss.toObject(entry.getValue());
+                    if (key < stableCount) {
+                        assertEquals(key, value);
+                        assertTrue("duplicate key " + key, seen.add(key));
+                    }
+                }
+                pointers = result.getIterationPointers();
+            } while (pointers[pointers.length - 1].getIndex() >= 0);
+            assertEquals(stableCount, seen.size());
+
+            for (int i = 0; i < stableCount; i += 7) {
+                Record record = storage.get(ss.toData(i));
+                assertEquals(i, (int) ss.toObject(record.getValue()));
+            }
+            scans++;
+        }
+        writer.join();
+
+        assertEquals(stableCount, storage.size());
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.CacheDeserializedValues;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.IMap;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class CoveringIndexTest extends HazelcastTestSupport {
+
+    private static final int COUNT = 100;
+
+    private IMap<Integer, Person> map;
+
+    @Before
+    public void before() {
+        Config config = getConfig();
+        // the values are deserialized for every query
+        config.getMapConfig("persons")
+              .setCacheDeserializedValues(CacheDeserializedValues.NEVER)
+              .addIndexConfig(new IndexConfig(IndexType.SORTED, "age").addIncludedAttribute("this.name"));
+        HazelcastInstance instance = createHazelcastInstance(config);
+
+        map = instance.getMap("persons");
+        for (int i = 0; i < COUNT; ++i) {
+            map.put(i, new Person("name" + i, i, "city" + i));
+        }
+        Person.DESERIALIZATIONS.set(0);
+    }
+
+    @Test
+    public void testCoveredProjection() {
+        Collection<Object[]> result = map.project(Projections.multiAttribute("name", "age"));
+
+        assertEquals(COUNT, result.size());
+        assertEquals(expected(0, COUNT), toSet(result));
+        assertEquals(0, Person.DESERIALIZATIONS.get());
+    }
+
+    @Test
+    public void testCoveredProjectionWithIndexedPredicate() {
+        Collection<String> result = map.project(Projections.singleAttribute("this.name"), Predicates.lessThan("age", 10));
+
+        assertEquals(10, result.size());
+        assertEquals(0, Person.DESERIALIZATIONS.get());
+    }
+
+    @Test
+    public void testCoveredProjectionWithCoveredPredicate() {
+        Collection<Object[]> result = map.project(Projections.multiAttribute("name", "age"),
+                Predicates.equal("name", "name5"));
+
+        assertEquals(expected(5, 6), toSet(result));
+        assertEquals(0, Person.DESERIALIZATIONS.get());
+    }
+
+    @Test
+    public void testCoveredProjectionAfterUpdate() {
+        map.put(5, new Person("updated", 5, "city"));
+        Person.DESERIALIZATIONS.set(0);
+
+        Collection<Object[]> result = map.project(Projections.multiAttribute("name", "age"), Predicates.equal("age", 5));
+
+        assertEquals(1, result.size());
+        assertEquals(asList("updated", 5), asList(result.iterator().next()));
+        assertEquals(0, Person.DESERIALIZATIONS.get());
+    }
+
+    @Test
+    public void testUncoveredProjection() {
+        Collection<Object[]> result = map.project(Projections.multiAttribute("name", "city"));
+
+        assertEquals(COUNT, result.size());
+        assertNotEquals(0, Person.DESERIALIZATIONS.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiValueIndexWithIncludedAttributes() {
+        map.addIndex(new IndexConfig(IndexType.SORTED, "cities[any]").addIncludedAttribute("name"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiValueIncludedAttribute() {
+        map.addIndex(new IndexConfig(IndexType.SORTED, "name").addIncludedAttribute("cities[any]"));
+    }
+
+    @Test
+    public void testReusedEntryDropsCoveredAttributes() {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+        Extractors extractors = Extractors.newBuilder(ss).build();
+        CachedQueryEntry<Integer, Person> entry = new CachedQueryEntry<>(ss, ss.toData(1),
+                new Person("name1", 1, "city1"), extractors);
+        entry.addCoveredAttributes(new String[]{"name"}, new Object[]{"name1"});
+
+        entry.init(ss, ss.toData(2), new Person("name2", 2, "city2"), extractors);
+
+        assertEquals("name2", entry.getAttributeValue("name"));
+    }
+
+    private static Set<String> expected(int from, int to) {
+        Set<String> expected = new HashSet<>();
+        for (int i = from; i < to; ++i) {
+            expected.add("name" + i + ":" + i);
+        }
+        return expected;
+    }
+
+    private static Set<String> toSet(Collection<Object[]> result) {
+        Set<String> set = new HashSet<>();
+        for (Object[] row : result) {
+            set.add(row[0] + ":" + row[1]);
+        }
+        return set;
+    }
+
+    public static class Person implements DataSerializable {
+
+        static final AtomicInteger DESERIALIZATIONS = new AtomicInteger();
+
+        private String name;
+        private int age;
+        private String city;
+
+        public Person() {
+        }
+
+        Person(String name, int age, String city) {
+            this.name = name;
+            this.age = age;
+            this.city = city;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        @Override
+        public void writeData(ObjectDataOutput out) throws IOException {
+            out.writeUTF(name);
+            out.writeInt(age);
+            out.writeUTF(city);
+        }
+
+        @Override
+        public void readData(ObjectDataInput in) throws IOException {
+            DESERIALIZATIONS.incrementAndGet();
+            name = in.readUTF();
+            age = in.readInt();
+            city = in.readUTF();
+        }
+    }
+
+}
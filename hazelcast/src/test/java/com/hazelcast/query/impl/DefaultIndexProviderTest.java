@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.IndexType;
+import com.hazelcast.internal.monitor.impl.MemberPartitionStateImpl;
+import com.hazelcast.internal.monitor.impl.PerIndexStats;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertThat;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class DefaultIndexProviderTest {
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final Extractors extractors = Extractors.newBuilder(ss).build();
+
+    @Test
+    public void testSortedIndexStore_whenPrimitiveSortedIndexDisabled() {
+        DefaultIndexProvider provider = new DefaultIndexProvider();
+
+        assertThat(createIndex(provider, IndexType.SORTED, "a").indexStore, instanceOf(OrderedIndexStore.class));
+    }
+
+    @Test
+    public void testSortedIndexStore_whenPrimitiveSortedIndexEnabled() {
+        DefaultIndexProvider provider = new DefaultIndexProvider(false, true);
+
+        assertThat(createIndex(provider, IndexType.SORTED, "a").indexStore, instanceOf(PrimitiveOrderedIndexStore.class));
+        assertThat(createIndex(provider, IndexType.SORTED, "a", "b").indexStore, instanceOf(OrderedIndexStore.class));
+        assertThat(createIndex(provider, IndexType.HASH, "a").indexStore, instanceOf(UnorderedIndexStore.class));
+    }
+
+    private AbstractIndex createIndex(DefaultIndexProvider provider, IndexType type, String... attributes) {
+        return (AbstractIndex) provider.createIndex(IndexUtils.createTestIndexConfig(type, attributes), extractors, ss,
+                IndexCopyBehavior.COPY_ON_READ, PerIndexStats.EMPTY, MemberPartitionStateImpl.DEFAULT_PARTITION_COUNT);
+    }
+}
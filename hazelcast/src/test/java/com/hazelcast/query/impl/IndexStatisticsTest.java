@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.query.impl.getters.MultiResult;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.query.impl.IndexStatistics.SAMPLE_SIZE;
+import static com.hazelcast.query.impl.IndexStatistics.UNKNOWN_SELECTIVITY;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class IndexStatisticsTest {
+
+    private static final double DELTA = 0.05;
+
+    private final IndexStatistics statistics = new IndexStatistics();
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, statistics.getEntryCount());
+        assertEquals(0, statistics.estimateEqualSelectivity(1), 0);
+        assertEquals(0, statistics.estimateRangeSelectivity(1, true, null, false), 0);
+    }
+
+    @Test
+    public void testEntryCount() {
+        for (int i = 0; i < 10; ++i) {
+            statistics.onInsert(i);
+        }
+        statistics.onUpdate(3);
+        statistics.onRemove();
+        assertEquals(9, statistics.getEntryCount());
+
+        statistics.clear();
+        assertEquals(0, statistics.getEntryCount());
+        assertEquals(0, statistics.estimateEqualSelectivity(1), 0);
+    }
+
+    @Test
+    public void testEqualSelectivity_lowCardinality() {
+        for (int i = 0; i < SAMPLE_SIZE * 10; ++i) {
+            statistics.onInsert(i % 4);
+        }
+
+        assertEquals(0.25, statistics.estimateEqualSelectivity(1), DELTA);
+        assertEquals(0.25, statistics.estimateEqualSelectivity(2L), DELTA);
+        assertEquals(0.25, statistics.estimateEqualSelectivity(5), DELTA);
+        assertEquals(UNKNOWN_SELECTIVITY, statistics.estimateEqualSelectivity(AbstractIndex.NULL), 0);
+    }
+
+    @Test
+    public void testEqualSelectivity_unique() {
+        int count = SAMPLE_SIZE * 100;
+        for (int i = 0; i < count; ++i) {
+            statistics.onInsert("value" + i);
+        }
+
+        assertEquals(1.0 / count, statistics.estimateEqualSelectivity("missing"), 1.0 / count);
+    }
+
+    @Test
+    public void testRangeSelectivity() {
+        for (int i = 0; i < SAMPLE_SIZE * 10; ++i) {
+            statistics.onInsert(i % 100);
+        }
+
+        assertEquals(0.1, statistics.estimateRangeSelectivity(null, false, 10, false), DELTA);
+        assertEquals(0.5, statistics.estimateRangeSelectivity(25, true, 75, false), DELTA);
+        assertEquals(0.9, statistics.estimateRangeSelectivity(10.0, true, null, false), DELTA);
+        assertEquals(0, statistics.estimateRangeSelectivity(200, true, null, false), DELTA);
+        assertEquals(1, statistics.estimateRangeSelectivity(null, false, null, false), DELTA);
+    }
+
+    @Test
+    public void testMultiValues() {
+        for (int i = 0; i < 100; ++i) {
+            MultiResult<Integer> value = new MultiResult<>();
+            value.add(i);
+            value.add(i + 100);
+            statistics.onInsert(value);
+        }
+
+        assertEquals(100, statistics.getEntryCount());
+        assertEquals(0.5, statistics.estimateRangeSelectivity(100, true, null, false), DELTA);
+    }
+
+    @Test
+    public void testIncomparableValues() {
+        for (Comparable value : asList(1, "a", 2, "b")) {
+            statistics.onInsert(value);
+        }
+
+        assertEquals(0.25, statistics.estimateEqualSelectivity("a"), 0);
+        assertEquals(UNKNOWN_SELECTIVITY, statistics.estimateRangeSelectivity(1, true, null, false), 0);
+    }
+
+}
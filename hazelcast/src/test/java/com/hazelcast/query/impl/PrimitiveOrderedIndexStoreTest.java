@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static com.hazelcast.internal.monitor.impl.IndexOperationStats.EMPTY;
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class PrimitiveOrderedIndexStoreTest {
+
+    private static final int KEY_COUNT = 500;
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final PrimitiveOrderedIndexStore store = new PrimitiveOrderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+    private final OrderedIndexStore expected = new OrderedIndexStore(IndexCopyBehavior.COPY_ON_READ);
+    private final Map<Integer, QueryableEntry> entries = new HashMap<>();
+    private final Map<Integer, Object> values = new HashMap<>();
+    private final Random random = new Random(42);
+
+    @Test
+    public void testIntegralValues() {
+        update(i -> i % 3 == 0 ? (Comparable) (long) i : (Comparable) i);
+        assertSameRecords(-1, 0L, 7, 100L, 250, 499L, 1000, 5.5, 7.0, Long.MIN_VALUE, Long.MAX_VALUE, NULL);
+    }
+
+    @Test
+    public void testFloatingPointValues() {
+        update(i -> i % 5 == 0 ? (Comparable) (float) i : (Comparable) (i / 4.0));
+        put(KEY_COUNT, -0.0);
+        put(KEY_COUNT + 1, 0.0);
+        put(KEY_COUNT + 2, Double.NaN);
+        put(KEY_COUNT + 3, Double.NEGATIVE_INFINITY);
+        assertSameRecords(-1.5, -0.0, 0.0, 0L, 2.25, 10L, 10.0f, 60L, 1L << 60, Double.NaN, Double.POSITIVE_INFINITY, NULL);
+    }
+
+    @Test
+    public void testDateValues() {
+        update(i -> i % 2 == 0 ? new Date(i * 1000L) : new java.sql.Date(i * 1000L));
+        assertSameRecords(new Date(0), new Date(7000), new java.sql.Date(100500), new java.sql.Timestamp(200000),
+                new Date(Long.MAX_VALUE), NULL);
+    }
+
+    @Test
+    public void testValuesOfAnotherType_switchToFallbackStore() {
+        update(i -> (long) i);
+        for (int i = 0; i < KEY_COUNT; i += 7) {
+            put(i, i + 0.5);
+        }
+        assertSameRecords(-1, 0L, 7.5, 100L, 250, 1000, NULL);
+
+        update(i -> (long) i);
+        assertSameRecords(-1, 0L, 7.5, 100L, 250, 1000, NULL);
+    }
+
+    @Test
+    public void testNonNumericValues_useFallbackStore() {
+        update(i -> "value-" + i);
+        assertSameRecords("value-1", "value-25", "value-9", "x", NULL);
+    }
+
+    @Test
+    public void testClear() {
+        update(i -> "value-" + i);
+        store.clear();
+        expected.clear();
+        entries.clear();
+        values.clear();
+
+        update(i -> i);
+        assertSameRecords(0, 7, 100L, NULL);
+    }
+
+    @Test
+    public void testSqlIterator_isWeaklyConsistent() {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            put(i, (long) i);
+        }
+
+        Iterator<QueryableEntry> iterator = store.getSqlRecordIterator(Comparison.GREATER_OR_EQUAL, 0L);
+        List<Long> iterated = new ArrayList<>();
+        while (iterator.hasNext()) {
+            iterated.add((long) keyOf(iterator.next()));
+            if (iterated.size() == 1) {
+                for (int i = 0; i < KEY_COUNT; i += 2) {
+                    remove(i);
+                }
+            }
+        }
+
+        // the removed entries not iterated yet are skipped
+        assertTrue(iterated.size() < KEY_COUNT);
+        List<Long> odd = new ArrayList<>();
+        for (int i = 1; i < iterated.size(); i++) {
+            assertTrue(iterated.get(i - 1) < iterated.get(i));
+            if (iterated.get(i) % 2 == 1) {
+                odd.add(iterated.get(i));
+            }
+        }
+        assertEquals(KEY_COUNT / 2, odd.size());
+    }
+
+    private void update(IntFunction<Comparable> valueFunction) {
+        for (int i = 0; i < 4 * KEY_COUNT; i++) {
+            int key = random.nextInt(KEY_COUNT);
+            int operation = random.nextInt(10);
+            if (operation == 0) {
+                remove(key);
+            } else if (operation == 1) {
+                put(key, null);
+            } else {
+                put(key, valueFunction.apply(random.nextInt(KEY_COUNT)));
+            }
+        }
+    }
+
+    private void put(int key, Object value) {
+        QueryableEntry entry = entries.computeIfAbsent(key, this::newEntry);
+        boolean present = values.containsKey(key);
+        Object oldValue = values.put(key, value);
+        if (!present) {
+            store.insert(value, entry, EMPTY);
+            expected.insert(value, entry, EMPTY);
+        } else {
+            store.update(oldValue, value, entry, EMPTY);
+            expected.update(oldValue, value, entry, EMPTY);
+        }
+    }
+
+    private void remove(int key) {
+        if (values.containsKey(key)) {
+            Object value = values.remove(key);
+            store.remove(value, entries.get(key).getKeyData(), null, EMPTY);
+            expected.remove(value, entries.get(key).getKeyData(), null, EMPTY);
+        }
+    }
+
+    private QueryableEntry newEntry(int key) {
+        QueryableEntry entry = mock(QueryableEntry.class);
+        Data keyData = serializationService.toData(key);
+        when(entry.getKeyData()).thenReturn(keyData);
+        return entry;
+    }
+
+    private int keyOf(QueryableEntry entry) {
+        return serializationService.toObject(entry.getKeyData());
+    }
+
+    private Object valueOf(QueryableEntry entry) {
+        return values.get(keyOf(entry));
+    }
+
+    private void assertSameRecords(Comparable... arguments) {
+        assertEquals(new HashSet<>(expected.getRecords(new HashSet<>(asList(arguments)))),
+                new HashSet<>(store.getRecords(new HashSet<>(asList(arguments)))));
+        assertSameIteration(expected.getSqlRecordIterator(), store.getSqlRecordIterator());
+        for (Comparable argument : arguments) {
+            assertEquals(new HashSet<>(expected.getRecords(argument)), new HashSet<>(store.getRecords(argument)));
+            assertSameIteration(expected.getSqlRecordIterator(argument), store.getSqlRecordIterator(argument));
+            if (argument == NULL) {
+                continue;
+            }
+            for (Comparison comparison : Comparison.values()) {
+                assertEquals(new HashSet<>(expected.getRecords(comparison, argument)),
+                        new HashSet<>(store.getRecords(comparison, argument)));
+                assertSameIteration(expected.getSqlRecordIterator(comparison, argument),
+                        store.getSqlRecordIterator(comparison, argument));
+            }
+            for (Comparable to : arguments) {
+                if (to != NULL) {
+                    assertSameRange(argument, to);
+                }
+            }
+        }
+    }
+
+    private void assertSameRange(Comparable from, Comparable to) {
+        for (boolean fromInclusive : new boolean[]{false, true}) {
+            for (boolean toInclusive : new boolean[]{false, true}) {
+                assertEquals(new HashSet<>(expected.getRecords(from, fromInclusive, to, toInclusive)),
+                        new HashSet<>(store.getRecords(from, fromInclusive, to, toInclusive)));
+                assertSameIteration(expected.getSqlRecordIterator(from, fromInclusive, to, toInclusive),
+                        store.getSqlRecordIterator(from, fromInclusive, to, toInclusive));
+            }
+        }
+    }
+
+    private void assertSameIteration(Iterator<QueryableEntry> expectedIterator, Iterator<QueryableEntry> iterator) {
+        List<QueryableEntry> expectedEntries = new ArrayList<>();
+        expectedIterator.forEachRemaining(expectedEntries::add);
+        List<QueryableEntry> actualEntries = new ArrayList<>();
+        iterator.forEachRemaining(actualEntries::add);
+
+        // the entries having the same value may be iterated in any order
+        assertEquals(new HashSet<>(expectedEntries), new HashSet<>(actualEntries));
+        assertEquals(toValues(expectedEntries), toValues(actualEntries));
+    }
+
+    private List<Object> toValues(List<QueryableEntry> entries) {
+        List<Object> result = new ArrayList<>();
+        for (QueryableEntry entry : entries) {
+            Object value = valueOf(entry);
+            result.add(value instanceof Number ? ((Number) value).doubleValue() : value);
+        }
+        return result;
+    }
+}
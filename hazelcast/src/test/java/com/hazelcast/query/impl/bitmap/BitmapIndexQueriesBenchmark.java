@@ -132,6 +132,18 @@ public class BitmapIndexQueriesBenchmark {
         personsHash.entrySet(not(equal("habits[any]", random.nextInt(DOMAIN))));
     }
 
+    @Benchmark
+    public void bitmapQueriesAndNot() {
+        personsBitmap.entrySet(
+                and(equal("habits[any]", random.nextInt(DOMAIN)), not(equal("habits[any]", random.nextInt(DOMAIN)))));
+    }
+
+    @Benchmark
+    public void hashQueriesAndNot() {
+        personsHash.entrySet(
+                and(equal("habits[any]", random.nextInt(DOMAIN)), not(equal("habits[any]", random.nextInt(DOMAIN)))));
+    }
+
     public static void main(String[] args) throws RunnerException {
         // @formatter:off
         Options opt = new OptionsBuilder()
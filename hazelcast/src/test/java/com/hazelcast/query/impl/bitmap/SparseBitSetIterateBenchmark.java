@@ -38,9 +38,11 @@ public class SparseBitSetIterateBenchmark {
     private static final long MEMBER_MASK = 0x00000000000FFFFFL;
 
     private final SparseBitSet bitSet = new SparseBitSet();
+    private final SparseBitSet runBitSet = new SparseBitSet();
     private final Roaring64NavigableMap roaringBitmap = new Roaring64NavigableMap();
 
     private AscendingLongIterator iterator;
+    private AscendingLongIterator runIterator;
     private LongIterator iteratorRoaring;
 
     @Setup
@@ -52,6 +54,12 @@ public class SparseBitSetIterateBenchmark {
         }
         iterator = bitSet.iterator();
 
+        // consecutive members stored as runs
+        for (int i = 0; i < SIZE; ++i) {
+            runBitSet.add(i);
+        }
+        runIterator = runBitSet.iterator();
+
         random = new Random(404);
         for (int i = 0; i < SIZE; ++i) {
             long v = random.nextLong() & MEMBER_MASK;
@@ -73,6 +81,16 @@ public class SparseBitSetIterateBenchmark {
         return member;
     }
 
+    @Benchmark
+    public long iterateRuns() {
+        long member = runIterator.advance();
+        if (member == AscendingLongIterator.END) {
+            runIterator = runBitSet.iterator();
+            member = runIterator.advance();
+        }
+        return member;
+    }
+
     @Benchmark
     public long iterateRoaring() {
         if (!iteratorRoaring.hasNext()) {
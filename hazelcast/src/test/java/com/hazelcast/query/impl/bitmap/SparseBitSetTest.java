@@ -29,6 +29,7 @@ import java.util.TreeSet;
 
 import static com.hazelcast.query.impl.bitmap.SparseBitSet.ARRAY_STORAGE_16_MAX_SIZE;
 import static com.hazelcast.query.impl.bitmap.SparseBitSet.ARRAY_STORAGE_32_MAX_SIZE;
+import static com.hazelcast.query.impl.bitmap.SparseBitSet.RUN_STORAGE_16_MAX_RUNS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
@@ -264,6 +265,134 @@ public class SparseBitSetTest {
         }
     }
 
+    @Test
+    public void testRemoveWithStorage16DowngradeWithoutRuns() {
+        for (long i = 555; i < 555 + (ARRAY_STORAGE_16_MAX_SIZE + 10) * 2; i += 2) {
+            set(i);
+            verify();
+        }
+        for (long i = 555; i < 555 + (ARRAY_STORAGE_16_MAX_SIZE + 10) * 2; i += 2) {
+            clear(i);
+            verify();
+        }
+    }
+
+    @Test
+    public void testRunStorage16() {
+        // runs of 10 members separated by gaps of 5
+        for (long i = 0; i < 3 * Short.MAX_VALUE; ++i) {
+            if (i % 15 < 10) {
+                set(i);
+            }
+            if (i % 100 == 0) {
+                verify();
+            }
+        }
+        verify();
+        verifyAdvanceAtLeastTo();
+
+        // join the runs
+        for (long i = 0; i < 3 * Short.MAX_VALUE; ++i) {
+            set(i);
+            if (i % 100 == 0) {
+                verify();
+            }
+        }
+        verify();
+        verifyAdvanceAtLeastTo();
+
+        // split the runs into more runs than a run storage may have
+        for (long i = 1; i < 3 * Short.MAX_VALUE; i += 3) {
+            clear(i);
+            if (i % 100 == 1) {
+                verify();
+            }
+        }
+        verify();
+        verifyAdvanceAtLeastTo();
+
+        // make the members too sparse for a run storage
+        for (long i = 0; i < 3 * Short.MAX_VALUE; i += 3) {
+            clear(i);
+            if (i % 100 == 0) {
+                verify();
+            }
+        }
+        verify();
+        verifyAdvanceAtLeastTo();
+
+        for (long i = 2; i < 3 * Short.MAX_VALUE; i += 3) {
+            clear(i);
+            if (i % 100 == 2) {
+                verify();
+            }
+        }
+        verify();
+    }
+
+    @Test
+    public void testRunStorage16Edges() {
+        for (long i = Short.MAX_VALUE * 2 - 10; i <= Short.MAX_VALUE * 2 + 1; ++i) {
+            set(i);
+        }
+        for (long i = 0; i < ARRAY_STORAGE_16_MAX_SIZE; ++i) {
+            set(i);
+        }
+        verify();
+        verifyAdvanceAtLeastTo();
+
+        clear(0);
+        clear(Short.MAX_VALUE * 2 + 1);
+        clear(Short.MAX_VALUE * 2);
+        verify();
+        verifyAdvanceAtLeastTo();
+
+        for (long i = ARRAY_STORAGE_16_MAX_SIZE - 1; i >= 0; --i) {
+            clear(i);
+            verify();
+        }
+    }
+
+    @Test
+    public void testRunStorage16AtMaxRunsAndMaxArraySize() {
+        // the maximum number of runs having 4 members each
+        for (long i = 0; i < RUN_STORAGE_16_MAX_RUNS; ++i) {
+            for (long j = 0; j < 4; ++j) {
+                set(i * 8 + j);
+            }
+        }
+        verify();
+
+        // a new run, neither the run nor the array storage may take it
+        set(9000);
+        verify();
+        verifyAdvanceAtLeastTo();
+    }
+
+    @Test
+    public void testRunStorage16AtMaxRunsDowngradedToArray() {
+        // the maximum number of runs having 3 members each
+        for (long i = 0; i < RUN_STORAGE_16_MAX_RUNS; ++i) {
+            for (long j = 0; j < 3; ++j) {
+                set(i * 8 + j);
+            }
+        }
+        verify();
+
+        // a new run doesn't fit into the runs
+        set(9000);
+        verify();
+        set(9002);
+        verify();
+
+        // splitting a run doesn't fit into the runs either
+        clear(1);
+        verify();
+        set(1);
+        verify();
+        verifyAdvanceAtLeastTo();
+    }
+
     @Test
     public void testIteratorAdvanceAtLeastTo() {
         // try empty set
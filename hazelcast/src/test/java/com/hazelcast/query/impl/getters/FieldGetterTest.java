@@ -379,6 +379,22 @@ public class FieldGetterTest {
         assertEquals(Limb[].class, returnType);
     }
 
+    @Test
+    public void getValue_whenNoModifier_thenReturnTheFieldValue() throws Exception {
+        Field field = Body.class.getDeclaredField("name");
+        FieldGetter getter = new FieldGetter(null, field, null, null);
+
+        assertEquals("bodyName", getter.getValue(body));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getValue_whenTargetIsNotInstanceOfDeclaringClass_thenThrowIllegalArgumentException() throws Exception {
+        Field field = Body.class.getDeclaredField("name");
+        FieldGetter getter = new FieldGetter(null, field, null, null);
+
+        getter.getValue(leg);
+    }
+
     private void assertContainsInAnyOrder(MultiResult multiResult, Object... items) {
         List results = multiResult.getResults();
         if (results.size() != items.length) {
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.getters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the reflective reads of the attribute values with the getters
+ * reading them through method handles.
+ */
+@State(Scope.Benchmark)
+public class GetterBenchmark {
+
+    private final Person person = new Person();
+
+    private Field ageField;
+    private Method nameMethod;
+    private Method addressMethod;
+    private Method cityMethod;
+
+    private Getter ageGetter;
+    private Getter nameGetter;
+    private Getter cityGetter;
+    private Getter anyStreetGetter;
+
+    @Setup
+    public void setup() throws Exception {
+        ageField = Person.class.getDeclaredField("age");
+        ageField.setAccessible(true);
+        nameMethod = Person.class.getMethod("getName");
+        addressMethod = Person.class.getMethod("getAddress");
+        cityMethod = Address.class.getMethod("getCity");
+
+        ageGetter = ReflectionHelper.createGetter(person, "age");
+        nameGetter = ReflectionHelper.createGetter(person, "name");
+        cityGetter = ReflectionHelper.createGetter(person, "address.city");
+        anyStreetGetter = ReflectionHelper.createGetter(person, "previousAddresses[any].street");
+    }
+
+    @Benchmark
+    public Object reflectiveField() throws Exception {
+        return ageField.get(person);
+    }
+
+    @Benchmark
+    public Object getterField() throws Exception {
+        return ageGetter.getValue(person);
+    }
+
+    @Benchmark
+    public Object reflectiveMethod() throws Exception {
+        return nameMethod.invoke(person);
+    }
+
+    @Benchmark
+    public Object getterMethod() throws Exception {
+        return nameGetter.getValue(person);
+    }
+
+    @Benchmark
+    public Object reflectiveNestedPath() throws Exception {
+        return cityMethod.invoke(addressMethod.invoke(person));
+    }
+
+    @Benchmark
+    public Object getterNestedPath() throws Exception {
+        return cityGetter.getValue(person);
+    }
+
+    @Benchmark
+    public Object getterAnyPath() throws Exception {
+        return anyStreetGetter.getValue(person);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // @formatter:off
+        Options opt = new OptionsBuilder()
+                .include(GetterBenchmark.class.getSimpleName())
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .threads(1)
+                .build();
+        // @formatter:on
+
+        new Runner(opt).run();
+    }
+
+    @SuppressWarnings("unused")
+    public static class Person {
+
+        private final int age = 42;
+        private final Address address = new Address("Sesame Street", "New York");
+        private final List<Address> previousAddresses = new ArrayList<>();
+
+        Person() {
+            previousAddresses.add(new Address("Baker Street", "London"));
+            previousAddresses.add(new Address("Wall Street", "New York"));
+        }
+
+        public String getName() {
+            return "John";
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public List<Address> getPreviousAddresses() {
+            return previousAddresses;
+        }
+
+    }
+
+    @SuppressWarnings("unused")
+    public static class Address {
+
+        private final String street;
+        private final String city;
+
+        Address(String street, String city) {
+            this.street = street;
+            this.city = city;
+        }
+
+        public String getStreet() {
+            return street;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+    }
+
+}
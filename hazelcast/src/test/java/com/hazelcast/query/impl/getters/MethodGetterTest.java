@@ -24,6 +24,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
@@ -258,6 +259,35 @@ public class MethodGetterTest {
         assertEquals(Limb[].class, returnType);
     }
 
+    @Test
+    public void getValue_whenNoModifier_thenReturnTheMethodResult() throws Exception {
+        Method method = Body.class.getMethod("getName");
+        MethodGetter getter = new MethodGetter(null, method, null, null);
+
+        assertEquals("bodyName", getter.getValue(body));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getValue_whenTargetIsNotInstanceOfDeclaringClass_thenThrowIllegalArgumentException() throws Exception {
+        Method method = Body.class.getMethod("getName");
+        MethodGetter getter = new MethodGetter(null, method, null, null);
+
+        getter.getValue(leg);
+    }
+
+    @Test
+    public void getValue_whenMethodThrows_thenThrowInvocationTargetException() throws Exception {
+        Method method = Body.class.getMethod("getFailure");
+        MethodGetter getter = new MethodGetter(null, method, null, null);
+
+        try {
+            getter.getValue(body);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertEquals(IllegalStateException.class, e.getCause().getClass());
+        }
+    }
+
     private void assertContainsInAnyOrder(MultiResult multiResult, Object... items) {
         List results = multiResult.getResults();
         if (results.size() != items.length) {
@@ -293,6 +323,10 @@ public class MethodGetterTest {
         public Limb[] getLimbArray() {
             return limbArray;
         }
+
+        public String getFailure() {
+            throw new IllegalStateException();
+        }
     }
 
     @SuppressWarnings("unused")
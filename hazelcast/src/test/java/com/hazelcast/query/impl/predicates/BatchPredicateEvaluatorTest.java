@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SampleTestObjects.Employee;
+import com.hazelcast.query.SampleTestObjects.State;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.instance.impl.TestUtil.toData;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.in;
+import static com.hazelcast.query.Predicates.lessEqual;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.query.Predicates.like;
+import static com.hazelcast.query.Predicates.not;
+import static com.hazelcast.query.Predicates.or;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class BatchPredicateEvaluatorTest {
+
+    private static final int ENTRY_COUNT = 1000;
+    private static final int BATCH_SIZE = 64;
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final List<QueryableEntry> entries = new ArrayList<>();
+
+    @Before
+    public void before() {
+        Extractors extractors = Extractors.newBuilder(serializationService).build();
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            String city = i % 7 == 0 ? null : "city" + i % 10;
+            State state = i % 3 == 0 ? State.STATE1 : State.STATE2;
+            Employee employee = new Employee(i, "name" + i, city, i % 100, i % 2 == 0, i / 4.0);
+            employee.setState(state);
+            entries.add(new QueryEntry(serializationService, toData(i), employee, extractors));
+        }
+    }
+
+    @Test
+    public void testComparisons() {
+        assertSameResult(equal("age", 42));
+        assertSameResult(equal("age", "42"));
+        assertSameResult(equal("id", 42L));
+        assertSameResult(equal("salary", 10.25));
+        assertSameResult(greaterThan("age", 50));
+        assertSameResult(greaterEqual("age", 50));
+        assertSameResult(lessThan("salary", 100));
+        assertSameResult(lessEqual("salary", 100.0));
+        assertSameResult(between("age", 10, 20));
+        assertSameResult(between("salary", 2.5, 7.75));
+        assertSameResult(in("age", 1, 5, 17, 99));
+        assertSameResult(in("age", 1, "5", null));
+        assertSameResult(in("salary", 1, 2.5, 3.0));
+    }
+
+    @Test
+    public void testNonNumericAndNullValues() {
+        assertSameResult(equal("city", "city3"));
+        assertSameResult(equal("city", null));
+        assertSameResult(greaterThan("city", "city5"));
+        assertSameResult(in("city", "city1", null));
+        assertSameResult(equal("state", State.STATE1));
+        assertSameResult(equal("name", "name7"));
+    }
+
+    @Test
+    public void testCompoundPredicates() {
+        assertSameResult(and(greaterThan("age", 10), lessThan("age", 20), equal("active", true)));
+        assertSameResult(or(equal("age", 1), between("salary", 10, 20), equal("city", "city4")));
+        assertSameResult(not(in("age", 1, 2, 3)));
+        assertSameResult(and(or(equal("age", 5), equal("age", 6)), not(equal("city", null))));
+        assertSameResult(or(like("name", "name1%"), and(greaterEqual("id", 900L), like("name", "%5"))));
+    }
+
+    @Test
+    public void testWrappedPredicates() {
+        assertSameResult(new SkipIndexPredicate(equal("age", 42)));
+        assertSameResult(new SqlPredicate("age > 10 and salary < 50 or city = 'city2'"));
+        assertSameResult(Predicates.pagingPredicate(between("age", 1, 3), 10));
+    }
+
+    @Test
+    public void testNothingToEvaluateColumnWise() {
+        assertNull(BatchPredicateEvaluator.create(like("name", "name1%")));
+        assertNull(BatchPredicateEvaluator.create(Predicates.alwaysTrue()));
+        assertNull(BatchPredicateEvaluator.create(Predicates.pagingPredicate(10)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertSameResult(Predicate predicate) {
+        BatchPredicateEvaluator evaluator = BatchPredicateEvaluator.create(predicate);
+        assertNotNull(evaluator);
+
+        QueryableEntry[] batch = new QueryableEntry[BATCH_SIZE];
+        int[] selection = new int[BATCH_SIZE];
+        for (int offset = 0; offset < ENTRY_COUNT; offset += BATCH_SIZE) {
+            int size = Math.min(BATCH_SIZE, ENTRY_COUNT - offset);
+            List<QueryableEntry> expected = new ArrayList<>();
+            for (int i = 0; i < size; ++i) {
+                QueryableEntry entry = entries.get(offset + i);
+                batch[i] = entry;
+                if (predicate.apply(entry)) {
+                    expected.add(entry);
+                }
+            }
+
+            int selected = evaluator.evaluate(batch, size, selection);
+            List<QueryableEntry> actual = new ArrayList<>();
+            for (int i = 0; i < selected; ++i) {
+                actual.add(batch[selection[i]]);
+            }
+            assertEquals(predicate.toString(), expected, actual);
+        }
+    }
+
+}
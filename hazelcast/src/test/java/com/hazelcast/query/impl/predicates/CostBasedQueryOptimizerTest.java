@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.config.IndexType;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.SampleTestObjects.Employee;
+import com.hazelcast.query.impl.DefaultIndexProvider;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexCopyBehavior;
+import com.hazelcast.query.impl.IndexUtils;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.hazelcast.config.MapConfig.DEFAULT_IN_MEMORY_FORMAT;
+import static com.hazelcast.instance.impl.TestUtil.toData;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.query.impl.Indexes.SKIP_PARTITIONS_COUNT_CHECK;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class CostBasedQueryOptimizerTest {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private final CostBasedQueryOptimizer optimizer = new CostBasedQueryOptimizer();
+    private final List<QueryableEntry> entries = new ArrayList<>();
+
+    private Indexes indexes;
+
+    @Before
+    public void before() {
+        indexes = Indexes.newBuilder(serializationService, IndexCopyBehavior.COPY_ON_READ, DEFAULT_IN_MEMORY_FORMAT)
+                .indexProvider(new DefaultIndexProvider(true)).build();
+        indexes.addOrGetIndex(IndexUtils.createTestIndexConfig(IndexType.HASH, "name"));
+        indexes.addOrGetIndex(IndexUtils.createTestIndexConfig(IndexType.HASH, "active"));
+        indexes.addOrGetIndex(IndexUtils.createTestIndexConfig(IndexType.SORTED, "age"));
+        indexes.addOrGetIndex(IndexUtils.createTestIndexConfig(IndexType.SORTED, "salary"));
+
+        Extractors extractors = Extractors.newBuilder(serializationService).build();
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            Employee employee = new Employee(i, "name" + i, i % 100, i % 2 == 0, i);
+            QueryEntry entry = new QueryEntry(serializationService, toData(i), employee, extractors);
+            indexes.putEntry(entry, null, Index.OperationSource.USER);
+            entries.add(entry);
+        }
+    }
+
+    @Test
+    public void testMostSelectiveConjunctDrivesQuery() {
+        Predicate name = equal("name", "name500");
+        Predicate age = greaterEqual("age", 10);
+        Predicate active = equal("active", true);
+
+        AndPredicate optimized = (AndPredicate) optimizer.optimize(and(age, active, name), indexes);
+
+        assertSame(name, optimized.predicates[0]);
+        assertSkipIndex(active, optimized.predicates[1]);
+        assertSkipIndex(age, optimized.predicates[2]);
+        assertResult(and(age, active, name), optimized);
+    }
+
+    @Test
+    public void testUnindexedConjunctsAreRetained() {
+        Predicate unindexed = equal("city", "London");
+        Predicate age = lessThan("age", 5);
+        Predicate active = equal("active", true);
+
+        AndPredicate optimized = (AndPredicate) optimizer.optimize(and(unindexed, active, age), indexes);
+
+        assertSame(age, optimized.predicates[0]);
+        assertSkipIndex(active, optimized.predicates[1]);
+        assertSame(unindexed, optimized.predicates[2]);
+    }
+
+    @Test
+    public void testScanWhenNoConjunctIsSelective() {
+        Predicate age = greaterEqual("age", 5);
+        Predicate salary = greaterEqual("salary", 10);
+
+        AndPredicate optimized = (AndPredicate) optimizer.optimize(and(salary, age), indexes);
+
+        assertSkipIndex(age, optimized.predicates[0]);
+        assertSkipIndex(salary, optimized.predicates[1]);
+        assertNull(indexes.query(optimized, SKIP_PARTITIONS_COUNT_CHECK));
+        assertResult(and(age, salary), optimized);
+    }
+
+    @Test
+    public void testSingleIndexedPredicate() {
+        Predicate selective = lessThan("salary", 10);
+        assertSame(selective, optimizer.optimize(selective, indexes));
+
+        Predicate unselective = greaterEqual("salary", 10);
+        assertSkipIndex(unselective, optimizer.optimize(unselective, indexes));
+    }
+
+    @Test
+    public void testEmptyIndexes() {
+        indexes.clearAll();
+
+        Predicate predicate = and(greaterEqual("age", 5), equal("active", true));
+        Predicate optimized = optimizer.optimize(predicate, indexes);
+
+        assertThat(optimized, instanceOf(AndPredicate.class));
+        assertFalse(indexes.query(optimized, SKIP_PARTITIONS_COUNT_CHECK).iterator().hasNext());
+    }
+
+    @Test
+    public void testIndexesWithoutValueStatistics() {
+        Indexes indexes = Indexes.newBuilder(serializationService, IndexCopyBehavior.COPY_ON_READ, DEFAULT_IN_MEMORY_FORMAT)
+                .build();
+        InternalIndex index = indexes.addOrGetIndex(IndexUtils.createTestIndexConfig(IndexType.SORTED, "salary"));
+        for (QueryableEntry entry : entries) {
+            indexes.putEntry(entry, null, Index.OperationSource.USER);
+        }
+
+        assertNull(index.getStatistics());
+        Predicate unselective = greaterEqual("salary", 10);
+        assertSame(unselective, optimizer.optimize(unselective, indexes));
+    }
+
+    private static void assertSkipIndex(Predicate expected, Predicate actual) {
+        assertThat(actual, instanceOf(SkipIndexPredicate.class));
+        assertSame(expected, ((SkipIndexPredicate) actual).getTarget());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertResult(Predicate original, Predicate optimized) {
+        Set<QueryableEntry> expected = new HashSet<>();
+        for (QueryableEntry entry : entries) {
+            if (original.apply(entry)) {
+                expected.add(entry);
+            }
+        }
+
+        Iterable<QueryableEntry> indexed = indexes.query(optimized, SKIP_PARTITIONS_COUNT_CHECK);
+        Set<QueryableEntry> actual = new HashSet<>();
+        for (QueryableEntry entry : indexed == null ? entries : indexed) {
+            if (indexed != null || optimized.apply(entry)) {
+                actual.add(entry);
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+}
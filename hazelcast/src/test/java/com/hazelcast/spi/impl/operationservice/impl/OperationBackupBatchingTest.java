@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.server.OperationPacketFilter;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.test.Accessors.getOperationService;
+import static com.hazelcast.test.Accessors.getSerializationService;
+import static com.hazelcast.test.PacketFiltersUtil.getConnectionManager;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class OperationBackupBatchingTest extends HazelcastTestSupport {
+
+    private static final int KEY_COUNT = 20;
+
+    private String mapName;
+    private HazelcastInstance instance1;
+    private HazelcastInstance instance2;
+
+    @Before
+    public void setup() {
+        mapName = randomMapName();
+        Config config = getConfig()
+                .setProperty(ClusterProperty.OPERATION_BACKUP_BATCHING_ENABLED.getName(), "true");
+
+        HazelcastInstance[] instances = createHazelcastInstanceFactory(2).newInstances(config);
+        instance1 = instances[0];
+        instance2 = instances[1];
+        waitAllForSafeState(instances);
+    }
+
+    @Test
+    public void testBackups_areApplied() {
+        IMap<Integer, Integer> map = instance1.getMap(mapName);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        assertEquals(KEY_COUNT, getBackupEntryCount(instance1, mapName) + getBackupEntryCount(instance2, mapName));
+    }
+
+    @Test
+    public void testBackups_ofQueuedOperations_areAppliedAndAcknowledged() {
+        IMap<String, Integer> map = instance1.getMap(mapName);
+
+        putWhilePartitionThreadIsBlocked(map);
+
+        assertEquals(KEY_COUNT, getBackupEntryCount(instance2, mapName));
+    }
+
+    @Test
+    public void testBackups_ofQueuedOperations_areSentInSinglePacket() {
+        IMap<String, Integer> map = instance1.getMap(mapName);
+        AtomicInteger backupPackets = new AtomicInteger();
+        AtomicInteger backupBatchPackets = new AtomicInteger();
+        getConnectionManager(instance1).setPacketFilter(new OperationPacketFilter(getSerializationService(instance1)) {
+            @Override
+            protected Action filterOperation(Address endpoint, int factory, int type) {
+                if (factory == SpiDataSerializerHook.F_ID && type == SpiDataSerializerHook.BACKUP) {
+                    backupPackets.incrementAndGet();
+                } else if (factory == SpiDataSerializerHook.F_ID && type == SpiDataSerializerHook.BACKUP_BATCH) {
+                    backupBatchPackets.incrementAndGet();
+                }
+                return Action.ALLOW;
+            }
+        });
+
+        putWhilePartitionThreadIsBlocked(map);
+
+        assertEquals(0, backupPackets.get());
+        assertEquals(1, backupBatchPackets.get());
+    }
+
+    @Test
+    public void testBackup_hasRecordStateOfItsOperation() {
+        IMap<String, Integer> map = instance1.getMap(mapName);
+        String key = generateKeyOwnedBy(instance1);
+        int partitionId = instance1.getPartitionService().getPartition(key).getPartitionId();
+        CountDownLatch latch = blockPartitionThread(partitionId);
+
+        // the gets update the hits of the record while the backup of the put is buffered
+        CompletionStage<Integer> put = map.putAsync(key, 1);
+        List<CompletionStage<Integer>> gets = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            gets.add(map.getAsync(key));
+        }
+        latch.countDown();
+
+        put.toCompletableFuture().join();
+        for (CompletionStage<Integer> get : gets) {
+            get.toCompletableFuture().join();
+        }
+
+        Data dataKey = getSerializationService(instance2).toData(key);
+        assertEquals(3, getRecord(instance1, partitionId, dataKey).getHits());
+        assertEquals(0, getRecord(instance2, partitionId, dataKey).getHits());
+    }
+
+    private void putWhilePartitionThreadIsBlocked(IMap<String, Integer> map) {
+        String[] keys = generateKeysBelongingToSamePartitionsOwnedBy(instance1, KEY_COUNT);
+        int partitionId = instance1.getPartitionService().getPartition(keys[0]).getPartitionId();
+        CountDownLatch latch = blockPartitionThread(partitionId);
+
+        List<CompletionStage<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            futures.add(map.putAsync(keys[i], i));
+        }
+        latch.countDown();
+
+        for (CompletionStage<Integer> future : futures) {
+            future.toCompletableFuture().join();
+        }
+    }
+
+    private CountDownLatch blockPartitionThread(int partitionId) {
+        CountDownLatch latch = new CountDownLatch(1);
+        getOperationService(instance1).execute(new PartitionSpecificRunnable() {
+            @Override
+            public int getPartitionId() {
+                return partitionId;
+            }
+
+            @Override
+            public void run() {
+                assertOpenEventually(latch);
+            }
+        });
+        return latch;
+    }
+
+    private Record getRecord(HazelcastInstance instance, int partitionId, Data dataKey) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext().getRecordStore(partitionId, mapName).getRecord(dataKey);
+    }
+
+    private static long getBackupEntryCount(HazelcastInstance instance, String mapName) {
+        return instance.getMap(mapName).getLocalMapStats().getBackupEntryCount();
+    }
+}
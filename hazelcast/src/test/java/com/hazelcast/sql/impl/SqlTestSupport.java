@@ -37,11 +37,14 @@ import com.hazelcast.sql.impl.plan.Plan;
 import com.hazelcast.sql.impl.plan.node.MapIndexScanPlanNode;
 import com.hazelcast.sql.impl.plan.node.PlanNode;
 import com.hazelcast.sql.impl.plan.node.TestPlanNodeVisitorAdapter;
+import com.hazelcast.sql.impl.row.ColumnarRowBatch;
+import com.hazelcast.sql.impl.row.ColumnarRowBatchBuilder;
 import com.hazelcast.sql.impl.row.HeapRow;
 import com.hazelcast.sql.impl.row.ListRowBatch;
 import com.hazelcast.sql.impl.row.Row;
 import com.hazelcast.sql.impl.row.RowBatch;
 import com.hazelcast.sql.impl.state.QueryStateCallback;
+import com.hazelcast.sql.impl.type.QueryDataType;
 import com.hazelcast.sql.impl.worker.QueryFragmentContext;
 import com.hazelcast.test.Accessors;
 import com.hazelcast.test.HazelcastTestSupport;
@@ -119,6 +122,16 @@ public class SqlTestSupport extends HazelcastTestSupport {
         return new ListRowBatch(rows);
     }
 
+    public static ColumnarRowBatch createMonotonicColumnarBatch(int startValue, int size) {
+        ColumnarRowBatchBuilder builder = new ColumnarRowBatchBuilder(Collections.singletonList(QueryDataType.INT), size);
+
+        for (int i = startValue; i < startValue + size; i++) {
+            builder.add(HeapRow.of(i));
+        }
+
+        return builder.build();
+    }
+
     public static void checkMonotonicBatch(RowBatch batch, int startValue, int size) {
         assertEquals(size, batch.getRowCount());
 
@@ -28,6 +28,7 @@ import com.hazelcast.sql.impl.QueryException;
 import com.hazelcast.sql.impl.QueryId;
 import com.hazelcast.sql.impl.ResultIterator;
 import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.exec.agg.AggregateExec;
 import com.hazelcast.sql.impl.exec.io.Inbox;
 import com.hazelcast.sql.impl.exec.io.Outbox;
 import com.hazelcast.sql.impl.exec.io.ReceiveExec;
@@ -40,9 +41,12 @@ import com.hazelcast.sql.impl.exec.root.ScheduleCallback;
 import com.hazelcast.sql.impl.exec.scan.MapScanExec;
 import com.hazelcast.sql.impl.expression.ColumnExpression;
 import com.hazelcast.sql.impl.expression.ConstantPredicateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.CountAggregateExpression;
 import com.hazelcast.sql.impl.extract.GenericQueryTargetDescriptor;
 import com.hazelcast.sql.impl.operation.QueryExecuteOperation;
 import com.hazelcast.sql.impl.operation.QueryExecuteOperationFragment;
+import com.hazelcast.sql.impl.plan.node.AggregatePhase;
+import com.hazelcast.sql.impl.plan.node.AggregatePlanNode;
 import com.hazelcast.sql.impl.plan.node.FilterPlanNode;
 import com.hazelcast.sql.impl.plan.node.MapScanPlanNode;
 import com.hazelcast.sql.impl.plan.node.PlanNode;
@@ -326,6 +330,43 @@ public class CreateExecPlanNodeVisitorTest extends SqlTestSupport {
         assertEquals(upstreamNode.getId(), upstreamExec.getId());
     }
 
+    @Test
+    public void testAggregate() {
+        UpstreamNode upstreamNode = new UpstreamNode(nextNodeId());
+
+        AggregatePlanNode aggregateNode = new AggregatePlanNode(
+            nextNodeId(),
+            upstreamNode,
+            Collections.singletonList(0),
+            Collections.singletonList(CountAggregateExpression.create(null)),
+            AggregatePhase.LOCAL
+        );
+
+        QueryExecuteOperationFragment rootFragment = new QueryExecuteOperationFragment(
+            aggregateNode,
+            EXPLICIT,
+            Collections.singletonList(memberId1)
+        );
+
+        QueryExecuteOperation operation = createOperation(
+            Collections.singletonList(rootFragment),
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            Collections.emptyMap()
+        );
+
+        CreateExecPlanNodeVisitor visitor = visit(operation, rootFragment);
+
+        AggregateExec aggregateExec = (AggregateExec) visitor.pop();
+        assertEquals(aggregateNode.getId(), aggregateExec.getId());
+        assertEquals(aggregateNode.getGroupKey(), aggregateExec.getGroupKey());
+        assertEquals(aggregateNode.getExpressions(), aggregateExec.getExpressions());
+        assertEquals(aggregateNode.getPhase(), aggregateExec.getPhase());
+
+        UpstreamExec upstreamExec = (UpstreamExec) aggregateExec.getUpstream();
+        assertEquals(upstreamNode.getId(), upstreamExec.getId());
+    }
+
     @Test
     public void testMapScan() {
         // Map with data.
@@ -20,6 +20,7 @@ import com.hazelcast.sql.impl.SqlTestSupport;
 import com.hazelcast.sql.impl.UpstreamExec;
 import com.hazelcast.sql.impl.expression.Expression;
 import com.hazelcast.sql.impl.expression.FunctionalPredicateExpression;
+import com.hazelcast.sql.impl.row.ColumnarRowBatch;
 import com.hazelcast.sql.impl.row.EmptyRowBatch;
 import com.hazelcast.sql.impl.row.RowBatch;
 import com.hazelcast.test.HazelcastParallelClassRunner;
@@ -31,6 +32,7 @@ import org.junit.runner.RunWith;
 
 import static com.hazelcast.sql.impl.exec.AbstractFilterExec.BATCH_SIZE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -82,6 +84,33 @@ public class FilterExecTest extends SqlTestSupport {
         checkBatch(exec.currentBatch(), 4 * BATCH_SIZE, BATCH_SIZE / 2);
     }
 
+    @Test
+    public void testFilterColumnar() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        Expression<Boolean> filter = new FunctionalPredicateExpression((row) -> {
+            int val = row.get(0);
+
+            return val % 2 == 0 ? true : null;
+        });
+
+        FilterExec exec = new FilterExec(2, upstream, filter);
+        exec.setup(emptyFragmentContext());
+
+        // Columnar batches are filtered one by one, without waiting for the full output batch.
+        upstream.addResult(IterationResult.FETCHED, createMonotonicColumnarBatch(0, 10));
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        assertTrue(exec.currentBatch() instanceof ColumnarRowBatch);
+        checkBatch(exec.currentBatch(), 0, 5);
+
+        // Batches without matching rows are skipped.
+        upstream.addResult(IterationResult.FETCHED, createMonotonicColumnarBatch(11, 1));
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createMonotonicColumnarBatch(12, 10));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkBatch(exec.currentBatch(), 12, 5);
+    }
+
     private static void checkBatch(RowBatch batch, int startValue, int size) {
         assertEquals(size, batch.getRowCount());
 
@@ -20,6 +20,7 @@ import com.hazelcast.sql.impl.SqlTestSupport;
 import com.hazelcast.sql.impl.UpstreamExec;
 import com.hazelcast.sql.impl.expression.ColumnExpression;
 import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.row.ColumnarRowBatch;
 import com.hazelcast.sql.impl.row.EmptyRowBatch;
 import com.hazelcast.sql.impl.row.RowBatch;
 import com.hazelcast.sql.impl.type.QueryDataType;
@@ -34,6 +35,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -72,6 +74,22 @@ public class ProjectExecTest extends SqlTestSupport {
         assertEquals(0, exec.currentBatch().getRowCount());
     }
 
+    @Test
+    public void testProjectColumnar() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        ProjectExec exec = createExec(upstream);
+
+        upstream.addResult(IterationResult.FETCHED, createMonotonicColumnarBatch(0, 100));
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        assertTrue(exec.currentBatch() instanceof ColumnarRowBatch);
+        checkBatch(exec.currentBatch(), 0, 100);
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createMonotonicColumnarBatch(100, 100));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        assertTrue(exec.currentBatch() instanceof ColumnarRowBatch);
+        checkBatch(exec.currentBatch(), 100, 100);
+    }
+
     @SuppressWarnings("rawtypes")
     private static ProjectExec createExec(UpstreamExec upstream) {
         ColumnExpression<?> expression = ColumnExpression.create(0, QueryDataType.INT);
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.agg;
+
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.UpstreamExec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.expression.ColumnExpression;
+import com.hazelcast.sql.impl.expression.aggregate.AggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.AvgAggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.CountAggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.MinMaxAggregateExpression;
+import com.hazelcast.sql.impl.expression.aggregate.SumAggregateExpression;
+import com.hazelcast.sql.impl.plan.node.AggregatePhase;
+import com.hazelcast.sql.impl.row.EmptyRowBatch;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class AggregateExecTest extends SqlTestSupport {
+    @Test
+    public void testComplete() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        AggregateExec exec = createExec(upstream, Collections.singletonList(0), AggregatePhase.COMPLETE);
+
+        // Nothing is produced until the whole input is consumed.
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        upstream.addResult(IterationResult.FETCHED, createBatch(0, 100));
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(100, 100));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        Map<Object, Row> rows = collectRows(exec.currentBatch());
+        assertEquals(2, rows.size());
+
+        // Even values: 0, 2, ..., 198.
+        checkRow(rows.get(0), 0, 100L, 9900L, 99.0d, 0, 198);
+        checkRow(rows.get(1), 1, 100L, 10000L, 100.0d, 1, 199);
+    }
+
+    @Test
+    public void testComplete_empty() {
+        // Empty input with grouping produces nothing.
+        UpstreamExec upstream = new UpstreamExec(1);
+        AggregateExec exec = createExec(upstream, Collections.singletonList(0), AggregatePhase.COMPLETE);
+
+        upstream.addResult(IterationResult.FETCHED_DONE, EmptyRowBatch.INSTANCE);
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        assertEquals(0, exec.currentBatch().getRowCount());
+
+        // Empty input without grouping produces a single row.
+        upstream = new UpstreamExec(1);
+        exec = createExec(upstream, Collections.emptyList(), AggregatePhase.COMPLETE);
+
+        upstream.addResult(IterationResult.FETCHED_DONE, EmptyRowBatch.INSTANCE);
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        assertEquals(1, exec.currentBatch().getRowCount());
+
+        Row row = exec.currentBatch().getRow(0);
+        assertEquals(0L, (long) row.get(0));
+        assertNull(row.get(1));
+        assertNull(row.get(2));
+        assertNull(row.get(3));
+        assertNull(row.get(4));
+
+        // Local phase doesn't produce anything for the empty input.
+        upstream = new UpstreamExec(1);
+        exec = createExec(upstream, Collections.emptyList(), AggregatePhase.LOCAL);
+
+        upstream.addResult(IterationResult.FETCHED_DONE, EmptyRowBatch.INSTANCE);
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        assertEquals(0, exec.currentBatch().getRowCount());
+    }
+
+    @Test
+    public void testLocalFinal() {
+        // Two members aggregate their local inputs.
+        UpstreamExec localUpstream1 = new UpstreamExec(1);
+        AggregateExec localExec1 = createExec(localUpstream1, Collections.singletonList(0), AggregatePhase.LOCAL);
+        localUpstream1.addResult(IterationResult.FETCHED_DONE, createBatch(0, 100));
+        assertEquals(IterationResult.FETCHED_DONE, localExec1.advance());
+
+        UpstreamExec localUpstream2 = new UpstreamExec(2);
+        AggregateExec localExec2 = createExec(localUpstream2, Collections.singletonList(0), AggregatePhase.LOCAL);
+        localUpstream2.addResult(IterationResult.FETCHED_DONE, createBatch(100, 100));
+        assertEquals(IterationResult.FETCHED_DONE, localExec2.advance());
+
+        // Group key, count, sum, avg sum, avg count, min, max.
+        RowBatch localBatch1 = localExec1.currentBatch();
+        assertEquals(2, localBatch1.getRowCount());
+        assertEquals(7, localBatch1.getRow(0).getColumnCount());
+
+        // The final phase merges the partial states.
+        UpstreamExec finalUpstream = new UpstreamExec(3);
+        AggregateExec finalExec = createExec(finalUpstream, Collections.singletonList(0), AggregatePhase.FINAL);
+
+        finalUpstream.addResult(IterationResult.FETCHED, localBatch1);
+        assertEquals(IterationResult.WAIT, finalExec.advance());
+
+        finalUpstream.addResult(IterationResult.FETCHED_DONE, localExec2.currentBatch());
+        assertEquals(IterationResult.FETCHED_DONE, finalExec.advance());
+
+        Map<Object, Row> rows = collectRows(finalExec.currentBatch());
+        assertEquals(2, rows.size());
+
+        checkRow(rows.get(0), 0, 100L, 9900L, 99.0d, 0, 198);
+        checkRow(rows.get(1), 1, 100L, 10000L, 100.0d, 1, 199);
+    }
+
+    @Test
+    public void testMultipleBatches() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        AggregateExec exec = createExec(upstream, Collections.singletonList(1), AggregatePhase.COMPLETE);
+
+        int groupCount = AggregateExec.BATCH_SIZE + 1;
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(0, groupCount));
+
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        assertEquals(AggregateExec.BATCH_SIZE, exec.currentBatch().getRowCount());
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        assertEquals(1, exec.currentBatch().getRowCount());
+    }
+
+    private static AggregateExec createExec(UpstreamExec upstream, List<Integer> groupKey, AggregatePhase phase) {
+        ColumnExpression<?> value = ColumnExpression.create(1, QueryDataType.INT);
+
+        List<AggregateExpression> expressions = Arrays.asList(
+            CountAggregateExpression.create(null),
+            SumAggregateExpression.create(value, QueryDataType.BIGINT),
+            AvgAggregateExpression.create(value, QueryDataType.DOUBLE),
+            MinMaxAggregateExpression.create(value, QueryDataType.INT, true),
+            MinMaxAggregateExpression.create(value, QueryDataType.INT, false)
+        );
+
+        AggregateExec exec = new AggregateExec(2, upstream, groupKey, expressions, phase);
+        exec.setup(emptyFragmentContext());
+
+        return exec;
+    }
+
+    /**
+     * Create a batch with rows of the form [value % 2, value].
+     */
+    private static ListRowBatch createBatch(int startValue, int size) {
+        List<Row> rows = new ArrayList<>(size);
+
+        for (int i = startValue; i < startValue + size; i++) {
+            rows.add(HeapRow.of(i % 2, i));
+        }
+
+        return new ListRowBatch(rows);
+    }
+
+    private static Map<Object, Row> collectRows(RowBatch batch) {
+        Map<Object, Row> res = new HashMap<>();
+
+        for (int i = 0; i < batch.getRowCount(); i++) {
+            Row row = batch.getRow(i);
+
+            res.put(row.get(0), row);
+        }
+
+        return res;
+    }
+
+    private static void checkRow(Row row, int key, long count, long sum, double avg, int min, int max) {
+        assertEquals(6, row.getColumnCount());
+        assertEquals(key, (int) row.get(0));
+        assertEquals(count, (long) row.get(1));
+        assertEquals(sum, (long) row.get(2));
+        double avg0 = row.get(3);
+
+        assertEquals(avg, avg0, 0.0d);
+        assertEquals(min, (int) row.get(4));
+        assertEquals(max, (int) row.get(5));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.io;
+
+import com.hazelcast.sql.impl.LoggingQueryOperationHandler;
+import com.hazelcast.sql.impl.QueryId;
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.UpstreamExec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.operation.QueryBatchExchangeOperation;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class BroadcastSendExecTest extends SqlTestSupport {
+
+    private static final QueryId QUERY_ID = QueryId.create(UUID.randomUUID());
+    private static final int EDGE_ID = 1;
+    private static final UUID LOCAL_MEMBER_ID = UUID.randomUUID();
+    private static final UUID TARGET_MEMBER_ID_1 = UUID.randomUUID();
+    private static final UUID TARGET_MEMBER_ID_2 = UUID.randomUUID();
+
+    private static final int ROW_WIDTH = 100;
+
+    private static final int ROWS_IN_BATCH = 4;
+    private static final int ROWS_IN_REMAINING_MEMORY = 8;
+
+    @Test
+    public void testAdvance() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        LoggingQueryOperationHandler operationHandler = new LoggingQueryOperationHandler();
+
+        Outbox outbox1 = createOutbox(operationHandler, TARGET_MEMBER_ID_1);
+        Outbox outbox2 = createOutbox(operationHandler, TARGET_MEMBER_ID_2);
+
+        BroadcastSendExec exec = new BroadcastSendExec(2, upstream, new Outbox[] { outbox1, outbox2 });
+        exec.setup(emptyFragmentContext());
+
+        Map<UUID, List<Row>> rows = new HashMap<>();
+
+        // Push a batch which could not be consumed at once by any of the outboxes.
+        upstream.addResult(IterationResult.FETCHED, createMonotonicBatch(0, ROWS_IN_REMAINING_MEMORY + 2));
+        assertEquals(IterationResult.WAIT, exec.advance());
+        collectRows(operationHandler, rows);
+        checkRows(rows, TARGET_MEMBER_ID_1, ROWS_IN_REMAINING_MEMORY);
+        checkRows(rows, TARGET_MEMBER_ID_2, ROWS_IN_REMAINING_MEMORY);
+
+        // Only one outbox got the memory back, so the batch is still pending.
+        outbox1.onFlowControl(ROW_WIDTH * ROWS_IN_REMAINING_MEMORY);
+        upstream.addResult(IterationResult.FETCHED_DONE, createMonotonicBatch(ROWS_IN_REMAINING_MEMORY + 2, 2));
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        // Both outboxes have memory now, the rest of the rows are sent to both.
+        outbox2.onFlowControl(ROW_WIDTH * ROWS_IN_REMAINING_MEMORY);
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        collectRows(operationHandler, rows);
+        checkRows(rows, TARGET_MEMBER_ID_1, ROWS_IN_REMAINING_MEMORY + 4);
+        checkRows(rows, TARGET_MEMBER_ID_2, ROWS_IN_REMAINING_MEMORY + 4);
+    }
+
+    @Test
+    public void testCurrentBatch() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        Outbox outbox = createOutbox(new LoggingQueryOperationHandler(), TARGET_MEMBER_ID_1);
+
+        BroadcastSendExec exec = new BroadcastSendExec(2, upstream, new Outbox[] { outbox });
+        exec.setup(emptyFragmentContext());
+
+        assertThrows(UnsupportedOperationException.class, exec::currentBatch);
+    }
+
+    private static Outbox createOutbox(LoggingQueryOperationHandler operationHandler, UUID targetMemberId) {
+        return new Outbox(
+            operationHandler,
+            QUERY_ID,
+            EDGE_ID,
+            singletonList(QueryDataType.INT),
+            ROW_WIDTH,
+            LOCAL_MEMBER_ID,
+            targetMemberId,
+            ROW_WIDTH * ROWS_IN_BATCH,
+            ROW_WIDTH * ROWS_IN_REMAINING_MEMORY
+        );
+    }
+
+    private static void collectRows(LoggingQueryOperationHandler operationHandler, Map<UUID, List<Row>> rows) {
+        while (true) {
+            LoggingQueryOperationHandler.SubmitInfo submitInfo = operationHandler.tryPollSubmitInfo();
+
+            if (submitInfo == null) {
+                break;
+            }
+
+            assertEquals(LOCAL_MEMBER_ID, submitInfo.getSourceMemberId());
+
+            QueryBatchExchangeOperation operation = submitInfo.getOperation();
+            RowBatch batch = operation.getBatch();
+
+            List<Row> memberRows = rows.computeIfAbsent(submitInfo.getMemberId(), key -> new ArrayList<>());
+
+            for (int i = 0; i < batch.getRowCount(); i++) {
+                memberRows.add(batch.getRow(i));
+            }
+        }
+    }
+
+    private static void checkRows(Map<UUID, List<Row>> rows, UUID memberId, int expectedRowCount) {
+        checkMonotonicBatch(new ListRowBatch(rows.get(memberId)), 0, expectedRowCount);
+    }
+}
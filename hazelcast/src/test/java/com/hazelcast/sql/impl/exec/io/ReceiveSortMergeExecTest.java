@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.io;
+
+import com.hazelcast.sql.impl.LoggingFlowControl;
+import com.hazelcast.sql.impl.LoggingQueryOperationHandler;
+import com.hazelcast.sql.impl.QueryId;
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ReceiveSortMergeExecTest extends SqlTestSupport {
+
+    private static final int EDGE_ID = 1;
+
+    private final QueryId queryId = QueryId.create(UUID.randomUUID());
+    private final UUID localMemberId = UUID.randomUUID();
+    private final UUID senderId1 = UUID.randomUUID();
+    private final UUID senderId2 = UUID.randomUUID();
+    private final LoggingQueryOperationHandler operationHandler = new LoggingQueryOperationHandler();
+    private final LoggingFlowControl flowControl = new LoggingFlowControl(queryId, EDGE_ID, localMemberId, operationHandler);
+
+    @Test
+    public void testMerge() {
+        StripedInbox inbox = createInbox();
+
+        ReceiveSortMergeExec exec = new ReceiveSortMergeExec(
+            1,
+            inbox,
+            Collections.singletonList(0),
+            Collections.singletonList(true)
+        );
+
+        exec.setup(emptyFragmentContext());
+
+        assertTrue(flowControl.isSetupInvoked());
+
+        // Nothing is produced until every sender provides a row.
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        inbox.onBatch(new InboundBatch(createBatch(1, 4, 6), false, senderId1), 100L);
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        inbox.onBatch(new InboundBatch(createBatch(2, 3), false, senderId2), 100L);
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        checkBatch(exec.currentBatch(), 1, 2, 3);
+
+        // The second sender is depleted, so the executor waits for it again.
+        assertEquals(IterationResult.WAIT, exec.advance());
+        checkBatch(exec.currentBatch());
+
+        inbox.onBatch(new InboundBatch(createBatch(5), true, senderId2), 100L);
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        checkBatch(exec.currentBatch(), 4, 5, 6);
+
+        inbox.onBatch(new InboundBatch(createBatch(7, 8), true, senderId1), 100L);
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkBatch(exec.currentBatch(), 7, 8);
+    }
+
+    @Test
+    public void testMergeDescending() {
+        StripedInbox inbox = createInbox();
+
+        ReceiveSortMergeExec exec = new ReceiveSortMergeExec(
+            1,
+            inbox,
+            Collections.singletonList(0),
+            Collections.singletonList(false)
+        );
+
+        exec.setup(emptyFragmentContext());
+
+        inbox.onBatch(new InboundBatch(createBatch(5, 1, null), true, senderId1), 100L);
+        inbox.onBatch(new InboundBatch(createBatch(4, 3, 2), true, senderId2), 100L);
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkBatch(exec.currentBatch(), 5, 4, 3, 2, 1, null);
+    }
+
+    @Test
+    public void testMultipleBatches() {
+        StripedInbox inbox = createInbox();
+
+        ReceiveSortMergeExec exec = new ReceiveSortMergeExec(
+            1,
+            inbox,
+            Collections.singletonList(0),
+            Collections.singletonList(true)
+        );
+
+        exec.setup(emptyFragmentContext());
+
+        inbox.onBatch(new InboundBatch(createMonotonicBatch(0, ReceiveSortMergeExec.BATCH_SIZE), true, senderId1), 100L);
+        inbox.onBatch(new InboundBatch(createMonotonicBatch(ReceiveSortMergeExec.BATCH_SIZE, 1), true, senderId2), 100L);
+
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        checkMonotonicBatch(exec.currentBatch(), 0, ReceiveSortMergeExec.BATCH_SIZE);
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkMonotonicBatch(exec.currentBatch(), ReceiveSortMergeExec.BATCH_SIZE, 1);
+    }
+
+    private StripedInbox createInbox() {
+        return new StripedInbox(
+            operationHandler,
+            queryId,
+            EDGE_ID,
+            100,
+            localMemberId,
+            Arrays.asList(senderId1, senderId2),
+            flowControl
+        );
+    }
+
+    private static ListRowBatch createBatch(Integer... values) {
+        List<Row> rows = new ArrayList<>(values.length);
+
+        for (Integer value : values) {
+            rows.add(HeapRow.of(value));
+        }
+
+        return new ListRowBatch(rows);
+    }
+
+    private static void checkBatch(RowBatch batch, Integer... expectedValues) {
+        assertEquals(expectedValues.length, batch.getRowCount());
+
+        for (int i = 0; i < expectedValues.length; i++) {
+            assertEquals(expectedValues[i], batch.getRow(i).get(0));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.join;
+
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.UpstreamExec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.expression.ColumnExpression;
+import com.hazelcast.sql.impl.expression.ConstantExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonMode;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonPredicate;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.JoinRow;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class HashJoinExecTest extends SqlTestSupport {
+    @Test
+    public void testInnerJoin() {
+        UpstreamExec left = new UpstreamExec(1);
+        UpstreamExec right = new UpstreamExec(2);
+        HashJoinExec exec = createExec(left, right, null, false);
+
+        // Nothing is produced until the right input is consumed.
+        right.addResult(IterationResult.FETCHED, batch(HeapRow.of(0, "a"), HeapRow.of(1, "b")));
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        right.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(1, "c"), HeapRow.of(null, "d")));
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        left.addResult(IterationResult.FETCHED, batch(HeapRow.of(0), HeapRow.of(1)));
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        checkRows(exec.currentBatch(), Arrays.asList(0, 0, "a"), Arrays.asList(1, 1, "b"), Arrays.asList(1, 1, "c"));
+
+        left.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(2), HeapRow.of((Object) null)));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkRows(exec.currentBatch());
+    }
+
+    @Test
+    public void testOuterJoin() {
+        UpstreamExec left = new UpstreamExec(1);
+        UpstreamExec right = new UpstreamExec(2);
+        HashJoinExec exec = createExec(left, right, null, true);
+
+        right.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0, "a"), HeapRow.of(null, "b")));
+        left.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0), HeapRow.of(1), HeapRow.of((Object) null)));
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkRows(
+            exec.currentBatch(),
+            Arrays.asList(0, 0, "a"),
+            Arrays.asList(1, null, null),
+            Arrays.asList(null, null, null)
+        );
+    }
+
+    @Test
+    public void testCondition() {
+        // Join only the right rows with the value less than "c".
+        Expression<Boolean> condition = ComparisonPredicate.create(
+            ColumnExpression.create(2, QueryDataType.VARCHAR),
+            ConstantExpression.create("c", QueryDataType.VARCHAR),
+            ComparisonMode.LESS_THAN
+        );
+
+        UpstreamExec left = new UpstreamExec(1);
+        UpstreamExec right = new UpstreamExec(2);
+        HashJoinExec exec = createExec(left, right, condition, true);
+
+        right.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0, "a"), HeapRow.of(0, "c"), HeapRow.of(1, "d")));
+        left.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0), HeapRow.of(1)));
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkRows(exec.currentBatch(), Arrays.asList(0, 0, "a"), Arrays.asList(1, null, null));
+    }
+
+    @Test
+    public void testNoKeys() {
+        UpstreamExec left = new UpstreamExec(1);
+        UpstreamExec right = new UpstreamExec(2);
+
+        HashJoinExec exec = new HashJoinExec(3, left, right, Collections.emptyList(), Collections.emptyList(), null, false, 2);
+        exec.setup(emptyFragmentContext());
+
+        right.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0, "a"), HeapRow.of(1, "b")));
+        left.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(2), HeapRow.of(3)));
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkRows(
+            exec.currentBatch(),
+            Arrays.asList(2, 0, "a"),
+            Arrays.asList(2, 1, "b"),
+            Arrays.asList(3, 0, "a"),
+            Arrays.asList(3, 1, "b")
+        );
+    }
+
+    @Test
+    public void testKeyNormalization() {
+        UpstreamExec left = new UpstreamExec(1);
+        UpstreamExec right = new UpstreamExec(2);
+        HashJoinExec exec = createExec(left, right, null, false);
+
+        right.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(new BigDecimal("1.00"), "a"), HeapRow.of(0.0d, "b")));
+        left.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(new BigDecimal("1.0")), HeapRow.of(-0.0d)));
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        assertEquals(2, exec.currentBatch().getRowCount());
+    }
+
+    @Test
+    public void testMultipleBatches() {
+        UpstreamExec left = new UpstreamExec(1);
+        UpstreamExec right = new UpstreamExec(2);
+        HashJoinExec exec = createExec(left, right, null, false);
+
+        List<Row> leftRows = new ArrayList<>();
+
+        for (int i = 0; i < HashJoinExec.BATCH_SIZE + 1; i++) {
+            leftRows.add(HeapRow.of(0));
+        }
+
+        right.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0, "a")));
+        left.addResult(IterationResult.FETCHED_DONE, new ListRowBatch(leftRows));
+
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        assertEquals(HashJoinExec.BATCH_SIZE, exec.currentBatch().getRowCount());
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        assertEquals(1, exec.currentBatch().getRowCount());
+    }
+
+    private static HashJoinExec createExec(
+        UpstreamExec left,
+        UpstreamExec right,
+        Expression<Boolean> condition,
+        boolean outer
+    ) {
+        List<Integer> keys = Collections.singletonList(0);
+
+        HashJoinExec exec = new HashJoinExec(3, left, right, keys, keys, condition, outer, 2);
+        exec.setup(emptyFragmentContext());
+
+        return exec;
+    }
+
+    private static ListRowBatch batch(Row... rows) {
+        return new ListRowBatch(Arrays.asList(rows));
+    }
+
+    @SafeVarargs
+    private static void checkRows(RowBatch batch, List<Object>... expectedRows) {
+        Set<List<Object>> rows = new HashSet<>();
+
+        for (int i = 0; i < batch.getRowCount(); i++) {
+            Row row = batch.getRow(i);
+
+            assertTrue(row instanceof JoinRow);
+
+            List<Object> values = new ArrayList<>();
+
+            for (int j = 0; j < row.getColumnCount(); j++) {
+                values.add(row.get(j));
+            }
+
+            rows.add(values);
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList(expectedRows)), rows);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.join;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.SqlErrorCode;
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.UpstreamExec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.expression.ColumnExpression;
+import com.hazelcast.sql.impl.expression.ConstantExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonMode;
+import com.hazelcast.sql.impl.expression.predicate.ComparisonPredicate;
+import com.hazelcast.sql.impl.extract.GenericQueryTargetDescriptor;
+import com.hazelcast.sql.impl.plan.node.MapIndexScanPlanNode;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class IndexNestedLoopJoinExecTest extends SqlTestSupport {
+
+    private static final String MAP_NAME = "map";
+    private static final String INDEX_NAME = "index";
+
+    /** Number of entries in the map. Every value appears in the map VALUE_COUNT times. */
+    private static final int ENTRY_COUNT = 100;
+    private static final int VALUE_COUNT = 10;
+
+    private final TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(1);
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Integer> map;
+
+    @Before
+    public void before() {
+        instance = factory.newHazelcastInstance();
+
+        map = instance.getMap(MAP_NAME);
+        map.addIndex(new IndexConfig().setName(INDEX_NAME).setType(IndexType.HASH).addAttribute("this"));
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i % VALUE_COUNT);
+        }
+    }
+
+    @After
+    public void after() {
+        factory.shutdownAll();
+    }
+
+    @Test
+    public void testInnerJoin() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        IndexNestedLoopJoinExec exec = createExec(upstream, getMapContainer(map), INDEX_NAME, null, false);
+
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        upstream.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0), HeapRow.of(5), HeapRow.of(42)));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        RowBatch batch = exec.currentBatch();
+        assertEquals(VALUE_COUNT * 2, batch.getRowCount());
+
+        for (int i = 0; i < batch.getRowCount(); i++) {
+            Row row = batch.getRow(i);
+
+            int outerValue = row.get(0);
+            int innerKey = row.get(1);
+            int innerValue = row.get(2);
+
+            assertEquals(outerValue, innerValue);
+            assertEquals(innerValue, innerKey % VALUE_COUNT);
+        }
+    }
+
+    @Test
+    public void testOuterJoin() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        IndexNestedLoopJoinExec exec = createExec(upstream, getMapContainer(map), INDEX_NAME, null, true);
+
+        upstream.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0), HeapRow.of(42), HeapRow.of((Object) null)));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        RowBatch batch = exec.currentBatch();
+        assertEquals(VALUE_COUNT + 2, batch.getRowCount());
+
+        int unmatched = 0;
+
+        for (int i = 0; i < batch.getRowCount(); i++) {
+            Row row = batch.getRow(i);
+
+            if (row.get(1) == null) {
+                assertNull(row.get(2));
+
+                unmatched++;
+            }
+        }
+
+        assertEquals(2, unmatched);
+    }
+
+    @Test
+    public void testCondition() {
+        // Join only the entries with the key less than the half of the entry count.
+        Expression<Boolean> condition = ComparisonPredicate.create(
+            ColumnExpression.create(1, QueryDataType.INT),
+            ConstantExpression.create(ENTRY_COUNT / 2, QueryDataType.INT),
+            ComparisonMode.LESS_THAN
+        );
+
+        UpstreamExec upstream = new UpstreamExec(1);
+        IndexNestedLoopJoinExec exec = createExec(upstream, getMapContainer(map), INDEX_NAME, condition, false);
+
+        upstream.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0), HeapRow.of(5)));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        assertEquals(VALUE_COUNT, exec.currentBatch().getRowCount());
+    }
+
+    @Test
+    public void testNoMap() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        IndexNestedLoopJoinExec exec = createExec(upstream, null, INDEX_NAME, null, true);
+
+        upstream.addResult(IterationResult.FETCHED_DONE, batch(HeapRow.of(0)));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        RowBatch batch = exec.currentBatch();
+        assertEquals(1, batch.getRowCount());
+        assertNull(batch.getRow(0).get(1));
+    }
+
+    @Test
+    public void testNoIndex() {
+        try {
+            createExec(new UpstreamExec(1), getMapContainer(map), "bad_index", null, false);
+
+            fail("Must fail");
+        } catch (QueryException e) {
+            assertEquals(SqlErrorCode.INDEX_INVALID, e.getCode());
+            assertEquals(
+                "Cannot use the index \"bad_index\" of the IMap \"map\" because it doesn't exist or is not global",
+                e.getMessage()
+            );
+            assertTrue(e.isInvalidatePlan());
+        }
+    }
+
+    private IndexNestedLoopJoinExec createExec(
+        UpstreamExec upstream,
+        MapContainer mapContainer,
+        String indexName,
+        Expression<Boolean> condition,
+        boolean outer
+    ) {
+        MapIndexScanPlanNode inner = new MapIndexScanPlanNode(
+            2,
+            MAP_NAME,
+            GenericQueryTargetDescriptor.DEFAULT,
+            GenericQueryTargetDescriptor.DEFAULT,
+            Arrays.asList(keyPath(null), valuePath(null)),
+            Arrays.asList(QueryDataType.INT, QueryDataType.INT),
+            Arrays.asList(0, 1),
+            indexName,
+            1,
+            null,
+            Collections.singletonList(QueryDataType.INT),
+            null
+        );
+
+        IndexNestedLoopJoinExec exec = new IndexNestedLoopJoinExec(
+            2,
+            upstream,
+            mapContainer,
+            getLocalPartitions(instance),
+            inner,
+            getSerializationService(instance),
+            Collections.singletonList(0),
+            condition,
+            outer
+        );
+
+        exec.setup(emptyFragmentContext());
+
+        return exec;
+    }
+
+    private static ListRowBatch batch(Row... rows) {
+        return new ListRowBatch(Arrays.asList(rows));
+    }
+}
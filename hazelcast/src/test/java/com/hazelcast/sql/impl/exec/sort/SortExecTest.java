@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.exec.sort;
+
+import com.hazelcast.sql.impl.QueryException;
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.UpstreamExec;
+import com.hazelcast.sql.impl.exec.IterationResult;
+import com.hazelcast.sql.impl.expression.ConstantExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.expression.ParameterExpression;
+import com.hazelcast.sql.impl.row.HeapRow;
+import com.hazelcast.sql.impl.row.ListRowBatch;
+import com.hazelcast.sql.impl.row.Row;
+import com.hazelcast.sql.impl.row.RowBatch;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class SortExecTest extends SqlTestSupport {
+    @Test
+    public void testFullSort() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(upstream, Collections.singletonList(0), Collections.singletonList(false), null, null);
+
+        // Nothing is produced until the whole input is consumed.
+        upstream.addResult(IterationResult.FETCHED, createBatch(0, 3, 1, null));
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(4, 2));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        // Nulls go last in the descending order.
+        checkBatch(exec.currentBatch(), 4, 3, 2, 1, 0, null);
+    }
+
+    @Test
+    public void testFullSortWithOffset() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(upstream, Collections.singletonList(0), Collections.singletonList(true), null, constant(2));
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(3, null, 0, 2, 1));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        // Nulls go first in the ascending order.
+        checkBatch(exec.currentBatch(), 1, 2, 3);
+    }
+
+    @Test
+    public void testTopN() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(upstream, Collections.singletonList(0), Collections.singletonList(true), constant(3), null);
+
+        for (int i = 0; i < 10; i++) {
+            upstream.addResult(IterationResult.FETCHED, createBatch(100 - i, 50 - i, i));
+            assertEquals(IterationResult.WAIT, exec.advance());
+        }
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(-1));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        checkBatch(exec.currentBatch(), -1, 0, 1);
+    }
+
+    @Test
+    public void testTopNWithOffset() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(
+            upstream,
+            Collections.singletonList(0),
+            Collections.singletonList(false),
+            constant(2),
+            constant(3)
+        );
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(5, 9, 1, 7, 3, 8, 0, 2, 6, 4));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        checkBatch(exec.currentBatch(), 6, 5);
+    }
+
+    @Test
+    public void testTopNZero() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(upstream, Collections.singletonList(0), Collections.singletonList(true), constant(0), null);
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(1, 2, 3));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        checkBatch(exec.currentBatch());
+    }
+
+    @Test
+    public void testTopNMaxLimit() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(
+            upstream,
+            Collections.singletonList(0),
+            Collections.singletonList(true),
+            ConstantExpression.create(Long.MAX_VALUE, QueryDataType.BIGINT),
+            constant(1)
+        );
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(3, 1, 2));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        checkBatch(exec.currentBatch(), 2, 3);
+    }
+
+    @Test
+    public void testMultipleColumns() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(upstream, Arrays.asList(0, 1), Arrays.asList(true, false), null, null);
+
+        upstream.addResult(
+            IterationResult.FETCHED_DONE,
+            new ListRowBatch(Arrays.asList(HeapRow.of(1, 1), HeapRow.of(0, 1), HeapRow.of(1, 2), HeapRow.of(0, 2)))
+        );
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        RowBatch batch = exec.currentBatch();
+        assertEquals(4, batch.getRowCount());
+        checkRow(batch.getRow(0), 0, 2);
+        checkRow(batch.getRow(1), 0, 1);
+        checkRow(batch.getRow(2), 1, 2);
+        checkRow(batch.getRow(3), 1, 1);
+    }
+
+    @Test
+    public void testMultipleBatches() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(upstream, Collections.singletonList(0), Collections.singletonList(true), null, null);
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createMonotonicBatch(0, SortExec.BATCH_SIZE + 1));
+
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        checkMonotonicBatch(exec.currentBatch(), 0, SortExec.BATCH_SIZE);
+
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkMonotonicBatch(exec.currentBatch(), SortExec.BATCH_SIZE, 1);
+    }
+
+    @Test
+    public void testStreaming() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(upstream, Collections.emptyList(), Collections.emptyList(), constant(4), constant(3));
+
+        // Rows within the offset are skipped.
+        upstream.addResult(IterationResult.FETCHED, createBatch(0, 1));
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        upstream.addResult(IterationResult.FETCHED, createBatch(2, 3, 4));
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        checkBatch(exec.currentBatch(), 3, 4);
+
+        // The input is drained after the fetch is reached.
+        upstream.addResult(IterationResult.FETCHED, createBatch(5, 6, 7));
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        checkBatch(exec.currentBatch(), 5, 6);
+
+        upstream.addResult(IterationResult.FETCHED, createBatch(8, 9));
+        assertEquals(IterationResult.WAIT, exec.advance());
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(10));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkBatch(exec.currentBatch());
+    }
+
+    @Test
+    public void testStreamingNoDrain() {
+        UpstreamExec upstream = new UpstreamExec(1);
+        SortExec exec = createExec(upstream, Collections.emptyList(), Collections.emptyList(), constant(3), constant(1), false);
+
+        upstream.addResult(IterationResult.FETCHED, createBatch(0, 1));
+        assertEquals(IterationResult.FETCHED, exec.advance());
+        checkBatch(exec.currentBatch(), 1);
+
+        // The executor completes as soon as the fetch is reached, without waiting for the end of the input.
+        upstream.addResult(IterationResult.FETCHED, createBatch(2, 3, 4));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+        checkBatch(exec.currentBatch(), 2, 3);
+    }
+
+    @Test
+    public void testParameters() {
+        UpstreamExec upstream = new UpstreamExec(1);
+
+        SortExec exec = new SortExec(
+            2,
+            upstream,
+            Collections.singletonList(0),
+            Collections.singletonList(true),
+            ParameterExpression.create(0, QueryDataType.BIGINT),
+            ParameterExpression.create(1, QueryDataType.BIGINT),
+            true
+        );
+
+        exec.setup(emptyFragmentContext(Arrays.asList(2L, 1L)));
+
+        upstream.addResult(IterationResult.FETCHED_DONE, createBatch(4, 3, 2, 1, 0));
+        assertEquals(IterationResult.FETCHED_DONE, exec.advance());
+
+        checkBatch(exec.currentBatch(), 1, 2);
+    }
+
+    @Test
+    public void testInvalidFetch() {
+        UpstreamExec upstream = new UpstreamExec(1);
+
+        SortExec exec = new SortExec(
+            2,
+            upstream,
+            Collections.singletonList(0),
+            Collections.singletonList(true),
+            constant(-1),
+            null,
+            true
+        );
+
+        QueryException exception = assertThrows(QueryException.class, () -> exec.setup(emptyFragmentContext()));
+        assertTrue(exception.getMessage().contains("LIMIT value cannot be negative"));
+    }
+
+    private static SortExec createExec(
+        UpstreamExec upstream,
+        List<Integer> columns,
+        List<Boolean> ascs,
+        Expression<?> fetch,
+        Expression<?> offset
+    ) {
+        return createExec(upstream, columns, ascs, fetch, offset, true);
+    }
+
+    private static SortExec createExec(
+        UpstreamExec upstream,
+        List<Integer> columns,
+        List<Boolean> ascs,
+        Expression<?> fetch,
+        Expression<?> offset,
+        boolean drainInput
+    ) {
+        SortExec exec = new SortExec(2, upstream, columns, ascs, fetch, offset, drainInput);
+        exec.setup(emptyFragmentContext());
+
+        return exec;
+    }
+
+    private static Expression<?> constant(int value) {
+        return ConstantExpression.create(value, QueryDataType.INT);
+    }
+
+    private static ListRowBatch createBatch(Integer... values) {
+        List<Row> rows = new ArrayList<>(values.length);
+
+        for (Integer value : values) {
+            rows.add(HeapRow.of(value));
+        }
+
+        return new ListRowBatch(rows);
+    }
+
+    private static void checkBatch(RowBatch batch, Integer... expectedValues) {
+        assertEquals(expectedValues.length, batch.getRowCount());
+
+        for (int i = 0; i < expectedValues.length; i++) {
+            assertEquals(expectedValues[i], batch.getRow(i).get(0));
+        }
+    }
+
+    private static void checkRow(Row row, int expectedValue1, int expectedValue2) {
+        assertEquals(expectedValue1, (int) row.get(0));
+        assertEquals(expectedValue2, (int) row.get(1));
+    }
+}
@@ -31,6 +31,7 @@ import org.junit.runner.RunWith;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -94,6 +95,44 @@ public class AbstractPlanNodesTest {
         assertEquals(id, visitor.getNodes().get(1).getId());
     }
 
+    @Test
+    public void testBiInputPlanNode() {
+        // Test fields.
+        int leftId = 1;
+        List<QueryDataType> leftFieldTypes = Collections.singletonList(QueryDataType.INT);
+        TestZeroInputPlanNode leftNode = new TestZeroInputPlanNode(leftId, leftFieldTypes);
+
+        int rightId = 2;
+        List<QueryDataType> rightFieldTypes = Collections.singletonList(QueryDataType.VARCHAR);
+        TestZeroInputPlanNode rightNode = new TestZeroInputPlanNode(rightId, rightFieldTypes);
+
+        int id = 3;
+        TestBiInputPlanNode node = new TestBiInputPlanNode(id, leftNode, rightNode);
+        List<QueryDataType> fieldTypes = Arrays.asList(QueryDataType.INT, QueryDataType.VARCHAR);
+
+        assertEquals(id, node.getId());
+        assertEquals(fieldTypes, node.getSchema().getTypes());
+
+        // Test serialization.
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+        TestBiInputPlanNode restoredNode = ss.toObject(ss.toData(node));
+        assertEquals(id, restoredNode.getId());
+        assertEquals(fieldTypes, restoredNode.getSchema().getTypes());
+        assertEquals(leftId, restoredNode.getLeft().getId());
+        assertEquals(rightId, restoredNode.getRight().getId());
+
+        // Test visitor.
+        TestPlanNodeVisitor visitor = new TestPlanNodeVisitor();
+
+        node.visit(visitor);
+
+        assertEquals(3, visitor.getNodes().size());
+        assertEquals(leftId, visitor.getNodes().get(0).getId());
+        assertEquals(rightId, visitor.getNodes().get(1).getId());
+        assertEquals(id, visitor.getNodes().get(2).getId());
+    }
+
     private static class TestZeroInputPlanNode extends ZeroInputPlanNode {
 
         private List<QueryDataType> fieldTypes;
@@ -164,6 +203,22 @@ public class AbstractPlanNodesTest {
         }
     }
 
+    private static class TestBiInputPlanNode extends BiInputPlanNode {
+
+        private TestBiInputPlanNode() {
+            // No-op.
+        }
+
+        private TestBiInputPlanNode(int id, TestZeroInputPlanNode left, TestZeroInputPlanNode right) {
+            super(id, left, right);
+        }
+
+        @Override
+        public void visit0(PlanNodeVisitor visitor) {
+            visitor.onOtherNode(this);
+        }
+    }
+
     private static class TestPlanNodeVisitor extends TestPlanNodeVisitorAdapter {
 
         private final ArrayList<PlanNode> nodes = new ArrayList<>();
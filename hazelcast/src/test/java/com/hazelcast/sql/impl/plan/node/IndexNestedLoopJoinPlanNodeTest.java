@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.plan.node;
+
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.expression.ConstantPredicateExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.extract.GenericQueryTargetDescriptor;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class IndexNestedLoopJoinPlanNodeTest extends SqlTestSupport {
+    @Test
+    public void testState() {
+        MockPlanNode upstream = MockPlanNode.create(1, QueryDataType.INT, QueryDataType.VARCHAR);
+        MapIndexScanPlanNode inner = createInner(2, "index");
+        List<Integer> outerKeys = Collections.singletonList(0);
+        Expression<Boolean> condition = new ConstantPredicateExpression(true);
+
+        IndexNestedLoopJoinPlanNode node = new IndexNestedLoopJoinPlanNode(2, upstream, inner, outerKeys, condition, true);
+
+        assertEquals(2, node.getId());
+        assertSame(upstream, node.getUpstream());
+        assertSame(inner, node.getInner());
+        assertEquals(outerKeys, node.getOuterKeys());
+        assertEquals(condition, node.getCondition());
+        assertTrue(node.isOuter());
+        assertEquals(
+            new PlanNodeSchema(Arrays.asList(QueryDataType.INT, QueryDataType.VARCHAR, QueryDataType.BIGINT)),
+            node.getSchema()
+        );
+    }
+
+    @Test
+    public void testEquality() {
+        int id1 = 1;
+        int id2 = 2;
+
+        MockPlanNode upstream1 = MockPlanNode.create(3, QueryDataType.INT);
+        MockPlanNode upstream2 = MockPlanNode.create(4, QueryDataType.INT);
+
+        MapIndexScanPlanNode inner1 = createInner(id1, "index1");
+        MapIndexScanPlanNode inner2 = createInner(id1, "index2");
+
+        List<Integer> outerKeys1 = Collections.singletonList(0);
+        List<Integer> outerKeys2 = Collections.singletonList(1);
+
+        Expression<Boolean> condition1 = new ConstantPredicateExpression(true);
+        Expression<Boolean> condition2 = null;
+
+        checkEquals(
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition1, false),
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition1, false),
+            true
+        );
+
+        checkEquals(
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition1, false),
+            new IndexNestedLoopJoinPlanNode(id2, upstream1, inner1, outerKeys1, condition1, false),
+            false
+        );
+
+        checkEquals(
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition1, false),
+            new IndexNestedLoopJoinPlanNode(id1, upstream2, inner1, outerKeys1, condition1, false),
+            false
+        );
+
+        checkEquals(
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition1, false),
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner2, outerKeys1, condition1, false),
+            false
+        );
+
+        checkEquals(
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition1, false),
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys2, condition1, false),
+            false
+        );
+
+        checkEquals(
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition1, false),
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition2, false),
+            false
+        );
+
+        checkEquals(
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition1, false),
+            new IndexNestedLoopJoinPlanNode(id1, upstream1, inner1, outerKeys1, condition1, true),
+            false
+        );
+    }
+
+    @Test
+    public void testSerialization() {
+        IndexNestedLoopJoinPlanNode original = new IndexNestedLoopJoinPlanNode(
+            1,
+            MockPlanNode.create(2, QueryDataType.INT),
+            createInner(1, "index"),
+            Collections.singletonList(0),
+            new ConstantPredicateExpression(true),
+            true
+        );
+
+        IndexNestedLoopJoinPlanNode restored = serializeAndCheck(original, SqlDataSerializerHook.NODE_INDEX_NESTED_LOOP_JOIN);
+
+        checkEquals(original, restored, true);
+    }
+
+    private static MapIndexScanPlanNode createInner(int id, String indexName) {
+        return new MapIndexScanPlanNode(
+            id,
+            "map",
+            GenericQueryTargetDescriptor.DEFAULT,
+            GenericQueryTargetDescriptor.DEFAULT,
+            Arrays.asList(valuePath("field1"), valuePath("field2")),
+            Arrays.asList(QueryDataType.INT, QueryDataType.BIGINT),
+            Collections.singletonList(1),
+            indexName,
+            1,
+            null,
+            Collections.singletonList(QueryDataType.INT),
+            null
+        );
+    }
+}
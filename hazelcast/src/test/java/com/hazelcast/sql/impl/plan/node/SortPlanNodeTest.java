@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.plan.node;
+
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.expression.ConstantExpression;
+import com.hazelcast.sql.impl.expression.Expression;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class SortPlanNodeTest extends SqlTestSupport {
+    @Test
+    public void testState() {
+        MockPlanNode upstream = MockPlanNode.create(1, QueryDataType.INT, QueryDataType.VARCHAR);
+        List<Integer> columns = Arrays.asList(1, 0);
+        List<Boolean> ascs = Arrays.asList(true, false);
+        Expression<?> fetch = ConstantExpression.create(10, QueryDataType.INT);
+        Expression<?> offset = ConstantExpression.create(5, QueryDataType.INT);
+
+        SortPlanNode node = new SortPlanNode(2, upstream, columns, ascs, fetch, offset);
+
+        assertEquals(2, node.getId());
+        assertEquals(upstream, node.getUpstream());
+        assertEquals(columns, node.getColumns());
+        assertEquals(ascs, node.getAscs());
+        assertEquals(fetch, node.getFetch());
+        assertEquals(offset, node.getOffset());
+        assertEquals(upstream.getSchema(), node.getSchema());
+    }
+
+    @Test
+    public void testEquality() {
+        int id1 = 1;
+        int id2 = 2;
+
+        MockPlanNode upstream1 = MockPlanNode.create(3, QueryDataType.INT, QueryDataType.BIGINT);
+        MockPlanNode upstream2 = MockPlanNode.create(3, QueryDataType.INT, QueryDataType.DOUBLE);
+
+        List<Integer> columns1 = Collections.singletonList(0);
+        List<Integer> columns2 = Collections.singletonList(1);
+
+        List<Boolean> ascs1 = Collections.singletonList(true);
+        List<Boolean> ascs2 = Collections.singletonList(false);
+
+        Expression<?> fetch1 = ConstantExpression.create(10, QueryDataType.INT);
+        Expression<?> fetch2 = ConstantExpression.create(20, QueryDataType.INT);
+
+        Expression<?> offset1 = ConstantExpression.create(5, QueryDataType.INT);
+
+        checkEquals(
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch1, offset1),
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch1, offset1),
+            true
+        );
+
+        checkEquals(
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch1, offset1),
+            new SortPlanNode(id2, upstream1, columns1, ascs1, fetch1, offset1),
+            false
+        );
+
+        checkEquals(
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch1, offset1),
+            new SortPlanNode(id1, upstream2, columns1, ascs1, fetch1, offset1),
+            false
+        );
+
+        checkEquals(
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch1, offset1),
+            new SortPlanNode(id1, upstream1, columns2, ascs1, fetch1, offset1),
+            false
+        );
+
+        checkEquals(
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch1, offset1),
+            new SortPlanNode(id1, upstream1, columns1, ascs2, fetch1, offset1),
+            false
+        );
+
+        checkEquals(
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch1, offset1),
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch2, offset1),
+            false
+        );
+
+        checkEquals(
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch1, offset1),
+            new SortPlanNode(id1, upstream1, columns1, ascs1, fetch1, null),
+            false
+        );
+    }
+
+    @Test
+    public void testSerialization() {
+        MockPlanNode upstream = MockPlanNode.create(1, QueryDataType.INT, QueryDataType.VARCHAR);
+
+        SortPlanNode original = new SortPlanNode(
+            2,
+            upstream,
+            Arrays.asList(1, 0),
+            Arrays.asList(true, false),
+            ConstantExpression.create(10, QueryDataType.INT),
+            null
+        );
+
+        SortPlanNode restored = serializeAndCheck(original, SqlDataSerializerHook.NODE_SORT);
+
+        checkEquals(original, restored, true);
+    }
+}
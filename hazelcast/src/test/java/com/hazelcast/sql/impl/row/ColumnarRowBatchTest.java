@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.sql.impl.row;
+
+import com.hazelcast.sql.impl.SqlDataSerializerHook;
+import com.hazelcast.sql.impl.SqlTestSupport;
+import com.hazelcast.sql.impl.type.QueryDataType;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ColumnarRowBatchTest extends SqlTestSupport {
+
+    private static final List<QueryDataType> TYPES = Arrays.asList(
+        QueryDataType.BOOLEAN,
+        QueryDataType.TINYINT,
+        QueryDataType.SMALLINT,
+        QueryDataType.INT,
+        QueryDataType.BIGINT,
+        QueryDataType.REAL,
+        QueryDataType.DOUBLE,
+        QueryDataType.VARCHAR,
+        QueryDataType.DECIMAL
+    );
+
+    @Test
+    public void testColumnarRowBatch() {
+        ColumnarRowBatch batch = createBatch(100);
+
+        assertEquals(100, batch.getRowCount());
+        assertEquals(TYPES.size(), batch.getColumnCount());
+
+        for (int i = 0; i < 100; i++) {
+            checkRow(batch.getRow(i), i);
+        }
+
+        ColumnarRow cursor = batch.createCursor();
+
+        for (int i = 0; i < 100; i++) {
+            cursor.setIndex(i);
+
+            checkRow(cursor, i);
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        ColumnarRowBatch batch = new ColumnarRowBatchBuilder(TYPES, 0).build();
+
+        assertEquals(0, batch.getRowCount());
+
+        ColumnarRowBatch restored = serializeAndCheck(batch, SqlDataSerializerHook.ROW_BATCH_COLUMNAR);
+
+        assertEquals(0, restored.getRowCount());
+        assertEquals(TYPES.size(), restored.getColumnCount());
+    }
+
+    @Test
+    public void testTypeMismatch() {
+        ColumnarRowBatchBuilder builder = new ColumnarRowBatchBuilder(Arrays.asList(QueryDataType.INT, QueryDataType.VARCHAR), 2);
+
+        builder.add(HeapRow.of(1, "a"));
+        builder.add(HeapRow.of(2L, 'b'));
+        builder.add(HeapRow.of(null, null));
+
+        ColumnarRowBatch batch = serializeAndCheck(builder.build(), SqlDataSerializerHook.ROW_BATCH_COLUMNAR);
+
+        assertEquals(3, batch.getRowCount());
+        assertEquals(1, (int) batch.getRow(0).get(0));
+        assertEquals("a", batch.getRow(0).get(1));
+        assertEquals(2L, (long) batch.getRow(1).get(0));
+        assertEquals('b', (char) batch.getRow(1).get(1));
+        assertNull(batch.getRow(2).get(0));
+        assertNull(batch.getRow(2).get(1));
+    }
+
+    @Test
+    public void testSelect() {
+        ColumnarRowBatch batch = createBatch(100);
+
+        // Select every third row, and then every second row of the result.
+        int[] indexes = new int[34];
+
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i * 3;
+        }
+
+        ColumnarRowBatch selected = batch.select(indexes, indexes.length);
+
+        assertEquals(34, selected.getRowCount());
+
+        for (int i = 0; i < selected.getRowCount(); i++) {
+            checkRow(selected.getRow(i), i * 3);
+        }
+
+        indexes = new int[17];
+
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i * 2;
+        }
+
+        selected = selected.select(indexes, indexes.length);
+
+        assertEquals(17, selected.getRowCount());
+
+        for (int i = 0; i < selected.getRowCount(); i++) {
+            checkRow(selected.getRow(i), i * 6);
+        }
+
+        // Only the selected rows are serialized.
+        ColumnarRowBatch restored = serializeAndCheck(selected, SqlDataSerializerHook.ROW_BATCH_COLUMNAR);
+
+        assertEquals(17, restored.getRowCount());
+
+        for (int i = 0; i < restored.getRowCount(); i++) {
+            checkRow(restored.getRow(i), i * 6);
+        }
+    }
+
+    @Test
+    public void testSerialization() {
+        ColumnarRowBatch original = createBatch(100);
+        ColumnarRowBatch restored = serializeAndCheck(original, SqlDataSerializerHook.ROW_BATCH_COLUMNAR);
+
+        assertEquals(original.getRowCount(), restored.getRowCount());
+        assertEquals(original.getColumnCount(), restored.getColumnCount());
+
+        for (int i = 0; i < 100; i++) {
+            checkRow(restored.getRow(i), i);
+        }
+    }
+
+    @Test
+    public void testAddFromBatch() {
+        ColumnarRowBatch source = createBatch(10);
+
+        ColumnarRowBatchBuilder builder = new ColumnarRowBatchBuilder(TYPES, 1);
+
+        for (int i = 0; i < source.getRowCount(); i++) {
+            builder.add(source, i);
+        }
+
+        ColumnarRowBatch batch = builder.build();
+
+        assertEquals(10, batch.getRowCount());
+
+        for (int i = 0; i < batch.getRowCount(); i++) {
+            checkRow(batch.getRow(i), i);
+        }
+    }
+
+    /**
+     * Create a batch where every column of every fifth row is null.
+     */
+    private static ColumnarRowBatch createBatch(int rowCount) {
+        ColumnarRowBatchBuilder builder = new ColumnarRowBatchBuilder(TYPES, 1);
+
+        for (int i = 0; i < rowCount; i++) {
+            builder.add(i % 5 == 0 ? new Object[TYPES.size()] : values(i));
+        }
+
+        return builder.build();
+    }
+
+    private static Object[] values(int value) {
+        return new Object[] {
+            value % 2 == 0,
+            (byte) value,
+            (short) value,
+            value,
+            (long) value,
+            (float) value,
+            (double) value,
+            "value-" + value + "-\u00e9",
+            new BigDecimal(value)
+        };
+    }
+
+    private static void checkRow(Row row, int value) {
+        assertEquals(TYPES.size(), row.getColumnCount());
+
+        Object[] expectedValues = value % 5 == 0 ? new Object[TYPES.size()] : values(value);
+
+        for (int i = 0; i < expectedValues.length; i++) {
+            assertEquals(expectedValues[i], row.get(i));
+        }
+    }
+}